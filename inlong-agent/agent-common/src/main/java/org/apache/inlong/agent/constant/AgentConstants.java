@@ -149,6 +149,21 @@ public class AgentConstants {
     public static final String TASK_PULL_MAX_SECOND = "task.pull.maxSecond";
     public static final int DEFAULT_TASK_PULL_MAX_SECOND = 2;
 
+    // readers and sinks of all tasks are scheduled on the shared pool
+    public static final String TASK_SCHEDULER_THREADS = "task.scheduler.threads";
+    public static final int DEFAULT_TASK_SCHEDULER_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    // max messages handled by a reader or sink in one scheduling, then yield to the others
+    public static final String TASK_SCHEDULER_QUANTUM = "task.scheduler.quantum";
+    public static final int DEFAULT_TASK_SCHEDULER_QUANTUM = 100;
+
+    // threads shared by all proxy sinks to flush the batches
+    public static final String PROXY_SINK_FLUSH_THREADS = "proxy.sink.flush.threads";
+    public static final int DEFAULT_PROXY_SINK_FLUSH_THREADS = Runtime.getRuntime().availableProcessors();
+    // threads shared by all proxy sinks to send the batches synchronously, out of the flush threads
+    public static final String PROXY_SINK_SYNC_SEND_THREADS = "proxy.sink.sync.send.threads";
+    public static final int DEFAULT_PROXY_SINK_SYNC_SEND_THREADS = Runtime.getRuntime().availableProcessors();
+
     public static final String CHANNEL_MEMORY_CAPACITY = "channel.memory.capacity";
     public static final int DEFAULT_CHANNEL_MEMORY_CAPACITY = 1000;
 
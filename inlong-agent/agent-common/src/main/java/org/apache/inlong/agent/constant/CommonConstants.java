@@ -96,6 +96,18 @@ public class CommonConstants {
     public static final String PROXY_RETRY_SLEEP = "proxy.retry.sleep";
     public static final long DEFAULT_PROXY_RETRY_SLEEP = 500;
 
+    // first backoff of a failed batch in ms, doubled by each retry and capped by proxy.retry.sleep
+    public static final String PROXY_RETRY_BACKOFF_BASE = "proxy.retry.backoff.base";
+    public static final long DEFAULT_PROXY_RETRY_BACKOFF_BASE = 20;
+
+    // max batches sent by one proxy sender and not acked yet
+    public static final String PROXY_SENDER_MAX_INFLIGHT_BATCH = "proxy.sender.maxInflightBatch";
+    public static final int DEFAULT_PROXY_SENDER_MAX_INFLIGHT_BATCH = 16;
+
+    // max bytes of messages written to proxy sink and not acked yet
+    public static final String PROXY_MAX_INFLIGHT_BYTES = "proxy.maxInflightBytes";
+    public static final int DEFAULT_PROXY_MAX_INFLIGHT_BYTES = 64 * 1024 * 1024;
+
     public static final String FIELD_SPLITTER = "proxy.field.splitter";
     public static final String DEFAULT_FIELD_SPLITTER = "|";
 
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+
+ */
+
+package org.apache.inlong.agent.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wrapper for the checkpoints of chunked reading, one key per completed chunk.
+ */
+public class ChunkCheckpointDb {
+
+    public static final String CHUNK_KEY_PREFIX = "chunk_";
+    public static final String CHUNK_BOUNDS_KEY_PREFIX = "chunkBounds_";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkCheckpointDb.class);
+    private final Db db;
+
+    public ChunkCheckpointDb(Db db) {
+        this.db = db;
+    }
+
+    /**
+     * get the completed chunk ids of one reading
+     *
+     * @param readKey key of the reading, such as job instance id and read source
+     * @return completed chunk ids
+     */
+    public Set<String> getFinishedChunks(String readKey) {
+        String prefix = getKeyPrefix(readKey);
+        List<KeyValueEntity> entityList = db.findAll(prefix);
+        Set<String> chunkIds = new HashSet<>();
+        for (KeyValueEntity entity : entityList) {
+            chunkIds.add(entity.getKey().substring(prefix.length()));
+        }
+        return chunkIds;
+    }
+
+    /**
+     * checkpoint one completed chunk
+     */
+    public void finishChunk(String readKey, String chunkId) {
+        KeyValueEntity entity = new KeyValueEntity(getKeyPrefix(readKey) + chunkId, chunkId, "");
+        entity.setStateSearchKey(StateSearchKey.SUCCESS);
+        db.put(entity);
+    }
+
+    /**
+     * get the bounds the chunks of one reading were split from
+     *
+     * @param readKey key of the reading, such as job instance id and read source
+     * @return min, max and chunk size, null if the reading is not split before
+     */
+    public long[] getChunkBounds(String readKey) {
+        KeyValueEntity entity = db.get(CHUNK_BOUNDS_KEY_PREFIX + readKey);
+        if (entity == null || entity.getJsonValue() == null) {
+            return null;
+        }
+        String[] values = entity.getJsonValue().split("_");
+        if (values.length != 3) {
+            LOGGER.warn("invalid chunk bounds {} of {}", entity.getJsonValue(), readKey);
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2])};
+        } catch (NumberFormatException e) {
+            LOGGER.warn("invalid chunk bounds {} of {}", entity.getJsonValue(), readKey);
+            return null;
+        }
+    }
+
+    /**
+     * save the bounds before any chunk is checkpointed, so that the chunk ids stay the same after restart
+     */
+    public void saveChunkBounds(String readKey, long[] bounds) {
+        String value = bounds[0] + "_" + bounds[1] + "_" + bounds[2];
+        KeyValueEntity entity = new KeyValueEntity(CHUNK_BOUNDS_KEY_PREFIX + readKey, value, "");
+        entity.setStateSearchKey(StateSearchKey.SUCCESS);
+        db.put(entity);
+    }
+
+    /**
+     * remove all checkpoints and the bounds of one reading after all chunks are read
+     */
+    public void removeChunks(String readKey) {
+        List<KeyValueEntity> entityList = db.findAll(getKeyPrefix(readKey));
+        for (KeyValueEntity entity : entityList) {
+            db.remove(entity.getKey());
+        }
+        if (db.get(CHUNK_BOUNDS_KEY_PREFIX + readKey) != null) {
+            db.remove(CHUNK_BOUNDS_KEY_PREFIX + readKey);
+        }
+        LOGGER.info("remove {} chunk checkpoints of {}", entityList.size(), readKey);
+    }
+
+    private String getKeyPrefix(String readKey) {
+        return CHUNK_KEY_PREFIX + readKey + "_";
+    }
+}
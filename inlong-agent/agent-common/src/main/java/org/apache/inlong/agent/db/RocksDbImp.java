@@ -31,21 +31,28 @@ import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * DB implement based on the Rocks DB.
+ * <p/>
+ * Key value entities are stored as JSON in the default column family, and indexed by state and by file name
+ * in two index column families, whose keys are the index value, a zero byte and the entity key.
  */
 public class RocksDbImp implements Db {
 
@@ -56,6 +63,10 @@ public class RocksDbImp implements Db {
     private final RocksDB db;
     private final String commandFamilyName = "command";
     private final String defaultFamilyName = "default";
+    private final String stateIndexFamilyName = "state_index";
+    private final String fileIndexFamilyName = "file_index";
+    private static final byte INDEX_SEPARATOR = 0;
+    private static final byte[] EMPTY_VALUE = new byte[0];
     private ConcurrentHashMap<String, ColumnFamilyHandle> columnHandlesMap;
     private ConcurrentHashMap<String, ColumnFamilyDescriptor> columnDescriptorMap;
     private String storePath;
@@ -66,6 +77,14 @@ public class RocksDbImp implements Db {
         this.db = initEnv();
         // add a command column family
         addColumnFamily(commandFamilyName);
+        // add the index column families, and build them for the entities stored before
+        boolean indexMissing = !columnHandlesMap.containsKey(stateIndexFamilyName)
+                || !columnHandlesMap.containsKey(fileIndexFamilyName);
+        addColumnFamily(stateIndexFamilyName);
+        addColumnFamily(fileIndexFamilyName);
+        if (indexMissing) {
+            rebuildIndex();
+        }
     }
 
     private static ColumnFamilyDescriptor getColumnFamilyDescriptor(byte[] columnFamilyName) {
@@ -145,12 +164,116 @@ public class RocksDbImp implements Db {
         });
     }
 
+    /**
+     * index all the entities, the stored values are not changed
+     */
+    private synchronized void rebuildIndex() {
+        long count = 0;
+        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName));
+                WriteOptions writeOptions = new WriteOptions()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+                try (WriteBatch batch = new WriteBatch()) {
+                    putIndex(batch, it.key(), toEntity(it.value()));
+                    db.write(writeOptions, batch);
+                }
+                count++;
+            }
+        } catch (RocksDBException e) {
+            throw new RuntimeException("rebuild index of rocks db error", e);
+        }
+        LOGGER.info("rebuild index of {} key value entities", count);
+    }
+
+    private static KeyValueEntity toEntity(byte[] bytes) {
+        return GSON.fromJson(new String(bytes), KeyValueEntity.class);
+    }
+
+    private static byte[] indexKey(String indexValue, byte[] key) {
+        byte[] prefix = indexPrefix(indexValue);
+        byte[] indexKey = Arrays.copyOf(prefix, prefix.length + key.length);
+        System.arraycopy(key, 0, indexKey, prefix.length, key.length);
+        return indexKey;
+    }
+
+    private static byte[] indexPrefix(String indexValue) {
+        byte[] value = indexValue.getBytes();
+        byte[] prefix = Arrays.copyOf(value, value.length + 1);
+        prefix[value.length] = INDEX_SEPARATOR;
+        return prefix;
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void putIndex(WriteBatch batch, byte[] key, KeyValueEntity entity) throws RocksDBException {
+        if (entity.getStateSearchKey() != null) {
+            batch.put(columnHandlesMap.get(stateIndexFamilyName),
+                    indexKey(entity.getStateSearchKey().name(), key), EMPTY_VALUE);
+        }
+        if (entity.getFileName() != null) {
+            batch.put(columnHandlesMap.get(fileIndexFamilyName), indexKey(entity.getFileName(), key), EMPTY_VALUE);
+        }
+    }
+
+    private void deleteIndex(WriteBatch batch, byte[] key, KeyValueEntity entity) throws RocksDBException {
+        if (entity.getStateSearchKey() != null) {
+            batch.delete(columnHandlesMap.get(stateIndexFamilyName),
+                    indexKey(entity.getStateSearchKey().name(), key));
+        }
+        if (entity.getFileName() != null) {
+            batch.delete(columnHandlesMap.get(fileIndexFamilyName), indexKey(entity.getFileName(), key));
+        }
+    }
+
+    /**
+     * iterate the index from the prefix, and get the entities from the default column family
+     *
+     * @param indexFamilyName index column family
+     * @param prefix prefix of the index keys
+     * @param indexPrefixLength length of the index value and the separator
+     * @param filter check of the entity, skips stale index entries
+     * @param limit max number of results
+     */
+    private List<KeyValueEntity> searchIndex(String indexFamilyName, byte[] prefix, int indexPrefixLength,
+            Predicate<KeyValueEntity> filter, int limit) {
+        List<KeyValueEntity> results = new LinkedList<>();
+        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(indexFamilyName))) {
+            for (it.seek(prefix); it.isValid() && results.size() < limit; it.next()) {
+                byte[] indexKey = it.key();
+                if (!startsWith(indexKey, prefix)) {
+                    break;
+                }
+                byte[] key = Arrays.copyOfRange(indexKey, indexPrefixLength, indexKey.length);
+                byte[] bytes = db.get(columnHandlesMap.get(defaultFamilyName), key);
+                if (bytes == null) {
+                    continue;
+                }
+                KeyValueEntity entity = toEntity(bytes);
+                if (filter.test(entity)) {
+                    results.add(entity);
+                }
+            }
+        } catch (RocksDBException e) {
+            throw new RuntimeException("search index of rocks db error", e);
+        }
+        return results;
+    }
+
     @Override
     public KeyValueEntity get(String key) {
         requireNonNull(key);
         try {
             byte[] bytes = db.get(columnHandlesMap.get(defaultFamilyName), key.getBytes());
-            return bytes == null ? null : GSON.fromJson(new String(bytes), KeyValueEntity.class);
+            return bytes == null ? null : toEntity(bytes);
         } catch (Exception e) {
             throw new RuntimeException("get key value entity error", e);
         }
@@ -183,11 +306,22 @@ public class RocksDbImp implements Db {
         put(entity);
     }
 
+    /**
+     * put the entity and update its index entries in one write batch,
+     * writes are serialized to keep the index consistent with the old value
+     */
     @Override
-    public KeyValueEntity put(KeyValueEntity entity) {
+    public synchronized KeyValueEntity put(KeyValueEntity entity) {
         requireNonNull(entity);
-        try {
-            db.put(columnHandlesMap.get(defaultFamilyName), entity.getKey().getBytes(), GSON.toJson(entity).getBytes());
+        byte[] key = entity.getKey().getBytes();
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            byte[] oldBytes = db.get(columnHandlesMap.get(defaultFamilyName), key);
+            if (oldBytes != null) {
+                deleteIndex(batch, key, toEntity(oldBytes));
+            }
+            batch.put(columnHandlesMap.get(defaultFamilyName), key, GSON.toJson(entity).getBytes());
+            putIndex(batch, key, entity);
+            db.write(writeOptions, batch);
         } catch (Exception e) {
             throw new RuntimeException("put value to rocks db error", e);
         }
@@ -195,15 +329,18 @@ public class RocksDbImp implements Db {
     }
 
     @Override
-    public KeyValueEntity remove(String key) {
+    public synchronized KeyValueEntity remove(String key) {
         requireNonNull(key);
         KeyValueEntity keyValueEntity = get(key);
         if (keyValueEntity == null) {
             LOGGER.warn("no key {} exist in rocksdb", key);
             return null;
         }
-        try {
-            db.delete(columnHandlesMap.get(defaultFamilyName), key.getBytes());
+        byte[] keyBytes = key.getBytes();
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            batch.delete(columnHandlesMap.get(defaultFamilyName), keyBytes);
+            deleteIndex(batch, keyBytes, keyValueEntity);
+            db.write(writeOptions, batch);
             return keyValueEntity;
         } catch (Exception e) {
             throw new RuntimeException("remove value from rocks db error", e);
@@ -212,34 +349,17 @@ public class RocksDbImp implements Db {
 
     @Override
     public List<KeyValueEntity> searchWithKeyPrefix(StateSearchKey searchKey, String keyPrefix) {
-        List<KeyValueEntity> results = new LinkedList<>();
-        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName))) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                KeyValueEntity keyValue = GSON.fromJson(new String(it.value()), KeyValueEntity.class);
-                if (keyValue.getStateSearchKey().equals(searchKey) && keyValue.getKey().startsWith(keyPrefix)) {
-                    results.add(keyValue);
-                }
-                it.next();
-            }
-        }
-        return results;
+        int indexPrefixLength = indexPrefix(searchKey.name()).length;
+        return searchIndex(stateIndexFamilyName, indexKey(searchKey.name(), keyPrefix.getBytes()),
+                indexPrefixLength, keyValue -> searchKey.equals(keyValue.getStateSearchKey())
+                        && keyValue.getKey().startsWith(keyPrefix), Integer.MAX_VALUE);
     }
 
     @Override
     public List<KeyValueEntity> search(StateSearchKey searchKey) {
-        List<KeyValueEntity> results = new LinkedList<>();
-        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName))) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                KeyValueEntity keyValue = GSON.fromJson(new String(it.value()), KeyValueEntity.class);
-                if (keyValue.getStateSearchKey().equals(searchKey)) {
-                    results.add(keyValue);
-                }
-                it.next();
-            }
-        }
-        return results;
+        byte[] prefix = indexPrefix(searchKey.name());
+        return searchIndex(stateIndexFamilyName, prefix, prefix.length,
+                keyValue -> searchKey.equals(keyValue.getStateSearchKey()), Integer.MAX_VALUE);
     }
 
     @Override
@@ -260,45 +380,27 @@ public class RocksDbImp implements Db {
 
     @Override
     public KeyValueEntity searchOne(StateSearchKey searchKey) {
-        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName))) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                KeyValueEntity keyValue = GSON.fromJson(new String(it.value()), KeyValueEntity.class);
-                if (keyValue.getStateSearchKey().equals(searchKey)) {
-                    return keyValue;
-                }
-                it.next();
-            }
-        }
-        return null;
+        byte[] prefix = indexPrefix(searchKey.name());
+        List<KeyValueEntity> results = searchIndex(stateIndexFamilyName, prefix, prefix.length,
+                keyValue -> searchKey.equals(keyValue.getStateSearchKey()), 1);
+        return results.isEmpty() ? null : results.get(0);
     }
 
     @Override
     public KeyValueEntity searchOne(String fileName) {
-        try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName))) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                KeyValueEntity keyValue = GSON.fromJson(new String(it.value()), KeyValueEntity.class);
-                if (keyValue.getFileName().equals(fileName)) {
-                    return keyValue;
-                }
-                it.next();
-            }
-        }
-        return null;
+        byte[] prefix = indexPrefix(fileName);
+        List<KeyValueEntity> results = searchIndex(fileIndexFamilyName, prefix, prefix.length,
+                keyValue -> fileName.equals(keyValue.getFileName()), 1);
+        return results.isEmpty() ? null : results.get(0);
     }
 
     @Override
     public List<KeyValueEntity> findAll(String prefix) {
         List<KeyValueEntity> results = new LinkedList<>();
+        byte[] prefixBytes = prefix.getBytes();
         try (final RocksIterator it = db.newIterator(columnHandlesMap.get(defaultFamilyName))) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                KeyValueEntity keyValue = GSON.fromJson(new String(it.value()), KeyValueEntity.class);
-                if (keyValue.getKey().startsWith(prefix)) {
-                    results.add(keyValue);
-                }
-                it.next();
+            for (it.seek(prefixBytes); it.isValid() && startsWith(it.key(), prefixBytes); it.next()) {
+                results.add(toEntity(it.value()));
             }
         }
         return results;
@@ -51,6 +51,15 @@ public class TaskJmxMetrics extends MetricItem implements TaskMetrics {
     @CountMetric
     private final AtomicLong fatalTasks = new AtomicLong(0);
 
+    @CountMetric
+    private final AtomicLong scheduleCount = new AtomicLong(0);
+
+    @CountMetric
+    private final AtomicLong scheduleLatencyMs = new AtomicLong(0);
+
+    @GaugeMetric
+    private final AtomicLong maxScheduleLatencyMs = new AtomicLong(0);
+
     private TaskJmxMetrics() {
     }
 
@@ -87,4 +96,19 @@ public class TaskJmxMetrics extends MetricItem implements TaskMetrics {
     public void incFatalTaskCount() {
         fatalTasks.incrementAndGet();
     }
+
+    @Override
+    public void recordScheduleLatency(String taskId, long latencyMs) {
+        scheduleCount.incrementAndGet();
+        scheduleLatencyMs.addAndGet(latencyMs);
+        long curMax = maxScheduleLatencyMs.get();
+        while (latencyMs > curMax && !maxScheduleLatencyMs.compareAndSet(curMax, latencyMs)) {
+            curMax = maxScheduleLatencyMs.get();
+        }
+    }
+
+    @Override
+    public void removeTask(String taskId) {
+        // jmx metrics are aggregated for all tasks
+    }
 }
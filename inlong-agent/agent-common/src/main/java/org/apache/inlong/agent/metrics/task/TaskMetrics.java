@@ -46,4 +46,14 @@ public interface TaskMetrics {
      */
     void incFatalTaskCount();
 
+    /**
+     * Record the latency between a reader or sink of the task being ready and being run by the scheduler.
+     */
+    void recordScheduleLatency(String taskId, long latencyMs);
+
+    /**
+     * Remove the metrics of one task.
+     */
+    void removeTask(String taskId);
+
 }
@@ -21,6 +21,7 @@ package org.apache.inlong.agent.metrics.task;
 
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
 
 public class TaskPrometheusMetrics implements TaskMetrics {
 
@@ -29,6 +30,7 @@ public class TaskPrometheusMetrics implements TaskMetrics {
     public static final String RUNNING_TASK_GAUGE_NAME = "running_task_count";
     public static final String RETRYING_TASK_GAUGE_NAME = "retrying_task_count";
     public static final String FATAL_TASK_COUNTER_NAME = "fatal_task_count";
+    public static final String SCHEDULE_LATENCY_SUMMARY_NAME = "schedule_latency_ms";
 
     private static final String AGENT_TASK = "AgentTaskMetric";
 
@@ -49,6 +51,14 @@ public class TaskPrometheusMetrics implements TaskMetrics {
             .help("The total number of current fatal tasks.")
             .register();
 
+    private static final Summary SCHEDULE_LATENCY_SUMMARY = Summary.build()
+            .name(AGENT_TASK_METRICS_PREFIX + SCHEDULE_LATENCY_SUMMARY_NAME)
+            .help("The latency between the task being ready and being scheduled.")
+            .labelNames("module", "task")
+            .quantile(0.5, 0.05)
+            .quantile(0.99, 0.001)
+            .register();
+
     @Override
     public void incRunningTaskCount() {
         RUNNING_TASK_GAUGE.labels(AGENT_TASK).inc();
@@ -73,4 +83,14 @@ public class TaskPrometheusMetrics implements TaskMetrics {
     public void incFatalTaskCount() {
         FATAL_TASK_COUNTER.labels(AGENT_TASK).inc();
     }
+
+    @Override
+    public void recordScheduleLatency(String taskId, long latencyMs) {
+        SCHEDULE_LATENCY_SUMMARY.labels(AGENT_TASK, taskId).observe(latencyMs);
+    }
+
+    @Override
+    public void removeTask(String taskId) {
+        SCHEDULE_LATENCY_SUMMARY.remove(AGENT_TASK, taskId);
+    }
 }
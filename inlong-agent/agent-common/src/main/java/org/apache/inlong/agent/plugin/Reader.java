@@ -24,12 +24,22 @@ package org.apache.inlong.agent.plugin;
 public interface Reader extends Stage {
 
     /**
-     * Read message
+     * Read message without blocking, the reader is run on the threads shared by all tasks
      *
-     * @return message
+     * @return message, null if there is no data now
      */
     Message read();
 
+    /**
+     * Milliseconds to wait before reading again after read returns null, such as the wait for new data
+     * or for the flow control, instead of sleeping in read
+     *
+     * @return positive wait time, or 0 to use the read wait time of the task
+     */
+    default long getReadWaitMillis() {
+        return 0;
+    }
+
     /**
      * Whether finish reading
      */
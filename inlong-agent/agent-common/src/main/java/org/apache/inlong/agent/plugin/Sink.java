@@ -31,6 +31,18 @@ public interface Sink extends Stage {
      */
     void write(Message message);
 
+    /**
+     * Write data into data center without blocking
+     *
+     * @param message message
+     * @return false if the sink can not take the message now, the caller keeps it and writes it again
+     *         once the sink is writable
+     */
+    default boolean tryWrite(Message message) {
+        write(message);
+        return true;
+    }
+
     /**
      * set source file name where the message is generated
      *
@@ -42,4 +54,17 @@ public interface Sink extends Stage {
      * every sink should include a message filter to filter out stream id
      */
     MessageFilter initMessageFilter(JobProfile jobConf);
+
+    /**
+     * whether the sink can accept message without blocking, the writer is parked until it is writable
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * set the listener called when the sink becomes writable again
+     */
+    default void setWritableListener(Runnable listener) {
+    }
 }
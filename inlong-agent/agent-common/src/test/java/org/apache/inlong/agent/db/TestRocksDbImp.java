@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.apache.inlong.agent.constant.JobConstants.JOB_ID;
 import static org.apache.inlong.agent.constant.JobConstants.JOB_ID_PREFIX;
@@ -115,6 +116,32 @@ public class TestRocksDbImp {
         Assert.assertEquals("searchKey1", entityResult.getKey());
     }
 
+    @Test
+    public void testStateIndex() {
+        db.put(new KeyValueEntity("index1", "value1", "file1").setStateSearchKey(StateSearchKey.RUNNING));
+        db.put(new KeyValueEntity("index2", "value2", "file2").setStateSearchKey(StateSearchKey.RUNNING));
+        db.put(new KeyValueEntity("other1", "value3", "file3").setStateSearchKey(StateSearchKey.RUNNING));
+        List<KeyValueEntity> entityList = db.searchWithKeyPrefix(StateSearchKey.RUNNING, "index");
+        Assert.assertEquals(2, entityList.size());
+
+        // the index follows the state change
+        db.put(new KeyValueEntity("index1", "value1", "file1").setStateSearchKey(StateSearchKey.FAILED));
+        List<String> runningKeys = db.search(StateSearchKey.RUNNING).stream()
+                .map(KeyValueEntity::getKey).collect(Collectors.toList());
+        Assert.assertFalse(runningKeys.contains("index1"));
+        Assert.assertTrue(runningKeys.contains("index2"));
+        Assert.assertEquals("index1", db.searchOne(StateSearchKey.FAILED).getKey());
+        Assert.assertEquals("index1", db.searchOne("file1").getKey());
+        Assert.assertEquals(2, db.findAll("index").size());
+
+        db.remove("index1");
+        db.remove("index2");
+        db.remove("other1");
+        Assert.assertNull(db.searchOne(StateSearchKey.FAILED));
+        Assert.assertNull(db.searchOne("file1"));
+        Assert.assertTrue(db.searchWithKeyPrefix(StateSearchKey.RUNNING, "index").isEmpty());
+    }
+
     @Test
     public void testBinlogJobStore() {
         JobProfile jobProfile = JobProfile.parseJsonFile("binlogJob.json");
@@ -18,7 +18,6 @@
 package org.apache.inlong.agent.core.task;
 
 import org.apache.inlong.agent.common.AbstractDaemon;
-import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.constant.AgentConstants;
 import org.apache.inlong.agent.core.AgentManager;
@@ -32,8 +31,6 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,8 +41,8 @@ public class TaskManager extends AbstractDaemon {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskManager.class);
 
-    // task thread pool;
-    private final ThreadPoolExecutor runningPool;
+    // shared scheduler of all tasks
+    private final TaskScheduler taskScheduler;
     private final AgentManager agentManager;
     private final TaskMetrics taskMetrics;
     private final ConcurrentHashMap<String, TaskWrapper> tasks;
@@ -62,16 +59,13 @@ public class TaskManager extends AbstractDaemon {
      */
     public TaskManager(AgentManager agentManager) {
         this.agentManager = agentManager;
-        this.runningPool = new ThreadPoolExecutor(
-                0, Integer.MAX_VALUE,
-                60L, TimeUnit.SECONDS,
-                new SynchronousQueue<>(),
-                new AgentThreadFactory("task"));
         // metric for task level
         this.taskMetrics = AgentMetricSingleton.getAgentMetricHandler().taskMetrics;
 
         tasks = new ConcurrentHashMap<>();
         AgentConfiguration conf = AgentConfiguration.getAgentConf();
+        this.taskScheduler = new TaskScheduler(conf.getInt(AgentConstants.TASK_SCHEDULER_THREADS,
+                AgentConstants.DEFAULT_TASK_SCHEDULER_THREADS), taskMetrics);
         retryTasks = new LinkedBlockingQueue<>(
                 conf.getInt(
                         AgentConstants.TASK_RETRY_MAX_CAPACITY, AgentConstants.DEFAULT_TASK_RETRY_MAX_CAPACITY));
@@ -95,6 +89,15 @@ public class TaskManager extends AbstractDaemon {
         return taskMetrics;
     }
 
+    /**
+     * Get the scheduler shared by all tasks
+     *
+     * @return task scheduler
+     */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
     public TaskWrapper getTaskWrapper(String taskId) {
         return tasks.get(taskId);
     }
@@ -117,7 +120,7 @@ public class TaskManager extends AbstractDaemon {
             boolean notSubmitted = true;
             while (notSubmitted) {
                 try {
-                    this.runningPool.submit(wrapper);
+                    this.taskScheduler.execute(wrapper);
                     notSubmitted = false;
                 } catch (Exception ex) {
                     AgentUtils.silenceSleepInMs(waitTime);
@@ -187,6 +190,7 @@ public class TaskManager extends AbstractDaemon {
      */
     public void removeTask(String taskId) {
         taskMetrics.decRunningTaskCount();
+        taskMetrics.removeTask(taskId);
         TaskWrapper taskWrapper = tasks.remove(taskId);
         if (taskWrapper != null) {
             taskWrapper.destroyTask();
@@ -256,6 +260,6 @@ public class TaskManager extends AbstractDaemon {
     @Override
     public void stop() throws Exception {
         waitForTerminate();
-        this.runningPool.shutdown();
+        this.taskScheduler.shutdown();
     }
 }
@@ -21,6 +21,7 @@ import org.apache.inlong.agent.common.AbstractDaemon;
 import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.JobProfile;
 import org.apache.inlong.agent.core.AgentManager;
+import org.apache.inlong.agent.db.ChunkCheckpointDb;
 import org.apache.inlong.agent.db.JobProfileDb;
 import org.apache.inlong.agent.utils.ThreadUtils;
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ public class TaskPositionManager extends AbstractDaemon {
     private static volatile TaskPositionManager taskPositionManager = null;
     private final AgentManager agentManager;
     private final JobProfileDb jobConfDb;
+    private final ChunkCheckpointDb chunkCheckpointDb;
     private final AgentConfiguration conf;
     private ConcurrentHashMap<String, ConcurrentHashMap<String, Long>> jobTaskPositionMap;
 
@@ -51,6 +53,7 @@ public class TaskPositionManager extends AbstractDaemon {
         this.conf = AgentConfiguration.getAgentConf();
         this.agentManager = agentManager;
         this.jobConfDb = agentManager.getJobManager().getJobConfDb();
+        this.chunkCheckpointDb = new ChunkCheckpointDb(agentManager.getDb());
         this.jobTaskPositionMap = new ConcurrentHashMap<>();
     }
 
@@ -78,6 +81,13 @@ public class TaskPositionManager extends AbstractDaemon {
         return taskPositionManager;
     }
 
+    /**
+     * get the checkpoint db of chunked reading
+     */
+    public ChunkCheckpointDb getChunkCheckpointDb() {
+        return chunkCheckpointDb;
+    }
+
     @Override
     public void start() throws Exception {
         submitWorker(taskPositionFlushThread());
@@ -145,6 +155,18 @@ public class TaskPositionManager extends AbstractDaemon {
         position.put(sourcePath, beforePosition + size);
     }
 
+    /**
+     * get message number acked by the sink of the source, the position starts from 1
+     */
+    public long getSinkAckedNum(String jobInstanceId, String sourcePath) {
+        ConcurrentHashMap<String, Long> position = jobTaskPositionMap.get(jobInstanceId);
+        if (position == null) {
+            return 0L;
+        }
+        Long sinkPosition = position.get(sourcePath);
+        return sinkPosition == null ? 0L : sinkPosition - 1;
+    }
+
     public ConcurrentHashMap<String, Long> getTaskPositionMap(String jobId) {
         return jobTaskPositionMap.get(jobId);
     }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.core.task;
+
+import org.apache.inlong.agent.common.AgentThreadFactory;
+import org.apache.inlong.agent.metrics.task.TaskMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shared scheduler of the readers and sinks of all tasks. A step runs one quantum of work and yields,
+ * when it can not make progress, it is parked until woken by a readiness event, such as channel space
+ * or sender capacity, or until the given delay passes, such as waiting for file growth.
+ */
+public class TaskScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final TaskMetrics taskMetrics;
+
+    public TaskScheduler(int threadNum, TaskMetrics taskMetrics) {
+        this.executor = new ScheduledThreadPoolExecutor(threadNum, new AgentThreadFactory("task-scheduler"));
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.taskMetrics = taskMetrics;
+    }
+
+    /**
+     * run the command on the shared pool
+     */
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * run the command on the shared pool after the delay
+     */
+    public void schedule(Runnable command, long delay, TimeUnit unit) {
+        executor.schedule(command, delay, unit);
+    }
+
+    /**
+     * wake up the step if it is parked, or let it run again if it is running
+     */
+    public void wakeup(Step step) {
+        while (true) {
+            int state = step.state.get();
+            if (state == Step.IDLE) {
+                if (step.state.compareAndSet(Step.IDLE, Step.QUEUED)) {
+                    cancelParkTimer(step);
+                    step.readyTime = System.currentTimeMillis();
+                    executor.execute(() -> runStep(step));
+                    return;
+                }
+            } else if (state == Step.RUNNING) {
+                if (step.state.compareAndSet(Step.RUNNING, Step.NOTIFIED)) {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void runStep(Step step) {
+        step.state.set(Step.RUNNING);
+        long startTime = System.currentTimeMillis();
+        taskMetrics.recordScheduleLatency(step.taskId, startTime - step.readyTime);
+        long delayMs;
+        try {
+            delayMs = step.runOnce();
+        } catch (Throwable t) {
+            LOGGER.error("step {} of task {} throws exception", step.name, step.taskId, t);
+            step.state.set(Step.DONE);
+            step.onError(t);
+            return;
+        }
+        if (delayMs < 0) {
+            step.state.set(Step.DONE);
+            step.onDone();
+            return;
+        }
+        if (step.state.compareAndSet(Step.RUNNING, Step.IDLE)) {
+            if (delayMs == 0) {
+                wakeup(step);
+            } else {
+                parkStep(step, delayMs);
+            }
+        } else {
+            // woken while running, run again
+            step.state.set(Step.IDLE);
+            wakeup(step);
+        }
+    }
+
+    /**
+     * keep one pending timer per parked step, the timer is cancelled once the step is woken by an event
+     */
+    private void parkStep(Step step, long delayMs) {
+        ScheduledFuture<?> timer = executor.schedule(() -> wakeup(step), delayMs, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = step.parkTimer.getAndSet(timer);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        if (step.state.get() != Step.IDLE) {
+            // woken before the timer is kept
+            cancelParkTimer(step);
+        }
+    }
+
+    private void cancelParkTimer(Step step) {
+        ScheduledFuture<?> timer = step.parkTimer.getAndSet(null);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * number of the commands waiting in the pool, including the timers of the parked steps
+     */
+    public int getQueuedNum() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * One schedulable part of a task, such as reading or writing, only one thread runs it at a time.
+     */
+    public abstract static class Step {
+
+        private static final int IDLE = 0;
+        private static final int QUEUED = 1;
+        private static final int RUNNING = 2;
+        private static final int NOTIFIED = 3;
+        private static final int DONE = 4;
+
+        private final String taskId;
+        private final String name;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private final AtomicReference<ScheduledFuture<?>> parkTimer = new AtomicReference<>();
+        private volatile long readyTime;
+
+        protected Step(String taskId, String name) {
+            this.taskId = taskId;
+            this.name = name;
+        }
+
+        /**
+         * run one quantum of work
+         *
+         * @return 0 to run again after the others, positive delay in millisecond to park until woken
+         *         or the delay passes, negative if the step is done
+         */
+        protected abstract long runOnce();
+
+        /**
+         * called once the step is done
+         */
+        protected abstract void onDone();
+
+        /**
+         * called once the step throws exception, the step is done
+         */
+        protected abstract void onError(Throwable t);
+
+        public boolean isDone() {
+            return state.get() == DONE;
+        }
+    }
+}
@@ -17,7 +17,6 @@
 
 package org.apache.inlong.agent.core.task;
 
-import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.constant.AgentConstants;
 import org.apache.inlong.agent.core.AgentManager;
@@ -25,14 +24,9 @@ import org.apache.inlong.agent.message.EndMessage;
 import org.apache.inlong.agent.plugin.Message;
 import org.apache.inlong.agent.state.AbstractStateWrapper;
 import org.apache.inlong.agent.state.State;
-import org.apache.inlong.agent.utils.AgentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,7 +35,7 @@ import static org.apache.inlong.agent.constant.JobConstants.JOB_READ_WAIT_TIMEOU
 
 /**
  * TaskWrapper is used in taskManager, it maintains the life cycle of
- * running task.
+ * running task. The reader and the sink of the task are run as steps of the shared {@link TaskScheduler}.
  */
 public class TaskWrapper extends AbstractStateWrapper {
 
@@ -56,11 +50,16 @@ public class TaskWrapper extends AbstractStateWrapper {
     private final int pushMaxWaitTime;
     private final int pullMaxWaitTime;
     private final int readWaitTime;
-    private ExecutorService executorService;
+    private final int quantum;
+    private final TaskScheduler scheduler;
+    private final AtomicInteger runningSteps = new AtomicInteger(0);
+    private ReadStep readStep;
+    private WriteStep writeStep;
 
     public TaskWrapper(AgentManager manager, Task task) {
         super();
         this.taskManager = manager.getTaskManager();
+        this.scheduler = taskManager.getTaskScheduler();
         this.task = task;
         AgentConfiguration conf = AgentConfiguration.getAgentConf();
         maxRetryTime = conf.getInt(
@@ -70,74 +69,11 @@ public class TaskWrapper extends AbstractStateWrapper {
         pullMaxWaitTime = conf.getInt(
                 AgentConstants.TASK_PULL_MAX_SECOND, AgentConstants.DEFAULT_TASK_PULL_MAX_SECOND);
         readWaitTime = conf.getInt(JOB_READ_WAIT_TIMEOUT, DEFAULT_JOB_READ_WAIT_TIMEOUT);
-        if (executorService == null) {
-            executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
-                    60L, TimeUnit.SECONDS,
-                    new SynchronousQueue<Runnable>(),
-                    new AgentThreadFactory("task-reader-writer"));
-        }
+        quantum = conf.getInt(
+                AgentConstants.TASK_SCHEDULER_QUANTUM, AgentConstants.DEFAULT_TASK_SCHEDULER_QUANTUM);
         doChangeState(State.ACCEPTED);
     }
 
-    /**
-     * submit read thread
-     *
-     * @return CompletableFuture
-     */
-    private CompletableFuture<?> submitReadThread() {
-        return CompletableFuture.runAsync(() -> {
-            Message message = null;
-            while (!isException() && !task.isReadFinished()) {
-                // if source deleted,then failed
-                if (!task.getReader().isSourceExist()) {
-                    doChangeState(State.FAILED);
-                } else {
-                    if (message == null
-                            || task.getChannel().push(message, pushMaxWaitTime, TimeUnit.SECONDS)) {
-                        message = task.getReader().read();
-                    }
-                }
-                AgentUtils.silenceSleepInMs(readWaitTime);
-            }
-            LOGGER.info("read end, task exception status is {}, read finish status is {}", isException(),
-                    task.isReadFinished());
-            // write end message
-            task.getChannel().push(new EndMessage());
-            task.getReader().destroy();
-        }, executorService);
-    }
-
-    /**
-     * submit write thread
-     *
-     * @return CompletableFuture
-     */
-    private CompletableFuture<?> submitWriteThread() {
-        return CompletableFuture.runAsync(() -> {
-            while (!isException()) {
-                Message message = task.getChannel().pull(pullMaxWaitTime, TimeUnit.SECONDS);
-                if (message instanceof EndMessage) {
-                    break;
-                }
-                task.getSink().write(message);
-            }
-        }, executorService);
-    }
-
-    /**
-     * submit reader/writer
-     */
-    private void submitThreadsAndWait() {
-        CompletableFuture<?> reader = submitReadThread();
-        CompletableFuture<?> writer = submitWriteThread();
-        CompletableFuture.allOf(reader, writer)
-                .exceptionally(ex -> {
-                    doChangeState(State.FAILED);
-                    LOGGER.error("exception caught", ex);
-                    return null;
-                }).join();
-    }
-
     /**
      * kill task
      */
@@ -199,22 +135,183 @@ public class TaskWrapper extends AbstractStateWrapper {
         });
     }
 
+    /**
+     * delay the start of task without holding a thread of the scheduler
+     */
     @Override
     public void run() {
+        LOGGER.info("start to run {}, retry time is {}", task.getTaskId(), retryTime.get());
+        scheduler.schedule(this::startSteps, WAIT_BEGIN_TIME_MINUTE, TimeUnit.MINUTES);
+    }
+
+    /**
+     * init task and submit the read and write steps
+     */
+    private void startSteps() {
         try {
-            LOGGER.info("start to run {}, retry time is {}", task.getTaskId(), retryTime.get());
-            AgentUtils.silenceSleepInMinute(WAIT_BEGIN_TIME_MINUTE);
             doChangeState(State.RUNNING);
             task.init();
-            submitThreadsAndWait();
+            readStep = new ReadStep();
+            writeStep = new WriteStep();
+            runningSteps.set(2);
+            // wake up the writer once the sink has capacity again
+            task.getSink().setWritableListener(() -> scheduler.wakeup(writeStep));
+            scheduler.wakeup(readStep);
+            scheduler.wakeup(writeStep);
+        } catch (Exception ex) {
+            LOGGER.error("error while running wrapper", ex);
+            doChangeState(State.FAILED);
+        }
+    }
+
+    /**
+     * called when one step is done, finish the task after both reader and writer are done
+     */
+    private void onStepDone() {
+        if (runningSteps.decrementAndGet() > 0) {
+            return;
+        }
+        LOGGER.info("read and write end, task exception status is {}, read finish status is {}",
+                isException(), task.isReadFinished());
+        try {
             if (!isException()) {
                 doChangeState(State.SUCCEEDED);
             }
             LOGGER.info("start to destroy task {}", task.getTaskId());
             task.destroy();
         } catch (Exception ex) {
-            LOGGER.error("error while running wrapper", ex);
+            LOGGER.error("error while destroy task", ex);
             doChangeState(State.FAILED);
         }
     }
+
+    private void onStepError(Throwable t) {
+        LOGGER.error("exception caught", t);
+        doChangeState(State.FAILED);
+        // let the other step see the exception and end
+        scheduler.wakeup(readStep);
+        scheduler.wakeup(writeStep);
+        onStepDone();
+    }
+
+    /**
+     * read from the reader and push into the channel, parked when there is no data or the channel is full
+     */
+    private class ReadStep extends TaskScheduler.Step {
+
+        private Message pending;
+        private boolean endPushed = false;
+
+        ReadStep() {
+            super(task.getTaskId(), "reader");
+        }
+
+        @Override
+        protected long runOnce() {
+            for (int i = 0; i < quantum; i++) {
+                if (isException() || task.isReadFinished()) {
+                    // write end message, no need to wait for the writer which has ended on exception
+                    endPushed = task.getChannel().push(new EndMessage(), 0, TimeUnit.MILLISECONDS);
+                    if (!endPushed && !isException()) {
+                        return TimeUnit.SECONDS.toMillis(pushMaxWaitTime);
+                    }
+                    scheduler.wakeup(writeStep);
+                    return -1;
+                }
+                // if source deleted,then failed
+                if (!task.getReader().isSourceExist()) {
+                    doChangeState(State.FAILED);
+                    continue;
+                }
+                if (pending != null) {
+                    if (!task.getChannel().push(pending, 0, TimeUnit.MILLISECONDS)) {
+                        // wait for channel space, woken by the writer
+                        return TimeUnit.SECONDS.toMillis(pushMaxWaitTime);
+                    }
+                    scheduler.wakeup(writeStep);
+                }
+                pending = task.getReader().read();
+                if (pending == null) {
+                    // wait for new data of source, or for the flow control of the reader
+                    long readerWaitTime = task.getReader().getReadWaitMillis();
+                    return readerWaitTime > 0 ? readerWaitTime : readWaitTime;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        protected void onDone() {
+            LOGGER.info("read end, task exception status is {}, read finish status is {}", isException(),
+                    task.isReadFinished());
+            task.getReader().destroy();
+            onStepDone();
+        }
+
+        @Override
+        protected void onError(Throwable t) {
+            if (!endPushed) {
+                task.getChannel().push(new EndMessage(), 0, TimeUnit.MILLISECONDS);
+            }
+            task.getReader().destroy();
+            onStepError(t);
+        }
+    }
+
+    /**
+     * pull from the channel and write into the sink, parked when the channel is empty or the sink is busy
+     */
+    private class WriteStep extends TaskScheduler.Step {
+
+        // message the sink could not take, written again once the sink is writable
+        private Message pending;
+
+        WriteStep() {
+            super(task.getTaskId(), "writer");
+        }
+
+        @Override
+        protected long runOnce() {
+            for (int i = 0; i < quantum; i++) {
+                if (isException()) {
+                    return -1;
+                }
+                if (pending != null) {
+                    if (!task.getSink().tryWrite(pending)) {
+                        // wait for sender capacity, woken by the sink
+                        return TimeUnit.SECONDS.toMillis(pullMaxWaitTime);
+                    }
+                    pending = null;
+                }
+                if (!task.getSink().isWritable()) {
+                    // wait for sender capacity, woken by the sink
+                    return TimeUnit.SECONDS.toMillis(pullMaxWaitTime);
+                }
+                Message message = task.getChannel().pull(0, TimeUnit.MILLISECONDS);
+                if (message == null) {
+                    // wait for data, woken by the reader
+                    return TimeUnit.SECONDS.toMillis(pullMaxWaitTime);
+                }
+                scheduler.wakeup(readStep);
+                if (message instanceof EndMessage) {
+                    return -1;
+                }
+                if (!task.getSink().tryWrite(message)) {
+                    pending = message;
+                    return TimeUnit.SECONDS.toMillis(pullMaxWaitTime);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        protected void onDone() {
+            onStepDone();
+        }
+
+        @Override
+        protected void onError(Throwable t) {
+            onStepError(t);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.task;
+
+import org.apache.inlong.agent.core.task.TaskScheduler;
+import org.apache.inlong.agent.metrics.task.TaskJmxMetrics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class TestTaskScheduler {
+
+    private static TaskScheduler scheduler;
+
+    @BeforeClass
+    public static void setup() {
+        scheduler = new TaskScheduler(2, TaskJmxMetrics.create());
+    }
+
+    @AfterClass
+    public static void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testRunUntilDone() throws Exception {
+        AtomicInteger runCount = new AtomicInteger(0);
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        TaskScheduler.Step step = new TestStep(() -> runCount.incrementAndGet() < 3 ? 0 : -1, doneLatch);
+        scheduler.wakeup(step);
+        Assert.assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(3, runCount.get());
+        Assert.assertTrue(step.isDone());
+    }
+
+    @Test
+    public void testWakeupParkedStep() throws Exception {
+        AtomicInteger runCount = new AtomicInteger(0);
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        // park for a long time after the first run, only the wakeup lets it run again
+        TaskScheduler.Step step = new TestStep(() -> runCount.incrementAndGet() < 2 ? 60000 : -1, doneLatch);
+        scheduler.wakeup(step);
+        while (runCount.get() < 1) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        scheduler.wakeup(step);
+        Assert.assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, runCount.get());
+    }
+
+    @Test
+    public void testCancelParkTimer() throws Exception {
+        TaskScheduler localScheduler = new TaskScheduler(1, TaskJmxMetrics.create());
+        AtomicInteger runCount = new AtomicInteger(0);
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        // park for a long time after each run, woken by events many times
+        TaskScheduler.Step step = new TestStep(() -> runCount.incrementAndGet() < 100 ? 60000 : -1, doneLatch);
+        for (int i = 0; i < 100; i++) {
+            localScheduler.wakeup(step);
+            TimeUnit.MILLISECONDS.sleep(5);
+            Assert.assertTrue(localScheduler.getQueuedNum() <= 1);
+        }
+        Assert.assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, localScheduler.getQueuedNum());
+        localScheduler.shutdown();
+    }
+
+    private static class TestStep extends TaskScheduler.Step {
+
+        private final LongSupplier body;
+        private final CountDownLatch doneLatch;
+
+        TestStep(LongSupplier body, CountDownLatch doneLatch) {
+            super("test", "step");
+            this.body = body;
+            this.doneLatch = doneLatch;
+        }
+
+        @Override
+        protected long runOnce() {
+            return body.getAsLong();
+        }
+
+        @Override
+        protected void onDone() {
+            doneLatch.countDown();
+        }
+
+        @Override
+        protected void onError(Throwable t) {
+        }
+    }
+}
@@ -174,6 +174,8 @@ public class TestTaskWrapper {
     private static class WriterImpl implements Sink {
 
         private int writerCount = 0;
+        private boolean busy = false;
+        private volatile Runnable writableListener;
 
         @Override
         public void write(Message message) {
@@ -182,6 +184,33 @@ public class TestTaskWrapper {
             }
         }
 
+        /**
+         * refuse every other message, the writer keeps it and writes it again once woken by the listener
+         */
+        @Override
+        public boolean tryWrite(Message message) {
+            busy = !busy;
+            if (busy) {
+                Runnable listener = writableListener;
+                new Thread(() -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(10);
+                    } catch (InterruptedException ignored) {
+                        // wake up at once
+                    }
+                    listener.run();
+                }).start();
+                return false;
+            }
+            write(message);
+            return true;
+        }
+
+        @Override
+        public void setWritableListener(Runnable listener) {
+            this.writableListener = listener;
+        }
+
         @Override
         public void setSourceName(String sourceFileName) {
 
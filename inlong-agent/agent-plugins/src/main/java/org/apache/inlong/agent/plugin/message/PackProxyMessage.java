@@ -98,6 +98,20 @@ public class PackProxyMessage {
         }
     }
 
+    /**
+     * Add proxy message to cache without blocking, proxy message should belong to the same stream id.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offerProxyMessage(ProxyMessage message) {
+        assert streamId.equals(message.getInlongStreamId());
+        if (!messageQueue.offer(message)) {
+            return false;
+        }
+        queueSize.addAndGet(message.getBody().length);
+        return true;
+    }
+
     /**
      * check message queue is empty or not
      */
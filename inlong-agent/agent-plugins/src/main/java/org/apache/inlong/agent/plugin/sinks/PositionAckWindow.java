@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import java.util.ArrayDeque;
+
+/**
+ * Batches of one source in send order. Acks may come back in any order when several batches are in flight,
+ * the sink position only moves over the acked batches at the head, so that a restart never skips a batch
+ * which is not acked yet. Once a batch is given up, the position stops before it, so that a restart reads it again.
+ */
+public class PositionAckWindow {
+
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    private boolean failed = false;
+
+    /**
+     * register a batch before sending it
+     *
+     * @param messageNum message number of the batch
+     * @return the batch to ack
+     */
+    public synchronized Batch register(int messageNum) {
+        Batch batch = new Batch(messageNum);
+        if (!failed) {
+            pending.addLast(batch);
+        }
+        return batch;
+    }
+
+    /**
+     * ack a batch
+     *
+     * @param batch the registered batch
+     * @return message number the position can move forward, 0 if earlier batches are still in flight
+     */
+    public synchronized long ack(Batch batch) {
+        if (batch.acked) {
+            return 0;
+        }
+        batch.acked = true;
+        if (failed) {
+            return 0;
+        }
+        long messageNum = 0;
+        while (!pending.isEmpty() && pending.peekFirst().acked) {
+            messageNum += pending.pollFirst().messageNum;
+        }
+        return messageNum;
+    }
+
+    /**
+     * give up a batch, the position never moves over it any more
+     *
+     * @param batch the registered batch
+     */
+    public synchronized void fail(Batch batch) {
+        if (batch.acked) {
+            return;
+        }
+        batch.acked = true;
+        failed = true;
+        pending.clear();
+    }
+
+    /**
+     * whether a batch is given up
+     */
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * batch number which is not acked or waits for earlier batches, 0 once a batch is given up
+     */
+    public synchronized int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * batch registered in the window
+     */
+    public static class Batch {
+
+        private final int messageNum;
+        private boolean acked = false;
+
+        private Batch(int messageNum) {
+            this.messageNum = messageNum;
+        }
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.inlong.agent.plugin.sinks;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.inlong.agent.common.AgentThreadFactory;
+import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.constant.AgentConstants;
 import org.apache.inlong.agent.constant.CommonConstants;
 import org.apache.inlong.agent.message.EndMessage;
 import org.apache.inlong.agent.message.ProxyMessage;
@@ -34,11 +36,15 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.inlong.agent.constant.AgentConstants.GLOBAL_METRICS;
@@ -62,9 +68,17 @@ public class ProxySink extends AbstractSink {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxySink.class);
     private static final String PROXY_SINK_TAG_NAME = "AgentProxySinkMetric";
     private static AtomicLong index = new AtomicLong(0);
-    private final ExecutorService executorService = new ThreadPoolExecutor(1, 1,
-            0L, TimeUnit.MILLISECONDS,
-            new LinkedBlockingQueue<>(), new AgentThreadFactory("ProxySink"));
+    // flush the batches of all proxy sinks, instead of one thread per sink
+    private static final ScheduledExecutorService FLUSH_SCHEDULER = new ScheduledThreadPoolExecutor(
+            AgentConfiguration.getAgentConf().getInt(AgentConstants.PROXY_SINK_FLUSH_THREADS,
+                    AgentConstants.DEFAULT_PROXY_SINK_FLUSH_THREADS),
+            new AgentThreadFactory("ProxySink"));
+    // sync sends block until acked, so they run out of the flush threads, one batch of a sink at a time
+    private static final ExecutorService SYNC_SEND_EXECUTOR = Executors.newFixedThreadPool(
+            AgentConfiguration.getAgentConf().getInt(AgentConstants.PROXY_SINK_SYNC_SEND_THREADS,
+                    AgentConstants.DEFAULT_PROXY_SINK_SYNC_SEND_THREADS),
+            new AgentThreadFactory("ProxySinkSyncSend"));
+    private ScheduledFuture<?> flushFuture;
     private MessageFilter messageFilter;
     private SenderManager senderManager;
     private byte[] fieldSplitter;
@@ -76,39 +90,52 @@ public class ProxySink extends AbstractSink {
     private int maxQueueNumber;
     private boolean syncSend;
     private volatile boolean shutdown = false;
+    private final AtomicBoolean syncSending = new AtomicBoolean(false);
+    private volatile Runnable writableListener;
     // key is stream id, value is a batch of messages belong to the same stream id
     private ConcurrentHashMap<String, PackProxyMessage> cache;
 
     public ProxySink() {
     }
 
+    /**
+     * blocking write for the callers out of the task scheduler
+     */
     @Override
     public void write(Message message) {
+        while (!tryWrite(message) && !shutdown) {
+            AgentUtils.silenceSleepInMs(batchFlushInterval);
+        }
+    }
+
+    /**
+     * write without blocking the scheduler thread, false if there are no permits or the cache is full,
+     * the writer is woken once an ack releases permits or a flush takes messages from the cache
+     */
+    @Override
+    public boolean tryWrite(Message message) {
         try {
             if (message != null) {
-                senderManager.acquireSemaphore(1);
                 message.getHeader().put(CommonConstants.PROXY_KEY_GROUP_ID, inlongGroupId);
                 message.getHeader().put(CommonConstants.PROXY_KEY_STREAM_ID, inlongStreamId);
                 extractStreamFromMessage(message, fieldSplitter);
                 if (!(message instanceof EndMessage)) {
                     ProxyMessage proxyMessage = ProxyMessage.parse(message);
+                    int bodyLength = proxyMessage.getBody().length;
+                    if (!senderManager.tryAcquire(bodyLength)) {
+                        return false;
+                    }
                     // add proxy message to cache.
-                    cache.compute(proxyMessage.getBatchKey(),
-                            (s, packProxyMessage) -> {
-                                if (packProxyMessage == null) {
-                                    packProxyMessage = new PackProxyMessage(
-                                            maxBatchSize, maxQueueNumber,
-                                            maxBatchTimeoutMs,
-                                            proxyMessage.getInlongStreamId()
-                                    );
-                                    packProxyMessage.generateExtraMap(syncSend,
-                                            proxyMessage.getDataKey());
-                                }
-                                // add message to package proxy
-                                packProxyMessage.addProxyMessage(proxyMessage);
-                                //
-                                return packProxyMessage;
-                            });
+                    PackProxyMessage packProxyMessage = cache.computeIfAbsent(proxyMessage.getBatchKey(), key -> {
+                        PackProxyMessage newPackProxyMessage = new PackProxyMessage(maxBatchSize, maxQueueNumber,
+                                maxBatchTimeoutMs, proxyMessage.getInlongStreamId());
+                        newPackProxyMessage.generateExtraMap(syncSend, proxyMessage.getDataKey());
+                        return newPackProxyMessage;
+                    });
+                    if (!packProxyMessage.offerProxyMessage(proxyMessage)) {
+                        senderManager.releaseUntaken(bodyLength);
+                        return false;
+                    }
                     AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_SUCCESS,
                             inlongGroupId, inlongStreamId, System.currentTimeMillis());
                     // increment the count of successful sinks
@@ -123,6 +150,7 @@ public class ProxySink extends AbstractSink {
         } catch (Throwable t) {
             ThreadUtils.threadThrowableHandler(Thread.currentThread(), t);
         }
+        return true;
     }
 
     /**
@@ -142,39 +170,57 @@ public class ProxySink extends AbstractSink {
         this.sourceName = sourceFileName;
     }
 
+    @Override
+    public boolean isWritable() {
+        return senderManager == null || senderManager.hasCapacity();
+    }
+
+    @Override
+    public void setWritableListener(Runnable listener) {
+        this.writableListener = listener;
+        if (senderManager != null) {
+            senderManager.setReleaseListener(listener);
+        }
+    }
+
     /**
-     * flush cache by batch
+     * flush cache by batch, scheduled on the shared flush scheduler
      *
      * @return thread runner
      */
     private Runnable flushCache() {
         return () -> {
-            LOGGER.info("start flush cache thread for {} ProxySink", inlongGroupId);
-            while (!shutdown) {
-                try {
-                    cache.forEach((batchKey, packProxyMessage) -> {
-                        Pair<String, List<byte[]>> result = packProxyMessage.fetchBatch();
-                        if (result != null) {
-                            long sendTime = AgentUtils.getCurrentTime();
-                            if (syncSend) {
-                                senderManager.sendBatchSync(inlongGroupId, result.getKey(), result.getValue(),
-                                        0, sendTime, packProxyMessage.getExtraMap());
-                            } else {
-                                senderManager.sendBatchAsync(jobInstanceId, inlongGroupId, result.getKey(),
-                                        result.getValue(), 0, sendTime);
-                            }
-                            LOGGER.info("send group id {}, message key {},with message size {}, the job id is {}, "
-                                            + "read source is {} sendTime is {} syncSend {}", inlongGroupId, batchKey,
-                                    result.getRight().size(), jobInstanceId, sourceName, sendTime, syncSend);
+            if (shutdown) {
+                return;
+            }
+            try {
+                cache.forEach((batchKey, packProxyMessage) -> {
+                    // keep the messages in cache until the last sync batch is acked,
+                    // or until a sender can take one more async batch
+                    if (syncSend ? syncSending.get() : !senderManager.hasWindow()) {
+                        return;
+                    }
+                    Pair<String, List<byte[]>> result = packProxyMessage.fetchBatch();
+                    if (result != null) {
+                        long sendTime = AgentUtils.getCurrentTime();
+                        if (syncSend) {
+                            submitSyncSend(result.getKey(), result.getValue(), sendTime,
+                                    packProxyMessage.getExtraMap());
+                        } else {
+                            senderManager.sendBatchAsync(jobInstanceId, inlongGroupId, result.getKey(),
+                                    result.getValue(), 0, sendTime);
                         }
-
-                    });
-                    AgentUtils.silenceSleepInMs(batchFlushInterval);
-                } catch (Exception ex) {
-                    LOGGER.error("error caught", ex);
-                } catch (Throwable t) {
-                    ThreadUtils.threadThrowableHandler(Thread.currentThread(), t);
-                }
+                        // the cache has space again
+                        notifyWritable();
+                        LOGGER.info("send group id {}, message key {},with message size {}, the job id is {}, "
+                                        + "read source is {} sendTime is {} syncSend {}", inlongGroupId, batchKey,
+                                result.getRight().size(), jobInstanceId, sourceName, sendTime, syncSend);
+                    }
+                });
+            } catch (Exception ex) {
+                LOGGER.error("error caught", ex);
+            } catch (Throwable t) {
+                ThreadUtils.threadThrowableHandler(Thread.currentThread(), t);
             }
         };
     }
@@ -196,8 +242,13 @@ public class ProxySink extends AbstractSink {
         messageFilter = initMessageFilter(jobConf);
         fieldSplitter = jobConf.get(CommonConstants.FIELD_SPLITTER, DEFAULT_FIELD_SPLITTER).getBytes(
                 StandardCharsets.UTF_8);
-        executorService.execute(flushCache());
         senderManager = new SenderManager(jobConf, inlongGroupId, sourceName);
+        // the sink position stops before a given up batch, so it is read again after restart
+        senderManager.setFailListener((jobId, streamId, bodyList, cause) -> {
+            LOGGER.error("give up batch of job {}, read source {}, stream id {} with message size {}",
+                    jobId, sourceName, streamId, bodyList.size(), cause);
+            GLOBAL_METRICS.incSinkFailCount(metricTagName);
+        });
         try {
             senderManager.addMessageSender();
         } catch (Throwable ex) {
@@ -205,6 +256,29 @@ public class ProxySink extends AbstractSink {
             ThreadUtils.threadThrowableHandler(Thread.currentThread(), ex);
             throw new IllegalStateException(ex);
         }
+        LOGGER.info("start flush cache for {} ProxySink", inlongGroupId);
+        flushFuture = FLUSH_SCHEDULER.scheduleWithFixedDelay(flushCache(), batchFlushInterval,
+                batchFlushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void submitSyncSend(String streamId, List<byte[]> bodyList, long sendTime,
+            Map<String, String> extraMap) {
+        syncSending.set(true);
+        SYNC_SEND_EXECUTOR.execute(() -> {
+            try {
+                senderManager.sendBatchSync(jobInstanceId, inlongGroupId, streamId, bodyList, 0, sendTime,
+                        extraMap);
+            } finally {
+                syncSending.set(false);
+            }
+        });
+    }
+
+    private void notifyWritable() {
+        Runnable listener = writableListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     @Override
@@ -215,13 +289,15 @@ public class ProxySink extends AbstractSink {
             AgentUtils.silenceSleepInMs(batchFlushInterval);
         }
         shutdown = true;
-        executorService.shutdown();
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
+        }
     }
 
     /**
      * check whether all stream id messages finished
      */
     private boolean sinkFinish() {
-        return cache.values().stream().allMatch(PackProxyMessage::isEmpty);
+        return !syncSending.get() && cache.values().stream().allMatch(PackProxyMessage::isEmpty);
     }
 }
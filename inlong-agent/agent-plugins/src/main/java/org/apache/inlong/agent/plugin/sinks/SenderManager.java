@@ -18,6 +18,7 @@
 package org.apache.inlong.agent.plugin.sinks;
 
 import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.JobProfile;
 import org.apache.inlong.agent.constant.CommonConstants;
@@ -31,13 +32,17 @@ import org.apache.inlong.sdk.dataproxy.SendResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.inlong.agent.constant.AgentConstants.GLOBAL_METRICS;
@@ -48,6 +53,11 @@ import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_MANAGER_VI
 
 /**
  * proxy client
+ * <p/>
+ * Async batches are pipelined: every sender of the group keeps up to maxInflightBatch batches in flight,
+ * a failed batch is sent again by another sender after a short jittered backoff, and the sink position
+ * only moves over the contiguous acked batches. A batch which can not be retried any more gives back its permits
+ * and is reported to the fail listener.
  */
 public class SenderManager {
 
@@ -55,14 +65,19 @@ public class SenderManager {
     private static final SequentialID SEQUENTIAL_ID = SequentialID.getInstance();
     private static final AtomicInteger SENDER_INDEX = new AtomicInteger(0);
     // cache for group and sender list, share the map cross agent lifecycle.
-    private static final ConcurrentHashMap<String, List<DefaultMessageSender>> SENDER_MAP =
+    private static final ConcurrentHashMap<String, List<InflightSender>> SENDER_MAP =
             new ConcurrentHashMap<>();
     private static final String SENDER_MANAGER_TAG_NAME = "AgentSenderManager";
+    // max exponent of the retry backoff
+    private static final int MAX_BACKOFF_SHIFT = 16;
 
     // sharing worker threads between sender client
     // in case of thread abusing.
     private static final ThreadFactory SHARED_FACTORY = new DefaultThreadFactory("agent-client-io",
             Thread.currentThread().isDaemon());
+    // resend the failed batches, instead of sleeping in the callback threads of sender client
+    private static final ScheduledExecutorService RETRY_SCHEDULER = new ScheduledThreadPoolExecutor(1,
+            new AgentThreadFactory("SenderRetry"));
 
     private final String managerHost;
     private final int managerPort;
@@ -77,17 +92,32 @@ public class SenderManager {
     private final long maxSenderTimeout;
     private final int maxSenderRetry;
     private final long retrySleepTime;
+    private final long retryBackoffBase;
+    private final int maxInflightBatch;
+    private final int maxInflightBytes;
     private final String inlongGroupId;
     private final int maxSenderPerGroup;
     private final String sourcePath;
+    private final PositionAckWindow ackWindow = new PositionAckWindow();
+    private final ScheduledExecutorService retryScheduler;
     private TaskPositionManager taskPositionManager;
     private int ioThreadNum;
     private boolean enableBusyWait;
     private Semaphore semaphore;
+    private Semaphore bytesSemaphore;
+    // notified when the sender has capacity again
+    private volatile Runnable releaseListener;
+    // notified when an async batch is given up
+    private volatile BatchFailListener failListener;
     private String authSecretId;
     private String authSecretKey;
 
     public SenderManager(JobProfile jobConf, String inlongGroupId, String sourcePath) {
+        this(jobConf, inlongGroupId, sourcePath, RETRY_SCHEDULER);
+    }
+
+    SenderManager(JobProfile jobConf, String inlongGroupId, String sourcePath,
+            ScheduledExecutorService retryScheduler) {
         AgentConfiguration conf = AgentConfiguration.getAgentConf();
         managerHost = conf.get(AGENT_MANAGER_VIP_HTTP_HOST);
         managerPort = conf.getInt(AGENT_MANAGER_VIP_HTTP_PORT);
@@ -113,10 +143,17 @@ public class SenderManager {
                 CommonConstants.PROXY_SENDER_MAX_RETRY, CommonConstants.DEFAULT_PROXY_SENDER_MAX_RETRY);
         retrySleepTime = jobConf.getLong(
                 CommonConstants.PROXY_RETRY_SLEEP, CommonConstants.DEFAULT_PROXY_RETRY_SLEEP);
+        retryBackoffBase = Math.max(1L, Math.min(retrySleepTime, jobConf.getLong(
+                CommonConstants.PROXY_RETRY_BACKOFF_BASE, CommonConstants.DEFAULT_PROXY_RETRY_BACKOFF_BASE)));
+        maxInflightBatch = Math.max(1, jobConf.getInt(CommonConstants.PROXY_SENDER_MAX_INFLIGHT_BATCH,
+                CommonConstants.DEFAULT_PROXY_SENDER_MAX_INFLIGHT_BATCH));
+        maxInflightBytes = Math.max(1, jobConf.getInt(CommonConstants.PROXY_MAX_INFLIGHT_BYTES,
+                CommonConstants.DEFAULT_PROXY_MAX_INFLIGHT_BYTES));
         isFile = jobConf.getBoolean(CommonConstants.PROXY_IS_FILE, CommonConstants.DEFAULT_IS_FILE);
         taskPositionManager = TaskPositionManager.getTaskPositionManager();
         semaphore = new Semaphore(jobConf.getInt(CommonConstants.PROXY_MESSAGE_SEMAPHORE,
                 CommonConstants.DEFAULT_PROXY_MESSAGE_SEMAPHORE));
+        bytesSemaphore = new Semaphore(maxInflightBytes);
         ioThreadNum = jobConf.getInt(CommonConstants.PROXY_CLIENT_IO_THREAD_NUM,
                 CommonConstants.DEFAULT_PROXY_CLIENT_IO_THREAD_NUM);
         enableBusyWait = jobConf.getBoolean(CommonConstants.PROXY_CLIENT_ENABLE_BUSY_WAIT,
@@ -126,17 +163,109 @@ public class SenderManager {
 
         this.sourcePath = sourcePath;
         this.inlongGroupId = inlongGroupId;
+        this.retryScheduler = retryScheduler;
     }
 
     /**
-     * Select by group.
+     * Select by group, round robin from the next sender and skip the failed one if possible.
      *
      * @param group inlong group id
-     * @return default message sender
+     * @param exclude the sender failed last time, null if none
+     * @param acquireWindow whether the sender must have a free window, which is taken if selected
+     * @return the sender, null if all the senders are full
+     */
+    private InflightSender selectSender(String group, InflightSender exclude, boolean acquireWindow) {
+        List<InflightSender> senderList = SENDER_MAP.get(group);
+        int size = senderList.size();
+        int start = SENDER_INDEX.getAndIncrement() & 0x7FFFFFFF;
+        InflightSender fallback = null;
+        for (int i = 0; i < size; i++) {
+            InflightSender sender = senderList.get((start + i) % size);
+            if (sender == exclude) {
+                fallback = sender;
+                continue;
+            }
+            if (!acquireWindow || sender.tryAcquire(maxInflightBatch)) {
+                return sender;
+            }
+        }
+        if (fallback != null && (!acquireWindow || fallback.tryAcquire(maxInflightBatch))) {
+            return fallback;
+        }
+        return null;
+    }
+
+    /**
+     * whether there are permits for sending messages
+     */
+    public boolean hasCapacity() {
+        return semaphore.availablePermits() > 0 && bytesSemaphore.availablePermits() > 0;
+    }
+
+    /**
+     * whether any sender of the group can take one more async batch
+     */
+    public boolean hasWindow() {
+        List<InflightSender> senderList = SENDER_MAP.get(inlongGroupId);
+        if (senderList == null) {
+            return false;
+        }
+        for (InflightSender sender : senderList) {
+            if (sender.inflight.get() < maxInflightBatch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setReleaseListener(Runnable releaseListener) {
+        this.releaseListener = releaseListener;
+    }
+
+    public void setFailListener(BatchFailListener failListener) {
+        this.failListener = failListener;
+    }
+
+    private void notifyRelease() {
+        Runnable listener = releaseListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private void releaseSemaphore(List<byte[]> bodyList) {
+        int permitBytes = 0;
+        for (byte[] body : bodyList) {
+            permitBytes += toPermitBytes(body.length);
+        }
+        semaphore.release(bodyList.size());
+        bytesSemaphore.release(permitBytes);
+        notifyRelease();
+    }
+
+    /**
+     * acquire the permits of one message without blocking, released when the message is acked
+     *
+     * @param bodyLength body length of the message
+     * @return false if there are no permits now
+     */
+    public boolean tryAcquire(int bodyLength) {
+        if (!semaphore.tryAcquire()) {
+            return false;
+        }
+        if (!bytesSemaphore.tryAcquire(toPermitBytes(bodyLength))) {
+            semaphore.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * give back the permits of one message which the sink could not take
      */
-    private DefaultMessageSender selectSender(String group) {
-        List<DefaultMessageSender> senderList = SENDER_MAP.get(group);
-        return senderList.get((SENDER_INDEX.getAndIncrement() & 0x7FFFFFFF) % senderList.size());
+    public void releaseUntaken(int bodyLength) {
+        semaphore.release();
+        bytesSemaphore.release(toPermitBytes(bodyLength));
     }
 
     public void acquireSemaphore(int messageNum) {
@@ -148,6 +277,25 @@ public class SenderManager {
         }
     }
 
+    /**
+     * a message larger than the whole budget takes the whole budget, instead of blocking forever
+     */
+    private int toPermitBytes(int bodyLength) {
+        return Math.min(bodyLength, maxInflightBytes);
+    }
+
+    /**
+     * backoff before the retry, doubled from the base and capped by the retry sleep time, with jitter
+     */
+    private long retryBackoffMs(int retry) {
+        if (retry > maxSenderRetry) {
+            LOGGER.warn("max retry reached, retry count is {}, sleep and send again", retry);
+            return retrySleepTime;
+        }
+        long backoff = Math.min(retrySleepTime, retryBackoffBase << Math.min(retry, MAX_BACKOFF_SHIFT));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
     /**
      * sender
      *
@@ -175,20 +323,30 @@ public class SenderManager {
      * Add new sender for group id if max size is not satisfied.
      */
     public void addMessageSender() throws Exception {
-        List<DefaultMessageSender> tmpList = new ArrayList<>();
-        List<DefaultMessageSender> senderList = SENDER_MAP.putIfAbsent(inlongGroupId, tmpList);
-        if (senderList == null) {
-            senderList = tmpList;
-        }
+        List<InflightSender> senderList = getSenderList();
         if (senderList.size() > maxSenderPerGroup) {
             return;
         }
         DefaultMessageSender sender = createMessageSender(inlongGroupId);
-        senderList.add(sender);
+        senderList.add(new InflightSender(sender));
+    }
+
+    /**
+     * Add a created sender for group id, used by the tests.
+     */
+    void addMessageSender(DefaultMessageSender sender) {
+        getSenderList().add(new InflightSender(sender));
+    }
+
+    private List<InflightSender> getSenderList() {
+        List<InflightSender> tmpList = new CopyOnWriteArrayList<>();
+        List<InflightSender> senderList = SENDER_MAP.putIfAbsent(inlongGroupId, tmpList);
+        return senderList == null ? tmpList : senderList;
     }
 
     /**
      * Send message to proxy by batch, use message cache.
+     * The batch is resent by the retry scheduler until it is acked, or given up if the retry can not be scheduled.
      *
      * @param groupId groupId
      * @param streamId streamId
@@ -197,104 +355,211 @@ public class SenderManager {
      */
     public void sendBatchAsync(String jobId, String groupId, String streamId,
             List<byte[]> bodyList, int retry, long dataTime) {
-        if (retry > maxSenderRetry) {
-            LOGGER.warn("max retry reached, retry count is {}, sleep and send again", retry);
-            AgentUtils.silenceSleepInMs(retrySleepTime);
+        AsyncBatch batch = new AsyncBatch(jobId, groupId, streamId, bodyList, dataTime,
+                ackWindow.register(bodyList.size()));
+        batch.retry = retry;
+        sendAsync(batch);
+    }
+
+    private void sendAsync(AsyncBatch batch) {
+        InflightSender sender = selectSender(batch.groupId, batch.lastFailed, true);
+        if (sender == null) {
+            // all the windows are full, wait for the acks
+            scheduleRetry(batch, batch.retry);
+            return;
         }
         try {
-            selectSender(groupId).asyncSendMessage(
-                    new AgentSenderCallback(jobId, groupId, streamId, bodyList, retry, dataTime),
-                    bodyList, groupId, streamId,
-                    dataTime,
+            sender.sender.asyncSendMessage(
+                    new AgentSenderCallback(batch, sender),
+                    batch.bodyList, batch.groupId, batch.streamId,
+                    batch.dataTime,
                     SEQUENTIAL_ID.getNextUuid(),
                     maxSenderTimeout,
                     TimeUnit.SECONDS
             );
         } catch (Exception exception) {
             LOGGER.error("Exception caught", exception);
-            // retry time
-            try {
-                TimeUnit.SECONDS.sleep(1);
-                sendBatchAsync(jobId, groupId, streamId, bodyList, retry + 1, dataTime);
-            } catch (Exception ignored) {
-                // ignore it.
-            }
+            sender.release();
+            notifyRelease();
+            batch.lastFailed = sender;
+            scheduleRetry(batch, ++batch.retry);
+        }
+    }
+
+    private void scheduleRetry(AsyncBatch batch, int retry) {
+        try {
+            retryScheduler.schedule(() -> sendAsync(batch), retryBackoffMs(retry), TimeUnit.MILLISECONDS);
+        } catch (Exception exception) {
+            LOGGER.error("schedule retry of groupId {}, streamId {} fail, give up the batch", batch.groupId,
+                    batch.streamId, exception);
+            failBatch(batch, exception);
+        }
+    }
+
+    /**
+     * give up the batch, the sender window is already released by the caller
+     */
+    private void failBatch(AsyncBatch batch, Throwable cause) {
+        GLOBAL_METRICS.incSendFailedNum(batch.groupId + "_" + batch.streamId);
+        ackWindow.fail(batch.ackBatch);
+        releaseSemaphore(batch.bodyList);
+        BatchFailListener listener = failListener;
+        if (listener != null) {
+            listener.onBatchFail(batch.jobId, batch.streamId, batch.bodyList, cause);
         }
     }
 
     /**
      * Send message to proxy by batch, use message cache.
      *
+     * @param jobId job instance id
      * @param groupId groupId
      * @param streamId streamId
      * @param bodyList body list
      * @param retry retry time
      */
-    public void sendBatchSync(String groupId, String streamId,
+    public void sendBatchSync(String jobId, String groupId, String streamId,
             List<byte[]> bodyList, int retry, long dataTime, Map<String, String> extraMap) {
-        if (retry > maxSenderRetry) {
-            LOGGER.warn("max retry reached, retry count is {}, sleep and send again", retry);
-            AgentUtils.silenceSleepInMs(retrySleepTime);
-        }
-        try {
-            selectSender(groupId).sendMessage(
-                    bodyList, groupId, streamId, dataTime, "",
-                    maxSenderTimeout, TimeUnit.SECONDS, extraMap
-            );
-            semaphore.release(bodyList.size());
-        } catch (Exception exception) {
-            LOGGER.error("Exception caught", exception);
-            // retry time
+        InflightSender lastFailed = null;
+        while (true) {
+            InflightSender sender = selectSender(groupId, lastFailed, false);
             try {
-                TimeUnit.SECONDS.sleep(1);
-                sendBatchSync(groupId, streamId, bodyList, retry + 1, dataTime, extraMap);
-            } catch (Exception ignored) {
-                // ignore it.
+                sender.sender.sendMessage(
+                        bodyList, groupId, streamId, dataTime, "",
+                        maxSenderTimeout, TimeUnit.SECONDS, extraMap
+                );
+                releaseSemaphore(bodyList);
+                if (sourcePath != null) {
+                    taskPositionManager.updateSinkPosition(jobId, sourcePath, bodyList.size());
+                }
+                return;
+            } catch (Exception exception) {
+                LOGGER.error("Exception caught", exception);
+                lastFailed = sender;
+                AgentUtils.silenceSleepInMs(retryBackoffMs(++retry));
             }
         }
     }
 
     /**
-     * sender callback
+     * listener of the async batches which are given up, their permits are released before it is notified
      */
-    private class AgentSenderCallback implements SendMessageCallback {
+    public interface BatchFailListener {
+
+        /**
+         * @param jobId job instance id
+         * @param streamId stream id of the batch
+         * @param bodyList messages of the batch
+         * @param cause why the batch is given up
+         */
+        void onBatchFail(String jobId, String streamId, List<byte[]> bodyList, Throwable cause);
+    }
+
+    /**
+     * sender of the group, with the number of its in-flight batches
+     */
+    private static class InflightSender {
+
+        private final DefaultMessageSender sender;
+        private final AtomicInteger inflight = new AtomicInteger(0);
+
+        InflightSender(DefaultMessageSender sender) {
+            this.sender = sender;
+        }
 
-        private final int retry;
+        boolean tryAcquire(int maxInflight) {
+            while (true) {
+                int current = inflight.get();
+                if (current >= maxInflight) {
+                    return false;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inflight.decrementAndGet();
+        }
+    }
+
+    /**
+     * async batch, kept across the retries
+     */
+    private static class AsyncBatch {
+
+        private final String jobId;
         private final String groupId;
-        private final List<byte[]> bodyList;
         private final String streamId;
+        private final List<byte[]> bodyList;
         private final long dataTime;
-        private final String jobId;
+        private final PositionAckWindow.Batch ackBatch;
+        private volatile int retry;
+        private volatile InflightSender lastFailed;
 
-        AgentSenderCallback(String jobId, String groupId, String streamId, List<byte[]> bodyList, int retry,
-                long dataTime) {
-            this.retry = retry;
+        AsyncBatch(String jobId, String groupId, String streamId, List<byte[]> bodyList, long dataTime,
+                PositionAckWindow.Batch ackBatch) {
+            this.jobId = jobId;
             this.groupId = groupId;
             this.streamId = streamId;
             this.bodyList = bodyList;
-            this.jobId = jobId;
             this.dataTime = dataTime;
+            this.ackBatch = ackBatch;
+        }
+    }
+
+    /**
+     * sender callback
+     */
+    private class AgentSenderCallback implements SendMessageCallback {
+
+        private final AsyncBatch batch;
+        private final InflightSender sender;
+        // the sender client may report both a result and an exception
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        AgentSenderCallback(AsyncBatch batch, InflightSender sender) {
+            this.batch = batch;
+            this.sender = sender;
         }
 
         @Override
         public void onMessageAck(SendResult result) {
-            // if send result is not ok, retry again.
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            sender.release();
+            // if send result is not ok, retry again by another sender.
             if (result == null || !result.equals(SendResult.OK)) {
                 LOGGER.warn("send groupId {}, streamId {}, jobId {}, dataTime {} fail with times {}, "
-                        + "error {}", groupId, streamId, jobId, dataTime, retry, result);
-                sendBatchAsync(jobId, groupId, streamId, bodyList, retry + 1, dataTime);
+                        + "error {}", batch.groupId, batch.streamId, batch.jobId, batch.dataTime,
+                        batch.retry, result);
+                onFailure();
                 return;
             }
-            semaphore.release(bodyList.size());
-            GLOBAL_METRICS.incSendSuccessNum(groupId + "_" + streamId, bodyList.size());
-            if (sourcePath != null) {
-                taskPositionManager.updateSinkPosition(jobId, sourcePath, bodyList.size());
+            releaseSemaphore(batch.bodyList);
+            GLOBAL_METRICS.incSendSuccessNum(batch.groupId + "_" + batch.streamId, batch.bodyList.size());
+            long ackedNum = ackWindow.ack(batch.ackBatch);
+            if (sourcePath != null && ackedNum > 0) {
+                taskPositionManager.updateSinkPosition(batch.jobId, sourcePath, ackedNum);
             }
         }
 
         @Override
         public void onException(Throwable e) {
             LOGGER.error("exception caught", e);
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            sender.release();
+            onFailure();
+        }
+
+        private void onFailure() {
+            notifyRelease();
+            batch.lastFailed = sender;
+            scheduleRetry(batch, ++batch.retry);
         }
     }
 
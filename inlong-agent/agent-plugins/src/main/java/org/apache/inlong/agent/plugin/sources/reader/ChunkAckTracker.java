@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.reader;
+
+import org.apache.inlong.agent.db.ChunkCheckpointDb;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checkpoints of one chunked reading. The messages of a chunk are all read before its end marker,
+ * so the chunk is checkpointed once the sink acked as many messages as were read before the marker.
+ * The sink position only moves over the batches acked in send order, see the position ack window of the sink.
+ * Not thread safe, used by the reading thread only.
+ */
+public class ChunkAckTracker {
+
+    private final ChunkCheckpointDb checkpointDb;
+    private final String readKey;
+    // chunks read to the end and not acked yet, in read order
+    private final ArrayDeque<ReadChunk> unackedChunks = new ArrayDeque<>();
+    private long readNum = 0;
+
+    /**
+     * @param checkpointDb db of the checkpoints, null if chunks are not checkpointed
+     * @param readKey key of the reading, such as job instance id and read source
+     */
+    public ChunkAckTracker(ChunkCheckpointDb checkpointDb, String readKey) {
+        this.checkpointDb = checkpointDb;
+        this.readKey = readKey;
+    }
+
+    /**
+     * get the bounds saved by the first reading, min/max of the chunk column change if rows are
+     * inserted or deleted, the chunks are split from the saved bounds so that the checkpoints match them
+     *
+     * @return min, max and chunk size, null if not saved
+     */
+    public long[] getChunkBounds() {
+        return checkpointDb == null ? null : checkpointDb.getChunkBounds(readKey);
+    }
+
+    /**
+     * save the bounds the chunks are split from
+     *
+     * @param bounds min, max and chunk size
+     */
+    public void saveChunkBounds(long[] bounds) {
+        if (checkpointDb != null) {
+            checkpointDb.saveChunkBounds(readKey, bounds);
+        }
+    }
+
+    /**
+     * skip the chunks checkpointed before restart
+     *
+     * @param chunks all chunks of the reading
+     * @return chunks which need to be read
+     */
+    public List<long[]> getUnfinishedChunks(List<long[]> chunks) {
+        Set<String> finishedChunks = checkpointDb == null
+                ? Collections.emptySet() : checkpointDb.getFinishedChunks(readKey);
+        List<long[]> unfinishedChunks = new ArrayList<>();
+        for (long[] chunk : chunks) {
+            if (!finishedChunks.contains(getChunkId(chunk))) {
+                unfinishedChunks.add(chunk);
+            }
+        }
+        return unfinishedChunks;
+    }
+
+    /**
+     * one message is read and handed to the sink
+     */
+    public void onMessageRead() {
+        readNum++;
+    }
+
+    /**
+     * the end marker of a chunk is read, all messages of the chunk are read before
+     */
+    public void onChunkRead(String chunkId) {
+        unackedChunks.addLast(new ReadChunk(chunkId, readNum));
+    }
+
+    /**
+     * checkpoint the chunks whose messages are all acked
+     *
+     * @param ackedNum message number acked by the sink since the reading started
+     * @return checkpointed chunk number
+     */
+    public int onMessageAcked(long ackedNum) {
+        int finishedNum = 0;
+        while (!unackedChunks.isEmpty() && unackedChunks.peekFirst().readNum <= ackedNum) {
+            ReadChunk chunk = unackedChunks.pollFirst();
+            if (checkpointDb != null) {
+                checkpointDb.finishChunk(readKey, chunk.chunkId);
+            }
+            finishedNum++;
+        }
+        return finishedNum;
+    }
+
+    /**
+     * whether all chunks read to the end are checkpointed
+     */
+    public boolean isAllAcked() {
+        return unackedChunks.isEmpty();
+    }
+
+    /**
+     * remove the checkpoints after all chunks are acked
+     */
+    public void removeCheckpoints() {
+        if (checkpointDb != null) {
+            checkpointDb.removeChunks(readKey);
+        }
+    }
+
+    public static String getChunkId(long[] chunk) {
+        return chunk[0] + "_" + chunk[1];
+    }
+
+    private static class ReadChunk {
+
+        private final String chunkId;
+        // message number read when the chunk ends
+        private final long readNum;
+
+        ReadChunk(String chunkId, long readNum) {
+            this.chunkId = chunkId;
+            this.readNum = readNum;
+        }
+    }
+}
@@ -25,7 +25,6 @@ import org.apache.inlong.agent.metrics.audit.AuditUtils;
 import org.apache.inlong.agent.plugin.Message;
 import org.apache.inlong.agent.plugin.Validator;
 import org.apache.inlong.agent.plugin.validator.PatternValidator;
-import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -63,6 +62,8 @@ public class KafkaReader<K, V> extends AbstractReader {
     private static final String KAFKA_SOURCE_READ_BYTE_SPEED = "job.kafkaJob.byte.speed.limit";
     private static final String KAFKA_SOURCE_READ_MIN_INTERVAL = "kafka.min.interval.limit";
     private static final String JOB_KAFKAJOB_READ_TIMEOUT = "job.kafkaJob.read.timeout";
+    // poll returns the fetched records at once, the reader must not block the shared task threads
+    private static final Duration FETCH_DATA_TIMEOUT = Duration.ZERO;
     /* total readRecords */
     private static AtomicLong currentTotalReadRecords = new AtomicLong(0);
     private static AtomicLong lastTotalReadRecords = new AtomicLong(0);
@@ -88,6 +89,8 @@ public class KafkaReader<K, V> extends AbstractReader {
     private boolean isFinished = false;
     private boolean destroyed = false;
     private String topic;
+    // no reading before the time because of the flow control
+    private long flowControlEndTime = 0L;
 
     /**
      * init attribute
@@ -106,8 +109,17 @@ public class KafkaReader<K, V> extends AbstractReader {
 
     @Override
     public Message read() {
-
-        if (iterator != null && iterator.hasNext()) {
+        if (System.currentTimeMillis() < flowControlEndTime) {
+            return null;
+        }
+        if (iterator == null || !iterator.hasNext()) {
+            // commit offset
+            if (isSourceExist()) {
+                consumer.commitAsync();
+            }
+            fetchData();
+        }
+        if (iterator.hasNext()) {
             ConsumerRecord<K, V> record = iterator.next();
             // body
             byte[] recordValue = (byte[]) record.value();
@@ -129,18 +141,16 @@ public class KafkaReader<K, V> extends AbstractReader {
                 recordReadLimit(1L, message.getBody().length);
                 return message;
             }
-        } else {
-            // commit offset
-            if (isSourceExist()) {
-                consumer.commitAsync();
-            }
-            fetchData(5000);
         }
-        AgentUtils.silenceSleepInMs(waitTimeout);
-
         return null;
     }
 
+    @Override
+    public long getReadWaitMillis() {
+        long flowControlWaitTime = flowControlEndTime - System.currentTimeMillis();
+        return flowControlWaitTime > 0 ? flowControlWaitTime : waitTimeout;
+    }
+
     @Override
     public boolean isFinished() {
         return isFinished;
@@ -176,7 +186,7 @@ public class KafkaReader<K, V> extends AbstractReader {
         snapshot = jobConf.get(JOB_KAFKA_OFFSET, null);
         initReadTimeout(jobConf);
         // fetch data
-        fetchData(5000);
+        fetchData();
     }
 
     @Override
@@ -232,9 +242,9 @@ public class KafkaReader<K, V> extends AbstractReader {
         return !CollectionUtils.isEmpty(consumer.partitionsFor(topic));
     }
 
-    private boolean fetchData(long fetchDataTimeout) {
+    private boolean fetchData() {
         // cosume data
-        ConsumerRecords<K, V> records = consumer.poll(Duration.ofMillis(fetchDataTimeout));
+        ConsumerRecords<K, V> records = consumer.poll(FETCH_DATA_TIMEOUT);
         iterator = records.iterator();
         return iterator != null ? true : false;
     }
@@ -272,16 +282,12 @@ public class KafkaReader<K, V> extends AbstractReader {
                     recordLimitSleepTime = currentRecordSpeed * interval / this.recordSpeed - interval;
                 }
             }
-            // calculate sleep time
+            // calculate sleep time, the reading is parked by the task instead of sleeping
             long sleepTime = byteLimitSleepTime < recordLimitSleepTime
                     ? recordLimitSleepTime : byteLimitSleepTime;
             if (sleepTime > 0) {
                 LOGGER.info("sleep seconds:{}", sleepTime / 1000);
-                try {
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                flowControlEndTime = nowTimestamp + sleepTime;
             }
         }
         lastTimestamp = nowTimestamp;
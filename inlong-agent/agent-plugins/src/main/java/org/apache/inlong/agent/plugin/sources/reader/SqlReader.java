@@ -21,6 +21,8 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.core.task.TaskPositionManager;
+import org.apache.inlong.agent.db.ChunkCheckpointDb;
 import org.apache.inlong.agent.message.DefaultMessage;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
 import org.apache.inlong.agent.plugin.Message;
@@ -33,9 +35,22 @@ import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.sql.Types.BINARY;
 import static java.sql.Types.BLOB;
@@ -74,6 +89,23 @@ public class SqlReader extends AbstractReader {
             String.valueOf(CharUtils.LF)};
     private static final String[] EMPTY_CHARS = new String[]{StringUtils.EMPTY, StringUtils.EMPTY};
 
+    /* chunked reading, split the result by the numeric indexed column into ranges, read them in parallel */
+    private static final String JOB_DATABASE_CHUNK_COLUMN = "job.sql.chunk.column";
+    private static final String JOB_DATABASE_CHUNK_SIZE = "job.sql.chunk.size";
+    private static final long DEFAULT_JOB_DATABASE_CHUNK_SIZE = 100000L;
+    private static final String JOB_DATABASE_CHUNK_PARALLELISM = "job.sql.chunk.parallelism";
+    private static final int DEFAULT_JOB_DATABASE_CHUNK_PARALLELISM = 4;
+    private static final String JOB_DATABASE_CHUNK_ACK_TIMEOUT = "job.sql.chunk.ackTimeout";
+    private static final long DEFAULT_JOB_DATABASE_CHUNK_ACK_TIMEOUT = 600000L;
+    // the range predicate is pushed into a select of one table, the clauses below change the rows of a range
+    private static final Pattern PLAIN_SELECT_PATTERN = Pattern.compile(
+            "^\\s*SELECT\\s+(.+?)\\s+FROM\\s+([\\w.`\"]+(?:\\s+(?:AS\\s+)?(?!WHERE\\b)[\\w`\"]+)?)"
+                    + "(?:\\s+WHERE\\s+(.+?))?\\s*;?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern UNSUPPORTED_CLAUSE_PATTERN = Pattern.compile(
+            "\\b(GROUP\\s+BY|ORDER\\s+BY|LIMIT|HAVING|UNION|JOIN|DISTINCT)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern AGGREGATE_PATTERN = Pattern.compile(
+            "\\b(COUNT|SUM|AVG|MIN|MAX|GROUP_CONCAT)\\s*\\(", Pattern.CASE_INSENSITIVE);
+
     private final String sql;
 
     // use statement for mysql due to compatibility
@@ -86,49 +118,140 @@ public class SqlReader extends AbstractReader {
     // column types
     private String[] columnTypeNames;
     private int[] columnTypeCodes;
-    private boolean finished = false;
+    private volatile boolean finished = false;
     private String separator;
 
+    // chunked reading
+    private String chunkColumn;
+    private String jobInstanceId;
+    private ChunkAckTracker ackTracker;
+    private TaskPositionManager positionManager;
+    private long ackedNumBase;
+    private long ackTimeoutMs;
+    private long allReadTime = 0L;
+    // the blocking reads of the result sets run on their own threads, never on the task threads
+    private ExecutorService readExecutor;
+    private BlockingQueue<Connection> connectionPool;
+    // all connections of the chunk workers, including the ones taken from the pool
+    private final List<Connection> chunkConnections = new CopyOnWriteArrayList<>();
+    private BlockingQueue<Message> messageQueue;
+    private final AtomicInteger pendingReads = new AtomicInteger(0);
+    private volatile Exception readException;
+
     public SqlReader(String sql) {
         this.sql = sql;
     }
 
     @Override
     public Message read() {
+        if (chunkColumn != null) {
+            return readChunk();
+        }
         try {
-            if (resultSet.next()) {
-                List<String> lineColumns = new ArrayList<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String dataValue = null;
-                    /* handle special blob value, encode with base64, BLOB=2004 */
-                    int typeCode = columnTypeCodes[i - 1];
-                    String typeName = columnTypeNames[i - 1];
-
-                    // binary type
-                    if (typeCode == BLOB || typeCode == BINARY || typeCode == VARBINARY
-                            || typeCode == LONGVARBINARY || typeName.contains("BLOB")) {
-                        byte[] data = resultSet.getBytes(i);
-                        dataValue = new String(Base64.encodeBase64(data, false), StandardCharsets.UTF_8);
-                    } else {
-                        // non-binary type
-                        dataValue = StringUtils.replaceEachRepeatedly(resultSet.getString(i),
-                                NEW_LINE_CHARS, EMPTY_CHARS);
+            Message message = messageQueue.poll();
+            if (readException != null) {
+                throw readException;
+            }
+            if (message == null) {
+                if (pendingReads.get() == 0 && messageQueue.isEmpty()) {
+                    finished = true;
+                }
+                return null;
+            }
+            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_SUCCESS,
+                    inlongGroupId, inlongStreamId, System.currentTimeMillis());
+            GLOBAL_METRICS.incReadNum(metricTagName);
+            return message;
+        } catch (Exception ex) {
+            LOGGER.error("error while reading data", ex);
+            GLOBAL_METRICS.incReadFailedNum(metricTagName);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Read the message produced by the chunk workers, checkpoint the chunk when the sink acked all its messages.
+     */
+    private Message readChunk() {
+        try {
+            while (true) {
+                Message message = messageQueue.poll();
+                if (readException != null) {
+                    throw readException;
+                }
+                if (message == null) {
+                    ackTracker.onMessageAcked(getAckedNum());
+                    if (pendingReads.get() == 0 && messageQueue.isEmpty()) {
+                        finishChunkReading();
                     }
-                    lineColumns.add(dataValue);
+                    return null;
                 }
+                if (message instanceof ChunkEndMessage) {
+                    ackTracker.onChunkRead(((ChunkEndMessage) message).chunkId);
+                    ackTracker.onMessageAcked(getAckedNum());
+                    continue;
+                }
+                ackTracker.onMessageRead();
                 AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_SUCCESS,
                         inlongGroupId, inlongStreamId, System.currentTimeMillis());
                 GLOBAL_METRICS.incReadNum(metricTagName);
-                return generateMessage(lineColumns);
-            } else {
-                finished = true;
+                return message;
             }
         } catch (Exception ex) {
-            LOGGER.error("error while reading data", ex);
+            LOGGER.error("error while reading chunk data", ex);
             GLOBAL_METRICS.incReadFailedNum(metricTagName);
             throw new RuntimeException(ex);
         }
-        return null;
+    }
+
+    /**
+     * All chunks are read, finish after the sink acked them, or keep the unacked ones for the next reading
+     * if the acks do not come back in time.
+     */
+    private void finishChunkReading() {
+        if (ackTracker.isAllAcked()) {
+            ackTracker.removeCheckpoints();
+            finished = true;
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        if (allReadTime == 0L) {
+            allReadTime = currentTime;
+        } else if (currentTime - allReadTime > ackTimeoutMs) {
+            LOGGER.warn("chunks of sql {} are not all acked in {} ms, keep the checkpoints", sql, ackTimeoutMs);
+            finished = true;
+        }
+    }
+
+    private long getAckedNum() {
+        if (positionManager == null) {
+            return Long.MAX_VALUE;
+        }
+        return positionManager.getSinkAckedNum(jobInstanceId, sql) - ackedNumBase;
+    }
+
+    private List<String> readLine(ResultSet rs, int count, int[] typeCodes, String[] typeNames)
+            throws SQLException {
+        List<String> lineColumns = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String dataValue = null;
+            /* handle special blob value, encode with base64, BLOB=2004 */
+            int typeCode = typeCodes[i - 1];
+            String typeName = typeNames[i - 1];
+
+            // binary type
+            if (typeCode == BLOB || typeCode == BINARY || typeCode == VARBINARY
+                    || typeCode == LONGVARBINARY || (typeName != null && typeName.contains("BLOB"))) {
+                byte[] data = rs.getBytes(i);
+                dataValue = new String(Base64.encodeBase64(data, false), StandardCharsets.UTF_8);
+            } else {
+                // non-binary type
+                dataValue = StringUtils.replaceEachRepeatedly(rs.getString(i),
+                        NEW_LINE_CHARS, EMPTY_CHARS);
+            }
+            lineColumns.add(dataValue);
+        }
+        return lineColumns;
     }
 
     private Message generateMessage(List<String> lineColumns) {
@@ -179,11 +302,16 @@ public class SqlReader extends AbstractReader {
         columnCount = resultSet.getMetaData().getColumnCount();
         columnTypeNames = new String[columnCount];
         columnTypeCodes = new int[columnCount];
-        for (int i = 0; i < columnCount; i++) {
-            columnTypeCodes[i] = resultSet.getMetaData().getColumnType(i + 1);
-            String t = resultSet.getMetaData().getColumnTypeName(i + 1);
+        fillColumnMeta(resultSet.getMetaData(), columnTypeCodes, columnTypeNames);
+    }
+
+    private static void fillColumnMeta(ResultSetMetaData metaData, int[] typeCodes, String[] typeNames)
+            throws SQLException {
+        for (int i = 0; i < typeCodes.length; i++) {
+            typeCodes[i] = metaData.getColumnType(i + 1);
+            String t = metaData.getColumnTypeName(i + 1);
             if (t != null) {
-                columnTypeNames[i] = t.toUpperCase();
+                typeNames[i] = t.toUpperCase();
             }
         }
     }
@@ -202,6 +330,16 @@ public class SqlReader extends AbstractReader {
                 DEFAULT_JOB_DATABASE_DRIVER_CLASS);
         separator = jobConf.get(JOB_DATABASE_SEPARATOR, STD_FIELD_SEPARATOR_SHORT);
         finished = false;
+        chunkColumn = jobConf.get(JOB_DATABASE_CHUNK_COLUMN, null);
+        if (StringUtils.isNotBlank(chunkColumn)) {
+            ChunkQuery chunkQuery = ChunkQuery.parse(sql, chunkColumn);
+            if (chunkQuery != null) {
+                initChunk(jobConf, chunkQuery, driverClass, userName, password, hostName, port, batchSize);
+                return;
+            }
+            LOGGER.warn("sql {} is not a plain select of one table, read it without chunks", sql);
+        }
+        chunkColumn = null;
         try {
             String databaseType = jobConf.get(JOB_DATABASE_TYPE, MYSQL);
             String url = String.format("jdbc:%s://%s:%d", databaseType, hostName, port);
@@ -219,6 +357,10 @@ public class SqlReader extends AbstractReader {
                 resultSet = preparedStatement.executeQuery();
             }
             initColumnMeta();
+            messageQueue = new LinkedBlockingQueue<>(Math.max(batchSize, 1));
+            readExecutor = Executors.newSingleThreadExecutor();
+            pendingReads.set(1);
+            readExecutor.execute(this::readResultSet);
         } catch (Exception ex) {
             LOGGER.error("error create statement", ex);
             destroy();
@@ -227,12 +369,237 @@ public class SqlReader extends AbstractReader {
 
     }
 
+    private void readResultSet() {
+        try {
+            while (!finished && resultSet.next()) {
+                messageQueue.put(generateMessage(readLine(resultSet, columnCount, columnTypeCodes, columnTypeNames)));
+            }
+        } catch (Exception ex) {
+            if (!finished) {
+                LOGGER.error("error while reading data of sql {}", sql, ex);
+                readException = ex;
+            }
+        } finally {
+            pendingReads.decrementAndGet();
+        }
+    }
+
+    /**
+     * Split the result into ranges of the chunk column, skip the ranges finished before restart,
+     * and read the others in parallel, each worker holds one connection of the bounded pool.
+     */
+    private void initChunk(JobProfile jobConf, ChunkQuery chunkQuery, String driverClass, String userName,
+            String password, String hostName, int port, int batchSize) {
+        long chunkSize = jobConf.getLong(JOB_DATABASE_CHUNK_SIZE, DEFAULT_JOB_DATABASE_CHUNK_SIZE);
+        int parallelism = jobConf.getInt(JOB_DATABASE_CHUNK_PARALLELISM, DEFAULT_JOB_DATABASE_CHUNK_PARALLELISM);
+        ackTimeoutMs = jobConf.getLong(JOB_DATABASE_CHUNK_ACK_TIMEOUT, DEFAULT_JOB_DATABASE_CHUNK_ACK_TIMEOUT);
+        String databaseType = jobConf.get(JOB_DATABASE_TYPE, MYSQL);
+        String url = String.format("jdbc:%s://%s:%d", databaseType, hostName, port);
+        jobInstanceId = jobConf.getInstanceId();
+        positionManager = getPositionManager();
+        ackedNumBase = positionManager == null ? 0L : positionManager.getSinkAckedNum(jobInstanceId, sql);
+        ChunkCheckpointDb checkpointDb = positionManager == null ? null : positionManager.getChunkCheckpointDb();
+        ackTracker = new ChunkAckTracker(checkpointDb, jobInstanceId + "_" + Integer.toHexString(sql.hashCode()));
+        try {
+            conn = AgentDbUtils.getConnectionFailover(driverClass, url, userName, password);
+            chunkConnections.add(conn);
+            long[] bounds = ackTracker.getChunkBounds();
+            if (bounds == null) {
+                try (Statement rangeStatement = conn.createStatement();
+                        ResultSet rangeResult = rangeStatement.executeQuery(chunkQuery.getRangeSql())) {
+                    if (rangeResult.next() && rangeResult.getObject(1) != null) {
+                        bounds = new long[]{rangeResult.getLong(1), rangeResult.getLong(2), chunkSize};
+                        ackTracker.saveChunkBounds(bounds);
+                    }
+                }
+            } else {
+                LOGGER.info("sql {} is split by the bounds [{}, {}] of the previous reading", sql, bounds[0],
+                        bounds[1]);
+            }
+            List<long[]> chunks = bounds == null
+                    ? Collections.emptyList() : splitChunks(bounds[0], bounds[1], bounds[2]);
+            List<long[]> unfinishedChunks = ackTracker.getUnfinishedChunks(chunks);
+            LOGGER.info("sql {} is split into {} chunks by {}, {} of them are finished before",
+                    sql, chunks.size(), chunkColumn, chunks.size() - unfinishedChunks.size());
+
+            int workerNum = Math.max(1, Math.min(parallelism, unfinishedChunks.size()));
+            connectionPool = new ArrayBlockingQueue<>(workerNum);
+            connectionPool.offer(conn);
+            for (int i = 1; i < workerNum; i++) {
+                Connection workerConn = AgentDbUtils.getConnectionFailover(driverClass, url, userName, password);
+                chunkConnections.add(workerConn);
+                connectionPool.offer(workerConn);
+            }
+            messageQueue = new LinkedBlockingQueue<>(Math.max(batchSize, 1) * workerNum);
+            readExecutor = Executors.newFixedThreadPool(workerNum);
+            pendingReads.set(unfinishedChunks.size());
+            String chunkSql = chunkQuery.getChunkSql();
+            boolean isMysql = databaseType.equals(MYSQL);
+            for (long[] chunk : unfinishedChunks) {
+                readExecutor.execute(() -> readChunkRange(chunkSql, chunk, isMysql, batchSize));
+            }
+        } catch (Exception ex) {
+            LOGGER.error("error init chunk reading", ex);
+            destroy();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void readChunkRange(String chunkSql, long[] chunk, boolean isMysql, int batchSize) {
+        Connection chunkConn = null;
+        try {
+            chunkConn = connectionPool.take();
+            try (PreparedStatement chunkStatement = chunkConn.prepareStatement(chunkSql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                chunkStatement.setFetchSize(isMysql ? Integer.MIN_VALUE : batchSize);
+                chunkStatement.setLong(1, chunk[0]);
+                chunkStatement.setLong(2, chunk[1]);
+                try (ResultSet chunkResult = chunkStatement.executeQuery()) {
+                    ResultSetMetaData metaData = chunkResult.getMetaData();
+                    int count = metaData.getColumnCount();
+                    int[] typeCodes = new int[count];
+                    String[] typeNames = new String[count];
+                    fillColumnMeta(metaData, typeCodes, typeNames);
+                    while (!finished && chunkResult.next()) {
+                        messageQueue.put(generateMessage(readLine(chunkResult, count, typeCodes, typeNames)));
+                    }
+                }
+            }
+            if (!finished) {
+                messageQueue.put(new ChunkEndMessage(ChunkAckTracker.getChunkId(chunk)));
+            }
+        } catch (Exception ex) {
+            if (!finished) {
+                LOGGER.error("error read chunk [{}, {}] of sql {}", chunk[0], chunk[1], sql, ex);
+                readException = ex;
+            }
+        } finally {
+            if (chunkConn != null) {
+                connectionPool.offer(chunkConn);
+            }
+            pendingReads.decrementAndGet();
+        }
+    }
+
+    private TaskPositionManager getPositionManager() {
+        try {
+            return TaskPositionManager.getTaskPositionManager();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("task position manager is not initialized, chunks of {} will not be checkpointed", sql);
+            return null;
+        }
+    }
+
+    /**
+     * Split [min, max] into ranges of chunkSize, both bounds of a range are inclusive.
+     */
+    public static List<long[]> splitChunks(long min, long max, long chunkSize) {
+        List<long[]> chunks = new ArrayList<>();
+        long step = Math.max(1L, chunkSize);
+        long lower = min;
+        while (lower <= max) {
+            long upper = max - lower < step ? max : lower + step - 1;
+            chunks.add(new long[]{lower, upper});
+            if (upper == max) {
+                break;
+            }
+            lower = upper + 1;
+        }
+        return chunks;
+    }
+
     @Override
     public void destroy() {
         finished = true;
+        if (readExecutor != null) {
+            readExecutor.shutdownNow();
+        }
+        if (messageQueue != null) {
+            messageQueue.clear();
+        }
+        for (Connection chunkConn : chunkConnections) {
+            if (chunkConn != conn) {
+                AgentUtils.finallyClose(chunkConn);
+            }
+        }
+        chunkConnections.clear();
         AgentUtils.finallyClose(resultSet);
         AgentUtils.finallyClose(statement);
         AgentUtils.finallyClose(preparedStatement);
         AgentUtils.finallyClose(conn);
     }
+
+    /**
+     * Queries of chunked reading, the range predicate is pushed into the where clause of the sql,
+     * so that the database reads the range by the index of the chunk column.
+     */
+    public static class ChunkQuery {
+
+        private final String rangeSql;
+        private final String chunkSql;
+
+        private ChunkQuery(String rangeSql, String chunkSql) {
+            this.rangeSql = rangeSql;
+            this.chunkSql = chunkSql;
+        }
+
+        /**
+         * parse the sql of one table
+         *
+         * @param sql select of one table, with an optional where clause
+         * @param chunkColumn numeric indexed column of the table
+         * @return queries of chunked reading, null if the sql is not a plain select of one table
+         */
+        public static ChunkQuery parse(String sql, String chunkColumn) {
+            if (UNSUPPORTED_CLAUSE_PATTERN.matcher(sql).find()) {
+                return null;
+            }
+            Matcher matcher = PLAIN_SELECT_PATTERN.matcher(sql);
+            if (!matcher.matches() || AGGREGATE_PATTERN.matcher(matcher.group(1)).find()) {
+                return null;
+            }
+            String table = matcher.group(2);
+            String condition = matcher.group(3);
+            String rangeSql = String.format("SELECT MIN(%s), MAX(%s) FROM %s", chunkColumn, chunkColumn, table);
+            String rangePredicate = String.format("%s >= ? AND %s <= ?", chunkColumn, chunkColumn);
+            String chunkSql = String.format("SELECT %s FROM %s WHERE ", matcher.group(1), table);
+            if (condition == null) {
+                chunkSql += rangePredicate;
+            } else {
+                rangeSql += " WHERE " + condition;
+                chunkSql += "(" + condition + ") AND " + rangePredicate;
+            }
+            return new ChunkQuery(rangeSql, chunkSql);
+        }
+
+        public String getRangeSql() {
+            return rangeSql;
+        }
+
+        public String getChunkSql() {
+            return chunkSql;
+        }
+    }
+
+    /**
+     * Marker put after the last message of one chunk.
+     */
+    private static class ChunkEndMessage implements Message {
+
+        private final String chunkId;
+
+        ChunkEndMessage(String chunkId) {
+            this.chunkId = chunkId;
+        }
+
+        @Override
+        public byte[] getBody() {
+            return new byte[0];
+        }
+
+        @Override
+        public Map<String, String> getHeader() {
+            return Collections.emptyMap();
+        }
+    }
 }
@@ -94,7 +94,6 @@ public class FileReaderOperator extends AbstractReader {
                 return new DefaultMessage(message.getBytes(StandardCharsets.UTF_8));
             }
         }
-        AgentUtils.silenceSleepInMs(waitTimeout);
         return null;
     }
 
@@ -139,6 +138,11 @@ public class FileReaderOperator extends AbstractReader {
         waitTimeout = millis;
     }
 
+    @Override
+    public long getReadWaitMillis() {
+        return waitTimeout;
+    }
+
     @Override
     public String getSnapshot() {
         return StringUtils.EMPTY;
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPositionAckWindow {
+
+    @Test
+    public void testContiguousAck() {
+        PositionAckWindow window = new PositionAckWindow();
+        PositionAckWindow.Batch first = window.register(10);
+        PositionAckWindow.Batch second = window.register(20);
+        PositionAckWindow.Batch third = window.register(30);
+        // acks out of order do not move the position over an in-flight batch
+        Assert.assertEquals(0, window.ack(third));
+        Assert.assertEquals(0, window.ack(second));
+        Assert.assertEquals(3, window.pendingSize());
+        Assert.assertEquals(60, window.ack(first));
+        Assert.assertEquals(0, window.pendingSize());
+    }
+
+    @Test
+    public void testDuplicateAck() {
+        PositionAckWindow window = new PositionAckWindow();
+        PositionAckWindow.Batch first = window.register(5);
+        PositionAckWindow.Batch second = window.register(7);
+        Assert.assertEquals(5, window.ack(first));
+        Assert.assertEquals(0, window.ack(first));
+        Assert.assertEquals(7, window.ack(second));
+        Assert.assertEquals(0, window.ack(second));
+    }
+
+    @Test
+    public void testFail() {
+        PositionAckWindow window = new PositionAckWindow();
+        PositionAckWindow.Batch first = window.register(5);
+        PositionAckWindow.Batch second = window.register(7);
+        window.fail(second);
+        Assert.assertTrue(window.isFailed());
+        // the position never moves over the failed batch
+        Assert.assertEquals(0, window.ack(first));
+        Assert.assertEquals(0, window.ack(window.register(3)));
+        Assert.assertEquals(0, window.pendingSize());
+    }
+}
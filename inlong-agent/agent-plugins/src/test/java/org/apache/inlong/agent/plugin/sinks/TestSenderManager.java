@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.constant.CommonConstants;
+import org.apache.inlong.agent.core.task.TaskPositionManager;
+import org.apache.inlong.sdk.dataproxy.DefaultMessageSender;
+import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.SendResult;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.api.support.membermodification.MemberModifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * window and permit accounting of the async batches
+ */
+public class TestSenderManager {
+
+    private static final String JOB_ID = "job_1";
+    private static final String SOURCE_PATH = "/data/test.log";
+    private static final String STREAM_ID = "stream_1";
+
+    private final String groupId = "group_" + System.nanoTime();
+    private final List<SendMessageCallback> callbacks = new CopyOnWriteArrayList<>();
+    private ScheduledThreadPoolExecutor retryScheduler;
+    private TaskPositionManager positionManager;
+    private SenderManager senderManager;
+
+    @Before
+    public void setUp() throws Exception {
+        positionManager = PowerMockito.mock(TaskPositionManager.class);
+        MemberModifier.field(TaskPositionManager.class, "taskPositionManager").set(null, positionManager);
+        retryScheduler = new ScheduledThreadPoolExecutor(1);
+
+        JobProfile jobConf = new JobProfile();
+        jobConf.setInt(CommonConstants.PROXY_MESSAGE_SEMAPHORE, 2);
+        jobConf.setInt(CommonConstants.PROXY_MAX_INFLIGHT_BYTES, 10);
+        jobConf.setInt(CommonConstants.PROXY_SENDER_MAX_INFLIGHT_BATCH, 1);
+        jobConf.setLong(CommonConstants.PROXY_RETRY_SLEEP, 1L);
+        // one sender list per test, the senders are shared by the group id
+        senderManager = new SenderManager(jobConf, groupId, SOURCE_PATH, retryScheduler);
+
+        DefaultMessageSender sender = PowerMockito.mock(DefaultMessageSender.class);
+        Mockito.doAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(0));
+            return null;
+        }).when(sender).asyncSendMessage(any(SendMessageCallback.class), anyList(), anyString(), anyString(),
+                anyLong(), anyString(), anyLong(), any(TimeUnit.class));
+        senderManager.addMessageSender(sender);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        retryScheduler.shutdownNow();
+        MemberModifier.field(TaskPositionManager.class, "taskPositionManager").set(null, null);
+    }
+
+    @Test
+    public void testAck() {
+        List<byte[]> bodyList = takeBatch();
+        senderManager.sendBatchAsync(JOB_ID, groupId, STREAM_ID, bodyList, 0, 0L);
+        Assert.assertEquals(1, callbacks.size());
+        Assert.assertFalse(senderManager.hasWindow());
+        Assert.assertFalse(senderManager.hasCapacity());
+
+        callbacks.get(0).onMessageAck(SendResult.OK);
+        Assert.assertTrue(senderManager.hasWindow());
+        assertAllPermitsReleased();
+        Mockito.verify(positionManager).updateSinkPosition(JOB_ID, SOURCE_PATH, 2L);
+    }
+
+    @Test
+    public void testRetry() {
+        List<byte[]> bodyList = takeBatch();
+        senderManager.sendBatchAsync(JOB_ID, groupId, STREAM_ID, bodyList, 0, 0L);
+        callbacks.get(0).onMessageAck(SendResult.TIMEOUT);
+        // the window is released for the retry, the permits are kept until the batch is acked
+        await().atMost(10, TimeUnit.SECONDS).until(() -> callbacks.size() == 2);
+        Assert.assertFalse(senderManager.hasCapacity());
+
+        callbacks.get(1).onMessageAck(SendResult.OK);
+        Assert.assertTrue(senderManager.hasWindow());
+        assertAllPermitsReleased();
+        Mockito.verify(positionManager).updateSinkPosition(JOB_ID, SOURCE_PATH, 2L);
+    }
+
+    @Test
+    public void testDrop() {
+        AtomicReference<List<byte[]>> failedBodyList = new AtomicReference<>();
+        senderManager.setFailListener((jobId, streamId, bodyList, cause) -> failedBodyList.set(bodyList));
+        List<byte[]> bodyList = takeBatch();
+        senderManager.sendBatchAsync(JOB_ID, groupId, STREAM_ID, bodyList, 0, 0L);
+        // the retry can not be scheduled any more
+        retryScheduler.shutdown();
+        callbacks.get(0).onException(new IllegalStateException("connection lost"));
+
+        Assert.assertSame(bodyList, failedBodyList.get());
+        Assert.assertTrue(senderManager.hasWindow());
+        assertAllPermitsReleased();
+
+        // the position never moves over the dropped batch
+        List<byte[]> nextBodyList = takeBatch();
+        senderManager.sendBatchAsync(JOB_ID, groupId, STREAM_ID, nextBodyList, 0, 0L);
+        callbacks.get(1).onMessageAck(SendResult.OK);
+        assertAllPermitsReleased();
+        Mockito.verify(positionManager, Mockito.never()).updateSinkPosition(eq(JOB_ID), eq(SOURCE_PATH), anyLong());
+    }
+
+    /**
+     * take all the message permits with two messages of 4 bytes
+     */
+    private List<byte[]> takeBatch() {
+        Assert.assertTrue(senderManager.tryAcquire(4));
+        Assert.assertTrue(senderManager.tryAcquire(4));
+        return Arrays.asList(new byte[4], new byte[4]);
+    }
+
+    private void assertAllPermitsReleased() {
+        Assert.assertTrue(senderManager.hasCapacity());
+        // all the bytes are back as well
+        Assert.assertTrue(senderManager.tryAcquire(10));
+        senderManager.releaseUntaken(10);
+    }
+}
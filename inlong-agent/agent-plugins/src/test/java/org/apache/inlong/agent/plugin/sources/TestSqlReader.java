@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources;
+
+import org.apache.inlong.agent.db.ChunkCheckpointDb;
+import org.apache.inlong.agent.db.RocksDbImp;
+import org.apache.inlong.agent.plugin.AgentBaseTestsHelper;
+import org.apache.inlong.agent.plugin.sources.reader.ChunkAckTracker;
+import org.apache.inlong.agent.plugin.sources.reader.SqlReader;
+import org.apache.inlong.agent.plugin.sources.reader.SqlReader.ChunkQuery;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestSqlReader {
+
+    private static AgentBaseTestsHelper helper;
+    private static RocksDbImp db;
+
+    @BeforeClass
+    public static void setup() {
+        helper = new AgentBaseTestsHelper(TestSqlReader.class.getName()).setupAgentHome();
+        db = new RocksDbImp();
+    }
+
+    @AfterClass
+    public static void teardown() throws Exception {
+        db.close();
+        helper.teardownAgentHome();
+    }
+
+    @Test
+    public void testSplitChunks() {
+        List<long[]> chunks = SqlReader.splitChunks(1, 25, 10);
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertArrayEquals(new long[]{1, 10}, chunks.get(0));
+        Assert.assertArrayEquals(new long[]{11, 20}, chunks.get(1));
+        Assert.assertArrayEquals(new long[]{21, 25}, chunks.get(2));
+
+        chunks = SqlReader.splitChunks(5, 5, 10);
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertArrayEquals(new long[]{5, 5}, chunks.get(0));
+
+        chunks = SqlReader.splitChunks(Long.MAX_VALUE - 5, Long.MAX_VALUE, 4);
+        Assert.assertEquals(2, chunks.size());
+        Assert.assertArrayEquals(new long[]{Long.MAX_VALUE - 1, Long.MAX_VALUE}, chunks.get(1));
+    }
+
+    @Test
+    public void testChunkQuery() {
+        ChunkQuery query = ChunkQuery.parse("select id, name from db.t_user", "id");
+        Assert.assertEquals("SELECT MIN(id), MAX(id) FROM db.t_user", query.getRangeSql());
+        Assert.assertEquals("SELECT id, name FROM db.t_user WHERE id >= ? AND id <= ?", query.getChunkSql());
+
+        query = ChunkQuery.parse("SELECT * FROM t_user u WHERE u.age > 10 OR u.vip = 1;", "u.id");
+        Assert.assertEquals("SELECT MIN(u.id), MAX(u.id) FROM t_user u WHERE u.age > 10 OR u.vip = 1",
+                query.getRangeSql());
+        Assert.assertEquals("SELECT * FROM t_user u WHERE (u.age > 10 OR u.vip = 1) AND u.id >= ? AND u.id <= ?",
+                query.getChunkSql());
+
+        Assert.assertNull(ChunkQuery.parse("select * from t_user order by id limit 10", "id"));
+        Assert.assertNull(ChunkQuery.parse("select count(*) from t_user", "id"));
+        Assert.assertNull(ChunkQuery.parse("select * from t_user a join t_order b on a.id = b.uid", "id"));
+        Assert.assertNull(ChunkQuery.parse("select * from (select * from t_user) t", "id"));
+    }
+
+    @Test
+    public void testChunkCompletion() {
+        ChunkCheckpointDb checkpointDb = new ChunkCheckpointDb(db);
+        ChunkAckTracker tracker = new ChunkAckTracker(checkpointDb, "completion");
+        List<long[]> chunks = SqlReader.splitChunks(1, 30, 10);
+        Assert.assertEquals(3, tracker.getUnfinishedChunks(chunks).size());
+
+        // two messages of chunk 1_10, then one message of each chunk, chunk 1_10 ends after the third message
+        tracker.onMessageRead();
+        tracker.onMessageRead();
+        tracker.onMessageRead();
+        tracker.onChunkRead("1_10");
+        tracker.onMessageRead();
+        tracker.onChunkRead("11_20");
+
+        // the chunk is read but not acked
+        Assert.assertEquals(0, tracker.onMessageAcked(2));
+        Assert.assertFalse(tracker.isAllAcked());
+        Assert.assertTrue(checkpointDb.getFinishedChunks("completion").isEmpty());
+
+        Assert.assertEquals(1, tracker.onMessageAcked(3));
+        Assert.assertTrue(checkpointDb.getFinishedChunks("completion").contains("1_10"));
+        Assert.assertEquals(1, tracker.onMessageAcked(4));
+        Assert.assertTrue(tracker.isAllAcked());
+        Assert.assertEquals(2, checkpointDb.getFinishedChunks("completion").size());
+
+        tracker.removeCheckpoints();
+        Assert.assertTrue(checkpointDb.getFinishedChunks("completion").isEmpty());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() {
+        ChunkCheckpointDb checkpointDb = new ChunkCheckpointDb(db);
+        List<long[]> chunks = SqlReader.splitChunks(1, 30, 10);
+        ChunkAckTracker tracker = new ChunkAckTracker(checkpointDb, "resume");
+        tracker.onMessageRead();
+        tracker.onChunkRead("11_20");
+        tracker.onMessageRead();
+        tracker.onChunkRead("1_10");
+        // only the first chunk is acked before restart
+        tracker.onMessageAcked(1);
+
+        ChunkAckTracker restarted = new ChunkAckTracker(checkpointDb, "resume");
+        List<long[]> unfinishedChunks = restarted.getUnfinishedChunks(chunks);
+        Assert.assertEquals(2, unfinishedChunks.size());
+        Assert.assertArrayEquals(new long[]{1, 10}, unfinishedChunks.get(0));
+        Assert.assertArrayEquals(new long[]{21, 30}, unfinishedChunks.get(1));
+
+        // another reading of the same job keeps its own checkpoints
+        Assert.assertEquals(3, new ChunkAckTracker(checkpointDb, "other").getUnfinishedChunks(chunks).size());
+        restarted.removeCheckpoints();
+    }
+
+    @Test
+    public void testChunkBounds() {
+        ChunkCheckpointDb checkpointDb = new ChunkCheckpointDb(db);
+        ChunkAckTracker tracker = new ChunkAckTracker(checkpointDb, "bounds");
+        Assert.assertNull(tracker.getChunkBounds());
+        tracker.saveChunkBounds(new long[]{1, 30, 10});
+        tracker.onMessageRead();
+        tracker.onChunkRead("1_10");
+        tracker.onMessageAcked(1);
+
+        // rows are deleted and inserted before restart, the chunks are split from the saved bounds
+        ChunkAckTracker restarted = new ChunkAckTracker(checkpointDb, "bounds");
+        long[] bounds = restarted.getChunkBounds();
+        Assert.assertArrayEquals(new long[]{1, 30, 10}, bounds);
+        List<long[]> unfinishedChunks = restarted.getUnfinishedChunks(
+                SqlReader.splitChunks(bounds[0], bounds[1], bounds[2]));
+        Assert.assertEquals(2, unfinishedChunks.size());
+        Assert.assertArrayEquals(new long[]{11, 20}, unfinishedChunks.get(0));
+
+        restarted.removeCheckpoints();
+        Assert.assertNull(restarted.getChunkBounds());
+        Assert.assertTrue(checkpointDb.getFinishedChunks("bounds").isEmpty());
+    }
+}
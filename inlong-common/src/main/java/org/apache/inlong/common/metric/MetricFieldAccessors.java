@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.inlong.common.metric;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MetricFieldAccessors, the getters of the dimension and metric fields of a metric item class.
+ * <p/>
+ * The annotated fields are scanned once per class, and read by method handles afterwards,
+ * so creating and snapshotting the items of every interval does not use reflection.
+ */
+final class MetricFieldAccessors {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<MetricFieldAccessors> ACCESSORS = new ClassValue<MetricFieldAccessors>() {
+
+        @Override
+        protected MetricFieldAccessors computeValue(Class<?> clazz) {
+            return new MetricFieldAccessors(clazz);
+        }
+    };
+
+    final List<FieldAccessor> dimensions = new ArrayList<>();
+    final List<FieldAccessor> countMetrics = new ArrayList<>();
+    final List<FieldAccessor> gaugeMetrics = new ArrayList<>();
+
+    private MetricFieldAccessors(Class<?> clazz) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : MetricItem.getDeclaredFieldsIncludingInherited(clazz)) {
+            for (Annotation fieldAnnotation : field.getAnnotations()) {
+                String name = null;
+                List<FieldAccessor> accessors = null;
+                if (fieldAnnotation instanceof Dimension) {
+                    name = ((Dimension) fieldAnnotation).name();
+                    accessors = dimensions;
+                } else if (fieldAnnotation instanceof CountMetric) {
+                    name = ((CountMetric) fieldAnnotation).name();
+                    accessors = countMetrics;
+                } else if (fieldAnnotation instanceof GaugeMetric) {
+                    name = ((GaugeMetric) fieldAnnotation).name();
+                    accessors = gaugeMetrics;
+                }
+                if (accessors == null) {
+                    continue;
+                }
+                name = (name != null && name.length() > 0) ? name : field.getName();
+                try {
+                    field.setAccessible(true);
+                    MethodHandle getter = lookup.unreflectGetter(field);
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                    }
+                    getter = getter.asType(GETTER_TYPE);
+                    accessors.add(new FieldAccessor(name, getter));
+                } catch (Throwable t) {
+                    MetricItem.LOGGER.error(t.getMessage(), t);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * of
+     */
+    static MetricFieldAccessors of(Class<?> clazz) {
+        return ACCESSORS.get(clazz);
+    }
+
+    /**
+     * FieldAccessor
+     */
+    static final class FieldAccessor {
+
+        final String name;
+        private final MethodHandle getter;
+
+        FieldAccessor(String name, MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        Object get(Object item) throws Throwable {
+            return (Object) getter.invokeExact(item);
+        }
+    }
+}
@@ -20,7 +20,6 @@ package org.apache.inlong.common.metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -76,27 +75,13 @@ public abstract class MetricItem implements MetricItemMBean {
             return dimensions;
         }
         dimensions = new HashMap<>();
-
-        // get all fields
-        List<Field> fields = getDeclaredFieldsIncludingInherited(this.getClass());
-
-        // filter dimension fields
-        for (Field field : fields) {
-            field.setAccessible(true);
-            for (Annotation fieldAnnotation : field.getAnnotations()) {
-                if (fieldAnnotation instanceof Dimension) {
-                    Dimension dimension = (Dimension) fieldAnnotation;
-                    String name = dimension.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        String value = (fieldValue == null) ? "" : fieldValue.toString();
-                        dimensions.put(name, value);
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
-                }
+        for (MetricFieldAccessors.FieldAccessor accessor : MetricFieldAccessors.of(this.getClass()).dimensions) {
+            try {
+                Object fieldValue = accessor.get(this);
+                String value = (fieldValue == null) ? "" : fieldValue.toString();
+                dimensions.put(accessor.name, value);
+            } catch (Throwable t) {
+                LOGGER.error(t.getMessage(), t);
             }
         }
         return dimensions;
@@ -112,6 +97,14 @@ public abstract class MetricItem implements MetricItemMBean {
         this.dimensions.putAll(dimensions);
     }
 
+    /**
+     * set dimensions with the key computed by the caller
+     */
+    void setDimensions(Map<String, String> dimensions, String key) {
+        this.setDimensions(dimensions);
+        this.key = key;
+    }
+
     /**
      * snapshot
      */
@@ -137,41 +130,21 @@ public abstract class MetricItem implements MetricItemMBean {
     protected void initMetricField() {
         this.countMetrics = new HashMap<>();
         this.gaugeMetrics = new HashMap<>();
+        MetricFieldAccessors accessors = MetricFieldAccessors.of(this.getClass());
+        fillMetricFields(accessors.countMetrics, this.countMetrics);
+        fillMetricFields(accessors.gaugeMetrics, this.gaugeMetrics);
+    }
 
-        // get all fields
-        List<Field> fields = getDeclaredFieldsIncludingInherited(this.getClass());
-
-        // filter metric fields
-        for (Field field : fields) {
-            field.setAccessible(true);
-            for (Annotation fieldAnnotation : field.getAnnotations()) {
-                if (fieldAnnotation instanceof CountMetric) {
-                    CountMetric countMetric = (CountMetric) fieldAnnotation;
-                    String name = countMetric.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.countMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
-                } else if (fieldAnnotation instanceof GaugeMetric) {
-                    GaugeMetric gaugeMetric = (GaugeMetric) fieldAnnotation;
-                    String name = gaugeMetric.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.gaugeMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
+    private void fillMetricFields(List<MetricFieldAccessors.FieldAccessor> accessors,
+            Map<String, AtomicLong> metrics) {
+        for (MetricFieldAccessors.FieldAccessor accessor : accessors) {
+            try {
+                Object fieldValue = accessor.get(this);
+                if (fieldValue instanceof AtomicLong) {
+                    metrics.put(accessor.name, (AtomicLong) fieldValue);
                 }
+            } catch (Throwable t) {
+                LOGGER.error(t.getMessage(), t);
             }
         }
     }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.inlong.common.metric;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MetricItemHandle, a dimension set resolved once by {@link MetricItemSet#resolveHandle(Map)}.
+ * <p/>
+ * The handle keeps the dimensions key, so getting the metric item does not build the key
+ * again. It stays valid when the item set is swapped by {@link MetricItemSet#snapshot()},
+ * the item of the new interval is looked up by the kept key. It is meant to be cached by
+ * the sink, stream or worker which reports with the same dimensions.
+ */
+public class MetricItemHandle<T extends MetricItem> {
+
+    private final MetricItemSet<T> itemSet;
+    private final String key;
+    private final Map<String, String> dimensions;
+    // the item found in the item map of the current interval
+    private volatile ResolvedItem<T> resolvedItem;
+
+    MetricItemHandle(MetricItemSet<T> itemSet, Map<String, String> dimensions) {
+        this.itemSet = itemSet;
+        this.dimensions = new HashMap<>(dimensions);
+        this.key = MetricUtils.getDimensionsKey(this.dimensions);
+    }
+
+    /**
+     * getItem
+     *
+     * @return the metric item of the current interval
+     */
+    public T getItem() {
+        Map<String, T> itemMap = itemSet.itemMap;
+        ResolvedItem<T> resolved = this.resolvedItem;
+        if (resolved != null && resolved.itemMap == itemMap) {
+            return resolved.item;
+        }
+        T item = itemSet.findMetricItem(itemMap, key, dimensions);
+        this.resolvedItem = new ResolvedItem<>(itemMap, item);
+        return item;
+    }
+
+    /**
+     * getKey
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * getDimensions
+     */
+    public Map<String, String> getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * ResolvedItem
+     */
+    private static class ResolvedItem<T> {
+
+        private final Map<String, T> itemMap;
+        private final T item;
+
+        ResolvedItem(Map<String, T> itemMap, T item) {
+            this.itemMap = itemMap;
+            this.item = item;
+        }
+    }
+}
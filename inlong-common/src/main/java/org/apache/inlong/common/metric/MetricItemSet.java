@@ -29,7 +29,7 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
 
     protected String name;
 
-    protected Map<String, T> itemMap = new ConcurrentHashMap<>();
+    protected volatile Map<String, T> itemMap = new ConcurrentHashMap<>();
 
     /**
      * Constructor
@@ -55,13 +55,30 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
      */
     public T findMetricItem(Map<String, String> dimensions) {
         String key = MetricUtils.getDimensionsKey(dimensions);
-        T currentItem = this.itemMap.get(key);
+        return findMetricItem(this.itemMap, key, dimensions);
+    }
+
+    /**
+     * resolveHandle, resolve the dimensions once for the repeated lookups of the same item.
+     *
+     * @param  dimensions the dimensions, copied by the handle
+     * @return            the handle of the dimensions
+     */
+    public MetricItemHandle<T> resolveHandle(Map<String, String> dimensions) {
+        return new MetricItemHandle<>(this, dimensions);
+    }
+
+    /**
+     * findMetricItem in the item map
+     */
+    T findMetricItem(Map<String, T> currentMap, String key, Map<String, String> dimensions) {
+        T currentItem = currentMap.get(key);
         if (currentItem != null) {
             return currentItem;
         }
         currentItem = createItem();
-        currentItem.setDimensions(dimensions);
-        T oldItem = this.itemMap.putIfAbsent(key, currentItem);
+        currentItem.setDimensions(dimensions, key);
+        T oldItem = currentMap.putIfAbsent(key, currentItem);
         return (oldItem == null) ? currentItem : oldItem;
     }
 
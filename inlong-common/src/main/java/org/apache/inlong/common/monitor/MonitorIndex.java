@@ -17,12 +17,24 @@
 
 package org.apache.inlong.common.monitor;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Monitor index, accumulates the message count, package count, package size and
+ * failure count of each key, and prints them as "name#key#cnt#packcnt#packsize#failcnt"
+ * every interval.
+ * <p/>
+ * The counters of a key are striped primitive adders, so the update of an existing key
+ * takes no lock and creates no object. All counters of an interval are kept in one
+ * generation, which is swapped with an empty one when the interval is reported.
+ */
 public class MonitorIndex {
 
     private static final Logger logger = LoggerFactory.getLogger(MonitorIndex.class);
@@ -30,7 +42,8 @@ public class MonitorIndex {
 
     private IndexCollectThread indexCol;
     private String name;
-    private ConcurrentHashMap<String, String> counterMap = new ConcurrentHashMap<String, String>();
+    private final AtomicReference<CounterGeneration> generation =
+            new AtomicReference<CounterGeneration>(new CounterGeneration());
     private int intervalSec;
     private int maxCnt;
 
@@ -60,23 +73,29 @@ public class MonitorIndex {
      */
     public void addAndGet(String key, int cnt, int packcnt, long packsize, int failcnt) {
         try {
-            if (counterMap.size() < maxCnt) {
-                counterMap.compute(key, (key1, value) -> {
-                    if (value != null) {
-                        String[] va = value.split("#");
-                        value = (Integer.parseInt(va[0]) + cnt) + "#"
-                                + (Integer.parseInt(va[1]) + packcnt) + "#"
-                                + (Long.parseLong(va[2]) + packsize) + "#"
-                                + (Integer.parseInt(va[3]) + failcnt);
-                    } else {
-                        StringBuilder stringBuilder = new StringBuilder();
-                        value = stringBuilder.append(cnt).append("#").append(packcnt).append("#")
-                                .append(packsize).append("#").append(failcnt).toString();
+            while (true) {
+                CounterGeneration curGen = generation.get();
+                curGen.writers.incrementAndGet();
+                try {
+                    // the generation has been retired, write to the new one
+                    if (curGen != generation.get()) {
+                        continue;
                     }
-                    return value;
-                });
-            } else if (logPrinter.shouldPrint()) {
-                logger.error(this.name + "exceed monitor's max size");
+                    IndexCounter counter = curGen.counterMap.get(key);
+                    if (counter == null) {
+                        if (curGen.counterMap.size() >= maxCnt) {
+                            if (logPrinter.shouldPrint()) {
+                                logger.error(this.name + "exceed monitor's max size");
+                            }
+                            return;
+                        }
+                        counter = curGen.counterMap.computeIfAbsent(key, k -> new IndexCounter());
+                    }
+                    counter.add(cnt, packcnt, packsize, failcnt);
+                    return;
+                } finally {
+                    curGen.writers.decrementAndGet();
+                }
             }
         } catch (Exception e) {
             if (logPrinter.shouldPrint()) {
@@ -97,6 +116,72 @@ public class MonitorIndex {
         this.maxCnt = maxCnt;
     }
 
+    /**
+     * Take the counters accumulated since the last call, and start a new interval.
+     *
+     * @return the counters of the interval, key -> "cnt#packcnt#packsize#failcnt"
+     */
+    Map<String, String> snapshotAndReset() {
+        CounterGeneration retiredGen = generation.getAndSet(new CounterGeneration());
+        // wait for the updates which have got the retired generation. An update registers itself
+        // in the writer count before it checks the generation, so an update not counted here
+        // registers after the swap, sees the new generation and does not write to the retired one
+        while (retiredGen.writers.get() > 0) {
+            Thread.yield();
+        }
+        Map<String, String> counterExt = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, IndexCounter> entry : retiredGen.counterMap.entrySet()) {
+            counterExt.put(entry.getKey(), entry.getValue().toString());
+        }
+        return counterExt;
+    }
+
+    /**
+     * The counters of one reporting interval.
+     */
+    private static class CounterGeneration {
+
+        private final ConcurrentHashMap<String, IndexCounter> counterMap =
+                new ConcurrentHashMap<String, IndexCounter>();
+        // the count of updates in progress on this generation, a single atomic value, so
+        // it can be read exactly when the generation is retired
+        private final AtomicLong writers = new AtomicLong();
+    }
+
+    /**
+     * The counters of one key.
+     */
+    private static class IndexCounter {
+
+        private final LongAdder cnt = new LongAdder();
+        private final LongAdder packcnt = new LongAdder();
+        private final LongAdder packsize = new LongAdder();
+        private final LongAdder failcnt = new LongAdder();
+
+        public void add(int cnt, int packcnt, long packsize, int failcnt) {
+            if (cnt != 0) {
+                this.cnt.add(cnt);
+            }
+            if (packcnt != 0) {
+                this.packcnt.add(packcnt);
+            }
+            if (packsize != 0) {
+                this.packsize.add(packsize);
+            }
+            if (failcnt != 0) {
+                this.failcnt.add(failcnt);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(64).append(cnt.sum()).append("#")
+                    .append(packcnt.sum()).append("#")
+                    .append(packsize.sum()).append("#")
+                    .append(failcnt.sum()).toString();
+        }
+    }
+
     private class IndexCollectThread
             extends Thread {
 
@@ -112,21 +197,14 @@ public class MonitorIndex {
 
         @Override
         public void run() {
-            Map<String, String> counterExt = new HashMap<String, String>();
             while (!bShutDown) {
                 try {
                     Thread.sleep(intervalSec * 1000L);
-                    for (String str : counterMap.keySet()) {
-                        counterMap.computeIfPresent(str, (s, s2) -> {
-                            counterExt.put(s, s2);
-                            return null;
-                        });
-                    }
+                    Map<String, String> counterExt = snapshotAndReset();
                     for (Map.Entry<String, String> entrys : counterExt.entrySet()) {
                         logger.info("{}#{}#{}",
                                 new Object[]{name, entrys.getKey(), entrys.getValue()});
                     }
-                    counterExt.clear();
                 } catch (Exception e) {
                     logger.warn("monitor interrupted");
                 }
@@ -135,4 +213,3 @@ public class MonitorIndex {
         }
     }
 }
-
@@ -34,43 +34,45 @@ public class InLongMsg {
     private static final int DEFAULT_CAPACITY = 4096;
     private final int capacity;
 
-    private static final int BIN_MSG_NO_ZIP = 0;
-    private static final int BIN_MSG_SNAPPY_TYPE = 1;
-
-    private static final int BIN_MSG_TOTALLEN_OFFSET = 0;
-    private static final int BIN_MSG_GROUPID_OFFSET = 5;
-    private static final int BIN_MSG_STREAMID_OFFSET = 7;
-    private static final int BIN_MSG_EXTFIELD_OFFSET = 9;
-    private static final int BIN_MSG_COUNT_OFFSET = 15;
-    private static final int BIN_MSG_DATATIME_OFFSET = 11;
-    private static final int BIN_MSG_TOTALLEN_SIZE = 4;
-    private static final int BIN_MSG_MSGTYPE_OFFSET = 4;
-    private static final int BIN_MSG_SET_SNAPPY = (1 << 5);
+    static final int BIN_MSG_NO_ZIP = 0;
+    static final int BIN_MSG_SNAPPY_TYPE = 1;
+    static final int BIN_MSG_LZ4_TYPE = 2;
+    static final int BIN_MSG_ZSTD_TYPE = 3;
+
+    static final int BIN_MSG_TOTALLEN_OFFSET = 0;
+    static final int BIN_MSG_GROUPID_OFFSET = 5;
+    static final int BIN_MSG_STREAMID_OFFSET = 7;
+    static final int BIN_MSG_EXTFIELD_OFFSET = 9;
+    static final int BIN_MSG_COUNT_OFFSET = 15;
+    static final int BIN_MSG_DATATIME_OFFSET = 11;
+    static final int BIN_MSG_TOTALLEN_SIZE = 4;
+    static final int BIN_MSG_MSGTYPE_OFFSET = 4;
+    static final int BIN_MSG_SET_SNAPPY = (1 << 5);
     private static final int BIN_MSG_BODYLEN_SIZE = 4;
-    private static final int BIN_MSG_BODYLEN_OFFSET = 21;
-    private static final int BIN_MSG_BODY_OFFSET =
+    static final int BIN_MSG_BODYLEN_OFFSET = 21;
+    static final int BIN_MSG_BODY_OFFSET =
             BIN_MSG_BODYLEN_SIZE + BIN_MSG_BODYLEN_OFFSET;
-    private static final int BIN_MSG_ATTRLEN_SIZE = 2;
-    private static final int BIN_MSG_FORMAT_SIZE = 29;
-    private static final int BIN_MSG_MAGIC_SIZE = 2;
-    private static final int BIN_MSG_MAGIC = 0xEE01;
+    static final int BIN_MSG_ATTRLEN_SIZE = 2;
+    static final int BIN_MSG_FORMAT_SIZE = 29;
+    static final int BIN_MSG_MAGIC_SIZE = 2;
+    static final int BIN_MSG_MAGIC = 0xEE01;
 
     private static final byte[] MAGIC0 = {(byte) 0xf, (byte) 0x0};
     // with timestamp
-    private static final byte[] MAGIC1 = {(byte) 0xf, (byte) 0x1};
+    static final byte[] MAGIC1 = {(byte) 0xf, (byte) 0x1};
     // with msg cnt 20130619
-    private static final byte[] MAGIC2 = {(byte) 0xf, (byte) 0x2};
+    static final byte[] MAGIC2 = {(byte) 0xf, (byte) 0x2};
     // support msg_type = 6
-    private static final byte[] MAGIC3 = {(byte) 0xf, (byte) 0x3};
+    static final byte[] MAGIC3 = {(byte) 0xf, (byte) 0x3};
     // support binmsg
-    private static final byte[] MAGIC4 = {(byte) 0xf, (byte) 0x4};
+    static final byte[] MAGIC4 = {(byte) 0xf, (byte) 0x4};
 
     private final boolean addmode;
 
-    private static final Joiner.MapJoiner MAP_JOINER =
+    static final Joiner.MapJoiner MAP_JOINER =
             Joiner.on(AttributeConstants.SEPARATOR)
                     .withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
-    private static final Splitter.MapSplitter MAP_SPLITTER =
+    static final Splitter.MapSplitter MAP_SPLITTER =
             Splitter.on(AttributeConstants.SEPARATOR)
                     .trimResults().withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
 
@@ -106,7 +108,7 @@ public class InLongMsg {
         this.timeoffset = offset;
     }
 
-    private enum Version {
+    enum Version {
         vn(-1), v0(0), v1(1),
         v2(2), v3(3), v4(4);
 
@@ -675,10 +677,11 @@ public class InLongMsg {
             int compress = parsedInput.readByte();
             int pos = parsedInput.getPosition();
 
-            if (compress == 1) {
-                byte[] uncompressdata = new byte[Snappy.uncompressedLength(
+            InLongMsgCodec codec = InLongMsgCodec.of(compress);
+            if (codec != InLongMsgCodec.NONE) {
+                byte[] uncompressdata = new byte[codec.uncompressedLength(
                         parsedInput.getData(), pos, len - 1)];
-                int msgLen = Snappy.uncompress(parsedInput.getData(), pos, len - 1,
+                int msgLen = codec.uncompress(parsedInput.getData(), pos, len - 1,
                         uncompressdata, 0);
                 bodyBuffer = ByteBuffer.wrap(uncompressdata, 0, msgLen);
             } else {
@@ -773,11 +776,14 @@ public class InLongMsg {
         int zipType = (msgtype & 0xE0) >> 5;
         switch (zipType) {
             case (BIN_MSG_SNAPPY_TYPE):
+            case (BIN_MSG_LZ4_TYPE):
+            case (BIN_MSG_ZSTD_TYPE):
+                InLongMsgCodec codec = InLongMsgCodec.of(zipType);
                 byte[] uncompressdata =
-                        new byte[Snappy.uncompressedLength(body, 1, body.length - 1) + 1];
+                        new byte[codec.uncompressedLength(body, 1, body.length - 1) + 1];
                 // uncompress flag
                 uncompressdata[0] = 0;
-                int msgLen = Snappy.uncompress(body, 1, body.length - 1,
+                int msgLen = codec.uncompress(body, 1, body.length - 1,
                         uncompressdata, 1);
                 bodyBuffer = ByteBuffer.wrap(uncompressdata, 0, msgLen + 1);
                 break;
@@ -878,7 +884,7 @@ public class InLongMsg {
         parsed = true;
     }
 
-    private static Version getMagic(ByteBuffer buffer) {
+    static Version getMagic(ByteBuffer buffer) {
         // #lizard forgives
         byte[] array = buffer.array();
         if (buffer.remaining() < 4) {
@@ -984,12 +990,12 @@ public class InLongMsg {
             byte[] array = rawdata.array();
             int pos = rawdata.position();
             int rem = rawdata.remaining() - 1;
-            int compress = array[pos];
+            InLongMsgCodec codec = InLongMsgCodec.of(array[pos]);
 
-            if (compress == 1) {
-                byte[] uncompressdata = new byte[Snappy.uncompressedLength(
+            if (codec != InLongMsgCodec.NONE) {
+                byte[] uncompressdata = new byte[codec.uncompressedLength(
                         array, pos + 1, rem)];
-                int len = Snappy.uncompress(array, pos + 1, rem,
+                int len = codec.uncompress(array, pos + 1, rem,
                         uncompressdata, 0);
                 input.reset(uncompressdata, len);
             } else {
@@ -1051,12 +1057,12 @@ public class InLongMsg {
             byte[] array = rawdata.array();
             int pos = rawdata.position();
             int rem = rawdata.remaining() - 1;
-            int compress = array[pos];
+            InLongMsgCodec codec = InLongMsgCodec.of(array[pos]);
 
-            if (compress == 1) {
-                byte[] uncompressdata = new byte[Snappy.uncompressedLength(
+            if (codec != InLongMsgCodec.NONE) {
+                byte[] uncompressdata = new byte[codec.uncompressedLength(
                         array, pos + 1, rem)];
-                int len = Snappy.uncompress(array, pos + 1, rem,
+                int len = codec.uncompress(array, pos + 1, rem,
                         uncompressdata, 0);
                 input.reset(uncompressdata, len);
             } else {
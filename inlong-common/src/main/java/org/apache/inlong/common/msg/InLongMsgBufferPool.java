@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct buffers shared by the {@link InLongMsgBuilder}s of all threads.
+ * <p/>
+ * The buffers are pooled by power-of-two size classes, and the total size of the idle buffers is
+ * bounded. Buffers larger than the biggest class are not pooled and left to the GC after release,
+ * as are the released buffers beyond the bound. So the many idle builders of the netty channels
+ * hold no memory, and a burst of big messages does not pin its memory.
+ */
+public class InLongMsgBufferPool {
+
+    public static final InLongMsgBufferPool DEFAULT = new InLongMsgBufferPool(4 * 1024 * 1024, 64L * 1024 * 1024);
+
+    private static final int MIN_BUFFER_SHIFT = 12;
+
+    private final int maxBufferSize;
+    private final long maxPooledBytes;
+    private final ConcurrentLinkedQueue<ByteBuffer>[] sizeClasses;
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    /**
+     * @param maxBufferSize the size of the biggest pooled buffer
+     * @param maxPooledBytes the total size bound of the idle buffers
+     */
+    @SuppressWarnings("unchecked")
+    public InLongMsgBufferPool(int maxBufferSize, long maxPooledBytes) {
+        if (maxBufferSize < (1 << MIN_BUFFER_SHIFT) || maxPooledBytes < 0) {
+            throw new IllegalArgumentException("Illegal buffer pool size: " + maxBufferSize + ", " + maxPooledBytes);
+        }
+        this.maxBufferSize = maxBufferSize;
+        this.maxPooledBytes = maxPooledBytes;
+        this.sizeClasses = new ConcurrentLinkedQueue[sizeClass(maxBufferSize) + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    /**
+     * Get a cleared direct buffer of at least the given capacity.
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > maxBufferSize) {
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+        int sizeClass = sizeClass(minCapacity);
+        ByteBuffer buffer = sizeClasses[sizeClass].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(1 << (sizeClass + MIN_BUFFER_SHIFT));
+        }
+        pooledBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer got from {@link #acquire(int)}, the buffer must not be used after release.
+     */
+    public void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        if (capacity > maxBufferSize || Integer.bitCount(capacity) != 1
+                || capacity < (1 << MIN_BUFFER_SHIFT) || !buffer.isDirect()) {
+            return;
+        }
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            return;
+        }
+        sizeClasses[sizeClass(capacity)].offer(buffer);
+    }
+
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity <= (1 << MIN_BUFFER_SHIFT)) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_BUFFER_SHIFT;
+    }
+}
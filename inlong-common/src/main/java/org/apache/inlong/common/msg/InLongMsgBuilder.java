@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.apache.inlong.common.msg.InLongMsg.Version;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A reusable builder of InLongMsg, the output is the same as {@link InLongMsg#build(long)}.
+ * <p/>
+ * Different from {@link InLongMsg}, the attribute blocks and their compressed output are kept in
+ * direct buffers of the shared {@link InLongMsgBufferPool}, which are given back on {@link #reset()},
+ * so the idle builders hold no memory. {@link #buildBuffers(long)} returns the frame as the
+ * segments of these buffers for gathering writes without assembling it, and {@link #buildArray(long)}
+ * copies the segments once into the result.
+ * <p/>
+ * The compression is selected by {@link InLongMsgCodec}, snappy by default. The codec is flagged in
+ * the frame, see {@link InLongMsgCodec} for the readers able to decode lz4 and zstd.
+ * <p/>
+ * The builder is not thread-safe, each thread (e.g. each netty channel) should use its own
+ * builder. The returned buffers of {@link #buildBuffers(long)} are only valid until the builder is changed.
+ */
+public class InLongMsgBuilder {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_POOLED_BLOCKS = 16;
+    private static final int MAX_UTF_LENGTH = 65535;
+    // magic + createtime + msgcnt + attrcnt
+    private static final int MAX_FRAME_HEADER_SIZE = 2 + 8 + 4 + 4;
+
+    private final int capacity;
+    private final InLongMsgCodec codec;
+    private final Version version;
+    private final InLongMsgBufferPool bufferPool;
+
+    // the messages of each attribute, in the order the attributes were added
+    private final LinkedHashMap<String, AttrBlock> attrBlocks = new LinkedHashMap<String, AttrBlock>();
+    private final ArrayDeque<AttrBlock> freeBlocks = new ArrayDeque<AttrBlock>();
+    // the binary message of v4
+    private ByteBuffer binMsg;
+    private int binMsgLen = -1;
+
+    // the segments of the built frame, and the pooled buffers of the compressed output
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    private final List<ByteBuffer> packedBuffers = new ArrayList<ByteBuffer>();
+    private final byte[] frameHeader = new byte[MAX_FRAME_HEADER_SIZE];
+    private final byte[] binHeader = new byte[InLongMsg.BIN_MSG_BODY_OFFSET];
+
+    private int datalen;
+    private int msgcnt;
+    private long createtime = -1;
+    private long timeoffset = 0;
+
+    private static class AttrBlock {
+
+        // the (length, data) pairs of the messages, written from position 0
+        private ByteBuffer data;
+        private byte[] utfAttr;
+        // the attribute, the message count of v2, the length and the compress flag
+        private byte[] head;
+        private int cnt;
+    }
+
+    public InLongMsgBuilder(boolean compress, int version) {
+        this(DEFAULT_CAPACITY, compress, version);
+    }
+
+    /**
+     * Create a builder of the given version.
+     *
+     * @param capacity the data length of a full message, see {@link #isfull()}
+     * @param compress whether to compress the messages with snappy
+     * @param version  the version of InLongMsg, from 1 to 4
+     */
+    public InLongMsgBuilder(int capacity, boolean compress, int version) {
+        this(capacity, compress ? InLongMsgCodec.SNAPPY : InLongMsgCodec.NONE, version, InLongMsgBufferPool.DEFAULT);
+    }
+
+    /**
+     * Create a builder of the given version.
+     *
+     * @param capacity   the data length of a full message, see {@link #isfull()}
+     * @param codec      the compression of the messages
+     * @param version    the version of InLongMsg, from 1 to 4
+     * @param bufferPool the pool of the buffers
+     */
+    public InLongMsgBuilder(int capacity, InLongMsgCodec codec, int version, InLongMsgBufferPool bufferPool) {
+        Version v = Version.of(version);
+        if (v.intValue() < Version.v1.intValue()) {
+            throw new IllegalArgumentException("Unsupported InLongMsg version " + version);
+        }
+        this.capacity = capacity;
+        this.codec = codec;
+        this.version = v;
+        this.bufferPool = bufferPool;
+        reset();
+    }
+
+    public void setTimeoffset(long offset) {
+        this.timeoffset = offset;
+    }
+
+    /**
+     * Add a message, returns false means the message is big enough, see {@link InLongMsg#addMsg(String, ByteBuffer)}.
+     */
+    public boolean addMsg(String attr, byte[] data) {
+        return addMsg(attr, data, 0, data.length);
+    }
+
+    public boolean addMsg(String attr, byte[] data, int offset, int len) {
+        return addMsg(attr, ByteBuffer.wrap(data, offset, len));
+    }
+
+    public boolean addMsg(String attr, ByteBuffer data) {
+        if (version == Version.v4) {
+            throw new IllegalStateException("Use addMsg(ByteBuffer) to add the binary message of v4");
+        }
+        if (version == Version.v3 && !checkMixedData(data)) {
+            return false;
+        }
+
+        AttrBlock block = attrBlocks.get(attr);
+        if (block == null) {
+            block = freeBlocks.poll();
+            if (block == null) {
+                block = new AttrBlock();
+            }
+            block.utfAttr = encodeUTF(attr);
+            // utfattr + msgcnt + msglen + compress
+            int headLen = block.utfAttr.length + 4 + 4 + 1;
+            if (block.head == null || block.head.length < headLen) {
+                block.head = new byte[headLen];
+            }
+            attrBlocks.put(attr, block);
+            // attrlen + utflen + meglen + compress
+            this.datalen += attr.length() + 2 + 4 + 1;
+        }
+
+        int len = data.remaining();
+        block.data = ensureCapacity(block.data, 4 + len);
+        block.data.putInt(len);
+        block.data.put(data.duplicate());
+        block.cnt++;
+        this.datalen += len + 4;
+        if (version == Version.v2) {
+            this.datalen += 4;
+        }
+        msgcnt++;
+        return datalen < capacity;
+    }
+
+    public boolean addMsg(byte[] data) {
+        return addMsg(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Add the binary message of v4, only one message can be added.
+     */
+    public boolean addMsg(ByteBuffer data) {
+        if (version != Version.v4) {
+            throw new IllegalStateException("Only the binary message of v4 can be added without attribute");
+        }
+        if (binMsgLen >= 0 || !checkBinData(data)) {
+            return false;
+        }
+        binMsgLen = data.remaining();
+        binMsg = bufferPool.acquire(binMsgLen);
+        binMsg.put(data.duplicate());
+        msgcnt = binMsg.getShort(InLongMsg.BIN_MSG_COUNT_OFFSET);
+        return true;
+    }
+
+    public boolean isfull() {
+        return datalen >= capacity;
+    }
+
+    public int getMsgCnt() {
+        return msgcnt;
+    }
+
+    public int getMsgCnt(String attr) {
+        return attrBlocks.get(attr).cnt;
+    }
+
+    public long getCreatetime() {
+        return createtime;
+    }
+
+    public ByteBuffer build() throws IOException {
+        return build(System.currentTimeMillis() + timeoffset);
+    }
+
+    /**
+     * Build the message into a heap buffer, see {@link #buildArray(long)}.
+     */
+    public ByteBuffer build(long createtime) throws IOException {
+        return ByteBuffer.wrap(buildArray(createtime));
+    }
+
+    /**
+     * Build the message as the segments of the frame, nothing is copied into a whole frame,
+     * the segments can be written by a gathering channel or wrapped as a composite buffer.
+     *
+     * @return the segments, which are only valid until the builder is changed
+     */
+    public ByteBuffer[] buildBuffers(long createtime) throws IOException {
+        this.createtime = createtime;
+        releasePackedBuffers();
+        segments.clear();
+        if (version == Version.v4) {
+            buildBinMsg();
+        } else {
+            buildDefault();
+        }
+        return segments.toArray(new ByteBuffer[0]);
+    }
+
+    public byte[] buildArray() throws IOException {
+        return buildArray(System.currentTimeMillis() + timeoffset);
+    }
+
+    /**
+     * Build the message into an array, the segments are copied once into the array.
+     */
+    public byte[] buildArray(long createtime) throws IOException {
+        ByteBuffer[] buffers = buildBuffers(createtime);
+        int len = 0;
+        for (ByteBuffer buffer : buffers) {
+            len += buffer.remaining();
+        }
+        byte[] res = new byte[len];
+        int pos = 0;
+        for (ByteBuffer buffer : buffers) {
+            int segmentLen = buffer.remaining();
+            buffer.get(res, pos, segmentLen);
+            pos += segmentLen;
+        }
+        // the compressed output is not needed any more
+        segments.clear();
+        releasePackedBuffers();
+        return res;
+    }
+
+    /**
+     * Wrap a packed binary message of v4 into an InLongMsg frame with a single copy, the output is
+     * the same as {@link #buildArray()} of a v4 builder holding the message.
+     *
+     * @param data the binary message, which must fill the whole array
+     * @param compress whether the frame should be compressed
+     * @return the frame, or null if the message is malformed or should be compressed by the builder
+     */
+    public static byte[] wrapBinMsg(byte[] data, boolean compress) {
+        if (data == null || data.length < InLongMsg.BIN_MSG_FORMAT_SIZE) {
+            return null;
+        }
+        int totalLen = readInt(data, InLongMsg.BIN_MSG_TOTALLEN_OFFSET);
+        if (totalLen + InLongMsg.BIN_MSG_TOTALLEN_SIZE != data.length) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int compressType = ((data[InLongMsg.BIN_MSG_MSGTYPE_OFFSET] & 0xE0) >> 5);
+        if ((compressType == 0 && compress) || !checkBinData(buffer)) {
+            return null;
+        }
+        byte[] magic = InLongMsg.MAGIC4;
+        byte[] frame = new byte[data.length + 2 * magic.length];
+        System.arraycopy(magic, 0, frame, 0, magic.length);
+        System.arraycopy(data, 0, frame, magic.length, data.length);
+        System.arraycopy(magic, 0, frame, magic.length + data.length, magic.length);
+        return frame;
+    }
+
+    /**
+     * Clear the messages, the buffers are given back to the pool.
+     */
+    public void reset() {
+        for (AttrBlock block : attrBlocks.values()) {
+            bufferPool.release(block.data);
+            block.data = null;
+            block.utfAttr = null;
+            block.cnt = 0;
+            if (freeBlocks.size() < MAX_POOLED_BLOCKS) {
+                freeBlocks.add(block);
+            }
+        }
+        attrBlocks.clear();
+        if (binMsg != null) {
+            bufferPool.release(binMsg);
+            binMsg = null;
+        }
+        binMsgLen = -1;
+        segments.clear();
+        releasePackedBuffers();
+        datalen = getHeaderLen();
+        msgcnt = 0;
+        createtime = -1;
+    }
+
+    private void buildDefault() throws IOException {
+        addMagic();
+        int pos = 0;
+        putInt(frameHeader, pos, (int) (createtime >>> 32));
+        putInt(frameHeader, pos + 4, (int) createtime);
+        pos += 8;
+        if (version.intValue() >= Version.v2.intValue()) {
+            putInt(frameHeader, pos, msgcnt);
+            pos += 4;
+        }
+        putInt(frameHeader, pos, attrBlocks.size());
+        pos += 4;
+        segments.add(ByteBuffer.wrap(frameHeader, 0, pos));
+
+        for (AttrBlock block : attrBlocks.values()) {
+            byte[] head = block.head;
+            int headLen = block.utfAttr.length;
+            System.arraycopy(block.utfAttr, 0, head, 0, headLen);
+            if (version == Version.v2) {
+                putInt(head, headLen, block.cnt);
+                headLen += 4;
+            }
+            ByteBuffer data = slice(block.data, 0, block.data.position());
+            if (codec != InLongMsgCodec.NONE) {
+                ByteBuffer packed = acquirePackedBuffer(codec.maxCompressedLength(data.remaining()));
+                int len = codec.compress(data, packed);
+                data = slice(packed, 0, len);
+            }
+            putInt(head, headLen, data.remaining() + 1);
+            head[headLen + 4] = (byte) codec.getCode();
+            segments.add(ByteBuffer.wrap(head, 0, headLen + 4 + 1));
+            segments.add(data);
+        }
+        addMagic();
+    }
+
+    private void buildBinMsg() throws IOException {
+        if (binMsgLen < 0) {
+            throw new IOException("The binary message of v4 is not added");
+        }
+        addMagic();
+        int msgType = binMsg.get(InLongMsg.BIN_MSG_MSGTYPE_OFFSET);
+        int compressType = ((msgType & 0xE0) >> 5);
+        if (compressType == 0 && codec != InLongMsgCodec.NONE) {
+            int bodyLen = binMsg.getInt(InLongMsg.BIN_MSG_BODYLEN_OFFSET);
+            int attrOffset = InLongMsg.BIN_MSG_BODY_OFFSET + bodyLen;
+            int attrLen = binMsg.getShort(attrOffset);
+            int attrSectionLen = InLongMsg.BIN_MSG_ATTRLEN_SIZE + attrLen + InLongMsg.BIN_MSG_MAGIC_SIZE;
+
+            ByteBuffer packed = acquirePackedBuffer(codec.maxCompressedLength(bodyLen));
+            int realLen = codec.compress(slice(binMsg, InLongMsg.BIN_MSG_BODY_OFFSET, bodyLen), packed);
+            // copy headers, and set the compress flag
+            slice(binMsg, 0, binHeader.length).get(binHeader);
+            binHeader[InLongMsg.BIN_MSG_MSGTYPE_OFFSET] = (byte) (msgType | (codec.getCode() << 5));
+            putInt(binHeader, InLongMsg.BIN_MSG_TOTALLEN_OFFSET,
+                    realLen + attrLen + InLongMsg.BIN_MSG_FORMAT_SIZE - InLongMsg.BIN_MSG_TOTALLEN_SIZE);
+            putInt(binHeader, InLongMsg.BIN_MSG_BODYLEN_OFFSET, realLen);
+            segments.add(ByteBuffer.wrap(binHeader));
+            segments.add(slice(packed, 0, realLen));
+            // the attributes and MAGIC
+            segments.add(slice(binMsg, attrOffset, attrSectionLen));
+        } else {
+            segments.add(slice(binMsg, 0, binMsgLen));
+        }
+        addMagic();
+    }
+
+    // the messages of v3 are packed as (length, data) pairs
+    private boolean checkMixedData(ByteBuffer data) {
+        int msgnum = 0;
+        int pos = data.position();
+        while (pos < data.limit()) {
+            if (data.limit() - pos < 4) {
+                return false;
+            }
+            int len = data.getInt(pos);
+            pos += 4;
+            if (len > data.limit() - pos) {
+                return false;
+            }
+            msgnum++;
+            pos += len;
+        }
+
+        msgnum = msgnum / 2;
+        if (msgnum > 1) {
+            msgcnt += msgnum - 1;
+        }
+        return true;
+    }
+
+    private static boolean checkBinData(ByteBuffer data) {
+        int base = data.position();
+        if (data.remaining() < InLongMsg.BIN_MSG_FORMAT_SIZE) {
+            return false;
+        }
+        int totalLen = data.getInt(base + InLongMsg.BIN_MSG_TOTALLEN_OFFSET);
+        int bodyLen = data.getInt(base + InLongMsg.BIN_MSG_BODYLEN_OFFSET);
+        if (bodyLen < 0 || bodyLen > data.remaining() - InLongMsg.BIN_MSG_FORMAT_SIZE) {
+            return false;
+        }
+        int attrLen = data.getShort(base + InLongMsg.BIN_MSG_BODY_OFFSET + bodyLen);
+        if (attrLen < 0 || attrLen > data.remaining() - InLongMsg.BIN_MSG_FORMAT_SIZE - bodyLen) {
+            return false;
+        }
+        int msgMagic = (data.getShort(base + InLongMsg.BIN_MSG_BODY_OFFSET + bodyLen
+                + InLongMsg.BIN_MSG_ATTRLEN_SIZE + attrLen) & 0xFFFF);
+        return totalLen + InLongMsg.BIN_MSG_TOTALLEN_SIZE == bodyLen + attrLen + InLongMsg.BIN_MSG_FORMAT_SIZE
+                && msgMagic == InLongMsg.BIN_MSG_MAGIC;
+    }
+
+    private int getHeaderLen() {
+        int len = 4; // magic
+        len += 8; // create time
+        if (version == Version.v2) {
+            len += 4; // msgcnt
+        }
+        return len + 4; // attrcnt
+    }
+
+    private void addMagic() {
+        byte[] magic;
+        if (version == Version.v1) {
+            magic = InLongMsg.MAGIC1;
+        } else if (version == Version.v2) {
+            magic = InLongMsg.MAGIC2;
+        } else if (version == Version.v3) {
+            magic = InLongMsg.MAGIC3;
+        } else {
+            magic = InLongMsg.MAGIC4;
+        }
+        segments.add(ByteBuffer.wrap(magic).asReadOnlyBuffer());
+    }
+
+    private ByteBuffer acquirePackedBuffer(int size) {
+        ByteBuffer buffer = bufferPool.acquire(size);
+        packedBuffers.add(buffer);
+        return buffer;
+    }
+
+    private void releasePackedBuffers() {
+        for (ByteBuffer buffer : packedBuffers) {
+            bufferPool.release(buffer);
+        }
+        packedBuffers.clear();
+    }
+
+    /**
+     * Make sure the pooled buffer has the given size remaining, a bigger buffer is taken from the
+     * pool and the written bytes are moved to it.
+     */
+    private ByteBuffer ensureCapacity(ByteBuffer buffer, int size) {
+        if (buffer == null) {
+            return bufferPool.acquire(size);
+        }
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        ByteBuffer newBuffer = bufferPool.acquire(Math.max(buffer.capacity() << 1, buffer.position() + size));
+        buffer.flip();
+        newBuffer.put(buffer);
+        bufferPool.release(buffer);
+        return newBuffer;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int len) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + len);
+        view.position(offset);
+        return view;
+    }
+
+    /**
+     * Encode the attribute like {@link java.io.DataOutput#writeUTF(String)}, with the 2 bytes length.
+     */
+    private static byte[] encodeUTF(String str) {
+        int utflen = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                utflen++;
+            } else if (c > 0x07FF) {
+                utflen += 3;
+            } else {
+                utflen += 2;
+            }
+        }
+        if (utflen > MAX_UTF_LENGTH) {
+            throw new IllegalArgumentException("The attribute is too long: " + utflen + " bytes");
+        }
+
+        byte[] bytes = new byte[utflen + 2];
+        int count = 0;
+        bytes[count++] = (byte) ((utflen >>> 8) & 0xFF);
+        bytes[count++] = (byte) (utflen & 0xFF);
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                bytes[count++] = (byte) c;
+            } else if (c > 0x07FF) {
+                bytes[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                bytes[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }
+
+    private static void putInt(byte[] array, int offset, int value) {
+        array[offset] = (byte) (value >>> 24);
+        array[offset + 1] = (byte) (value >>> 16);
+        array[offset + 2] = (byte) (value >>> 8);
+        array[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] array, int offset) {
+        return ((array[offset] & 0xFF) << 24)
+                | ((array[offset + 1] & 0xFF) << 16)
+                | ((array[offset + 2] & 0xFF) << 8)
+                | (array[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The compression of the attribute blocks and of the binary body of InLongMsg.
+ * <p/>
+ * The code is written into the compress flag byte of each attribute block, and into the bits
+ * 0xE0 of the message type of v4. Snappy blocks are self-describing, lz4 and zstd blocks are
+ * prefixed with the 4 bytes raw length. Readers before lz4 and zstd take the unknown flags as
+ * uncompressed, so the readers must be upgraded before the writers switch to them.
+ * <p/>
+ * lz4-java and zstd-jni are optional dependencies, they are only loaded when used. Without them
+ * the blocks of lz4 or zstd fail with an IOException naming the missing library.
+ * <p/>
+ * The blocks come from the network, so the raw length is checked against
+ * {@link #MAX_UNCOMPRESSED_LENGTH} before allocating, and the decompressors check their bounds.
+ */
+public enum InLongMsgCodec {
+
+    NONE(0, null),
+    SNAPPY(1, "org.xerial.snappy:snappy-java"),
+    LZ4(2, "org.lz4:lz4-java"),
+    ZSTD(3, "com.github.luben:zstd-jni");
+
+    // the max raw length of a block, larger than the max message size of the message queues
+    public static final int MAX_UNCOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+    private static final int RAW_LEN_SIZE = 4;
+    private static final int ZSTD_LEVEL = 3;
+
+    private final int code;
+    private final String library;
+
+    InLongMsgCodec(int code, String library) {
+        this.code = code;
+        this.library = library;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Get the codec of the compress flag, unknown flags are taken as uncompressed like before.
+     */
+    public static InLongMsgCodec of(int code) {
+        for (InLongMsgCodec codec : values()) {
+            if (codec.code == code) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    public int maxCompressedLength(int len) {
+        try {
+            switch (this) {
+                case SNAPPY:
+                    return Snappy.maxCompressedLength(len);
+                case LZ4:
+                    return RAW_LEN_SIZE + Lz4Holder.COMPRESSOR.maxCompressedLength(len);
+                case ZSTD:
+                    return RAW_LEN_SIZE + (int) Zstd.compressBound(len);
+                default:
+                    return len;
+            }
+        } catch (LinkageError e) {
+            throw new IllegalStateException(getMissingLibraryMessage(), e);
+        }
+    }
+
+    /**
+     * Compress the remaining bytes of src to dst from its position, both buffers must be direct.
+     * The positions of the buffers are not changed.
+     *
+     * @return the compressed length
+     */
+    public int compress(ByteBuffer src, ByteBuffer dst) throws IOException {
+        int srcLen = src.remaining();
+        int dstPos = dst.position();
+        try {
+            switch (this) {
+                case SNAPPY:
+                    ByteBuffer out = dst.duplicate();
+                    return Snappy.compress(src.duplicate(), out);
+                case LZ4:
+                    dst.putInt(dstPos, srcLen);
+                    return RAW_LEN_SIZE + Lz4Holder.COMPRESSOR.compress(src, src.position(), srcLen,
+                            dst, dstPos + RAW_LEN_SIZE, dst.limit() - dstPos - RAW_LEN_SIZE);
+                case ZSTD:
+                    dst.putInt(dstPos, srcLen);
+                    long len = Zstd.compressDirectByteBuffer(dst, dstPos + RAW_LEN_SIZE,
+                            dst.limit() - dstPos - RAW_LEN_SIZE, src, src.position(), srcLen, ZSTD_LEVEL);
+                    if (Zstd.isError(len)) {
+                        throw new IOException("zstd compression error: " + Zstd.getErrorName(len));
+                    }
+                    return RAW_LEN_SIZE + (int) len;
+                default:
+                    dst.duplicate().put(src.duplicate());
+                    return srcLen;
+            }
+        } catch (LinkageError e) {
+            throw new IOException(getMissingLibraryMessage(), e);
+        }
+    }
+
+    /**
+     * Get the raw length of the block, which is checked against {@link #MAX_UNCOMPRESSED_LENGTH}.
+     */
+    public int uncompressedLength(byte[] src, int offset, int len) throws IOException {
+        int rawLen;
+        switch (this) {
+            case SNAPPY:
+                rawLen = Snappy.uncompressedLength(src, offset, len);
+                break;
+            case LZ4:
+            case ZSTD:
+                if (len < RAW_LEN_SIZE) {
+                    throw new IOException("The " + this + " block is truncated");
+                }
+                rawLen = ByteBuffer.wrap(src, offset, RAW_LEN_SIZE).getInt();
+                break;
+            default:
+                return len;
+        }
+        if (rawLen < 0 || rawLen > MAX_UNCOMPRESSED_LENGTH) {
+            throw new IOException("The raw length " + rawLen + " of the " + this + " block is out of range [0, "
+                    + MAX_UNCOMPRESSED_LENGTH + "]");
+        }
+        return rawLen;
+    }
+
+    /**
+     * Uncompress the block into dst, which must hold {@link #uncompressedLength(byte[], int, int)} bytes.
+     *
+     * @return the uncompressed length
+     */
+    public int uncompress(byte[] src, int offset, int len, byte[] dst, int dstOffset) throws IOException {
+        try {
+            switch (this) {
+                case SNAPPY:
+                    return Snappy.uncompress(src, offset, len, dst, dstOffset);
+                case LZ4:
+                    int rawLen = uncompressedLength(src, offset, len);
+                    int lz4Len;
+                    try {
+                        lz4Len = Lz4Holder.DECOMPRESSOR.decompress(src, offset + RAW_LEN_SIZE,
+                                len - RAW_LEN_SIZE, dst, dstOffset, rawLen);
+                    } catch (RuntimeException e) {
+                        throw new IOException("lz4 decompression error", e);
+                    }
+                    if (lz4Len != rawLen) {
+                        throw new IOException("lz4 decompression error: got " + lz4Len + " bytes, expect " + rawLen);
+                    }
+                    return rawLen;
+                case ZSTD:
+                    long res = Zstd.decompressByteArray(dst, dstOffset, uncompressedLength(src, offset, len),
+                            src, offset + RAW_LEN_SIZE, len - RAW_LEN_SIZE);
+                    if (Zstd.isError(res)) {
+                        throw new IOException("zstd decompression error: " + Zstd.getErrorName(res));
+                    }
+                    return (int) res;
+                default:
+                    System.arraycopy(src, offset, dst, dstOffset, len);
+                    return len;
+            }
+        } catch (LinkageError e) {
+            throw new IOException(getMissingLibraryMessage(), e);
+        }
+    }
+
+    private String getMissingLibraryMessage() {
+        return "The " + this + " codec of InLongMsg needs " + library + " on the classpath";
+    }
+
+    // loaded on the first use of lz4, the safe decompressor checks the bounds of the blocks from the network
+    private static class Lz4Holder {
+
+        private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+        private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+    }
+}
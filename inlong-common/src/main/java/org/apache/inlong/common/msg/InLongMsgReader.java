@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.apache.inlong.common.msg.InLongMsg.Version;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A reusable reader of the serialized InLongMsg, which walks the messages without
+ * materializing them.
+ * <p/>
+ * Different from {@link InLongMsg#parseFrom(ByteBuffer)}, the messages are not grouped by
+ * their attributes, they are returned in the order they were written, and each message is a
+ * slice of the input, or of the decompression buffer owned by this reader. The attributes are
+ * decoded on demand, and the decoded attribute is reused by the following messages with the
+ * same attribute bytes.
+ * <p/>
+ * The reader is not thread-safe, each thread should use its own reader. The returned message
+ * is only valid until the next call of {@link #nextMessage()} or {@link #reset(ByteBuffer)}.
+ * <pre>
+ *     if (reader.reset(data)) {
+ *         while (reader.nextMessage()) {
+ *             String attr = reader.getAttr();
+ *             ByteBuffer message = reader.getMessage();
+ *         }
+ *     }
+ * </pre>
+ */
+public class InLongMsgReader {
+
+    private static final int INT_SIZE = 4;
+    private static final int SHORT_SIZE = 2;
+    private static final int LONG_SIZE = 8;
+    private static final int MAGIC_SIZE = 2;
+    private static final String ATTR_SEPARATOR = "&";
+
+    private final DataInputBuffer utfInput = new DataInputBuffer();
+    private byte[] uncompressBuffer = new byte[0];
+
+    private byte[] input;
+    private int inputPos;
+    private int inputEnd;
+    private Version version = Version.vn;
+    private long createtime;
+    private int msgcnt;
+    private int groupsLeft;
+
+    // the attribute group being read, a group of v4 message is the whole body
+    private int groupIndex;
+    private int groupAttrOffset;
+    private String groupAttr;
+    private byte[] body;
+    private int bodyPos;
+    private int bodyEnd;
+    // the end of the current message set of v3 message
+    private int setEnd;
+
+    // the header of v4 message
+    private int binMsgType;
+    private int binGroupIdNum;
+    private int binStreamIdNum;
+    private int binExtField;
+    private int binBodyLen;
+    private int binAttrLen;
+    private Map<String, String> binCommonAttrMap;
+
+    // the current message and its private attribute
+    private int msgOffset;
+    private int msgLength;
+    private int msgAttrOffset;
+    private int msgAttrLength;
+
+    // the last decoded private attribute, reused by the messages with the same attribute bytes
+    private String cachedAttr;
+    private int cachedAttrGroup = -1;
+    private byte[] cachedAttrBytes = new byte[0];
+    private int cachedAttrLength = -1;
+
+    public boolean reset(byte[] data) {
+        return reset(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reset the reader to read the given serialized InLongMsg, the content of the buffer
+     * should not be changed before the reading finishes.
+     *
+     * @param buffer the serialized InLongMsg
+     * @return false if the buffer is not a valid InLongMsg
+     */
+    public boolean reset(ByteBuffer buffer) {
+        input = null;
+        version = Version.vn;
+        createtime = -1;
+        msgcnt = 0;
+        groupsLeft = 0;
+        groupAttr = null;
+        body = null;
+        bodyPos = 0;
+        bodyEnd = 0;
+        setEnd = 0;
+        binCommonAttrMap = null;
+        msgOffset = 0;
+        msgLength = 0;
+        msgAttrOffset = -1;
+        msgAttrLength = 0;
+        cachedAttr = null;
+        cachedAttrGroup = -1;
+
+        if (!buffer.hasArray()) {
+            byte[] data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+            buffer = ByteBuffer.wrap(data);
+        }
+        byte[] array = buffer.array();
+        int start = buffer.arrayOffset() + buffer.position();
+        int end = start + buffer.remaining();
+        Version magic = InLongMsg.getMagic(ByteBuffer.wrap(array, start, end - start));
+        if (magic == Version.vn) {
+            return false;
+        }
+
+        int pos = start + MAGIC_SIZE;
+        end -= MAGIC_SIZE;
+        if (magic != Version.v4) {
+            int headerLen = INT_SIZE;
+            if (magic.intValue() >= Version.v1.intValue()) {
+                headerLen += LONG_SIZE;
+            }
+            if (magic.intValue() >= Version.v2.intValue()) {
+                headerLen += INT_SIZE;
+            }
+            if (end - pos < headerLen) {
+                return false;
+            }
+            if (magic.intValue() >= Version.v1.intValue()) {
+                createtime = readLong(array, pos);
+                pos += LONG_SIZE;
+            }
+            if (magic.intValue() >= Version.v2.intValue()) {
+                msgcnt = readInt(array, pos);
+                pos += INT_SIZE;
+            }
+            groupsLeft = readInt(array, pos);
+            pos += INT_SIZE;
+        } else {
+            if (end - pos < InLongMsg.BIN_MSG_BODY_OFFSET) {
+                return false;
+            }
+            binBodyLen = readInt(array, pos + InLongMsg.BIN_MSG_BODYLEN_OFFSET);
+            int attrLenPos = pos + InLongMsg.BIN_MSG_BODY_OFFSET + binBodyLen;
+            if (binBodyLen < 0 || attrLenPos > end - InLongMsg.BIN_MSG_ATTRLEN_SIZE) {
+                return false;
+            }
+            binAttrLen = readShort(array, attrLenPos);
+            if (binAttrLen < 0 || binAttrLen > end - attrLenPos - InLongMsg.BIN_MSG_ATTRLEN_SIZE) {
+                return false;
+            }
+            binMsgType = array[pos + InLongMsg.BIN_MSG_MSGTYPE_OFFSET];
+            binGroupIdNum = readShort(array, pos + InLongMsg.BIN_MSG_GROUPID_OFFSET);
+            binStreamIdNum = readShort(array, pos + InLongMsg.BIN_MSG_STREAMID_OFFSET);
+            binExtField = readShort(array, pos + InLongMsg.BIN_MSG_EXTFIELD_OFFSET);
+            createtime = readInt(array, pos + InLongMsg.BIN_MSG_DATATIME_OFFSET) * 1000L;
+            msgcnt = readShort(array, pos + InLongMsg.BIN_MSG_COUNT_OFFSET);
+            groupsLeft = 1;
+        }
+
+        input = array;
+        inputPos = pos;
+        inputEnd = end;
+        version = magic;
+        return true;
+    }
+
+    /**
+     * Move to the next message.
+     *
+     * @return false if there are no more messages, or the rest of the input is malformed
+     */
+    public boolean nextMessage() throws IOException {
+        while (true) {
+            if (readMessage()) {
+                return true;
+            }
+            if (groupsLeft <= 0) {
+                return false;
+            }
+            groupsLeft--;
+            openGroup();
+        }
+    }
+
+    /**
+     * Get the current message, the buffer is a slice of the input or of the decompression buffer.
+     */
+    public ByteBuffer getMessage() {
+        return ByteBuffer.wrap(body, msgOffset, msgLength);
+    }
+
+    /**
+     * Get the attribute of the current message, which is the same as the attribute the message
+     * is grouped by in {@link InLongMsg#getAttrs()}.
+     */
+    public String getAttr() throws IOException {
+        if (version == Version.v4) {
+            if (binCommonAttrMap == null) {
+                binCommonAttrMap = buildBinCommonAttrMap();
+            }
+            if (msgAttrOffset < 0) {
+                if (groupAttr == null) {
+                    groupAttr = InLongMsg.MAP_JOINER.join(binCommonAttrMap);
+                }
+                return groupAttr;
+            }
+        } else if (groupAttr == null) {
+            utfInput.reset(input, groupAttrOffset, inputEnd - groupAttrOffset);
+            groupAttr = utfInput.readUTF();
+        }
+        if (msgAttrOffset < 0) {
+            return groupAttr;
+        }
+
+        if (cachedAttr != null && cachedAttrGroup == groupIndex && isCachedAttrBytes()) {
+            return cachedAttr;
+        }
+        String msgAttr = new String(body, msgAttrOffset, msgAttrLength);
+        if (version == Version.v4) {
+            Map<String, String> finalAttrMap = new HashMap<String, String>(
+                    InLongMsg.MAP_SPLITTER.split(msgAttr));
+            finalAttrMap.putAll(binCommonAttrMap);
+            cachedAttr = InLongMsg.MAP_JOINER.join(finalAttrMap);
+        } else {
+            cachedAttr = groupAttr + ATTR_SEPARATOR + msgAttr;
+        }
+        if (cachedAttrBytes.length < msgAttrLength) {
+            cachedAttrBytes = new byte[msgAttrLength];
+        }
+        System.arraycopy(body, msgAttrOffset, cachedAttrBytes, 0, msgAttrLength);
+        cachedAttrLength = msgAttrLength;
+        cachedAttrGroup = groupIndex;
+        return cachedAttr;
+    }
+
+    public long getCreatetime() {
+        return createtime;
+    }
+
+    public int getMsgCnt() {
+        return msgcnt;
+    }
+
+    private void openGroup() throws IOException {
+        groupIndex++;
+        groupAttr = null;
+        body = null;
+        bodyPos = 0;
+        bodyEnd = 0;
+        setEnd = 0;
+
+        if (version == Version.v4) {
+            int bodyOffset = inputPos + InLongMsg.BIN_MSG_BODY_OFFSET;
+            int zipType = (binMsgType & 0xE0) >> 5;
+            openBody(bodyOffset, binBodyLen, InLongMsgCodec.of(zipType));
+            return;
+        }
+
+        int pos = inputPos;
+        if (inputEnd - pos < SHORT_SIZE) {
+            groupsLeft = 0;
+            return;
+        }
+        groupAttrOffset = pos;
+        pos += SHORT_SIZE + readUnsignedShort(input, pos);
+        if (version == Version.v2) {
+            pos += INT_SIZE;
+        }
+        if (pos > inputEnd - INT_SIZE) {
+            groupsLeft = 0;
+            return;
+        }
+        int len = readInt(input, pos);
+        pos += INT_SIZE;
+        if (len < 1 || len > inputEnd - pos) {
+            groupsLeft = 0;
+            return;
+        }
+        inputPos = pos + len;
+        openBody(pos + 1, len - 1, InLongMsgCodec.of(input[pos]));
+    }
+
+    private void openBody(int offset, int length, InLongMsgCodec codec) throws IOException {
+        if (codec != InLongMsgCodec.NONE) {
+            int uncompressedLen = codec.uncompressedLength(input, offset, length);
+            if (uncompressBuffer.length < uncompressedLen) {
+                uncompressBuffer = new byte[Math.max(uncompressedLen, uncompressBuffer.length * 2)];
+            }
+            body = uncompressBuffer;
+            bodyPos = 0;
+            bodyEnd = codec.uncompress(input, offset, length, uncompressBuffer, 0);
+        } else {
+            body = input;
+            bodyPos = offset;
+            bodyEnd = offset + length;
+        }
+    }
+
+    private boolean readMessage() {
+        if (body == null) {
+            return false;
+        }
+        msgAttrOffset = -1;
+        msgAttrLength = 0;
+        boolean withAttr = version == Version.v3
+                || (version == Version.v4 && (binExtField & 0x1) == 0x1);
+        if (!withAttr) {
+            if (bodyPos >= bodyEnd) {
+                return false;
+            }
+            msgLength = readLength(bodyEnd, 0);
+            if (msgLength < 0) {
+                return malformed();
+            }
+            msgOffset = bodyPos;
+            bodyPos += msgLength;
+            return true;
+        }
+
+        int end = bodyEnd;
+        if (version == Version.v3) {
+            // the messages of v3 are packed in sets: total length, (message, attribute) * N
+            while (bodyPos >= setEnd) {
+                if (bodyPos >= bodyEnd) {
+                    return false;
+                }
+                if (bodyEnd - bodyPos < INT_SIZE) {
+                    return malformed();
+                }
+                int setLength = readInt(body, bodyPos);
+                bodyPos += INT_SIZE;
+                if (setLength > bodyEnd - bodyPos) {
+                    return malformed();
+                }
+                setEnd = bodyPos + Math.max(setLength, 0);
+            }
+            end = setEnd;
+        } else if (bodyPos >= bodyEnd) {
+            return false;
+        }
+        msgLength = readLength(end, 1);
+        if (msgLength < 0) {
+            return malformed();
+        }
+        msgOffset = bodyPos;
+        bodyPos += msgLength;
+        msgAttrLength = readLength(end, 1);
+        if (msgAttrLength < 0) {
+            return malformed();
+        }
+        msgAttrOffset = bodyPos;
+        bodyPos += msgAttrLength;
+        return true;
+    }
+
+    /**
+     * Read the length at the body position, and check the data of the length is within the end.
+     *
+     * @return the length, or -1 if the length is invalid
+     */
+    private int readLength(int end, int minLength) {
+        if (end - bodyPos < INT_SIZE) {
+            return -1;
+        }
+        int len = readInt(body, bodyPos);
+        bodyPos += INT_SIZE;
+        if (len < minLength || len > end - bodyPos) {
+            return -1;
+        }
+        return len;
+    }
+
+    private boolean malformed() {
+        groupsLeft = 0;
+        body = null;
+        return false;
+    }
+
+    private boolean isCachedAttrBytes() {
+        if (cachedAttrLength != msgAttrLength) {
+            return false;
+        }
+        for (int i = 0; i < msgAttrLength; i++) {
+            if (cachedAttrBytes[i] != body[msgAttrOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, String> buildBinCommonAttrMap() {
+        Map<String, String> commonAttrMap = new HashMap<String, String>();
+        if (binAttrLen != 0) {
+            int attrOffset = inputPos + InLongMsg.BIN_MSG_BODY_OFFSET + binBodyLen
+                    + InLongMsg.BIN_MSG_ATTRLEN_SIZE;
+            String strAttr = new String(input, attrOffset, binAttrLen);
+            commonAttrMap = new HashMap<String, String>(InLongMsg.MAP_SPLITTER.split(strAttr));
+        }
+        commonAttrMap.put(AttributeConstants.DATA_TIME, String.valueOf(createtime));
+        if ((binExtField & 0x4) == 0x0) {
+            commonAttrMap.put(AttributeConstants.GROUP_ID, String.valueOf(binGroupIdNum));
+            commonAttrMap.put(AttributeConstants.INTERFACE_ID, String.valueOf(binStreamIdNum));
+        }
+        commonAttrMap.put(AttributeConstants.MESSAGE_COUNT, "1");
+        return commonAttrMap;
+    }
+
+    private static int readInt(byte[] array, int offset) {
+        return ((array[offset] & 0xFF) << 24)
+                | ((array[offset + 1] & 0xFF) << 16)
+                | ((array[offset + 2] & 0xFF) << 8)
+                | (array[offset + 3] & 0xFF);
+    }
+
+    private static short readShort(byte[] array, int offset) {
+        return (short) (((array[offset] & 0xFF) << 8) | (array[offset + 1] & 0xFF));
+    }
+
+    private static int readUnsignedShort(byte[] array, int offset) {
+        return readShort(array, offset) & 0xFFFF;
+    }
+
+    private static long readLong(byte[] array, int offset) {
+        return ((long) readInt(array, offset) << 32) | (readInt(array, offset + INT_SIZE) & 0xFFFFFFFFL);
+    }
+}
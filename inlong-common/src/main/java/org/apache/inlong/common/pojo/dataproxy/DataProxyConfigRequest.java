@@ -42,4 +42,15 @@ public class DataProxyConfigRequest {
      */
     private String md5;
 
+    /**
+     * DataProxy cluster config version, the manager returns the changes since this version if possible
+     */
+    private Long version;
+
+    /**
+     * Max time in milliseconds to wait for a change when the config is not updated,
+     * null or 0 means return immediately
+     */
+    private Long waitMs;
+
 }
@@ -17,6 +17,8 @@
 
 package org.apache.inlong.common.pojo.dataproxy;
 
+import java.util.List;
+
 /**
  * DataProxyConfigResponse
  */
@@ -24,13 +26,17 @@ public class DataProxyConfigResponse {
 
     public static final int SUCC = 0; // success
     public static final int NOUPDATE = 1; // no update, for same md5
+    public static final int DELTA = 2; // only the changes since the requested version
     public static final int FAIL = -1; // general error
     public static final int REQ_PARAMS_ERROR = -101; // error request parameter
 
     private Boolean result;
     private Integer errCode;
     private String md5;
+    private Long version;
     private DataProxyCluster data;
+    // the removed inlongIds since the requested version, only for delta response
+    private List<String> removedInlongIds;
 
     /**
      * get result
@@ -86,6 +92,24 @@ public class DataProxyConfigResponse {
         this.md5 = md5;
     }
 
+    /**
+     * get version
+     *
+     * @return the version
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * set version
+     *
+     * @param version the version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * get data
      *
@@ -104,4 +128,22 @@ public class DataProxyConfigResponse {
         this.data = data;
     }
 
+    /**
+     * get removedInlongIds
+     *
+     * @return the removedInlongIds
+     */
+    public List<String> getRemovedInlongIds() {
+        return removedInlongIds;
+    }
+
+    /**
+     * set removedInlongIds
+     *
+     * @param removedInlongIds the removedInlongIds to set
+     */
+    public void setRemovedInlongIds(List<String> removedInlongIds) {
+        this.removedInlongIds = removedInlongIds;
+    }
+
 }
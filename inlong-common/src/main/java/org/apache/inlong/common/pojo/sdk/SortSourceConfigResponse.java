@@ -22,15 +22,28 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class SortSourceConfigResponse {
+
+    public static final int SUCC = 0;
+    public static final int NOUPDATE = 1;
+    // only the changed cache zones since the requested version
+    public static final int DELTA = 2;
+    public static final int FAIL = -1;
+    public static final int REQ_PARAMS_ERROR = -101;
+
     String msg;
     int code;
     String md5;
+    Long version;
     CacheZoneConfig data;
+    // the removed cache zone names since the requested version, only for delta response
+    List<String> removedZoneNames;
 
 }
 
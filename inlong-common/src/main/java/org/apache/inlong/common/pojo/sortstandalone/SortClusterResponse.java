@@ -22,6 +22,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -30,12 +32,17 @@ public class SortClusterResponse {
 
     public static final int SUCC = 0;
     public static final int NOUPDATE = 1;
+    // only the changed tasks since the requested version
+    public static final int DELTA = 2;
     public static final int FAIL = -1;
     public static final int REQ_PARAMS_ERROR = -101;
 
     String msg;
     int code;
     String md5;
+    Long version;
     SortClusterConfig data;
+    // the removed task names since the requested version, only for delta response
+    List<String> removedTaskNames;
 
 }
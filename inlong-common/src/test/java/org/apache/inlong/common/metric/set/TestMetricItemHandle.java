@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.inlong.common.metric.set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemHandle;
+import org.apache.inlong.common.metric.MetricUtils;
+import org.apache.inlong.common.metric.MetricValue;
+import org.junit.Test;
+
+/**
+ * 
+ * TestMetricItemHandle
+ */
+public class TestMetricItemHandle {
+
+    /**
+     * testHandleAcrossSnapshot
+     */
+    @Test
+    public void testHandleAcrossSnapshot() {
+        DataProxyMetricItemSet itemSet = DataProxyMetricItemSet.getInstance();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("setId", "handle_set");
+        dimensions.put("sinkId", "handle-sink");
+        MetricItemHandle<DataProxyMetricItem> handle = itemSet.resolveHandle(dimensions);
+        // the handle keeps its own copy of the dimensions
+        dimensions.put("sinkId", "other-sink");
+        assertEquals("handle-sink", handle.getDimensions().get("sinkId"));
+        //
+        DataProxyMetricItem item = handle.getItem();
+        assertSame(item, handle.getItem());
+        assertSame(item, itemSet.findMetricItem(handle.getDimensions()));
+        assertEquals(MetricUtils.getDimensionsKey(handle.getDimensions()), item.getDimensionsKey());
+        item.sendCount.addAndGet(10);
+        item.sendSize.addAndGet(1000);
+        // the handle finds the item of the next interval after the snapshot
+        List<MetricItem> items = itemSet.snapshot();
+        DataProxyMetricItem nextItem = handle.getItem();
+        assertNotSame(item, nextItem);
+        assertSame(nextItem, itemSet.findMetricItem(handle.getDimensions()));
+        nextItem.sendCount.incrementAndGet();
+        boolean found = false;
+        for (MetricItem snapshotItem : items) {
+            if (handle.getKey().equals(snapshotItem.getDimensionsKey())) {
+                Map<String, MetricValue> metricMap = snapshotItem.snapshot();
+                assertEquals(10, metricMap.get("sendCount").value);
+                assertEquals(1000, metricMap.get("sendSize").value);
+                assertEquals(0, metricMap.get("readFailCount").value);
+                found = true;
+            }
+        }
+        assertEquals(true, found);
+    }
+
+    /**
+     * testDimensionsOfItem
+     */
+    @Test
+    public void testDimensionsOfItem() {
+        DataProxyMetricItem item = new DataProxyMetricItem();
+        item.setId = "handle_set";
+        item.sinkId = "handle-sink";
+        Map<String, String> dimensions = item.getDimensions();
+        assertEquals("handle_set", dimensions.get("setId"));
+        assertEquals("handle-sink", dimensions.get("sinkId"));
+        assertEquals("", dimensions.get("sourceId"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.monitor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark of {@link MonitorIndex#addAndGet} against the former string-encoded counters.
+ * <p/>
+ * Usage: MonitorIndexBenchmark [threads] [updatesPerThread] [keys] [rounds]
+ */
+public class MonitorIndexBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int numUpdates = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+        int numKeys = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int numRounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        String[] keys = new String[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            keys[i] = "tcp#topic" + i + "#stream" + i + "#127.0.0.1#127.0.0.1#non-order#202204151200#1650000000";
+        }
+        for (int round = 0; round < numRounds; round++) {
+            final StringEncodedIndex stringIndex = new StringEncodedIndex();
+            run("string-encoded", numThreads, numUpdates, keys,
+                    key -> stringIndex.addAndGet(key, 10, 1, 1024L, 0));
+            final MonitorIndex monitorIndex = new MonitorIndex("Source", 3600, Integer.MAX_VALUE);
+            run("MonitorIndex", numThreads, numUpdates, keys,
+                    key -> monitorIndex.addAndGet(key, 10, 1, 1024L, 0));
+            monitorIndex.shutDown();
+        }
+    }
+
+    private static void run(String name, int numThreads, int numUpdates,
+            String[] keys, Updater updater) throws Exception {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            final int offset = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < numUpdates; j++) {
+                        updater.update(keys[(j + offset) % keys.length]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+            thread.start();
+        }
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        endLatch.await();
+        long usedNanos = System.nanoTime() - startTime;
+        long totalUpdates = (long) numThreads * numUpdates;
+        System.out.printf("%-16s %d threads, %d updates, %.1f ns/update, %.2f M updates/s%n",
+                name, numThreads, totalUpdates, (double) usedNanos / totalUpdates,
+                totalUpdates * 1000.0 / usedNanos);
+    }
+
+    private interface Updater {
+
+        void update(String key);
+    }
+
+    /**
+     * The former counters, kept as "cnt#packcnt#packsize#failcnt" strings.
+     */
+    private static class StringEncodedIndex {
+
+        private final ConcurrentHashMap<String, String> counterMap = new ConcurrentHashMap<String, String>();
+
+        public void addAndGet(String key, int cnt, int packcnt, long packsize, int failcnt) {
+            counterMap.compute(key, (key1, value) -> {
+                if (value != null) {
+                    String[] va = value.split("#");
+                    value = (Integer.parseInt(va[0]) + cnt) + "#"
+                            + (Integer.parseInt(va[1]) + packcnt) + "#"
+                            + (Long.parseLong(va[2]) + packsize) + "#"
+                            + (Integer.parseInt(va[3]) + failcnt);
+                } else {
+                    value = cnt + "#" + packcnt + "#" + packsize + "#" + failcnt;
+                }
+                return value;
+            });
+        }
+    }
+}
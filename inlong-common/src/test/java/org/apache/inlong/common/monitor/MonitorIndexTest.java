@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.monitor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of {@link MonitorIndex}.
+ */
+public class MonitorIndexTest {
+
+    @Test
+    public void testAddAndSnapshot() {
+        MonitorIndex monitorIndex = new MonitorIndex("Source", 3600, 10);
+        try {
+            monitorIndex.addAndGet("tcp#topic#stream", 10, 1, 1024L, 0);
+            monitorIndex.addAndGet("tcp#topic#stream", 5, 1, 512L, 0);
+            monitorIndex.addAndGet("tcp#topic#stream", 0, 0, 0L, 3);
+            monitorIndex.addAndGet("http#topic#stream", 1, 1, 8L, 0);
+            Map<String, String> counters = monitorIndex.snapshotAndReset();
+            assertEquals(2, counters.size());
+            assertEquals("15#2#1536#3", counters.get("tcp#topic#stream"));
+            assertEquals("1#1#8#0", counters.get("http#topic#stream"));
+            // the counters are reset for the next interval
+            assertTrue(monitorIndex.snapshotAndReset().isEmpty());
+            monitorIndex.addAndGet("tcp#topic#stream", 1, 1, 1L, 0);
+            assertEquals("1#1#1#0", monitorIndex.snapshotAndReset().get("tcp#topic#stream"));
+        } finally {
+            monitorIndex.shutDown();
+        }
+    }
+
+    @Test
+    public void testMaxCnt() {
+        MonitorIndex monitorIndex = new MonitorIndex("Source", 3600, 2);
+        try {
+            monitorIndex.addAndGet("key1", 1, 1, 1L, 0);
+            monitorIndex.addAndGet("key2", 1, 1, 1L, 0);
+            monitorIndex.addAndGet("key3", 1, 1, 1L, 0);
+            // the existing keys are still updated when the index is full
+            monitorIndex.addAndGet("key1", 1, 1, 1L, 0);
+            Map<String, String> counters = monitorIndex.snapshotAndReset();
+            assertEquals(2, counters.size());
+            assertEquals("2#2#2#0", counters.get("key1"));
+        } finally {
+            monitorIndex.shutDown();
+        }
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final MonitorIndex monitorIndex = new MonitorIndex("Source", 3600, 100);
+        final int threadCnt = 4;
+        final int loops = 100000;
+        long total = 0;
+        try {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < threadCnt; i++) {
+                Thread thread = new Thread(() -> {
+                    for (int j = 0; j < loops; j++) {
+                        monitorIndex.addAndGet("key" + (j % 4), 1, 1, 2L, 0);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            // take snapshots while updating, no update should be lost
+            while (threads.stream().anyMatch(Thread::isAlive)) {
+                total += sumCnt(monitorIndex.snapshotAndReset());
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            total += sumCnt(monitorIndex.snapshotAndReset());
+            assertEquals((long) threadCnt * loops, total);
+        } finally {
+            monitorIndex.shutDown();
+        }
+    }
+
+    private static long sumCnt(Map<String, String> counters) {
+        long sum = 0;
+        for (String value : counters.values()) {
+            sum += Long.parseLong(value.split("#")[0]);
+        }
+        return sum;
+    }
+}
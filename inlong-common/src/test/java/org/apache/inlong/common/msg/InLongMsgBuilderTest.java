@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of {@link InLongMsgBuilder}, the output should be the same as {@link InLongMsg}.
+ */
+public class InLongMsgBuilderTest {
+
+    private static final long CREATE_TIME = 1650000000000L;
+
+    @Test
+    public void testBuildDefaultVersions() throws Exception {
+        for (int version = 1; version <= 2; version++) {
+            for (boolean compress : new boolean[]{true, false}) {
+                InLongMsgBuilder builder = new InLongMsgBuilder(compress, version);
+                // the builder is reused, the output should not be affected by the previous message
+                for (int round = 0; round < 3; round++) {
+                    InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, version);
+                    builder.reset();
+                    for (int i = 0; i < 100 * (3 - round); i++) {
+                        String attr = "m=0&iname=stream" + (i % (round + 2));
+                        byte[] data = ("message-" + round + "-" + i).getBytes(StandardCharsets.UTF_8);
+                        assertEquals(inLongMsg.addMsg(attr, data), builder.addMsg(attr, data));
+                        assertEquals(inLongMsg.isfull(), builder.isfull());
+                    }
+                    assertEquals(inLongMsg.getMsgCnt(), builder.getMsgCnt());
+                    assertArrayEquals(inLongMsg.buildArray(CREATE_TIME), builder.buildArray(CREATE_TIME));
+                    assertEquals(CREATE_TIME, builder.getCreatetime());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBuildMixedAttributes() throws Exception {
+        for (boolean compress : new boolean[]{true, false}) {
+            InLongMsgBuilder builder = new InLongMsgBuilder(compress, 3);
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, 3);
+            for (int i = 0; i < 10; i++) {
+                DataOutputBuffer out = new DataOutputBuffer();
+                for (int j = 0; j < 5; j++) {
+                    writeBytes(out, ("message-" + i + "-" + j).getBytes(StandardCharsets.UTF_8));
+                    writeBytes(out, ("dt=" + j).getBytes(StandardCharsets.UTF_8));
+                }
+                String attr = "m=0&iname=stream" + (i % 2);
+                assertTrue(inLongMsg.addMsg(attr, ByteBuffer.wrap(out.getData(), 0, out.getLength())));
+                assertTrue(builder.addMsg(attr, ByteBuffer.wrap(out.getData(), 0, out.getLength())));
+            }
+            // the broken data is rejected
+            byte[] broken = new byte[]{0, 0, 0, 10, 1};
+            assertFalse(inLongMsg.addMsg("m=0&iname=stream0", broken));
+            assertFalse(builder.addMsg("m=0&iname=stream0", broken));
+
+            assertEquals(inLongMsg.getMsgCnt(), builder.getMsgCnt());
+            assertArrayEquals(inLongMsg.buildArray(CREATE_TIME), builder.buildArray(CREATE_TIME));
+        }
+    }
+
+    @Test
+    public void testBuildBinMessage() throws Exception {
+        for (boolean compress : new boolean[]{true, false}) {
+            InLongMsgBuilder builder = new InLongMsgBuilder(compress, 4);
+            for (int round = 0; round < 2; round++) {
+                DataOutputBuffer body = new DataOutputBuffer();
+                for (int i = 0; i < 20 + round; i++) {
+                    writeBytes(body, ("message-" + i).getBytes(StandardCharsets.UTF_8));
+                }
+                ByteBuffer binMsg = buildBinMsg(body, "ip=127.0.0.1&node=a");
+
+                InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, 4);
+                assertTrue(inLongMsg.addMsg(binMsg.duplicate()));
+                builder.reset();
+                assertTrue(builder.addMsg(binMsg.duplicate()));
+                // only one binary message can be added
+                assertFalse(builder.addMsg(binMsg.duplicate()));
+
+                assertEquals(inLongMsg.getMsgCnt(), builder.getMsgCnt());
+                assertArrayEquals(inLongMsg.buildArray(CREATE_TIME), builder.buildArray(CREATE_TIME));
+            }
+        }
+    }
+
+    @Test
+    public void testWrapBinMessage() throws Exception {
+        DataOutputBuffer body = new DataOutputBuffer();
+        for (int i = 0; i < 20; i++) {
+            writeBytes(body, ("message-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        ByteBuffer plain = buildBinMsg(body, "ip=127.0.0.1&node=a");
+        byte[] plainArray = toArray(plain);
+        // the body is taken as compressed, the pack is forwarded as-is
+        byte[] packedArray = plainArray.clone();
+        packedArray[4] |= InLongMsg.BIN_MSG_SET_SNAPPY;
+
+        for (boolean compress : new boolean[]{true, false}) {
+            InLongMsgBuilder builder = new InLongMsgBuilder(compress, 4);
+            assertTrue(builder.addMsg(packedArray));
+            assertArrayEquals(builder.buildArray(CREATE_TIME), InLongMsgBuilder.wrapBinMsg(packedArray, compress));
+        }
+        InLongMsgBuilder builder = new InLongMsgBuilder(false, 4);
+        assertTrue(builder.addMsg(plainArray));
+        assertArrayEquals(builder.buildArray(CREATE_TIME), InLongMsgBuilder.wrapBinMsg(plainArray, false));
+
+        // the uncompressed pack should be compressed by the builder
+        assertNull(InLongMsgBuilder.wrapBinMsg(plainArray, true));
+        // malformed packs
+        byte[] truncated = new byte[plainArray.length - 1];
+        System.arraycopy(plainArray, 0, truncated, 0, truncated.length);
+        assertNull(InLongMsgBuilder.wrapBinMsg(truncated, false));
+        byte[] badMagic = plainArray.clone();
+        badMagic[badMagic.length - 1] = 0;
+        assertNull(InLongMsgBuilder.wrapBinMsg(badMagic, false));
+        assertNull(InLongMsgBuilder.wrapBinMsg(new byte[8], false));
+    }
+
+    @Test
+    public void testReadBuiltMessage() throws Exception {
+        InLongMsgBuilder builder = new InLongMsgBuilder(true, 1);
+        builder.addMsg("m=0&iname=stream", "message".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = builder.build(CREATE_TIME);
+
+        InLongMsgReader reader = new InLongMsgReader();
+        assertTrue(reader.reset(buffer));
+        assertTrue(reader.nextMessage());
+        assertEquals("m=0&iname=stream", reader.getAttr());
+        ByteBuffer message = reader.getMessage();
+        assertEquals("message", new String(message.array(), message.position(), message.remaining(),
+                StandardCharsets.UTF_8));
+        assertFalse(reader.nextMessage());
+        assertEquals(CREATE_TIME, reader.getCreatetime());
+    }
+
+    @Test
+    public void testBuildWithCodecs() throws Exception {
+        for (int version = 1; version <= 2; version++) {
+            InLongMsgBuilder plain = new InLongMsgBuilder(4096, InLongMsgCodec.NONE, version,
+                    InLongMsgBufferPool.DEFAULT);
+            for (int i = 0; i < 100; i++) {
+                plain.addMsg("m=0&iname=stream" + (i % 3), ("message-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            List<String> expected = readAll(plain.buildArray(CREATE_TIME));
+            assertEquals(100, expected.size());
+
+            for (InLongMsgCodec codec : InLongMsgCodec.values()) {
+                InLongMsgBuilder builder = new InLongMsgBuilder(4096, codec, version, InLongMsgBufferPool.DEFAULT);
+                for (int i = 0; i < 100; i++) {
+                    builder.addMsg("m=0&iname=stream" + (i % 3), ("message-" + i).getBytes(StandardCharsets.UTF_8));
+                }
+                byte[] data = builder.buildArray(CREATE_TIME);
+                assertEquals(expected, readAll(data));
+
+                // the same messages are parsed by InLongMsg
+                InLongMsg inLongMsg = InLongMsg.parseFrom(data);
+                List<String> parsed = new ArrayList<String>();
+                for (String attr : inLongMsg.getAttrs()) {
+                    Iterator<byte[]> it = inLongMsg.getIterator(attr);
+                    while (it.hasNext()) {
+                        parsed.add(attr + "|" + new String(it.next(), StandardCharsets.UTF_8));
+                    }
+                }
+                assertEquals(expected, parsed);
+            }
+        }
+    }
+
+    @Test
+    public void testBuildBinMessageWithCodecs() throws Exception {
+        DataOutputBuffer body = new DataOutputBuffer();
+        for (int i = 0; i < 20; i++) {
+            writeBytes(body, ("message-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        ByteBuffer binMsg = buildBinMsg(body, "ip=127.0.0.1&node=a");
+        InLongMsgBuilder plain = new InLongMsgBuilder(false, 4);
+        assertTrue(plain.addMsg(binMsg.duplicate()));
+        List<String> expected = readAll(plain.buildArray(CREATE_TIME));
+        assertEquals(20, expected.size());
+
+        for (InLongMsgCodec codec : InLongMsgCodec.values()) {
+            InLongMsgBuilder builder = new InLongMsgBuilder(4096, codec, 4, InLongMsgBufferPool.DEFAULT);
+            assertTrue(builder.addMsg(binMsg.duplicate()));
+            byte[] data = builder.buildArray(CREATE_TIME);
+            // the codec is flagged in the message type
+            assertEquals(codec.getCode(), (data[2 + InLongMsg.BIN_MSG_MSGTYPE_OFFSET] & 0xE0) >> 5);
+            assertEquals(expected, readAll(data));
+        }
+    }
+
+    @Test
+    public void testUncompressCorruptBlocks() throws Exception {
+        byte[] raw = "message-message-message-message".getBytes(StandardCharsets.UTF_8);
+        for (InLongMsgCodec codec : new InLongMsgCodec[]{InLongMsgCodec.LZ4, InLongMsgCodec.ZSTD}) {
+            ByteBuffer src = ByteBuffer.allocateDirect(raw.length);
+            src.put(raw).flip();
+            ByteBuffer dst = ByteBuffer.allocateDirect(codec.maxCompressedLength(raw.length));
+            byte[] block = new byte[codec.compress(src, dst)];
+            dst.get(block);
+            // the raw length is out of range
+            byte[] forged = block.clone();
+            ByteBuffer.wrap(forged).putInt(0, InLongMsgCodec.MAX_UNCOMPRESSED_LENGTH + 1);
+            assertUncompressFails(codec, forged, forged.length);
+            ByteBuffer.wrap(forged).putInt(0, -1);
+            assertUncompressFails(codec, forged, forged.length);
+            // the block is truncated
+            assertUncompressFails(codec, block, block.length / 2);
+        }
+    }
+
+    private static void assertUncompressFails(InLongMsgCodec codec, byte[] block, int len) {
+        try {
+            byte[] dst = new byte[codec.uncompressedLength(block, 0, len)];
+            codec.uncompress(block, 0, len, dst, 0);
+            fail("The corrupt " + codec + " block is uncompressed");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBuildBuffers() throws Exception {
+        for (int version = 1; version <= 4; version++) {
+            for (boolean compress : new boolean[]{true, false}) {
+                InLongMsgBuilder builder = new InLongMsgBuilder(compress, version);
+                if (version == 4) {
+                    DataOutputBuffer body = new DataOutputBuffer();
+                    writeBytes(body, "message".getBytes(StandardCharsets.UTF_8));
+                    assertTrue(builder.addMsg(buildBinMsg(body, "ip=127.0.0.1")));
+                } else {
+                    for (int i = 0; i < 10; i++) {
+                        DataOutputBuffer out = new DataOutputBuffer();
+                        writeBytes(out, ("message-" + i).getBytes(StandardCharsets.UTF_8));
+                        writeBytes(out, ("dt=" + i).getBytes(StandardCharsets.UTF_8));
+                        builder.addMsg("m=0&iname=stream" + (i % 2),
+                                ByteBuffer.wrap(out.getData(), 0, out.getLength()));
+                    }
+                }
+                ByteBuffer[] buffers = builder.buildBuffers(CREATE_TIME);
+                DataOutputBuffer frame = new DataOutputBuffer();
+                for (ByteBuffer buffer : buffers) {
+                    frame.write(toArray(buffer));
+                }
+                byte[] data = builder.buildArray(CREATE_TIME);
+                assertArrayEquals(data, Arrays.copyOf(frame.getData(), frame.getLength()));
+                // the messages are not copied into the frame
+                assertTrue(buffers[buffers.length - 2].isDirect());
+            }
+        }
+    }
+
+    @Test
+    public void testBufferPool() throws Exception {
+        InLongMsgBufferPool pool = new InLongMsgBufferPool(64 * 1024, 128 * 1024);
+        ByteBuffer buffer = pool.acquire(5000);
+        assertTrue(buffer.isDirect());
+        assertEquals(8192, buffer.capacity());
+        buffer.putInt(1);
+        pool.release(buffer);
+        assertEquals(8192, pool.getPooledBytes());
+        // the buffer is reused and cleared
+        ByteBuffer reused = pool.acquire(8192);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(0, pool.getPooledBytes());
+
+        // the buffers beyond the biggest size class are not pooled
+        pool.release(pool.acquire(100 * 1024));
+        assertEquals(0, pool.getPooledBytes());
+        // the idle buffers are bounded
+        ByteBuffer[] buffers = new ByteBuffer[3];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = pool.acquire(64 * 1024);
+        }
+        for (ByteBuffer b : buffers) {
+            pool.release(b);
+        }
+        assertEquals(128 * 1024, pool.getPooledBytes());
+
+        // the builder gives the buffers back on reset
+        InLongMsgBufferPool builderPool = new InLongMsgBufferPool(64 * 1024, 1024 * 1024);
+        InLongMsgBuilder builder = new InLongMsgBuilder(4096, InLongMsgCodec.SNAPPY, 1, builderPool);
+        builder.addMsg("m=0&iname=stream", "message".getBytes(StandardCharsets.UTF_8));
+        builder.buildBuffers(CREATE_TIME);
+        assertEquals(0, builderPool.getPooledBytes());
+        builder.reset();
+        assertEquals(2 * 4096, builderPool.getPooledBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedVersion() {
+        new InLongMsgBuilder(true, 0);
+    }
+
+    private static ByteBuffer buildBinMsg(DataOutputBuffer body, String attr) {
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        int bodyLen = body.getLength();
+        ByteBuffer buffer = ByteBuffer.allocate(bodyLen + attrBytes.length + 29);
+        buffer.putInt(bodyLen + attrBytes.length + 29 - 4);
+        buffer.put((byte) 7);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 2);
+        buffer.putShort((short) 0);
+        buffer.putInt(1650000000);
+        buffer.putShort((short) 20);
+        buffer.putInt(0);
+        buffer.putInt(bodyLen);
+        buffer.put(body.getData(), 0, bodyLen);
+        buffer.putShort((short) attrBytes.length);
+        buffer.put(attrBytes);
+        buffer.putShort((short) 0xEE01);
+        buffer.flip();
+        return buffer;
+    }
+
+    // the attributes and messages, in the order of the frame
+    private static List<String> readAll(byte[] data) throws Exception {
+        InLongMsgReader reader = new InLongMsgReader();
+        assertTrue(reader.reset(data));
+        List<String> messages = new ArrayList<String>();
+        while (reader.nextMessage()) {
+            ByteBuffer message = reader.getMessage();
+            messages.add(reader.getAttr() + "|" + new String(message.array(), message.position(),
+                    message.remaining(), StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] array = new byte[buffer.remaining()];
+        buffer.duplicate().get(array);
+        return array;
+    }
+
+    private static void writeBytes(DataOutputBuffer out, byte[] bytes) throws Exception {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Benchmark of reading the messages with {@link InLongMsg#parseFrom(byte[])} and
+ * {@link InLongMsgReader}.
+ * <p/>
+ * Usage: InLongMsgReaderBenchmark [packs] [messagesPerPack] [rounds]
+ */
+public class InLongMsgReaderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numPacks = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int messagesPerPack = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int numRounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        for (boolean compress : new boolean[]{false, true}) {
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress);
+            for (int i = 0; i < messagesPerPack; i++) {
+                inLongMsg.addMsg("m=0&iname=stream" + (i % 2),
+                        ("2022-04-15 12:00:00|" + i + "|field1|field2|field3|field4")
+                                .getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] data = inLongMsg.buildArray();
+            String name = compress ? "snappy" : "raw";
+
+            InLongMsgReader reader = new InLongMsgReader();
+            for (int round = 0; round < numRounds; round++) {
+                long startTime = System.nanoTime();
+                long checksum = 0;
+                for (int i = 0; i < numPacks; i++) {
+                    InLongMsg parsed = InLongMsg.parseFrom(data);
+                    for (String attr : parsed.getAttrs()) {
+                        checksum += attr.length();
+                        Iterator<byte[]> iterator = parsed.getIterator(attr);
+                        while (iterator.hasNext()) {
+                            checksum += iterator.next().length;
+                        }
+                    }
+                }
+                report(name + ", InLongMsg", startTime, numPacks, messagesPerPack, checksum);
+
+                startTime = System.nanoTime();
+                checksum = 0;
+                for (int i = 0; i < numPacks; i++) {
+                    reader.reset(data);
+                    String lastAttr = null;
+                    while (reader.nextMessage()) {
+                        String attr = reader.getAttr();
+                        if (!attr.equals(lastAttr)) {
+                            checksum += attr.length();
+                            lastAttr = attr;
+                        }
+                        ByteBuffer message = reader.getMessage();
+                        checksum += message.remaining();
+                    }
+                }
+                report(name + ", InLongMsgReader", startTime, numPacks, messagesPerPack, checksum);
+            }
+        }
+    }
+
+    private static void report(String name, long startTime, int numPacks, int messagesPerPack, long checksum) {
+        long costNanos = Math.max(1L, System.nanoTime() - startTime);
+        long numMessages = (long) numPacks * messagesPerPack;
+        System.out.println(name + ": " + (numMessages * 1000000000L / costNanos) + " messages/s, "
+                + (costNanos / numMessages) + " ns/message, checksum " + checksum);
+    }
+}
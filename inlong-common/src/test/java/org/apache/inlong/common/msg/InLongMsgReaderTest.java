@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of {@link InLongMsgReader}, the messages read should be the same as {@link InLongMsg}.
+ */
+public class InLongMsgReaderTest {
+
+    private final InLongMsgReader reader = new InLongMsgReader();
+
+    @Test
+    public void testReadDefaultVersions() throws Exception {
+        for (int version = 1; version <= 2; version++) {
+            for (boolean compress : new boolean[]{true, false}) {
+                InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, version);
+                for (int i = 0; i < 100; i++) {
+                    inLongMsg.addMsg("m=0&iname=stream" + (i % 3),
+                            ("message-" + i).getBytes(StandardCharsets.UTF_8));
+                }
+                // an empty message is kept
+                inLongMsg.addMsg("m=0&iname=stream0", new byte[0]);
+                byte[] data = inLongMsg.buildArray(1650000000000L);
+
+                assertRead(data, 101);
+                assertEquals(1650000000000L, reader.getCreatetime());
+            }
+        }
+    }
+
+    @Test
+    public void testReadMixedAttributes() throws Exception {
+        for (boolean compress : new boolean[]{true, false}) {
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, 3);
+            for (int i = 0; i < 10; i++) {
+                DataOutputBuffer out = new DataOutputBuffer();
+                for (int j = 0; j < 10; j++) {
+                    writeBytes(out, ("message-" + i + "-" + j).getBytes(StandardCharsets.UTF_8));
+                    writeBytes(out, ("dt=" + (j % 3)).getBytes(StandardCharsets.UTF_8));
+                }
+                inLongMsg.addMsg("m=0&iname=stream" + (i % 2), ByteBuffer.wrap(out.getData(), 0, out.getLength()));
+            }
+            assertRead(inLongMsg.buildArray(), 100);
+        }
+    }
+
+    @Test
+    public void testReadBinMessage() throws Exception {
+        for (boolean compress : new boolean[]{true, false}) {
+            for (boolean withAttr : new boolean[]{true, false}) {
+                DataOutputBuffer body = new DataOutputBuffer();
+                for (int i = 0; i < 20; i++) {
+                    writeBytes(body, ("message-" + i).getBytes(StandardCharsets.UTF_8));
+                    if (withAttr) {
+                        writeBytes(body, ("dt=" + (i % 4) + "&k=v").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, 4);
+                assertTrue(inLongMsg.addMsg(buildBinMsg(body, "ip=127.0.0.1&node=a", withAttr, 20)));
+                assertRead(inLongMsg.buildArray(), 20);
+                assertEquals(1650000000000L, reader.getCreatetime());
+                assertEquals(20, reader.getMsgCnt());
+            }
+        }
+    }
+
+    @Test
+    public void testReuseReader() throws Exception {
+        InLongMsg first = InLongMsg.newInLongMsg(true);
+        first.addMsg("m=0&iname=first", "a".getBytes(StandardCharsets.UTF_8));
+        InLongMsg second = InLongMsg.newInLongMsg(true);
+        second.addMsg("m=0&iname=second", "b".getBytes(StandardCharsets.UTF_8));
+        second.addMsg("m=0&iname=second", "c".getBytes(StandardCharsets.UTF_8));
+
+        assertRead(first.buildArray(), 1);
+        assertRead(second.buildArray(), 2);
+        assertRead(first.buildArray(), 1);
+    }
+
+    @Test
+    public void testReadInvalidMessage() throws Exception {
+        assertFalse(reader.reset(new byte[0]));
+        assertFalse(reader.reset("not an inlong msg".getBytes(StandardCharsets.UTF_8)));
+
+        InLongMsg inLongMsg = InLongMsg.newInLongMsg(false);
+        inLongMsg.addMsg("m=0&iname=stream", "message".getBytes(StandardCharsets.UTF_8));
+        byte[] data = inLongMsg.buildArray();
+        // break the length of the message
+        byte[] broken = data.clone();
+        broken[broken.length - 2 - "message".length() - 4] = 0x7f;
+        assertTrue(reader.reset(broken));
+        assertFalse(reader.nextMessage());
+    }
+
+    private void assertRead(byte[] data, int expectedCount) throws Exception {
+        Map<String, List<String>> actual = new HashMap<>();
+        assertTrue(reader.reset(ByteBuffer.wrap(data)));
+        int count = 0;
+        while (reader.nextMessage()) {
+            ByteBuffer message = reader.getMessage();
+            actual.computeIfAbsent(reader.getAttr(), k -> new ArrayList<>())
+                    .add(new String(message.array(), message.position(), message.remaining(),
+                            StandardCharsets.UTF_8));
+            count++;
+        }
+        assertEquals(expectedCount, count);
+        assertEquals(readByInLongMsg(data), actual);
+    }
+
+    private static Map<String, List<String>> readByInLongMsg(byte[] data) {
+        InLongMsg inLongMsg = InLongMsg.parseFrom(data);
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (String attr : inLongMsg.getAttrs()) {
+            List<String> messages = new ArrayList<>();
+            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
+            while (iterator.hasNext()) {
+                messages.add(new String(iterator.next(), StandardCharsets.UTF_8));
+            }
+            result.put(attr, messages);
+        }
+        return result;
+    }
+
+    private static ByteBuffer buildBinMsg(DataOutputBuffer body, String attr, boolean withAttr, int msgCnt) {
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        int bodyLen = body.getLength();
+        ByteBuffer buffer = ByteBuffer.allocate(bodyLen + attrBytes.length + 29);
+        buffer.putInt(bodyLen + attrBytes.length + 29 - 4);
+        buffer.put((byte) 7);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 2);
+        buffer.putShort((short) (withAttr ? 0x1 : 0x0));
+        buffer.putInt(1650000000);
+        buffer.putShort((short) msgCnt);
+        buffer.putInt(0);
+        buffer.putInt(bodyLen);
+        buffer.put(body.getData(), 0, bodyLen);
+        buffer.putShort((short) attrBytes.length);
+        buffer.put(attrBytes);
+        buffer.putShort((short) 0xEE01);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeBytes(DataOutputBuffer out, byte[] bytes) throws Exception {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -47,11 +47,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
@@ -67,6 +70,11 @@ public class RemoteConfigManager implements IRepository {
     private static final String KEY_PROXY_CLUSTER_TAG = "proxy.cluster.tag";
     private static final char FLUME_SEPARATOR = '.';
     private static final String KEY_CONFIG_CHECK_INTERVAL = "configCheckInterval";
+    private static final String KEY_CONFIG_WAIT_MS = "configWaitMs";
+    // wait for the config change in manager, should be less than the socket timeout
+    private static final long DEFAULT_CONFIG_WAIT_MS = 30000L;
+    // the check interval when the manager holds the request until the config changes
+    private static final long LONG_POLL_CHECK_INTERVAL_MS = 1000L;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteConfigManager.class);
     private static final Gson GSON = new Gson();
@@ -76,8 +84,12 @@ public class RemoteConfigManager implements IRepository {
     private final AtomicInteger managerIpListIndex = new AtomicInteger(0);
     private final AtomicReference<DataProxyCluster> currentClusterConfigRef = new AtomicReference<>();
     private String dataProxyConfigMd5;
+    private Long dataProxyConfigVersion;
 
     private long reloadInterval;
+    private long configWaitMs;
+    // the time of next request to manager
+    private volatile long nextReloadTime = 0L;
     private Timer reloadTimer;
 
     private IManagerIpListParser ipListParser;
@@ -108,6 +120,8 @@ public class RemoteConfigManager implements IRepository {
                 try {
                     String strReloadInterval = CommonPropertiesHolder.getString(KEY_CONFIG_CHECK_INTERVAL);
                     instance.reloadInterval = NumberUtils.toLong(strReloadInterval, DEFAULT_HEARTBEAT_INTERVAL_MS);
+                    String strConfigWaitMs = CommonPropertiesHolder.getString(KEY_CONFIG_WAIT_MS);
+                    instance.configWaitMs = NumberUtils.toLong(strConfigWaitMs, DEFAULT_CONFIG_WAIT_MS);
                     //
                     String ipListParserType = CommonPropertiesHolder.getString(IManagerIpListParser.KEY_MANAGER_TYPE);
                     Class<? extends IManagerIpListParser> ipListParserClass;
@@ -148,6 +162,9 @@ public class RemoteConfigManager implements IRepository {
      * Reload config
      */
     public void reload() {
+        if (System.currentTimeMillis() < nextReloadTime) {
+            return;
+        }
         LOGGER.info("start to reload config");
         String proxyClusterName = CommonPropertiesHolder.getString(KEY_PROXY_CLUSTER_NAME);
         String proxyClusterTag = CommonPropertiesHolder.getString(KEY_PROXY_CLUSTER_TAG);
@@ -161,12 +178,23 @@ public class RemoteConfigManager implements IRepository {
             return;
         }
         int managerIpSize = managerIpList.size();
+        long startTime = System.currentTimeMillis();
+        boolean waitForChange = false;
         for (int i = 0; i < managerIpList.size(); i++) {
             String host = managerIpList.get(Math.abs(managerIpListIndex.getAndIncrement()) % managerIpSize);
-            if (this.reloadDataProxyConfig(proxyClusterName, proxyClusterTag, host)) {
+            Integer errCode = this.reloadDataProxyConfig(proxyClusterName, proxyClusterTag, host);
+            if (errCode != null) {
+                // the manager returns at once if it does not support long poll, check it again after the interval
+                waitForChange = errCode != DataProxyConfigResponse.NOUPDATE
+                        || System.currentTimeMillis() - startTime >= configWaitMs / 2;
                 break;
             }
         }
+        if (configWaitMs > 0 && waitForChange) {
+            this.nextReloadTime = 0L;
+        } else {
+            this.nextReloadTime = startTime + reloadInterval;
+        }
 
         LOGGER.info("success to reload config");
     }
@@ -177,13 +205,17 @@ public class RemoteConfigManager implements IRepository {
     private void setReloadTimer() {
         reloadTimer = new Timer(true);
         TimerTask task = new RepositoryTimerTask<RemoteConfigManager>(this);
-        reloadTimer.schedule(task, new Date(System.currentTimeMillis() + reloadInterval), reloadInterval);
+        // with long poll the request returns when the config changes, so check more frequently
+        long checkInterval = configWaitMs > 0 ? Math.min(reloadInterval, LONG_POLL_CHECK_INTERVAL_MS) : reloadInterval;
+        reloadTimer.schedule(task, new Date(System.currentTimeMillis() + checkInterval), checkInterval);
     }
 
     /**
      * reloadDataProxyConfig
+     *
+     * @return the error code of manager response, null if failed
      */
-    private boolean reloadDataProxyConfig(String clusterName, String clusterTag, String host) {
+    private Integer reloadDataProxyConfig(String clusterName, String clusterTag, String host) {
         HttpPost httpPost = null;
         try {
             String url = "http://" + host + ConfigConstants.MANAGER_PATH + ConfigConstants.MANAGER_GET_ALL_CONFIG_PATH;
@@ -197,6 +229,8 @@ public class RemoteConfigManager implements IRepository {
             request.setClusterTag(clusterTag);
             if (StringUtils.isNotBlank(dataProxyConfigMd5)) {
                 request.setMd5(dataProxyConfigMd5);
+                request.setVersion(dataProxyConfigVersion);
+                request.setWaitMs(configWaitMs);
             }
             httpPost.setEntity(HttpUtils.getEntity(request));
 
@@ -210,29 +244,70 @@ public class RemoteConfigManager implements IRepository {
             DataProxyConfigResponse proxyResponse = GSON.fromJson(returnStr, DataProxyConfigResponse.class);
             if (!proxyResponse.isResult()) {
                 LOGGER.info("Fail to get config info from url:{}, error code is {}", url, proxyResponse.getErrCode());
-                return false;
+                return null;
             }
-            if (proxyResponse.getErrCode() != DataProxyConfigResponse.SUCC) {
+            DataProxyCluster clusterObj;
+            if (proxyResponse.getErrCode() == DataProxyConfigResponse.SUCC) {
+                clusterObj = proxyResponse.getData();
+            } else if (proxyResponse.getErrCode() == DataProxyConfigResponse.DELTA) {
+                clusterObj = this.mergeDeltaConfig(currentClusterConfigRef.get(), proxyResponse);
+                if (clusterObj == null) {
+                    // request the whole config next time
+                    this.dataProxyConfigMd5 = null;
+                    this.dataProxyConfigVersion = null;
+                    return null;
+                }
+            } else {
                 LOGGER.info("get config info from url:{}, error code is {}", url, proxyResponse.getErrCode());
-                return true;
+                return proxyResponse.getErrCode();
             }
 
             this.dataProxyConfigMd5 = proxyResponse.getMd5();
-            DataProxyCluster clusterObj = proxyResponse.getData();
+            this.dataProxyConfigVersion = proxyResponse.getVersion();
             this.currentClusterConfigRef.set(clusterObj);
             // parse inlong id
             this.parseInlongIds();
             // generate flume properties
             this.generateFlumeProperties();
+            return proxyResponse.getErrCode();
         } catch (Exception ex) {
             LOGGER.error("exception caught", ex);
-            return false;
+            return null;
         } finally {
             if (httpPost != null) {
                 httpPost.releaseConnection();
             }
         }
-        return true;
+    }
+
+    /**
+     * Merge the changed inlongIds into the current config, the other parts of the config are replaced.
+     *
+     * @return the merged config, null if there is no current config
+     */
+    private DataProxyCluster mergeDeltaConfig(DataProxyCluster currentConfig, DataProxyConfigResponse delta) {
+        if (currentConfig == null || delta.getData() == null) {
+            return null;
+        }
+        ProxyClusterObject deltaProxyObj = delta.getData().getProxyCluster();
+        Set<String> replacedIds = new HashSet<>();
+        for (InLongIdObject obj : deltaProxyObj.getInlongIds()) {
+            replacedIds.add(obj.getInlongId());
+        }
+        if (delta.getRemovedInlongIds() != null) {
+            replacedIds.addAll(delta.getRemovedInlongIds());
+        }
+        List<InLongIdObject> inlongIds = new ArrayList<>();
+        for (InLongIdObject obj : currentConfig.getProxyCluster().getInlongIds()) {
+            if (!replacedIds.contains(obj.getInlongId())) {
+                inlongIds.add(obj);
+            }
+        }
+        LOGGER.info("merge config delta of version {}, changed inlongIds {}, removed inlongIds {}",
+                delta.getVersion(), deltaProxyObj.getInlongIds().size(), delta.getRemovedInlongIds());
+        inlongIds.addAll(deltaProxyObj.getInlongIds());
+        deltaProxyObj.setInlongIds(inlongIds);
+        return delta.getData();
     }
 
     /**
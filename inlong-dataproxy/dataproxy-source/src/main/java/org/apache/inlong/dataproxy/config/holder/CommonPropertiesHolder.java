@@ -18,6 +18,7 @@
 package org.apache.inlong.dataproxy.config.holder;
 
 import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.flume.Context;
@@ -26,7 +27,10 @@ import org.apache.inlong.dataproxy.config.loader.CommonPropertiesLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -42,12 +46,16 @@ public class CommonPropertiesHolder {
     public static final boolean DEFAULT_RESPONSE_AFTER_SAVE = false;
     public static final String KEY_MAX_RESPONSE_TIMEOUT_MS = "maxResponseTimeoutMs";
     public static final long DEFAULT_MAX_RESPONSE_TIMEOUT_MS = 10000L;
+    // the ips of agents whose packed binary messages are forwarded as-is, "*" means all
+    public static final String KEY_PASS_THROUGH_TRUSTED_IPS = "passThroughTrustedIps";
+    public static final String PASS_THROUGH_ALL_IPS = "*";
 
     private static Map<String, String> props;
 
     private static long auditFormatInterval = 60000L;
     private static boolean isResponseAfterSave = DEFAULT_RESPONSE_AFTER_SAVE;
     private static long maxResponseTimeout = DEFAULT_MAX_RESPONSE_TIMEOUT_MS;
+    private static Set<String> passThroughTrustedIps = Collections.emptySet();
 
     /**
      * init
@@ -71,6 +79,8 @@ public class CommonPropertiesHolder {
                                 .toBoolean(CommonPropertiesHolder.getString(KEY_RESPONSE_AFTER_SAVE));
                         maxResponseTimeout = CommonPropertiesHolder.getLong(KEY_MAX_RESPONSE_TIMEOUT_MS,
                                 DEFAULT_MAX_RESPONSE_TIMEOUT_MS);
+                        passThroughTrustedIps = parseIps(
+                                CommonPropertiesHolder.getString(KEY_PASS_THROUGH_TRUSTED_IPS));
                     }
                 } catch (Throwable t) {
                     LOG.error("Fail to init CommonPropertiesLoader,loaderClass:{},error:{}",
@@ -217,4 +227,32 @@ public class CommonPropertiesHolder {
         return maxResponseTimeout;
     }
 
+    /**
+     * isPassThroughTrusted
+     *
+     * @param remoteIp the ip of the agent
+     * @return whether the packed binary messages of the agent can be forwarded as-is
+     */
+    public static boolean isPassThroughTrusted(String remoteIp) {
+        get();
+        Set<String> trustedIps = passThroughTrustedIps;
+        if (trustedIps.isEmpty() || remoteIp == null) {
+            return false;
+        }
+        return trustedIps.contains(PASS_THROUGH_ALL_IPS) || trustedIps.contains(remoteIp);
+    }
+
+    private static Set<String> parseIps(String ips) {
+        if (StringUtils.isBlank(ips)) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (String ip : StringUtils.split(ips, ',')) {
+            if (StringUtils.isNotBlank(ip)) {
+                result.add(ip.trim());
+            }
+        }
+        return result;
+    }
+
 }
@@ -18,6 +18,7 @@
 package org.apache.inlong.dataproxy.config.loader;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +35,12 @@ import org.apache.inlong.dataproxy.config.pojo.IdTopicConfig;
  */
 public class ManagerIdTopicConfigLoader implements IdTopicConfigLoader {
 
+    // the cluster config which the config list is converted from
+    private DataProxyCluster lastClusterConfig;
+    private List<IdTopicConfig> lastConfigList = new ArrayList<>();
+    // key: inlong id object of the cluster config, the delta config of manager keeps the unchanged objects
+    private Map<InLongIdObject, IdTopicConfig> lastConfigMap = new IdentityHashMap<>();
+
     /**
      * load
      * 
@@ -41,31 +48,54 @@ public class ManagerIdTopicConfigLoader implements IdTopicConfigLoader {
      */
     @Override
     public List<IdTopicConfig> load() {
-        List<IdTopicConfig> configList = new ArrayList<>();
         DataProxyCluster dataProxyCluster = RemoteConfigManager.getInstance().getCurrentClusterConfig();
         if (dataProxyCluster == null) {
-            return configList;
+            return new ArrayList<>();
+        }
+        if (dataProxyCluster == lastClusterConfig) {
+            // not reloaded since the last load
+            return lastConfigList;
         }
+        List<IdTopicConfig> configList = new ArrayList<>();
+        Map<InLongIdObject, IdTopicConfig> configMap = new IdentityHashMap<>();
         for (InLongIdObject obj : dataProxyCluster.getProxyCluster().getInlongIds()) {
-            IdTopicConfig config = new IdTopicConfig();
-            String id = obj.getInlongId();
-            String[] ids = id.split("\\.");
-            if (ids.length == 2) {
-                config.setInlongGroupId(ids[0]);
-                config.setInlongStreamid(ids[1]);
-            } else {
-                config.setInlongGroupId(id);
+            IdTopicConfig config = lastConfigMap.get(obj);
+            if (config == null) {
+                config = this.convert(obj);
             }
-            config.setTopicName(obj.getTopic());
-            Map<String, String> params = obj.getParams();
-            config.setDataType(DataType.convert(params.getOrDefault("dataType", DataType.TEXT.value())));
-            config.setFieldDelimiter(params.getOrDefault("fieldDelimiter", "|"));
-            config.setFileDelimiter(params.getOrDefault("fileDelimiter", "\n"));
+            configMap.put(obj, config);
             configList.add(config);
         }
+        this.lastClusterConfig = dataProxyCluster;
+        this.lastConfigList = configList;
+        this.lastConfigMap = configMap;
         return configList;
     }
 
+    /**
+     * convert
+     * 
+     * @param  obj
+     * @return
+     */
+    private IdTopicConfig convert(InLongIdObject obj) {
+        IdTopicConfig config = new IdTopicConfig();
+        String id = obj.getInlongId();
+        String[] ids = id.split("\\.");
+        if (ids.length == 2) {
+            config.setInlongGroupId(ids[0]);
+            config.setInlongStreamid(ids[1]);
+        } else {
+            config.setInlongGroupId(id);
+        }
+        config.setTopicName(obj.getTopic());
+        Map<String, String> params = obj.getParams();
+        config.setDataType(DataType.convert(params.getOrDefault("dataType", DataType.TEXT.value())));
+        config.setFieldDelimiter(params.getOrDefault("fieldDelimiter", "|"));
+        config.setFileDelimiter(params.getOrDefault("fileDelimiter", "\n"));
+        return config;
+    }
+
     /**
      * configure
      * 
@@ -50,6 +50,7 @@ import org.apache.inlong.dataproxy.metrics.DataProxyMetricItemSet;
 import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
 import org.apache.inlong.dataproxy.utils.Constants;
 import org.apache.inlong.dataproxy.utils.NetworkUtils;
+import org.apache.inlong.dataproxy.utils.TimeBucketedIdCache;
 import org.apache.inlong.tubemq.client.config.TubeClientConfig;
 import org.apache.inlong.tubemq.client.exception.TubeClientException;
 import org.apache.inlong.tubemq.client.factory.TubeMultiSessionFactory;
@@ -63,9 +64,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
 public class SimpleMessageTubeSink extends AbstractSink implements Configurable {
 
@@ -146,15 +144,7 @@ public class SimpleMessageTubeSink extends AbstractSink implements Configurable
     private Map<String, String> dimensions;
     private DataProxyMetricItemSet metricItemSet;
 
-    private static final LoadingCache<String, Long> agentIdCache = CacheBuilder
-            .newBuilder().concurrencyLevel(4 * 8).initialCapacity(5000000).expireAfterAccess(30, TimeUnit.SECONDS)
-            .build(new CacheLoader<String, Long>() {
-
-                @Override
-                public Long load(String key) {
-                    return System.currentTimeMillis();
-                }
-            });
+    private static final TimeBucketedIdCache agentIdCache = new TimeBucketedIdCache(4 * 8, 30 * 1000L, 6);
 
     private IdCacheCleaner idCacheCleaner;
     protected static boolean idCleanerStarted = false;
@@ -394,18 +384,13 @@ public class SimpleMessageTubeSink extends AbstractSink implements Configurable
                 }
             } else {
                 boolean hasKey = false;
-                if (clientIdCache && clientId != null) {
-                    hasKey = agentIdCache.asMap().containsKey(clientId);
+                if (clientId != null) {
+                    hasKey = agentIdCache.checkAndPut(clientId);
                 }
 
-                if (clientIdCache && clientId != null && hasKey) {
-                    agentIdCache.put(clientId, System.currentTimeMillis());
+                if (clientIdCache && hasKey) {
                     logger.info("{} agent package {} existed,just discard.", getName(), clientId);
                 } else {
-                    if (clientId != null) {
-                        agentIdCache.put(clientId, System.currentTimeMillis());
-                    }
-
                     Message message = this.parseEvent2Message(topic, event);
                     producer.sendMessage(message, new MyCallback(es));
                     flag.set(true);
@@ -646,7 +631,7 @@ public class SimpleMessageTubeSink extends AbstractSink implements Configurable
                         agentIdMap.remove(clientId);
                     }
                 } else {
-                    if (clientId != null && agentIdCache.asMap().containsKey(clientId)) {
+                    if (clientId != null) {
                         agentIdCache.invalidate(clientId);
                     }
                 }
@@ -29,6 +29,7 @@ import org.apache.flume.EventDeliveryException;
 import org.apache.flume.Transaction;
 import org.apache.flume.conf.Configurable;
 import org.apache.flume.sink.AbstractSink;
+import org.apache.inlong.common.metric.MetricItemHandle;
 import org.apache.inlong.dataproxy.metrics.DataProxyMetricItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,7 +44,7 @@ public class PulsarFederationSink extends AbstractSink implements Configurable {
 
     private PulsarFederationSinkContext context;
     private List<PulsarFederationWorker> workers = new ArrayList<>();
-    private Map<String, String> dimensions;
+    private MetricItemHandle<DataProxyMetricItem> metricHandle;
 
     /**
      * start
@@ -85,9 +86,10 @@ public class PulsarFederationSink extends AbstractSink implements Configurable {
     public void configure(Context context) {
         LOG.info("start to configure:{}, context:{}.", this.getClass().getSimpleName(), context.toString());
         this.context = new PulsarFederationSinkContext(this.getName(), context);
-        this.dimensions = new HashMap<>();
-        this.dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.context.getProxyClusterId());
-        this.dimensions.put(DataProxyMetricItem.KEY_SINK_ID, this.getName());
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.context.getProxyClusterId());
+        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, this.getName());
+        this.metricHandle = this.context.getMetricItemSet().resolveHandle(dimensions);
     }
 
     /**
@@ -112,7 +114,7 @@ public class PulsarFederationSink extends AbstractSink implements Configurable {
             if (!this.context.getBufferQueue().tryAcquire(eventSize)) {
                 // record the failure of queue full for monitor
                 // metric
-                DataProxyMetricItem metricItem = this.context.getMetricItemSet().findMetricItem(dimensions);
+                DataProxyMetricItem metricItem = this.metricHandle.getItem();
                 metricItem.readFailCount.incrementAndGet();
                 metricItem.readFailSize.addAndGet(eventSize);
                 //
@@ -127,7 +129,7 @@ public class PulsarFederationSink extends AbstractSink implements Configurable {
             try {
                 tx.rollback();
                 // metric
-                DataProxyMetricItem metricItem = this.context.getMetricItemSet().findMetricItem(dimensions);
+                DataProxyMetricItem metricItem = this.metricHandle.getItem();
                 metricItem.readFailCount.incrementAndGet();
             } catch (Throwable e) {
                 LOG.error("Channel take transaction rollback exception:" + getName(), e);
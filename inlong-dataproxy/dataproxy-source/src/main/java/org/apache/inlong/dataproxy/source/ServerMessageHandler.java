@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.flume.ChannelException;
 import org.apache.flume.Event;
 import org.apache.flume.channel.ChannelProcessor;
@@ -47,10 +48,11 @@ import org.apache.flume.event.EventBuilder;
 import org.apache.flume.source.AbstractSource;
 import org.apache.inlong.common.monitor.MonitorIndex;
 import org.apache.inlong.common.monitor.MonitorIndexExt;
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgBuilder;
 import org.apache.inlong.dataproxy.base.OrderEvent;
 import org.apache.inlong.dataproxy.base.ProxyMessage;
 import org.apache.inlong.dataproxy.config.ConfigManager;
+import org.apache.inlong.dataproxy.config.holder.CommonPropertiesHolder;
 import org.apache.inlong.dataproxy.consts.AttributeConstants;
 import org.apache.inlong.dataproxy.consts.ConfigConstants;
 import org.apache.inlong.dataproxy.exception.ErrorCode;
@@ -116,6 +118,9 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
     //
     private final DataProxyMetricItemSet metricItemSet;
 
+    // the reusable message builders of this channel, key: the version of InLongMsg
+    private final Map<Integer, InLongMsgBuilder> msgBuilders = new HashMap<>();
+
     /**
      * Constructor
      *
@@ -390,6 +395,16 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
         return true;
     }
 
+    private InLongMsgBuilder getMsgBuilder(int inLongMsgVer) {
+        InLongMsgBuilder msgBuilder = msgBuilders.get(inLongMsgVer);
+        if (msgBuilder == null) {
+            msgBuilder = new InLongMsgBuilder(this.isCompressed, inLongMsgVer);
+            msgBuilders.put(inLongMsgVer, msgBuilder);
+        }
+        msgBuilder.reset();
+        return msgBuilder;
+    }
+
     private void formatMessagesAndSend(ChannelHandlerContext ctx, Map<String, String> commonAttrMap,
             Map<String, HashMap<String, List<ProxyMessage>>> messageMap,
             String strRemoteIP, MsgType msgType) throws MessageIDException {
@@ -404,20 +419,29 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
         for (Map.Entry<String, HashMap<String, List<ProxyMessage>>> topicEntry : messageMap.entrySet()) {
             for (Map.Entry<String, List<ProxyMessage>> streamIdEntry : topicEntry.getValue().entrySet()) {
 
-                InLongMsg inLongMsg = InLongMsg.newInLongMsg(this.isCompressed, inLongMsgVer);
+                // the packed binary message of a trusted agent is forwarded as-is, only wrapped into the frame
+                byte[] passThroughData = null;
+                if (inLongMsgVer == 4 && streamIdEntry.getValue().size() == 1
+                        && CommonPropertiesHolder.isPassThroughTrusted(strRemoteIP)) {
+                    passThroughData = InLongMsgBuilder.wrapBinMsg(
+                            streamIdEntry.getValue().get(0).getData(), this.isCompressed);
+                }
+                InLongMsgBuilder msgBuilder = getMsgBuilder(inLongMsgVer);
                 Map<String, String> headers = new HashMap<String, String>();
-                for (ProxyMessage message : streamIdEntry.getValue()) {
-                    if (MsgType.MSG_MULTI_BODY_ATTR.equals(msgType) || MsgType.MSG_MULTI_BODY.equals(msgType)) {
-                        message.getAttributeMap().put(AttributeConstants.MESSAGE_COUNT, String.valueOf(1));
-                        inLongMsg.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
-                    } else if (MsgType.MSG_BIN_MULTI_BODY.equals(msgType)) {
-                        inLongMsg.addMsg(message.getData());
-                    } else {
-                        inLongMsg.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
+                if (passThroughData == null) {
+                    for (ProxyMessage message : streamIdEntry.getValue()) {
+                        if (MsgType.MSG_MULTI_BODY_ATTR.equals(msgType) || MsgType.MSG_MULTI_BODY.equals(msgType)) {
+                            message.getAttributeMap().put(AttributeConstants.MESSAGE_COUNT, String.valueOf(1));
+                            msgBuilder.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
+                        } else if (MsgType.MSG_BIN_MULTI_BODY.equals(msgType)) {
+                            msgBuilder.addMsg(message.getData());
+                        } else {
+                            msgBuilder.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
+                        }
                     }
                 }
 
-                long pkgTimeInMillis = inLongMsg.getCreatetime();
+                long pkgTimeInMillis = msgBuilder.getCreatetime();
                 String pkgTimeStr = dateFormator.get().format(pkgTimeInMillis);
 
                 if (inLongMsgVer == 4) {
@@ -458,7 +482,17 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
                 String proxyMetricMsgCnt = commonAttrMap.get(AttributeConstants.MESSAGE_COUNT);
                 headers.put(ConfigConstants.MSG_COUNTER_KEY, proxyMetricMsgCnt);
 
-                byte[] data = inLongMsg.buildArray();
+                byte[] data;
+                try {
+                    data = (passThroughData != null) ? passThroughData : msgBuilder.buildArray();
+                } catch (IOException e) {
+                    throw new MessageIDException(
+                            NumberUtils.toLong(commonAttrMap.get(AttributeConstants.UNIQ_ID)),
+                            ErrorCode.COMPRESS_ERROR, e);
+                } finally {
+                    // give the buffers back to the pool, the builder may be idle for a long time
+                    msgBuilder.reset();
+                }
                 headers.put(ConfigConstants.TOTAL_LEN, String.valueOf(data.length));
 
                 headers.put(AttributeConstants.UNIQ_ID,
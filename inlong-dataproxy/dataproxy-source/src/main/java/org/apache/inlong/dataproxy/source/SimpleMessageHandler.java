@@ -46,11 +46,12 @@ import org.apache.flume.Event;
 import org.apache.flume.channel.ChannelProcessor;
 import org.apache.flume.event.EventBuilder;
 import org.apache.flume.source.AbstractSource;
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgBuilder;
 import org.apache.inlong.dataproxy.base.ProxyMessage;
 import org.apache.inlong.dataproxy.config.ConfigManager;
 import org.apache.inlong.dataproxy.consts.AttributeConstants;
 import org.apache.inlong.dataproxy.consts.ConfigConstants;
+import org.apache.inlong.dataproxy.exception.ErrorCode;
 import org.apache.inlong.dataproxy.exception.MessageIDException;
 import org.apache.inlong.dataproxy.metrics.DataProxyMetricItem;
 import org.apache.inlong.dataproxy.metrics.DataProxyMetricItemSet;
@@ -105,6 +106,9 @@ public class SimpleMessageHandler extends ChannelInboundHandlerAdapter {
     private final String protocolType;
     private final DataProxyMetricItemSet metricItemSet;
 
+    // the reusable message builders of this channel, key: the version of InLongMsg
+    private final Map<Integer, InLongMsgBuilder> msgBuilders = new HashMap<>();
+
     /**
      * SimpleMessageHandler
      * @param source
@@ -357,6 +361,16 @@ public class SimpleMessageHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    private InLongMsgBuilder getMsgBuilder(int inLongMsgVer) {
+        InLongMsgBuilder msgBuilder = msgBuilders.get(inLongMsgVer);
+        if (msgBuilder == null) {
+            msgBuilder = new InLongMsgBuilder(this.isCompressed, inLongMsgVer);
+            msgBuilders.put(inLongMsgVer, msgBuilder);
+        }
+        msgBuilder.reset();
+        return msgBuilder;
+    }
+
     /**
      * formatMessagesAndSend
      * 
@@ -380,20 +394,20 @@ public class SimpleMessageHandler extends ChannelInboundHandlerAdapter {
         for (Map.Entry<String, HashMap<String, List<ProxyMessage>>> topicEntry : messageMap.entrySet()) {
             for (Map.Entry<String, List<ProxyMessage>> streamIdEntry : topicEntry.getValue().entrySet()) {
 
-                InLongMsg inLongMsg = InLongMsg.newInLongMsg(this.isCompressed, inLongMsgVer);
+                InLongMsgBuilder msgBuilder = getMsgBuilder(inLongMsgVer);
                 Map<String, String> headers = new HashMap<String, String>();
                 for (ProxyMessage message : streamIdEntry.getValue()) {
                     if (MsgType.MSG_MULTI_BODY_ATTR.equals(msgType) || MsgType.MSG_MULTI_BODY.equals(msgType)) {
                         message.getAttributeMap().put(AttributeConstants.MESSAGE_COUNT, String.valueOf(1));
-                        inLongMsg.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
+                        msgBuilder.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
                     } else if (MsgType.MSG_BIN_MULTI_BODY.equals(msgType)) {
-                        inLongMsg.addMsg(message.getData());
+                        msgBuilder.addMsg(message.getData());
                     } else {
-                        inLongMsg.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
+                        msgBuilder.addMsg(mapJoiner.join(message.getAttributeMap()), message.getData());
                     }
                 }
 
-                long pkgTimeInMillis = inLongMsg.getCreatetime();
+                long pkgTimeInMillis = msgBuilder.getCreatetime();
                 String pkgTimeStr = dateFormator.get().format(pkgTimeInMillis);
 
                 if (inLongMsgVer == 4) {
@@ -416,7 +430,17 @@ public class SimpleMessageHandler extends ChannelInboundHandlerAdapter {
                 String proxyMetricMsgCnt = commonAttrMap.get(AttributeConstants.MESSAGE_COUNT);
                 headers.put(ConfigConstants.MSG_COUNTER_KEY, proxyMetricMsgCnt);
 
-                byte[] data = inLongMsg.buildArray();
+                byte[] data;
+                try {
+                    data = msgBuilder.buildArray();
+                } catch (IOException e) {
+                    throw new MessageIDException(
+                            NumberUtils.toLong(commonAttrMap.get(AttributeConstants.UNIQ_ID)),
+                            ErrorCode.COMPRESS_ERROR, e);
+                } finally {
+                    // give the buffers back to the pool, the builder may be idle for a long time
+                    msgBuilder.reset();
+                }
                 headers.put(ConfigConstants.TOTAL_LEN, String.valueOf(data.length));
 
                 String sequenceId = commonAttrMap.get(AttributeConstants.SEQUENCE_ID);
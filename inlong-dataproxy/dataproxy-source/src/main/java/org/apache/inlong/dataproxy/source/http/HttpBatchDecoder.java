@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpBatchDecoder, split the body of a batch request into messages.
+ * <p/>
+ * Two batch formats are supported:
+ * <ul>
+ * <li>newline-delimited, one message per line, "\r\n" is also accepted and empty lines are skipped;</li>
+ * <li>length-prefixed binary, each message is a 4 bytes big-endian length followed by the message bytes.</li>
+ * </ul>
+ * The whole body may be compressed with gzip or snappy, as declared by the Content-Encoding header.
+ */
+public class HttpBatchDecoder {
+
+    public static final String CONTENT_TYPE_BINARY = "application/octet-stream";
+    public static final String ENCODING_IDENTITY = "identity";
+    public static final String ENCODING_GZIP = "gzip";
+    public static final String ENCODING_SNAPPY = "snappy";
+    public static final int LENGTH_PREFIX_LENGTH = 4;
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    /**
+     * decode
+     * 
+     * @param  body            the request body
+     * @param  contentType     the Content-Type header, null for newline-delimited
+     * @param  contentEncoding the Content-Encoding header, null for identity
+     * @param  maxLength       the max length of the uncompressed body
+     * @return                 the messages in the batch
+     * @throws IOException     if the body can not be uncompressed
+     */
+    public static List<byte[]> decode(byte[] body, String contentType, String contentEncoding, int maxLength)
+            throws IOException {
+        byte[] data = uncompress(body, contentEncoding, maxLength);
+        if (isBinary(contentType)) {
+            return decodeLengthPrefixed(data);
+        }
+        return decodeLines(data);
+    }
+
+    /**
+     * isBinary
+     * 
+     * @param  contentType
+     * @return             whether the body is a length-prefixed binary batch
+     */
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase().startsWith(CONTENT_TYPE_BINARY);
+    }
+
+    /**
+     * uncompress
+     * 
+     * @param  body
+     * @param  contentEncoding
+     * @param  maxLength
+     * @return                 the uncompressed body
+     * @throws IOException
+     */
+    public static byte[] uncompress(byte[] body, String contentEncoding, int maxLength) throws IOException {
+        String encoding = (contentEncoding == null) ? ENCODING_IDENTITY : contentEncoding.trim().toLowerCase();
+        byte[] data;
+        if (encoding.isEmpty() || ENCODING_IDENTITY.equals(encoding)) {
+            data = body;
+        } else if (ENCODING_GZIP.equals(encoding)) {
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                data = readFully(input, maxLength);
+            }
+        } else if (ENCODING_SNAPPY.equals(encoding)) {
+            if (Snappy.uncompressedLength(body) > maxLength) {
+                throw new IllegalArgumentException("uncompressed body exceeds the limit:" + maxLength);
+            }
+            data = Snappy.uncompress(body);
+        } else {
+            throw new IllegalArgumentException("unsupported Content-Encoding:" + contentEncoding);
+        }
+        if (data.length > maxLength) {
+            throw new IllegalArgumentException("body exceeds the limit:" + maxLength);
+        }
+        return data;
+    }
+
+    /**
+     * decodeLines
+     * 
+     * @param  data
+     * @return      the non-empty lines
+     */
+    public static List<byte[]> decodeLines(byte[] data) {
+        List<byte[]> messages = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= data.length; i++) {
+            if (i < data.length && data[i] != '\n') {
+                continue;
+            }
+            int end = i;
+            if (end > start && data[end - 1] == '\r') {
+                end--;
+            }
+            if (end > start) {
+                messages.add(Arrays.copyOfRange(data, start, end));
+            }
+            start = i + 1;
+        }
+        return messages;
+    }
+
+    /**
+     * decodeLengthPrefixed
+     * 
+     * @param  data
+     * @return      the messages
+     */
+    public static List<byte[]> decodeLengthPrefixed(byte[] data) {
+        List<byte[]> messages = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            if (data.length - offset < LENGTH_PREFIX_LENGTH) {
+                throw new IllegalArgumentException("truncated length prefix at offset:" + offset);
+            }
+            int length = ((data[offset] & 0xff) << 24) | ((data[offset + 1] & 0xff) << 16)
+                    | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+            offset += LENGTH_PREFIX_LENGTH;
+            if (length < 0 || length > data.length - offset) {
+                throw new IllegalArgumentException("illegal message length " + length + " at offset:" + offset);
+            }
+            messages.add(Arrays.copyOfRange(data, offset, offset + length));
+            offset += length;
+        }
+        return messages;
+    }
+
+    private static byte[] readFully(InputStream input, int maxLength) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int readLength;
+        while ((readLength = input.read(buffer)) != -1) {
+            if (output.size() + readLength > maxLength) {
+                throw new IllegalArgumentException("uncompressed body exceeds the limit:" + maxLength);
+            }
+            output.write(buffer, 0, readLength);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.flume.Event;
+import org.apache.inlong.common.monitor.LogCounter;
+import org.apache.inlong.dataproxy.config.holder.CommonPropertiesHolder;
+import org.apache.inlong.dataproxy.consts.AttributeConstants;
+import org.apache.inlong.dataproxy.http.StatusCode;
+import org.apache.inlong.dataproxy.metrics.DataProxyMetricItem;
+import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
+import org.apache.inlong.dataproxy.source.SourceContext;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+import org.apache.inlong.sdk.commons.protocol.ProxyPackEvent;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.ResultCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * InlongHttpChannelHandler, process the batch requests of HTTP/1.1 and HTTP/2 streams.
+ * <p/>
+ * A request is decoded and put to the channel by the process executor, so the event loop is never
+ * blocked by the channel. The connection stops reading until the response is written, which keeps the
+ * responses of pipelined HTTP/1.1 requests in order and pushes back on the client when the channel is slow.
+ */
+public class InlongHttpChannelHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    public static final Logger LOG = LoggerFactory.getLogger(InlongHttpChannelHandler.class);
+    public static final String BATCH_PATH = "/dataproxy/batch";
+    public static final String HEARTBEAT_PATH = "/dataproxy/heartbeat";
+    private static final LogCounter logCounter = new LogCounter(10, 100000, 60 * 1000);
+    private static final Gson GSON = new Gson();
+
+    private final SourceContext sourceContext;
+    private final Executor processExecutor;
+    private final int maxBatchLength;
+
+    /**
+     * Constructor
+     * 
+     * @param sourceContext
+     * @param processExecutor
+     * @param maxBatchLength
+     */
+    public InlongHttpChannelHandler(SourceContext sourceContext, Executor processExecutor, int maxBatchLength) {
+        this.sourceContext = sourceContext;
+        this.processExecutor = processExecutor;
+        this.maxBatchLength = maxBatchLength;
+    }
+
+    /**
+     * channelRead0
+     * 
+     * @param ctx
+     * @param request
+     */
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        final boolean keepAlive = HttpUtil.isKeepAlive(request);
+        if (!request.decoderResult().isSuccess()) {
+            this.response(ctx, keepAlive, HttpResponseStatus.BAD_REQUEST, StatusCode.ILLEGAL_ARGUMENT,
+                    "Bad request from client. Request can not be decoded.");
+            return;
+        }
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        if (HEARTBEAT_PATH.equals(decoder.path())) {
+            this.response(ctx, keepAlive, HttpResponseStatus.OK, StatusCode.SUCCESS, "success");
+            return;
+        }
+        if (!BATCH_PATH.equals(decoder.path())) {
+            this.response(ctx, keepAlive, HttpResponseStatus.NOT_FOUND, StatusCode.ILLEGAL_ARGUMENT,
+                    "Bad request from client. Unknown path:" + decoder.path());
+            return;
+        }
+        if (!HttpMethod.POST.equals(request.method())) {
+            this.response(ctx, keepAlive, HttpResponseStatus.METHOD_NOT_ALLOWED, StatusCode.ILLEGAL_ARGUMENT,
+                    "Bad request from client. Batch must be sent by POST.");
+            return;
+        }
+        // the request is released when this method returns, copy what the executor needs
+        final BatchRequest batch = new BatchRequest();
+        batch.inlongGroupId = getParameter(decoder, AttributeConstants.GROUP_ID);
+        batch.inlongStreamId = getParameter(decoder, AttributeConstants.STREAM_ID);
+        batch.dataTime = getParameter(decoder, AttributeConstants.DATA_TIME);
+        batch.contentType = request.headers().get(HttpHeaderNames.CONTENT_TYPE);
+        batch.contentEncoding = request.headers().get(HttpHeaderNames.CONTENT_ENCODING);
+        batch.body = ByteBufUtil.getBytes(request.content());
+        // stop reading until the response is written
+        ctx.channel().config().setAutoRead(false);
+        try {
+            processExecutor.execute(() -> this.processBatch(ctx, keepAlive, batch));
+        } catch (RejectedExecutionException e) {
+            this.response(ctx, keepAlive, HttpResponseStatus.SERVICE_UNAVAILABLE, StatusCode.SERVICE_ERR,
+                    "Service error! Too many requests.");
+        }
+    }
+
+    /**
+     * processBatch, decode the batch and put the events to the channel
+     * 
+     * @param ctx
+     * @param keepAlive
+     * @param batch
+     */
+    private void processBatch(ChannelHandlerContext ctx, boolean keepAlive, BatchRequest batch) {
+        if (StringUtils.isEmpty(batch.inlongGroupId) || StringUtils.isEmpty(batch.inlongStreamId)) {
+            this.response(ctx, keepAlive, HttpResponseStatus.BAD_REQUEST, StatusCode.ILLEGAL_ARGUMENT,
+                    "Bad request from client. groupId and streamId must not be empty.");
+            return;
+        }
+        if (sourceContext.isRejectService()) {
+            this.addMetric(false, 0, 0, null);
+            this.response(ctx, keepAlive, HttpResponseStatus.SERVICE_UNAVAILABLE, StatusCode.SERVICE_ERR,
+                    "Service error! Service is stopped.");
+            return;
+        }
+        List<byte[]> messages;
+        try {
+            messages = HttpBatchDecoder.decode(batch.body, batch.contentType, batch.contentEncoding,
+                    maxBatchLength);
+        } catch (Throwable t) {
+            if (logCounter.shouldPrint()) {
+                LOG.warn("Received bad batch from client:{}, {}", ctx.channel().remoteAddress(), t.getMessage());
+            }
+            this.addMetric(false, 0, batch.body.length, null);
+            this.response(ctx, keepAlive, HttpResponseStatus.BAD_REQUEST, StatusCode.ILLEGAL_ARGUMENT,
+                    "Bad request from client. " + t.getMessage());
+            return;
+        }
+        if (messages.isEmpty()) {
+            this.response(ctx, keepAlive, HttpResponseStatus.OK, StatusCode.SUCCESS, "success");
+            return;
+        }
+        // build events
+        long msgTime = NumberUtils.toLong(batch.dataTime, System.currentTimeMillis());
+        String sourceIp = getRemoteIp(ctx.channel().remoteAddress());
+        List<ProxyEvent> events = new ArrayList<>(messages.size());
+        long totalSize = 0;
+        for (byte[] message : messages) {
+            ProxyEvent event = new ProxyEvent(batch.inlongGroupId, batch.inlongStreamId, message, msgTime, sourceIp);
+            String topic = sourceContext.getIdHolder().getTopic(event.getUid());
+            if (topic != null) {
+                event.setTopic(topic);
+            }
+            events.add(event);
+            totalSize += message.length;
+        }
+        // put to channel
+        if (!CommonPropertiesHolder.isResponseAfterSave()) {
+            this.processAndResponse(ctx, keepAlive, events, totalSize);
+        } else {
+            this.processAndWaitingSave(ctx, keepAlive, batch, events, totalSize);
+        }
+    }
+
+    /**
+     * processAndResponse, response when the events are committed to the channel
+     */
+    private void processAndResponse(ChannelHandlerContext ctx, boolean keepAlive, List<ProxyEvent> events,
+            long totalSize) {
+        try {
+            sourceContext.getSource().getChannelProcessor().processEventBatch(new ArrayList<Event>(events));
+        } catch (Throwable ex) {
+            if (logCounter.shouldPrint()) {
+                LOG.error("Process batch error can't write event to channel.", ex);
+            }
+            this.addMetric(false, events.size(), totalSize, events.get(0));
+            this.response(ctx, keepAlive, HttpResponseStatus.SERVICE_UNAVAILABLE, StatusCode.SERVICE_ERR,
+                    "Channel error!");
+            return;
+        }
+        this.addMetric(true, events.size(), totalSize, events);
+        this.response(ctx, keepAlive, HttpResponseStatus.OK, StatusCode.SUCCESS, "success");
+    }
+
+    /**
+     * processAndWaitingSave, response when the sink has saved the events, or the response times out
+     */
+    private void processAndWaitingSave(ChannelHandlerContext ctx, boolean keepAlive, BatchRequest batch,
+            List<ProxyEvent> events, long totalSize) {
+        InlongHttpSourceCallback callback = new InlongHttpSourceCallback(this, ctx, keepAlive);
+        ProxyPackEvent packEvent = new ProxyPackEvent(batch.inlongGroupId, batch.inlongStreamId, events, callback);
+        try {
+            sourceContext.getSource().getChannelProcessor().processEvent(packEvent);
+            this.addMetric(true, events.size(), totalSize, events);
+            callback.setTimeoutFuture(ctx.executor().schedule(() -> callback.callback(ResultCode.ERR_REJECT),
+                    CommonPropertiesHolder.getMaxResponseTimeout(), TimeUnit.MILLISECONDS));
+        } catch (Throwable ex) {
+            if (logCounter.shouldPrint()) {
+                LOG.error("Process batch error can't write event to channel.", ex);
+            }
+            this.addMetric(false, events.size(), totalSize, events.get(0));
+            callback.callback(ResultCode.ERR_REJECT);
+        }
+    }
+
+    /**
+     * response
+     * 
+     * @param ctx
+     * @param keepAlive
+     * @param status
+     * @param code
+     * @param message
+     */
+    void response(ChannelHandlerContext ctx, boolean keepAlive, HttpResponseStatus status, int code,
+            String message) {
+        JsonObject body = new JsonObject();
+        body.addProperty("code", String.valueOf(code));
+        body.addProperty("msg", message);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
+                Unpooled.copiedBuffer(GSON.toJson(body), StandardCharsets.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+        HttpUtil.setContentLength(response, response.content().readableBytes());
+        if (keepAlive) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        } else {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        }
+        ctx.writeAndFlush(response).addListener((ChannelFutureListener) future -> {
+            if (!keepAlive || !future.isSuccess()) {
+                future.channel().close();
+                return;
+            }
+            // read the next request
+            future.channel().config().setAutoRead(true);
+        });
+    }
+
+    /**
+     * addMetric
+     * 
+     * @param result
+     * @param count
+     * @param size
+     * @param event
+     */
+    private void addMetric(boolean result, long count, long size, Event event) {
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, sourceContext.getProxyClusterId());
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, sourceContext.getSourceId());
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceContext.getSourceDataId());
+        DataProxyMetricItem.fillInlongId(event, dimensions);
+        DataProxyMetricItem.fillAuditFormatTime(event, dimensions);
+        DataProxyMetricItem metricItem = this.sourceContext.getMetricItemSet().findMetricItem(dimensions);
+        if (result) {
+            metricItem.readSuccessCount.addAndGet(count);
+            metricItem.readSuccessSize.addAndGet(size);
+        } else {
+            metricItem.readFailCount.addAndGet(count);
+            metricItem.readFailSize.addAndGet(size);
+        }
+    }
+
+    /**
+     * addMetric, all events of a batch have the same dimensions
+     */
+    private void addMetric(boolean result, long count, long size, List<ProxyEvent> events) {
+        this.addMetric(result, count, size, events.get(0));
+        if (result) {
+            for (ProxyEvent event : events) {
+                AuditUtils.add(AuditUtils.AUDIT_ID_DATAPROXY_READ_SUCCESS, event);
+            }
+        }
+    }
+
+    private static String getParameter(QueryStringDecoder decoder, String name) {
+        List<String> values = decoder.parameters().get(name);
+        return (values == null || values.isEmpty()) ? null : values.get(0);
+    }
+
+    private static String getRemoteIp(SocketAddress remoteAddress) {
+        if (remoteAddress instanceof InetSocketAddress) {
+            return ((InetSocketAddress) remoteAddress).getAddress().getHostAddress();
+        }
+        return String.valueOf(remoteAddress);
+    }
+
+    /**
+     * exceptionCaught
+     * 
+     * @param ctx
+     * @param cause
+     */
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        if (logCounter.shouldPrint()) {
+            LOG.error("exception caught from {}", ctx.channel().remoteAddress(), cause);
+        }
+        ctx.close();
+    }
+
+    /**
+     * BatchRequest
+     */
+    private static class BatchRequest {
+
+        private String inlongGroupId;
+        private String inlongStreamId;
+        private String dataTime;
+        private String contentType;
+        private String contentEncoding;
+        private byte[] body;
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flume.Context;
+import org.apache.flume.conf.Configurable;
+import org.apache.inlong.dataproxy.consts.ConfigConstants;
+import org.apache.inlong.dataproxy.source.SourceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpMessage;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.flow.FlowControlHandler;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.AsciiString;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * InlongHttpChannelPipelineFactory
+ * <p/>
+ * Serves HTTP/1.1 with keep-alive, and cleartext HTTP/2 both by the upgrade from HTTP/1.1 and by the prior
+ * knowledge preface. Every HTTP/2 stream is a child channel with its own message handler. The requests are
+ * processed by a pool shared by all connections of the source.
+ */
+public class InlongHttpChannelPipelineFactory extends ChannelInitializer<SocketChannel>
+        implements Configurable, Closeable {
+
+    public static final Logger LOG = LoggerFactory.getLogger(InlongHttpChannelPipelineFactory.class);
+    public static final String KEY_MAX_BATCH_LENGTH = "maxBatchLength";
+    public static final String KEY_PROCESS_THREADS = "processThreads";
+    public static final String KEY_PROCESS_QUEUE_SIZE = "processQueueSize";
+    public static final int DEFAULT_MAX_BATCH_LENGTH = 4 * 1024 * 1024;
+    public static final int DEFAULT_PROCESS_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_READ_IDLE_TIME = 70 * 60 * 1000;
+    private SourceContext sourceContext;
+    private String messageHandlerName;
+    private String protocolType;
+    private int maxBatchLength = DEFAULT_MAX_BATCH_LENGTH;
+    private ThreadPoolExecutor processExecutor;
+
+    /**
+     * get server factory
+     *
+     * @param sourceContext
+     * @param protocolType
+     */
+    public InlongHttpChannelPipelineFactory(SourceContext sourceContext, String protocolType) {
+        this.sourceContext = sourceContext;
+        this.protocolType = protocolType;
+    }
+
+    @Override
+    protected void initChannel(SocketChannel ch) {
+        if (sourceContext.getAllChannels().size() >= sourceContext.getMaxConnections()) {
+            LOG.warn("refuse to connect, and connections={}, maxConnections={}, channel is {}",
+                    sourceContext.getAllChannels().size(), sourceContext.getMaxConnections(), ch);
+            ch.close();
+            return;
+        }
+        sourceContext.getAllChannels().add(ch);
+        ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast("readTimeoutHandler",
+                new ReadTimeoutHandler(DEFAULT_READ_IDLE_TIME, TimeUnit.MILLISECONDS));
+        // HTTP/1.1, upgraded to HTTP/2 by the "Upgrade: h2c" header or the HTTP/2 preface
+        HttpServerCodec sourceCodec = new HttpServerCodec();
+        HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(sourceCodec,
+                protocol -> AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+                        ? new Http2ServerUpgradeCodec(Http2FrameCodecBuilder.forServer().build(),
+                                new Http2MultiplexHandler(new Http2StreamInitializer()))
+                        : null,
+                maxBatchLength);
+        pipeline.addLast("cleartextHandler",
+                new CleartextHttp2ServerUpgradeHandler(sourceCodec, upgradeHandler, new Http2PriorKnowledgeHandler()));
+        pipeline.addLast("http1Handler", new Http1Initializer());
+    }
+
+    /**
+     * addMessageHandlers, the handlers to process the aggregated requests
+     * 
+     * @param pipeline
+     * @param baseName the handler name after which the handlers are added, null to add last
+     */
+    private void addMessageHandlers(ChannelPipeline pipeline, String baseName) {
+        ChannelHandler[] handlers = new ChannelHandler[]{
+                new HttpObjectAggregator(maxBatchLength),
+                new FlowControlHandler(),
+                this.newMessageHandler()};
+        String[] names = new String[]{"aggregator", "flowControlHandler", "messageHandler"};
+        for (int i = 0; i < handlers.length; i++) {
+            if (baseName == null) {
+                pipeline.addLast(names[i], handlers[i]);
+            } else {
+                pipeline.addAfter(baseName, names[i], handlers[i]);
+                baseName = names[i];
+            }
+        }
+    }
+
+    private ChannelHandler newMessageHandler() {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends ChannelHandler> clazz = (Class<? extends ChannelHandler>) Class
+                    .forName(messageHandlerName);
+            Constructor<? extends ChannelHandler> ctor = clazz.getConstructor(SourceContext.class,
+                    java.util.concurrent.Executor.class, int.class);
+            return ctor.newInstance(sourceContext, processExecutor, maxBatchLength);
+        } catch (Exception e) {
+            throw new IllegalStateException("fail to create message handler:" + messageHandlerName
+                    + ", source:" + sourceContext.getSource().getName(), e);
+        }
+    }
+
+    @Override
+    public void configure(Context context) {
+        LOG.info("context is {}", context);
+        messageHandlerName = context.getString(ConfigConstants.MESSAGE_HANDLER_NAME,
+                InlongHttpChannelHandler.class.getName());
+        messageHandlerName = messageHandlerName.trim();
+        Preconditions.checkArgument(StringUtils.isNotBlank(messageHandlerName),
+                "messageHandlerName is empty");
+        maxBatchLength = context.getInteger(KEY_MAX_BATCH_LENGTH, DEFAULT_MAX_BATCH_LENGTH);
+        Preconditions.checkArgument(maxBatchLength > 0, "maxBatchLength must be > 0");
+        if (processExecutor == null) {
+            int processThreads = context.getInteger(KEY_PROCESS_THREADS, sourceContext.getMaxThreads());
+            int queueSize = context.getInteger(KEY_PROCESS_QUEUE_SIZE, DEFAULT_PROCESS_QUEUE_SIZE);
+            Preconditions.checkArgument(processThreads > 0, "processThreads must be > 0");
+            Preconditions.checkArgument(queueSize > 0, "processQueueSize must be > 0");
+            processExecutor = new ThreadPoolExecutor(processThreads, processThreads,
+                    0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                    new DefaultThreadFactory("httpSource-process-" + sourceContext.getSource().getName()));
+        }
+    }
+
+    /**
+     * close the process executor
+     */
+    @Override
+    public void close() {
+        if (processExecutor != null) {
+            processExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Http1Initializer, replaced by the message handlers when the first HTTP/1.1 request is not upgraded
+     */
+    private class Http1Initializer extends SimpleChannelInboundHandler<HttpMessage> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, HttpMessage msg) {
+            ChannelPipeline pipeline = ctx.pipeline();
+            addMessageHandlers(pipeline, ctx.name());
+            pipeline.remove(this);
+            ctx.fireChannelRead(ReferenceCountUtil.retain(msg));
+        }
+    }
+
+    /**
+     * Http2PriorKnowledgeHandler, installs the HTTP/2 codec when the client sends the HTTP/2 preface
+     */
+    private class Http2PriorKnowledgeHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            ChannelPipeline pipeline = ctx.pipeline();
+            pipeline.addAfter(ctx.name(), "http2MultiplexHandler",
+                    new Http2MultiplexHandler(new Http2StreamInitializer()));
+            pipeline.addAfter(ctx.name(), "http2FrameCodec", Http2FrameCodecBuilder.forServer().build());
+            pipeline.remove(this);
+        }
+    }
+
+    /**
+     * Http2StreamInitializer, converts the frames of a stream to HTTP/1.1 objects
+     */
+    private class Http2StreamInitializer extends ChannelInitializer<Channel> {
+
+        @Override
+        protected void initChannel(Channel ch) {
+            ch.pipeline().addLast("http2StreamCodec", new Http2StreamFrameToHttpObjectCodec(true));
+            addMessageHandlers(ch.pipeline(), null);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import org.apache.flume.Context;
+import org.apache.inlong.dataproxy.consts.ConfigConstants;
+import org.apache.inlong.dataproxy.source.tcp.InlongTcpSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import io.netty.channel.ChannelInitializer;
+
+/**
+ * Inlong http source, accepts batched bodies over HTTP/1.1 and cleartext HTTP/2
+ */
+public class InlongHttpSource extends InlongTcpSource {
+
+    private Closeable pipelineFactory = null;
+
+    /**
+     * Constructor
+     */
+    public InlongHttpSource() {
+        super();
+    }
+
+    /**
+     * stop
+     */
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (pipelineFactory != null) {
+            try {
+                pipelineFactory.close();
+            } catch (IOException e) {
+                LOG.error("fail to close pipeline factory of source:{}", getName(), e);
+            }
+            pipelineFactory = null;
+        }
+    }
+
+    /**
+     * configure
+     * 
+     * @param context
+     */
+    @Override
+    public void configure(Context context) {
+        super.configure(context);
+        if (!context.containsKey(ConfigConstants.MSG_FACTORY_NAME)) {
+            msgFactoryName = InlongHttpChannelPipelineFactory.class.getName();
+        }
+        if (!context.containsKey(ConfigConstants.MESSAGE_HANDLER_NAME)) {
+            messageHandlerName = InlongHttpChannelHandler.class.getName();
+        }
+    }
+
+    /**
+     * get ChannelInitializerFactory
+     *
+     * @return ChannelInitializer
+     */
+    @Override
+    public ChannelInitializer getChannelInitializerFactory() {
+        ChannelInitializer fac = super.getChannelInitializerFactory();
+        if (fac instanceof Closeable) {
+            this.pipelineFactory = (Closeable) fac;
+        }
+        return fac;
+    }
+
+    /**
+     * getProtocolName
+     * 
+     * @return
+     */
+    @Override
+    public String getProtocolName() {
+        return "http";
+    }
+}
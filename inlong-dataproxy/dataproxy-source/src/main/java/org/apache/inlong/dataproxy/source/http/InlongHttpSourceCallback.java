@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import org.apache.inlong.dataproxy.http.StatusCode;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.ResultCode;
+import org.apache.inlong.sdk.commons.protocol.SourceCallback;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpResponseStatus;
+
+/**
+ * InlongHttpSourceCallback, response the batch request when the events are saved by the sink.
+ */
+public class InlongHttpSourceCallback implements SourceCallback {
+
+    private final InlongHttpChannelHandler handler;
+    private final ChannelHandlerContext ctx;
+    private final boolean keepAlive;
+    private final AtomicBoolean hasResponsed = new AtomicBoolean(false);
+    private volatile Future<?> timeoutFuture;
+
+    /**
+     * Constructor
+     * @param handler
+     * @param ctx
+     * @param keepAlive
+     */
+    public InlongHttpSourceCallback(InlongHttpChannelHandler handler, ChannelHandlerContext ctx, boolean keepAlive) {
+        this.handler = handler;
+        this.ctx = ctx;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * callback
+     * @param resultCode
+     */
+    @Override
+    public void callback(ResultCode resultCode) {
+        // the timeout response may have been sent
+        if (this.hasResponsed.getAndSet(true)) {
+            return;
+        }
+        Future<?> timeout = this.timeoutFuture;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        if (resultCode == ResultCode.SUCCUSS) {
+            handler.response(ctx, keepAlive, HttpResponseStatus.OK, StatusCode.SUCCESS, "success");
+        } else {
+            handler.response(ctx, keepAlive, HttpResponseStatus.SERVICE_UNAVAILABLE, StatusCode.SERVICE_ERR,
+                    "Service error! result:" + resultCode);
+        }
+    }
+
+    /**
+     * set the timeout task, which is cancelled when the response is sent
+     * @param timeoutFuture
+     */
+    public void setTimeoutFuture(Future<?> timeoutFuture) {
+        this.timeoutFuture = timeoutFuture;
+        // the events may have been saved before the timeout task is set
+        if (this.hasResponsed.get()) {
+            timeoutFuture.cancel(false);
+        }
+    }
+
+    /**
+     * get hasResponsed
+     * @return the hasResponsed
+     */
+    public AtomicBoolean getHasResponsed() {
+        return hasResponsed;
+    }
+}
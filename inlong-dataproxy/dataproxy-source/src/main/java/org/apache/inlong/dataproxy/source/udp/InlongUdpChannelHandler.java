@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.flume.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * InlongUdpChannelHandler
+ * <p/>
+ * The handler of one bound udp channel, each datagram is decoded on the event loop and handed to
+ * the dispatcher, the buffer of the datagram is released right after decoding, so a batch of
+ * datagrams read by one system call does not stay pinned in the queue.
+ */
+public class InlongUdpChannelHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InlongUdpChannelHandler.class);
+
+    private final UdpMessageDecoder decoder;
+    private final UdpEventDispatcher dispatcher;
+    private final UdpSourceMetricItem metricItem;
+
+    /**
+     * Constructor
+     *
+     * @param decoder the decoder of this channel
+     * @param dispatcher the dispatcher shared by the channels of the source
+     * @param metricItem the udp metrics of the source
+     */
+    public InlongUdpChannelHandler(UdpMessageDecoder decoder, UdpEventDispatcher dispatcher,
+            UdpSourceMetricItem metricItem) {
+        this.decoder = decoder;
+        this.dispatcher = dispatcher;
+        this.metricItem = metricItem;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof DatagramPacket)) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        DatagramPacket packet = (DatagramPacket) msg;
+        try {
+            ByteBuf content = packet.content();
+            metricItem.receivedCount.incrementAndGet();
+            metricItem.receivedSize.addAndGet(content.readableBytes());
+            Event event = decoder.decode(content, packet.sender());
+            if (event != null) {
+                dispatcher.offer(event);
+            }
+        } catch (Throwable t) {
+            metricItem.invalidCount.incrementAndGet();
+            LOG.warn("fail to decode the datagram from {}", packet.sender(), t);
+        } finally {
+            packet.release();
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        // the bound channel serves all the senders, it is kept open
+        LOG.error("exception caught on udp channel {}", ctx.channel(), cause);
+    }
+}
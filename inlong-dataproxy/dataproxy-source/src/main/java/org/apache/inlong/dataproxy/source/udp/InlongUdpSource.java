@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import com.google.common.base.Preconditions;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.net.InetSocketAddress;
+import org.apache.flume.Context;
+import org.apache.flume.EventDrivenSource;
+import org.apache.flume.FlumeException;
+import org.apache.flume.conf.Configurable;
+import org.apache.inlong.common.metric.MetricRegister;
+import org.apache.inlong.dataproxy.config.holder.CommonPropertiesHolder;
+import org.apache.inlong.dataproxy.metrics.DataProxyMetricItemSet;
+import org.apache.inlong.dataproxy.source.BaseSource;
+import org.apache.inlong.dataproxy.utils.EventLoopUtil;
+import org.apache.inlong.dataproxy.utils.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inlong udp source
+ * <p/>
+ * Different from SimpleUdpSource, several datagram channels are bound to the same port with
+ * SO_REUSEPORT when the epoll transport is available, so the kernel spreads the senders over the
+ * event loops, and each read takes a batch of datagrams (with recvmmsg on epoll). The datagrams
+ * are decoded on the event loops by {@link UdpMessageDecoder}, and put into the channel in batches
+ * by the process threads of {@link UdpEventDispatcher}.
+ * <p/>
+ * Without epoll only one channel can be bound, the other settings still apply.
+ */
+public class InlongUdpSource extends BaseSource implements EventDrivenSource, Configurable {
+
+    public static final Logger LOG = LoggerFactory.getLogger(InlongUdpSource.class);
+
+    public static final String KEY_UDP_WORKERS = "udpWorkers";
+    public static final String KEY_MAX_MESSAGES_PER_READ = "maxMessagesPerRead";
+    public static final String KEY_MAX_DATAGRAM_SIZE = "maxDatagramSize";
+    public static final String KEY_DATAGRAMS_PER_SYSCALL = "datagramsPerSyscall";
+    public static final String KEY_PROCESS_THREADS = "processThreads";
+    public static final String KEY_PROCESS_QUEUE_SIZE = "processQueueSize";
+    public static final String KEY_PROCESS_BATCH_SIZE = "processBatchSize";
+
+    public static final int DEFAULT_MAX_MESSAGES_PER_READ = 64;
+    // the max payload of an ipv4 datagram
+    public static final int MAX_DATAGRAM_SIZE = 65507;
+    public static final int DEFAULT_DATAGRAMS_PER_SYSCALL = 8;
+    public static final int DEFAULT_PROCESS_THREADS = 4;
+    public static final int DEFAULT_PROCESS_QUEUE_SIZE = 100000;
+    public static final int DEFAULT_PROCESS_BATCH_SIZE = 100;
+
+    private int udpWorkers;
+    private int maxMessagesPerRead;
+    private int maxDatagramSize;
+    private int datagramsPerSyscall;
+    private int processThreads;
+    private int processQueueSize;
+    private int processBatchSize;
+
+    private DataProxyMetricItemSet metricItemSet;
+    private UdpSourceMetricItem udpMetricItem;
+    private UdpEventDispatcher dispatcher;
+
+    /**
+     * Constructor
+     */
+    public InlongUdpSource() {
+        super();
+    }
+
+    @Override
+    public void configure(Context context) {
+        super.configure(context);
+        udpWorkers = context.getInteger(KEY_UDP_WORKERS, Runtime.getRuntime().availableProcessors());
+        maxMessagesPerRead = context.getInteger(KEY_MAX_MESSAGES_PER_READ, DEFAULT_MAX_MESSAGES_PER_READ);
+        maxDatagramSize = context.getInteger(KEY_MAX_DATAGRAM_SIZE, Math.min(maxMsgLength, MAX_DATAGRAM_SIZE));
+        datagramsPerSyscall = context.getInteger(KEY_DATAGRAMS_PER_SYSCALL, DEFAULT_DATAGRAMS_PER_SYSCALL);
+        processThreads = context.getInteger(KEY_PROCESS_THREADS, DEFAULT_PROCESS_THREADS);
+        processQueueSize = context.getInteger(KEY_PROCESS_QUEUE_SIZE, DEFAULT_PROCESS_QUEUE_SIZE);
+        processBatchSize = context.getInteger(KEY_PROCESS_BATCH_SIZE, DEFAULT_PROCESS_BATCH_SIZE);
+        Preconditions.checkArgument(udpWorkers > 0, "udpWorkers must be > 0");
+        Preconditions.checkArgument(maxMessagesPerRead > 0, "maxMessagesPerRead must be > 0");
+        Preconditions.checkArgument(maxDatagramSize > 0 && maxDatagramSize <= MAX_DATAGRAM_SIZE,
+                "maxDatagramSize must be > 0 and <= " + MAX_DATAGRAM_SIZE);
+        Preconditions.checkArgument(datagramsPerSyscall > 0, "datagramsPerSyscall must be > 0");
+        Preconditions.checkArgument(processThreads > 0, "processThreads must be > 0");
+        Preconditions.checkArgument(processQueueSize > 0, "processQueueSize must be > 0");
+        Preconditions.checkArgument(processBatchSize > 0, "processBatchSize must be > 0");
+    }
+
+    @Override
+    public synchronized void startSource() {
+        this.metricItemSet = new DataProxyMetricItemSet(this.getName());
+        MetricRegister.register(metricItemSet);
+        this.udpMetricItem = new UdpSourceMetricItem();
+        udpMetricItem.clusterId = CommonPropertiesHolder.getString(CommonPropertiesHolder.KEY_PROXY_CLUSTER_NAME);
+        udpMetricItem.sourceId = this.getName();
+        MetricRegister.register(udpMetricItem);
+
+        this.dispatcher = new UdpEventDispatcher(this.getName(), getChannelProcessor(), processQueueSize,
+                processBatchSize, processThreads, udpMetricItem, metricItemSet);
+        dispatcher.start();
+
+        boolean reusePort = Epoll.isAvailable();
+        int channelCount = reusePort ? udpWorkers : 1;
+        LOG.info("Set udp workers : {}, reusePort : {}", channelCount, reusePort);
+        this.workerGroup = EventLoopUtil.newEventLoopGroup(channelCount, enableBusyWait,
+                new DefaultThreadFactory("udpSource-nettyWorker-threadGroup"));
+
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(workerGroup);
+        bootstrap.channel(EventLoopUtil.getDatagramChannelClass(workerGroup));
+        bootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        bootstrap.option(ChannelOption.SO_SNDBUF, sendBufferSize);
+        bootstrap.option(ChannelOption.MAX_MESSAGES_PER_READ, maxMessagesPerRead);
+        if (reusePort) {
+            // a buffer of several payloads makes the epoll channel read them with one recvmmsg
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            bootstrap.option(EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE, maxDatagramSize);
+            bootstrap.option(ChannelOption.RCVBUF_ALLOCATOR,
+                    new FixedRecvByteBufAllocator(maxDatagramSize * datagramsPerSyscall));
+        } else {
+            bootstrap.option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(maxDatagramSize));
+        }
+        final String localIp = NetworkUtils.getLocalIp();
+        bootstrap.handler(new ChannelInitializer<DatagramChannel>() {
+
+            @Override
+            protected void initChannel(DatagramChannel ch) {
+                UdpMessageDecoder decoder = new UdpMessageDecoder(topic, isCompressed, localIp, udpMetricItem);
+                ch.pipeline().addLast("messageHandler",
+                        new InlongUdpChannelHandler(decoder, dispatcher, udpMetricItem));
+            }
+        });
+
+        InetSocketAddress address = (host == null) ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+        try {
+            for (int i = 0; i < channelCount; i++) {
+                ChannelFuture future = bootstrap.bind(address).sync();
+                allChannels.add(future.channel());
+                channelFuture = future;
+            }
+        } catch (Exception e) {
+            LOG.error("Inlong UDP Source error bind host {} port {}", host, port, e);
+            stop();
+            throw new FlumeException(e.getMessage(), e);
+        }
+        LOG.info("Inlong UDP Source started at host {}, port {}, channels {}", host, port, channelCount);
+    }
+
+    @Override
+    public synchronized void stop() {
+        // stop reading first, then drain the queued events into the channel
+        if (!allChannels.isEmpty()) {
+            allChannels.close().awaitUninterruptibly();
+        }
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        super.stop();
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully();
+        }
+        if (udpMetricItem != null) {
+            MetricRegister.unregister(udpMetricItem);
+        }
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "udp";
+    }
+}
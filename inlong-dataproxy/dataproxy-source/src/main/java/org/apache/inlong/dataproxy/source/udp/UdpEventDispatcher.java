@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.flume.Event;
+import org.apache.flume.channel.ChannelProcessor;
+import org.apache.inlong.dataproxy.metrics.DataProxyMetricItem;
+import org.apache.inlong.dataproxy.metrics.DataProxyMetricItemSet;
+import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * UdpEventDispatcher
+ * <p/>
+ * The bounded queue between the udp workers and the channel. The workers never block on the channel,
+ * an event is dropped and counted when the queue is full, so the overload shows in the metrics
+ * instead of in the kernel drops of the socket. The process threads drain the queue in batches and
+ * put each batch into the channel with one transaction.
+ */
+public class UdpEventDispatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UdpEventDispatcher.class);
+    private static final long POLL_TIMEOUT_MS = 100L;
+    private static final long CLOSE_TIMEOUT_MS = 30000L;
+
+    private final String sourceName;
+    private final ChannelProcessor processor;
+    private final BlockingQueue<Event> queue;
+    private final int batchSize;
+    private final int processThreads;
+    private final UdpSourceMetricItem metricItem;
+    private final DataProxyMetricItemSet metricItemSet;
+    private ExecutorService executor;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     *
+     * @param sourceName the name of the source
+     * @param processor the channel processor of the source
+     * @param queueSize the capacity of the queue
+     * @param batchSize the max count of events put into the channel at once
+     * @param processThreads the count of the process threads
+     * @param metricItem the udp metrics of the source
+     * @param metricItemSet the read metrics of the source
+     */
+    public UdpEventDispatcher(String sourceName, ChannelProcessor processor, int queueSize, int batchSize,
+            int processThreads, UdpSourceMetricItem metricItem, DataProxyMetricItemSet metricItemSet) {
+        this.sourceName = sourceName;
+        this.processor = processor;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.processThreads = processThreads;
+        this.metricItem = metricItem;
+        this.metricItemSet = metricItemSet;
+        this.metricItem.queueCapacity.set(queueSize);
+    }
+
+    /**
+     * start the process threads
+     */
+    public void start() {
+        running = true;
+        executor = Executors.newFixedThreadPool(processThreads,
+                new DefaultThreadFactory("udpSource-process-" + sourceName));
+        for (int i = 0; i < processThreads; i++) {
+            executor.execute(this::processLoop);
+        }
+    }
+
+    /**
+     * offer an event, without blocking the caller
+     *
+     * @return false if the queue is full and the event is dropped
+     */
+    public boolean offer(Event event) {
+        if (running && queue.offer(event)) {
+            metricItem.queueSize.incrementAndGet();
+            return true;
+        }
+        metricItem.queueFullDropCount.incrementAndGet();
+        this.addMetric(false, event.getBody().length, event);
+        return false;
+    }
+
+    /**
+     * stop accepting events, and wait the queued events to be put into the channel
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("udp source {} is closed with {} events left", sourceName, queue.size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                metricItem.queueSize.addAndGet(-batch.size());
+                this.process(batch);
+            } catch (InterruptedException e) {
+                LOG.warn("udp source {} process thread is interrupted", sourceName);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Event> batch) {
+        metricItem.processBatchCount.incrementAndGet();
+        try {
+            processor.processEventBatch(batch);
+            metricItem.processSuccessCount.addAndGet(batch.size());
+            for (Event event : batch) {
+                this.addMetric(true, event.getBody().length, event);
+            }
+        } catch (Throwable t) {
+            // the batch is dropped like the datagrams, udp has no way to ask the sender to resend
+            LOG.error("Error writing to channel, {} events of udp source {} will discard.",
+                    batch.size(), sourceName, t);
+            metricItem.processFailCount.addAndGet(batch.size());
+            for (Event event : batch) {
+                this.addMetric(false, event.getBody().length, event);
+            }
+        }
+    }
+
+    private void addMetric(boolean result, long size, Event event) {
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, "DataProxy");
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, sourceName);
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceName);
+        DataProxyMetricItem.fillInlongId(event, dimensions);
+        DataProxyMetricItem.fillAuditFormatTime(event, dimensions);
+        DataProxyMetricItem item = this.metricItemSet.findMetricItem(dimensions);
+        if (result) {
+            item.readSuccessCount.incrementAndGet();
+            item.readSuccessSize.addAndGet(size);
+            try {
+                AuditUtils.add(AuditUtils.AUDIT_ID_DATAPROXY_READ_SUCCESS, event);
+            } catch (Exception e) {
+                LOG.error("add metric has exception e= {}", e);
+            }
+        } else {
+            item.readFailCount.incrementAndGet();
+            item.readFailSize.addAndGet(size);
+        }
+    }
+}
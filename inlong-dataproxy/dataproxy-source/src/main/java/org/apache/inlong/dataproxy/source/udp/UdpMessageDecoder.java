@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import static org.apache.inlong.dataproxy.consts.AttributeConstants.SEPARATOR;
+import static org.apache.inlong.dataproxy.consts.ConfigConstants.SLA_METRIC_DATA;
+import static org.apache.inlong.dataproxy.consts.ConfigConstants.SLA_METRIC_GROUPID;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flume.Event;
+import org.apache.flume.event.EventBuilder;
+import org.apache.inlong.common.msg.InLongMsgBuilder;
+import org.apache.inlong.dataproxy.config.ConfigManager;
+import org.apache.inlong.dataproxy.consts.AttributeConstants;
+import org.apache.inlong.dataproxy.consts.ConfigConstants;
+import org.apache.inlong.dataproxy.source.MsgType;
+import org.apache.inlong.dataproxy.utils.MessageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Splitter;
+
+/**
+ * UdpMessageDecoder
+ * <p/>
+ * A decoder specialized for the datagrams of the udp source, which carry one binary message
+ * (type 7) or one binary heartbeat (type 8) each. A binary message is validated and turned into
+ * one event in a single pass, the event is the same as the one built by ServerMessageHandler for
+ * the message type 7 over tcp, without the generic result maps of DefaultServiceDecoder.
+ * <p/>
+ * The file and minute check messages are not handled over udp. A decoder is used by one netty
+ * channel only, so it is not thread-safe.
+ */
+public class UdpMessageDecoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UdpMessageDecoder.class);
+
+    private static final int BIN_MSG_TOTALLEN_OFFSET = 0;
+    private static final int BIN_MSG_TOTALLEN_SIZE = 4;
+    private static final int BIN_MSG_MSGTYPE_OFFSET = 4;
+    private static final int BIN_MSG_GROUPIDNUM_OFFSET = 5;
+    private static final int BIN_MSG_STREAMIDNUM_OFFSET = 7;
+    private static final int BIN_MSG_EXTEND_OFFSET = 9;
+    private static final int BIN_MSG_DT_OFFSET = 11;
+    private static final int BIN_MSG_CNT_OFFSET = 15;
+    private static final int BIN_MSG_UNIQ_OFFSET = 17;
+    private static final int BIN_MSG_BODYLEN_OFFSET = 21;
+    private static final int BIN_MSG_BODY_OFFSET = 25;
+    private static final int BIN_MSG_ATTRLEN_SIZE = 2;
+    private static final int BIN_MSG_FORMAT_SIZE = 29;
+    private static final int BIN_MSG_MAGIC_SIZE = 2;
+    private static final int BIN_MSG_MAGIC = 0xEE01;
+    private static final int MAX_ATTR_LENGTH = 0xFFFF;
+
+    private static final int EXTEND_TRACE = 0x2;
+    private static final int EXTEND_NAMED_ID = 0x4;
+    private static final int EXTEND_FILE_CHECK = 0x8;
+    private static final int EXTEND_MINUTE_CHECK = 0x10;
+
+    private static final String DEFAULT_REMOTE_IDC_VALUE = "0";
+
+    private static final Splitter.MapSplitter mapSplitter = Splitter
+            .on(AttributeConstants.SEPARATOR)
+            .trimResults().withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
+
+    private final ConfigManager configManager = ConfigManager.getInstance();
+    private final String defaultTopic;
+    private final boolean isCompressed;
+    private final String localIp;
+    private final UdpSourceMetricItem metricItem;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmm");
+    // the uncompressed messages are compressed by the builder when the source is compressed
+    private final InLongMsgBuilder msgBuilder;
+
+    /**
+     * Constructor
+     *
+     * @param defaultTopic the topic of the messages without a configured topic
+     * @param isCompressed whether the InLongMsg is compressed
+     * @param localIp the ip of this node, for the trace attributes
+     * @param metricItem the metrics of the source
+     */
+    public UdpMessageDecoder(String defaultTopic, boolean isCompressed, String localIp,
+            UdpSourceMetricItem metricItem) {
+        this.defaultTopic = defaultTopic;
+        this.isCompressed = isCompressed;
+        this.localIp = localIp;
+        this.metricItem = metricItem;
+        this.msgBuilder = new InLongMsgBuilder(isCompressed, 4);
+    }
+
+    /**
+     * decode a datagram
+     *
+     * @param buf the content of the datagram, which is not released by the decoder
+     * @param sender the sender of the datagram
+     * @return the event, or null if the datagram is dropped, the reason is counted in the metrics
+     */
+    public Event decode(ByteBuf buf, InetSocketAddress sender) {
+        int base = buf.readerIndex();
+        int readable = buf.readableBytes();
+        if (readable < BIN_MSG_TOTALLEN_SIZE + 1) {
+            return invalid("datagram is too short", readable, sender);
+        }
+        int msgLen = buf.getInt(base + BIN_MSG_TOTALLEN_OFFSET) + BIN_MSG_TOTALLEN_SIZE;
+        if (msgLen <= BIN_MSG_TOTALLEN_SIZE || msgLen > readable) {
+            return invalid("total length does not match the datagram", readable, sender);
+        }
+        MsgType msgType = MsgType.valueOf(buf.getByte(base + BIN_MSG_MSGTYPE_OFFSET));
+        if (MsgType.MSG_BIN_HEARTBEAT.equals(msgType) || MsgType.MSG_HEARTBEAT.equals(msgType)) {
+            metricItem.heartbeatCount.incrementAndGet();
+            return null;
+        }
+        if (!MsgType.MSG_BIN_MULTI_BODY.equals(msgType)) {
+            metricItem.unsupportedCount.incrementAndGet();
+            LOG.debug("unsupported message type {} from {}", msgType, sender);
+            return null;
+        }
+
+        // check the layout, header + body + attrLen + attr + magic
+        if (msgLen < BIN_MSG_FORMAT_SIZE) {
+            return invalid("binary message is too short", readable, sender);
+        }
+        int bodyLen = buf.getInt(base + BIN_MSG_BODYLEN_OFFSET);
+        if (bodyLen <= 0 || bodyLen > msgLen - BIN_MSG_FORMAT_SIZE) {
+            return invalid("bodyLen is invalid", readable, sender);
+        }
+        int attrPos = BIN_MSG_BODY_OFFSET + bodyLen;
+        int attrLen = buf.getUnsignedShort(base + attrPos);
+        if (bodyLen + attrLen + BIN_MSG_FORMAT_SIZE != msgLen
+                || buf.getUnsignedShort(base + msgLen - BIN_MSG_MAGIC_SIZE) != BIN_MSG_MAGIC) {
+            return invalid("attrLen or magic is invalid", readable, sender);
+        }
+        int extendField = buf.getUnsignedShort(base + BIN_MSG_EXTEND_OFFSET);
+        if ((extendField & (EXTEND_FILE_CHECK | EXTEND_MINUTE_CHECK)) != 0) {
+            metricItem.unsupportedCount.incrementAndGet();
+            LOG.debug("unsupported check message from {}, extendField {}", sender, extendField);
+            return null;
+        }
+
+        Map<String, String> attrs = Collections.emptyMap();
+        if (attrLen != 0) {
+            String strAttr = buf.toString(base + attrPos + BIN_MSG_ATTRLEN_SIZE, attrLen, StandardCharsets.UTF_8);
+            try {
+                attrs = mapSplitter.split(strAttr);
+            } catch (IllegalArgumentException e) {
+                return invalid("attr can not be parsed", readable, sender);
+            }
+        }
+
+        // resolve the group and the stream, by name or by the number mapping
+        String groupId = attrs.get(AttributeConstants.GROUP_ID);
+        String streamId = attrs.get(AttributeConstants.STREAM_ID);
+        boolean namedId = false;
+        StringBuilder extraAttr = new StringBuilder();
+        if (groupId != null && streamId != null) {
+            namedId = true;
+            if ("dc".equals(attrs.get(AttributeConstants.FROM))) {
+                String dcGroupId = configManager.getDcMappingProperties().get(streamId.trim());
+                if (dcGroupId != null) {
+                    groupId = dcGroupId.trim();
+                }
+            }
+        } else {
+            int groupIdNum = buf.getUnsignedShort(base + BIN_MSG_GROUPIDNUM_OFFSET);
+            int streamIdNum = buf.getUnsignedShort(base + BIN_MSG_STREAMIDNUM_OFFSET);
+            boolean hasNumId = (extendField & EXTEND_NAMED_ID) == 0 && groupIdNum != 0 && streamIdNum != 0;
+            if (hasNumId && configManager.getGroupIdMappingProperties() != null
+                    && configManager.getStreamIdMappingProperties() != null) {
+                String strGroupIdNum = String.valueOf(groupIdNum);
+                Map<String, String> streamIdMapping =
+                        configManager.getStreamIdMappingProperties().get(strGroupIdNum);
+                String mappedGroupId = configManager.getGroupIdMappingProperties().get(strGroupIdNum);
+                String mappedStreamId = (streamIdMapping == null)
+                        ? null : streamIdMapping.get(String.valueOf(streamIdNum));
+                if (mappedGroupId != null && mappedStreamId != null) {
+                    groupId = mappedGroupId;
+                    streamId = mappedStreamId;
+                    Map<String, String> enableMapping = configManager.getGroupIdEnableMappingProperties();
+                    if (enableMapping != null && "TRUE".equalsIgnoreCase(enableMapping.get(strGroupIdNum))) {
+                        namedId = true;
+                        extraAttr.append(AttributeConstants.GROUP_ID).append('=').append(groupId)
+                                .append('&').append(AttributeConstants.STREAM_ID).append('=').append(streamId);
+                    }
+                }
+            }
+        }
+        if ((extendField & EXTEND_TRACE) != 0) {
+            if (extraAttr.length() > 0) {
+                extraAttr.append('&');
+            }
+            extraAttr.append("node2ip=").append(localIp).append("&rtime2=").append(System.currentTimeMillis());
+        }
+
+        String topic = MessageUtils.getTopic(configManager.getTopicProperties(), groupId, streamId);
+        if (StringUtils.isEmpty(topic)) {
+            topic = defaultTopic;
+        } else {
+            topic = topic.trim();
+        }
+        if (SLA_METRIC_GROUPID.equals(groupId)) {
+            topic = SLA_METRIC_DATA;
+        }
+        if (groupId != null && streamId != null) {
+            String switchValue = configManager.getTubeSwitchProperties().get(groupId + SEPARATOR + streamId);
+            if (switchValue != null && "false".equals(switchValue.trim())) {
+                metricItem.filteredCount.incrementAndGet();
+                return null;
+            }
+        }
+        if (StringUtils.isEmpty(topic)) {
+            LOG.warn("Topic for message is null , inlongGroupId = {}, inlongStreamId = {}", groupId, streamId);
+        }
+
+        // copy the binary message once, with the extra attributes and the extend flag
+        byte[] binMsg = copyBinMsg(buf, base, msgLen, attrPos, attrLen, extraAttr);
+        if (binMsg == null) {
+            return invalid("attr is too long with the extra attributes", readable, sender);
+        }
+        if (namedId) {
+            int extend = (extendField | EXTEND_NAMED_ID);
+            binMsg[BIN_MSG_EXTEND_OFFSET] = (byte) (extend >> 8);
+            binMsg[BIN_MSG_EXTEND_OFFSET + 1] = (byte) extend;
+        }
+        byte[] data = InLongMsgBuilder.wrapBinMsg(binMsg, isCompressed);
+        if (data == null) {
+            msgBuilder.reset();
+            try {
+                if (!msgBuilder.addMsg(binMsg)) {
+                    return invalid("binary message is rejected by the builder", readable, sender);
+                }
+                data = msgBuilder.buildArray();
+            } catch (IOException e) {
+                LOG.error("fail to compress the message from {}", sender, e);
+                return invalid("binary message can not be compressed", readable, sender);
+            } finally {
+                // give the buffers back to the pool, the builder may be idle for a long time
+                msgBuilder.reset();
+            }
+        }
+
+        // the headers, the same as ServerMessageHandler
+        long uniq = buf.getUnsignedInt(base + BIN_MSG_UNIQ_OFFSET);
+        long dataTime = buf.getUnsignedInt(base + BIN_MSG_DT_OFFSET) * 1000;
+        int msgCount = buf.getUnsignedShort(base + BIN_MSG_CNT_OFFSET);
+        if (streamId == null) {
+            streamId = "";
+        }
+        String pkgTime = attrs.get(ConfigConstants.PKG_TIME_KEY);
+        Map<String, String> headers = new HashMap<>();
+        headers.put(AttributeConstants.DATA_TIME, String.valueOf(dataTime));
+        if ("false".equals(attrs.get(AttributeConstants.MESSAGE_IS_ACK))) {
+            headers.put(AttributeConstants.MESSAGE_IS_ACK, "false");
+        }
+        String partitionKey = attrs.get(AttributeConstants.MESSAGE_PARTITION_KEY);
+        if (StringUtils.isNotEmpty(partitionKey)) {
+            headers.put(AttributeConstants.MESSAGE_PARTITION_KEY, partitionKey);
+        }
+        headers.put(ConfigConstants.TOPIC_KEY, topic);
+        headers.put(AttributeConstants.GROUP_ID, groupId);
+        headers.put(AttributeConstants.STREAM_ID, streamId);
+        headers.put(ConfigConstants.REMOTE_IP_KEY, sender.getAddress().getHostAddress());
+        headers.put(ConfigConstants.REMOTE_IDC_KEY, DEFAULT_REMOTE_IDC_VALUE);
+        headers.put(ConfigConstants.MSG_COUNTER_KEY, String.valueOf(msgCount != 0 ? msgCount : 1));
+        headers.put(ConfigConstants.TOTAL_LEN, String.valueOf(data.length));
+        headers.put(AttributeConstants.UNIQ_ID, String.valueOf(uniq));
+        headers.put(ConfigConstants.SEQUENCE_ID, topic + SEPARATOR + streamId + SEPARATOR
+                + sender + "#" + (pkgTime != null ? pkgTime : String.valueOf(dataTime)) + "#" + uniq);
+        headers.put(ConfigConstants.PKG_TIME_KEY,
+                pkgTime != null ? pkgTime : dateFormat.format(System.currentTimeMillis()));
+        return EventBuilder.withBody(data, headers);
+    }
+
+    private byte[] copyBinMsg(ByteBuf buf, int base, int msgLen, int attrPos, int attrLen,
+            CharSequence extraAttr) {
+        if (extraAttr.length() == 0) {
+            byte[] binMsg = new byte[msgLen];
+            buf.getBytes(base, binMsg);
+            return binMsg;
+        }
+        byte[] extra = extraAttr.toString().getBytes(StandardCharsets.UTF_8);
+        int sepLen = (attrLen != 0) ? 1 : 0;
+        int newAttrLen = attrLen + sepLen + extra.length;
+        if (newAttrLen > MAX_ATTR_LENGTH) {
+            return null;
+        }
+        int newMsgLen = msgLen + sepLen + extra.length;
+        byte[] binMsg = new byte[newMsgLen];
+        int pos = attrPos + BIN_MSG_ATTRLEN_SIZE + attrLen;
+        buf.getBytes(base, binMsg, 0, pos);
+        if (sepLen != 0) {
+            binMsg[pos++] = '&';
+        }
+        System.arraycopy(extra, 0, binMsg, pos, extra.length);
+        pos += extra.length;
+        putShort(binMsg, attrPos, newAttrLen);
+        putShort(binMsg, pos, BIN_MSG_MAGIC);
+        int totalLen = newMsgLen - BIN_MSG_TOTALLEN_SIZE;
+        binMsg[BIN_MSG_TOTALLEN_OFFSET] = (byte) (totalLen >>> 24);
+        binMsg[BIN_MSG_TOTALLEN_OFFSET + 1] = (byte) (totalLen >>> 16);
+        binMsg[BIN_MSG_TOTALLEN_OFFSET + 2] = (byte) (totalLen >>> 8);
+        binMsg[BIN_MSG_TOTALLEN_OFFSET + 3] = (byte) totalLen;
+        return binMsg;
+    }
+
+    private static void putShort(byte[] array, int offset, int value) {
+        array[offset] = (byte) (value >>> 8);
+        array[offset + 1] = (byte) value;
+    }
+
+    private Event invalid(String reason, int length, InetSocketAddress sender) {
+        metricItem.invalidCount.incrementAndGet();
+        LOG.debug("drop invalid datagram from {}, length {}: {}", sender, length, reason);
+        return null;
+    }
+}
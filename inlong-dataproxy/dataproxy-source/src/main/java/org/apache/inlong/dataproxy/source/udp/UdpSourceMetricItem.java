@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import org.apache.inlong.common.metric.CountMetric;
+import org.apache.inlong.common.metric.Dimension;
+import org.apache.inlong.common.metric.GaugeMetric;
+import org.apache.inlong.common.metric.MetricDomain;
+import org.apache.inlong.common.metric.MetricItem;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UdpSourceMetricItem
+ * <p/>
+ * The capacity metrics of a udp source: what the workers read, why datagrams were dropped before
+ * reaching the channel, and how full the queue between the workers and the process threads is.
+ */
+@MetricDomain(name = "DataProxyUdpSource")
+public class UdpSourceMetricItem extends MetricItem {
+
+    @Dimension
+    public String clusterId;
+    @Dimension
+    public String sourceId;
+    @CountMetric
+    public AtomicLong receivedCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong receivedSize = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong heartbeatCount = new AtomicLong(0);
+    @CountMetric
+    // malformed datagrams
+    public AtomicLong invalidCount = new AtomicLong(0);
+    @CountMetric
+    // message types or flags which are not handled by the udp source
+    public AtomicLong unsupportedCount = new AtomicLong(0);
+    @CountMetric
+    // messages of the streams switched off
+    public AtomicLong filteredCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong queueFullDropCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong processSuccessCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong processFailCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong processBatchCount = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong queueSize = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong queueCapacity = new AtomicLong(0);
+}
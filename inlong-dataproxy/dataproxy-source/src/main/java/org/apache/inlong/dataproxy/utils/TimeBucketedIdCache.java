@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * TimeBucketedIdCache
+ * <p/>
+ * A set of recently seen ids, an id expires after it has not been accessed for the expire time.
+ * The ids are spread over independently locked shards, and each shard keeps a ring of time
+ * buckets, an id is appended to the bucket of its last access and is dropped when that bucket
+ * is recycled, so the expiration is amortized into the accesses without any cleaner thread.
+ */
+public class TimeBucketedIdCache {
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long bucketMillis;
+    private final int bucketCount;
+
+    /**
+     * Constructor
+     *
+     * @param shardCount the count of shards, rounded up to a power of 2
+     * @param expireMillis the time an id is kept after its last access
+     * @param bucketCount the count of buckets the expire time is divided into
+     */
+    public TimeBucketedIdCache(int shardCount, long expireMillis, int bucketCount) {
+        if (shardCount <= 0 || expireMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("shardCount, expireMillis and bucketCount should be positive");
+        }
+        int size = 1;
+        while (size < shardCount) {
+            size <<= 1;
+        }
+        this.shardMask = size - 1;
+        this.bucketMillis = Math.max(1L, expireMillis / bucketCount);
+        // one more bucket, so an id lives at least the expire time
+        this.bucketCount = bucketCount + 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(this.bucketCount);
+        }
+    }
+
+    /**
+     * check whether the id exists, the id is added or refreshed either way
+     *
+     * @return true if the id existed
+     */
+    public boolean checkAndPut(String id) {
+        return checkAndPut(id, System.currentTimeMillis());
+    }
+
+    public boolean checkAndPut(String id, long currentTimeMillis) {
+        Shard shard = shardOf(id);
+        synchronized (shard) {
+            // the clock going back is taken as the current slot
+            long slot = shard.advance(currentTimeMillis / bucketMillis);
+            Long lastSlot = shard.slots.put(id, slot);
+            if (lastSlot == null || lastSlot != slot) {
+                shard.buckets[(int) (slot % bucketCount)].add(id);
+            }
+            return lastSlot != null;
+        }
+    }
+
+    /**
+     * invalidate
+     */
+    public void invalidate(String id) {
+        Shard shard = shardOf(id);
+        synchronized (shard) {
+            // the id left in its bucket is skipped when the bucket is recycled
+            shard.slots.remove(id);
+        }
+    }
+
+    /**
+     * size
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.slots.size();
+            }
+        }
+        return size;
+    }
+
+    private Shard shardOf(String id) {
+        int h = id.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask];
+    }
+
+    /**
+     * Shard
+     */
+    private static class Shard {
+
+        // the slot of the last access of each id
+        private final HashMap<String, Long> slots = new HashMap<>();
+        private final List<String>[] buckets;
+        private long currentSlot = -1;
+
+        @SuppressWarnings("unchecked")
+        Shard(int bucketCount) {
+            this.buckets = new List[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+        }
+
+        /**
+         * recycle the buckets between the current slot and the new slot
+         *
+         * @return the current slot
+         */
+        long advance(long slot) {
+            if (slot <= currentSlot) {
+                return currentSlot;
+            }
+            if (currentSlot < 0 || slot - currentSlot >= buckets.length) {
+                slots.clear();
+                for (List<String> bucket : buckets) {
+                    bucket.clear();
+                }
+            } else {
+                for (long s = currentSlot + 1; s <= slot; s++) {
+                    List<String> bucket = buckets[(int) (s % buckets.length)];
+                    long expiredSlot = s - buckets.length;
+                    for (String id : bucket) {
+                        Long lastSlot = slots.get(id);
+                        if (lastSlot != null && lastSlot <= expiredSlot) {
+                            slots.remove(id);
+                        }
+                    }
+                    bucket.clear();
+                }
+            }
+            currentSlot = slot;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpBatchLoadRunner, a load generator of the http source, not run as a unit test.
+ * <p/>
+ * Each thread posts newline-delimited batches over one keep-alive connection and records the latency
+ * until the batch is acknowledged. Usage:
+ * <pre>
+ * java HttpBatchLoadRunner url groupId streamId [threads] [batchesPerThread] [messagesPerBatch] [messageLength]
+ * </pre>
+ */
+public class HttpBatchLoadRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: HttpBatchLoadRunner url groupId streamId"
+                    + " [threads] [batchesPerThread] [messagesPerBatch] [messageLength]");
+            return;
+        }
+        final String target = args[0] + InlongHttpChannelHandler.BATCH_PATH
+                + "?groupId=" + args[1] + "&streamId=" + args[2];
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        final int batches = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        final int messages = args.length > 5 ? Integer.parseInt(args[5]) : 100;
+        final int messageLength = args.length > 6 ? Integer.parseInt(args[6]) : 200;
+        final byte[] body = buildBody(messages, messageLength);
+        final long[][] latencies = new long[threads][batches];
+        final AtomicLong failed = new AtomicLong(0);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final long[] threadLatencies = latencies[i];
+            new Thread(() -> {
+                try {
+                    URL url = new URL(target);
+                    for (int j = 0; j < batches; j++) {
+                        long sendTime = System.nanoTime();
+                        if (!post(url, body)) {
+                            failed.incrementAndGet();
+                        }
+                        threadLatencies[j] = System.nanoTime() - sendTime;
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    latch.countDown();
+                }
+            }, "http-load-" + i).start();
+        }
+        latch.await();
+        long elapsed = System.nanoTime() - startTime;
+        long[] all = new long[threads * batches];
+        for (int i = 0; i < threads; i++) {
+            System.arraycopy(latencies[i], 0, all, i * batches, batches);
+        }
+        Arrays.sort(all);
+        long total = (long) threads * batches;
+        System.out.printf("batches=%d, failed=%d, elapsed=%dms%n", total, failed.get(), elapsed / 1000000);
+        System.out.printf("throughput: %.1f batches/s, %.1f msgs/s, %.2f MB/s%n",
+                total * 1e9 / elapsed, total * messages * 1e9 / elapsed,
+                total * body.length * 1e9 / elapsed / 1024 / 1024);
+        System.out.printf("latency(ms): p50=%.2f, p99=%.2f, p999=%.2f, max=%.2f%n",
+                percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1] / 1e6);
+    }
+
+    private static boolean post(URL url, byte[] body) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        conn.setRequestProperty("Content-Type", "text/plain");
+        conn.setFixedLengthStreamingMode(body.length);
+        try (OutputStream output = conn.getOutputStream()) {
+            output.write(body);
+        }
+        int status = conn.getResponseCode();
+        // drain the response so that the connection is kept alive and reused
+        InputStream input = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+        if (input != null) {
+            try (InputStream in = input) {
+                byte[] buffer = new byte[1024];
+                while (in.read(buffer) != -1) {
+                    // skip
+                }
+            }
+        }
+        return status == HttpURLConnection.HTTP_OK;
+    }
+
+    private static byte[] buildBody(int messages, int messageLength) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(messages * (messageLength + 1));
+        byte[] message = new byte[messageLength];
+        Arrays.fill(message, (byte) 'a');
+        for (int i = 0; i < messages; i++) {
+            output.write(message, 0, message.length);
+            output.write('\n');
+        }
+        return output.toByteArray();
+    }
+
+    private static double percentile(long[] sorted, double percent) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percent * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
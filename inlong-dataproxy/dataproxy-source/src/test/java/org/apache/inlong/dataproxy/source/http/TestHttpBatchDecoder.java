@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * TestHttpBatchDecoder
+ */
+public class TestHttpBatchDecoder {
+
+    private static final int MAX_LENGTH = 1024 * 1024;
+
+    @Test
+    public void testDecodeLines() throws IOException {
+        byte[] body = "a|1\r\nb|2\n\nc|3".getBytes(StandardCharsets.UTF_8);
+        List<byte[]> messages = HttpBatchDecoder.decode(body, "text/plain", null, MAX_LENGTH);
+        Assert.assertEquals(3, messages.size());
+        Assert.assertEquals("a|1", new String(messages.get(0), StandardCharsets.UTF_8));
+        Assert.assertEquals("b|2", new String(messages.get(1), StandardCharsets.UTF_8));
+        Assert.assertEquals("c|3", new String(messages.get(2), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecodeLengthPrefixed() throws IOException {
+        byte[] body = lengthPrefixed("hello", "", "world");
+        List<byte[]> messages = HttpBatchDecoder.decode(body, "application/octet-stream", "identity", MAX_LENGTH);
+        Assert.assertEquals(3, messages.size());
+        Assert.assertEquals("hello", new String(messages.get(0), StandardCharsets.UTF_8));
+        Assert.assertEquals(0, messages.get(1).length);
+        Assert.assertEquals("world", new String(messages.get(2), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecodeGzip() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(lengthPrefixed("x", "yz"));
+        }
+        List<byte[]> messages = HttpBatchDecoder.decode(output.toByteArray(),
+                "application/octet-stream", "gzip", MAX_LENGTH);
+        Assert.assertEquals(2, messages.size());
+        Assert.assertEquals("yz", new String(messages.get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecodeSnappy() throws IOException {
+        byte[] body = Snappy.compress("line1\nline2\n".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> messages = HttpBatchDecoder.decode(body, null, "snappy", MAX_LENGTH);
+        Assert.assertEquals(2, messages.size());
+        Assert.assertEquals("line2", new String(messages.get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedBatch() throws IOException {
+        byte[] body = lengthPrefixed("hello");
+        byte[] truncated = new byte[body.length - 1];
+        System.arraycopy(body, 0, truncated, 0, truncated.length);
+        HttpBatchDecoder.decode(truncated, "application/octet-stream", null, MAX_LENGTH);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUncompressedLimit() throws IOException {
+        byte[] body = Snappy.compress(new byte[1024]);
+        HttpBatchDecoder.decode(body, null, "snappy", 512);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedEncoding() throws IOException {
+        HttpBatchDecoder.decode(new byte[1], null, "br", MAX_LENGTH);
+    }
+
+    private static byte[] lengthPrefixed(String... messages) {
+        int length = 0;
+        for (String message : messages) {
+            length += HttpBatchDecoder.LENGTH_PREFIX_LENGTH + message.getBytes(StandardCharsets.UTF_8).length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (String message : messages) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.udp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import org.apache.flume.Event;
+import org.apache.inlong.dataproxy.consts.AttributeConstants;
+import org.apache.inlong.dataproxy.consts.ConfigConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for {@link UdpMessageDecoder}
+ */
+public class TestUdpMessageDecoder {
+
+    private static final InetSocketAddress SENDER = new InetSocketAddress("127.0.0.2", 46801);
+    private static final int DATA_TIME = 1650000000;
+
+    /**
+     * testDecodeBinMessage
+     */
+    @Test
+    public void testDecodeBinMessage() {
+        UdpSourceMetricItem metricItem = new UdpSourceMetricItem();
+        UdpMessageDecoder decoder = new UdpMessageDecoder("default_topic", true, "127.0.0.1", metricItem);
+        // the body is taken as compressed, so the message is wrapped as-is
+        byte[] binMsg = buildBinMsg(7 | 0x20, 0, "body".getBytes(StandardCharsets.UTF_8),
+                "groupId=group&streamId=stream");
+        Event event = decoder.decode(Unpooled.wrappedBuffer(binMsg), SENDER);
+
+        Assert.assertNotNull(event);
+        byte[] body = event.getBody();
+        Assert.assertEquals(binMsg.length + 4, body.length);
+        Assert.assertEquals(0xf, body[0]);
+        Assert.assertEquals(0x4, body[1]);
+        // the extend field is marked with the named ids
+        Assert.assertEquals(0x4, body[2 + 10] & 0x4);
+        Assert.assertEquals("default_topic", event.getHeaders().get(ConfigConstants.TOPIC_KEY));
+        Assert.assertEquals("group", event.getHeaders().get(AttributeConstants.GROUP_ID));
+        Assert.assertEquals("stream", event.getHeaders().get(AttributeConstants.STREAM_ID));
+        Assert.assertEquals("127.0.0.2", event.getHeaders().get(ConfigConstants.REMOTE_IP_KEY));
+        Assert.assertEquals("2", event.getHeaders().get(ConfigConstants.MSG_COUNTER_KEY));
+        Assert.assertEquals("12345", event.getHeaders().get(AttributeConstants.UNIQ_ID));
+        Assert.assertEquals(String.valueOf(DATA_TIME * 1000L), event.getHeaders().get(AttributeConstants.DATA_TIME));
+        Assert.assertEquals(String.valueOf(body.length), event.getHeaders().get(ConfigConstants.TOTAL_LEN));
+    }
+
+    /**
+     * testDecodeTrace
+     */
+    @Test
+    public void testDecodeTrace() {
+        UdpSourceMetricItem metricItem = new UdpSourceMetricItem();
+        UdpMessageDecoder decoder = new UdpMessageDecoder("default_topic", false, "127.0.0.1", metricItem);
+        byte[] binMsg = buildBinMsg(7, 0x2, "body".getBytes(StandardCharsets.UTF_8),
+                "groupId=group&streamId=stream");
+        Event event = decoder.decode(Unpooled.wrappedBuffer(binMsg), SENDER);
+
+        Assert.assertNotNull(event);
+        String body = new String(event.getBody(), StandardCharsets.UTF_8);
+        Assert.assertTrue(body.contains("groupId=group&streamId=stream&node2ip=127.0.0.1&rtime2="));
+        // the lengths are rewritten with the trace attributes
+        ByteBuf frame = Unpooled.wrappedBuffer(event.getBody());
+        Assert.assertEquals(event.getBody().length - 8, frame.getInt(2));
+        Assert.assertEquals(0xEE01, frame.getUnsignedShort(event.getBody().length - 4));
+    }
+
+    /**
+     * testDropDatagrams
+     */
+    @Test
+    public void testDropDatagrams() {
+        UdpSourceMetricItem metricItem = new UdpSourceMetricItem();
+        UdpMessageDecoder decoder = new UdpMessageDecoder("default_topic", true, "127.0.0.1", metricItem);
+
+        ByteBuf heartbeat = Unpooled.buffer();
+        heartbeat.writeInt(1);
+        heartbeat.writeByte(8);
+        Assert.assertNull(decoder.decode(heartbeat, SENDER));
+        Assert.assertEquals(1, metricItem.heartbeatCount.get());
+
+        byte[] binMsg = buildBinMsg(7, 0, "body".getBytes(StandardCharsets.UTF_8), "");
+        binMsg[binMsg.length - 1] = 0;
+        Assert.assertNull(decoder.decode(Unpooled.wrappedBuffer(binMsg), SENDER));
+        Assert.assertNull(decoder.decode(Unpooled.wrappedBuffer(binMsg, 0, 10), SENDER));
+        Assert.assertEquals(2, metricItem.invalidCount.get());
+
+        // file check messages are not handled over udp
+        binMsg = buildBinMsg(7, 0x8, "body".getBytes(StandardCharsets.UTF_8), "");
+        Assert.assertNull(decoder.decode(Unpooled.wrappedBuffer(binMsg), SENDER));
+        Assert.assertEquals(1, metricItem.unsupportedCount.get());
+    }
+
+    private static byte[] buildBinMsg(int msgType, int extendField, byte[] body, String attr) {
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(body.length + attrBytes.length + 29 - 4);
+        buf.writeByte(msgType);
+        buf.writeShort(0);
+        buf.writeShort(0);
+        buf.writeShort(extendField);
+        buf.writeInt(DATA_TIME);
+        buf.writeShort(2);
+        buf.writeInt(12345);
+        buf.writeInt(body.length);
+        buf.writeBytes(body);
+        buf.writeShort(attrBytes.length);
+        buf.writeBytes(attrBytes);
+        buf.writeShort(0xEE01);
+        byte[] result = new byte[buf.readableBytes()];
+        buf.readBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TestTimeBucketedIdCache
+ */
+public class TestTimeBucketedIdCache {
+
+    private static final long START = 1650000000000L;
+
+    @Test
+    public void testCheckAndPut() {
+        TimeBucketedIdCache cache = new TimeBucketedIdCache(4, 30000L, 6);
+        assertFalse(cache.checkAndPut("topic#stream#1", START));
+        assertTrue(cache.checkAndPut("topic#stream#1", START + 1000L));
+        assertFalse(cache.checkAndPut("topic#stream#2", START + 1000L));
+        assertEquals(2, cache.size());
+
+        cache.invalidate("topic#stream#1");
+        assertFalse(cache.checkAndPut("topic#stream#1", START + 2000L));
+    }
+
+    @Test
+    public void testExpireAfterAccess() {
+        // a single shard, the expiration of a shard happens on its own accesses
+        TimeBucketedIdCache cache = new TimeBucketedIdCache(1, 30000L, 6);
+        assertFalse(cache.checkAndPut("a", START));
+        assertFalse(cache.checkAndPut("b", START));
+        // the access refreshes the id
+        assertTrue(cache.checkAndPut("a", START + 25000L));
+        assertTrue(cache.checkAndPut("b", START + 29000L));
+        // expired only after the expire time without access
+        assertFalse(cache.checkAndPut("a", START + 25000L + 36000L));
+        assertEquals(1, cache.size());
+        // the clock going back does not drop the ids
+        assertTrue(cache.checkAndPut("a", START));
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.inlong.manager.pojo.dataproxy.CacheCluster;
 import org.apache.inlong.manager.pojo.dataproxy.InlongGroupId;
 import org.apache.inlong.manager.pojo.dataproxy.InlongStreamId;
 import org.apache.inlong.manager.pojo.dataproxy.ProxyCluster;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -38,4 +39,19 @@ public interface ClusterSetMapper {
     List<InlongGroupId> selectInlongGroupId();
 
     List<InlongStreamId> selectInlongStreamId();
+
+    /**
+     * Select the digests of the clusters group by cluster tag, including the deleted ones.
+     */
+    List<SortConfigDigest> selectClusterDigests();
+
+    /**
+     * Select the digests of the groups group by cluster tag, including the deleted ones.
+     */
+    List<SortConfigDigest> selectGroupDigests();
+
+    /**
+     * Select the digests of the streams group by the cluster tag of their groups, including the deleted ones.
+     */
+    List<SortConfigDigest> selectStreamDigests();
 }
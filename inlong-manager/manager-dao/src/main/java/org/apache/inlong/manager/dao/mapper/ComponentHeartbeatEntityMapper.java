@@ -31,6 +31,8 @@ public interface ComponentHeartbeatEntityMapper {
 
     int insertOrUpdateByKey(ComponentHeartbeatEntity record);
 
+    int insertOrUpdateBatch(@Param("list") List<ComponentHeartbeatEntity> list);
+
     ComponentHeartbeatEntity selectByPrimaryKey(Integer id);
 
     ComponentHeartbeatEntity selectByKey(@Param("component") String component, @Param("instance") String instance);
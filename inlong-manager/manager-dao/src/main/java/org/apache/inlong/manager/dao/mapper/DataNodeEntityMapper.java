@@ -20,6 +20,7 @@ package org.apache.inlong.manager.dao.mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.inlong.manager.dao.entity.DataNodeEntity;
 import org.apache.inlong.manager.pojo.node.DataNodePageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSinkInfo;
 import org.springframework.stereotype.Repository;
 
@@ -38,6 +39,13 @@ public interface DataNodeEntityMapper {
 
     List<SortSinkInfo> selectAllSinkParams();
 
+    /**
+     * Select the digest of all data nodes, including the deleted ones.
+     *
+     * @return Digest of data nodes
+     */
+    SortConfigDigest selectSortDigest();
+
     int updateById(DataNodeEntity record);
 
     int updateByIdSelective(DataNodeEntity record);
@@ -33,6 +33,8 @@ public interface GroupHeartbeatEntityMapper {
     int insertOrUpdateAll(@Param("component") String component, @Param("instance") String instance,
             @Param("reportTime") Long reportTime, @Param("list") List<GroupHeartbeat> list);
 
+    int insertOrUpdateBatch(@Param("list") List<GroupHeartbeatEntity> list);
+
     GroupHeartbeatEntity selectByPrimaryKey(Integer id);
 
     GroupHeartbeatEntity selectByKey(@Param("component") String component, @Param("instance") String instance,
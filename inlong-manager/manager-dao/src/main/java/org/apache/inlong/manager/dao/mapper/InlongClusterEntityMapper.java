@@ -20,6 +20,7 @@ package org.apache.inlong.manager.dao.mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.inlong.manager.dao.entity.InlongClusterEntity;
 import org.apache.inlong.manager.pojo.cluster.ClusterPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceClusterInfo;
 import org.springframework.stereotype.Repository;
 
@@ -49,6 +50,13 @@ public interface InlongClusterEntityMapper {
      */
     List<SortSourceClusterInfo> selectAllClusters();
 
+    /**
+     * Select the digest of all clusters for sort sdk, including the deleted ones.
+     *
+     * @return Digest of clusters.
+     */
+    SortConfigDigest selectSortDigest();
+
     int updateById(InlongClusterEntity record);
 
     int updateByIdSelective(InlongClusterEntity record);
@@ -21,6 +21,7 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.inlong.manager.dao.entity.InlongGroupEntity;
 import org.apache.inlong.manager.pojo.group.InlongGroupBriefInfo;
 import org.apache.inlong.manager.pojo.group.InlongGroupPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceGroupInfo;
 import org.springframework.stereotype.Repository;
 
@@ -53,6 +54,13 @@ public interface InlongGroupEntityMapper {
      */
     List<SortSourceGroupInfo> selectAllGroups();
 
+    /**
+     * Select the digest of all groups for sort sdk, including the deleted ones.
+     *
+     * @return Digest of inlong groups.
+     */
+    SortConfigDigest selectSortDigest();
+
     int updateByPrimaryKey(InlongGroupEntity record);
 
     int updateByIdentifierSelective(InlongGroupEntity record);
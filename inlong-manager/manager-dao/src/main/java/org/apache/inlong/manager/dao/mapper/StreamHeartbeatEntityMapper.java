@@ -33,6 +33,8 @@ public interface StreamHeartbeatEntityMapper {
     int insertOrUpdateAll(@Param("component") String component, @Param("instance") String instance,
             @Param("reportTime") Long reportTime, @Param("list") List<StreamHeartbeat> list);
 
+    int insertOrUpdateBatch(@Param("list") List<StreamHeartbeatEntity> list);
+
     StreamHeartbeatEntity selectByPrimaryKey(Integer id);
 
     StreamHeartbeatEntity selectByKey(@Param("component") String component, @Param("instance") String instance,
@@ -22,6 +22,7 @@ import org.apache.inlong.manager.dao.entity.StreamSinkEntity;
 import org.apache.inlong.manager.pojo.sink.SinkBriefInfo;
 import org.apache.inlong.manager.pojo.sink.SinkInfo;
 import org.apache.inlong.manager.pojo.sink.SinkPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortIdInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceStreamInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortTaskInfo;
@@ -129,6 +130,37 @@ public interface StreamSinkEntityMapper {
      */
     List<SortSourceStreamInfo> selectAllStreams();
 
+    /**
+     * Select the digest of sinks of each sort cluster, including the deleted sinks.
+     *
+     * @return Digest list, the name is the sort cluster name
+     */
+    List<SortConfigDigest> selectSortClusterDigests();
+
+    /**
+     * Select tasks of the given sort clusters for sort-standalone
+     *
+     * @param clusterNames Sort cluster names
+     * @return Tasks of the sort clusters
+     */
+    List<SortTaskInfo> selectTasksByClusters(@Param("clusterNames") List<String> clusterNames);
+
+    /**
+     * Select id params of the given sort tasks for sort-standalone
+     *
+     * @param taskNames Sort task names
+     * @return Id params of the sort tasks
+     */
+    List<SortIdInfo> selectIdParamsByTasks(@Param("taskNames") List<String> taskNames);
+
+    /**
+     * Select streams of the given sort clusters for sort sdk.
+     *
+     * @param clusterNames Sort cluster names
+     * @return Stream info of the sort clusters
+     */
+    List<SortSourceStreamInfo> selectStreamsByClusters(@Param("clusterNames") List<String> clusterNames);
+
     int updateByPrimaryKeySelective(StreamSinkEntity record);
 
     int updateByPrimaryKey(StreamSinkEntity record);
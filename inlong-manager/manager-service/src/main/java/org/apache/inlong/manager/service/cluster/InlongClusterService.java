@@ -222,4 +222,12 @@ public interface InlongClusterService {
      */
     String getAllConfig(String clusterName, String md5);
 
+    /**
+     * Get data proxy cluster config since the given version, only the changes are returned
+     * if the version is known by the manager
+     *
+     * @return data proxy config
+     */
+    String getAllConfig(String clusterName, String md5, Long version);
+
 }
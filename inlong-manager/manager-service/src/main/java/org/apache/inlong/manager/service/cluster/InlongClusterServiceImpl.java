@@ -750,6 +750,11 @@ public class InlongClusterServiceImpl implements InlongClusterService {
 
     @Override
     public String getAllConfig(String clusterName, String md5) {
+        return this.getAllConfig(clusterName, md5, null);
+    }
+
+    @Override
+    public String getAllConfig(String clusterName, String md5, Long version) {
         DataProxyConfigResponse response = new DataProxyConfigResponse();
         String configMd5 = proxyRepository.getProxyMd5(clusterName);
         if (configMd5 == null) {
@@ -763,11 +768,12 @@ public class InlongClusterServiceImpl implements InlongClusterService {
             response.setResult(true);
             response.setErrCode(DataProxyConfigResponse.NOUPDATE);
             response.setMd5(configMd5);
+            response.setVersion(proxyRepository.getProxyVersion(clusterName));
             response.setData(new DataProxyCluster());
             return GSON.toJson(response);
         }
 
-        String configJson = proxyRepository.getProxyConfigJson(clusterName);
+        String configJson = proxyRepository.getProxyConfigJson(clusterName, md5, version);
         if (configJson == null) {
             response.setResult(false);
             response.setErrCode(DataProxyConfigResponse.REQ_PARAMS_ERROR);
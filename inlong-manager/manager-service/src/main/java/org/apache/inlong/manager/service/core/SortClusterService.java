@@ -32,4 +32,40 @@ public interface SortClusterService {
      * @return Corresponding response.
      */
     SortClusterResponse getClusterConfig(String clusterName, String md5);
+
+    /**
+     * Get the cluster config response by specific cluster name.
+     * <p/>
+     * If the md5 and version are found in the recent changes, only the changed tasks are returned.
+     *
+     * @param clusterName Cluster name.
+     * @param md5 Last md5.
+     * @param version Last version, null if unknown.
+     * @return Corresponding response.
+     */
+    SortClusterResponse getClusterConfig(String clusterName, String md5, Long version);
+
+    /**
+     * Get the md5 of the cluster config, null if there is no config.
+     *
+     * @param clusterName Cluster name.
+     * @return Md5 of the cluster config.
+     */
+    String getClusterMd5(String clusterName);
+
+    /**
+     * Add the listener called once when the cluster config changes.
+     *
+     * @param clusterName Cluster name.
+     * @param listener Listener.
+     */
+    void addConfigListener(String clusterName, Runnable listener);
+
+    /**
+     * Remove the listener of the cluster config.
+     *
+     * @param clusterName Cluster name.
+     * @param listener Listener.
+     */
+    void removeConfigListener(String clusterName, Runnable listener);
 }
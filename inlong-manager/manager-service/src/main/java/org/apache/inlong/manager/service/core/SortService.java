@@ -40,6 +40,34 @@ public interface SortService {
      */
     SortClusterResponse getClusterConfig(String clusterName, String md5);
 
+    /**
+     * Get sort cluster config.
+     *
+     * <p>If the md5 and version of last update response are found in the recent changes,
+     * only the changed tasks and the removed task names are returned.</p>
+     *
+     * @param clusterName Name of sort cluster.
+     * @param md5 Last update md5.
+     * @param version Last update version, null if unknown.
+     * @return Response of sort cluster config {@link SortClusterResponse}
+     */
+    SortClusterResponse getClusterConfig(String clusterName, String md5, Long version);
+
+    /**
+     * Get the md5 of sort cluster config, null if there is no config.
+     */
+    String getClusterMd5(String clusterName);
+
+    /**
+     * Add the listener called once when the sort cluster config changes.
+     */
+    void addClusterConfigListener(String clusterName, Runnable listener);
+
+    /**
+     * Remove the listener of the sort cluster config.
+     */
+    void removeClusterConfigListener(String clusterName, Runnable listener);
+
     /**
      * Get sort source config.
      *
@@ -55,4 +83,33 @@ public interface SortService {
      * @return Response of sort cluster config
      */
     SortSourceConfigResponse getSourceConfig(String clusterName, String sortTaskId, String md5);
+
+    /**
+     * Get sort source config.
+     *
+     * <p>If the md5 and version of last update response are found in the recent changes,
+     * only the changed cache zones and the removed cache zone names are returned.
+     *
+     * @param clusterName Name of sort cluster.
+     * @param sortTaskId Task id.
+     * @param md5 Last update md5.
+     * @param version Last update version, null if unknown.
+     * @return Response of sort cluster config
+     */
+    SortSourceConfigResponse getSourceConfig(String clusterName, String sortTaskId, String md5, Long version);
+
+    /**
+     * Get the md5 of sort source config, null if there is no config.
+     */
+    String getSourceMd5(String clusterName, String sortTaskId);
+
+    /**
+     * Add the listener called once when the sort source config changes.
+     */
+    void addSourceConfigListener(String clusterName, String sortTaskId, Runnable listener);
+
+    /**
+     * Remove the listener of the sort source config.
+     */
+    void removeSourceConfigListener(String clusterName, String sortTaskId, Runnable listener);
 }
@@ -33,4 +33,44 @@ public interface SortSourceService {
      * @return SortSourceConfigResponse
      */
     SortSourceConfigResponse getSourceConfig(String clusterName, String taskName, String md5);
+
+    /**
+     * Get {@link SortSourceConfigResponse} by cluster name and task name.
+     *
+     * <p>If the md5 and version are found in the recent changes, only the changed cache zones are returned.
+     *
+     * @param clusterName Target cluster name.
+     * @param taskName Target task name.
+     * @param md5 Last update Md5.
+     * @param version Last update version, null if unknown.
+     * @return SortSourceConfigResponse
+     */
+    SortSourceConfigResponse getSourceConfig(String clusterName, String taskName, String md5, Long version);
+
+    /**
+     * Get the md5 of the source config, null if there is no config.
+     *
+     * @param clusterName Target cluster name.
+     * @param taskName Target task name.
+     * @return Md5 of the source config.
+     */
+    String getSourceMd5(String clusterName, String taskName);
+
+    /**
+     * Add the listener called once when the source config changes.
+     *
+     * @param clusterName Target cluster name.
+     * @param taskName Target task name.
+     * @param listener Listener.
+     */
+    void addConfigListener(String clusterName, String taskName, Runnable listener);
+
+    /**
+     * Remove the listener of the source config.
+     *
+     * @param clusterName Target cluster name.
+     * @param taskName Target task name.
+     * @param listener Listener.
+     */
+    void removeConfigListener(String clusterName, String taskName, Runnable listener);
 }
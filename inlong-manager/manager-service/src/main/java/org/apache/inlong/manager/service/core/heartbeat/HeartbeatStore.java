@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.manager.service.core.heartbeat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.inlong.manager.dao.entity.ComponentHeartbeatEntity;
+import org.apache.inlong.manager.dao.entity.GroupHeartbeatEntity;
+import org.apache.inlong.manager.dao.entity.StreamHeartbeatEntity;
+import org.apache.inlong.manager.dao.mapper.ComponentHeartbeatEntityMapper;
+import org.apache.inlong.manager.dao.mapper.GroupHeartbeatEntityMapper;
+import org.apache.inlong.manager.dao.mapper.StreamHeartbeatEntityMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory store of the component, group and stream heartbeats.
+ * <p/>
+ * The heartbeats of the same key are coalesced, only the latest one is written to the database,
+ * in batches on a fixed interval. The latest heartbeats are also kept in memory to serve the queries.
+ */
+@Slf4j
+@Component
+public class HeartbeatStore {
+
+    private static final String KEY_SEPARATOR = "#";
+
+    @Value("${heartbeat.flush.interval.ms:5000}")
+    private long flushIntervalMs = 5000L;
+    @Value("${heartbeat.flush.batch.size:500}")
+    private int flushBatchSize = 500;
+    @Value("${heartbeat.cache.expire.seconds:600}")
+    private long cacheExpireSeconds = 600L;
+    @Value("${heartbeat.cache.max.size:1000000}")
+    private long cacheMaxSize = 1000000L;
+
+    @Autowired
+    private ComponentHeartbeatEntityMapper componentHeartbeatMapper;
+    @Autowired
+    private GroupHeartbeatEntityMapper groupHeartbeatMapper;
+    @Autowired
+    private StreamHeartbeatEntityMapper streamHeartbeatMapper;
+
+    // the heartbeats not written to the database yet, key: unique key of the heartbeat table
+    private final Map<String, ComponentHeartbeatEntity> dirtyComponents = new ConcurrentHashMap<>();
+    private final Map<String, GroupHeartbeatEntity> dirtyGroups = new ConcurrentHashMap<>();
+    private final Map<String, StreamHeartbeatEntity> dirtyStreams = new ConcurrentHashMap<>();
+
+    // the latest heartbeats received by this node
+    private Cache<String, ComponentHeartbeatEntity> componentCache;
+    private Cache<String, GroupHeartbeatEntity> groupCache;
+    private Cache<String, StreamHeartbeatEntity> streamCache;
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() {
+        componentCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS).build();
+        groupCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS).build();
+        streamCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS).build();
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "heartbeat-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Put the component heartbeat, it will be written to the database in the next flush.
+     */
+    public void putComponentHeartbeat(ComponentHeartbeatEntity entity) {
+        String key = componentKey(entity.getComponent(), entity.getInstance());
+        dirtyComponents.merge(key, entity, HeartbeatStore::latest);
+        componentCache.asMap().merge(key, entity, HeartbeatStore::latest);
+    }
+
+    /**
+     * Put the group heartbeat, it will be written to the database in the next flush.
+     */
+    public void putGroupHeartbeat(GroupHeartbeatEntity entity) {
+        String key = groupKey(entity.getComponent(), entity.getInstance(), entity.getInlongGroupId());
+        dirtyGroups.merge(key, entity, HeartbeatStore::latest);
+        groupCache.asMap().merge(key, entity, HeartbeatStore::latest);
+    }
+
+    /**
+     * Put the stream heartbeat, it will be written to the database in the next flush.
+     */
+    public void putStreamHeartbeat(StreamHeartbeatEntity entity) {
+        String key = streamKey(entity.getComponent(), entity.getInstance(), entity.getInlongGroupId(),
+                entity.getInlongStreamId());
+        dirtyStreams.merge(key, entity, HeartbeatStore::latest);
+        streamCache.asMap().merge(key, entity, HeartbeatStore::latest);
+    }
+
+    /**
+     * Get the latest component heartbeat in memory, null if not found.
+     */
+    public ComponentHeartbeatEntity getComponentHeartbeat(String component, String instance) {
+        return componentCache.getIfPresent(componentKey(component, instance));
+    }
+
+    /**
+     * Get the latest group heartbeat in memory, null if not found.
+     */
+    public GroupHeartbeatEntity getGroupHeartbeat(String component, String instance, String groupId) {
+        return groupCache.getIfPresent(groupKey(component, instance, groupId));
+    }
+
+    /**
+     * Get the latest stream heartbeat in memory, null if not found.
+     */
+    public StreamHeartbeatEntity getStreamHeartbeat(String component, String instance, String groupId,
+            String streamId) {
+        return streamCache.getIfPresent(streamKey(component, instance, groupId, streamId));
+    }
+
+    /**
+     * Get the count of heartbeats waiting to be written.
+     */
+    public int getDirtyCount() {
+        return dirtyComponents.size() + dirtyGroups.size() + dirtyStreams.size();
+    }
+
+    /**
+     * Write the coalesced heartbeats to the database in batches.
+     */
+    public synchronized void flush() {
+        try {
+            flushDirty(dirtyComponents, componentHeartbeatMapper::insertOrUpdateBatch);
+            flushDirty(dirtyGroups, groupHeartbeatMapper::insertOrUpdateBatch);
+            flushDirty(dirtyStreams, streamHeartbeatMapper::insertOrUpdateBatch);
+        } catch (Throwable t) {
+            log.error("failed to flush heartbeats", t);
+        }
+    }
+
+    private <T> void flushDirty(Map<String, T> dirtyMap, Consumer<List<T>> batchWriter) {
+        if (dirtyMap.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(flushBatchSize);
+        List<T> batch = new ArrayList<>(flushBatchSize);
+        for (String key : dirtyMap.keySet()) {
+            T entity = dirtyMap.remove(key);
+            if (entity == null) {
+                continue;
+            }
+            keys.add(key);
+            batch.add(entity);
+            if (batch.size() >= flushBatchSize) {
+                writeBatch(dirtyMap, keys, batch, batchWriter);
+                keys = new ArrayList<>(flushBatchSize);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(dirtyMap, keys, batch, batchWriter);
+        }
+    }
+
+    private <T> void writeBatch(Map<String, T> dirtyMap, List<String> keys, List<T> batch,
+            Consumer<List<T>> batchWriter) {
+        try {
+            batchWriter.accept(batch);
+        } catch (Exception e) {
+            log.error("failed to write {} heartbeats, will retry in the next flush", batch.size(), e);
+            // put back unless a newer heartbeat has arrived
+            for (int i = 0; i < keys.size(); i++) {
+                dirtyMap.putIfAbsent(keys.get(i), batch.get(i));
+            }
+        }
+    }
+
+    private static <T> T latest(T current, T other, Function<T, Long> reportTimeGetter) {
+        Long currentTime = reportTimeGetter.apply(current);
+        Long otherTime = reportTimeGetter.apply(other);
+        if (currentTime != null && otherTime != null && otherTime < currentTime) {
+            return current;
+        }
+        return other;
+    }
+
+    private static ComponentHeartbeatEntity latest(ComponentHeartbeatEntity current, ComponentHeartbeatEntity other) {
+        return latest(current, other, ComponentHeartbeatEntity::getReportTime);
+    }
+
+    private static GroupHeartbeatEntity latest(GroupHeartbeatEntity current, GroupHeartbeatEntity other) {
+        return latest(current, other, GroupHeartbeatEntity::getReportTime);
+    }
+
+    private static StreamHeartbeatEntity latest(StreamHeartbeatEntity current, StreamHeartbeatEntity other) {
+        return latest(current, other, StreamHeartbeatEntity::getReportTime);
+    }
+
+    private static String componentKey(String component, String instance) {
+        return component + KEY_SEPARATOR + instance;
+    }
+
+    private static String groupKey(String component, String instance, String groupId) {
+        return componentKey(component, instance) + KEY_SEPARATOR + groupId;
+    }
+
+    private static String streamKey(String component, String instance, String groupId, String streamId) {
+        return groupKey(component, instance, groupId) + KEY_SEPARATOR + streamId;
+    }
+
+}
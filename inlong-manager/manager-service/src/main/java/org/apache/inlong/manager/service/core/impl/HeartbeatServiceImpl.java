@@ -45,6 +45,7 @@ import org.apache.inlong.manager.pojo.heartbeat.HeartbeatReportRequest;
 import org.apache.inlong.manager.pojo.heartbeat.StreamHeartbeatResponse;
 import org.apache.inlong.manager.service.core.HeartbeatService;
 import org.apache.inlong.manager.service.core.heartbeat.HeartbeatManager;
+import org.apache.inlong.manager.service.core.heartbeat.HeartbeatStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -62,6 +63,8 @@ public class HeartbeatServiceImpl implements HeartbeatService {
     @Autowired
     private HeartbeatManager heartbeatManager;
     @Autowired
+    private HeartbeatStore heartbeatStore;
+    @Autowired
     private ComponentHeartbeatEntityMapper componentHeartbeatMapper;
     @Autowired
     private GroupHeartbeatEntityMapper groupHeartbeatMapper;
@@ -106,7 +109,10 @@ public class HeartbeatServiceImpl implements HeartbeatService {
             case Agent:
             case Cache:
             case SDK:
-                ComponentHeartbeatEntity res = componentHeartbeatMapper.selectByKey(component, request.getInstance());
+                ComponentHeartbeatEntity res = heartbeatStore.getComponentHeartbeat(component, request.getInstance());
+                if (res == null) {
+                    res = componentHeartbeatMapper.selectByKey(component, request.getInstance());
+                }
                 return CommonBeanUtils.copyProperties(res, ComponentHeartbeatResponse::new);
             default:
                 throw new BusinessException("Unsupported component type for " + component);
@@ -128,8 +134,12 @@ public class HeartbeatServiceImpl implements HeartbeatService {
             case Agent:
             case Cache:
             case SDK:
-                GroupHeartbeatEntity result = groupHeartbeatMapper.selectByKey(component, request.getInstance(),
+                GroupHeartbeatEntity result = heartbeatStore.getGroupHeartbeat(component, request.getInstance(),
                         request.getInlongGroupId());
+                if (result == null) {
+                    result = groupHeartbeatMapper.selectByKey(component, request.getInstance(),
+                            request.getInlongGroupId());
+                }
                 return CommonBeanUtils.copyProperties(result, GroupHeartbeatResponse::new);
             default:
                 throw new BusinessException("Unsupported component type for " + component);
@@ -152,8 +162,12 @@ public class HeartbeatServiceImpl implements HeartbeatService {
             case Agent:
             case Cache:
             case SDK:
-                StreamHeartbeatEntity result = streamHeartbeatMapper.selectByKey(component, request.getInstance(),
+                StreamHeartbeatEntity result = heartbeatStore.getStreamHeartbeat(component, request.getInstance(),
                         request.getInlongGroupId(), request.getInlongStreamId());
+                if (result == null) {
+                    result = streamHeartbeatMapper.selectByKey(component, request.getInstance(),
+                            request.getInlongGroupId(), request.getInlongStreamId());
+                }
                 return CommonBeanUtils.copyProperties(result, StreamHeartbeatResponse::new);
             default:
                 throw new BusinessException("Unsupported component type for " + component);
@@ -219,7 +233,8 @@ public class HeartbeatServiceImpl implements HeartbeatService {
     }
 
     /**
-     * Default implementation for updating heartbeat
+     * Default implementation for updating heartbeat, the heartbeats are coalesced in memory
+     * and written to the database in batches by {@link HeartbeatStore}
      */
     private Boolean updateHeartbeatOpt(HeartbeatReportRequest request) {
         if (log.isDebugEnabled()) {
@@ -234,18 +249,37 @@ public class HeartbeatServiceImpl implements HeartbeatService {
         entity.setComponent(component);
         entity.setInstance(instanceIp);
         entity.setReportTime(reportTime);
-        componentHeartbeatMapper.insertOrUpdateByKey(entity);
+        heartbeatStore.putComponentHeartbeat(entity);
 
         // Add group heartbeats
         List<GroupHeartbeat> groupHeartbeats = request.getGroupHeartbeats();
         if (CollectionUtils.isNotEmpty(groupHeartbeats)) {
-            groupHeartbeatMapper.insertOrUpdateAll(component, instanceIp, reportTime, groupHeartbeats);
+            for (GroupHeartbeat groupHeartbeat : groupHeartbeats) {
+                GroupHeartbeatEntity groupEntity = new GroupHeartbeatEntity();
+                groupEntity.setComponent(component);
+                groupEntity.setInstance(instanceIp);
+                groupEntity.setInlongGroupId(groupHeartbeat.getInlongGroupId());
+                groupEntity.setStatusHeartbeat(groupHeartbeat.getStatus());
+                groupEntity.setMetricHeartbeat(groupHeartbeat.getMetric());
+                groupEntity.setReportTime(reportTime);
+                heartbeatStore.putGroupHeartbeat(groupEntity);
+            }
         }
 
         // Add stream heartbeats
         List<StreamHeartbeat> streamHeartbeats = request.getStreamHeartbeats();
         if (CollectionUtils.isNotEmpty(streamHeartbeats)) {
-            streamHeartbeatMapper.insertOrUpdateAll(component, instanceIp, reportTime, streamHeartbeats);
+            for (StreamHeartbeat streamHeartbeat : streamHeartbeats) {
+                StreamHeartbeatEntity streamEntity = new StreamHeartbeatEntity();
+                streamEntity.setComponent(component);
+                streamEntity.setInstance(instanceIp);
+                streamEntity.setInlongGroupId(streamHeartbeat.getInlongGroupId());
+                streamEntity.setInlongStreamId(streamHeartbeat.getInlongStreamId());
+                streamEntity.setStatusHeartbeat(streamHeartbeat.getStatus());
+                streamEntity.setMetricHeartbeat(streamHeartbeat.getMetric());
+                streamEntity.setReportTime(reportTime);
+                heartbeatStore.putStreamHeartbeat(streamEntity);
+            }
         }
 
         return true;
@@ -23,12 +23,16 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.inlong.common.pojo.sortstandalone.SortClusterConfig;
 import org.apache.inlong.common.pojo.sortstandalone.SortClusterResponse;
 import org.apache.inlong.common.pojo.sortstandalone.SortTaskConfig;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortIdInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSinkInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortTaskInfo;
 import org.apache.inlong.manager.dao.mapper.DataNodeEntityMapper;
 import org.apache.inlong.manager.dao.mapper.StreamSinkEntityMapper;
 import org.apache.inlong.manager.service.core.SortClusterService;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigChange;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigEntry;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.Snapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,7 +41,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -62,18 +69,24 @@ public class SortClusterServiceImpl implements SortClusterService {
 
     private static final int RESPONSE_CODE_SUCCESS = 0;
     private static final int RESPONSE_CODE_NO_UPDATE = 1;
+    private static final int RESPONSE_CODE_DELTA = 2;
     private static final int RESPONSE_CODE_FAIL = -1;
     private static final int RESPONSE_CODE_REQ_PARAMS_ERROR = -101;
 
     private static final String KEY_GROUP_ID = "inlongGroupId";
     private static final String KEY_STREAM_ID = "inlongStreamId";
 
-    // key : sort cluster name, value : md5
-    private Map<String, String> sortClusterMd5Map = new ConcurrentHashMap<>();
-    // key : sort cluster name, value : cluster config
-    private Map<String, SortClusterConfig> sortClusterConfigMap = new ConcurrentHashMap<>();
+    // reload the config of all clusters every these rounds, even if the digests are not changed
+    private static final int FULL_RELOAD_ROUNDS = 10;
+
+    // key : sort cluster name, value : cluster config snapshot, items are the tasks
+    private final SortConfigCache<SortClusterConfig> sortClusterConfigCache = new SortConfigCache<>();
     // key : sort cluster name, value : error log
     private Map<String, String> sortClusterErrorLogMap = new ConcurrentHashMap<>();
+    // key : sort cluster name, value : digest of the sinks which the config is built from
+    private Map<String, SortConfigDigest> sortClusterDigestMap = new HashMap<>();
+    private SortConfigDigest dataNodeDigest;
+    private int reloadRound = 0;
 
     private long reloadInterval;
 
@@ -107,6 +120,11 @@ public class SortClusterServiceImpl implements SortClusterService {
 
     @Override
     public SortClusterResponse getClusterConfig(String clusterName, String md5) {
+        return getClusterConfig(clusterName, md5, null);
+    }
+
+    @Override
+    public SortClusterResponse getClusterConfig(String clusterName, String md5, Long version) {
         // check if cluster name is valid or not.
         if (StringUtils.isBlank(clusterName)) {
             String errMsg = "Blank cluster name, return nothing";
@@ -126,7 +144,8 @@ public class SortClusterServiceImpl implements SortClusterService {
         }
 
         // there is no config, but still return success.
-        if (sortClusterConfigMap.get(clusterName) == null) {
+        Snapshot<SortClusterConfig> snapshot = sortClusterConfigCache.get(clusterName);
+        if (snapshot == null) {
             String errMsg = "There is not config for cluster " + clusterName;
             LOGGER.info(errMsg);
             return SortClusterResponse.builder()
@@ -136,68 +155,168 @@ public class SortClusterServiceImpl implements SortClusterService {
         }
 
         // if the same md5
-        if (sortClusterMd5Map.get(clusterName).equals(md5)) {
+        if (snapshot.getMd5().equals(md5)) {
             return SortClusterResponse.builder()
                     .msg("No update")
                     .code(RESPONSE_CODE_NO_UPDATE)
                     .md5(md5)
+                    .version(snapshot.getVersion())
+                    .build();
+        }
+
+        // if the requested version is known, only return the changed tasks
+        ConfigChange delta = md5 == null || version == null ? null : snapshot.getDelta(md5, version);
+        if (delta != null) {
+            List<SortTaskConfig> changedTasks = snapshot.getConfig().getSortTasks().stream()
+                    .filter(task -> delta.getChangedItems().contains(task.getName()))
+                    .collect(Collectors.toList());
+            return SortClusterResponse.builder()
+                    .msg("Success")
+                    .code(RESPONSE_CODE_DELTA)
+                    .data(SortClusterConfig.builder().clusterName(clusterName).sortTasks(changedTasks).build())
+                    .removedTaskNames(new ArrayList<>(delta.getRemovedItems()))
+                    .md5(snapshot.getMd5())
+                    .version(snapshot.getVersion())
                     .build();
         }
 
         return SortClusterResponse.builder()
                 .msg("Success")
                 .code(RESPONSE_CODE_SUCCESS)
-                .data(sortClusterConfigMap.get(clusterName))
-                .md5(sortClusterMd5Map.get(clusterName))
+                .data(snapshot.getConfig())
+                .md5(snapshot.getMd5())
+                .version(snapshot.getVersion())
                 .build();
     }
 
+    @Override
+    public String getClusterMd5(String clusterName) {
+        return sortClusterConfigCache.getMd5(clusterName);
+    }
+
+    @Override
+    public void addConfigListener(String clusterName, Runnable listener) {
+        sortClusterConfigCache.addConfigListener(clusterName, listener);
+    }
+
+    @Override
+    public void removeConfigListener(String clusterName, Runnable listener) {
+        sortClusterConfigCache.removeConfigListener(clusterName, listener);
+    }
+
     /**
-     * Reload all cluster config.
+     * Reload the config of the clusters whose sinks changed.
      * The results including config, md5 and error log, will replace the older ones.
+     * All clusters are reloaded if the data nodes changed, or every {@link #FULL_RELOAD_ROUNDS} rounds.
      */
-    private void reloadAllClusterConfig() {
-        // get all task and group by cluster
-        List<SortTaskInfo> tasks = streamSinkEntityMapper.selectAllTasks();
+    private synchronized void reloadAllClusterConfig() {
+        // get the digests before the config, so the change during the reload is found in the next round
+        SortConfigDigest newDataNodeDigest = dataNodeEntityMapper.selectSortDigest();
+        Map<String, SortConfigDigest> newDigestMap = streamSinkEntityMapper.selectSortClusterDigests().stream()
+                .filter(digest -> digest.getName() != null)
+                .collect(Collectors.toMap(SortConfigDigest::getName, digest -> digest));
+        boolean fullReload = reloadRound++ % FULL_RELOAD_ROUNDS == 0
+                || !Objects.equals(newDataNodeDigest, dataNodeDigest);
+        List<String> reloadClusters = newDigestMap.entrySet().stream()
+                .filter(entry -> fullReload || !entry.getValue().equals(sortClusterDigestMap.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        // the clusters without any sink
+        List<String> removedClusters = sortClusterConfigCache.keys().stream()
+                .filter(clusterName -> !newDigestMap.containsKey(clusterName))
+                .collect(Collectors.toList());
+        Map<String, SortConfigDigest> builtDigestMap = new HashMap<>(newDigestMap);
+
+        // get the tasks and group by cluster
+        List<SortTaskInfo> tasks;
+        if (fullReload) {
+            tasks = streamSinkEntityMapper.selectAllTasks();
+        } else if (reloadClusters.isEmpty()) {
+            tasks = Collections.emptyList();
+        } else {
+            tasks = streamSinkEntityMapper.selectTasksByClusters(reloadClusters);
+        }
         Map<String, List<SortTaskInfo>> clusterTaskMap = tasks.stream()
                 .filter(dto -> dto.getSortClusterName() != null)
                 .collect(Collectors.groupingBy(SortTaskInfo::getSortClusterName));
 
-        // get all id params and group by task
-        List<SortIdInfo> idParams = streamSinkEntityMapper.selectAllIdParams();
+        // get id params of the tasks and group by task
+        List<String> taskNames = tasks.stream()
+                .map(SortTaskInfo::getSortTaskName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<SortIdInfo> idParams;
+        if (fullReload) {
+            idParams = streamSinkEntityMapper.selectAllIdParams();
+        } else if (taskNames.isEmpty()) {
+            idParams = Collections.emptyList();
+        } else {
+            idParams = streamSinkEntityMapper.selectIdParamsByTasks(taskNames);
+        }
         Map<String, List<SortIdInfo>> taskIdParamMap = idParams.stream()
                 .filter(dto -> dto.getSortTaskName() != null)
                 .collect(Collectors.groupingBy(SortIdInfo::getSortTaskName));
 
         // get all sink params and group by data node name
-        List<SortSinkInfo> sinkParams = dataNodeEntityMapper.selectAllSinkParams();
-        Map<String, SortSinkInfo> taskSinkParamMap = sinkParams.stream()
-                .filter(dto -> dto.getName() != null)
-                .collect(Collectors.toMap(SortSinkInfo::getName, param -> param));
-
-        // update config of each cluster
-        Map<String, SortClusterConfig> newConfigMap = new ConcurrentHashMap<>();
-        Map<String, String> newMd5Map = new ConcurrentHashMap<>();
-        Map<String, String> newErrorLogMap = new ConcurrentHashMap<>();
-        clusterTaskMap.forEach((clusterName, taskList) -> {
+        Map<String, SortSinkInfo> taskSinkParamMap = new HashMap<>();
+        if (!clusterTaskMap.isEmpty()) {
+            List<SortSinkInfo> sinkParams = dataNodeEntityMapper.selectAllSinkParams();
+            taskSinkParamMap = sinkParams.stream()
+                    .filter(dto -> dto.getName() != null)
+                    .collect(Collectors.toMap(SortSinkInfo::getName, param -> param));
+        }
+
+        // update config of each reloaded cluster
+        Map<String, ConfigEntry<SortClusterConfig>> newConfigMap = new HashMap<>();
+        Map<String, String> newErrorLogMap = new ConcurrentHashMap<>(sortClusterErrorLogMap);
+        newErrorLogMap.keySet().removeAll(reloadClusters);
+        newErrorLogMap.keySet().removeAll(removedClusters);
+        for (String clusterName : reloadClusters) {
+            List<SortTaskInfo> taskList = clusterTaskMap.get(clusterName);
+            if (taskList == null) {
+                // all sinks of the cluster are deleted
+                removedClusters.add(clusterName);
+                continue;
+            }
             try {
                 // get config, then update config map and md5
                 SortClusterConfig clusterConfig = getConfigByClusterName(clusterName, taskList, taskIdParamMap,
                         taskSinkParamMap);
                 String jsonStr = GSON.toJson(clusterConfig);
                 String md5 = DigestUtils.md5Hex(jsonStr);
-                newConfigMap.put(clusterName, clusterConfig);
-                newMd5Map.put(clusterName, md5);
+                newConfigMap.put(clusterName, new ConfigEntry<>(clusterConfig, md5, getTaskJsons(clusterConfig)));
             } catch (Throwable e) {
-                // if get config failed, update the err log.
+                // if get config failed, update the err log, and reload it in the next round.
                 newErrorLogMap.put(clusterName, e.getMessage());
+                removedClusters.add(clusterName);
+                builtDigestMap.remove(clusterName);
                 LOGGER.error("Failed to update cluster config of {}, error is {}", clusterName, e.getMessage());
                 LOGGER.error(e.getMessage(), e);
             }
-        });
+        }
         sortClusterErrorLogMap = newErrorLogMap;
-        sortClusterConfigMap = newConfigMap;
-        sortClusterMd5Map = newMd5Map;
+        sortClusterConfigCache.update(newConfigMap, removedClusters);
+        sortClusterDigestMap = builtDigestMap;
+        dataNodeDigest = newDataNodeDigest;
+        LOGGER.debug("reload config of sort clusters {}, remove config of sort clusters {}",
+                newConfigMap.keySet(), removedClusters);
+    }
+
+    /**
+     * Get the json of tasks in the cluster config, used to find the changed tasks.
+     *
+     * @param clusterConfig Cluster config.
+     * @return Task jsons, key is task name.
+     */
+    private Map<String, String> getTaskJsons(SortClusterConfig clusterConfig) {
+        Map<String, List<SortTaskConfig>> nameTaskMap = new LinkedHashMap<>();
+        for (SortTaskConfig task : clusterConfig.getSortTasks()) {
+            nameTaskMap.computeIfAbsent(task.getName(), k -> new ArrayList<>()).add(task);
+        }
+        Map<String, String> taskJsons = new HashMap<>();
+        nameTaskMap.forEach((name, taskList) -> taskJsons.put(name, GSON.toJson(taskList)));
+        return taskJsons;
     }
 
     /**
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.manager.service.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned snapshots of the configs pulled by the components, such as the config of a sort cluster,
+ * a sort task or a proxy cluster. Each config is split into items which are diffed by their json,
+ * so the requests of a known version only get the changed items. The listeners are called after
+ * the config changes.
+ *
+ * @param <T> type of the config
+ */
+public class SortConfigCache<T> {
+
+    // the max count of recent changes kept for each config
+    public static final int MAX_CONFIG_CHANGE_SIZE = 16;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SortConfigCache.class);
+
+    // key: config key, value: config snapshot with the recent changes
+    private final Map<String, Snapshot<T>> snapshots = new ConcurrentHashMap<>();
+    // key: config key, value: listeners waiting for the config change
+    private final Map<String, Set<Runnable>> configListeners = new ConcurrentHashMap<>();
+    // the config version is increased when any config changes
+    private final AtomicLong configVersion = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Get the snapshot of the config, null if there is no config
+     */
+    public Snapshot<T> get(String key) {
+        return snapshots.get(key);
+    }
+
+    /**
+     * Get the md5 of the config, null if there is no config
+     */
+    public String getMd5(String key) {
+        Snapshot<T> snapshot = snapshots.get(key);
+        return snapshot == null ? null : snapshot.md5;
+    }
+
+    public Set<String> keys() {
+        return snapshots.keySet();
+    }
+
+    /**
+     * Replace the configs, then wake up the listeners of the changed configs.
+     *
+     * @param configs the reloaded configs, key: config key, value: config with md5 and items json
+     * @param removedKeys keys of the removed configs
+     */
+    public void update(Map<String, ConfigEntry<T>> configs, Collection<String> removedKeys) {
+        List<String> changedKeys = new ArrayList<>();
+        for (Entry<String, ConfigEntry<T>> entry : configs.entrySet()) {
+            ConfigEntry<T> config = entry.getValue();
+            Snapshot<T> oldSnapshot = snapshots.get(entry.getKey());
+            if (oldSnapshot != null && config.md5.equals(oldSnapshot.md5)) {
+                // not changed, keep the change log
+                continue;
+            }
+            snapshots.put(entry.getKey(), new Snapshot<>(config, configVersion.incrementAndGet(), oldSnapshot));
+            changedKeys.add(entry.getKey());
+        }
+        for (String key : removedKeys) {
+            if (snapshots.remove(key) != null) {
+                changedKeys.add(key);
+            }
+        }
+        for (String key : changedKeys) {
+            notifyConfigListeners(key);
+        }
+    }
+
+    /**
+     * Add the listener called once when the config changes
+     */
+    public void addConfigListener(String key, Runnable listener) {
+        configListeners.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    public void removeConfigListener(String key, Runnable listener) {
+        Set<Runnable> listeners = configListeners.get(key);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    private void notifyConfigListeners(String key) {
+        Set<Runnable> listeners = configListeners.get(key);
+        if (listeners == null) {
+            return;
+        }
+        for (Runnable listener : listeners) {
+            listeners.remove(listener);
+            try {
+                listener.run();
+            } catch (Exception e) {
+                LOGGER.error("fail to notify config change of {}", key, e);
+            }
+        }
+    }
+
+    /**
+     * The reloaded config, and the json of its items.
+     */
+    public static class ConfigEntry<T> {
+
+        private final T config;
+        private final String md5;
+        // key: item name, value: json of the item
+        private final Map<String, String> itemJsons;
+
+        public ConfigEntry(T config, String md5, Map<String, String> itemJsons) {
+            this.config = config;
+            this.md5 = md5;
+            this.itemJsons = itemJsons;
+        }
+    }
+
+    /**
+     * The config of one key, and the changes of the recent versions.
+     */
+    public static class Snapshot<T> {
+
+        private final T config;
+        private final String md5;
+        private final long version;
+        private final Map<String, String> itemJsons;
+        // the recent changes ordered by version, the last one is the change to this snapshot
+        private final List<ConfigChange> changes = new ArrayList<>();
+
+        Snapshot(ConfigEntry<T> entry, long version, Snapshot<T> previous) {
+            this.config = entry.config;
+            this.md5 = entry.md5;
+            this.itemJsons = entry.itemJsons;
+            this.version = version;
+            if (previous == null) {
+                return;
+            }
+            // diff with the previous snapshot
+            ConfigChange change = new ConfigChange(previous.version, previous.md5);
+            for (Entry<String, String> item : itemJsons.entrySet()) {
+                if (!item.getValue().equals(previous.itemJsons.get(item.getKey()))) {
+                    change.changedItems.add(item.getKey());
+                }
+            }
+            for (String item : previous.itemJsons.keySet()) {
+                if (!itemJsons.containsKey(item)) {
+                    change.removedItems.add(item);
+                }
+            }
+            changes.addAll(previous.changes);
+            changes.add(change);
+            while (changes.size() > MAX_CONFIG_CHANGE_SIZE) {
+                changes.remove(0);
+            }
+        }
+
+        public T getConfig() {
+            return config;
+        }
+
+        public String getMd5() {
+            return md5;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Get the changes since the base version, return null if the base version is unknown.
+         * The md5 is checked too, as the versions of different manager nodes are not the same.
+         */
+        public ConfigChange getDelta(String baseMd5, long baseVersion) {
+            int start = -1;
+            for (int i = 0; i < changes.size(); i++) {
+                ConfigChange change = changes.get(i);
+                if (change.baseVersion == baseVersion && change.baseMd5.equals(baseMd5)) {
+                    start = i;
+                    break;
+                }
+            }
+            if (start < 0) {
+                return null;
+            }
+            // merge the changes in order, the later change overwrites the earlier one
+            ConfigChange delta = new ConfigChange(baseVersion, baseMd5);
+            for (ConfigChange change : changes.subList(start, changes.size())) {
+                delta.changedItems.addAll(change.changedItems);
+                delta.removedItems.removeAll(change.changedItems);
+                delta.removedItems.addAll(change.removedItems);
+                delta.changedItems.removeAll(change.removedItems);
+            }
+            return delta;
+        }
+    }
+
+    /**
+     * The change of a config from the base version.
+     */
+    public static class ConfigChange {
+
+        private final long baseVersion;
+        private final String baseMd5;
+        private final Set<String> changedItems = new HashSet<>();
+        private final Set<String> removedItems = new HashSet<>();
+
+        ConfigChange(long baseVersion, String baseMd5) {
+            this.baseVersion = baseVersion;
+            this.baseMd5 = baseMd5;
+        }
+
+        public Set<String> getChangedItems() {
+            return changedItems;
+        }
+
+        public Set<String> getRemovedItems() {
+            return removedItems;
+        }
+    }
+}
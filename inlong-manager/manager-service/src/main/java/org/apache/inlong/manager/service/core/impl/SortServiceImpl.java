@@ -47,8 +47,49 @@ public class SortServiceImpl implements SortService {
         return sortClusterService.getClusterConfig(clusterName, md5);
     }
 
+    @Override
+    public SortClusterResponse getClusterConfig(String clusterName, String md5, Long version) {
+        return sortClusterService.getClusterConfig(clusterName, md5, version);
+    }
+
+    @Override
+    public String getClusterMd5(String clusterName) {
+        return sortClusterService.getClusterMd5(clusterName);
+    }
+
+    @Override
+    public void addClusterConfigListener(String clusterName, Runnable listener) {
+        sortClusterService.addConfigListener(clusterName, listener);
+    }
+
+    @Override
+    public void removeClusterConfigListener(String clusterName, Runnable listener) {
+        sortClusterService.removeConfigListener(clusterName, listener);
+    }
+
     @Override
     public SortSourceConfigResponse getSourceConfig(String clusterName, String sortTaskId, String md5) {
         return sortSourceService.getSourceConfig(clusterName, sortTaskId, md5);
     }
+
+    @Override
+    public SortSourceConfigResponse getSourceConfig(String clusterName, String sortTaskId, String md5,
+            Long version) {
+        return sortSourceService.getSourceConfig(clusterName, sortTaskId, md5, version);
+    }
+
+    @Override
+    public String getSourceMd5(String clusterName, String sortTaskId) {
+        return sortSourceService.getSourceMd5(clusterName, sortTaskId);
+    }
+
+    @Override
+    public void addSourceConfigListener(String clusterName, String sortTaskId, Runnable listener) {
+        sortSourceService.addConfigListener(clusterName, sortTaskId, listener);
+    }
+
+    @Override
+    public void removeSourceConfigListener(String clusterName, String sortTaskId, Runnable listener) {
+        sortSourceService.removeConfigListener(clusterName, sortTaskId, listener);
+    }
 }
@@ -28,10 +28,14 @@ import org.apache.inlong.manager.common.consts.MQType;
 import org.apache.inlong.manager.dao.mapper.InlongClusterEntityMapper;
 import org.apache.inlong.manager.dao.mapper.InlongGroupEntityMapper;
 import org.apache.inlong.manager.dao.mapper.StreamSinkEntityMapper;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceClusterInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceGroupInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceStreamInfo;
 import org.apache.inlong.manager.service.core.SortSourceService;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigChange;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigEntry;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.Snapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +46,8 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -79,17 +85,24 @@ public class SortSourceServiceImpl implements SortSourceService {
 
     private static final int RESPONSE_CODE_SUCCESS = 0;
     private static final int RESPONSE_CODE_NO_UPDATE = 1;
+    private static final int RESPONSE_CODE_DELTA = 2;
     private static final int RESPONSE_CODE_FAIL = -1;
     private static final int RESPONSE_CODE_REQ_PARAMS_ERROR = -101;
 
+    // reload the config of all clusters every these rounds, even if the digests are not changed
+    private static final int FULL_RELOAD_ROUNDS = 10;
+
     /**
-     * key 1: cluster name, key 2: task name, value : md5
+     * key 1: cluster name, key 2: task name, value : source config snapshot, items are the cache zones
      */
-    private Map<String, Map<String, String>> sortSourceMd5Map = new ConcurrentHashMap<>();
+    private final Map<String, SortConfigCache<CacheZoneConfig>> sortSourceConfigCaches = new ConcurrentHashMap<>();
     /**
-     * key 1: cluster name, key 2: task name, value : source config
+     * key : cluster name, value : digest of the sinks which the config is built from
      */
-    private Map<String, Map<String, CacheZoneConfig>> sortSourceConfigMap = new ConcurrentHashMap<>();
+    private Map<String, SortConfigDigest> sortClusterDigestMap = new HashMap<>();
+    private SortConfigDigest groupDigest;
+    private SortConfigDigest clusterDigest;
+    private int reloadRound = 0;
 
     @Autowired
     private InlongClusterEntityMapper clusterEntityMapper;
@@ -125,6 +138,15 @@ public class SortSourceServiceImpl implements SortSourceService {
             String cluster,
             String task,
             String md5) {
+        return getSourceConfig(cluster, task, md5, null);
+    }
+
+    @Override
+    public SortSourceConfigResponse getSourceConfig(
+            String cluster,
+            String task,
+            String md5,
+            Long version) {
 
         // if cluster or task are invalid
         if (StringUtils.isBlank(cluster) || StringUtils.isBlank(task)) {
@@ -137,7 +159,9 @@ public class SortSourceServiceImpl implements SortSourceService {
         }
 
         // if there is no config, but still return success
-        if (!sortSourceConfigMap.containsKey(cluster) || !sortSourceConfigMap.get(cluster).containsKey(task)) {
+        SortConfigCache<CacheZoneConfig> configCache = sortSourceConfigCaches.get(cluster);
+        Snapshot<CacheZoneConfig> snapshot = configCache == null ? null : configCache.get(task);
+        if (snapshot == null) {
             String errMsg = String.format("there is no valid source config of cluster %s, task %s", cluster, task);
             LOGGER.error(errMsg);
             return SortSourceConfigResponse.builder()
@@ -147,16 +171,18 @@ public class SortSourceServiceImpl implements SortSourceService {
         }
 
         // if the same md5
-        if (sortSourceMd5Map.get(cluster).get(task).equals(md5)) {
+        if (snapshot.getMd5().equals(md5)) {
             return SortSourceConfigResponse.builder()
                     .code(RESPONSE_CODE_NO_UPDATE)
                     .msg("No update")
                     .md5(md5)
+                    .version(snapshot.getVersion())
                     .build();
         }
 
         // if there is bad config
-        if (sortSourceConfigMap.get(cluster).get(task).getCacheZones().isEmpty()) {
+        CacheZoneConfig config = snapshot.getConfig();
+        if (config.getCacheZones().isEmpty()) {
             String errMsg = String.format("find empty cache zones of cluster %s, task %s, "
                     + "please check the manager log", cluster, task);
             LOGGER.error(errMsg);
@@ -166,31 +192,116 @@ public class SortSourceServiceImpl implements SortSourceService {
                     .build();
         }
 
+        // if the requested version is known, only return the changed cache zones
+        ConfigChange delta = md5 == null || version == null ? null : snapshot.getDelta(md5, version);
+        if (delta != null) {
+            Map<String, CacheZone> changedZones = config.getCacheZones().entrySet().stream()
+                    .filter(entry -> delta.getChangedItems().contains(entry.getKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            CacheZoneConfig deltaConfig = CacheZoneConfig.builder()
+                    .cacheZones(changedZones)
+                    .sortClusterName(config.getSortClusterName())
+                    .sortTaskId(config.getSortTaskId())
+                    .build();
+            return SortSourceConfigResponse.builder()
+                    .code(RESPONSE_CODE_DELTA)
+                    .msg("Success")
+                    .data(deltaConfig)
+                    .removedZoneNames(new ArrayList<>(delta.getRemovedItems()))
+                    .md5(snapshot.getMd5())
+                    .version(snapshot.getVersion())
+                    .build();
+        }
+
         return SortSourceConfigResponse.builder()
                 .code(RESPONSE_CODE_SUCCESS)
                 .msg("Success")
-                .data(sortSourceConfigMap.get(cluster).get(task))
-                .md5(sortSourceMd5Map.get(cluster).get(task))
+                .data(config)
+                .md5(snapshot.getMd5())
+                .version(snapshot.getVersion())
                 .build();
 
     }
 
-    private void reloadAllSourceConfig() {
+    @Override
+    public String getSourceMd5(String cluster, String task) {
+        SortConfigCache<CacheZoneConfig> configCache = sortSourceConfigCaches.get(cluster);
+        return configCache == null ? null : configCache.getMd5(task);
+    }
 
-        // get all streams.
-        List<SortSourceStreamInfo> allStreamInfos = streamSinkEntityMapper.selectAllStreams().stream()
-                .filter(dto -> dto.getSortClusterName() != null && dto.getSortTaskName() != null)
+    @Override
+    public void addConfigListener(String cluster, String task, Runnable listener) {
+        sortSourceConfigCaches.computeIfAbsent(cluster, k -> new SortConfigCache<>())
+                .addConfigListener(task, listener);
+    }
+
+    @Override
+    public void removeConfigListener(String cluster, String task, Runnable listener) {
+        SortConfigCache<CacheZoneConfig> configCache = sortSourceConfigCaches.get(cluster);
+        if (configCache != null) {
+            configCache.removeConfigListener(task, listener);
+        }
+    }
+
+    /**
+     * Reload the source config of the clusters whose sinks changed.
+     * All clusters are reloaded if the inlong groups or clusters changed, or every {@link #FULL_RELOAD_ROUNDS} rounds.
+     */
+    private synchronized void reloadAllSourceConfig() {
+        // get the digests before the config, so the change during the reload is found in the next round
+        SortConfigDigest newGroupDigest = inlongGroupEntityMapper.selectSortDigest();
+        SortConfigDigest newClusterDigest = clusterEntityMapper.selectSortDigest();
+        Map<String, SortConfigDigest> newDigestMap = streamSinkEntityMapper.selectSortClusterDigests().stream()
+                .filter(digest -> digest.getName() != null)
+                .collect(Collectors.toMap(SortConfigDigest::getName, digest -> digest));
+        boolean fullReload = reloadRound++ % FULL_RELOAD_ROUNDS == 0
+                || !Objects.equals(newGroupDigest, groupDigest)
+                || !Objects.equals(newClusterDigest, clusterDigest);
+        List<String> reloadClusters = newDigestMap.entrySet().stream()
+                .filter(entry -> fullReload || !entry.getValue().equals(sortClusterDigestMap.get(entry.getKey())))
+                .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
+        Map<String, SortConfigDigest> builtDigestMap = new HashMap<>(newDigestMap);
 
-        // convert to Map<clusterName, Map<taskName, List<groupId>>> format.
-        Map<String, Map<String, List<String>>> groupMap = new ConcurrentHashMap<>();
-        allStreamInfos.forEach(stream -> {
-            Map<String, List<String>> task2groupsMap =
-                    groupMap.computeIfAbsent(stream.getSortClusterName(), k -> new ConcurrentHashMap<>());
-            List<String> groupIdList =
-                    task2groupsMap.computeIfAbsent(stream.getSortTaskName(), k -> new ArrayList<>());
-            groupIdList.add(stream.getGroupId());
+        // remove the config of clusters without any sink
+        sortSourceConfigCaches.forEach((clusterName, configCache) -> {
+            if (!newDigestMap.containsKey(clusterName)) {
+                configCache.update(Collections.emptyMap(), configCache.keys());
+            }
         });
+        if (!reloadClusters.isEmpty()) {
+            reloadSourceConfig(reloadClusters, fullReload, builtDigestMap);
+        }
+
+        sortClusterDigestMap = builtDigestMap;
+        groupDigest = newGroupDigest;
+        clusterDigest = newClusterDigest;
+    }
+
+    /**
+     * Reload the source config of the given clusters.
+     *
+     * @param reloadClusters Clusters to reload.
+     * @param fullReload Whether all clusters are reloaded.
+     * @param builtDigestMap Digests of the built clusters, the cluster failed to build is removed.
+     */
+    private void reloadSourceConfig(
+            List<String> reloadClusters,
+            boolean fullReload,
+            Map<String, SortConfigDigest> builtDigestMap) {
+
+        // get streams of the clusters.
+        List<SortSourceStreamInfo> streamInfos = fullReload ? streamSinkEntityMapper.selectAllStreams()
+                : streamSinkEntityMapper.selectStreamsByClusters(reloadClusters);
+
+        // convert to Map<clusterName, Map<taskName, List<stream>>> format.
+        Map<String, Map<String, List<SortSourceStreamInfo>>> streamMap = new HashMap<>();
+        streamInfos.stream()
+                .filter(dto -> dto.getSortClusterName() != null && dto.getSortTaskName() != null)
+                .forEach(stream -> streamMap
+                        .computeIfAbsent(stream.getSortClusterName(), k -> new HashMap<>())
+                        .computeIfAbsent(stream.getSortTaskName(), k -> new ArrayList<>())
+                        .add(stream));
 
         // get all groups. group by group id.
         List<SortSourceGroupInfo> groupInfos = inlongGroupEntityMapper.selectAllGroups();
@@ -211,18 +322,20 @@ public class SortSourceServiceImpl implements SortSourceService {
         Map<String, SortSourceClusterInfo> name2ClusterInfos = clusterInfos.stream()
                 .collect(Collectors.toMap(SortSourceClusterInfo::getName, info -> info, (g1, g2) -> g1));
 
-        // Prepare CacheZones for each cluster and task
-        Map<String, Map<String, String>> newMd5Map = new ConcurrentHashMap<>();
-        Map<String, Map<String, CacheZoneConfig>> newConfigMap = new ConcurrentHashMap<>();
-        groupMap.forEach((clusterName, task2Group) -> {
+        // Prepare CacheZones for each reloaded cluster and task
+        for (String clusterName : reloadClusters) {
+            SortConfigCache<CacheZoneConfig> configCache =
+                    sortSourceConfigCaches.computeIfAbsent(clusterName, k -> new SortConfigCache<>());
+            Map<String, List<SortSourceStreamInfo>> task2Streams = streamMap.get(clusterName);
 
-            // if there is no matched cluster name, just skip
-            if (!name2ClusterInfos.containsKey(clusterName)) {
-                return;
+            // if there is no stream or no matched cluster name, remove the config
+            if (task2Streams == null || !name2ClusterInfos.containsKey(clusterName)) {
+                configCache.update(Collections.emptyMap(), configCache.keys());
+                continue;
             }
             // find valid mq cluster list
             String clusterTag = name2ClusterInfos.get(clusterName).getClusterTags();
-            final Map<String, List<SortSourceClusterInfo>> validClusterInfos = new ConcurrentHashMap<>();
+            final Map<String, List<SortSourceClusterInfo>> validClusterInfos = new HashMap<>();
             if (allTag2ClusterInfos.containsKey(clusterTag)) {
                 validClusterInfos.put(clusterTag, allTag2ClusterInfos.get(clusterTag));
             } else {
@@ -230,22 +343,21 @@ public class SortSourceServiceImpl implements SortSourceService {
             }
 
             // prepare the new config and md5
-            Map<String, CacheZoneConfig> task2Config = new ConcurrentHashMap<>();
-            Map<String, String> task2Md5 = new ConcurrentHashMap<>();
-
-            task2Group.forEach((task, groupList) -> {
-                // get topic properties under this cluster and task, group them by group id.
-                Map<String, Map<String, String>> group2topicProp = allStreamInfos.stream()
-                        .filter(stream -> stream.getSortTaskName().equals(task)
-                                && stream.getSortClusterName().equals(clusterName))
-                        .collect(Collectors.toMap(SortSourceStreamInfo::getGroupId,
-                                SortSourceStreamInfo::getExtParamsMap));
-
+            Map<String, ConfigEntry<CacheZoneConfig>> task2Config = new HashMap<>();
+            task2Streams.forEach((task, streams) -> {
                 Map<String, CacheZone> cacheZones;
                 try {
+                    // get topic properties under this cluster and task, group them by group id.
+                    List<String> groupList = streams.stream()
+                            .map(SortSourceStreamInfo::getGroupId)
+                            .collect(Collectors.toList());
+                    Map<String, Map<String, String>> group2topicProp = streams.stream()
+                            .collect(Collectors.toMap(SortSourceStreamInfo::getGroupId,
+                                    SortSourceStreamInfo::getExtParamsMap));
                     cacheZones = this.getCacheZones(groupList, allId2GroupInfos, validClusterInfos, group2topicProp);
                 } catch (Throwable t) {
-                    LOGGER.error("fail to get cacheZones of clusterName {}, task {}", clusterName, task);
+                    LOGGER.error("fail to get cacheZones of clusterName {}, task {}", clusterName, task, t);
+                    builtDigestMap.remove(clusterName);
                     return;
                 }
                 CacheZoneConfig config = CacheZoneConfig.builder()
@@ -255,16 +367,16 @@ public class SortSourceServiceImpl implements SortSourceService {
                         .build();
                 String jsonStr = GSON.toJson(config);
                 String md5 = DigestUtils.md5Hex(jsonStr);
-                task2Config.put(task, config);
-                task2Md5.put(task, md5);
+                Map<String, String> zoneJsons = new HashMap<>();
+                cacheZones.forEach((zoneName, zone) -> zoneJsons.put(zoneName, GSON.toJson(zone)));
+                task2Config.put(task, new ConfigEntry<>(config, md5, zoneJsons));
             });
 
-            newConfigMap.put(clusterName, task2Config);
-            newMd5Map.put(clusterName, task2Md5);
-        });
-
-        sortSourceConfigMap = newConfigMap;
-        sortSourceMd5Map = newMd5Map;
+            List<String> removedTasks = configCache.keys().stream()
+                    .filter(task -> !task2Config.containsKey(task))
+                    .collect(Collectors.toList());
+            configCache.update(task2Config, removedTasks);
+        }
     }
 
     private Map<String, CacheZone> getCacheZones(
@@ -40,6 +40,7 @@ import org.apache.inlong.manager.pojo.dataproxy.InlongGroupId;
 import org.apache.inlong.manager.pojo.dataproxy.InlongStreamId;
 import org.apache.inlong.manager.pojo.dataproxy.ProxyCluster;
 import org.apache.inlong.manager.pojo.sink.SinkPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.common.util.CommonBeanUtils;
 import org.apache.inlong.manager.dao.entity.InlongClusterEntity;
 import org.apache.inlong.manager.dao.entity.InlongGroupEntity;
@@ -48,6 +49,10 @@ import org.apache.inlong.manager.dao.mapper.ClusterSetMapper;
 import org.apache.inlong.manager.dao.mapper.InlongClusterEntityMapper;
 import org.apache.inlong.manager.dao.mapper.InlongGroupEntityMapper;
 import org.apache.inlong.manager.dao.mapper.StreamSinkEntityMapper;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigChange;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigEntry;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.Snapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,14 +63,18 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.annotation.PostConstruct;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * DataProxyConfigRepository
@@ -87,12 +96,19 @@ public class DataProxyConfigRepository implements IRepository {
             .withKeyValueSeparator(KEY_VALUE_SEPARATOR);
     public static final String CACHE_CLUSTER_PRODUCER_TAG = "producer";
     public static final String CACHE_CLUSTER_CONSUMER_TAG = "consumer";
+    // the config of all proxy clusters is rebuilt every FULL_RELOAD_ROUNDS rounds
+    private static final int FULL_RELOAD_ROUNDS = 10;
     private static final Gson gson = new Gson();
 
-    // key: proxyClusterName, value: jsonString
-    private Map<String, String> proxyConfigJson = new ConcurrentHashMap<>();
-    // key: proxyClusterName, value: md5
-    private Map<String, String> proxyMd5Map = new ConcurrentHashMap<>();
+    // key: proxyClusterName, value: config snapshot with the recent changes
+    private final SortConfigCache<ProxyClusterConfig> proxyConfigCache = new SortConfigCache<>();
+    // key: cluster tag, value: digest of the rows of the cluster tag
+    private Map<String, SortConfigDigest> clusterDigestMap = new HashMap<>();
+    private Map<String, SortConfigDigest> groupDigestMap = new HashMap<>();
+    private Map<String, SortConfigDigest> streamDigestMap = new HashMap<>();
+    // key: cluster tag, value: backup cluster tags of the groups of the cluster tag
+    private Map<String, Set<String>> backupTagMap = new HashMap<>();
+    private int reloadRound = 0;
 
     private long reloadInterval;
 
@@ -190,18 +206,39 @@ public class DataProxyConfigRepository implements IRepository {
     }
 
     /**
-     * reload
+     * Reload the config of the proxy clusters whose cluster tag changed.
+     * All proxy clusters are rebuilt every {@link #FULL_RELOAD_ROUNDS} rounds.
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void reload() {
+    public synchronized void reload() {
         LOGGER.info("start to reload config.");
+        // get the digests before the config, so the change during the reload is found in the next round
+        Map<String, SortConfigDigest> newClusterDigests = toDigestMap(clusterSetMapper.selectClusterDigests());
+        Map<String, SortConfigDigest> newGroupDigests = toDigestMap(clusterSetMapper.selectGroupDigests());
+        Map<String, SortConfigDigest> newStreamDigests = toDigestMap(clusterSetMapper.selectStreamDigests());
+        boolean fullReload = reloadRound++ % FULL_RELOAD_ROUNDS == 0;
+        Set<String> changedTags = new HashSet<>();
+        this.findChangedTags(newClusterDigests, clusterDigestMap, changedTags);
+        this.findChangedTags(newGroupDigests, groupDigestMap, changedTags);
+        this.findChangedTags(newStreamDigests, streamDigestMap, changedTags);
+        if (!fullReload && changedTags.isEmpty()) {
+            LOGGER.info("end to reload config, no cluster tag changed.");
+            return;
+        }
+
         Map<String, ProxyClusterObject> proxyClusterMap = this.reloadProxyCluster();
         if (proxyClusterMap.size() == 0) {
             return;
         }
         Map<String, Map<String, List<CacheCluster>>> cacheClusterMap = this.reloadCacheCluster();
-        Map<String, List<InLongIdObject>> inlongIdMap = this.reloadInlongId();
+        Map<String, Set<String>> newBackupTagMap = new HashMap<>();
+        Map<String, List<InLongIdObject>> inlongIdMap = this.reloadInlongId(newBackupTagMap);
+        // the inlongIds of a changed cluster tag may be backed up in other cluster tags
+        for (String clusterTag : new ArrayList<>(changedTags)) {
+            changedTags.addAll(backupTagMap.getOrDefault(clusterTag, Collections.emptySet()));
+            changedTags.addAll(newBackupTagMap.getOrDefault(clusterTag, Collections.emptySet()));
+        }
         // mapping inlongIdMap
         for (Entry<String, ProxyClusterObject> entry : proxyClusterMap.entrySet()) {
             String clusterTag = entry.getValue().getSetName();
@@ -212,9 +249,37 @@ public class DataProxyConfigRepository implements IRepository {
         }
 
         // generateClusterJson
-        this.generateClusterJson(proxyClusterMap, cacheClusterMap);
+        this.generateClusterJson(proxyClusterMap, cacheClusterMap, fullReload ? null : changedTags);
 
-        LOGGER.info("end to reload config.");
+        clusterDigestMap = newClusterDigests;
+        groupDigestMap = newGroupDigests;
+        streamDigestMap = newStreamDigests;
+        backupTagMap = newBackupTagMap;
+        LOGGER.info("end to reload config, fullReload={}, changedTags={}", fullReload, changedTags);
+    }
+
+    /**
+     * toDigestMap
+     */
+    private static Map<String, SortConfigDigest> toDigestMap(List<SortConfigDigest> digests) {
+        return digests.stream()
+                .filter(digest -> digest.getName() != null)
+                .collect(Collectors.toMap(SortConfigDigest::getName, digest -> digest));
+    }
+
+    /**
+     * Add the cluster tags whose digest is added, changed or removed
+     */
+    private void findChangedTags(Map<String, SortConfigDigest> newDigests, Map<String, SortConfigDigest> oldDigests,
+            Set<String> changedTags) {
+        newDigests.forEach((clusterTag, digest) -> {
+            if (!Objects.equals(digest, oldDigests.get(clusterTag))) {
+                changedTags.add(clusterTag);
+            }
+        });
+        oldDigests.keySet().stream()
+                .filter(clusterTag -> !newDigests.containsKey(clusterTag))
+                .forEach(changedTags::add);
     }
 
     /**
@@ -254,7 +319,7 @@ public class DataProxyConfigRepository implements IRepository {
     /**
      * reloadInlongId
      */
-    private Map<String, List<InLongIdObject>> reloadInlongId() {
+    private Map<String, List<InLongIdObject>> reloadInlongId(Map<String, Set<String>> backupTagMap) {
         // parse group
         Map<String, InlongGroupId> groupIdMap = new HashMap<>();
         clusterSetMapper.selectInlongGroupId().forEach(value -> groupIdMap.put(value.getInlongGroupId(), value));
@@ -269,7 +334,7 @@ public class DataProxyConfigRepository implements IRepository {
             Map<String, String> groupParams = this.getExtParams(groupIdObj.getExtParams());
             Map<String, String> streamParams = this.getExtParams(streamIdObj.getExtParams());
             this.parseMasterTopic(groupIdObj, streamIdObj, groupParams, streamParams, inlongIdMap);
-            this.parseBackupTopic(groupIdObj, streamIdObj, groupParams, streamParams, inlongIdMap);
+            this.parseBackupTopic(groupIdObj, streamIdObj, groupParams, streamParams, inlongIdMap, backupTagMap);
         }
         return inlongIdMap;
     }
@@ -333,7 +398,7 @@ public class DataProxyConfigRepository implements IRepository {
      */
     private void parseBackupTopic(InlongGroupId groupIdObj, InlongStreamId streamIdObj,
             Map<String, String> groupParams, Map<String, String> streamParams,
-            Map<String, List<InLongIdObject>> inlongIdMap) {
+            Map<String, List<InLongIdObject>> inlongIdMap, Map<String, Set<String>> backupTagMap) {
         Map<String, String> params = new HashMap<>();
         params.putAll(groupParams);
         params.putAll(streamParams);
@@ -342,6 +407,7 @@ public class DataProxyConfigRepository implements IRepository {
         if (StringUtils.isEmpty(clusterTag)) {
             return;
         }
+        backupTagMap.computeIfAbsent(groupIdObj.getClusterTag(), k -> new HashSet<>()).add(clusterTag);
         // find backup topic
         String groupTopic = groupParams.get(KEY_BACKUP_TOPIC);
         String streamTopic = streamParams.get(KEY_BACKUP_TOPIC);
@@ -381,20 +447,26 @@ public class DataProxyConfigRepository implements IRepository {
 
     /**
      * generateClusterJson
+     *
+     * @param changedTags the proxy clusters of these cluster tags are rebuilt, null to rebuild all
      */
     @SuppressWarnings("unchecked")
     private void generateClusterJson(Map<String, ProxyClusterObject> proxyClusterMap,
-            Map<String, Map<String, List<CacheCluster>>> cacheClusterMap) {
-        Map<String, String> newProxyConfigJson = new ConcurrentHashMap<>();
-        Map<String, String> newProxyMd5Map = new ConcurrentHashMap<>();
+            Map<String, Map<String, List<CacheCluster>>> cacheClusterMap, Set<String> changedTags) {
+        Map<String, ConfigEntry<ProxyClusterConfig>> configs = new HashMap<>();
         Map<String, Map<String, String>> tagCache = new HashMap<>();
         for (Entry<String, ProxyClusterObject> entry : proxyClusterMap.entrySet()) {
             ProxyClusterObject proxyObj = entry.getValue();
+            String clusterTag = proxyObj.getSetName();
+            if (changedTags != null && !changedTags.contains(clusterTag)
+                    && proxyConfigCache.get(proxyObj.getName()) != null) {
+                // the rows of the cluster tag are not changed
+                continue;
+            }
             // proxy
             DataProxyCluster clusterObj = new DataProxyCluster();
             clusterObj.setProxyCluster(proxyObj);
             // cache
-            String clusterTag = proxyObj.getSetName();
             String extTag = proxyObj.getZone();
             Map<String, List<CacheCluster>> cacheClusterZoneMap = cacheClusterMap.get(clusterTag);
             if (cacheClusterZoneMap != null) {
@@ -430,19 +502,18 @@ public class DataProxyConfigRepository implements IRepository {
             // json
             String jsonDataProxyCluster = gson.toJson(clusterObj);
             String md5 = DigestUtils.md5Hex(jsonDataProxyCluster);
-            DataProxyConfigResponse response = new DataProxyConfigResponse();
-            response.setResult(true);
-            response.setErrCode(DataProxyConfigResponse.SUCC);
-            response.setMd5(md5);
-            response.setData(clusterObj);
-            String jsonResponse = gson.toJson(response);
-            newProxyConfigJson.put(proxyObj.getName(), jsonResponse);
-            newProxyMd5Map.put(proxyObj.getName(), md5);
+            Map<String, String> inlongIdJsons = new HashMap<>();
+            for (InLongIdObject inlongIdObj : proxyObj.getInlongIds()) {
+                inlongIdJsons.merge(inlongIdObj.getInlongId(), gson.toJson(inlongIdObj), String::concat);
+            }
+            configs.put(proxyObj.getName(), new ConfigEntry<>(new ProxyClusterConfig(clusterObj), md5, inlongIdJsons));
         }
 
-        // replace
-        this.proxyConfigJson = newProxyConfigJson;
-        this.proxyMd5Map = newProxyMd5Map;
+        // replace, and wake up the requests waiting for the changed clusters
+        List<String> removedClusters = proxyConfigCache.keys().stream()
+                .filter(clusterName -> !proxyClusterMap.containsKey(clusterName))
+                .collect(Collectors.toList());
+        proxyConfigCache.update(configs, removedClusters);
     }
 
     /**
@@ -462,14 +533,87 @@ public class DataProxyConfigRepository implements IRepository {
      * getProxyMd5
      */
     public String getProxyMd5(String clusterName) {
-        return this.proxyMd5Map.get(clusterName);
+        return proxyConfigCache.getMd5(clusterName);
+    }
+
+    /**
+     * getProxyVersion
+     */
+    public Long getProxyVersion(String clusterName) {
+        Snapshot<ProxyClusterConfig> snapshot = proxyConfigCache.get(clusterName);
+        return snapshot == null ? null : snapshot.getVersion();
     }
 
     /**
      * getProxyConfigJson
      */
     public String getProxyConfigJson(String clusterName) {
-        return this.proxyConfigJson.get(clusterName);
+        Snapshot<ProxyClusterConfig> snapshot = proxyConfigCache.get(clusterName);
+        return snapshot == null ? null : snapshot.getConfig().getResponseJson(snapshot);
+    }
+
+    /**
+     * Get the config of the proxy cluster since the given version. If the version and md5 are found in
+     * the recent changes, only the changed inlongIds are returned, otherwise the whole config is returned.
+     */
+    public String getProxyConfigJson(String clusterName, String md5, Long version) {
+        Snapshot<ProxyClusterConfig> snapshot = proxyConfigCache.get(clusterName);
+        if (snapshot == null) {
+            return null;
+        }
+        ConfigChange delta = md5 == null || version == null ? null : snapshot.getDelta(md5, version);
+        if (delta != null) {
+            return this.getDeltaJson(snapshot, delta);
+        }
+        return snapshot.getConfig().getResponseJson(snapshot);
+    }
+
+    /**
+     * getDeltaJson, the response only contains the changed inlongIds
+     */
+    private String getDeltaJson(Snapshot<ProxyClusterConfig> snapshot, ConfigChange delta) {
+        DataProxyCluster config = snapshot.getConfig().getConfig();
+        ProxyClusterObject proxyObj = config.getProxyCluster();
+        ProxyClusterObject deltaProxyObj = new ProxyClusterObject();
+        deltaProxyObj.setName(proxyObj.getName());
+        deltaProxyObj.setSetName(proxyObj.getSetName());
+        deltaProxyObj.setZone(proxyObj.getZone());
+        deltaProxyObj.setChannels(proxyObj.getChannels());
+        deltaProxyObj.setSources(proxyObj.getSources());
+        deltaProxyObj.setSinks(proxyObj.getSinks());
+        List<InLongIdObject> inlongIds = new ArrayList<>();
+        for (InLongIdObject inlongIdObj : proxyObj.getInlongIds()) {
+            if (delta.getChangedItems().contains(inlongIdObj.getInlongId())) {
+                inlongIds.add(inlongIdObj);
+            }
+        }
+        deltaProxyObj.setInlongIds(inlongIds);
+        DataProxyCluster deltaConfig = new DataProxyCluster();
+        deltaConfig.setProxyCluster(deltaProxyObj);
+        deltaConfig.setCacheClusterSet(config.getCacheClusterSet());
+
+        DataProxyConfigResponse response = new DataProxyConfigResponse();
+        response.setResult(true);
+        response.setErrCode(DataProxyConfigResponse.DELTA);
+        response.setMd5(snapshot.getMd5());
+        response.setVersion(snapshot.getVersion());
+        response.setData(deltaConfig);
+        response.setRemovedInlongIds(new ArrayList<>(delta.getRemovedItems()));
+        return gson.toJson(response);
+    }
+
+    /**
+     * Add the listener called when the config of the proxy cluster changes
+     */
+    public void addConfigListener(String clusterName, Runnable listener) {
+        proxyConfigCache.addConfigListener(clusterName, listener);
+    }
+
+    /**
+     * removeConfigListener
+     */
+    public void removeConfigListener(String clusterName, Runnable listener) {
+        proxyConfigCache.removeConfigListener(clusterName, listener);
     }
 
     /**
@@ -665,4 +809,34 @@ public class DataProxyConfigRepository implements IRepository {
         });
         return inlongGroupId;
     }
+
+    /**
+     * The config of one proxy cluster, and the whole response json built on the first request.
+     */
+    private static class ProxyClusterConfig {
+
+        private final DataProxyCluster config;
+        private volatile String responseJson;
+
+        ProxyClusterConfig(DataProxyCluster config) {
+            this.config = config;
+        }
+
+        DataProxyCluster getConfig() {
+            return config;
+        }
+
+        String getResponseJson(Snapshot<ProxyClusterConfig> snapshot) {
+            if (responseJson == null) {
+                DataProxyConfigResponse response = new DataProxyConfigResponse();
+                response.setResult(true);
+                response.setErrCode(DataProxyConfigResponse.SUCC);
+                response.setMd5(snapshot.getMd5());
+                response.setVersion(snapshot.getVersion());
+                response.setData(config);
+                responseJson = gson.toJson(response);
+            }
+            return responseJson;
+        }
+    }
 }
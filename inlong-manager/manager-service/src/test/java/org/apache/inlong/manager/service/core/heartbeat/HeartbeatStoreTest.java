@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.manager.service.core.heartbeat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.inlong.manager.dao.entity.ComponentHeartbeatEntity;
+import org.apache.inlong.manager.dao.entity.GroupHeartbeatEntity;
+import org.apache.inlong.manager.dao.entity.StreamHeartbeatEntity;
+import org.apache.inlong.manager.dao.mapper.ComponentHeartbeatEntityMapper;
+import org.apache.inlong.manager.dao.mapper.GroupHeartbeatEntityMapper;
+import org.apache.inlong.manager.dao.mapper.StreamHeartbeatEntityMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * Load test of {@link HeartbeatStore}, simulates the heartbeats of 10k nodes.
+ */
+@Slf4j
+public class HeartbeatStoreTest {
+
+    private static final int NODE_COUNT = 10000;
+    private static final int GROUP_PER_NODE = 2;
+    private static final int STREAM_PER_GROUP = 2;
+    private static final int REPORT_ROUNDS = 5;
+    private static final int BATCH_SIZE = 500;
+
+    private final AtomicInteger componentCalls = new AtomicInteger();
+    private final AtomicInteger componentRows = new AtomicInteger();
+    private final AtomicInteger groupRows = new AtomicInteger();
+    private final AtomicInteger streamRows = new AtomicInteger();
+
+    private ComponentHeartbeatEntityMapper componentMapper;
+    private HeartbeatStore heartbeatStore;
+
+    @BeforeEach
+    public void setUp() {
+        componentMapper = Mockito.mock(ComponentHeartbeatEntityMapper.class);
+        GroupHeartbeatEntityMapper groupMapper = Mockito.mock(GroupHeartbeatEntityMapper.class);
+        StreamHeartbeatEntityMapper streamMapper = Mockito.mock(StreamHeartbeatEntityMapper.class);
+        Mockito.when(componentMapper.insertOrUpdateBatch(anyList())).thenAnswer(invocation -> {
+            List<?> list = invocation.getArgument(0);
+            Assertions.assertTrue(list.size() <= BATCH_SIZE);
+            componentCalls.incrementAndGet();
+            componentRows.addAndGet(list.size());
+            return list.size();
+        });
+        Mockito.when(groupMapper.insertOrUpdateBatch(anyList())).thenAnswer(invocation -> {
+            List<?> list = invocation.getArgument(0);
+            groupRows.addAndGet(list.size());
+            return list.size();
+        });
+        Mockito.when(streamMapper.insertOrUpdateBatch(anyList())).thenAnswer(invocation -> {
+            List<?> list = invocation.getArgument(0);
+            streamRows.addAndGet(list.size());
+            return list.size();
+        });
+
+        heartbeatStore = new HeartbeatStore();
+        ReflectionTestUtils.setField(heartbeatStore, "flushIntervalMs", 3600000L);
+        ReflectionTestUtils.setField(heartbeatStore, "flushBatchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(heartbeatStore, "componentHeartbeatMapper", componentMapper);
+        ReflectionTestUtils.setField(heartbeatStore, "groupHeartbeatMapper", groupMapper);
+        ReflectionTestUtils.setField(heartbeatStore, "streamHeartbeatMapper", streamMapper);
+        heartbeatStore.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        heartbeatStore.close();
+    }
+
+    @Test
+    public void testCoalesceHeartbeatsOf10kNodes() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        long startTime = System.currentTimeMillis();
+        for (int round = 1; round <= REPORT_ROUNDS; round++) {
+            final long reportTime = round;
+            for (int node = 0; node < NODE_COUNT; node++) {
+                final String instance = "10.0." + (node / 256) + "." + (node % 256);
+                executor.execute(() -> reportHeartbeat(instance, reportTime));
+            }
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        long reportCost = System.currentTimeMillis() - startTime;
+
+        int groupCount = NODE_COUNT * GROUP_PER_NODE;
+        int streamCount = groupCount * STREAM_PER_GROUP;
+        Assertions.assertEquals(NODE_COUNT + groupCount + streamCount, heartbeatStore.getDirtyCount());
+        // served from memory before flushing
+        ComponentHeartbeatEntity component = heartbeatStore.getComponentHeartbeat("Agent", "10.0.0.1");
+        Assertions.assertEquals(REPORT_ROUNDS, (long) component.getReportTime());
+        StreamHeartbeatEntity stream = heartbeatStore.getStreamHeartbeat("Agent", "10.0.0.1", "group_1", "stream_1");
+        Assertions.assertEquals(REPORT_ROUNDS, (long) stream.getReportTime());
+
+        startTime = System.currentTimeMillis();
+        heartbeatStore.flush();
+        long flushCost = System.currentTimeMillis() - startTime;
+        log.info("report {} heartbeats of {} nodes cost {} ms, flush cost {} ms",
+                REPORT_ROUNDS * NODE_COUNT, NODE_COUNT, reportCost, flushCost);
+
+        // each key is written once, in batches
+        Assertions.assertEquals(0, heartbeatStore.getDirtyCount());
+        Assertions.assertEquals(NODE_COUNT, componentRows.get());
+        Assertions.assertEquals(NODE_COUNT / BATCH_SIZE, componentCalls.get());
+        Assertions.assertEquals(groupCount, groupRows.get());
+        Assertions.assertEquals(streamCount, streamRows.get());
+    }
+
+    @Test
+    public void testRetryFailedBatch() {
+        Mockito.when(componentMapper.insertOrUpdateBatch(anyList())).thenThrow(new RuntimeException("db error"));
+        ComponentHeartbeatEntity entity = new ComponentHeartbeatEntity();
+        entity.setComponent("Agent");
+        entity.setInstance("127.0.0.1");
+        entity.setReportTime(1L);
+        heartbeatStore.putComponentHeartbeat(entity);
+        heartbeatStore.flush();
+        Assertions.assertEquals(1, heartbeatStore.getDirtyCount());
+
+        // the older heartbeat does not overwrite the newer one
+        ComponentHeartbeatEntity older = new ComponentHeartbeatEntity();
+        older.setComponent("Agent");
+        older.setInstance("127.0.0.1");
+        older.setReportTime(0L);
+        heartbeatStore.putComponentHeartbeat(older);
+        Assertions.assertEquals(1L, (long) heartbeatStore.getComponentHeartbeat("Agent", "127.0.0.1")
+                .getReportTime());
+    }
+
+    private void reportHeartbeat(String instance, long reportTime) {
+        ComponentHeartbeatEntity component = new ComponentHeartbeatEntity();
+        component.setComponent("Agent");
+        component.setInstance(instance);
+        component.setReportTime(reportTime);
+        heartbeatStore.putComponentHeartbeat(component);
+        for (int i = 0; i < GROUP_PER_NODE; i++) {
+            GroupHeartbeatEntity group = new GroupHeartbeatEntity();
+            group.setComponent("Agent");
+            group.setInstance(instance);
+            group.setInlongGroupId("group_" + i);
+            group.setStatusHeartbeat("running");
+            group.setReportTime(reportTime);
+            heartbeatStore.putGroupHeartbeat(group);
+            for (int j = 0; j < STREAM_PER_GROUP; j++) {
+                StreamHeartbeatEntity stream = new StreamHeartbeatEntity();
+                stream.setComponent("Agent");
+                stream.setInstance(instance);
+                stream.setInlongGroupId(group.getInlongGroupId());
+                stream.setInlongStreamId("stream_" + j);
+                stream.setStatusHeartbeat("running");
+                stream.setReportTime(reportTime);
+                heartbeatStore.putStreamHeartbeat(stream);
+            }
+        }
+    }
+
+}
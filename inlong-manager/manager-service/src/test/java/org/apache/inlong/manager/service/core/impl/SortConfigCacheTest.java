@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.manager.service.core.impl;
+
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigChange;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.ConfigEntry;
+import org.apache.inlong.manager.service.core.impl.SortConfigCache.Snapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link SortConfigCache}
+ */
+public class SortConfigCacheTest {
+
+    private static final String CLUSTER = "testCluster";
+
+    @Test
+    public void testConfigDelta() {
+        SortConfigCache<String> cache = new SortConfigCache<>();
+        Map<String, String> items = new HashMap<>();
+        items.put("task1", "v1");
+        items.put("task2", "v1");
+        cache.update(this.createConfig(items), Collections.emptyList());
+        Snapshot<String> snapshot = cache.get(CLUSTER);
+        String md5 = snapshot.getMd5();
+        long version = snapshot.getVersion();
+        AtomicInteger notifyCount = new AtomicInteger(0);
+        cache.addConfigListener(CLUSTER, notifyCount::incrementAndGet);
+
+        // not changed
+        cache.update(this.createConfig(items), Collections.emptyList());
+        Assertions.assertEquals(version, cache.get(CLUSTER).getVersion());
+        Assertions.assertEquals(0, notifyCount.get());
+
+        // change task 2, remove task 1 and add task 3
+        items.put("task2", "v2");
+        items.remove("task1");
+        items.put("task3", "v1");
+        cache.update(this.createConfig(items), Collections.emptyList());
+        Assertions.assertEquals(1, notifyCount.get());
+        snapshot = cache.get(CLUSTER);
+        ConfigChange delta = snapshot.getDelta(md5, version);
+        Assertions.assertNotNull(delta);
+        Assertions.assertEquals(2, delta.getChangedItems().size());
+        Assertions.assertTrue(delta.getChangedItems().contains("task2"));
+        Assertions.assertTrue(delta.getChangedItems().contains("task3"));
+        Assertions.assertEquals(Collections.singleton("task1"), delta.getRemovedItems());
+
+        // add task 1 back, the merged delta does not remove it
+        items.put("task1", "v2");
+        cache.update(this.createConfig(items), Collections.emptyList());
+        delta = cache.get(CLUSTER).getDelta(md5, version);
+        Assertions.assertEquals(3, delta.getChangedItems().size());
+        Assertions.assertTrue(delta.getRemovedItems().isEmpty());
+
+        // unknown version or md5, get the whole config
+        Assertions.assertNull(cache.get(CLUSTER).getDelta(md5, version - 1));
+        Assertions.assertNull(cache.get(CLUSTER).getDelta("unknown", version));
+    }
+
+    @Test
+    public void testRemoveConfig() {
+        SortConfigCache<String> cache = new SortConfigCache<>();
+        cache.update(this.createConfig(Collections.singletonMap("task1", "v1")), Collections.emptyList());
+        AtomicInteger notifyCount = new AtomicInteger(0);
+        Runnable listener = notifyCount::incrementAndGet;
+        cache.addConfigListener(CLUSTER, listener);
+        cache.update(Collections.emptyMap(), Collections.singletonList(CLUSTER));
+        Assertions.assertNull(cache.get(CLUSTER));
+        Assertions.assertNull(cache.getMd5(CLUSTER));
+        Assertions.assertEquals(1, notifyCount.get());
+
+        // the listener is called only once
+        cache.update(this.createConfig(Collections.singletonMap("task1", "v1")), Collections.emptyList());
+        Assertions.assertEquals(1, notifyCount.get());
+    }
+
+    private Map<String, ConfigEntry<String>> createConfig(Map<String, String> items) {
+        String config = new TreeMap<>(items).toString();
+        Map<String, ConfigEntry<String>> configs = new HashMap<>();
+        configs.put(CLUSTER, new ConfigEntry<>(config, Integer.toHexString(config.hashCode()), new HashMap<>(items)));
+        return configs;
+    }
+}
@@ -17,10 +17,18 @@
 
 package org.apache.inlong.manager.service.repository;
 
+import com.google.gson.Gson;
+import org.apache.inlong.common.pojo.dataproxy.DataProxyConfigResponse;
+import org.apache.inlong.manager.pojo.dataproxy.CacheCluster;
+import org.apache.inlong.manager.pojo.dataproxy.InlongGroupId;
+import org.apache.inlong.manager.pojo.dataproxy.InlongStreamId;
+import org.apache.inlong.manager.pojo.dataproxy.ProxyCluster;
 import org.apache.inlong.manager.pojo.sink.SinkPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigDigest;
 import org.apache.inlong.manager.dao.entity.InlongClusterEntity;
 import org.apache.inlong.manager.dao.entity.InlongGroupEntity;
 import org.apache.inlong.manager.dao.entity.StreamSinkEntity;
+import org.apache.inlong.manager.dao.mapper.ClusterSetMapper;
 import org.apache.inlong.manager.dao.mapper.InlongClusterEntityMapper;
 import org.apache.inlong.manager.dao.mapper.InlongGroupEntityMapper;
 import org.apache.inlong.manager.dao.mapper.StreamSinkEntityMapper;
@@ -31,7 +39,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -56,6 +67,7 @@ public class DataProxyConfigRepositoryTest {
     private static final String CLS_CLUSTER_OLD = "cls_old";
     private static final String CLS_DATA_NODE_NEW = "sid_cls_new";
     private static final String CLS_DATA_NODE_OLD = "sid_cls_old";
+    private static final String PROXY_CLUSTER = "dp_1";
 
     @Test
     public void testChangeClusterTag() {
@@ -186,4 +198,81 @@ public class DataProxyConfigRepositoryTest {
         String inlongGroupId = repository.removeBackupClusterTag(INLONG_GROUP_ID);
         assertEquals(INLONG_GROUP_ID, inlongGroupId);
     }
+
+    @Test
+    public void testGetConfigDelta() {
+        final DataProxyConfigRepository repository = new DataProxyConfigRepository();
+        final List<InlongStreamId> streamIds = new ArrayList<>();
+        streamIds.add(this.createStreamId("1"));
+        streamIds.add(this.createStreamId("2"));
+        final List<SortConfigDigest> streamDigests = new ArrayList<>();
+        streamDigests.add(this.createDigest(2L, 1000L));
+        repository.setClusterSetMapper(this.mockClusterSetMapper(streamIds, streamDigests));
+        repository.reload();
+        final String md5 = repository.getProxyMd5(PROXY_CLUSTER);
+        final Long version = repository.getProxyVersion(PROXY_CLUSTER);
+        final AtomicInteger notifyCount = new AtomicInteger(0);
+        repository.addConfigListener(PROXY_CLUSTER, notifyCount::incrementAndGet);
+        // not changed
+        repository.reload();
+        assertEquals(version, repository.getProxyVersion(PROXY_CLUSTER));
+        assertEquals(0, notifyCount.get());
+        // change stream 2, remove stream 1 and add stream 3
+        streamIds.get(1).setTopic("t_changed");
+        streamIds.remove(0);
+        streamIds.add(this.createStreamId("3"));
+        // not rebuilt before the digest changes
+        repository.reload();
+        assertEquals(version, repository.getProxyVersion(PROXY_CLUSTER));
+        streamDigests.set(0, this.createDigest(3L, 2000L));
+        repository.reload();
+        assertEquals(1, notifyCount.get());
+        Gson gson = new Gson();
+        DataProxyConfigResponse response = gson.fromJson(
+                repository.getProxyConfigJson(PROXY_CLUSTER, md5, version), DataProxyConfigResponse.class);
+        assertEquals(DataProxyConfigResponse.DELTA, response.getErrCode());
+        assertEquals(repository.getProxyMd5(PROXY_CLUSTER), response.getMd5());
+        assertEquals(2, response.getData().getProxyCluster().getInlongIds().size());
+        assertEquals(Collections.singletonList(INLONG_GROUP_ID + ".1"), response.getRemovedInlongIds());
+        // unknown version, get the whole config
+        response = gson.fromJson(
+                repository.getProxyConfigJson(PROXY_CLUSTER, md5, version - 1), DataProxyConfigResponse.class);
+        assertEquals(DataProxyConfigResponse.SUCC, response.getErrCode());
+        assertEquals(2, response.getData().getProxyCluster().getInlongIds().size());
+    }
+
+    private InlongStreamId createStreamId(String streamId) {
+        InlongStreamId streamIdObj = new InlongStreamId();
+        streamIdObj.setInlongGroupId(INLONG_GROUP_ID);
+        streamIdObj.setInlongStreamId(streamId);
+        streamIdObj.setTopic("t_" + streamId);
+        return streamIdObj;
+    }
+
+    private SortConfigDigest createDigest(long count, long modifyTime) {
+        SortConfigDigest digest = new SortConfigDigest();
+        digest.setName(CLUSTER_TAG_OLD);
+        digest.setCount(count);
+        digest.setModifyTime(new Date(modifyTime));
+        return digest;
+    }
+
+    private ClusterSetMapper mockClusterSetMapper(List<InlongStreamId> streamIds,
+            List<SortConfigDigest> streamDigests) {
+        ProxyCluster proxyCluster = new ProxyCluster();
+        proxyCluster.setClusterName(PROXY_CLUSTER);
+        proxyCluster.setClusterTag(CLUSTER_TAG_OLD);
+        proxyCluster.setExtTag("sz=true");
+        InlongGroupId groupId = new InlongGroupId();
+        groupId.setInlongGroupId(INLONG_GROUP_ID);
+        groupId.setClusterTag(CLUSTER_TAG_OLD);
+        groupId.setTopic(TOPIC_OLD);
+        ClusterSetMapper mapper = PowerMockito.mock(ClusterSetMapper.class);
+        PowerMockito.when(mapper.selectProxyCluster()).thenReturn(Collections.singletonList(proxyCluster));
+        PowerMockito.when(mapper.selectCacheCluster()).thenReturn(new ArrayList<CacheCluster>());
+        PowerMockito.when(mapper.selectInlongGroupId()).thenReturn(Collections.singletonList(groupId));
+        PowerMockito.when(mapper.selectInlongStreamId()).thenReturn(streamIds);
+        PowerMockito.when(mapper.selectStreamDigests()).thenAnswer(invocation -> new ArrayList<>(streamDigests));
+        return mapper;
+    }
 }
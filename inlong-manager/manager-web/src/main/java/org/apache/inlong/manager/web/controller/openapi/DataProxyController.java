@@ -35,6 +35,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 /**
  * Data proxy controller.
@@ -44,6 +45,9 @@ import org.springframework.web.bind.annotation.RestController;
 @Api(tags = "Open-DataProxy-API")
 public class DataProxyController {
 
+    // the max time to hold the getAllConfig request when the config is not changed
+    private static final long MAX_CONFIG_WAIT_MS = 60000L;
+
     @Autowired
     @Lazy
     private InlongClusterService clusterService;
@@ -68,8 +72,26 @@ public class DataProxyController {
 
     @PostMapping("/dataproxy/getAllConfig")
     @ApiOperation(value = "Get all proxy config")
-    public String getAllConfig(@RequestBody DataProxyConfigRequest request) {
-        return clusterService.getAllConfig(request.getClusterName(), request.getMd5());
+    public DeferredResult<String> getAllConfig(@RequestBody DataProxyConfigRequest request) {
+        final String clusterName = request.getClusterName();
+        final String md5 = request.getMd5();
+        final Long version = request.getVersion();
+        long waitMs = request.getWaitMs() == null ? 0 : Math.min(request.getWaitMs(), MAX_CONFIG_WAIT_MS);
+        final DeferredResult<String> result = new DeferredResult<>(waitMs > 0 ? waitMs : null);
+        if (waitMs <= 0 || md5 == null || !md5.equals(dataProxyConfigRepository.getProxyMd5(clusterName))) {
+            result.setResult(clusterService.getAllConfig(clusterName, md5, version));
+            return result;
+        }
+        // hold the request until the config changes or the wait time is over
+        final Runnable listener = () -> result.setResult(clusterService.getAllConfig(clusterName, md5, version));
+        dataProxyConfigRepository.addConfigListener(clusterName, listener);
+        result.onCompletion(() -> dataProxyConfigRepository.removeConfigListener(clusterName, listener));
+        result.onTimeout(listener);
+        // the config may change before the listener is added
+        if (!md5.equals(dataProxyConfigRepository.getProxyMd5(clusterName))) {
+            listener.run();
+        }
+        return result;
     }
 
     @RequestMapping(value = "/changeClusterTag", method = RequestMethod.PUT)
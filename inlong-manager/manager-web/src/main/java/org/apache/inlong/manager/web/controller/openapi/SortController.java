@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 /**
  * Sort controller.
@@ -36,24 +37,62 @@ import org.springframework.web.bind.annotation.RestController;
 @Api(tags = "Open-Sort-API")
 public class SortController {
 
+    // the max time to hold a config request until the config changes
+    private static final long MAX_CONFIG_WAIT_MS = 60000L;
+
     @Autowired
     private SortService sortService;
 
     @GetMapping("/sort/getClusterConfig")
     @ApiOperation(value = "get sort cluster config")
-    public SortClusterResponse getSortClusterConfig(
+    public DeferredResult<SortClusterResponse> getSortClusterConfig(
             @RequestParam String clusterName,
-            @RequestParam String md5) {
-        return sortService.getClusterConfig(clusterName, md5);
+            @RequestParam String md5,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) Long waitMs) {
+        long waitTime = waitMs == null ? 0 : Math.min(waitMs, MAX_CONFIG_WAIT_MS);
+        final DeferredResult<SortClusterResponse> result = new DeferredResult<>(waitTime > 0 ? waitTime : null);
+        if (waitTime <= 0 || !md5.equals(sortService.getClusterMd5(clusterName))) {
+            result.setResult(sortService.getClusterConfig(clusterName, md5, version));
+            return result;
+        }
+        // hold the request until the config changes or the wait time is over
+        final Runnable listener = () -> result.setResult(sortService.getClusterConfig(clusterName, md5, version));
+        sortService.addClusterConfigListener(clusterName, listener);
+        result.onCompletion(() -> sortService.removeClusterConfigListener(clusterName, listener));
+        result.onTimeout(listener);
+        // the config may change before the listener is added
+        if (!md5.equals(sortService.getClusterMd5(clusterName))) {
+            listener.run();
+        }
+        return result;
     }
 
     @GetMapping("/sort/getSortSource")
     @ApiOperation(value = "get sort sdk config")
-    public SortSourceConfigResponse getSortSourceConfig(
+    public DeferredResult<SortSourceConfigResponse> getSortSourceConfig(
             @RequestParam String clusterName,
             @RequestParam String sortTaskId,
-            @RequestParam String md5) {
-        return sortService.getSourceConfig(clusterName, sortTaskId, md5);
+            @RequestParam String md5,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) Long waitMs) {
+        long waitTime = waitMs == null ? 0 : Math.min(waitMs, MAX_CONFIG_WAIT_MS);
+        final DeferredResult<SortSourceConfigResponse> result = new DeferredResult<>(waitTime > 0 ? waitTime : null);
+        if (waitTime <= 0 || !md5.equals(sortService.getSourceMd5(clusterName, sortTaskId))) {
+            result.setResult(sortService.getSourceConfig(clusterName, sortTaskId, md5, version));
+            return result;
+        }
+        // hold the request until the config changes or the wait time is over
+        final Runnable listener = () -> result.setResult(
+                sortService.getSourceConfig(clusterName, sortTaskId, md5, version));
+        sortService.addSourceConfigListener(clusterName, sortTaskId, listener);
+        result.onCompletion(() -> sortService.removeSourceConfigListener(clusterName, sortTaskId, listener));
+        result.onTimeout(listener);
+        // the config may change before the listener is added
+        if (!md5.equals(sortService.getSourceMd5(clusterName, sortTaskId))) {
+            listener.run();
+        }
+        return result;
     }
 
 }
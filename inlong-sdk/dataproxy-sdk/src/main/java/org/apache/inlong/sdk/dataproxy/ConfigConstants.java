@@ -50,6 +50,18 @@ public class ConfigConstants {
 
     public static final int MAX_LINE_CNT = 30;
 
+    /* Configure the linger batching of single async messages. */
+    public static final long DEFAULT_LINGER_MS = 5;
+    public static final int DEFAULT_LINGER_BATCH_MAX_COUNT = 500;
+    public static final int DEFAULT_LINGER_BATCH_MAX_SIZE = 512 * 1024;
+
+    /* Configure the local disk spill queue of linger batches. */
+    public static final long DEFAULT_SPILL_MAX_BYTES = 1024L * 1024 * 1024;
+
+    /* Configure the outlier ejection of the adaptive proxy selection. */
+    public static final int DEFAULT_EJECT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_EJECT_DURATION_MS = 30 * 1000L;
+
     /* Default connection,connect timeout in milliseconds.*/
     public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS =
             TimeUnit.MILLISECONDS.convert(40, TimeUnit.SECONDS);
@@ -21,12 +21,17 @@ package org.apache.inlong.sdk.dataproxy;
 import org.apache.inlong.sdk.dataproxy.codec.EncodeObject;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigEntry;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigManager;
+import org.apache.inlong.sdk.dataproxy.network.LingerBatch;
+import org.apache.inlong.sdk.dataproxy.network.LingerBatchSender;
+import org.apache.inlong.sdk.dataproxy.network.MessageAccumulator;
 import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
 import org.apache.inlong.sdk.dataproxy.network.Sender;
 import org.apache.inlong.sdk.dataproxy.network.SequentialID;
 import org.apache.inlong.sdk.dataproxy.network.Utils;
 import org.apache.inlong.sdk.dataproxy.threads.IndexCollectThread;
+import org.apache.inlong.sdk.dataproxy.threads.LingerFlushThread;
 import org.apache.inlong.sdk.dataproxy.threads.ManagerFetcherThread;
+import org.apache.inlong.sdk.dataproxy.threads.SpillReplayThread;
 import org.apache.inlong.sdk.dataproxy.utils.ProxyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,10 +51,15 @@ public class DefaultMessageSender implements MessageSender {
     private static final ConcurrentHashMap<Integer, DefaultMessageSender> CACHE_SENDER =
             new ConcurrentHashMap<>();
     private static final AtomicBoolean MANAGER_FETCHER_THREAD_STARTED = new AtomicBoolean(false);
+    private static final long ACCUMULATOR_THREAD_JOIN_MS = 10000L;
     private static ManagerFetcherThread managerFetcherThread;
     private final Sender sender;
     private final SequentialID idGenerator;
     private final IndexCollectThread indexCol;
+    /* pack the single async messages, null if linger batching is disabled */
+    private MessageAccumulator accumulator;
+    private LingerFlushThread lingerFlushThread;
+    private SpillReplayThread spillReplayThread;
     /* Store index <groupId_streamId,cnt>*/
     private final Map<String, Long> storeIndex = new ConcurrentHashMap<String, Long>();
     private String groupId;
@@ -71,6 +81,13 @@ public class DefaultMessageSender implements MessageSender {
         groupId = configure.getGroupId();
         indexCol = new IndexCollectThread(storeIndex);
         indexCol.start();
+        if (configure.isEnableLingerBatch()) {
+            accumulator = new MessageAccumulator(new AccumulatorBatchSender(), configure);
+            lingerFlushThread = new LingerFlushThread(accumulator);
+            lingerFlushThread.start();
+            spillReplayThread = new SpillReplayThread(accumulator);
+            spillReplayThread.start();
+        }
 
         if (configure.isEnableSaveManagerVIps()
                 && configure.isLocalVisit()
@@ -264,7 +281,11 @@ public class DefaultMessageSender implements MessageSender {
             return SendResult.INVALID_ATTRIBUTES;
         }
         addIndexCnt(groupId, streamId, bodyList.size());
+        return doSendMessage(bodyList, groupId, streamId, dt, msgUUID, timeout, timeUnit);
+    }
 
+    private SendResult doSendMessage(List<byte[]> bodyList, String groupId, String streamId, long dt,
+            String msgUUID, long timeout, TimeUnit timeUnit) {
         if (msgtype == 7 || msgtype == 8) {
             EncodeObject encodeObject = new EncodeObject(bodyList, msgtype, isCompress, isReport,
                     isGroupIdTransfer, dt / 1000,
@@ -293,6 +314,11 @@ public class DefaultMessageSender implements MessageSender {
             return SendResult.INVALID_ATTRIBUTES;
         }
         addIndexCnt(groupId, streamId, bodyList.size());
+        return doSendMessage(bodyList, groupId, streamId, dt, msgUUID, timeout, timeUnit, extraAttrMap);
+    }
+
+    private SendResult doSendMessage(List<byte[]> bodyList, String groupId, String streamId, long dt,
+            String msgUUID, long timeout, TimeUnit timeUnit, Map<String, String> extraAttrMap) {
         StringBuilder attrs = ProxyUtils.convertAttrToStr(extraAttrMap);
 
         if (msgtype == 7 || msgtype == 8) {
@@ -330,6 +356,11 @@ public class DefaultMessageSender implements MessageSender {
         if (!ProxyUtils.isBodyValid(body) || !ProxyUtils.isDtValid(dt)) {
             throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
         }
+        if (accumulator != null) {
+            accumulator.append(callback, body, groupId, streamId, dt, getFrameDt(dt),
+                    timeout, timeUnit, null);
+            return;
+        }
         addIndexCnt(groupId, streamId, 1);
 
         boolean isCompressEnd = (isCompress && (body.length > cpsSize));
@@ -364,6 +395,11 @@ public class DefaultMessageSender implements MessageSender {
         if (!ProxyUtils.isBodyValid(body) || !ProxyUtils.isDtValid(dt) || !ProxyUtils.isAttrKeysValid(extraAttrMap)) {
             throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
         }
+        if (accumulator != null) {
+            accumulator.append(callback, body, groupId, streamId, dt, getFrameDt(dt),
+                    timeout, timeUnit, extraAttrMap);
+            return;
+        }
         addIndexCnt(groupId, streamId, 1);
         StringBuilder attrs = ProxyUtils.convertAttrToStr(extraAttrMap);
 
@@ -486,6 +522,13 @@ public class DefaultMessageSender implements MessageSender {
                 idGenerator.getNextId(), DEFAULT_SEND_TIMEOUT, DEFAULT_SEND_TIMEUNIT);
     }
 
+    /**
+     * the dt in the frame, messages with the same frame dt can be packed together
+     */
+    private long getFrameDt(long dt) {
+        return (msgtype == 7 || msgtype == 8) ? dt / 1000 : dt;
+    }
+
     private void addIndexCnt(String groupId, String streamId, long cnt) {
         try {
             String key = groupId + "|" + streamId;
@@ -607,7 +650,59 @@ public class DefaultMessageSender implements MessageSender {
         if (sender.getClusterId() != -1) {
             CACHE_SENDER.remove(sender.getClusterId());
         }
+        if (accumulator != null) {
+            // the accumulator threads send through the sender, stop them before it is closed
+            stopAccumulatorThreads();
+            accumulator.flushAll();
+        }
         sender.close();
+        if (accumulator != null) {
+            accumulator.close();
+        }
         shutdownInternalThreads();
     }
+
+    private void stopAccumulatorThreads() {
+        lingerFlushThread.shutDown();
+        spillReplayThread.shutDown();
+        try {
+            lingerFlushThread.join(ACCUMULATOR_THREAD_JOIN_MS);
+            spillReplayThread.join(ACCUMULATOR_THREAD_JOIN_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lingerFlushThread.isAlive() || spillReplayThread.isAlive()) {
+            LOGGER.warn("accumulator threads are not stopped in {} ms", ACCUMULATOR_THREAD_JOIN_MS);
+        }
+    }
+
+    /**
+     * send the packed frames of the accumulator
+     */
+    private class AccumulatorBatchSender implements LingerBatchSender {
+
+        @Override
+        public void asyncSend(LingerBatch batch, SendMessageCallback callback) throws ProxysdkException {
+            if (batch.getExtraAttrMap() == null) {
+                asyncSendMessage(callback, batch.getBodyList(), batch.getGroupId(), batch.getStreamId(),
+                        batch.getDt(), idGenerator.getNextId(), batch.getTimeout(), TimeUnit.MILLISECONDS);
+            } else {
+                asyncSendMessage(callback, batch.getBodyList(), batch.getGroupId(), batch.getStreamId(),
+                        batch.getDt(), idGenerator.getNextId(), batch.getTimeout(), TimeUnit.MILLISECONDS,
+                        batch.getExtraAttrMap());
+            }
+        }
+
+        @Override
+        public SendResult replay(LingerBatch batch) {
+            // the messages were validated and counted in the index when the batch was first sent
+            if (batch.getExtraAttrMap() == null) {
+                return doSendMessage(batch.getBodyList(), batch.getGroupId(), batch.getStreamId(),
+                        batch.getDt(), idGenerator.getNextId(), batch.getTimeout(), TimeUnit.MILLISECONDS);
+            }
+            return doSendMessage(batch.getBodyList(), batch.getGroupId(), batch.getStreamId(),
+                    batch.getDt(), idGenerator.getNextId(), batch.getTimeout(), TimeUnit.MILLISECONDS,
+                    batch.getExtraAttrMap());
+        }
+    }
 }
@@ -95,6 +95,29 @@ public class ProxyClientConfig {
     private int ioThreadNum = Runtime.getRuntime().availableProcessors();
     private boolean enableBusyWait = false;
 
+    // config for linger batching
+    // whether pack the single async messages of the same groupId and streamId, default is false
+    private boolean enableLingerBatch = false;
+    // max wait time of a message in the linger batch, in milliseconds
+    private long lingerMs = ConfigConstants.DEFAULT_LINGER_MS;
+    // max message count of one linger batch
+    private int lingerBatchMaxCount = ConfigConstants.DEFAULT_LINGER_BATCH_MAX_COUNT;
+    // max body bytes of one linger batch
+    private int lingerBatchMaxSize = ConfigConstants.DEFAULT_LINGER_BATCH_MAX_SIZE;
+    // local directory for the linger batches failed by connection, spill is disabled if it is empty.
+    // the callbacks of spilled messages are acked with OK, the batches are replayed after reconnect.
+    private String spillDirectory = "";
+    // max bytes of the spill directory
+    private long spillMaxBytes = ConfigConstants.DEFAULT_SPILL_MAX_BYTES;
+
+    // config for proxy selection
+    // whether pick the proxy by its pending bytes and ack latency, default is false(round robin)
+    private boolean enableAdaptiveSelect = false;
+    // consecutive timeouts or broken requests to eject a proxy from the selection, 0 disables the ejection
+    private int ejectFailureThreshold = ConfigConstants.DEFAULT_EJECT_FAILURE_THRESHOLD;
+    // time of a proxy out of the selection after ejected, in milliseconds
+    private long ejectDurationMs = ConfigConstants.DEFAULT_EJECT_DURATION_MS;
+
     /*pay attention to the last url parameter ip*/
     public ProxyClientConfig(String localHost, boolean isLocalVisit, String managerIp,
             int managerPort, String groupId, String netTag, String authSecretId, String authSecretKey)
@@ -459,4 +482,76 @@ public class ProxyClientConfig {
     public void setEnableBusyWait(boolean enableBusyWait) {
         this.enableBusyWait = enableBusyWait;
     }
+
+    public boolean isEnableLingerBatch() {
+        return enableLingerBatch;
+    }
+
+    public void setEnableLingerBatch(boolean enableLingerBatch) {
+        this.enableLingerBatch = enableLingerBatch;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    public void setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    public int getLingerBatchMaxCount() {
+        return lingerBatchMaxCount;
+    }
+
+    public void setLingerBatchMaxCount(int lingerBatchMaxCount) {
+        this.lingerBatchMaxCount = lingerBatchMaxCount;
+    }
+
+    public int getLingerBatchMaxSize() {
+        return lingerBatchMaxSize;
+    }
+
+    public void setLingerBatchMaxSize(int lingerBatchMaxSize) {
+        this.lingerBatchMaxSize = lingerBatchMaxSize;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public long getSpillMaxBytes() {
+        return spillMaxBytes;
+    }
+
+    public void setSpillMaxBytes(long spillMaxBytes) {
+        this.spillMaxBytes = spillMaxBytes;
+    }
+
+    public boolean isEnableAdaptiveSelect() {
+        return enableAdaptiveSelect;
+    }
+
+    public void setEnableAdaptiveSelect(boolean enableAdaptiveSelect) {
+        this.enableAdaptiveSelect = enableAdaptiveSelect;
+    }
+
+    public int getEjectFailureThreshold() {
+        return ejectFailureThreshold;
+    }
+
+    public void setEjectFailureThreshold(int ejectFailureThreshold) {
+        this.ejectFailureThreshold = ejectFailureThreshold;
+    }
+
+    public long getEjectDurationMs() {
+        return ejectDurationMs;
+    }
+
+    public void setEjectDurationMs(long ejectDurationMs) {
+        this.ejectDurationMs = ejectDurationMs;
+    }
 }
@@ -321,6 +321,22 @@ public class EncodeObject {
         return bodyBytes;
     }
 
+    /**
+     * total bytes of the bodies, before compression
+     */
+    public int getBodySize() {
+        if (bodyBytes != null) {
+            return bodyBytes.length;
+        }
+        int size = 0;
+        if (bodylist != null) {
+            for (byte[] body : bodylist) {
+                size += body.length;
+            }
+        }
+        return size;
+    }
+
     public String getAttributes() {
         return attributes;
     }
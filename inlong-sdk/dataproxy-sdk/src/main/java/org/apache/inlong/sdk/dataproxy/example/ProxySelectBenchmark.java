@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.example;
+
+import org.apache.inlong.sdk.dataproxy.ProxyClientConfig;
+import org.apache.inlong.sdk.dataproxy.network.ClientSelector;
+import org.apache.inlong.sdk.dataproxy.network.NettyClient;
+import org.apache.inlong.sdk.dataproxy.network.ProxyLoadTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmark of the proxy selection strategies against heterogeneous proxies.
+ * <p>
+ * Each proxy is a local stub server with a fixed count of workers and a fixed service time,
+ * the slow proxies serve a request in slowFactor times of the service time, and the failing
+ * proxies hold a request for the request timeout and then fail it. N threads keep sending
+ * synchronously for the given seconds with round robin and with the adaptive selection, and
+ * the throughput, latency and share of each proxy are reported.
+ * <p>
+ * Usage: ProxySelectBenchmark [threadCount] [durationSeconds] [proxyCount] [slowProxyCount]
+ * [failProxyCount] [serviceMicros] [slowFactor]
+ */
+public class ProxySelectBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxySelectBenchmark.class);
+
+    private static final int MESSAGE_SIZE = 1024;
+    private static final int STUB_WORKERS = 4;
+    private static final long REQUEST_TIMEOUT_MICROS = 20 * 1000L;
+    private static final int MAX_LATENCY_SAMPLES = 1000000;
+
+    public static void main(String[] args) throws Exception {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int proxyCount = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int slowProxyCount = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int failProxyCount = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        long serviceMicros = args.length > 5 ? Long.parseLong(args[5]) : 200L;
+        int slowFactor = args.length > 6 ? Integer.parseInt(args[6]) : 10;
+
+        ProxyClientConfig configure = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1",
+                8099, "benchmark_group", "", null, null);
+        for (boolean adaptive : new boolean[]{false, true}) {
+            StubProxy[] proxies = new StubProxy[proxyCount];
+            NettyClient[] clients = new NettyClient[proxyCount];
+            for (int i = 0; i < proxyCount; i++) {
+                boolean failing = i < failProxyCount;
+                long curServiceMicros = (!failing && i < failProxyCount + slowProxyCount)
+                        ? serviceMicros * slowFactor : serviceMicros;
+                proxies[i] = new StubProxy(curServiceMicros, failing);
+                clients[i] = new StubClient("127.0.0." + (i + 1), configure);
+            }
+            run(adaptive, threadCount, durationSeconds, proxies, clients);
+            for (StubProxy proxy : proxies) {
+                proxy.close();
+            }
+        }
+    }
+
+    private static void run(boolean adaptive, int threadCount, int durationSeconds,
+            StubProxy[] proxies, NettyClient[] clients) throws InterruptedException {
+        AtomicInteger index = new AtomicInteger(0);
+        AtomicLong successCount = new AtomicLong(0);
+        AtomicLong failCount = new AtomicLong(0);
+        AtomicLong[] proxyCounts = new AtomicLong[proxies.length];
+        for (int i = 0; i < proxies.length; i++) {
+            proxyCounts[i] = new AtomicLong(0);
+        }
+        long[][] latencies = new long[threadCount][MAX_LATENCY_SAMPLES / threadCount];
+        int[] latencyCounts = new int[threadCount];
+        long endTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(durationSeconds);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.currentTimeMillis() < endTime) {
+                        NettyClient client = adaptive
+                                ? ClientSelector.leastLoad(clients) : ClientSelector.roundRobin(clients, index);
+                        int proxyIndex = indexOf(clients, client);
+                        proxyCounts[proxyIndex].incrementAndGet();
+                        ProxyLoadTracker tracker = client.getLoadTracker();
+                        long startNanos = tracker.onSend(MESSAGE_SIZE);
+                        boolean success = proxies[proxyIndex].serve();
+                        tracker.onComplete(MESSAGE_SIZE, startNanos, success);
+                        if (success) {
+                            successCount.incrementAndGet();
+                        } else {
+                            failCount.incrementAndGet();
+                        }
+                        if (latencyCounts[threadIndex] < latencies[threadIndex].length) {
+                            latencies[threadIndex][latencyCounts[threadIndex]++] = System.nanoTime() - startNanos;
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }, "ProxySelectBenchmark-" + t);
+            thread.start();
+        }
+        long startTime = System.currentTimeMillis();
+        latch.await();
+        long costMs = Math.max(1L, System.currentTimeMillis() - startTime);
+
+        int sampleCount = 0;
+        for (int count : latencyCounts) {
+            sampleCount += count;
+        }
+        long[] samples = new long[sampleCount];
+        int pos = 0;
+        for (int t = 0; t < threadCount; t++) {
+            System.arraycopy(latencies[t], 0, samples, pos, latencyCounts[t]);
+            pos += latencyCounts[t];
+        }
+        Arrays.sort(samples);
+        long[] shares = new long[proxies.length];
+        for (int i = 0; i < proxies.length; i++) {
+            shares[i] = proxyCounts[i].get();
+        }
+        logger.info("{}: success {}, fail {}, average {} msg/s, p50 {} us, p99 {} us, proxy shares {}",
+                adaptive ? "adaptive" : "round robin", successCount.get(), failCount.get(),
+                successCount.get() * 1000 / costMs, percentileMicros(samples, 0.5), percentileMicros(samples, 0.99), Arrays.toString(shares));
+    }
+
+    private static int indexOf(NettyClient[] clients, NettyClient client) {
+        // NettyClient equals by the channel, the stub clients have none
+        for (int i = 0; i < clients.length; i++) {
+            if (clients[i] == client) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long percentileMicros(long[] samples, double percentile) {
+        if (samples.length == 0) {
+            return 0L;
+        }
+        int pos = Math.min(samples.length - 1, (int) (samples.length * percentile));
+        return TimeUnit.NANOSECONDS.toMicros(samples[pos]);
+    }
+
+    /**
+     * a connection to a stub proxy, always active
+     */
+    private static class StubClient extends NettyClient {
+
+        public StubClient(String serverIP, ProxyClientConfig configure) {
+            super(null, serverIP, 46801, configure);
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+    }
+
+    /**
+     * a local stub server with a bounded count of workers, the requests queue up when all the
+     * workers are busy, like on a loaded proxy.
+     */
+    private static class StubProxy {
+
+        private final long serviceNanos;
+        private final boolean failing;
+        private final ExecutorService workers = Executors.newFixedThreadPool(STUB_WORKERS);
+
+        public StubProxy(long serviceMicros, boolean failing) {
+            this.serviceNanos = TimeUnit.MICROSECONDS.toNanos(failing ? REQUEST_TIMEOUT_MICROS : serviceMicros);
+            this.failing = failing;
+        }
+
+        public boolean serve() {
+            Future<?> future = workers.submit(() -> LockSupport.parkNanos(serviceNanos));
+            try {
+                future.get();
+            } catch (Exception e) {
+                return false;
+            }
+            return !failing;
+        }
+
+        public void close() {
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.example;
+
+import org.apache.inlong.sdk.dataproxy.DefaultMessageSender;
+import org.apache.inlong.sdk.dataproxy.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of synchronously message sending, N threads keep sending for the given seconds,
+ * and report the sent count per second.
+ * <p>
+ * Usage: SyncSendBenchmark [threadCount] [durationSeconds] [managerAddr] [managerPort]
+ */
+public class SyncSendBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncSendBenchmark.class);
+
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        String inLongManagerAddr = args.length > 2 ? args[2] : "127.0.0.1";
+        String inLongManagerPort = args.length > 3 ? args[3] : "8000";
+
+        String inlongGroupId = "test_test";
+        String inlongStreamId = "test_test";
+        TcpClientExample tcpClientExample = new TcpClientExample();
+        DefaultMessageSender sender = tcpClientExample.getMessageSender(TcpClientExample.localIP,
+                inLongManagerAddr, inLongManagerPort, "", inlongGroupId, false, false,
+                "/data/inlong/config", 7);
+        if (sender == null) {
+            logger.error("create message sender failed");
+            return;
+        }
+
+        byte[] body = "inglong-message-random-body!".getBytes(StandardCharsets.UTF_8);
+        AtomicLong successCount = new AtomicLong(0);
+        AtomicLong failCount = new AtomicLong(0);
+        long endTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(durationSeconds);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.currentTimeMillis() < endTime) {
+                        SendResult result = sender.sendMessage(body, inlongGroupId, inlongStreamId,
+                                0, String.valueOf(System.currentTimeMillis()), 20, TimeUnit.SECONDS);
+                        if (result == SendResult.OK) {
+                            successCount.incrementAndGet();
+                        } else {
+                            failCount.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }, "SyncSendBenchmark-" + i);
+            thread.start();
+        }
+
+        long startTime = System.currentTimeMillis();
+        long lastCount = 0;
+        while (!latch.await(1, TimeUnit.SECONDS)) {
+            long curCount = successCount.get();
+            logger.info("sync send {} msg/s, fail {}", curCount - lastCount, failCount.get());
+            lastCount = curCount;
+        }
+        long costMs = Math.max(1L, System.currentTimeMillis() - startTime);
+        logger.info("threads {}, duration {} ms, success {}, fail {}, average {} msg/s", threadCount, costMs,
+                successCount.get(), failCount.get(), successCount.get() * 1000 / costMs);
+        sender.close();
+    }
+}
@@ -44,7 +44,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -61,14 +63,16 @@ public class ClientMgr {
     private final ConcurrentHashMap<HostInfo, AtomicLong> lastBadHostMap = new ConcurrentHashMap<>();
 
     // clientList is the valueSet of clientMapData
-    private final ArrayList<NettyClient> clientList = new ArrayList<>();
+    private final CopyOnWriteArrayList<NettyClient> clientList = new CopyOnWriteArrayList<>();
+    // snapshot of clientList for the selection, refreshed after clientList changes
+    private volatile NettyClient[] clientArray = new NettyClient[0];
     private List<HostInfo> proxyInfoList = new ArrayList<>();
 
     private final Map<HostInfo, int[]> channelLoadMapData = new ConcurrentHashMap<>();
     private final Map<HostInfo, int[]> channelLoadMapHB = new ConcurrentHashMap<>();
 
     private Bootstrap bootstrap;
-    private int currentIndex = 0;
+    private final AtomicInteger currentIndex = new AtomicInteger(0);
     private ProxyClientConfig configure;
     private Sender sender;
     private int aliveConnections;
@@ -254,6 +258,7 @@ public class ClientMgr {
             if (bSuccess) {
                 clientMapData.put(host, client);
                 clientList.add(client);
+                updateClientArray();
                 clientMap.put(host, client);
                 logger.info("build a connection success! {},channel {}", host.getHostName(), client.getChannel());
             } else {
@@ -328,24 +333,22 @@ public class ClientMgr {
         }
     }
 
-    public synchronized NettyClient getClientByRoundRobin() {
-        NettyClient client = null;
-        if (clientList.isEmpty()) {
-            return null;
-        }
-        int currSize = clientList.size();
-        for (int retryTime = 0; retryTime < currSize; retryTime++) {
-            currentIndex = (++currentIndex) % currSize;
-            client = clientList.get(currentIndex);
-            if (client != null && client.isActive()) {
-                break;
-            }
-        }
-        if (client == null || !client.isActive()) {
-            return null;
+    /**
+     * pick a client for a message, by the adaptive selection if it is enabled, or else in turn
+     */
+    public NettyClient getClient() {
+        if (configure.isEnableAdaptiveSelect()) {
+            return ClientSelector.leastLoad(clientArray);
         }
-        //logger.info("get a client {}", client.getChannel());
-        return client;
+        return getClientByRoundRobin();
+    }
+
+    public NettyClient getClientByRoundRobin() {
+        return ClientSelector.roundRobin(clientArray, currentIndex);
+    }
+
+    private void updateClientArray() {
+        clientArray = clientList.toArray(new NettyClient[0]);
     }
 
     public NettyClient getContainProxy(String proxyip) {
@@ -392,6 +395,7 @@ public class ClientMgr {
         channelLoadMapData.clear();
         channelLoadMapHB.clear();
         clientList.clear();
+        updateClientArray();
         sender.clearCallBack();
     }
 
@@ -549,6 +553,7 @@ public class ClientMgr {
                     clientMapData.put(hbHost, clientMapHB.get(hbHost));
 //                    channelLoadMapData.put(hbHost,listHB.get(i).getValue());
                     clientList.add(clientMapHB.get(hbHost));
+                    updateClientArray();
                     clientMapHB.remove(hbHost);
                 }
             }
@@ -635,6 +640,7 @@ public class ClientMgr {
             channelLoadMapHB.remove(entry.getKey());
             it.remove();
         }
+        updateClientArray();
     }
 
     private void fillUpWorkClientWithLastBadClient() {
@@ -734,6 +740,7 @@ public class ClientMgr {
                 clientMapData.remove(hostInfo);
                 clientMap.remove(hostInfo);
                 clientList.remove(client);
+                updateClientArray();
 
                 channelLoadMapData.remove(hostInfo);
                 logger.info("remove this client {}", hostInfo.getHostName());
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * strategies to pick a proxy connection for a message, both work on a snapshot array of the
+ * connections and take no lock.
+ */
+public class ClientSelector {
+
+    private ClientSelector() {
+    }
+
+    /**
+     * pick the next active client in turn
+     *
+     * @param clients snapshot of the clients
+     * @param index the shared turn counter
+     * @return the client, or null if none is active
+     */
+    public static NettyClient roundRobin(NettyClient[] clients, AtomicInteger index) {
+        int size = clients.length;
+        for (int retryTime = 0; retryTime < size; retryTime++) {
+            NettyClient client = clients[(index.incrementAndGet() & Integer.MAX_VALUE) % size];
+            if (client != null && client.isActive()) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * power of two choices: pick two random clients, and take the one with the lower
+     * {@link ProxyLoadTracker#getCost() cost}. A client ejected for failures is skipped, unless
+     * no other client is active, so the ejection never makes the sender lose all the proxies.
+     *
+     * @param clients snapshot of the clients
+     * @return the client, or null if none is active
+     */
+    public static NettyClient leastLoad(NettyClient[] clients) {
+        int size = clients.length;
+        if (size == 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        NettyClient firstClient = getAvailable(clients[first]);
+        if (size > 1) {
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            NettyClient secondClient = getAvailable(clients[second]);
+            if (firstClient == null) {
+                firstClient = secondClient;
+            } else if (secondClient != null
+                    && secondClient.getLoadTracker().getCost() < firstClient.getLoadTracker().getCost()) {
+                firstClient = secondClient;
+            }
+        }
+        if (firstClient != null) {
+            return firstClient;
+        }
+        // both choices are unavailable, scan from the random position
+        NettyClient ejectedClient = null;
+        for (int i = 1; i < size; i++) {
+            NettyClient client = clients[(first + i) % size];
+            if (client == null || !client.isActive()) {
+                continue;
+            }
+            if (!client.getLoadTracker().isEjected()) {
+                return client;
+            }
+            if (ejectedClient == null) {
+                ejectedClient = client;
+            }
+        }
+        NettyClient client = clients[first];
+        if (ejectedClient == null && client != null && client.isActive()) {
+            ejectedClient = client;
+        }
+        return ejectedClient;
+    }
+
+    private static NettyClient getAvailable(NettyClient client) {
+        if (client == null || !client.isActive() || client.getLoadTracker().isEjected()) {
+            return null;
+        }
+        return client;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * single messages of one groupId, streamId, dt and attributes, waiting in the accumulator to be packed into one frame
+ */
+public class LingerBatch {
+
+    private final String groupId;
+    private final String streamId;
+    private final long dt;
+    private final Map<String, String> extraAttrMap;
+    private final long createTimeInMillis;
+    private final long timeout;
+    private final List<byte[]> bodyList = new ArrayList<>();
+    private final List<SendMessageCallback> callbackList = new ArrayList<>();
+    private int bodySize = 0;
+    private boolean closed = false;
+
+    public LingerBatch(String groupId, String streamId, long dt,
+            Map<String, String> extraAttrMap, long timeout) {
+        this.groupId = groupId;
+        this.streamId = streamId;
+        this.dt = dt;
+        this.extraAttrMap = extraAttrMap;
+        this.timeout = timeout;
+        this.createTimeInMillis = System.currentTimeMillis();
+    }
+
+    public void add(byte[] body, SendMessageCallback callback) {
+        bodyList.add(body);
+        callbackList.add(callback);
+        bodySize += body.length;
+    }
+
+    public boolean isFull(int maxCount, int maxSize) {
+        return bodyList.size() >= maxCount || bodySize >= maxSize;
+    }
+
+    public boolean isExpired(long lingerMs, long currentTime) {
+        return currentTime - createTimeInMillis >= lingerMs;
+    }
+
+    /**
+     * mark the batch as closed, no more message can be added after it is removed from the accumulator
+     */
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public long getDt() {
+        return dt;
+    }
+
+    public Map<String, String> getExtraAttrMap() {
+        return extraAttrMap;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public List<byte[]> getBodyList() {
+        return bodyList;
+    }
+
+    public List<SendMessageCallback> getCallbackList() {
+        return callbackList;
+    }
+
+    public int getBodySize() {
+        return bodySize;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.ProxyClientConfig;
+import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * accumulate the single async messages of the same groupId, streamId, dt and attributes,
+ * and send them as one packed frame when the batch is full or the linger time is reached.
+ * <p>
+ * When the packed frame can not be delivered because no proxy is reachable, the batch is spilled into
+ * the local {@link SpillQueue} if it is configured, and replayed after the connection recovers.
+ * Only the batches that were never written to a proxy are spilled. A batch that timed out or whose
+ * connection broke may have reached the proxy already, replaying it could deliver it twice, so its
+ * callbacks get the failure as without linger batching, and the caller decides whether to resend.
+ * The spill files are written on a dedicated thread, never on the netty or the sending threads.
+ */
+public class MessageAccumulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageAccumulator.class);
+    private static final long REPLAY_TIMEOUT_MS = 10000L;
+    private static final int SPILL_TASK_CAPACITY = 1024;
+
+    private final LingerBatchSender batchSender;
+    private final ConcurrentHashMap<String, LingerBatch> batches = new ConcurrentHashMap<>();
+    private final long lingerMs;
+    private final int maxCount;
+    private final int maxSize;
+    private final SpillQueue spillQueue;
+    private final ThreadPoolExecutor spillExecutor;
+
+    public MessageAccumulator(LingerBatchSender batchSender, ProxyClientConfig configure) throws IOException {
+        this.batchSender = batchSender;
+        this.lingerMs = configure.getLingerMs();
+        this.maxCount = configure.getLingerBatchMaxCount();
+        this.maxSize = configure.getLingerBatchMaxSize();
+        if (configure.getSpillDirectory() != null && !configure.getSpillDirectory().isEmpty()) {
+            this.spillQueue = new SpillQueue(configure.getSpillDirectory(), configure.getSpillMaxBytes());
+            this.spillExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(SPILL_TASK_CAPACITY), (runnable) -> {
+                        Thread thread = new Thread(runnable, "LingerSpillThread");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        } else {
+            this.spillQueue = null;
+            this.spillExecutor = null;
+        }
+    }
+
+    /**
+     * append one message, the frame dt is the second of dt for msgType 7 and 8, else the dt itself
+     */
+    public void append(SendMessageCallback callback, byte[] body, String groupId, String streamId,
+            long dt, long frameDt, long timeout, TimeUnit timeUnit, Map<String, String> extraAttrMap) {
+        StringBuilder keyBuilder = new StringBuilder(64).append(groupId).append('|')
+                .append(streamId).append('|').append(frameDt);
+        if (extraAttrMap != null) {
+            keyBuilder.append('|').append(extraAttrMap);
+        }
+        String key = keyBuilder.toString();
+        long timeoutInMillis = TimeUnit.MILLISECONDS.convert(timeout, timeUnit);
+        LingerBatch fullBatch = null;
+        while (true) {
+            LingerBatch batch = batches.computeIfAbsent(key, (k) -> new LingerBatch(groupId, streamId, dt,
+                    extraAttrMap == null ? null : new HashMap<>(extraAttrMap), timeoutInMillis));
+            synchronized (batch) {
+                if (batch.isClosed()) {
+                    // being flushed by another thread, retry with a new batch
+                    continue;
+                }
+                batch.add(body, callback);
+                if (batch.isFull(maxCount, maxSize)) {
+                    batch.close();
+                    batches.remove(key, batch);
+                    fullBatch = batch;
+                }
+                break;
+            }
+        }
+        if (fullBatch != null) {
+            send(fullBatch);
+        }
+    }
+
+    /**
+     * flush the batches reaching the linger time
+     */
+    public void flushExpired() {
+        flush(false);
+    }
+
+    /**
+     * flush all batches, used before close
+     */
+    public void flushAll() {
+        flush(true);
+    }
+
+    private void flush(boolean isForce) {
+        long currentTime = System.currentTimeMillis();
+        List<LingerBatch> expiredBatches = new ArrayList<>();
+        for (Map.Entry<String, LingerBatch> entry : batches.entrySet()) {
+            LingerBatch batch = entry.getValue();
+            if (!isForce && !batch.isExpired(lingerMs, currentTime)) {
+                continue;
+            }
+            synchronized (batch) {
+                if (batch.isClosed()) {
+                    continue;
+                }
+                batch.close();
+                batches.remove(entry.getKey(), batch);
+                expiredBatches.add(batch);
+            }
+        }
+        for (LingerBatch batch : expiredBatches) {
+            send(batch);
+        }
+    }
+
+    private void send(LingerBatch batch) {
+        LingerBatchCallback batchCallback = new LingerBatchCallback(batch);
+        try {
+            batchSender.asyncSend(batch, batchCallback);
+        } catch (ProxysdkException e) {
+            spillOrFail(batch, e.getMessage(), () -> batchCallback.fanOutException(e));
+        }
+    }
+
+    /**
+     * spill the batch on the spill thread if it was never written to a proxy, and ack its callbacks,
+     * else run the failure action
+     */
+    private void spillOrFail(LingerBatch batch, String reason, Runnable failAction) {
+        boolean isUnsent = SendResult.NO_CONNECTION.toString().equals(reason)
+                || SendResult.ASYNC_CALLBACK_BUFFER_FULL.toString().equals(reason);
+        if (spillQueue == null || !isUnsent) {
+            failAction.run();
+            return;
+        }
+        try {
+            spillExecutor.execute(() -> {
+                if (spillQueue.offer(batch)) {
+                    logger.info("spill {} messages of {} {} for {}", batch.getBodyList().size(),
+                            batch.getGroupId(), batch.getStreamId(), reason);
+                    new LingerBatchCallback(batch).fanOutAck(SendResult.OK);
+                } else {
+                    failAction.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("too many batches waiting to spill, fail {} messages of {} {}",
+                    batch.getBodyList().size(), batch.getGroupId(), batch.getStreamId());
+            failAction.run();
+        }
+    }
+
+    /**
+     * replay the spilled batches in order with sync sending, stop at the first failure
+     *
+     * @return replayed batch count
+     */
+    public int replaySpilled() {
+        if (spillQueue == null) {
+            return 0;
+        }
+        int count = 0;
+        for (File file : spillQueue.listFiles()) {
+            LingerBatch batch;
+            try {
+                batch = spillQueue.read(file, REPLAY_TIMEOUT_MS);
+            } catch (IOException e) {
+                logger.error("drop broken spill file {}", file, e);
+                spillQueue.remove(file);
+                continue;
+            }
+            SendResult result = batchSender.replay(batch);
+            if (result == SendResult.OK || result == SendResult.INVALID_ATTRIBUTES
+                    || result == SendResult.INVALID_DATA) {
+                if (result != SendResult.OK) {
+                    logger.error("drop spill file {} for {}", file, result);
+                }
+                spillQueue.remove(file);
+                count++;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+
+    public boolean hasSpilled() {
+        return spillQueue != null && spillQueue.getUsedBytes() > 0;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    /**
+     * wait for the pending spills, called after the sender is closed
+     */
+    public void close() {
+        if (spillExecutor == null) {
+            return;
+        }
+        spillExecutor.shutdown();
+        try {
+            if (!spillExecutor.awaitTermination(REPLAY_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("spill thread is not terminated in {} ms", REPLAY_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * fan out the result of the packed frame to the callback of every message
+     */
+    private class LingerBatchCallback implements SendMessageCallback {
+
+        private final LingerBatch batch;
+
+        LingerBatchCallback(LingerBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onMessageAck(SendResult result) {
+            if (result == SendResult.OK) {
+                fanOutAck(result);
+            } else {
+                spillOrFail(batch, result.toString(), () -> fanOutAck(result));
+            }
+        }
+
+        @Override
+        public void onException(Throwable e) {
+            fanOutException(e);
+        }
+
+        private void fanOutAck(SendResult result) {
+            for (SendMessageCallback callback : batch.getCallbackList()) {
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onMessageAck(result);
+                } catch (Throwable e) {
+                    logger.error("callback of {} {} throw exception", batch.getGroupId(), batch.getStreamId(), e);
+                }
+            }
+        }
+
+        private void fanOutException(Throwable e) {
+            for (SendMessageCallback callback : batch.getCallbackList()) {
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onException(e);
+                } catch (Throwable ex) {
+                    logger.error("callback of {} {} throw exception", batch.getGroupId(), batch.getStreamId(), ex);
+                }
+            }
+        }
+    }
+}
@@ -43,6 +43,7 @@ public class NettyClient {
     private Bootstrap bootstrap;
     private String serverIP;
     private int serverPort;
+    private final ProxyLoadTracker loadTracker;
 
     public String getServerIP() {
         return serverIP;
@@ -58,6 +59,8 @@ public class NettyClient {
         this.serverIP = serverIP;
         this.serverPort = serverPort;
         this.configure = configure;
+        this.loadTracker = new ProxyLoadTracker(configure.getEjectFailureThreshold(),
+                configure.getEjectDurationMs());
         setState(ConnState.INIT);
     }
 
@@ -99,6 +102,8 @@ public class NettyClient {
         }
         channel = future.channel();
         setState(ConnState.READY);
+        // a rebuilt connection joins the selection again
+        loadTracker.reset();
         logger.info("ip {} stat {}", serverIP, connState);
         return true;
     }
@@ -213,4 +218,8 @@ public class NettyClient {
         setState(ConnState.BUSY);
     }
 
+    public ProxyLoadTracker getLoadTracker() {
+        return loadTracker;
+    }
+
 }
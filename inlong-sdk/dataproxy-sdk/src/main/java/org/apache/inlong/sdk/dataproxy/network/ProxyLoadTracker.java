@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * load of one proxy connection seen by the sender: the bytes waiting for ack, and the EWMA of
+ * the ack latency. A proxy failing several requests in a row(timeout or broken connection) is
+ * ejected from the selection for a while.
+ * <p>
+ * All the fields are updated with atomic operations, the sending threads never block on it.
+ */
+public class ProxyLoadTracker {
+
+    // weight of the newest latency sample in the EWMA
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int ejectFailureThreshold;
+    private final long ejectDurationMs;
+
+    private final AtomicLong inFlightBytes = new AtomicLong(0);
+    private final AtomicInteger inFlightCount = new AtomicInteger(0);
+    // bits of the double EWMA latency in nanoseconds, 0 before the first ack
+    private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private volatile long ejectedUntilMs = 0L;
+
+    /**
+     * Constructor
+     *
+     * @param ejectFailureThreshold consecutive failures to eject the proxy, no ejection if it is not positive
+     * @param ejectDurationMs ejection time of the proxy, in milliseconds
+     */
+    public ProxyLoadTracker(int ejectFailureThreshold, long ejectDurationMs) {
+        this.ejectFailureThreshold = ejectFailureThreshold;
+        this.ejectDurationMs = ejectDurationMs;
+    }
+
+    /**
+     * a request of the given bytes is written to the proxy
+     *
+     * @return the start time to pass to {@link #onComplete(int, long, boolean)}
+     */
+    public long onSend(int bytes) {
+        inFlightBytes.addAndGet(bytes);
+        inFlightCount.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * a request is acked, timed out or broken
+     *
+     * @param bytes the bytes given to {@link #onSend(int)}
+     * @param startNanos the value returned by {@link #onSend(int)}
+     * @param success whether the proxy acked the request
+     */
+    public void onComplete(int bytes, long startNanos, boolean success) {
+        inFlightBytes.addAndGet(-bytes);
+        inFlightCount.decrementAndGet();
+        // a failure is also a latency sample, a timed out proxy gets the timeout as its latency
+        updateLatency(Math.max(0L, System.nanoTime() - startNanos));
+        if (success) {
+            consecutiveFailures.set(0);
+            return;
+        }
+        if (ejectFailureThreshold > 0 && consecutiveFailures.incrementAndGet() >= ejectFailureThreshold) {
+            consecutiveFailures.set(0);
+            ejectedUntilMs = System.currentTimeMillis() + ejectDurationMs;
+        }
+    }
+
+    private void updateLatency(long sampleNanos) {
+        while (true) {
+            long curBits = ewmaLatencyBits.get();
+            double curValue = Double.longBitsToDouble(curBits);
+            double newValue = (curValue == 0) ? sampleNanos : curValue + EWMA_ALPHA * (sampleNanos - curValue);
+            if (ewmaLatencyBits.compareAndSet(curBits, Double.doubleToLongBits(newValue))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * cost of sending a request to the proxy, the lower the better.
+     * the pending bytes are weighted by the ack latency, so a slow proxy gets less traffic
+     * before it fails, and an idle proxy is still preferred over a busy one of the same latency.
+     */
+    public double getCost() {
+        return (getEwmaLatencyNanos() + 1) * (inFlightBytes.get() + 1);
+    }
+
+    public boolean isEjected() {
+        long curEjectedUntil = ejectedUntilMs;
+        return curEjectedUntil != 0L && System.currentTimeMillis() < curEjectedUntil;
+    }
+
+    /**
+     * put the proxy back into the selection, used when the connection is rebuilt
+     */
+    public void reset() {
+        consecutiveFailures.set(0);
+        ejectedUntilMs = 0L;
+    }
+
+    public double getEwmaLatencyNanos() {
+        return Double.longBitsToDouble(ewmaLatencyBits.get());
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.inlong.sdk.dataproxy.network;
 
+import io.netty.util.Timeout;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
@@ -27,6 +28,10 @@ public class QueueObject {
     private final SendMessageCallback callback;
     private final long timeoutInMillis;
     private final int size;
+    private volatile Timeout timeout;
+    private volatile NettyClient client;
+    private int loadSize;
+    private long startNanos;
 
     public QueueObject(long sendTimeInMillis,
                        SendMessageCallback callback,
@@ -63,4 +68,37 @@ public class QueueObject {
     public int getSize() {
         return size;
     }
+
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * count the message into the load of the client, before it is put into the callbacks
+     */
+    public void trackLoad(NettyClient client, int loadSize) {
+        this.loadSize = loadSize;
+        this.startNanos = client.getLoadTracker().onSend(loadSize);
+        this.client = client;
+    }
+
+    /**
+     * take the message out of the load of the client, once it is acked, timed out or broken
+     */
+    public void completeLoad(boolean success) {
+        NettyClient curClient = this.client;
+        if (curClient != null) {
+            curClient.getLoadTracker().onComplete(loadSize, startNanos, success);
+        }
+    }
+
+    /**
+     * cancel the timeout task when the ack arrives or the channel is broken
+     */
+    public void cancelTimeout() {
+        Timeout curTimeout = this.timeout;
+        if (curTimeout != null) {
+            curTimeout.cancel();
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * completion of one synchronously sent message, the sending thread writes the message itself
+ * and waits on the promise, which is completed by the netty io thread when the ack arrives.
+ */
+public class SendPromise {
+
+    private final NettyClient client;
+    private final int size;
+    private final CompletableFuture<SendResult> future = new CompletableFuture<>();
+    private volatile long startNanos;
+
+    public SendPromise(NettyClient client, int size) {
+        this.client = client;
+        this.size = size;
+    }
+
+    /**
+     * count the message into the load of the client, before it is written
+     */
+    public void start() {
+        this.startNanos = client.getLoadTracker().onSend(size);
+    }
+
+    /**
+     * complete the promise, only the first result takes effect
+     */
+    public boolean complete(SendResult result) {
+        if (!future.complete(result)) {
+            return false;
+        }
+        boolean proxyFailure = (result == SendResult.TIMEOUT || result == SendResult.CONNECTION_BREAK);
+        client.getLoadTracker().onComplete(size, startNanos, !proxyFailure);
+        return true;
+    }
+
+    public SendResult get(long timeout, TimeUnit timeUnit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(timeout, timeUnit);
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public NettyClient getClient() {
+        return client;
+    }
+}
@@ -19,6 +19,9 @@
 package org.apache.inlong.sdk.dataproxy.network;
 
 import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -37,9 +40,6 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -49,15 +49,17 @@ import java.util.concurrent.locks.ReentrantLock;
 public class Sender {
 
     private static final Logger logger = LoggerFactory.getLogger(Sender.class);
+    private static final long TIMEOUT_TICK_MS = 10L;
 
     /* Store the callback used by asynchronously message sending. */
     private final ConcurrentHashMap<Channel, ConcurrentHashMap<String, QueueObject>> callbacks =
             new ConcurrentHashMap<>();
-    /* Store the synchronous message sending invocations. */
-    private final ConcurrentHashMap<String, SyncMessageCallable> syncCallables = new ConcurrentHashMap<>();
+    /* Store the promises of synchronously message sending. */
+    private final ConcurrentHashMap<String, SendPromise> syncPromises = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, NettyClient> chooseProxy = new ConcurrentHashMap<>();
     private final ReentrantLock stateLock = new ReentrantLock();
-    private final ExecutorService threadPool;
+    /* Expire the callbacks of asynchronously message sending. */
+    private final HashedWheelTimer timeoutTimer;
     private final int asyncCallbackMaxSize;
     private final AtomicInteger currentBufferSize = new AtomicInteger(0);
     private final TimeoutScanThread scanThread;
@@ -77,7 +79,8 @@ public class Sender {
     public Sender(ProxyClientConfig configure, ThreadFactory selfDefineFactory) throws Exception {
         this.configure = configure;
         this.asyncCallbackMaxSize = configure.getTotalAsyncCallbackSize();
-        this.threadPool = Executors.newCachedThreadPool();
+        this.timeoutTimer = new HashedWheelTimer(new DefaultThreadFactory("SendTimeoutTimer", true),
+                TIMEOUT_TICK_MS, TimeUnit.MILLISECONDS);
         this.clientMgr = new ClientMgr(configure, this, selfDefineFactory);
         ProxyConfigEntry proxyConfigEntry = null;
         try {
@@ -99,7 +102,7 @@ public class Sender {
             }
         }
         this.isFile = configure.isFile();
-        scanThread = new TimeoutScanThread(callbacks, currentBufferSize, configure, clientMgr);
+        scanThread = new TimeoutScanThread(currentBufferSize, configure, clientMgr);
         scanThread.start();
 
         metricWorker = new MetricWorkerThread(configure, this);
@@ -129,7 +132,7 @@ public class Sender {
         checkCallbackList();
         scanThread.shutDown();
         clientMgr.shutDown();
-        threadPool.shutdown();
+        timeoutTimer.stop();
         metricWorker.close();
     }
 
@@ -167,6 +170,8 @@ public class Sender {
         if (callback == null) {
             return;
         }
+        callback.cancelTimeout();
+        callback.completeLoad(true);
         if (isFile) {
             String proxyip = channel.remoteAddress().toString();
             ((FileCallback) callback.getCallback()).onMessageAck(result.toString()
@@ -211,11 +216,30 @@ public class Sender {
             encodeObject.setEncryptEntry(false, null, null);
         }
         encodeObject.setMsgUUID(msgUUID);
-        SyncMessageCallable callable = new SyncMessageCallable(client, encodeObject, timeout, timeUnit);
-        syncCallables.put(encodeObject.getMessageId(), callable);
+        return writeAndWait(client, encodeObject, timeout, timeUnit);
+    }
 
-        Future<SendResult> future = threadPool.submit(callable);
-        return future.get(timeout, timeUnit);
+    /**
+     * write the message in the caller thread, then wait for the ack completing the promise
+     */
+    private SendResult writeAndWait(NettyClient client, EncodeObject encodeObject,
+            long timeout, TimeUnit timeUnit)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        SendPromise promise = new SendPromise(client, encodeObject.getBodySize());
+        promise.start();
+        syncPromises.put(encodeObject.getMessageId(), promise);
+        client.write(encodeObject);
+        return promise.get(timeout, timeUnit);
+    }
+
+    /**
+     * remove the promise of a failed sending, and complete it to take it out of the client load
+     */
+    private void removePromise(String messageId, SendResult result) {
+        SendPromise promise = syncPromises.remove(messageId);
+        if (promise != null) {
+            promise.complete(result);
+        }
     }
 
     /**
@@ -233,27 +257,28 @@ public class Sender {
         metricWorker.recordNumByKey(encodeObject.getMessageId(),
                 encodeObject.getGroupId(), encodeObject.getStreamId(),
                 Utils.getLocalIp(), encodeObject.getDt(), encodeObject.getPackageTime(), encodeObject.getRealCnt());
-        NettyClient client = clientMgr.getClientByRoundRobin();
+        NettyClient client = clientMgr.getClient();
         SendResult message = null;
         try {
             message = syncSendInternalMessage(client, encodeObject, msgUUID, timeout, timeUnit);
         } catch (InterruptedException e) {
             // TODO Auto-generated catch block
             logger.error("send message error {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            removePromise(encodeObject.getMessageId(), SendResult.THREAD_INTERRUPT);
             return SendResult.THREAD_INTERRUPT;
         } catch (ExecutionException e) {
             // TODO Auto-generated catch block
             logger.error("ExecutionException {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
             return SendResult.UNKOWN_ERROR;
         } catch (TimeoutException e) {
             // TODO Auto-generated catch block
             logger.error("TimeoutException {} ", getExceptionStack(e));
             //e.printStackTrace();
-            SyncMessageCallable syncMessageCallable = syncCallables.remove(encodeObject.getMessageId());
-            if (syncMessageCallable != null) {
-                NettyClient tmpClient = syncMessageCallable.getClient();
+            SendPromise promise = syncPromises.remove(encodeObject.getMessageId());
+            if (promise != null) {
+                promise.complete(SendResult.TIMEOUT);
+                NettyClient tmpClient = promise.getClient();
                 if (tmpClient != null) {
                     Channel curChannel = tmpClient.getChannel();
                     if (curChannel != null) {
@@ -265,11 +290,11 @@ public class Sender {
             return SendResult.TIMEOUT;
         } catch (Throwable e) {
             logger.error("syncSendMessage exception {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
             return SendResult.UNKOWN_ERROR;
         }
         if (message == null) {
-            syncCallables.remove(encodeObject.getMessageId());
+            removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
             return SendResult.UNKOWN_ERROR;
         }
         if (client != null) {
@@ -286,7 +311,7 @@ public class Sender {
             TimeUnit timeUnit) throws ExecutionException, InterruptedException, TimeoutException {
         if (client == null || !client.isActive()) {
             chooseProxy.remove(encodeObject.getMessageId());
-            client = clientMgr.getClientByRoundRobin();
+            client = clientMgr.getClient();
             if (client == null) {
                 return SendResult.NO_CONNECTION;
             }
@@ -313,11 +338,7 @@ public class Sender {
             encodeObject.setEncryptEntry(false, null, null);
         }
         encodeObject.setMsgUUID(msgUUID);
-        SyncMessageCallable callable = new SyncMessageCallable(client, encodeObject, timeout, timeUnit);
-        syncCallables.put(encodeObject.getMessageId(), callable);
-
-        Future<SendResult> future = threadPool.submit(callable);
-        return future.get(timeout, timeUnit);
+        return writeAndWait(client, encodeObject, timeout, timeUnit);
     }
 
     /**
@@ -349,20 +370,21 @@ public class Sender {
             } catch (InterruptedException e) {
                 // TODO Auto-generated catch block
                 logger.error("send message error {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                removePromise(encodeObject.getMessageId(), SendResult.THREAD_INTERRUPT);
                 return SendResult.THREAD_INTERRUPT.toString();
             } catch (ExecutionException e) {
                 // TODO Auto-generated catch block
                 logger.error("ExecutionException {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
                 return SendResult.UNKOWN_ERROR.toString();
             } catch (TimeoutException e) {
                 // TODO Auto-generated catch block
                 logger.error("TimeoutException {}", getExceptionStack(e));
                 //e.printStackTrace();
-                SyncMessageCallable syncMessageCallable = syncCallables.remove(encodeObject.getMessageId());
-                if (syncMessageCallable != null) {
-                    NettyClient tmpClient = syncMessageCallable.getClient();
+                SendPromise promise = syncPromises.remove(encodeObject.getMessageId());
+                if (promise != null) {
+                    promise.complete(SendResult.TIMEOUT);
+                    NettyClient tmpClient = promise.getClient();
                     if (tmpClient != null) {
                         Channel curChannel = tmpClient.getChannel();
                         if (curChannel != null) {
@@ -374,14 +396,14 @@ public class Sender {
                 return SendResult.TIMEOUT.toString();
             } catch (Throwable e) {
                 logger.error("syncSendMessage exception {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
                 return SendResult.UNKOWN_ERROR.toString();
             }
             scanThread.resetTimeoutChannel(client.getChannel());
             return message.toString() + "=" + client.getServerIP();
         } catch (Exception e) {
             logger.error("agent send error {}", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            removePromise(encodeObject.getMessageId(), SendResult.UNKOWN_ERROR);
             return SendResult.UNKOWN_ERROR.toString();
         }
     }
@@ -406,7 +428,7 @@ public class Sender {
         }
         if (client == null || !client.isActive()) {
             chooseProxy.remove(encodeObject.getMessageId());
-            client = clientMgr.getClientByRoundRobin();
+            client = clientMgr.getClient();
             if (client == null) {
                 throw new ProxysdkException(SendResult.NO_CONNECTION.toString());
             }
@@ -441,8 +463,15 @@ public class Sender {
         if (msgQueueMap == null) {
             msgQueueMap = tmpCallBackMap;
         }
-        msgQueueMap.put(encodeObject.getMessageId(), new QueueObject(System.currentTimeMillis(),
-                callback, size, timeout, timeUnit));
+        QueueObject indexQueueObject = new QueueObject(System.currentTimeMillis(),
+                callback, size, timeout, timeUnit);
+        indexQueueObject.trackLoad(client, encodeObject.getBodySize());
+        QueueObject oldQueueObject = msgQueueMap.put(encodeObject.getMessageId(), indexQueueObject);
+        if (oldQueueObject != null) {
+            oldQueueObject.cancelTimeout();
+            oldQueueObject.completeLoad(true);
+        }
+        scheduleTimeout(client.getChannel(), msgQueueMap, encodeObject.getMessageId(), indexQueueObject);
         if (encodeObject.getMsgtype() == 7) {
             int groupIdnum = 0;
             int streamIdnum = 0;
@@ -521,7 +550,7 @@ public class Sender {
 
         // send message package time
 
-        NettyClient client = clientMgr.getClientByRoundRobin();
+        NettyClient client = clientMgr.getClient();
         if (client == null) {
             throw new ProxysdkException(SendResult.NO_CONNECTION.toString());
         }
@@ -555,10 +584,14 @@ public class Sender {
         }
         ConcurrentHashMap<String, QueueObject> msgQueueMap =
                 callbacks.computeIfAbsent(client.getChannel(), (k) -> new ConcurrentHashMap<>());
-        QueueObject queueObject = msgQueueMap.putIfAbsent(encodeObject.getMessageId(),
-                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit));
+        QueueObject newQueueObject = new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit);
+        newQueueObject.trackLoad(client, encodeObject.getBodySize());
+        QueueObject queueObject = msgQueueMap.putIfAbsent(encodeObject.getMessageId(), newQueueObject);
         if (queueObject != null) {
             logger.warn("message id {} has existed.", encodeObject.getMessageId());
+            newQueueObject.completeLoad(true);
+        } else {
+            scheduleTimeout(client.getChannel(), msgQueueMap, encodeObject.getMessageId(), newQueueObject);
         }
         if (encodeObject.getMsgtype() == 7) {
             int groupIdnum = 0;
@@ -583,17 +616,40 @@ public class Sender {
         client.write(encodeObject);
     }
 
+    /**
+     * expire the callback on the timer wheel, instead of scanning all callbacks
+     */
+    private void scheduleTimeout(Channel channel, ConcurrentHashMap<String, QueueObject> msgQueueMap,
+            String messageId, QueueObject queueObject) {
+        Timeout timeoutTask = timeoutTimer.newTimeout((t) -> {
+            // remove it before callback
+            if (!msgQueueMap.remove(messageId, queueObject)) {
+                return;
+            }
+            queueObject.completeLoad(false);
+            if (isFile) {
+                ((FileCallback) queueObject.getCallback()).onMessageAck(SendResult.TIMEOUT.toString());
+                currentBufferSize.addAndGet(-queueObject.getSize());
+            } else {
+                queueObject.getCallback().onMessageAck(SendResult.TIMEOUT);
+                currentBufferSize.decrementAndGet();
+            }
+            scanThread.addTimeoutChannel(channel);
+        }, queueObject.getTimeoutInMillis(), TimeUnit.MILLISECONDS);
+        queueObject.setTimeout(timeoutTask);
+    }
+
     /* Deal with feedback. */
     public void notifyFeedback(Channel channel, EncodeObject response) {
         String messageId = response.getMessageId();
         chooseProxy.remove(messageId);
-        SyncMessageCallable callable = syncCallables.remove(messageId);
+        SendPromise promise = syncPromises.remove(messageId);
         SendResult result = response.isException() ? SendResult.INVALID_ATTRIBUTES : SendResult.OK;
         if (result == SendResult.OK) {
             metricWorker.recordSuccessByMessageId(messageId);
         }
-        if (callable != null) { // for syncSend
-            callable.update(result);
+        if (promise != null) { // for syncSend
+            promise.complete(result);
         }
         if (response.isException()) {
             logger.error("{} exception happens, error message {}", channel,
@@ -619,6 +675,8 @@ public class Sender {
                     if (queueObject == null) {
                         continue;
                     }
+                    queueObject.cancelTimeout();
+                    queueObject.completeLoad(false);
                     if (isFile) {
                         ((FileCallback) queueObject.getCallback()).onMessageAck(SendResult.CONNECTION_BREAK.toString());
                         currentBufferSize.addAndGet(-queueObject.getSize());
@@ -634,15 +692,15 @@ public class Sender {
         }
 
         try {
-            for (String messageId : syncCallables.keySet()) {
+            for (String messageId : syncPromises.keySet()) {
                 if (messageId == null) {
                     continue;
                 }
-                SyncMessageCallable messageCallable = syncCallables.get(messageId);
-                if (messageCallable == null) {
+                SendPromise promise = syncPromises.get(messageId);
+                if (promise == null) {
                     continue;
                 }
-                NettyClient nettyClient = messageCallable.getClient();
+                NettyClient nettyClient = promise.getClient();
                 if (nettyClient == null) {
                     continue;
                 }
@@ -651,13 +709,12 @@ public class Sender {
                     continue;
                 }
                 if (netChannel1.id().equals(channel.id())) {
-                    messageCallable.update(SendResult.CONNECTION_BREAK);
-                    syncCallables.remove(messageId);
-                    break;
+                    promise.complete(SendResult.CONNECTION_BREAK);
+                    syncPromises.remove(messageId, promise);
                 }
             }
         } catch (Throwable e) {
-            logger.info("process channel {} disconnected syncCallables throw error,", channel, e);
+            logger.info("process channel {} disconnected syncPromises throw error,", channel, e);
         }
     }
 
@@ -717,8 +774,8 @@ public class Sender {
             return false;
         }
         // used by sync send
-        for (SyncMessageCallable syncCallBack : syncCallables.values()) {
-            if (ObjectUtils.equals(client, syncCallBack.getClient())) {
+        for (SendPromise promise : syncPromises.values()) {
+            if (ObjectUtils.equals(client, promise.getClient())) {
                 return false;
             }
         }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bounded local disk queue, keeps the packed batches that can not be sent when no proxy is reachable,
+ * one file per batch, file name is ordered by the spill sequence so that they are replayed in order.
+ */
+public class SpillQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillQueue.class);
+    private static final String FILE_SUFFIX = ".spill";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x494C5350;
+    private static final boolean IS_WINDOWS = System.getProperty("os.name", "")
+            .toLowerCase().startsWith("windows");
+
+    private final File directory;
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong(0);
+    private final AtomicLong sequence = new AtomicLong(0);
+
+    public SpillQueue(String directory, long maxBytes) throws IOException {
+        this.directory = new File(directory);
+        this.maxBytes = maxBytes;
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IOException("can not create spill directory " + directory);
+        }
+        // recover the batches spilled before restart
+        long lastSequence = System.currentTimeMillis() * 1000;
+        for (File file : listFiles()) {
+            usedBytes.addAndGet(file.length());
+            lastSequence = Math.max(lastSequence, parseSequence(file) + 1);
+        }
+        File[] tempFiles = this.directory.listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (tempFiles != null) {
+            for (File tempFile : tempFiles) {
+                tempFile.delete();
+            }
+        }
+        sequence.set(lastSequence);
+        logger.info("spill queue {} recovered, used bytes {}", directory, usedBytes.get());
+    }
+
+    /**
+     * write one batch to disk
+     *
+     * @return false if the queue is full or the write fails
+     */
+    public boolean offer(LingerBatch batch) {
+        long estimateSize = batch.getBodySize() + 4L * batch.getBodyList().size() + 1024;
+        if (usedBytes.addAndGet(estimateSize) > maxBytes) {
+            usedBytes.addAndGet(-estimateSize);
+            logger.warn("spill queue is full, used bytes {}, max bytes {}", usedBytes.get(), maxBytes);
+            return false;
+        }
+        String fileName = String.format("%020d", sequence.getAndIncrement());
+        File tempFile = new File(directory, fileName + TEMP_SUFFIX);
+        File spillFile = new File(directory, fileName + FILE_SUFFIX);
+        try (FileOutputStream fileOutput = new FileOutputStream(tempFile);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+            output.writeInt(MAGIC);
+            output.writeUTF(batch.getGroupId());
+            output.writeUTF(batch.getStreamId());
+            output.writeLong(batch.getDt());
+            Map<String, String> attrMap = batch.getExtraAttrMap();
+            output.writeInt(attrMap == null ? 0 : attrMap.size());
+            if (attrMap != null) {
+                for (Map.Entry<String, String> entry : attrMap.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeUTF(entry.getValue());
+                }
+            }
+            output.writeInt(batch.getBodyList().size());
+            for (byte[] body : batch.getBodyList()) {
+                output.writeInt(body.length);
+                output.write(body);
+            }
+            // the batch is acked once it is spilled, so it must be on the disk before the rename
+            output.flush();
+            fileOutput.getFD().sync();
+        } catch (IOException e) {
+            logger.error("spill batch of {} {} failed", batch.getGroupId(), batch.getStreamId(), e);
+            tempFile.delete();
+            usedBytes.addAndGet(-estimateSize);
+            return false;
+        }
+        long fileSize = tempFile.length();
+        usedBytes.addAndGet(fileSize - estimateSize);
+        try {
+            Files.move(tempFile.toPath(), spillFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } catch (IOException e) {
+            logger.error("commit spill file {} failed", spillFile, e);
+            usedBytes.addAndGet(-fileSize);
+            tempFile.delete();
+            spillFile.delete();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * fsync the directory so that the rename survives a crash,
+     * skipped on windows where a directory can not be opened as a channel
+     */
+    private void syncDirectory() throws IOException {
+        if (IS_WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * list the spilled files, the oldest first
+     */
+    public List<File> listFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * read one spilled file, the callbacks of the returned batch are null
+     */
+    public LingerBatch read(File file, long timeout) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("invalid spill file " + file);
+            }
+            String groupId = input.readUTF();
+            String streamId = input.readUTF();
+            long dt = input.readLong();
+            int attrCount = input.readInt();
+            Map<String, String> attrMap = null;
+            if (attrCount > 0) {
+                attrMap = new HashMap<>();
+                for (int i = 0; i < attrCount; i++) {
+                    attrMap.put(input.readUTF(), input.readUTF());
+                }
+            }
+            LingerBatch batch = new LingerBatch(groupId, streamId, dt, attrMap, timeout);
+            int bodyCount = input.readInt();
+            for (int i = 0; i < bodyCount; i++) {
+                byte[] body = new byte[input.readInt()];
+                input.readFully(body);
+                batch.add(body, null);
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * remove one file after it is replayed, or it is broken
+     */
+    public void remove(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            usedBytes.addAndGet(-length);
+        }
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    private long parseSequence(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
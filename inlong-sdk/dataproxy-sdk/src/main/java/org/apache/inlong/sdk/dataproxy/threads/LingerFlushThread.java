@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.threads;
+
+import org.apache.inlong.sdk.dataproxy.network.MessageAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * flush the linger batches of {@link MessageAccumulator} when the linger time is reached
+ */
+public class LingerFlushThread extends Thread {
+
+    private static final Logger logger = LoggerFactory.getLogger(LingerFlushThread.class);
+
+    private final MessageAccumulator accumulator;
+    private volatile boolean bShutDown;
+
+    public LingerFlushThread(MessageAccumulator accumulator) {
+        this.bShutDown = false;
+        this.accumulator = accumulator;
+        this.setDaemon(true);
+        this.setName("LingerFlushThread");
+    }
+
+    public void shutDown() {
+        logger.info("begin to shut down LingerFlushThread!");
+        bShutDown = true;
+    }
+
+    @Override
+    public void run() {
+        logger.info("LingerFlushThread Thread=" + Thread.currentThread().getId() + " started !");
+        long sleepMs = Math.max(1L, accumulator.getLingerMs() / 2);
+        while (!bShutDown) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(sleepMs);
+                accumulator.flushExpired();
+            } catch (Throwable e) {
+                if (!bShutDown) {
+                    logger.error("LingerFlushThread exception", e);
+                }
+            }
+        }
+        accumulator.flushAll();
+    }
+}
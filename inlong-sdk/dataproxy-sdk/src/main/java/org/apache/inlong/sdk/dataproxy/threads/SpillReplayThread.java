@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.threads;
+
+import org.apache.inlong.sdk.dataproxy.network.MessageAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * replay the batches spilled by {@link MessageAccumulator} when the proxy is reachable again
+ */
+public class SpillReplayThread extends Thread {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillReplayThread.class);
+    private static final long REPLAY_INTERVAL_MS = 1000L;
+
+    private final MessageAccumulator accumulator;
+    private volatile boolean bShutDown;
+
+    public SpillReplayThread(MessageAccumulator accumulator) {
+        this.bShutDown = false;
+        this.accumulator = accumulator;
+        this.setDaemon(true);
+        this.setName("SpillReplayThread");
+    }
+
+    public void shutDown() {
+        logger.info("begin to shut down SpillReplayThread!");
+        bShutDown = true;
+    }
+
+    @Override
+    public void run() {
+        logger.info("SpillReplayThread Thread=" + Thread.currentThread().getId() + " started !");
+        while (!bShutDown) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(REPLAY_INTERVAL_MS);
+                if (!accumulator.hasSpilled()) {
+                    continue;
+                }
+                int count = accumulator.replaySpilled();
+                if (count > 0) {
+                    logger.info("replay {} spilled batches", count);
+                }
+            } catch (Throwable e) {
+                if (!bShutDown) {
+                    logger.error("SpillReplayThread exception", e);
+                }
+            }
+        }
+    }
+}
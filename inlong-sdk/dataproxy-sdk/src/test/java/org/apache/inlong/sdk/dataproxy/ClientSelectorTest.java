@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.ClientSelector;
+import org.apache.inlong.sdk.dataproxy.network.NettyClient;
+import org.apache.inlong.sdk.dataproxy.network.ProxyLoadTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientSelectorTest {
+
+    @Test
+    public void testEjectAfterConsecutiveFailures() {
+        ProxyLoadTracker tracker = new ProxyLoadTracker(3, 60 * 1000L);
+        for (int i = 0; i < 2; i++) {
+            tracker.onComplete(100, tracker.onSend(100), false);
+        }
+        // a success resets the consecutive failures
+        tracker.onComplete(100, tracker.onSend(100), true);
+        for (int i = 0; i < 2; i++) {
+            tracker.onComplete(100, tracker.onSend(100), false);
+        }
+        Assert.assertFalse(tracker.isEjected());
+        tracker.onComplete(100, tracker.onSend(100), false);
+        Assert.assertTrue(tracker.isEjected());
+        Assert.assertEquals(0, tracker.getInFlightBytes());
+        Assert.assertEquals(0, tracker.getInFlightCount());
+        Assert.assertTrue(tracker.getEwmaLatencyNanos() > 0);
+
+        tracker.reset();
+        Assert.assertFalse(tracker.isEjected());
+    }
+
+    @Test
+    public void testLeastLoad() throws Exception {
+        ProxyClientConfig configure = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1",
+                8099, "test_group", "", null, null);
+        NettyClient idle = newClient(configure, true);
+        NettyClient busy = newClient(configure, true);
+        busy.getLoadTracker().onSend(1024 * 1024);
+        NettyClient[] clients = new NettyClient[]{idle, busy};
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(idle, ClientSelector.leastLoad(clients));
+        }
+
+        // the ejected client is skipped while another one is active
+        for (int i = 0; i < configure.getEjectFailureThreshold(); i++) {
+            idle.getLoadTracker().onComplete(0, idle.getLoadTracker().onSend(0), false);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(busy, ClientSelector.leastLoad(clients));
+        }
+
+        // and taken when no other one is active
+        NettyClient inactive = newClient(configure, false);
+        NettyClient[] otherClients = new NettyClient[]{idle, inactive};
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(idle, ClientSelector.leastLoad(otherClients));
+        }
+        Assert.assertNull(ClientSelector.leastLoad(new NettyClient[]{inactive}));
+        Assert.assertNull(ClientSelector.leastLoad(new NettyClient[0]));
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        ProxyClientConfig configure = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1",
+                8099, "test_group", "", null, null);
+        NettyClient first = newClient(configure, true);
+        NettyClient inactive = newClient(configure, false);
+        NettyClient second = newClient(configure, true);
+        NettyClient[] clients = new NettyClient[]{first, inactive, second};
+        AtomicInteger index = new AtomicInteger(-1);
+        Assert.assertSame(first, ClientSelector.roundRobin(clients, index));
+        Assert.assertSame(second, ClientSelector.roundRobin(clients, index));
+        Assert.assertSame(first, ClientSelector.roundRobin(clients, index));
+        Assert.assertNull(ClientSelector.roundRobin(new NettyClient[0], index));
+    }
+
+    private static NettyClient newClient(ProxyClientConfig configure, boolean active) {
+        return new NettyClient(null, "127.0.0.1", 46801, configure) {
+            @Override
+            public boolean isActive() {
+                return active;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.LingerBatch;
+import org.apache.inlong.sdk.dataproxy.network.LingerBatchSender;
+import org.apache.inlong.sdk.dataproxy.network.MessageAccumulator;
+import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class MessageAccumulatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFlushOnCount() throws Exception {
+        StubBatchSender batchSender = new StubBatchSender();
+        MessageAccumulator accumulator = new MessageAccumulator(batchSender, newConfig(60000L, 3, 1024, null));
+        for (int i = 0; i < 2; i++) {
+            append(accumulator, new ResultCallback(), "body" + i);
+        }
+        Assert.assertTrue(batchSender.sentBatches.isEmpty());
+        append(accumulator, new ResultCallback(), "body2");
+        Assert.assertEquals(1, batchSender.sentBatches.size());
+        Assert.assertEquals(3, batchSender.sentBatches.get(0).getBodyList().size());
+
+        // another stream goes into another batch
+        accumulator.append(new ResultCallback(), "body".getBytes(), "group", "other", 1660000000000L,
+                1660000000L, 1000, TimeUnit.MILLISECONDS, null);
+        append(accumulator, new ResultCallback(), "body3");
+        Assert.assertEquals(1, batchSender.sentBatches.size());
+        accumulator.flushAll();
+        Assert.assertEquals(3, batchSender.sentBatches.size());
+    }
+
+    @Test
+    public void testFlushOnSize() throws Exception {
+        StubBatchSender batchSender = new StubBatchSender();
+        MessageAccumulator accumulator = new MessageAccumulator(batchSender, newConfig(60000L, 100, 10, null));
+        append(accumulator, new ResultCallback(), "123456");
+        Assert.assertTrue(batchSender.sentBatches.isEmpty());
+        append(accumulator, new ResultCallback(), "123456");
+        Assert.assertEquals(1, batchSender.sentBatches.size());
+        Assert.assertEquals(12, batchSender.sentBatches.get(0).getBodySize());
+    }
+
+    @Test
+    public void testFlushOnTime() throws Exception {
+        StubBatchSender batchSender = new StubBatchSender();
+        MessageAccumulator accumulator = new MessageAccumulator(batchSender, newConfig(50L, 100, 1024, null));
+        ResultCallback callback = new ResultCallback();
+        append(accumulator, callback, "body");
+        accumulator.flushExpired();
+        Assert.assertTrue(batchSender.sentBatches.isEmpty());
+        TimeUnit.MILLISECONDS.sleep(100);
+        accumulator.flushExpired();
+        Assert.assertEquals(1, batchSender.sentBatches.size());
+        Assert.assertEquals(SendResult.OK, callback.result);
+    }
+
+    @Test
+    public void testSpillAndReplay() throws Exception {
+        StubBatchSender batchSender = new StubBatchSender();
+        batchSender.sendException = new ProxysdkException(SendResult.NO_CONNECTION.toString());
+        MessageAccumulator accumulator = new MessageAccumulator(batchSender,
+                newConfig(60000L, 2, 1024, folder.newFolder("spill").getAbsolutePath()));
+        ResultCallback callback = new ResultCallback();
+        append(accumulator, callback, "body0");
+        append(accumulator, callback, "body1");
+        // the batch is spilled on the spill thread, then the callbacks are acked
+        accumulator.close();
+        Assert.assertTrue(accumulator.hasSpilled());
+        Assert.assertEquals(SendResult.OK, callback.result);
+        Assert.assertEquals(2, callback.ackCount);
+
+        // replay stops at the first failure and keeps the file
+        batchSender.replayResult = SendResult.TIMEOUT;
+        Assert.assertEquals(0, accumulator.replaySpilled());
+        Assert.assertTrue(accumulator.hasSpilled());
+
+        batchSender.replayResult = SendResult.OK;
+        Assert.assertEquals(1, accumulator.replaySpilled());
+        Assert.assertFalse(accumulator.hasSpilled());
+        Assert.assertEquals(2, batchSender.replayedBatches.size());
+        LingerBatch replayed = batchSender.replayedBatches.get(1);
+        Assert.assertEquals(2, replayed.getBodyList().size());
+        Assert.assertEquals("body1", new String(replayed.getBodyList().get(1)));
+    }
+
+    @Test
+    public void testNoSpillOnTimeout() throws Exception {
+        StubBatchSender batchSender = new StubBatchSender();
+        batchSender.ackResult = SendResult.TIMEOUT;
+        MessageAccumulator accumulator = new MessageAccumulator(batchSender,
+                newConfig(60000L, 1, 1024, folder.newFolder("timeout").getAbsolutePath()));
+        ResultCallback callback = new ResultCallback();
+        append(accumulator, callback, "body");
+        accumulator.close();
+        // the batch may have reached the proxy, it is not replayed
+        Assert.assertEquals(SendResult.TIMEOUT, callback.result);
+        Assert.assertFalse(accumulator.hasSpilled());
+    }
+
+    private static ProxyClientConfig newConfig(long lingerMs, int maxCount, int maxSize,
+            String spillDirectory) throws Exception {
+        ProxyClientConfig configure = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1",
+                8099, "test_group", "", null, null);
+        configure.setEnableLingerBatch(true);
+        configure.setLingerMs(lingerMs);
+        configure.setLingerBatchMaxCount(maxCount);
+        configure.setLingerBatchMaxSize(maxSize);
+        configure.setSpillDirectory(spillDirectory);
+        return configure;
+    }
+
+    private static void append(MessageAccumulator accumulator, SendMessageCallback callback, String body) {
+        accumulator.append(callback, body.getBytes(), "group", "stream", 1660000000000L,
+                1660000000L, 1000, TimeUnit.MILLISECONDS, null);
+    }
+
+    private static class StubBatchSender implements LingerBatchSender {
+
+        private final List<LingerBatch> sentBatches = new CopyOnWriteArrayList<>();
+        private final List<LingerBatch> replayedBatches = new CopyOnWriteArrayList<>();
+        private volatile ProxysdkException sendException;
+        private volatile SendResult ackResult = SendResult.OK;
+        private volatile SendResult replayResult = SendResult.OK;
+
+        @Override
+        public void asyncSend(LingerBatch batch, SendMessageCallback callback) throws ProxysdkException {
+            if (sendException != null) {
+                throw sendException;
+            }
+            sentBatches.add(batch);
+            callback.onMessageAck(ackResult);
+        }
+
+        @Override
+        public SendResult replay(LingerBatch batch) {
+            replayedBatches.add(batch);
+            return replayResult;
+        }
+    }
+
+    private static class ResultCallback implements SendMessageCallback {
+
+        private volatile SendResult result;
+        private volatile int ackCount;
+
+        @Override
+        public void onMessageAck(SendResult result) {
+            this.result = result;
+            this.ackCount++;
+        }
+
+        @Override
+        public void onException(Throwable e) {
+            Assert.fail(e.getMessage());
+        }
+    }
+}
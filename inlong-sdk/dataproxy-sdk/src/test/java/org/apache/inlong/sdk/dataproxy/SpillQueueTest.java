@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.LingerBatch;
+import org.apache.inlong.sdk.dataproxy.network.SpillQueue;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+public class SpillQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOfferAndRead() throws Exception {
+        String directory = folder.newFolder("spill").getAbsolutePath();
+        SpillQueue queue = new SpillQueue(directory, 1024 * 1024);
+        for (int i = 0; i < 3; i++) {
+            LingerBatch batch = new LingerBatch("group", "stream" + i, 1660000000000L,
+                    Collections.singletonMap("k", "v"), 1000);
+            batch.add(("body" + i).getBytes(), null);
+            batch.add("tail".getBytes(), null);
+            Assert.assertTrue(queue.offer(batch));
+        }
+        Assert.assertTrue(queue.getUsedBytes() > 0);
+
+        // recover after restart, replay in spill order
+        SpillQueue recovered = new SpillQueue(directory, 1024 * 1024);
+        Assert.assertEquals(queue.getUsedBytes(), recovered.getUsedBytes());
+        List<File> files = recovered.listFiles();
+        Assert.assertEquals(3, files.size());
+        LingerBatch first = recovered.read(files.get(0), 1000);
+        Assert.assertEquals("stream0", first.getStreamId());
+        Assert.assertEquals(1660000000000L, first.getDt());
+        Assert.assertEquals("v", first.getExtraAttrMap().get("k"));
+        Assert.assertEquals(2, first.getBodyList().size());
+        Assert.assertEquals("body0", new String(first.getBodyList().get(0)));
+
+        for (File file : files) {
+            recovered.remove(file);
+        }
+        Assert.assertEquals(0, recovered.getUsedBytes());
+    }
+
+    @Test
+    public void testFull() throws Exception {
+        SpillQueue queue = new SpillQueue(folder.newFolder("full").getAbsolutePath(), 2048);
+        LingerBatch batch = new LingerBatch("group", "stream", 1660000000000L, null, 1000);
+        batch.add(new byte[4096], null);
+        Assert.assertFalse(queue.offer(batch));
+        Assert.assertEquals(0, queue.getUsedBytes());
+    }
+}
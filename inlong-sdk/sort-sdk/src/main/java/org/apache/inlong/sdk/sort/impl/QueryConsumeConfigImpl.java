@@ -42,19 +42,24 @@ import org.slf4j.LoggerFactory;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class QueryConsumeConfigImpl implements QueryConsumeConfig {
 
     private static final int NOUPDATE_VALUE = 1;
     private static final int UPDATE_VALUE = 0;
+    private static final int DELTA_VALUE = 2;
     private static final int REQ_PARAMS_ERROR = -101;
     private final Logger logger = LoggerFactory.getLogger(QueryConsumeConfigImpl.class);
     private final CloseableHttpClient httpClient = HttpClients.createDefault();
 
     private final ClientContext clientContext;
     private String md5 = "";
+    private Long version;
+    private CacheZoneConfig currentConfig;
 
     private Map<String, List<InLongTopic>> subscribedTopic = new HashMap<>();
 
@@ -63,9 +68,13 @@ public class QueryConsumeConfigImpl implements QueryConsumeConfig {
     }
 
     private String getRequestUrlWithParam() {
-        return clientContext.getConfig().getManagerApiUrl() + "?clusterName=" + clientContext.getConfig()
+        String url = clientContext.getConfig().getManagerApiUrl() + "?clusterName=" + clientContext.getConfig()
                 .getSortClusterName() + "&sortTaskId=" + clientContext.getConfig().getSortTaskId() + "&md5=" + md5
                 + "&apiVersion=" + clientContext.getConfig().getManagerApiVersion();
+        if (version != null) {
+            url += "&version=" + version;
+        }
+        return url;
     }
 
     // HTTP GET
@@ -129,8 +138,8 @@ public class QueryConsumeConfigImpl implements QueryConsumeConfig {
     /**
      * handle request response
      *
-     * UPDATE_VALUE = 0; conf update NOUPDATE_VALUE = 1; conf no update, md5 is same REQ_PARAMS_ERROR = -101; request
-     * params error FAIL = -1; common error
+     * UPDATE_VALUE = 0; conf update NOUPDATE_VALUE = 1; conf no update, md5 is same DELTA_VALUE = 2; only the changed
+     * cache zones REQ_PARAMS_ERROR = -101; request params error FAIL = -1; common error
      *
      * @param  getUrl
      * @param  response      ManagerResponse
@@ -148,7 +157,23 @@ public class QueryConsumeConfigImpl implements QueryConsumeConfig {
                 clientContext.getStatManager().getStatistics(clientContext.getConfig().getSortTaskId())
                         .addManagerConfChangedTimes(1);
                 this.md5 = response.getMd5();
-                updateSortTaskConf(response);
+                this.version = response.getVersion();
+                updateSortTaskConf(response.getData());
+                break;
+            case DELTA_VALUE :
+                logger.info("manager conf delta");
+                CacheZoneConfig mergedConfig = mergeDeltaConf(response);
+                if (mergedConfig == null) {
+                    // request the whole config next time
+                    this.md5 = "";
+                    this.version = null;
+                    return true;
+                }
+                clientContext.getStatManager().getStatistics(clientContext.getConfig().getSortTaskId())
+                        .addManagerConfChangedTimes(1);
+                this.md5 = response.getMd5();
+                this.version = response.getVersion();
+                updateSortTaskConf(mergedConfig);
                 break;
             case REQ_PARAMS_ERROR :
                 logger.error("return code error:{}", respCodeValue);
@@ -165,8 +190,39 @@ public class QueryConsumeConfigImpl implements QueryConsumeConfig {
         return false;
     }
 
-    private void updateSortTaskConf(SortSourceConfigResponse response) {
-        CacheZoneConfig cacheZoneConfig = response.getData();
+    /**
+     * merge the changed cache zones into the current config, the zones with the changed or removed names are replaced
+     *
+     * @param  response SortSourceConfigResponse
+     * @return          the merged config, null if there is no current config
+     */
+    private CacheZoneConfig mergeDeltaConf(SortSourceConfigResponse response) {
+        CacheZoneConfig deltaConfig = response.getData();
+        if (currentConfig == null || deltaConfig == null) {
+            return null;
+        }
+        Set<String> replacedZones = new HashSet<>(deltaConfig.getCacheZones().keySet());
+        if (response.getRemovedZoneNames() != null) {
+            replacedZones.addAll(response.getRemovedZoneNames());
+        }
+        Map<String, CacheZone> cacheZones = new HashMap<>();
+        currentConfig.getCacheZones().forEach((zoneName, zone) -> {
+            if (!replacedZones.contains(zoneName)) {
+                cacheZones.put(zoneName, zone);
+            }
+        });
+        cacheZones.putAll(deltaConfig.getCacheZones());
+        logger.info("merge conf delta of version {}, changed zones {}, removed zones {}", response.getVersion(),
+                deltaConfig.getCacheZones().keySet(), response.getRemovedZoneNames());
+        return CacheZoneConfig.builder()
+                .sortClusterName(deltaConfig.getSortClusterName())
+                .sortTaskId(deltaConfig.getSortTaskId())
+                .cacheZones(cacheZones)
+                .build();
+    }
+
+    private void updateSortTaskConf(CacheZoneConfig cacheZoneConfig) {
+        this.currentConfig = cacheZoneConfig;
         Map<String, List<InLongTopic>> newGroupTopicsMap = new HashMap<>();
         for (Map.Entry<String, CacheZone> entry : cacheZoneConfig.getCacheZones().entrySet()) {
             CacheZone cacheZone = entry.getValue();
@@ -115,7 +115,8 @@ public final class SortClusterConfigHolder {
                 reload();
             }
         };
-        reloadTimer.schedule(task, new Date(System.currentTimeMillis() + reloadInterval), reloadInterval);
+        long checkInterval = loader.getCheckInterval(reloadInterval);
+        reloadTimer.schedule(task, new Date(System.currentTimeMillis() + checkInterval), checkInterval);
     }
 
     /**
@@ -30,13 +30,20 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.apache.inlong.common.pojo.sortstandalone.SortClusterConfig;
 import org.apache.inlong.common.pojo.sortstandalone.SortClusterResponse;
+import org.apache.inlong.common.pojo.sortstandalone.SortTaskConfig;
 import org.apache.inlong.sort.standalone.config.holder.CommonPropertiesHolder;
 import org.apache.inlong.sort.standalone.config.holder.ManagerUrlHandler;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.inlong.sort.standalone.utils.Constants.RELOAD_INTERVAL;
+
 /**
  * 
  * ManagerSortClusterConfigLoader
@@ -44,11 +51,22 @@ import java.util.concurrent.TimeUnit;
 public class ManagerSortClusterConfigLoader implements SortClusterConfigLoader {
 
     public static final Logger LOG = InlongLoggerFactory.getLogger(ClassResourceSortClusterConfigLoader.class);
+    public static final String KEY_CONFIG_WAIT_MS = "configWaitMs";
+    // wait for the config change in manager, should be less than the socket timeout
+    public static final long DEFAULT_CONFIG_WAIT_MS = 30000L;
+    // the check interval when the manager holds the request until the config changes
+    public static final long LONG_POLL_CHECK_INTERVAL_MS = 1000L;
 
     private Context context;
     private CloseableHttpClient httpClient;
     private ObjectMapper objectMapper = new ObjectMapper();
     private String md5;
+    private Long version;
+    private SortClusterConfig currentConfig;
+    private long reloadInterval;
+    private long configWaitMs;
+    // the time of next request to manager
+    private long nextReloadTime = 0L;
 
     /**
      * constructHttpClient
@@ -74,15 +92,50 @@ public class ManagerSortClusterConfigLoader implements SortClusterConfigLoader {
     public void configure(Context context) {
         this.context = context;
         this.httpClient = constructHttpClient();
+        this.reloadInterval = context.getLong(RELOAD_INTERVAL, 60000L);
+        this.configWaitMs = context.getLong(KEY_CONFIG_WAIT_MS, DEFAULT_CONFIG_WAIT_MS);
     }
 
     /**
-     * load
+     * getCheckInterval, with long poll the request returns when the config changes, so check more frequently
      * 
+     * @param  reloadInterval
      * @return
      */
     @Override
+    public long getCheckInterval(long reloadInterval) {
+        return configWaitMs > 0 ? Math.min(reloadInterval, LONG_POLL_CHECK_INTERVAL_MS) : reloadInterval;
+    }
+
+    /**
+     * load
+     * 
+     * @return the changed config, null if not changed or failed
+     */
+    @Override
     public SortClusterConfig load() {
+        if (System.currentTimeMillis() < nextReloadTime) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        Integer errCode = this.request();
+        // the manager returns at once if it does not support long poll, request it again after the interval
+        boolean waitForChange = errCode != null && (errCode != SortClusterResponse.NOUPDATE
+                || System.currentTimeMillis() - startTime >= configWaitMs / 2);
+        if (configWaitMs > 0 && waitForChange) {
+            this.nextReloadTime = 0L;
+        } else {
+            this.nextReloadTime = startTime + reloadInterval;
+        }
+        return errCode != null && errCode != SortClusterResponse.NOUPDATE ? currentConfig : null;
+    }
+
+    /**
+     * request the config from manager
+     * 
+     * @return the error code of manager response, null if failed
+     */
+    private Integer request() {
         HttpGet httpGet = null;
         try {
             String clusterName = this.context.getString(CommonPropertiesHolder.KEY_CLUSTER_ID);
@@ -90,6 +143,10 @@ public class ManagerSortClusterConfigLoader implements SortClusterConfigLoader {
                     + clusterName + "&md5=";
             if (StringUtils.isNotBlank(this.md5)) {
                 url += this.md5;
+                if (this.version != null) {
+                    url += "&version=" + this.version;
+                }
+                url += "&waitMs=" + configWaitMs;
             }
             LOG.info("start to request {} to get config info", url);
             httpGet = new HttpGet(url);
@@ -103,14 +160,30 @@ public class ManagerSortClusterConfigLoader implements SortClusterConfigLoader {
 
             SortClusterResponse clusterResponse = objectMapper.readValue(returnStr, SortClusterResponse.class);
             int errCode = clusterResponse.getCode();
-            if (errCode != SortClusterResponse.SUCC && errCode != SortClusterResponse.NOUPDATE) {
+            if (errCode == SortClusterResponse.NOUPDATE) {
+                return errCode;
+            }
+            SortClusterConfig newConfig;
+            if (errCode == SortClusterResponse.SUCC) {
+                newConfig = clusterResponse.getData();
+            } else if (errCode == SortClusterResponse.DELTA) {
+                newConfig = this.mergeDeltaConfig(currentConfig, clusterResponse);
+                if (newConfig == null) {
+                    // request the whole config next time
+                    this.md5 = null;
+                    this.version = null;
+                    return null;
+                }
+            } else {
                 LOG.info("Fail to get config info from url:{}, error code is {}, msg is {}",
                         url, clusterResponse.getCode(), clusterResponse.getMsg());
                 return null;
             }
 
             this.md5 = clusterResponse.getMd5();
-            return clusterResponse.getData();
+            this.version = clusterResponse.getVersion();
+            this.currentConfig = newConfig;
+            return errCode;
         } catch (Exception ex) {
             LOG.error("exception caught", ex);
             return null;
@@ -120,4 +193,40 @@ public class ManagerSortClusterConfigLoader implements SortClusterConfigLoader {
             }
         }
     }
+
+    /**
+     * Merge the changed tasks into the current config, the tasks with the changed or removed names are replaced.
+     * 
+     * @param  currentConfig
+     * @param  delta
+     * @return the merged config, null if there is no current config
+     */
+    private SortClusterConfig mergeDeltaConfig(SortClusterConfig currentConfig, SortClusterResponse delta) {
+        if (currentConfig == null || currentConfig.getSortTasks() == null || delta.getData() == null) {
+            return null;
+        }
+        List<SortTaskConfig> changedTasks = delta.getData().getSortTasks() == null
+                ? new ArrayList<>()
+                : delta.getData().getSortTasks();
+        Set<String> replacedNames = new HashSet<>();
+        for (SortTaskConfig task : changedTasks) {
+            replacedNames.add(task.getName());
+        }
+        if (delta.getRemovedTaskNames() != null) {
+            replacedNames.addAll(delta.getRemovedTaskNames());
+        }
+        List<SortTaskConfig> sortTasks = new ArrayList<>();
+        for (SortTaskConfig task : currentConfig.getSortTasks()) {
+            if (!replacedNames.contains(task.getName())) {
+                sortTasks.add(task);
+            }
+        }
+        LOG.info("merge config delta of version {}, changed tasks {}, removed tasks {}",
+                delta.getVersion(), changedTasks.size(), delta.getRemovedTaskNames());
+        sortTasks.addAll(changedTasks);
+        return SortClusterConfig.builder()
+                .clusterName(delta.getData().getClusterName())
+                .sortTasks(sortTasks)
+                .build();
+    }
 }
@@ -32,4 +32,14 @@ public interface SortClusterConfigLoader extends Configurable {
      * @return
      */
     SortClusterConfig load();
+
+    /**
+     * getCheckInterval, the interval to call load
+     * 
+     * @param  reloadInterval
+     * @return
+     */
+    default long getCheckInterval(long reloadInterval) {
+        return reloadInterval;
+    }
 }
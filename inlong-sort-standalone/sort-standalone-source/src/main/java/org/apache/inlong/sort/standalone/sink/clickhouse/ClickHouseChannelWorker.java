@@ -41,6 +41,7 @@ public class ClickHouseChannelWorker extends Thread {
     private LifecycleState status;
     private IEventHandler handler;
     private Connection conn;
+    private ClickHouseRowBinaryWriter rowBinaryWriter;
 
     /**
      * Constructor
@@ -53,6 +54,7 @@ public class ClickHouseChannelWorker extends Thread {
         this.workerIndex = workerIndex;
         this.status = LifecycleState.IDLE;
         this.handler = this.context.createEventHandler();
+        this.rowBinaryWriter = new ClickHouseRowBinaryWriter(context, handler);
     }
 
     /**
@@ -69,16 +71,24 @@ public class ClickHouseChannelWorker extends Thread {
                 LOG.error(t.getMessage(), t);
             }
         }
+        this.rowBinaryWriter.close();
     }
 
     /**
      * doRun
      */
     public void doRun() {
+        // take no profile before the failed RowBinary batch is inserted
+        if (!this.rowBinaryWriter.isWritable()) {
+            this.rowBinaryWriter.flushTimeout();
+            this.sleepOneInterval();
+            return;
+        }
         DispatchProfile currentRecord = context.getDispatchQueue().poll();
         try {
             // prepare
             if (currentRecord == null) {
+                this.rowBinaryWriter.flushTimeout();
                 this.sleepOneInterval();
                 return;
             }
@@ -89,6 +99,12 @@ public class ClickHouseChannelWorker extends Thread {
                 currentRecord.ack();
                 return;
             }
+            // RowBinary batch
+            if (idConfig.getRowBinaryEncoderList() != null) {
+                this.rowBinaryWriter.write(currentRecord, idConfig);
+                this.rowBinaryWriter.flushTimeout();
+                return;
+            }
             // check sql
             String insertSql = idConfig.getInsertSql();
             if (insertSql == null) {
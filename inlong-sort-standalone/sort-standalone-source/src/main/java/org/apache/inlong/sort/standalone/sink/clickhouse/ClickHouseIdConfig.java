@@ -42,6 +42,11 @@ public class ClickHouseIdConfig {
     private List<String> contentFieldList;
     private List<Pair<String, Integer>> dbFieldList;
     private String insertSql;
+    // RowBinary, null if any db field can not be encoded
+    private List<RowBinaryFieldEncoder> rowBinaryEncoderList;
+    // RowBinary, the source of every db field, see ClickHouseRowBinaryWriter.SOURCE_*
+    private int[] rowBinarySources;
+    private String rowBinaryInsertSql;
 
     /**
      * parseFieldList
@@ -215,4 +220,52 @@ public class ClickHouseIdConfig {
         this.insertSql = insertSql;
     }
 
+    /**
+     * get rowBinaryEncoderList
+     * @return the rowBinaryEncoderList
+     */
+    public List<RowBinaryFieldEncoder> getRowBinaryEncoderList() {
+        return rowBinaryEncoderList;
+    }
+
+    /**
+     * set rowBinaryEncoderList
+     * @param rowBinaryEncoderList the rowBinaryEncoderList to set
+     */
+    public void setRowBinaryEncoderList(List<RowBinaryFieldEncoder> rowBinaryEncoderList) {
+        this.rowBinaryEncoderList = rowBinaryEncoderList;
+    }
+
+    /**
+     * get rowBinarySources
+     * @return the rowBinarySources
+     */
+    public int[] getRowBinarySources() {
+        return rowBinarySources;
+    }
+
+    /**
+     * set rowBinarySources
+     * @param rowBinarySources the rowBinarySources to set
+     */
+    public void setRowBinarySources(int[] rowBinarySources) {
+        this.rowBinarySources = rowBinarySources;
+    }
+
+    /**
+     * get rowBinaryInsertSql
+     * @return the rowBinaryInsertSql
+     */
+    public String getRowBinaryInsertSql() {
+        return rowBinaryInsertSql;
+    }
+
+    /**
+     * set rowBinaryInsertSql
+     * @param rowBinaryInsertSql the rowBinaryInsertSql to set
+     */
+    public void setRowBinaryInsertSql(String rowBinaryInsertSql) {
+        this.rowBinaryInsertSql = rowBinaryInsertSql;
+    }
+
 }
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.math3.util.Pair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ *
+ * ClickHouseRowBinaryWriter, merge the events of DispatchProfile by the RowBinary insert sql of ClickHouseIdConfig,
+ * then post the typed rows to the http interface of ClickHouse when the batch is full or timeout.
+ * <p>
+ * The rows are encoded from the fields of the events, unless a custom IEventHandler is configured.
+ * A profile with an event that can not be encoded is taken out of the batch and put back to the dispatch queue.
+ * A batch failing to insert is resent as it is after a backoff, so that ClickHouse can deduplicate the block,
+ * and no more profiles are taken before it is inserted.
+ * <p>
+ * One writer is owned by one ClickHouseChannelWorker, it is not thread-safe.
+ */
+public class ClickHouseRowBinaryWriter {
+
+    public static final Logger LOG = LoggerFactory.getLogger(ClickHouseRowBinaryWriter.class);
+    public static final String HEADER_USER = "X-ClickHouse-User";
+    public static final String HEADER_KEY = "X-ClickHouse-Key";
+    public static final int HTTP_TIMEOUT_MS = 60000;
+    public static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    public static final long RETRY_BACKOFF_BASE_MS = 1000L;
+    public static final long RETRY_BACKOFF_MAX_MS = 60000L;
+    // the source of a db field, the index of the content field if it is not negative
+    public static final int SOURCE_FTIME = -1;
+    public static final int SOURCE_EXTINFO = -2;
+    public static final int SOURCE_ABSENT = -3;
+
+    private final ClickHouseSinkContext context;
+    private final IEventHandler handler;
+    // a custom handler may parse the events in its own way
+    private final boolean isDirectEncode;
+    private final Map<String, RowBinaryBatch> batchMap = new HashMap<>();
+    private final ArrayDeque<RowBinaryBatch> failedBatches = new ArrayDeque<>();
+    private final CloseableHttpClient httpClient;
+    private int failCount = 0;
+    private long retryTime = 0L;
+
+    /**
+     * Constructor
+     *
+     * @param context
+     * @param handler
+     */
+    public ClickHouseRowBinaryWriter(ClickHouseSinkContext context, IEventHandler handler) {
+        this.context = context;
+        this.handler = handler;
+        this.isDirectEncode = (handler.getClass() == DefaultEventHandler.class);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(HTTP_TIMEOUT_MS)
+                .setSocketTimeout(HTTP_TIMEOUT_MS).build();
+        this.httpClient = HttpClientBuilder.create().setDefaultRequestConfig(requestConfig).build();
+    }
+
+    /**
+     * write, append the events of profile to the batch of idConfig
+     *
+     * @param profile
+     * @param idConfig the config must have RowBinary encoders
+     */
+    public void write(DispatchProfile profile, ClickHouseIdConfig idConfig) {
+        String insertSql = idConfig.getRowBinaryInsertSql();
+        RowBinaryBatch batch = batchMap.computeIfAbsent(insertSql,
+                (key) -> new RowBinaryBatch(key, INITIAL_BUFFER_SIZE));
+        RowBinaryBuffer buffer = batch.getBuffer();
+        int mark = buffer.size();
+        int rowCount = batch.getRowCount();
+        for (ProfileEvent event : profile.getEvents()) {
+            try {
+                this.encode(idConfig, event, buffer);
+                batch.increaseRowCount();
+            } catch (Throwable t) {
+                LOG.error("Fail to encode RowBinary,uid:{},error:{}", profile.getUid(), t.getMessage(), t);
+                context.addSendFailMetric("encode error", event);
+                // the profile is acked with all of its events, never insert a part of it
+                batch.rollback(mark, rowCount);
+                context.getDispatchQueue().offer(profile);
+                this.backoff();
+                return;
+            }
+        }
+        batch.addProfile(profile);
+        if (batch.isFull(context.getBatchMaxBytes(), context.getBatchMaxRows())) {
+            batchMap.remove(insertSql);
+            this.flush(batch);
+        }
+    }
+
+    /**
+     * encode one row
+     *
+     * @param idConfig
+     * @param event
+     * @param buffer
+     */
+    private void encode(ClickHouseIdConfig idConfig, ProfileEvent event, RowBinaryBuffer buffer) {
+        List<RowBinaryFieldEncoder> encoderList = idConfig.getRowBinaryEncoderList();
+        if (!isDirectEncode) {
+            List<Pair<String, Integer>> dbFieldList = idConfig.getDbFieldList();
+            Map<String, String> columnValueMap = this.handler.parse(idConfig, event);
+            for (int i = 0; i < dbFieldList.size(); i++) {
+                String fieldValue = columnValueMap.get(dbFieldList.get(i).getKey());
+                encoderList.get(i).encode(fieldValue, buffer);
+            }
+            return;
+        }
+        List<String> columnValues = DefaultEventHandler.splitContent(idConfig, event);
+        int[] sources = idConfig.getRowBinarySources();
+        for (int i = 0; i < sources.length; i++) {
+            int source = sources[i];
+            RowBinaryFieldEncoder encoder = encoderList.get(i);
+            if (source >= 0) {
+                encoder.encode((source < columnValues.size()) ? columnValues.get(source) : null, buffer);
+            } else if (source == SOURCE_FTIME) {
+                encoder.encodeTime(event.getRawLogTime(), buffer);
+            } else if (source == SOURCE_EXTINFO) {
+                encoder.encode(DefaultEventHandler.getExtInfo(event), buffer);
+            } else {
+                encoder.encode(null, buffer);
+            }
+        }
+    }
+
+    /**
+     * getSource, the source of the db field in the events, same as the field of DefaultEventHandler.parse
+     *
+     * @param  idConfig
+     * @param  dbFieldName
+     * @return             index of the content field, or SOURCE_FTIME, SOURCE_EXTINFO, SOURCE_ABSENT
+     */
+    public static int getSource(ClickHouseIdConfig idConfig, String dbFieldName) {
+        if (DefaultEventHandler.KEY_FTIME.equals(dbFieldName)) {
+            return SOURCE_FTIME;
+        }
+        if (DefaultEventHandler.KEY_EXTINFO.equals(dbFieldName)) {
+            return SOURCE_EXTINFO;
+        }
+        int index = idConfig.getContentFieldList().lastIndexOf(dbFieldName);
+        return (index >= 0) ? index : SOURCE_ABSENT;
+    }
+
+    /**
+     * isWritable, false if a failed batch is not inserted yet, or the writer backs off after a failure
+     *
+     * @return
+     */
+    public boolean isWritable() {
+        return failedBatches.isEmpty() && System.currentTimeMillis() >= retryTime;
+    }
+
+    /**
+     * flushTimeout, resend the failed batches after the backoff, and flush the batches exceeding the flush interval
+     */
+    public void flushTimeout() {
+        this.retryFailed(false);
+        List<RowBinaryBatch> timeoutBatches = new ArrayList<>();
+        Iterator<Entry<String, RowBinaryBatch>> iterator = batchMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            RowBinaryBatch batch = iterator.next().getValue();
+            if (batch.isTimeout(context.getBatchFlushInterval())) {
+                timeoutBatches.add(batch);
+                iterator.remove();
+            }
+        }
+        timeoutBatches.forEach(this::flush);
+    }
+
+    /**
+     * flushAll
+     */
+    public void flushAll() {
+        List<RowBinaryBatch> batches = new ArrayList<>(batchMap.values());
+        batchMap.clear();
+        batches.forEach(this::flush);
+    }
+
+    /**
+     * retryFailed, resend the failed batches in order, stop at the first failure
+     *
+     * @param ignoreBackoff
+     */
+    private void retryFailed(boolean ignoreBackoff) {
+        while (!failedBatches.isEmpty()
+                && (ignoreBackoff || System.currentTimeMillis() >= retryTime)) {
+            if (!this.send(failedBatches.peekFirst())) {
+                return;
+            }
+            failedBatches.pollFirst();
+        }
+    }
+
+    /**
+     * backoff, double the wait after every failure in a row
+     */
+    private void backoff() {
+        long backoff = Math.min(RETRY_BACKOFF_MAX_MS, RETRY_BACKOFF_BASE_MS << Math.min(failCount, 16));
+        this.failCount++;
+        this.retryTime = System.currentTimeMillis() + backoff;
+    }
+
+    /**
+     * close
+     */
+    public void close() {
+        this.flushAll();
+        this.retryFailed(true);
+        for (RowBinaryBatch batch : failedBatches) {
+            // never acked, the events are delivered again by the source
+            LOG.error("Fail to insert RowBinary before close,sql:{},rows:{}", batch.getInsertSql(),
+                    batch.getRowCount());
+        }
+        failedBatches.clear();
+        try {
+            this.httpClient.close();
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * flush, resend the batch after the backoff if it fails
+     *
+     * @param batch
+     */
+    private void flush(RowBinaryBatch batch) {
+        if (!this.send(batch)) {
+            failedBatches.addLast(batch);
+        }
+    }
+
+    /**
+     * send, ack every profile if the batch is inserted
+     *
+     * @param  batch
+     * @return       true if the batch is inserted
+     */
+    private boolean send(RowBinaryBatch batch) {
+        long sendTime = System.currentTimeMillis();
+        for (DispatchProfile profile : batch.getProfiles()) {
+            context.addSendMetric(profile);
+        }
+        String errorMsg = null;
+        if (batch.getRowCount() > 0) {
+            errorMsg = this.post(batch);
+        }
+        if (errorMsg != null) {
+            for (DispatchProfile profile : batch.getProfiles()) {
+                context.addSendFailMetric(errorMsg, profile);
+            }
+            this.backoff();
+            return false;
+        }
+        for (DispatchProfile profile : batch.getProfiles()) {
+            context.addSendSuccessMetric(profile, sendTime);
+            profile.ack();
+        }
+        this.failCount = 0;
+        return true;
+    }
+
+    /**
+     * post
+     *
+     * @param  batch
+     * @return       error message, null if success
+     */
+    private String post(RowBinaryBatch batch) {
+        HttpPost httpPost = null;
+        try {
+            String httpUrl = context.getHttpUrl();
+            String url = httpUrl + (httpUrl.indexOf('?') < 0 ? "?" : "&") + "query="
+                    + URLEncoder.encode(batch.getInsertSql(), StandardCharsets.UTF_8.name());
+            httpPost = new HttpPost(url);
+            if (StringUtils.isNotBlank(context.getJdbcUsername())) {
+                httpPost.addHeader(HEADER_USER, context.getJdbcUsername());
+                httpPost.addHeader(HEADER_KEY, StringUtils.defaultString(context.getJdbcPassword()));
+            }
+            RowBinaryBuffer buffer = batch.getBuffer();
+            httpPost.setEntity(new ByteArrayEntity(buffer.getBuffer(), 0, buffer.size(),
+                    ContentType.APPLICATION_OCTET_STREAM));
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                String result = EntityUtils.toString(response.getEntity());
+                if (statusCode == 200) {
+                    return null;
+                }
+                LOG.error("Fail to insert RowBinary,sql:{},rows:{},status:{},result:{}", batch.getInsertSql(),
+                        batch.getRowCount(), statusCode, result);
+                return "http status " + statusCode;
+            }
+        } catch (Throwable t) {
+            LOG.error("Fail to insert RowBinary,sql:{},rows:{},error:{}", batch.getInsertSql(),
+                    batch.getRowCount(), t.getMessage(), t);
+            return "http error";
+        } finally {
+            if (httpPost != null) {
+                httpPost.releaseConnection();
+            }
+        }
+    }
+}
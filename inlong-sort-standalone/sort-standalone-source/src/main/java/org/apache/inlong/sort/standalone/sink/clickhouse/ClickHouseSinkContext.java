@@ -66,6 +66,17 @@ public class ClickHouseSinkContext extends SinkContext {
     public static final String KEY_JDBC_USERNAME = "jdbcUsername";
     public static final String KEY_JDBC_PASSWORD = "jdbcPassword";
     public static final String KEY_EVENT_HANDLER = "clickHouseEventHandler";
+    public static final String KEY_WRITE_MODE = "writeMode";
+    public static final String WRITE_MODE_JDBC = "jdbc";
+    public static final String WRITE_MODE_ROW_BINARY = "rowBinary";
+    public static final String KEY_HTTP_URL = "httpUrl";
+    public static final String KEY_BATCH_MAX_BYTES = "batchMaxBytes";
+    public static final int DEFAULT_BATCH_MAX_BYTES = 16 * 1024 * 1024;
+    public static final String KEY_BATCH_MAX_ROWS = "batchMaxRows";
+    public static final int DEFAULT_BATCH_MAX_ROWS = 100000;
+    public static final String KEY_BATCH_FLUSH_INTERVAL = "batchFlushInterval";
+    public static final long DEFAULT_BATCH_FLUSH_INTERVAL = 1000L;
+    public static final String JDBC_URL_PREFIX = "jdbc:clickhouse:";
 
     private Context parentContext;
     private String nodeId;
@@ -76,6 +87,12 @@ public class ClickHouseSinkContext extends SinkContext {
     private String jdbcUrl;
     private String jdbcUsername;
     private String jdbcPassword;
+    // RowBinary over http config
+    private String writeMode = WRITE_MODE_JDBC;
+    private String httpUrl;
+    private int batchMaxBytes = DEFAULT_BATCH_MAX_BYTES;
+    private int batchMaxRows = DEFAULT_BATCH_MAX_ROWS;
+    private long batchFlushInterval = DEFAULT_BATCH_FLUSH_INTERVAL;
 
     /**
      * Constructor
@@ -123,6 +140,13 @@ public class ClickHouseSinkContext extends SinkContext {
             this.jdbcUsername = currentContext.getString(KEY_JDBC_USERNAME);
             this.jdbcPassword = currentContext.getString(KEY_JDBC_PASSWORD);
             Class.forName(this.jdbcDriver);
+            // RowBinary over http config
+            this.writeMode = currentContext.getString(KEY_WRITE_MODE, WRITE_MODE_JDBC);
+            this.httpUrl = currentContext.getString(KEY_HTTP_URL, parseHttpUrl(this.jdbcUrl));
+            this.batchMaxBytes = currentContext.getInteger(KEY_BATCH_MAX_BYTES, DEFAULT_BATCH_MAX_BYTES);
+            this.batchMaxRows = currentContext.getInteger(KEY_BATCH_MAX_ROWS, DEFAULT_BATCH_MAX_ROWS);
+            this.batchFlushInterval = currentContext.getLong(KEY_BATCH_FLUSH_INTERVAL,
+                    DEFAULT_BATCH_FLUSH_INTERVAL);
             // load DB field
             this.initIdConfig(newIdConfigMap);
             // change current config
@@ -149,11 +173,13 @@ public class ClickHouseSinkContext extends SinkContext {
                 idConfig.setContentFieldList(ClickHouseIdConfig.parseFieldNames(idConfig.getContentFieldNames()));
                 // load db field type
                 Map<String, Integer> fullTypeMap = new HashMap<>();
+                Map<String, String> fullTypeNameMap = new HashMap<>();
                 try (ResultSet rs = stat.executeQuery("select * from " + idConfig.getTableName())) {
                     ResultSetMetaData meta = rs.getMetaData();
                     int columnCount = meta.getColumnCount();
                     for (int i = 1; i <= columnCount; i++) {
                         fullTypeMap.put(meta.getColumnName(i), meta.getColumnType(i));
+                        fullTypeNameMap.put(meta.getColumnName(i), meta.getColumnTypeName(i));
                     }
                 } catch (Exception e) {
                     LOG.error("Can not get metadata,group:{},stream:{},error:{}", idConfig.getInlongGroupId(),
@@ -180,10 +206,71 @@ public class ClickHouseSinkContext extends SinkContext {
                 insertSql.deleteCharAt(insertSql.length() - 1);
                 insertSql.append(")");
                 idConfig.setInsertSql(insertSql.toString());
+                // load RowBinary encoder
+                this.initRowBinary(idConfig, fullTypeNameMap);
             }
         }
     }
 
+    /**
+     * initRowBinary, resolve the column encoders once, the id config keeps jdbc mode if any column is unsupported.
+     * @param idConfig
+     * @param fullTypeNameMap
+     */
+    private void initRowBinary(ClickHouseIdConfig idConfig, Map<String, String> fullTypeNameMap) {
+        if (!WRITE_MODE_ROW_BINARY.equals(writeMode)) {
+            return;
+        }
+        List<RowBinaryFieldEncoder> encoderList = new ArrayList<>(idConfig.getDbFieldList().size());
+        int[] sources = new int[idConfig.getDbFieldList().size()];
+        StringBuilder insertSql = new StringBuilder();
+        insertSql.append("INSERT INTO ").append(idConfig.getTableName()).append(" (");
+        for (Pair<String, Integer> field : idConfig.getDbFieldList()) {
+            String typeName = fullTypeNameMap.get(field.getKey());
+            RowBinaryFieldEncoder encoder = RowBinaryFieldEncoder.create(typeName);
+            if (encoder == null) {
+                LOG.warn("Can not write RowBinary, use jdbc,group:{},stream:{},field:{},type:{}",
+                        idConfig.getInlongGroupId(), idConfig.getInlongStreamId(), field.getKey(), typeName);
+                return;
+            }
+            sources[encoderList.size()] = ClickHouseRowBinaryWriter.getSource(idConfig, field.getKey());
+            encoderList.add(encoder);
+            insertSql.append(field.getKey()).append(',');
+        }
+        insertSql.deleteCharAt(insertSql.length() - 1);
+        insertSql.append(") FORMAT RowBinary");
+        idConfig.setRowBinarySources(sources);
+        idConfig.setRowBinaryEncoderList(encoderList);
+        idConfig.setRowBinaryInsertSql(insertSql.toString());
+    }
+
+    /**
+     * parseHttpUrl, jdbc:clickhouse://host:8123/db?params to http://host:8123/?database=db
+     * @param jdbcUrl
+     * @return
+     */
+    public static String parseHttpUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(JDBC_URL_PREFIX)) {
+            return null;
+        }
+        String address = jdbcUrl.substring(JDBC_URL_PREFIX.length());
+        int paramIndex = address.indexOf('?');
+        if (paramIndex >= 0) {
+            address = address.substring(0, paramIndex);
+        }
+        // skip "//"
+        int pathIndex = address.indexOf('/', 2);
+        if (pathIndex < 0) {
+            return "http:" + address + "/";
+        }
+        String database = address.substring(pathIndex + 1);
+        String hostPort = address.substring(0, pathIndex);
+        if (database.isEmpty()) {
+            return "http:" + hostPort + "/";
+        }
+        return "http:" + hostPort + "/?database=" + database;
+    }
+
     /**
      * addSendMetric
      * 
@@ -395,6 +482,46 @@ public class ClickHouseSinkContext extends SinkContext {
         this.jdbcPassword = jdbcPassword;
     }
 
+    /**
+     * get writeMode
+     * @return the writeMode
+     */
+    public String getWriteMode() {
+        return writeMode;
+    }
+
+    /**
+     * get httpUrl
+     * @return the httpUrl
+     */
+    public String getHttpUrl() {
+        return httpUrl;
+    }
+
+    /**
+     * get batchMaxBytes
+     * @return the batchMaxBytes
+     */
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    /**
+     * get batchMaxRows
+     * @return the batchMaxRows
+     */
+    public int getBatchMaxRows() {
+        return batchMaxRows;
+    }
+
+    /**
+     * get batchFlushInterval
+     * @return the batchFlushInterval
+     */
+    public long getBatchFlushInterval() {
+        return batchFlushInterval;
+    }
+
     /**
      * get dispatchQueue
      * @return the dispatchQueue
@@ -45,6 +45,7 @@ public class DefaultEventHandler implements IEventHandler {
     public static final Logger LOG = LoggerFactory.getLogger(DefaultEventHandler.class);
 
     public static final String KEY_EXTINFO = "extinfo";
+    public static final String KEY_FTIME = "ftime";
 
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -58,6 +59,31 @@ public class DefaultEventHandler implements IEventHandler {
     public Map<String, String> parse(ClickHouseIdConfig idConfig, ProfileEvent event) {
         final Map<String, String> resultMap = new HashMap<>();
         // parse fields
+        List<String> columnValues = splitContent(idConfig, event);
+        // column size
+        List<String> contentFieldList = idConfig.getContentFieldList();
+        int matchSize = Math.min(contentFieldList.size(), columnValues.size());
+        for (int i = 0; i < matchSize; i++) {
+            resultMap.put(contentFieldList.get(i), columnValues.get(i));
+        }
+
+        // ftime
+        String ftime = dateFormat.format(new Date(event.getRawLogTime()));
+        resultMap.put(KEY_FTIME, ftime);
+        // extinfo
+        String extinfo = getExtInfo(event);
+        resultMap.put(KEY_EXTINFO, extinfo);
+        return resultMap;
+    }
+
+    /**
+     * splitContent, unescape the content of the body to the values of the content fields
+     * 
+     * @param  idConfig
+     * @param  event
+     * @return
+     */
+    public static List<String> splitContent(ClickHouseIdConfig idConfig, ProfileEvent event) {
         String delimeter = idConfig.getSeparator();
         char cDelimeter = delimeter.charAt(0);
         String strContext = null;
@@ -71,21 +97,7 @@ public class DefaultEventHandler implements IEventHandler {
             strContext = new String(bodyBytes, Charset.defaultCharset());
         }
         // unescape
-        List<String> columnValues = UnescapeHelper.toFiledList(strContext, cDelimeter);
-        // column size
-        List<String> contentFieldList = idConfig.getContentFieldList();
-        int matchSize = Math.min(contentFieldList.size(), columnValues.size());
-        for (int i = 0; i < matchSize; i++) {
-            resultMap.put(contentFieldList.get(i), columnValues.get(i));
-        }
-
-        // ftime
-        String ftime = dateFormat.format(new Date(event.getRawLogTime()));
-        resultMap.put("ftime", ftime);
-        // extinfo
-        String extinfo = getExtInfo(event);
-        resultMap.put("extinfo", extinfo);
-        return resultMap;
+        return UnescapeHelper.toFiledList(strContext, cDelimeter);
     }
 
     /**
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * RowBinaryBatch, the rows of many DispatchProfile sharing one RowBinary insert sql
+ */
+public class RowBinaryBatch {
+
+    private final String insertSql;
+    private final RowBinaryBuffer buffer;
+    private final List<DispatchProfile> profiles = new ArrayList<>();
+    private final long createTime;
+    private int rowCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param insertSql
+     * @param initialSize
+     */
+    public RowBinaryBatch(String insertSql, int initialSize) {
+        this.insertSql = insertSql;
+        this.buffer = new RowBinaryBuffer(initialSize);
+        this.createTime = System.currentTimeMillis();
+    }
+
+    /**
+     * addProfile, the profile is acked or retried together with the batch
+     * @param profile
+     */
+    public void addProfile(DispatchProfile profile) {
+        this.profiles.add(profile);
+    }
+
+    /**
+     * increaseRowCount
+     */
+    public void increaseRowCount() {
+        this.rowCount++;
+    }
+
+    /**
+     * rollback, remove the rows appended after the mark
+     * @param size buffer size of the mark
+     * @param rowCount row count of the mark
+     */
+    public void rollback(int size, int rowCount) {
+        this.buffer.truncate(size);
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * isFull
+     * @param maxBytes
+     * @param maxRows
+     * @return
+     */
+    public boolean isFull(int maxBytes, int maxRows) {
+        return buffer.size() >= maxBytes || rowCount >= maxRows;
+    }
+
+    /**
+     * isTimeout
+     * @param flushInterval
+     * @return
+     */
+    public boolean isTimeout(long flushInterval) {
+        return System.currentTimeMillis() - createTime >= flushInterval;
+    }
+
+    /**
+     * get insertSql
+     * @return the insertSql
+     */
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    /**
+     * get buffer
+     * @return the buffer
+     */
+    public RowBinaryBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * get profiles
+     * @return the profiles
+     */
+    public List<DispatchProfile> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * get rowCount
+     * @return the rowCount
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+}
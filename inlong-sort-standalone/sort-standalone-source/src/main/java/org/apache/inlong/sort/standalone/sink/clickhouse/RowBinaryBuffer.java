@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * RowBinaryBuffer, a growable byte buffer writing values in ClickHouse RowBinary layout (little endian)
+ */
+public class RowBinaryBuffer extends ByteArrayOutputStream {
+
+    /**
+     * Constructor
+     *
+     * @param initialSize
+     */
+    public RowBinaryBuffer(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * writeInt8
+     * @param value
+     */
+    public void writeInt8(int value) {
+        this.write(value);
+    }
+
+    /**
+     * writeInt16
+     * @param value
+     */
+    public void writeInt16(int value) {
+        this.write(value);
+        this.write(value >>> 8);
+    }
+
+    /**
+     * writeInt32
+     * @param value
+     */
+    public void writeInt32(int value) {
+        this.write(value);
+        this.write(value >>> 8);
+        this.write(value >>> 16);
+        this.write(value >>> 24);
+    }
+
+    /**
+     * writeInt64
+     * @param value
+     */
+    public void writeInt64(long value) {
+        this.writeInt32((int) value);
+        this.writeInt32((int) (value >>> 32));
+    }
+
+    /**
+     * writeVarInt, unsigned LEB128 used for string length
+     * @param value
+     */
+    public void writeVarInt(long value) {
+        long current = value;
+        while ((current & ~0x7FL) != 0) {
+            this.write((int) ((current & 0x7F) | 0x80));
+            current >>>= 7;
+        }
+        this.write((int) current);
+    }
+
+    /**
+     * writeString
+     * @param value
+     */
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeVarInt(bytes.length);
+        this.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * writeFixedString
+     * @param value
+     * @param length
+     */
+    public void writeFixedString(String value, int length) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int copyLength = Math.min(bytes.length, length);
+        this.write(bytes, 0, copyLength);
+        for (int i = copyLength; i < length; i++) {
+            this.write(0);
+        }
+    }
+
+    /**
+     * truncate, drop the bytes written after the mark, used to roll back a half encoded row
+     * @param mark
+     */
+    public void truncate(int mark) {
+        if (mark >= 0 && mark <= this.count) {
+            this.count = mark;
+        }
+    }
+
+    /**
+     * getBuffer, the internal array, valid from 0 to size()
+     * @return
+     */
+    public byte[] getBuffer() {
+        return this.buf;
+    }
+}
@@ -0,0 +1,613 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * RowBinaryFieldEncoder, resolved once per column type when the id config is loaded,
+ * then used to write the string value of the column into a RowBinary batch.
+ * <p>
+ * An absent or empty value is written as the default of the type, a value that can not be parsed
+ * as the type throws IllegalArgumentException, and the writer puts the profile of the row back.
+ */
+public abstract class RowBinaryFieldEncoder {
+
+    public static final String TYPE_NULLABLE = "Nullable(";
+    public static final String TYPE_LOW_CARDINALITY = "LowCardinality(";
+    public static final String TYPE_FIXED_STRING = "FixedString(";
+    public static final String TYPE_DATETIME64 = "DateTime64";
+    public static final String TYPE_DATETIME = "DateTime";
+    public static final String TYPE_DECIMAL = "Decimal";
+    public static final String TYPE_ENUM8 = "Enum8(";
+    public static final String TYPE_ENUM16 = "Enum16(";
+
+    // the server timezone of ClickHouse is taken as the local one, for the columns without a declared timezone
+    private static final ZoneId DEFAULT_ZONE = ZoneId.systemDefault();
+    private static final BigInteger INT128_MASK = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * encode
+     * @param value the column value, null if the column is absent in the event
+     * @param output
+     */
+    public abstract void encode(String value, RowBinaryBuffer output);
+
+    /**
+     * encodeTime, write a time filled by the sink such as ftime, the result is same as encoding the time formatted
+     * as yyyy-MM-dd HH:mm:ss in the local zone, the time columns write it without formatting.
+     * @param timeMillis
+     * @param output
+     */
+    public void encodeTime(long timeMillis, RowBinaryBuffer output) {
+        this.encode(TIME_FORMATTER.format(toLocalDateTime(timeMillis)), output);
+    }
+
+    /**
+     * create encoder by ClickHouse type name, for example: Nullable(Int32), DateTime64(3), Decimal(18, 4).
+     *
+     * @param  typeName
+     * @return          the encoder, null if the type can not be written in RowBinary by the sink.
+     */
+    public static RowBinaryFieldEncoder create(String typeName) {
+        if (typeName == null) {
+            return null;
+        }
+        String type = typeName.trim();
+        if (type.startsWith(TYPE_NULLABLE) && type.endsWith(")")) {
+            RowBinaryFieldEncoder inner = create(type.substring(TYPE_NULLABLE.length(), type.length() - 1));
+            return (inner == null) ? null : new NullableEncoder(inner);
+        }
+        if (type.startsWith(TYPE_LOW_CARDINALITY) && type.endsWith(")")) {
+            // RowBinary of LowCardinality(T) is same as T
+            return create(type.substring(TYPE_LOW_CARDINALITY.length(), type.length() - 1));
+        }
+        if (type.startsWith(TYPE_FIXED_STRING) && type.endsWith(")")) {
+            int length = parseInt(type.substring(TYPE_FIXED_STRING.length(), type.length() - 1), -1);
+            return (length <= 0) ? null : new FixedStringEncoder(length);
+        }
+        if (type.startsWith(TYPE_DATETIME64)) {
+            String[] params = parseParams(type, TYPE_DATETIME64);
+            int precision = (params.length > 0) ? parseInt(params[0], -1) : 3;
+            ZoneId zone = parseZone(params, 1);
+            return (precision < 0 || precision > 9 || zone == null) ? null : new DateTime64Encoder(precision, zone);
+        }
+        if (type.startsWith(TYPE_DATETIME)) {
+            ZoneId zone = parseZone(parseParams(type, TYPE_DATETIME), 0);
+            return (zone == null) ? null : new DateTimeEncoder(zone);
+        }
+        if (type.startsWith(TYPE_DECIMAL)) {
+            return createDecimal(type);
+        }
+        if (type.startsWith(TYPE_ENUM8) || type.startsWith(TYPE_ENUM16)) {
+            return createEnum(type);
+        }
+        switch (type) {
+            case "Int8" :
+            case "UInt8" :
+            case "Bool" :
+                return new IntEncoder(1);
+            case "Int16" :
+            case "UInt16" :
+                return new IntEncoder(2);
+            case "Int32" :
+            case "UInt32" :
+                return new IntEncoder(4);
+            case "Int64" :
+            case "UInt64" :
+                return new IntEncoder(8);
+            case "Float32" :
+                return new Float32Encoder();
+            case "Float64" :
+                return new Float64Encoder();
+            case "String" :
+                return new StringEncoder();
+            case "Date" :
+                return new DateEncoder(false);
+            case "Date32" :
+                return new DateEncoder(true);
+            default :
+                return null;
+        }
+    }
+
+    /**
+     * createDecimal, Decimal(P, S), Decimal32(S), Decimal64(S), Decimal128(S)
+     */
+    private static RowBinaryFieldEncoder createDecimal(String type) {
+        int precision;
+        int scale;
+        if (type.indexOf('(') < 0 || !type.endsWith(")")) {
+            return null;
+        }
+        if (type.startsWith("Decimal(")) {
+            String[] params = parseParams(type, TYPE_DECIMAL);
+            if (params.length != 2) {
+                return null;
+            }
+            precision = parseInt(params[0], -1);
+            scale = parseInt(params[1], -1);
+        } else {
+            String[] params = parseParams(type, type.substring(0, type.indexOf('(')));
+            scale = (params.length == 1) ? parseInt(params[0], -1) : -1;
+            if (type.startsWith("Decimal32(")) {
+                precision = 9;
+            } else if (type.startsWith("Decimal64(")) {
+                precision = 18;
+            } else if (type.startsWith("Decimal128(")) {
+                precision = 38;
+            } else {
+                return null;
+            }
+        }
+        if (precision <= 0 || precision > 38 || scale < 0 || scale > precision) {
+            return null;
+        }
+        int size = (precision <= 9) ? 4 : ((precision <= 18) ? 8 : 16);
+        return new DecimalEncoder(size, scale);
+    }
+
+    /**
+     * createEnum, Enum8('a' = 1, 'b' = 2)
+     */
+    private static RowBinaryFieldEncoder createEnum(String type) {
+        int size = type.startsWith(TYPE_ENUM8) ? 1 : 2;
+        if (!type.endsWith(")")) {
+            return null;
+        }
+        String body = type.substring(type.indexOf('(') + 1, type.length() - 1);
+        Map<String, Integer> valueMap = new HashMap<>();
+        for (String item : body.split(",")) {
+            int equalIndex = item.lastIndexOf('=');
+            if (equalIndex < 0) {
+                return null;
+            }
+            String name = item.substring(0, equalIndex).trim();
+            if (name.length() < 2 || name.charAt(0) != '\'' || name.charAt(name.length() - 1) != '\'') {
+                return null;
+            }
+            int value = parseInt(item.substring(equalIndex + 1), Integer.MIN_VALUE);
+            if (value == Integer.MIN_VALUE) {
+                return null;
+            }
+            valueMap.put(name.substring(1, name.length() - 1), value);
+        }
+        return new EnumEncoder(size, valueMap);
+    }
+
+    private static String[] parseParams(String type, String prefix) {
+        String rest = type.substring(prefix.length()).trim();
+        if (rest.length() < 2 || rest.charAt(0) != '(' || rest.charAt(rest.length() - 1) != ')') {
+            return new String[0];
+        }
+        String[] params = rest.substring(1, rest.length() - 1).split(",");
+        for (int i = 0; i < params.length; i++) {
+            params[i] = params[i].trim();
+        }
+        return params;
+    }
+
+    /**
+     * parseZone, the timezone parameter of DateTime('Asia/Shanghai') or DateTime64(3, 'Asia/Shanghai')
+     *
+     * @return the declared timezone, the default one if it is not declared, null if it is invalid
+     */
+    private static ZoneId parseZone(String[] params, int index) {
+        if (params.length <= index) {
+            return DEFAULT_ZONE;
+        }
+        String zoneName = params[index];
+        if (zoneName.length() < 2 || zoneName.charAt(0) != '\'' || zoneName.charAt(zoneName.length() - 1) != '\'') {
+            return null;
+        }
+        try {
+            return ZoneId.of(zoneName.substring(1, zoneName.length() - 1));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // UInt64 over Long.MAX_VALUE, throw NumberFormatException if it is not a number
+            return Long.parseUnsignedLong(value);
+        }
+    }
+
+    private static double parseDouble(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0d;
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * parseEpochSecond, format is yyyy-MM-dd HH:mm:ss or yyyy-MM-dd, return 0 if the value is empty.
+     */
+    static long parseEpochSecond(String value, ZoneId zone) {
+        if (value == null || value.isEmpty()) {
+            return 0L;
+        }
+        return parseValidLocalDateTime(value).atZone(zone).toEpochSecond();
+    }
+
+    /**
+     * parseEpochSecondAndNano, format is yyyy-MM-dd HH:mm:ss[.SSSSSSSSS], return 0 if the value is empty.
+     */
+    static long[] parseEpochSecondAndNano(String value, ZoneId zone) {
+        if (value == null || value.isEmpty()) {
+            return new long[]{0L, 0L};
+        }
+        LocalDateTime dateTime = parseValidLocalDateTime(value);
+        long nano = 0L;
+        if (value.length() > 20 && value.charAt(19) == '.') {
+            int digits = 0;
+            for (int i = 20; i < value.length() && digits < 9; i++, digits++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                nano = nano * 10 + (c - '0');
+            }
+            for (; digits < 9; digits++) {
+                nano *= 10;
+            }
+        }
+        return new long[]{dateTime.atZone(zone).toEpochSecond(), nano};
+    }
+
+    /**
+     * toLocalDateTime, the time in the local zone truncated to seconds
+     */
+    static LocalDateTime toLocalDateTime(long timeMillis) {
+        long epochSecond = Math.floorDiv(timeMillis, 1000L);
+        return LocalDateTime.ofEpochSecond(epochSecond, 0,
+                DEFAULT_ZONE.getRules().getOffset(Instant.ofEpochSecond(epochSecond)));
+    }
+
+    /**
+     * toEpochSecond, the time in the local zone truncated to seconds, then taken as a time of the zone
+     */
+    static long toEpochSecond(long timeMillis, ZoneId zone) {
+        if (zone.equals(DEFAULT_ZONE)) {
+            return Math.floorDiv(timeMillis, 1000L);
+        }
+        return toLocalDateTime(timeMillis).atZone(zone).toEpochSecond();
+    }
+
+    private static LocalDateTime parseValidLocalDateTime(String value) {
+        LocalDateTime dateTime = parseLocalDateTime(value);
+        if (dateTime == null) {
+            throw new IllegalArgumentException("invalid date time:" + value);
+        }
+        return dateTime;
+    }
+
+    private static LocalDateTime parseLocalDateTime(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 7);
+        int day = parseDigits(value, 8, 10);
+        if (year < 0 || month < 1 || day < 1 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return null;
+        }
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (value.length() >= 19) {
+            hour = parseDigits(value, 11, 13);
+            minute = parseDigits(value, 14, 16);
+            second = parseDigits(value, 17, 19);
+            if (hour < 0 || minute < 0 || second < 0) {
+                return null;
+            }
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int parseDigits(String value, int begin, int end) {
+        int result = 0;
+        for (int i = begin; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * NullableEncoder
+     */
+    static class NullableEncoder extends RowBinaryFieldEncoder {
+
+        private final RowBinaryFieldEncoder inner;
+
+        NullableEncoder(RowBinaryFieldEncoder inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            if (value == null) {
+                output.writeInt8(1);
+                return;
+            }
+            output.writeInt8(0);
+            inner.encode(value, output);
+        }
+
+        @Override
+        public void encodeTime(long timeMillis, RowBinaryBuffer output) {
+            output.writeInt8(0);
+            inner.encodeTime(timeMillis, output);
+        }
+    }
+
+    /**
+     * IntEncoder, Int8 to Int64 and UInt8 to UInt64
+     */
+    static class IntEncoder extends RowBinaryFieldEncoder {
+
+        private final int size;
+
+        IntEncoder(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            long longValue = parseLong(value);
+            switch (size) {
+                case 1 :
+                    output.writeInt8((int) longValue);
+                    break;
+                case 2 :
+                    output.writeInt16((int) longValue);
+                    break;
+                case 4 :
+                    output.writeInt32((int) longValue);
+                    break;
+                default :
+                    output.writeInt64(longValue);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Float32Encoder
+     */
+    static class Float32Encoder extends RowBinaryFieldEncoder {
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            output.writeInt32(Float.floatToIntBits((float) parseDouble(value)));
+        }
+    }
+
+    /**
+     * Float64Encoder
+     */
+    static class Float64Encoder extends RowBinaryFieldEncoder {
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            output.writeInt64(Double.doubleToLongBits(parseDouble(value)));
+        }
+    }
+
+    /**
+     * StringEncoder
+     */
+    static class StringEncoder extends RowBinaryFieldEncoder {
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            output.writeString((value == null) ? "" : value);
+        }
+    }
+
+    /**
+     * FixedStringEncoder
+     */
+    static class FixedStringEncoder extends RowBinaryFieldEncoder {
+
+        private final int length;
+
+        FixedStringEncoder(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            output.writeFixedString((value == null) ? "" : value, length);
+        }
+    }
+
+    /**
+     * DateEncoder, Date is UInt16 and Date32 is Int32 of days since 1970-01-01
+     */
+    static class DateEncoder extends RowBinaryFieldEncoder {
+
+        private final boolean isDate32;
+
+        DateEncoder(boolean isDate32) {
+            this.isDate32 = isDate32;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            long days = (value == null || value.isEmpty())
+                    ? 0L
+                    : parseValidLocalDateTime(value).toLocalDate().toEpochDay();
+            this.writeDays(days, output);
+        }
+
+        @Override
+        public void encodeTime(long timeMillis, RowBinaryBuffer output) {
+            this.writeDays(toLocalDateTime(timeMillis).toLocalDate().toEpochDay(), output);
+        }
+
+        private void writeDays(long days, RowBinaryBuffer output) {
+            if (isDate32) {
+                output.writeInt32((int) days);
+            } else {
+                output.writeInt16((int) Math.max(days, 0L));
+            }
+        }
+    }
+
+    /**
+     * DateTimeEncoder, UInt32 of seconds since epoch
+     */
+    static class DateTimeEncoder extends RowBinaryFieldEncoder {
+
+        private final ZoneId zone;
+
+        DateTimeEncoder(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            output.writeInt32((int) Math.max(parseEpochSecond(value, zone), 0L));
+        }
+
+        @Override
+        public void encodeTime(long timeMillis, RowBinaryBuffer output) {
+            output.writeInt32((int) Math.max(toEpochSecond(timeMillis, zone), 0L));
+        }
+    }
+
+    /**
+     * DateTime64Encoder, Int64 of ticks since epoch with the precision of the column
+     */
+    static class DateTime64Encoder extends RowBinaryFieldEncoder {
+
+        private final long ticksPerSecond;
+        private final long nanosPerTick;
+        private final ZoneId zone;
+
+        DateTime64Encoder(int precision, ZoneId zone) {
+            this.zone = zone;
+            long ticks = 1L;
+            for (int i = 0; i < precision; i++) {
+                ticks *= 10;
+            }
+            this.ticksPerSecond = ticks;
+            this.nanosPerTick = 1_000_000_000L / ticks;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            long[] secondAndNano = parseEpochSecondAndNano(value, zone);
+            output.writeInt64(secondAndNano[0] * ticksPerSecond + secondAndNano[1] / nanosPerTick);
+        }
+
+        @Override
+        public void encodeTime(long timeMillis, RowBinaryBuffer output) {
+            output.writeInt64(toEpochSecond(timeMillis, zone) * ticksPerSecond);
+        }
+    }
+
+    /**
+     * DecimalEncoder, unscaled value in Int32, Int64 or Int128
+     */
+    static class DecimalEncoder extends RowBinaryFieldEncoder {
+
+        private final int size;
+        private final int scale;
+
+        DecimalEncoder(int size, int scale) {
+            this.size = size;
+            this.scale = scale;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            BigInteger unscaled = (value == null || value.isEmpty())
+                    ? BigInteger.ZERO
+                    : new BigDecimal(value).setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+            if (size == 4) {
+                output.writeInt32(unscaled.intValue());
+            } else if (size == 8) {
+                output.writeInt64(unscaled.longValue());
+            } else {
+                BigInteger twosComplement = unscaled.and(INT128_MASK);
+                output.writeInt64(twosComplement.longValue());
+                output.writeInt64(twosComplement.shiftRight(64).longValue());
+            }
+        }
+    }
+
+    /**
+     * EnumEncoder, Int8 or Int16 of the enum value, accept both the name and the number
+     */
+    static class EnumEncoder extends RowBinaryFieldEncoder {
+
+        private final int size;
+        private final Map<String, Integer> valueMap;
+
+        EnumEncoder(int size, Map<String, Integer> valueMap) {
+            this.size = size;
+            this.valueMap = valueMap;
+        }
+
+        @Override
+        public void encode(String value, RowBinaryBuffer output) {
+            Integer enumValue = (value == null) ? null : valueMap.get(value);
+            int result = (enumValue != null) ? enumValue : (int) parseLong(value);
+            if (size == 1) {
+                output.writeInt8(result);
+            } else {
+                output.writeInt16(result);
+            }
+        }
+    }
+}
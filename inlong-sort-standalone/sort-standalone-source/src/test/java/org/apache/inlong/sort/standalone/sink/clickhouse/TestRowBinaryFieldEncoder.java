@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.util.Date;
+
+public class TestRowBinaryFieldEncoder {
+
+    private static byte[] encode(String typeName, String value) {
+        RowBinaryFieldEncoder encoder = RowBinaryFieldEncoder.create(typeName);
+        Assert.assertNotNull(encoder);
+        RowBinaryBuffer buffer = new RowBinaryBuffer(16);
+        encoder.encode(value, buffer);
+        return buffer.toByteArray();
+    }
+
+    @Test
+    public void testNumber() {
+        Assert.assertArrayEquals(new byte[]{(byte) 0xff}, encode("Int8", "-1"));
+        Assert.assertArrayEquals(new byte[]{0x01, 0x02}, encode("UInt16", "513"));
+        Assert.assertArrayEquals(new byte[]{0x01, 0, 0, 0}, encode("Int32", "1"));
+        Assert.assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 0}, encode("Int64", ""));
+        Assert.assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 0}, encode("Int64", null));
+        Assert.assertEquals(4, encode("Float32", "1.5").length);
+        Assert.assertEquals(8, encode("Float64", "1.5").length);
+        // Decimal(9, 2) is Int32 of 12345
+        Assert.assertArrayEquals(new byte[]{0x39, 0x30, 0, 0}, encode("Decimal(9, 2)", "123.45"));
+        Assert.assertEquals(16, encode("Decimal128(4)", "-1").length);
+    }
+
+    @Test
+    public void testString() {
+        Assert.assertArrayEquals(new byte[]{0x02, 'a', 'b'}, encode("String", "ab"));
+        Assert.assertArrayEquals(new byte[]{0x00}, encode("String", null));
+        Assert.assertArrayEquals(new byte[]{'a', 0, 0}, encode("FixedString(3)", "a"));
+        Assert.assertArrayEquals(new byte[]{0x02, 'a', 'b'}, encode("LowCardinality(String)", "ab"));
+        Assert.assertArrayEquals(new byte[]{0x01}, encode("Nullable(String)", null));
+        Assert.assertArrayEquals(new byte[]{0x00, 0x01, 'a'}, encode("Nullable(String)", "a"));
+        Assert.assertArrayEquals(new byte[]{0x02}, encode("Enum8('a' = 1, 'b' = 2)", "b"));
+    }
+
+    @Test
+    public void testInvalidValue() {
+        String[][] typeAndValues = {{"Int64", "abc"}, {"UInt8", "1.5"}, {"Float64", "x"},
+                {"Decimal(9, 2)", "abc"}, {"Date", "bad time"}, {"DateTime", "2022-13-01 10:20:30"},
+                {"DateTime64(3)", "bad time"}, {"Enum8('a' = 1, 'b' = 2)", "c"}};
+        for (String[] typeAndValue : typeAndValues) {
+            try {
+                encode(typeAndValue[0], typeAndValue[1]);
+                Assert.fail("invalid value is encoded:" + typeAndValue[0] + "," + typeAndValue[1]);
+            } catch (IllegalArgumentException e) {
+                // expected, the writer puts the profile back to the dispatch queue
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeTime() {
+        long timeMillis = 1659320430123L;
+        String formatted = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(timeMillis));
+        String[] typeNames = {"DateTime", "DateTime('Asia/Shanghai')", "DateTime64(3)", "Nullable(DateTime)",
+                "Date", "Date32", "String", "LowCardinality(String)"};
+        for (String typeName : typeNames) {
+            RowBinaryFieldEncoder encoder = RowBinaryFieldEncoder.create(typeName);
+            RowBinaryBuffer buffer = new RowBinaryBuffer(16);
+            encoder.encodeTime(timeMillis, buffer);
+            Assert.assertArrayEquals(typeName, encode(typeName, formatted), buffer.toByteArray());
+        }
+    }
+
+    @Test
+    public void testDateTime() {
+        ZoneId zone = ZoneId.systemDefault();
+        long second = RowBinaryFieldEncoder.parseEpochSecond("2022-08-01 10:20:30", zone);
+        Assert.assertEquals(second,
+                RowBinaryFieldEncoder.parseEpochSecondAndNano("2022-08-01 10:20:30.123", zone)[0]);
+        Assert.assertEquals(123000000L,
+                RowBinaryFieldEncoder.parseEpochSecondAndNano("2022-08-01 10:20:30.123", zone)[1]);
+        Assert.assertEquals(0L, RowBinaryFieldEncoder.parseEpochSecond("", zone));
+        Assert.assertEquals(2, encode("Date", "2022-08-01").length);
+        Assert.assertEquals(4, encode("DateTime", "2022-08-01 10:20:30").length);
+        Assert.assertEquals(8, encode("DateTime64(3, 'Asia/Shanghai')", "2022-08-01 10:20:30.123").length);
+    }
+
+    @Test
+    public void testDeclaredTimezone() {
+        // 2022-08-01 08:00:00 in Asia/Shanghai is 2022-08-01 00:00:00 UTC, 1659312000
+        Assert.assertArrayEquals(new byte[]{(byte) 0x80, 0x17, (byte) 0xe7, 0x62},
+                encode("DateTime('Asia/Shanghai')", "2022-08-01 08:00:00"));
+        Assert.assertArrayEquals(new byte[]{(byte) 0x80, 0x17, (byte) 0xe7, 0x62},
+                encode("DateTime('UTC')", "2022-08-01 00:00:00"));
+        // ticks of 1659312000.5 with precision 1
+        byte[] ticks = encode("DateTime64(1, 'UTC')", "2022-08-01 00:00:00.5");
+        Assert.assertArrayEquals(encodeInt64(16593120005L), ticks);
+        Assert.assertNull(RowBinaryFieldEncoder.create("DateTime('No/Zone')"));
+    }
+
+    private static byte[] encodeInt64(long value) {
+        RowBinaryBuffer buffer = new RowBinaryBuffer(8);
+        buffer.writeInt64(value);
+        return buffer.toByteArray();
+    }
+
+    @Test
+    public void testUnsupported() {
+        Assert.assertNull(RowBinaryFieldEncoder.create("Array(String)"));
+        Assert.assertNull(RowBinaryFieldEncoder.create("Nullable(Map(String, String))"));
+        Assert.assertNull(RowBinaryFieldEncoder.create("Decimal"));
+    }
+
+    @Test
+    public void testParseHttpUrl() {
+        Assert.assertEquals("http://127.0.0.1:8123/?database=db",
+                ClickHouseSinkContext.parseHttpUrl("jdbc:clickhouse://127.0.0.1:8123/db?socket_timeout=1"));
+        Assert.assertEquals("http://127.0.0.1:8123/",
+                ClickHouseSinkContext.parseHttpUrl("jdbc:clickhouse://127.0.0.1:8123"));
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.flink.table.connector.format.EncodingFormat;
 import org.apache.flink.table.connector.sink.DynamicTableSink;
 import org.apache.flink.table.connector.sink.SinkFunctionProvider;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.types.RowKind;
 import org.apache.flink.util.StringUtils;
 
@@ -40,6 +41,7 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.inlong.sort.elasticsearch.table.AsyncElasticsearchSink;
 import org.apache.inlong.sort.elasticsearch.table.RoutingExtractor;
 import org.apache.inlong.sort.elasticsearch.table.RowElasticsearchSinkFunction;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -120,8 +122,9 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
     @Override
     public SinkFunctionProvider getSinkRuntimeProvider(Context context) {
         return () -> {
-            SerializationSchema<RowData> format =
-                    this.format.createRuntimeEncoder(context, schema.toRowDataType());
+            SerializationSchema<RowData> format = config.isDirectJsonSerialization()
+                    ? config.createJsonSerializer((RowType) schema.toRowDataType().getLogicalType())
+                    : this.format.createRuntimeEncoder(context, schema.toRowDataType());
 
             final RowElasticsearchSinkFunction upsertFunction =
                     new RowElasticsearchSinkFunction(
@@ -134,6 +137,10 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
                             RoutingExtractor.createRoutingExtractor(
                                     schema, config.getRoutingField().orElse(null)));
 
+            if (config.isBulkFlushAsync()) {
+                return createAsyncSink(upsertFunction);
+            }
+
             final ElasticsearchSink.Builder<RowData> builder =
                     builderProvider.createBuilder(config.getHosts(), upsertFunction);
 
@@ -145,22 +152,7 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
             config.getBulkFlushBackoffType().ifPresent(builder::setBulkFlushBackoffType);
             config.getBulkFlushBackoffRetries().ifPresent(builder::setBulkFlushBackoffRetries);
             config.getBulkFlushBackoffDelay().ifPresent(builder::setBulkFlushBackoffDelay);
-
-            // we must overwrite the default factory which is defined with a lambda because of a bug
-            // in shading lambda serialization shading see FLINK-18006
-            if (config.getUsername().isPresent()
-                    && config.getPassword().isPresent()
-                    && !StringUtils.isNullOrWhitespaceOnly(config.getUsername().get())
-                    && !StringUtils.isNullOrWhitespaceOnly(config.getPassword().get())) {
-                builder.setRestClientFactory(
-                        new AuthRestClientFactory(
-                                config.getPathPrefix().orElse(null),
-                                config.getUsername().get(),
-                                config.getPassword().get()));
-            } else {
-                builder.setRestClientFactory(
-                        new DefaultRestClientFactory(config.getPathPrefix().orElse(null)));
-            }
+            builder.setRestClientFactory(createRestClientFactory());
 
             final ElasticsearchSink<RowData> sink = builder.build();
 
@@ -172,6 +164,44 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
         };
     }
 
+    private AsyncElasticsearchSink createAsyncSink(RowElasticsearchSinkFunction upsertFunction) {
+        final AsyncElasticsearchSink.Builder builder = new AsyncElasticsearchSink.Builder(upsertFunction,
+                new Elasticsearch6BulkClientFactory(config.getHosts(), createRestClientFactory()));
+
+        builder.setFailureHandler(config.getFailureHandler());
+        builder.setBulkFlushMaxActions(config.getBulkFlushMaxActions());
+        builder.setBulkFlushMaxSizeInBytes(config.getBulkFlushMaxByteSize());
+        builder.setBulkFlushInterval(config.getBulkFlushInterval());
+        builder.setMaxConcurrentRequests(config.getBulkFlushMaxConcurrentRequests());
+        builder.setTargetLatency(config.getBulkFlushTargetLatency());
+        if (config.isBulkFlushBackoffEnabled()) {
+            config.getBulkFlushBackoffType().ifPresent(builder::setBulkFlushBackoffType);
+            config.getBulkFlushBackoffRetries().ifPresent(builder::setBulkFlushBackoffRetries);
+            config.getBulkFlushBackoffDelay().ifPresent(builder::setBulkFlushBackoffDelay);
+        } else {
+            builder.setBulkFlushBackoffRetries(0);
+        }
+        if (config.isDisableFlushOnCheckpoint()) {
+            builder.disableFlushOnCheckpoint();
+        }
+        return builder.build();
+    }
+
+    private RestClientFactory createRestClientFactory() {
+        // we must overwrite the default factory which is defined with a lambda because of a bug
+        // in shading lambda serialization shading see FLINK-18006
+        if (config.getUsername().isPresent()
+                && config.getPassword().isPresent()
+                && !StringUtils.isNullOrWhitespaceOnly(config.getUsername().get())
+                && !StringUtils.isNullOrWhitespaceOnly(config.getPassword().get())) {
+            return new AuthRestClientFactory(
+                    config.getPathPrefix().orElse(null),
+                    config.getUsername().get(),
+                    config.getPassword().get());
+        }
+        return new DefaultRestClientFactory(config.getPathPrefix().orElse(null));
+    }
+
     @Override
     public DynamicTableSink copy() {
         return this;
@@ -40,11 +40,14 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLASH_MAX_SIZE_OPTION;
+import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_ASYNC_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_BACKOFF_DELAY_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_BACKOFF_TYPE_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_INTERVAL_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_MAX_ACTIONS_OPTION;
+import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION;
+import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.BULK_FLUSH_TARGET_LATENCY_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.CONNECTION_MAX_RETRY_TIMEOUT_OPTION;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.CONNECTION_PATH_PREFIX;
 import static org.apache.inlong.sort.elasticsearch.table.ElasticsearchOptions.DOCUMENT_TYPE_OPTION;
@@ -75,6 +78,9 @@ public class Elasticsearch6DynamicSinkFactory implements DynamicTableSinkFactory
                     BULK_FLUSH_BACKOFF_TYPE_OPTION,
                     BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION,
                     BULK_FLUSH_BACKOFF_DELAY_OPTION,
+                    BULK_FLUSH_ASYNC_OPTION,
+                    BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION,
+                    BULK_FLUSH_TARGET_LATENCY_OPTION,
                     CONNECTION_MAX_RETRY_TIMEOUT_OPTION,
                     CONNECTION_PATH_PREFIX,
                     FORMAT_OPTION,
@@ -135,6 +141,13 @@ public class Elasticsearch6DynamicSinkFactory implements DynamicTableSinkFactory
                                 "'%s' must be at least 1. Got: %s",
                                 BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION.key(),
                                 config.getBulkFlushBackoffRetries().get()));
+        validate(
+                config.getBulkFlushMaxConcurrentRequests() >= 1,
+                () ->
+                        String.format(
+                                "'%s' must be at least 1. Got: %s",
+                                BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION.key(),
+                                config.getBulkFlushMaxConcurrentRequests()));
         if (config.getUsername().isPresent()
                 && !StringUtils.isNullOrWhitespaceOnly(config.getUsername().get())) {
             validate(
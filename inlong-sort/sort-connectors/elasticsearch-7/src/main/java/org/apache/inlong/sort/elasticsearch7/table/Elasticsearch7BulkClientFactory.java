@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch7.table;
+
+import org.apache.flink.streaming.connectors.elasticsearch7.RestClientFactory;
+import org.apache.flink.util.Preconditions;
+
+import org.apache.http.HttpHost;
+import org.apache.inlong.sort.elasticsearch.table.BulkClient;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.RestHighLevelClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link BulkClient.Factory} creating the bulk clients on the Elasticsearch 7 high level rest client. */
+class Elasticsearch7BulkClientFactory implements BulkClient.Factory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<HttpHost> httpHosts;
+    private final RestClientFactory restClientFactory;
+
+    Elasticsearch7BulkClientFactory(List<HttpHost> httpHosts, RestClientFactory restClientFactory) {
+        Preconditions.checkArgument(httpHosts != null && !httpHosts.isEmpty(), "Hosts cannot be empty.");
+        this.httpHosts = new ArrayList<>(httpHosts);
+        this.restClientFactory = Preconditions.checkNotNull(restClientFactory);
+    }
+
+    @Override
+    public BulkClient create() throws IOException {
+        RestClientBuilder builder = RestClient.builder(httpHosts.toArray(new HttpHost[0]));
+        restClientFactory.configureRestClientBuilder(builder);
+        RestHighLevelClient client = new RestHighLevelClient(builder);
+        if (!client.ping(RequestOptions.DEFAULT)) {
+            client.close();
+            throw new IOException("There are no reachable Elasticsearch nodes!");
+        }
+        return new BulkClient() {
+            @Override
+            public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
+                client.bulkAsync(request, RequestOptions.DEFAULT, listener);
+            }
+
+            @Override
+            public void close() throws IOException {
+                client.close();
+            }
+        };
+    }
+}
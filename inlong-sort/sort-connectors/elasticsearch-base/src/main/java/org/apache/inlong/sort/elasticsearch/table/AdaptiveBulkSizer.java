@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+/**
+ * Adapts the number of actions of each bulk request to the observed Elasticsearch latency and rejections.
+ *
+ * <p>The size grows by one eighth after each bulk request completed within the target latency, shrinks in
+ * proportion to the latency overshoot for slower ones, and is halved when Elasticsearch rejects the items,
+ * always within {@code [minActions, maxActions]}.
+ */
+public class AdaptiveBulkSizer {
+
+    private final int minActions;
+    private final int maxActions;
+    private final long targetLatencyMs;
+
+    private volatile int bulkActions;
+
+    public AdaptiveBulkSizer(int initialActions, int maxActions, long targetLatencyMs) {
+        this.maxActions = Math.max(1, maxActions);
+        this.minActions = Math.max(1, Math.min(initialActions, this.maxActions) / 16);
+        this.targetLatencyMs = Math.max(1L, targetLatencyMs);
+        this.bulkActions = Math.max(minActions, Math.min(initialActions, this.maxActions));
+    }
+
+    /**
+     * Get the current number of actions to send in one bulk request.
+     */
+    public int getBulkActions() {
+        return bulkActions;
+    }
+
+    /**
+     * Update the size with a completed bulk request.
+     *
+     * @param actions the number of actions of the bulk request
+     * @param latencyMs the latency of the bulk request
+     * @param rejected whether some of the items are rejected by Elasticsearch
+     */
+    public synchronized void onBulkCompleted(int actions, long latencyMs, boolean rejected) {
+        int current = bulkActions;
+        if (rejected) {
+            bulkActions = Math.max(minActions, current / 2);
+        } else if (latencyMs > targetLatencyMs) {
+            bulkActions = Math.max(minActions, (int) (current * targetLatencyMs / latencyMs));
+        } else if (actions >= current) {
+            // only grow when the bulk request was full, the partial ones are sent by the flush interval
+            bulkActions = (int) Math.min(maxActions, current + Math.max(1L, current / 8));
+        }
+    }
+
+    /**
+     * Update the size with a failed bulk request.
+     */
+    public synchronized void onBulkFailed() {
+        bulkActions = Math.max(minActions, bulkActions / 2);
+    }
+}
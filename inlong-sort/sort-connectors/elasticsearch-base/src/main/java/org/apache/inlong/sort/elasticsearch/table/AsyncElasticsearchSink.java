@@ -0,0 +1,617 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
+import org.apache.flink.streaming.connectors.elasticsearch.ActionRequestFailureHandler;
+import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkBase;
+import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkFunction;
+import org.apache.flink.streaming.connectors.elasticsearch.RequestIndexer;
+import org.apache.flink.streaming.connectors.elasticsearch.util.NoOpFailureHandler;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.util.Preconditions;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Elasticsearch sink which keeps several bulk requests in flight.
+ *
+ * <p>The flink elasticsearch sink sends one bulk request at a time and retries the whole bulk request on
+ * failures. This sink sends up to {@code maxConcurrentRequests} bulk requests concurrently, sizes them with
+ * the {@link AdaptiveBulkSizer}, and only retries the rejected items of a bulk response, with backoff. The
+ * other failed items are handed to the {@link ActionRequestFailureHandler}.
+ *
+ * <p>The requests are routed by document id to a fixed {@link BulkSlot}, each slot has at most one bulk request
+ * in flight, and keeps it until its rejected items are retried. So the writes of the same document are applied
+ * in order even with concurrent bulk requests and retries.
+ *
+ * <p>With flush on checkpoint, all the buffered, in-flight and retrying requests are acknowledged before the
+ * checkpoint completes, so the sink gives the same at-least-once guarantee as the flink elasticsearch sink.
+ */
+public class AsyncElasticsearchSink extends RichSinkFunction<RowData> implements CheckpointedFunction {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncElasticsearchSink.class);
+
+    private static final long WAIT_INTERVAL_MS = 100L;
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final ElasticsearchSinkFunction<RowData> sinkFunction;
+    private final BulkClient.Factory clientFactory;
+    private final ActionRequestFailureHandler failureHandler;
+    private final int maxActions;
+    private final long maxSizeInBytes;
+    private final long flushIntervalMs;
+    private final int maxConcurrentRequests;
+    private final long targetLatencyMs;
+    private final boolean exponentialBackoff;
+    private final long backoffDelayMs;
+    private final int maxRetries;
+    private final boolean flushOnCheckpoint;
+
+    private transient BulkClient client;
+    private transient AdaptiveBulkSizer sizer;
+    private transient ScheduledExecutorService scheduler;
+
+    // guards the buffered requests of the slots, which are flushed by the task thread and the timer thread
+    private transient ReentrantLock bufferLock;
+    private transient BulkSlot[] slots;
+    private transient int nextSlot;
+    private transient RequestIndexer requestIndexer;
+
+    // the requests to be buffered again, added by the failure handler
+    private transient Queue<PendingAction> retryQueue;
+    private transient RequestIndexer failureRequestIndexer;
+
+    // the actions not acknowledged yet, including the buffered, in-flight and retrying ones
+    private transient AtomicLong pendingActions;
+    private transient Object pendingMonitor;
+    private transient AtomicReference<Throwable> failureThrowable;
+    private transient volatile boolean closed;
+
+    private AsyncElasticsearchSink(Builder builder) {
+        this.sinkFunction = builder.sinkFunction;
+        this.clientFactory = builder.clientFactory;
+        this.failureHandler = builder.failureHandler;
+        this.maxActions = builder.maxActions;
+        this.maxSizeInBytes = builder.maxSizeInBytes;
+        this.flushIntervalMs = builder.flushIntervalMs;
+        this.maxConcurrentRequests = builder.maxConcurrentRequests;
+        this.targetLatencyMs = builder.targetLatencyMs;
+        this.exponentialBackoff = builder.exponentialBackoff;
+        this.backoffDelayMs = builder.backoffDelayMs;
+        this.maxRetries = builder.maxRetries;
+        this.flushOnCheckpoint = builder.flushOnCheckpoint;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        super.open(parameters);
+        int initialActions = maxActions > 0 ? maxActions
+                : ElasticsearchOptions.BULK_FLUSH_MAX_ACTIONS_OPTION.defaultValue();
+        sizer = new AdaptiveBulkSizer(initialActions, maxActions > 0 ? maxActions : Integer.MAX_VALUE,
+                targetLatencyMs);
+        bufferLock = new ReentrantLock();
+        slots = new BulkSlot[maxConcurrentRequests];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new BulkSlot();
+        }
+        requestIndexer = new BufferingRequestIndexer();
+        retryQueue = new ConcurrentLinkedQueue<>();
+        failureRequestIndexer = new FailureRequestIndexer();
+        pendingActions = new AtomicLong();
+        pendingMonitor = new Object();
+        failureThrowable = new AtomicReference<>();
+        client = clientFactory.create();
+
+        String threadName = "elasticsearch-bulk-" + getRuntimeContext().getIndexOfThisSubtask();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMs, flushIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        sinkFunction.open();
+    }
+
+    @Override
+    public void invoke(RowData value, Context context) throws Exception {
+        checkErrorAndRethrow();
+        bufferLock.lock();
+        try {
+            drainRetryQueue();
+            sinkFunction.process(value, getRuntimeContext(), requestIndexer);
+            flushSlots(true, true);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) {
+        // no initialization needed
+    }
+
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        checkErrorAndRethrow();
+        if (flushOnCheckpoint) {
+            flushAndWait();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            if (client != null && failureThrowable.get() == null) {
+                flushAndWait();
+            }
+        } finally {
+            closed = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+            if (client != null) {
+                client.close();
+                client = null;
+            }
+            sinkFunction.close();
+        }
+        checkErrorAndRethrow();
+    }
+
+    private void flushAndWait() throws Exception {
+        while (pendingActions.get() > 0) {
+            bufferLock.lock();
+            try {
+                drainRetryQueue();
+                flushSlots(false, false);
+            } finally {
+                bufferLock.unlock();
+            }
+            synchronized (pendingMonitor) {
+                if (pendingActions.get() > 0) {
+                    pendingMonitor.wait(WAIT_INTERVAL_MS);
+                }
+            }
+            checkErrorAndRethrow();
+        }
+    }
+
+    /**
+     * Flushes the slots not busy, skipped when the task thread holds the lock, as it may be waiting for
+     * a slot whose retries are sent by the timer thread.
+     */
+    private void flushInBackground() {
+        if (!bufferLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!closed) {
+                drainRetryQueue();
+                flushSlots(false, false);
+            }
+        } catch (Throwable t) {
+            failureThrowable.compareAndSet(null, t);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void addToBuffer(DocWriteRequest<?> request, int attempts) {
+        slotOf(request).add(request, attempts);
+    }
+
+    /**
+     * Routes the request by document id, the requests without id are spread over the slots.
+     */
+    private BulkSlot slotOf(DocWriteRequest<?> request) {
+        if (slots.length == 1) {
+            return slots[0];
+        }
+        String id = request.id();
+        if (id == null) {
+            nextSlot = (nextSlot + 1) % slots.length;
+            return slots[nextSlot];
+        }
+        return slots[Math.floorMod(id.hashCode(), slots.length)];
+    }
+
+    private void drainRetryQueue() {
+        PendingAction action;
+        while ((action = retryQueue.poll()) != null) {
+            addToBuffer(action.request, action.attempts);
+        }
+    }
+
+    /**
+     * Sends the buffered requests of the slots.
+     *
+     * @param onlyFull only flush the slots whose buffer is full
+     * @param blocking wait for the busy slots, or skip them
+     */
+    private void flushSlots(boolean onlyFull, boolean blocking) throws Exception {
+        for (BulkSlot slot : slots) {
+            if (!onlyFull || slot.isFull()) {
+                slot.flush(blocking);
+            }
+        }
+    }
+
+    private void handleFailure(DocWriteRequest<?> request, Throwable cause, int restStatusCode) {
+        try {
+            failureHandler.onFailure((ActionRequest) request, cause, restStatusCode, failureRequestIndexer);
+        } catch (Throwable t) {
+            failureThrowable.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Sends the retries with the slot after backoff, the slot is released when there is nothing to retry.
+     */
+    private void scheduleRetries(BulkSlot slot, List<PendingAction> retries, int attempts) {
+        if (retries.isEmpty()) {
+            slot.permit.release();
+            return;
+        }
+        BulkRequest request = new BulkRequest();
+        List<Integer> retryAttempts = new ArrayList<>(retries.size());
+        for (PendingAction retry : retries) {
+            request.add(retry.request);
+            retryAttempts.add(retry.attempts);
+        }
+        long delayMs = exponentialBackoff
+                ? backoffDelayMs << Math.min(attempts - 1, MAX_BACKOFF_SHIFT)
+                : backoffDelayMs;
+        try {
+            scheduler.schedule(() -> slot.send(request, retryAttempts), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the sink is closed, the requests are replayed from the last checkpoint
+            slot.permit.release();
+            completeActions(retries.size());
+        }
+    }
+
+    private void completeActions(int count) {
+        if (count > 0 && pendingActions.addAndGet(-count) == 0) {
+            synchronized (pendingMonitor) {
+                pendingMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void checkErrorAndRethrow() {
+        Throwable cause = failureThrowable.get();
+        if (cause != null) {
+            throw new RuntimeException("An error occurred in AsyncElasticsearchSink.", cause);
+        }
+    }
+
+    /**
+     * A lane of bulk requests, the requests of a document always go to the same slot. The slot sends its next
+     * bulk request only after the previous one and the retries of its rejected items are done.
+     */
+    private class BulkSlot {
+
+        // held while a bulk request of the slot is in flight or waiting for backoff
+        private final Semaphore permit = new Semaphore(1);
+        // guarded by the buffer lock
+        private BulkRequest bufferedRequest = new BulkRequest();
+        private List<Integer> bufferedAttempts = new ArrayList<>();
+
+        void add(DocWriteRequest<?> request, int attempts) {
+            bufferedRequest.add(request);
+            bufferedAttempts.add(attempts);
+        }
+
+        boolean isFull() {
+            return bufferedRequest.numberOfActions() >= sizer.getBulkActions()
+                    || (maxSizeInBytes > 0 && bufferedRequest.estimatedSizeInBytes() >= maxSizeInBytes);
+        }
+
+        void flush(boolean blocking) throws Exception {
+            if (bufferedRequest.numberOfActions() == 0) {
+                return;
+            }
+            if (blocking) {
+                while (!permit.tryAcquire(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    checkErrorAndRethrow();
+                }
+            } else if (!permit.tryAcquire()) {
+                return;
+            }
+            BulkRequest request = bufferedRequest;
+            List<Integer> attempts = bufferedAttempts;
+            bufferedRequest = new BulkRequest();
+            bufferedAttempts = new ArrayList<>();
+            send(request, attempts);
+        }
+
+        /** Sends the bulk request, the permit of the slot must be held. */
+        void send(BulkRequest request, List<Integer> attempts) {
+            BulkListener listener = new BulkListener(this, request, attempts);
+            try {
+                client.bulkAsync(request, listener);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        }
+    }
+
+    /** Listener of one bulk request, called in the io threads of the client. */
+    private class BulkListener implements ActionListener<BulkResponse> {
+
+        private final BulkSlot slot;
+        private final BulkRequest request;
+        private final List<Integer> attempts;
+        private final long startNanos = System.nanoTime();
+
+        BulkListener(BulkSlot slot, BulkRequest request, List<Integer> attempts) {
+            this.slot = slot;
+            this.request = request;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public void onResponse(BulkResponse response) {
+            final long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            BulkItemResponse[] items = response.getItems();
+            List<PendingAction> retries = new ArrayList<>();
+            int maxAttempts = 0;
+            int completed = 0;
+            int failed = 0;
+            boolean rejected = false;
+            for (int i = 0; i < items.length; i++) {
+                BulkItemResponse item = items[i];
+                if (!item.isFailed()) {
+                    completed++;
+                    continue;
+                }
+                failed++;
+                DocWriteRequest<?> action = request.requests().get(i);
+                BulkItemResponse.Failure failure = item.getFailure();
+                int attempt = attempts.get(i);
+                rejected |= failure.getStatus() == RestStatus.TOO_MANY_REQUESTS;
+                if (failure.getStatus() == RestStatus.TOO_MANY_REQUESTS && attempt < maxRetries) {
+                    retries.add(new PendingAction(action, attempt + 1));
+                    maxAttempts = Math.max(maxAttempts, attempt + 1);
+                } else {
+                    handleFailure(action, failure.getCause(), failure.getStatus().getStatus());
+                    completed++;
+                }
+            }
+            if (failed > 0) {
+                LOG.warn("{} of {} items of the bulk request failed, {} items are retried", failed, items.length,
+                        retries.size());
+            }
+            sizer.onBulkCompleted(items.length, latencyMs, rejected);
+            scheduleRetries(slot, retries, maxAttempts);
+            completeActions(completed);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            sizer.onBulkFailed();
+            boolean retryable = e instanceof IOException
+                    || ExceptionsHelper.status(e) == RestStatus.TOO_MANY_REQUESTS;
+            List<PendingAction> retries = new ArrayList<>();
+            int maxAttempts = 0;
+            int completed = 0;
+            for (int i = 0; i < request.numberOfActions(); i++) {
+                DocWriteRequest<?> action = request.requests().get(i);
+                int attempt = attempts.get(i);
+                if (retryable && attempt < maxRetries) {
+                    retries.add(new PendingAction(action, attempt + 1));
+                    maxAttempts = Math.max(maxAttempts, attempt + 1);
+                } else {
+                    handleFailure(action, e, -1);
+                    completed++;
+                }
+            }
+            LOG.warn("Bulk request of {} items failed, {} items are retried", request.numberOfActions(),
+                    retries.size(), e);
+            scheduleRetries(slot, retries, maxAttempts);
+            completeActions(completed);
+        }
+    }
+
+    /** Buffers the requests created by the sink function. */
+    private class BufferingRequestIndexer implements RequestIndexer {
+
+        @Override
+        public void add(DeleteRequest... deleteRequests) {
+            for (DeleteRequest request : deleteRequests) {
+                pendingActions.incrementAndGet();
+                addToBuffer(request, 0);
+            }
+        }
+
+        @Override
+        public void add(IndexRequest... indexRequests) {
+            for (IndexRequest request : indexRequests) {
+                pendingActions.incrementAndGet();
+                addToBuffer(request, 0);
+            }
+        }
+
+        @Override
+        public void add(UpdateRequest... updateRequests) {
+            for (UpdateRequest request : updateRequests) {
+                pendingActions.incrementAndGet();
+                addToBuffer(request, 0);
+            }
+        }
+    }
+
+    /** Queues the requests re-added by the failure handler, they are buffered again by the task thread. */
+    private class FailureRequestIndexer implements RequestIndexer {
+
+        @Override
+        public void add(DeleteRequest... deleteRequests) {
+            for (DeleteRequest request : deleteRequests) {
+                pendingActions.incrementAndGet();
+                retryQueue.add(new PendingAction(request, 0));
+            }
+        }
+
+        @Override
+        public void add(IndexRequest... indexRequests) {
+            for (IndexRequest request : indexRequests) {
+                pendingActions.incrementAndGet();
+                retryQueue.add(new PendingAction(request, 0));
+            }
+        }
+
+        @Override
+        public void add(UpdateRequest... updateRequests) {
+            for (UpdateRequest request : updateRequests) {
+                pendingActions.incrementAndGet();
+                retryQueue.add(new PendingAction(request, 0));
+            }
+        }
+    }
+
+    /** A request waiting to be buffered again, with the number of times it has been retried. */
+    private static final class PendingAction {
+
+        private final DocWriteRequest<?> request;
+        private final int attempts;
+
+        PendingAction(DocWriteRequest<?> request, int attempts) {
+            this.request = request;
+            this.attempts = attempts;
+        }
+    }
+
+    /** Builder for {@link AsyncElasticsearchSink}. */
+    public static class Builder {
+
+        private final ElasticsearchSinkFunction<RowData> sinkFunction;
+        private final BulkClient.Factory clientFactory;
+        private ActionRequestFailureHandler failureHandler = new NoOpFailureHandler();
+        private int maxActions = ElasticsearchOptions.BULK_FLUSH_MAX_ACTIONS_OPTION.defaultValue();
+        private long maxSizeInBytes = ElasticsearchOptions.BULK_FLASH_MAX_SIZE_OPTION.defaultValue().getBytes();
+        private long flushIntervalMs = -1L;
+        private int maxConcurrentRequests =
+                ElasticsearchOptions.BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION.defaultValue();
+        private long targetLatencyMs = ElasticsearchOptions.BULK_FLUSH_TARGET_LATENCY_OPTION.defaultValue().toMillis();
+        private boolean exponentialBackoff = true;
+        private long backoffDelayMs = 50L;
+        private int maxRetries = 8;
+        private boolean flushOnCheckpoint = true;
+
+        public Builder(ElasticsearchSinkFunction<RowData> sinkFunction, BulkClient.Factory clientFactory) {
+            this.sinkFunction = Preconditions.checkNotNull(sinkFunction);
+            this.clientFactory = Preconditions.checkNotNull(clientFactory);
+        }
+
+        /** Sets the maximum number of actions of a bulk request, -1 to disable it. */
+        public Builder setBulkFlushMaxActions(int maxActions) {
+            this.maxActions = maxActions;
+            return this;
+        }
+
+        /** Sets the maximum size in bytes of a bulk request, -1 to disable it. */
+        public Builder setBulkFlushMaxSizeInBytes(long maxSizeInBytes) {
+            this.maxSizeInBytes = maxSizeInBytes;
+            return this;
+        }
+
+        /** Sets the interval to flush the buffered requests, -1 to disable it. */
+        public Builder setBulkFlushInterval(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+            return this;
+        }
+
+        public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+            Preconditions.checkArgument(maxConcurrentRequests > 0,
+                    "Max number of concurrent requests must be larger than 0.");
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public Builder setTargetLatency(long targetLatencyMs) {
+            this.targetLatencyMs = targetLatencyMs;
+            return this;
+        }
+
+        public Builder setBulkFlushBackoffType(ElasticsearchSinkBase.FlushBackoffType backoffType) {
+            this.exponentialBackoff = backoffType == ElasticsearchSinkBase.FlushBackoffType.EXPONENTIAL;
+            return this;
+        }
+
+        public Builder setBulkFlushBackoffRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder setBulkFlushBackoffDelay(long backoffDelayMs) {
+            this.backoffDelayMs = backoffDelayMs;
+            return this;
+        }
+
+        public Builder setFailureHandler(ActionRequestFailureHandler failureHandler) {
+            this.failureHandler = Preconditions.checkNotNull(failureHandler);
+            return this;
+        }
+
+        public Builder disableFlushOnCheckpoint() {
+            this.flushOnCheckpoint = false;
+            return this;
+        }
+
+        public AsyncElasticsearchSink build() {
+            return new AsyncElasticsearchSink(this);
+        }
+    }
+}
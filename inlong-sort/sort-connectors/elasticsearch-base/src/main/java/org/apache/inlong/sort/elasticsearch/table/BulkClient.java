@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/** For version-agnostic sending of {@link BulkRequest}s by the {@link AsyncElasticsearchSink}. */
+public interface BulkClient extends AutoCloseable {
+
+    /**
+     * Sends the bulk request asynchronously, the listener is called in the io threads of the client.
+     */
+    void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener);
+
+    /** Creates the {@link BulkClient} in the sink tasks. */
+    interface Factory extends Serializable {
+
+        /**
+         * Creates a client connected to the Elasticsearch cluster.
+         *
+         * @throws IOException if none of the nodes are reachable
+         */
+        BulkClient create() throws IOException;
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.flink.streaming.connectors.elasticsearch.util.IgnoringFailureH
 import org.apache.flink.streaming.connectors.elasticsearch.util.NoOpFailureHandler;
 import org.apache.flink.streaming.connectors.elasticsearch.util.RetryRejectedExecutionFailureHandler;
 import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.util.InstantiationUtil;
 
 import java.time.Duration;
@@ -131,6 +132,33 @@ public class ElasticsearchConfiguration {
         return config.getOptional(BULK_FLUSH_BACKOFF_DELAY_OPTION).map(Duration::toMillis);
     }
 
+    public boolean isBulkFlushAsync() {
+        return config.get(ElasticsearchOptions.BULK_FLUSH_ASYNC_OPTION);
+    }
+
+    public int getBulkFlushMaxConcurrentRequests() {
+        return config.get(ElasticsearchOptions.BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION);
+    }
+
+    public long getBulkFlushTargetLatency() {
+        return config.get(ElasticsearchOptions.BULK_FLUSH_TARGET_LATENCY_OPTION).toMillis();
+    }
+
+    /**
+     * Whether the documents are serialized by {@link RowDataJsonSerializer} instead of the format,
+     * which is true for the json format.
+     */
+    public boolean isDirectJsonSerialization() {
+        return RowDataJsonSerializer.IDENTIFIER.equals(config.get(ElasticsearchOptions.FORMAT_OPTION));
+    }
+
+    /**
+     * Creates the serializer writing the documents straight from the rows, with the options of the json format.
+     */
+    public RowDataJsonSerializer createJsonSerializer(RowType rowType) {
+        return new RowDataJsonSerializer(rowType, config);
+    }
+
     public boolean isDisableFlushOnCheckpoint() {
         return !config.get(ElasticsearchOptions.FLUSH_ON_CHECKPOINT_OPTION);
     }
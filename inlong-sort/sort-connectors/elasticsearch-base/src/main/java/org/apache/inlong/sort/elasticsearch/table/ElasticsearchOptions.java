@@ -138,6 +138,27 @@ public class ElasticsearchOptions {
                     .durationType()
                     .noDefaultValue()
                     .withDescription("Delay between each backoff attempt.");
+    public static final ConfigOption<Boolean> BULK_FLUSH_ASYNC_OPTION =
+            ConfigOptions.key("sink.bulk-flush.async")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to keep several bulk requests in flight, adapt the bulk size to the "
+                                    + "observed latency and rejections, and only retry the rejected items.");
+    public static final ConfigOption<Integer> BULK_FLUSH_MAX_CONCURRENT_REQUESTS_OPTION =
+            ConfigOptions.key("sink.bulk-flush.max-concurrent-requests")
+                    .intType()
+                    .defaultValue(4)
+                    .withDescription(
+                            "Maximum number of bulk requests in flight of each subtask, "
+                                    + "only works with 'sink.bulk-flush.async'.");
+    public static final ConfigOption<Duration> BULK_FLUSH_TARGET_LATENCY_OPTION =
+            ConfigOptions.key("sink.bulk-flush.target-latency")
+                    .durationType()
+                    .defaultValue(Duration.ofSeconds(1))
+                    .withDescription(
+                            "The bulk size is reduced when a bulk request takes longer than it, "
+                                    + "only works with 'sink.bulk-flush.async'.");
     public static final ConfigOption<Duration> CONNECTION_MAX_RETRY_TIMEOUT_OPTION =
             ConfigOptions.key("connection.max-retry-timeout")
                     .durationType()
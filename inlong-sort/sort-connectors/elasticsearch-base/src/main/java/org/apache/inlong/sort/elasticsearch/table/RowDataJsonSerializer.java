@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonEncoding;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonFactory;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import org.apache.flink.table.data.ArrayData;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.MapData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.logical.ArrayType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeFamily;
+import org.apache.flink.table.types.logical.MapType;
+import org.apache.flink.table.types.logical.MultisetType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serializes {@link RowData} into json documents, writing the fields straight to the json generator.
+ *
+ * <p>The json format converts each row into a tree of json nodes before writing it, this serializer writes
+ * the same documents without building the intermediate tree. It supports the serialization options of the
+ * json format, which are read from the table options with the {@code json.} prefix.
+ */
+public class RowDataJsonSerializer implements SerializationSchema<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Identifier of the json format. */
+    public static final String IDENTIFIER = "json";
+
+    public static final ConfigOption<String> TIMESTAMP_FORMAT =
+            ConfigOptions.key("json.timestamp-format.standard")
+                    .stringType()
+                    .defaultValue("SQL")
+                    .withDescription("Timestamp format of the json format, 'SQL' or 'ISO-8601'.");
+    public static final ConfigOption<String> MAP_NULL_KEY_MODE =
+            ConfigOptions.key("json.map-null-key.mode")
+                    .stringType()
+                    .defaultValue("FAIL")
+                    .withDescription("Handling of the null map keys, 'FAIL', 'DROP' or 'LITERAL'.");
+    public static final ConfigOption<String> MAP_NULL_KEY_LITERAL =
+            ConfigOptions.key("json.map-null-key.literal")
+                    .stringType()
+                    .defaultValue("null")
+                    .withDescription("Literal of the null map keys in the 'LITERAL' mode.");
+    public static final ConfigOption<Boolean> ENCODE_DECIMAL_AS_PLAIN_NUMBER =
+            ConfigOptions.key("json.encode.decimal-as-plain-number")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to encode the decimals as plain numbers.");
+
+    private static final DateTimeFormatter SQL_TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("HH:mm:ss")
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .toFormatter();
+    private static final DateTimeFormatter SQL_TIMESTAMP_FORMAT = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(SQL_TIME_FORMAT)
+            .toFormatter();
+    private static final DateTimeFormatter SQL_TIMESTAMP_WITH_LOCAL_TIMEZONE_FORMAT = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(SQL_TIME_FORMAT)
+            .appendPattern("'Z'")
+            .toFormatter();
+    private static final DateTimeFormatter ISO8601_TIMESTAMP_WITH_LOCAL_TIMEZONE_FORMAT =
+            new DateTimeFormatterBuilder()
+                    .append(DateTimeFormatter.ISO_LOCAL_DATE)
+                    .appendLiteral('T')
+                    .append(DateTimeFormatter.ISO_LOCAL_TIME)
+                    .appendPattern("'Z'")
+                    .toFormatter();
+
+    private final RowType rowType;
+    private final boolean isoTimestamp;
+    private final String mapNullKeyMode;
+    private final String mapNullKeyLiteral;
+    private final boolean encodeDecimalAsPlainNumber;
+
+    private transient FieldWriter rowWriter;
+    private transient JsonFactory jsonFactory;
+    private transient ByteArrayBuilder outputBuffer;
+
+    public RowDataJsonSerializer(RowType rowType, ReadableConfig options) {
+        this.rowType = rowType;
+        String timestampFormat = options.get(TIMESTAMP_FORMAT).toUpperCase();
+        if (!"SQL".equals(timestampFormat) && !"ISO-8601".equals(timestampFormat)) {
+            throw new IllegalArgumentException("Unsupported timestamp format: " + timestampFormat);
+        }
+        this.isoTimestamp = "ISO-8601".equals(timestampFormat);
+        this.mapNullKeyMode = options.get(MAP_NULL_KEY_MODE).toUpperCase();
+        this.mapNullKeyLiteral = options.get(MAP_NULL_KEY_LITERAL);
+        this.encodeDecimalAsPlainNumber = options.get(ENCODE_DECIMAL_AS_PLAIN_NUMBER);
+    }
+
+    @Override
+    public byte[] serialize(RowData row) {
+        if (rowWriter == null) {
+            rowWriter = createRowWriter(rowType);
+            jsonFactory = new JsonFactory();
+            outputBuffer = new ByteArrayBuilder();
+        }
+        try {
+            outputBuffer.reset();
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputBuffer, JsonEncoding.UTF8)) {
+                generator.configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, encodeDecimalAsPlainNumber);
+                rowWriter.write(generator, row);
+            }
+            return outputBuffer.toByteArray();
+        } catch (Throwable t) {
+            throw new RuntimeException(String.format("Could not serialize row '%s'.", row), t);
+        }
+    }
+
+    /** Writes a non-null value of a logical type. */
+    @FunctionalInterface
+    private interface FieldWriter extends Serializable {
+
+        void write(JsonGenerator generator, Object value) throws IOException;
+    }
+
+    private FieldWriter createNullableWriter(LogicalType type) {
+        FieldWriter writer = createWriter(type);
+        return (generator, value) -> {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                writer.write(generator, value);
+            }
+        };
+    }
+
+    private FieldWriter createWriter(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case NULL:
+                return (generator, value) -> generator.writeNull();
+            case BOOLEAN:
+                return (generator, value) -> generator.writeBoolean((boolean) value);
+            case TINYINT:
+                return (generator, value) -> generator.writeNumber((byte) value);
+            case SMALLINT:
+                return (generator, value) -> generator.writeNumber((short) value);
+            case INTEGER:
+            case INTERVAL_YEAR_MONTH:
+                return (generator, value) -> generator.writeNumber((int) value);
+            case BIGINT:
+            case INTERVAL_DAY_TIME:
+                return (generator, value) -> generator.writeNumber((long) value);
+            case FLOAT:
+                return (generator, value) -> generator.writeNumber((float) value);
+            case DOUBLE:
+                return (generator, value) -> generator.writeNumber((double) value);
+            case CHAR:
+            case VARCHAR:
+                return (generator, value) -> generator.writeString(value.toString());
+            case BINARY:
+            case VARBINARY:
+                return (generator, value) -> generator.writeBinary((byte[]) value);
+            case DATE:
+                return (generator, value) -> generator.writeString(
+                        DateTimeFormatter.ISO_LOCAL_DATE.format(LocalDate.ofEpochDay((int) value)));
+            case TIME_WITHOUT_TIME_ZONE:
+                return (generator, value) -> generator.writeString(
+                        SQL_TIME_FORMAT.format(LocalTime.ofSecondOfDay((int) value / 1000L)));
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+                DateTimeFormatter timestampFormat =
+                        isoTimestamp ? DateTimeFormatter.ISO_LOCAL_DATE_TIME : SQL_TIMESTAMP_FORMAT;
+                return (generator, value) -> generator.writeString(
+                        timestampFormat.format(((TimestampData) value).toLocalDateTime()));
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+                DateTimeFormatter localZonedFormat = isoTimestamp
+                        ? ISO8601_TIMESTAMP_WITH_LOCAL_TIMEZONE_FORMAT
+                        : SQL_TIMESTAMP_WITH_LOCAL_TIMEZONE_FORMAT;
+                return (generator, value) -> generator.writeString(localZonedFormat.format(
+                        ((TimestampData) value).toInstant().atOffset(ZoneOffset.UTC)));
+            case DECIMAL:
+                return (generator, value) -> {
+                    // normalized the same way as the decimal nodes of the json format
+                    BigDecimal decimal = ((DecimalData) value).toBigDecimal();
+                    generator.writeNumber(decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros());
+                };
+            case ARRAY:
+                return createArrayWriter((ArrayType) type);
+            case MAP:
+                MapType mapType = (MapType) type;
+                return createMapWriter(mapType.asSummaryString(), mapType.getKeyType(), mapType.getValueType());
+            case MULTISET:
+                MultisetType multisetType = (MultisetType) type;
+                return createMapWriter(multisetType.asSummaryString(), multisetType.getElementType(),
+                        new IntType());
+            case ROW:
+                return createRowWriter((RowType) type);
+            default:
+                throw new UnsupportedOperationException("Not support to parse type: " + type);
+        }
+    }
+
+    private FieldWriter createArrayWriter(ArrayType type) {
+        ArrayData.ElementGetter elementGetter = ArrayData.createElementGetter(type.getElementType());
+        FieldWriter elementWriter = createNullableWriter(type.getElementType());
+        return (generator, value) -> {
+            ArrayData array = (ArrayData) value;
+            generator.writeStartArray();
+            for (int i = 0; i < array.size(); i++) {
+                elementWriter.write(generator, elementGetter.getElementOrNull(array, i));
+            }
+            generator.writeEndArray();
+        };
+    }
+
+    private FieldWriter createMapWriter(String typeSummary, LogicalType keyType, LogicalType valueType) {
+        if (!keyType.getTypeRoot().getFamilies().contains(LogicalTypeFamily.CHARACTER_STRING)) {
+            throw new UnsupportedOperationException(
+                    "JSON format doesn't support non-string as key type of map. The type is: " + typeSummary);
+        }
+        ArrayData.ElementGetter valueGetter = ArrayData.createElementGetter(valueType);
+        FieldWriter valueWriter = createNullableWriter(valueType);
+        return (generator, value) -> {
+            MapData map = (MapData) value;
+            ArrayData keys = map.keyArray();
+            ArrayData values = map.valueArray();
+            generator.writeStartObject();
+            for (int i = 0; i < map.size(); i++) {
+                String fieldName;
+                if (keys.isNullAt(i)) {
+                    switch (mapNullKeyMode) {
+                        case "LITERAL":
+                            fieldName = mapNullKeyLiteral;
+                            break;
+                        case "DROP":
+                            continue;
+                        default:
+                            throw new RuntimeException(String.format(
+                                    "JSON format doesn't support to serialize map data with null keys. "
+                                            + "You can drop null key entries or encode null in literals "
+                                            + "by specifying %s option.",
+                                    MAP_NULL_KEY_MODE.key()));
+                    }
+                } else {
+                    fieldName = keys.getString(i).toString();
+                }
+                generator.writeFieldName(fieldName);
+                valueWriter.write(generator, valueGetter.getElementOrNull(values, i));
+            }
+            generator.writeEndObject();
+        };
+    }
+
+    private FieldWriter createRowWriter(RowType type) {
+        List<RowType.RowField> fields = type.getFields();
+        String[] fieldNames = new String[fields.size()];
+        RowData.FieldGetter[] fieldGetters = new RowData.FieldGetter[fields.size()];
+        FieldWriter[] fieldWriters = new FieldWriter[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            fieldNames[i] = fields.get(i).getName();
+            fieldGetters[i] = RowData.createFieldGetter(fields.get(i).getType(), i);
+            fieldWriters[i] = createNullableWriter(fields.get(i).getType());
+        }
+        return (generator, value) -> {
+            RowData row = (RowData) value;
+            generator.writeStartObject();
+            for (int i = 0; i < fieldNames.length; i++) {
+                generator.writeFieldName(fieldNames[i]);
+                fieldWriters[i].write(generator, fieldGetters[i].getFieldOrNull(row));
+            }
+            generator.writeEndObject();
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RowDataJsonSerializer that = (RowDataJsonSerializer) o;
+        return isoTimestamp == that.isoTimestamp
+                && encodeDecimalAsPlainNumber == that.encodeDecimalAsPlainNumber
+                && Objects.equals(rowType, that.rowType)
+                && Objects.equals(mapNullKeyMode, that.mapNullKeyMode)
+                && Objects.equals(mapNullKeyLiteral, that.mapNullKeyLiteral);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rowType, isoTimestamp, mapNullKeyMode, mapNullKeyLiteral, encodeDecimalAsPlainNumber);
+    }
+}
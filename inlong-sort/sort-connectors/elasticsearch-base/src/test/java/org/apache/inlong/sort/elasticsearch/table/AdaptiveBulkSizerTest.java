@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/** Tests for {@link AdaptiveBulkSizer}. */
+public class AdaptiveBulkSizerTest {
+
+    @Test
+    public void testGrowWithinTargetLatency() {
+        AdaptiveBulkSizer sizer = new AdaptiveBulkSizer(100, 120, 100L);
+        sizer.onBulkCompleted(100, 10L, false);
+        assertEquals(112, sizer.getBulkActions());
+        // the partial bulk requests do not grow the size
+        sizer.onBulkCompleted(50, 10L, false);
+        assertEquals(112, sizer.getBulkActions());
+        // never grows beyond the maximum
+        sizer.onBulkCompleted(112, 10L, false);
+        assertEquals(120, sizer.getBulkActions());
+        sizer.onBulkCompleted(120, 10L, false);
+        assertEquals(120, sizer.getBulkActions());
+    }
+
+    @Test
+    public void testShrinkWithLatencyOvershoot() {
+        AdaptiveBulkSizer sizer = new AdaptiveBulkSizer(100, 1000, 100L);
+        sizer.onBulkCompleted(100, 200L, false);
+        assertEquals(50, sizer.getBulkActions());
+        sizer.onBulkCompleted(50, 125L, false);
+        assertEquals(40, sizer.getBulkActions());
+    }
+
+    @Test
+    public void testShrinkOnRejectionAndFailure() {
+        AdaptiveBulkSizer sizer = new AdaptiveBulkSizer(160, 1000, 100L);
+        sizer.onBulkCompleted(160, 10L, true);
+        assertEquals(80, sizer.getBulkActions());
+        sizer.onBulkFailed();
+        assertEquals(40, sizer.getBulkActions());
+        // never shrinks below one sixteenth of the initial size
+        for (int i = 0; i < 10; i++) {
+            sizer.onBulkCompleted(40, 10L, true);
+        }
+        assertEquals(10, sizer.getBulkActions());
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.apache.flink.streaming.api.operators.StreamSink;
+import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkBase;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link AsyncElasticsearchSink}. */
+public class AsyncElasticsearchSinkTest {
+
+    private static final FakeBulkClient CLIENT = new FakeBulkClient();
+    private static final AtomicInteger FAILED_ITEMS = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        CLIENT.reset();
+        FAILED_ITEMS.set(0);
+    }
+
+    @Test
+    public void testFlushOnCheckpoint() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, Object> harness =
+                createHarness(builder().setMaxConcurrentRequests(1));
+        harness.open();
+        for (int i = 0; i < 10; i++) {
+            harness.processElement(new StreamRecord<>(row(i, 10)));
+        }
+        // the bulk request is not full, nothing is sent before the checkpoint
+        assertEquals(0, CLIENT.getBulkCount());
+        harness.snapshot(1L, 1000L);
+        assertEquals(1, CLIENT.getBulkCount());
+        assertEquals(10, CLIENT.getAppliedCount());
+        harness.close();
+    }
+
+    @Test
+    public void testNoFlushOnCheckpointIfDisabled() throws Exception {
+        OneInputStreamOperatorTestHarness<RowData, Object> harness =
+                createHarness(builder().disableFlushOnCheckpoint());
+        harness.open();
+        for (int i = 0; i < 10; i++) {
+            harness.processElement(new StreamRecord<>(row(i, 10)));
+        }
+        harness.snapshot(1L, 1000L);
+        assertEquals(0, CLIENT.getBulkCount());
+        // flushed on close
+        harness.close();
+        assertEquals(10, CLIENT.getAppliedCount());
+    }
+
+    @Test
+    public void testRetryRejectedItems() throws Exception {
+        // every item is rejected once
+        CLIENT.setRejection(request -> CLIENT.isFirstAttempt(request));
+        OneInputStreamOperatorTestHarness<RowData, Object> harness =
+                createHarness(builder().setBulkFlushMaxActions(5));
+        harness.open();
+        for (int i = 0; i < 20; i++) {
+            harness.processElement(new StreamRecord<>(row(i, 20)));
+        }
+        harness.snapshot(1L, 1000L);
+        assertEquals(20, CLIENT.getAppliedCount());
+        assertEquals(20, CLIENT.getRejectedCount());
+        assertEquals(0, FAILED_ITEMS.get());
+        harness.close();
+    }
+
+    @Test
+    public void testFailRejectedItemsAfterMaxRetries() throws Exception {
+        CLIENT.setRejection(request -> "doc0".equals(request.id()));
+        OneInputStreamOperatorTestHarness<RowData, Object> harness =
+                createHarness(builder().setBulkFlushMaxActions(5).setBulkFlushBackoffRetries(2));
+        harness.open();
+        for (int i = 0; i < 10; i++) {
+            harness.processElement(new StreamRecord<>(row(i, 5)));
+        }
+        harness.snapshot(1L, 1000L);
+        // the two writes of doc0 are tried three times, then handed to the failure handler
+        assertEquals(8, CLIENT.getAppliedCount());
+        assertEquals(6, CLIENT.getRejectedCount());
+        assertEquals(2, FAILED_ITEMS.get());
+        harness.close();
+    }
+
+    @Test
+    public void testKeepOrderOfSameDocument() throws Exception {
+        // some writes are rejected once, the later writes of the same document must not overtake them
+        CLIENT.setRejection(request -> CLIENT.isFirstAttempt(request) && version(request) % 7 == 0);
+        OneInputStreamOperatorTestHarness<RowData, Object> harness = createHarness(
+                builder().setBulkFlushMaxActions(2).setMaxConcurrentRequests(4).setBulkFlushInterval(1L));
+        harness.open();
+        for (int i = 0; i < 200; i++) {
+            harness.processElement(new StreamRecord<>(row(i, 5)));
+        }
+        harness.snapshot(1L, 1000L);
+        harness.close();
+
+        Map<String, List<Integer>> applied = CLIENT.getApplied();
+        assertEquals(5, applied.size());
+        for (Map.Entry<String, List<Integer>> entry : applied.entrySet()) {
+            List<Integer> versions = entry.getValue();
+            assertEquals(40, versions.size());
+            for (int i = 1; i < versions.size(); i++) {
+                assertTrue("writes of " + entry.getKey() + " are reordered: " + versions,
+                        versions.get(i - 1) < versions.get(i));
+            }
+        }
+    }
+
+    private static AsyncElasticsearchSink.Builder builder() {
+        return new AsyncElasticsearchSink.Builder(
+                (element, ctx, indexer) -> indexer.add(
+                        new IndexRequest("index", "_doc", element.getString(0).toString())
+                                .source(Collections.singletonMap("version", element.getInt(1)))),
+                () -> CLIENT)
+                .setBulkFlushMaxActions(1000)
+                .setBulkFlushBackoffType(ElasticsearchSinkBase.FlushBackoffType.CONSTANT)
+                .setBulkFlushBackoffDelay(1L)
+                .setFailureHandler((action, failure, restStatusCode, indexer) -> FAILED_ITEMS.incrementAndGet());
+    }
+
+    private static OneInputStreamOperatorTestHarness<RowData, Object> createHarness(
+            AsyncElasticsearchSink.Builder builder) throws Exception {
+        return new OneInputStreamOperatorTestHarness<>(new StreamSink<>(builder.build()));
+    }
+
+    private static RowData row(int version, int docs) {
+        return GenericRowData.of(StringData.fromString("doc" + (version % docs)), version);
+    }
+
+    private static int version(DocWriteRequest<?> request) {
+        return (Integer) ((IndexRequest) request).sourceAsMap().get("version");
+    }
+
+    /**
+     * Applies the bulk requests in place of Elasticsearch. The items of a document after a rejected one in the
+     * same bulk request are rejected too, as they are in the same shard.
+     */
+    private static final class FakeBulkClient implements BulkClient {
+
+        private final Map<String, List<Integer>> applied = new TreeMap<>();
+        private final Set<DocWriteRequest<?>> attempted = Collections.newSetFromMap(new IdentityHashMap<>());
+        private Predicate<DocWriteRequest<?>> rejection = request -> false;
+        private int bulkCount;
+        private int appliedCount;
+        private int rejectedCount;
+
+        synchronized void reset() {
+            applied.clear();
+            attempted.clear();
+            rejection = request -> false;
+            bulkCount = 0;
+            appliedCount = 0;
+            rejectedCount = 0;
+        }
+
+        synchronized void setRejection(Predicate<DocWriteRequest<?>> rejection) {
+            this.rejection = rejection;
+        }
+
+        // called by the rejection, in the lock of the client
+        boolean isFirstAttempt(DocWriteRequest<?> request) {
+            return !attempted.contains(request);
+        }
+
+        @Override
+        public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
+            BulkResponse response;
+            synchronized (this) {
+                bulkCount++;
+                List<DocWriteRequest<?>> requests = request.requests();
+                BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+                Set<String> rejectedDocs = new HashSet<>();
+                for (int i = 0; i < items.length; i++) {
+                    DocWriteRequest<?> item = requests.get(i);
+                    if (rejectedDocs.contains(item.id()) || rejection.test(item)) {
+                        rejectedDocs.add(item.id());
+                        rejectedCount++;
+                        items[i] = new BulkItemResponse(i, item.opType(), new BulkItemResponse.Failure(
+                                item.index(), item.type(), item.id(),
+                                new EsRejectedExecutionException("rejected"), RestStatus.TOO_MANY_REQUESTS));
+                    } else {
+                        applied.computeIfAbsent(item.id(), id -> new ArrayList<>()).add(version(item));
+                        appliedCount++;
+                        items[i] = new BulkItemResponse(i, item.opType(), (DocWriteResponse) null);
+                    }
+                    attempted.add(item);
+                }
+                response = new BulkResponse(items, 1L);
+            }
+            listener.onResponse(response);
+        }
+
+        synchronized int getBulkCount() {
+            return bulkCount;
+        }
+
+        synchronized int getAppliedCount() {
+            return appliedCount;
+        }
+
+        synchronized int getRejectedCount() {
+            return rejectedCount;
+        }
+
+        synchronized Map<String, List<Integer>> getApplied() {
+            return new TreeMap<>(applied);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.elasticsearch.table;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.formats.common.TimestampFormat;
+import org.apache.flink.formats.json.JsonOptions;
+import org.apache.flink.formats.json.JsonRowDataSerializationSchema;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.GenericArrayData;
+import org.apache.flink.table.data.GenericMapData;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.logical.ArrayType;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.BooleanType;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.FloatType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LocalZonedTimestampType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.MapType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.TimeType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.TinyIntType;
+import org.apache.flink.table.types.logical.VarBinaryType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/** Tests for {@link RowDataJsonSerializer}. */
+public class RowDataJsonSerializerTest {
+
+    private static final RowType ROW_TYPE = RowType.of(
+            new LogicalType[] {
+                new BooleanType(), new TinyIntType(), new IntType(), new BigIntType(), new FloatType(),
+                new DoubleType(), new VarCharType(), new VarBinaryType(), new DateType(), new TimeType(3),
+                new TimestampType(6), new LocalZonedTimestampType(3), new DecimalType(10, 3),
+                new ArrayType(new IntType()), new MapType(new VarCharType(), new IntType()),
+                RowType.of(new IntType(), new VarCharType()), new VarCharType()},
+            new String[] {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o", "p", "q"});
+
+    @Test
+    public void testSameAsJsonFormat() {
+        Map<StringData, Integer> map = new HashMap<>();
+        map.put(StringData.fromString("x"), 1);
+        map.put(StringData.fromString("y"), null);
+        GenericRowData row = GenericRowData.of(true, (byte) 3, 42, 7L, 1.5f, 2.25d,
+                StringData.fromString("h\"i"), new byte[] {1, 2, 3}, 19000, 3723456,
+                TimestampData.fromEpochMillis(1700000000123L, 456000),
+                TimestampData.fromEpochMillis(1700000000120L),
+                DecimalData.fromBigDecimal(new BigDecimal("1234.500"), 10, 3),
+                new GenericArrayData(new Object[] {1, null, 3}), new GenericMapData(map),
+                GenericRowData.of(5, null), null);
+        for (TimestampFormat timestampFormat : TimestampFormat.values()) {
+            for (boolean plainDecimal : new boolean[] {false, true}) {
+                Configuration options = new Configuration();
+                options.set(RowDataJsonSerializer.TIMESTAMP_FORMAT,
+                        timestampFormat == TimestampFormat.SQL ? "SQL" : "ISO-8601");
+                options.set(RowDataJsonSerializer.ENCODE_DECIMAL_AS_PLAIN_NUMBER, plainDecimal);
+                JsonRowDataSerializationSchema expected = new JsonRowDataSerializationSchema(
+                        ROW_TYPE, timestampFormat, JsonOptions.MapNullKeyMode.FAIL, "null", plainDecimal);
+                RowDataJsonSerializer serializer = new RowDataJsonSerializer(ROW_TYPE, options);
+                assertEquals(new String(expected.serialize(row), StandardCharsets.UTF_8),
+                        new String(serializer.serialize(row), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testMapNullKey() {
+        RowType rowType = RowType.of(new LogicalType[] {new MapType(new VarCharType(), new IntType())},
+                new String[] {"m"});
+        Map<StringData, Integer> map = new HashMap<>();
+        map.put(null, 1);
+        GenericRowData row = GenericRowData.of(new GenericMapData(map));
+
+        Configuration options = new Configuration();
+        options.set(RowDataJsonSerializer.MAP_NULL_KEY_MODE, "LITERAL");
+        options.set(RowDataJsonSerializer.MAP_NULL_KEY_LITERAL, "nullKey");
+        assertEquals("{\"m\":{\"nullKey\":1}}",
+                new String(new RowDataJsonSerializer(rowType, options).serialize(row), StandardCharsets.UTF_8));
+
+        options.set(RowDataJsonSerializer.MAP_NULL_KEY_MODE, "DROP");
+        assertEquals("{\"m\":{}}",
+                new String(new RowDataJsonSerializer(rowType, options).serialize(row), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMapNullKeyFail() {
+        RowType rowType = RowType.of(new LogicalType[] {new MapType(new VarCharType(), new IntType())},
+                new String[] {"m"});
+        Map<StringData, Integer> map = new HashMap<>();
+        map.put(null, 1);
+        new RowDataJsonSerializer(rowType, new Configuration()).serialize(GenericRowData.of(new GenericMapData(map)));
+    }
+}
@@ -40,6 +40,34 @@ public class FlinkConfigOptions {
                     .booleanType()
                     .defaultValue(false)
                     .withDescription("Regard upsert delete as insert kind.");
+    public static final ConfigOption<Boolean> SINK_COMPACT_ENABLED =
+            ConfigOptions.key("sink.compact.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to compact the small data files and manifests in the background "
+                            + "after the checkpoints are committed, only works for the append-only streaming sink.");
+    public static final ConfigOption<Integer> SINK_COMPACT_INTERVAL =
+            ConfigOptions.key("sink.compact.interval")
+                    .intType()
+                    .defaultValue(20)
+                    .withDescription("Run the compaction once every this many completed checkpoints.");
+    public static final ConfigOption<Long> SINK_COMPACT_TARGET_FILE_SIZE =
+            ConfigOptions.key("sink.compact.target-file-size")
+                    .longType()
+                    .defaultValue(128L * 1024 * 1024)
+                    .withDescription("Target size in bytes of the compacted data files, "
+                            + "files smaller than 3/4 of it are regarded as small files.");
+    public static final ConfigOption<Integer> SINK_COMPACT_MIN_INPUT_FILES =
+            ConfigOptions.key("sink.compact.min-input-files")
+                    .intType()
+                    .defaultValue(5)
+                    .withDescription("Compact the small files of a partition only when there are at least "
+                            + "this many of them, the same threshold applies to the small manifests.");
+    public static final ConfigOption<Boolean> SINK_COMPACT_REWRITE_MANIFESTS =
+            ConfigOptions.key("sink.compact.rewrite-manifests")
+                    .booleanType()
+                    .defaultValue(true)
+                    .withDescription("Whether to merge the small manifests after the data files are compacted.");
 
     private FlinkConfigOptions() {
     }
@@ -48,6 +48,11 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.ICEBERG_IGNORE_ALL_CHANGELOG;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_ENABLED;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_INTERVAL;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_MIN_INPUT_FILES;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_REWRITE_MANIFESTS;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_TARGET_FILE_SIZE;
 
 /**
  * Copy from org.apache.iceberg.flink:iceberg-flink-runtime-1.13:0.13.1
@@ -208,6 +213,11 @@ public class FlinkDynamicTableFactory implements DynamicTableSinkFactory, Dynami
         options.add(CATALOG_DATABASE);
         options.add(CATALOG_TABLE);
         options.add(ICEBERG_IGNORE_ALL_CHANGELOG);
+        options.add(SINK_COMPACT_ENABLED);
+        options.add(SINK_COMPACT_INTERVAL);
+        options.add(SINK_COMPACT_TARGET_FILE_SIZE);
+        options.add(SINK_COMPACT_MIN_INPUT_FILES);
+        options.add(SINK_COMPACT_REWRITE_MANIFESTS);
         return options;
     }
 
@@ -19,6 +19,12 @@
 
 package org.apache.inlong.sort.iceberg;
 
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.dag.Transformation;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamSink;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.api.constraints.UniqueConstraint;
 import org.apache.flink.table.catalog.CatalogTable;
@@ -32,6 +38,7 @@ import org.apache.flink.util.Preconditions;
 import org.apache.iceberg.flink.TableLoader;
 import org.apache.iceberg.flink.sink.FlinkSink;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.inlong.sort.iceberg.compact.IcebergCompactionOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +46,11 @@ import java.util.List;
 import java.util.Map;
 
 import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.ICEBERG_IGNORE_ALL_CHANGELOG;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_ENABLED;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_INTERVAL;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_MIN_INPUT_FILES;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_REWRITE_MANIFESTS;
+import static org.apache.inlong.sort.iceberg.FlinkConfigOptions.SINK_COMPACT_TARGET_FILE_SIZE;
 
 public class IcebergTableSink implements DynamicTableSink, SupportsPartitioning, SupportsOverwrite {
 
@@ -73,12 +85,52 @@ public class IcebergTableSink implements DynamicTableSink, SupportsPartitioning,
                 .map(UniqueConstraint::getColumns)
                 .orElseGet(ImmutableList::of);
 
-        return (DataStreamSinkProvider) dataStream -> FlinkSink.forRowData(dataStream)
-                .tableLoader(tableLoader)
-                .tableSchema(tableSchema)
-                .equalityFieldColumns(equalityColumns)
-                .overwrite(overwrite)
-                .append();
+        boolean compact = isCompactEnabled(context, equalityColumns);
+        return (DataStreamSinkProvider) dataStream -> {
+            DataStreamSink<Void> sink = FlinkSink.forRowData(dataStream)
+                    .tableLoader(tableLoader)
+                    .tableSchema(tableSchema)
+                    .equalityFieldColumns(equalityColumns)
+                    .overwrite(overwrite)
+                    .append();
+            if (compact) {
+                appendCompaction(dataStream.getExecutionEnvironment(), sink);
+            }
+            return sink;
+        };
+    }
+
+    private boolean isCompactEnabled(Context context, List<String> equalityColumns) {
+        if (!org.apache.flink.configuration.Configuration.fromMap(catalogTable.getOptions())
+                .get(SINK_COMPACT_ENABLED)) {
+            return false;
+        }
+        if (context.isBounded() || !equalityColumns.isEmpty()) {
+            LOG.warn("Iceberg sink compaction only works for the append-only streaming sink, skip it.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Attach the compaction operator to the committer, so it is notified after the checkpoints
+     * are committed, and runs outside of the write path.
+     */
+    @SuppressWarnings("unchecked")
+    private void appendCompaction(StreamExecutionEnvironment env, DataStreamSink<Void> sink) {
+        org.apache.flink.configuration.Configuration options =
+                org.apache.flink.configuration.Configuration.fromMap(catalogTable.getOptions());
+        Transformation<Void> committer = (Transformation<Void>) sink.getTransformation().getInputs().get(0);
+        IcebergCompactionOperator operator = new IcebergCompactionOperator(tableLoader,
+                options.get(SINK_COMPACT_INTERVAL), options.get(SINK_COMPACT_TARGET_FILE_SIZE),
+                options.get(SINK_COMPACT_MIN_INPUT_FILES), options.get(SINK_COMPACT_REWRITE_MANIFESTS));
+        new DataStream<>(env, committer)
+                .transform("IcebergCompaction", Types.VOID, operator)
+                .setParallelism(1)
+                .setMaxParallelism(1)
+                .addSink(new DiscardingSink<>())
+                .name("IcebergCompactionSink")
+                .setParallelism(1);
     }
 
     @Override
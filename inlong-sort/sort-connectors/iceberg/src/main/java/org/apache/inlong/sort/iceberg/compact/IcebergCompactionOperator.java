@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.inlong.sort.iceberg.compact;
+
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.flink.TableLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the {@link IcebergCompactor} after the iceberg committer, once every few completed checkpoints.
+ * <p/>
+ * The compaction runs in its own thread, so it never blocks the writers or the checkpoints. A round
+ * is skipped if the previous one is still running, and the failures are only logged, since the data
+ * is already committed and the small files are picked up again in the next round.
+ */
+public class IcebergCompactionOperator extends AbstractStreamOperator<Void>
+        implements OneInputStreamOperator<Void, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(IcebergCompactionOperator.class);
+
+    private final TableLoader tableLoader;
+    // run the compaction once every this many completed checkpoints
+    private final int interval;
+    private final long targetFileSize;
+    private final int minInputFiles;
+    private final boolean rewriteManifests;
+
+    private transient String tableName;
+    private transient IcebergCompactor compactor;
+    private transient ExecutorService executor;
+    private transient Future<?> runningRound;
+    private transient long completedCheckpoints;
+
+    public IcebergCompactionOperator(TableLoader tableLoader, int interval, long targetFileSize,
+            int minInputFiles, boolean rewriteManifests) {
+        this.tableLoader = tableLoader;
+        this.interval = Math.max(1, interval);
+        this.targetFileSize = targetFileSize;
+        this.minInputFiles = minInputFiles;
+        this.rewriteManifests = rewriteManifests;
+        setChainingStrategy(ChainingStrategy.ALWAYS);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        tableLoader.open();
+        Table table = tableLoader.loadTable();
+        tableName = table.name();
+        compactor = new IcebergCompactor(table, targetFileSize, minInputFiles);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "iceberg-compaction-" + tableName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void processElement(StreamRecord<Void> element) {
+        // the committer emits nothing, the compaction is driven by the checkpoints
+    }
+
+    @Override
+    public void notifyCheckpointComplete(long checkpointId) throws Exception {
+        super.notifyCheckpointComplete(checkpointId);
+        if (++completedCheckpoints % interval != 0) {
+            return;
+        }
+        if (runningRound != null && !runningRound.isDone()) {
+            LOG.info("Skip the compaction of table {} at checkpoint {}, the previous round is still running",
+                    tableName, checkpointId);
+            return;
+        }
+        runningRound = executor.submit(this::compact);
+    }
+
+    private void compact() {
+        long startTime = System.currentTimeMillis();
+        try {
+            int dataFiles = compactor.compactDataFiles();
+            int manifests = rewriteManifests ? compactor.rewriteManifests() : 0;
+            LOG.info("Compaction of table {} replaced {} data files and {} manifests, cost {} ms", tableName,
+                    dataFiles, manifests, System.currentTimeMillis() - startTime);
+        } catch (Throwable t) {
+            LOG.warn("Compaction of table {} failed, will retry in the next round", tableName, t);
+        }
+    }
+
+    @Override
+    public void dispose() throws Exception {
+        super.dispose();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (tableLoader != null) {
+            tableLoader.close();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.inlong.sort.iceberg.compact;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.sink.RowDataTaskWriterFactory;
+import org.apache.iceberg.flink.sink.TaskWriterFactory;
+import org.apache.iceberg.flink.source.DataIterator;
+import org.apache.iceberg.flink.source.RowDataFileScanTaskReader;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.StructLikeWrapper;
+import org.apache.iceberg.util.TableScanUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compacts the small data files and merges the small manifests of an iceberg table.
+ * <p/>
+ * The small data files of the current partition spec are grouped by partition and bin-packed into
+ * tasks of the target file size, the files of each task are read and written into one new file,
+ * and all the rewritten files are replaced in one commit. The commit is validated against the
+ * snapshot the compaction was planned from, so the appends committed in the meantime do not fail it.
+ * The replaced files are removed from the storage when the snapshots referencing them are expired.
+ */
+public class IcebergCompactor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IcebergCompactor.class);
+
+    private final Table table;
+    private final long targetFileSize;
+    // the files smaller than it are regarded as small files
+    private final long smallFileSize;
+    private final int minInputFiles;
+
+    public IcebergCompactor(Table table, long targetFileSize, int minInputFiles) {
+        this.table = table;
+        this.targetFileSize = targetFileSize;
+        this.smallFileSize = targetFileSize / 4 * 3;
+        this.minInputFiles = Math.max(2, minInputFiles);
+    }
+
+    /**
+     * Compact the small data files of the latest snapshot.
+     *
+     * @return the count of the data files replaced
+     */
+    public int compactDataFiles() throws IOException {
+        table.refresh();
+        Snapshot snapshot = table.currentSnapshot();
+        if (snapshot == null) {
+            return 0;
+        }
+        List<CombinedScanTask> rewriteTasks = planRewriteTasks(snapshot);
+        if (rewriteTasks.isEmpty()) {
+            return 0;
+        }
+
+        Set<DataFile> deletedFiles = new HashSet<>();
+        Set<DataFile> addedFiles = new HashSet<>();
+        try {
+            TaskWriterFactory<RowData> writerFactory = createWriterFactory();
+            RowDataFileScanTaskReader reader = new RowDataFileScanTaskReader(table.schema(), table.schema(),
+                    PropertyUtil.propertyAsString(table.properties(), TableProperties.DEFAULT_NAME_MAPPING, null),
+                    true);
+            for (CombinedScanTask task : rewriteTasks) {
+                rewrite(task, reader, writerFactory, addedFiles);
+                for (FileScanTask fileTask : task.files()) {
+                    deletedFiles.add(fileTask.file());
+                }
+            }
+            table.newRewrite()
+                    .validateFromSnapshot(snapshot.snapshotId())
+                    .rewriteFiles(deletedFiles, addedFiles, snapshot.sequenceNumber())
+                    .commit();
+        } catch (IOException | RuntimeException e) {
+            // the new files are not referenced by any snapshot yet
+            for (DataFile file : addedFiles) {
+                table.io().deleteFile(file.path().toString());
+            }
+            throw e;
+        }
+        LOG.info("Compacted {} small data files into {} files of table {}", deletedFiles.size(),
+                addedFiles.size(), table.name());
+        return deletedFiles.size();
+    }
+
+    /**
+     * Merge the small data manifests of the latest snapshot, the merged manifests are
+     * rolled at the target manifest size of the table.
+     *
+     * @return the count of the manifests replaced
+     */
+    public int rewriteManifests() {
+        table.refresh();
+        Snapshot snapshot = table.currentSnapshot();
+        if (snapshot == null) {
+            return 0;
+        }
+        long targetManifestSize = PropertyUtil.propertyAsLong(table.properties(),
+                TableProperties.MANIFEST_TARGET_SIZE_BYTES, TableProperties.MANIFEST_TARGET_SIZE_BYTES_DEFAULT);
+        int smallManifests = 0;
+        for (ManifestFile manifest : snapshot.dataManifests()) {
+            if (manifest.length() < targetManifestSize) {
+                smallManifests++;
+            }
+        }
+        if (smallManifests < minInputFiles) {
+            return 0;
+        }
+        table.rewriteManifests()
+                .rewriteIf(manifest -> manifest.length() < targetManifestSize)
+                .clusterBy(DataFile::specId)
+                .commit();
+        LOG.info("Rewrote {} small manifests of table {}", smallManifests, table.name());
+        return smallManifests;
+    }
+
+    private List<CombinedScanTask> planRewriteTasks(Snapshot snapshot) throws IOException {
+        PartitionSpec spec = table.spec();
+        Map<StructLikeWrapper, List<FileScanTask>> partitionTasks = new HashMap<>();
+        try (CloseableIterable<FileScanTask> fileTasks = table.newScan()
+                .useSnapshot(snapshot.snapshotId())
+                .ignoreResiduals()
+                .planFiles()) {
+            for (FileScanTask fileTask : fileTasks) {
+                DataFile file = fileTask.file();
+                // the files with deletes are left to the table maintenance jobs
+                if (file.specId() != spec.specId() || file.fileSizeInBytes() >= smallFileSize
+                        || !fileTask.deletes().isEmpty()) {
+                    continue;
+                }
+                StructLikeWrapper partition = StructLikeWrapper.forType(spec.partitionType()).set(file.partition());
+                partitionTasks.computeIfAbsent(partition, k -> new ArrayList<>()).add(fileTask);
+            }
+        }
+
+        List<CombinedScanTask> rewriteTasks = new ArrayList<>();
+        for (List<FileScanTask> fileTasks : partitionTasks.values()) {
+            if (fileTasks.size() < minInputFiles) {
+                continue;
+            }
+            try (CloseableIterable<CombinedScanTask> tasks = TableScanUtil.planTasks(
+                    CloseableIterable.withNoopClose(fileTasks), targetFileSize,
+                    TableProperties.SPLIT_LOOKBACK_DEFAULT, TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT)) {
+                for (CombinedScanTask task : tasks) {
+                    if (task.files().size() > 1) {
+                        rewriteTasks.add(task);
+                    }
+                }
+            }
+        }
+        return rewriteTasks;
+    }
+
+    private TaskWriterFactory<RowData> createWriterFactory() {
+        String formatString = PropertyUtil.propertyAsString(table.properties(),
+                TableProperties.DEFAULT_FILE_FORMAT, TableProperties.DEFAULT_FILE_FORMAT_DEFAULT);
+        FileFormat format = FileFormat.valueOf(formatString.toUpperCase(Locale.ENGLISH));
+        // the size of each task is bounded by the target size, so write one file per task
+        TaskWriterFactory<RowData> writerFactory = new RowDataTaskWriterFactory(table,
+                FlinkSchemaUtil.convert(table.schema()), Long.MAX_VALUE, format, null, false);
+        writerFactory.initialize(0, 0);
+        return writerFactory;
+    }
+
+    private void rewrite(CombinedScanTask task, RowDataFileScanTaskReader reader,
+            TaskWriterFactory<RowData> writerFactory, Set<DataFile> addedFiles) throws IOException {
+        TaskWriter<RowData> writer = writerFactory.create();
+        try (DataIterator<RowData> iterator = new DataIterator<>(reader, task, table.io(), table.encryption())) {
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+            Collections.addAll(addedFiles, writer.dataFiles());
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.inlong.sort.iceberg.compact;
+
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.sink.RowDataTaskWriterFactory;
+import org.apache.iceberg.flink.source.DataIterator;
+import org.apache.iceberg.flink.source.RowDataFileScanTaskReader;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link IcebergCompactor}, on a table of the local hadoop catalog.
+ */
+public class IcebergCompactorTest {
+
+    private static final Schema SCHEMA = new Schema(
+            Types.NestedField.required(1, "id", Types.IntegerType.get()),
+            Types.NestedField.required(2, "data", Types.StringType.get()));
+    private static final int COMMITS = 10;
+    private static final int ROWS_PER_COMMIT = 100;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Table table;
+
+    @Before
+    public void before() throws IOException {
+        HadoopCatalog catalog = new HadoopCatalog(new Configuration(), temp.newFolder().getAbsolutePath());
+        PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).identity("data").build();
+        table = catalog.createTable(TableIdentifier.of("db", "tbl"), SCHEMA, spec,
+                ImmutableMap.of(TableProperties.FORMAT_VERSION, "2"));
+    }
+
+    @Test
+    public void testCompactSmallFiles() throws IOException {
+        // each commit adds a small file to both partitions
+        for (int i = 0; i < COMMITS; i++) {
+            appendRows(i * ROWS_PER_COMMIT, ROWS_PER_COMMIT);
+        }
+        Assert.assertEquals(COMMITS * 2, countDataFiles());
+        Assert.assertEquals(COMMITS, table.currentSnapshot().dataManifests().size());
+
+        IcebergCompactor compactor = new IcebergCompactor(table, 128L * 1024 * 1024, 5);
+        Assert.assertEquals(COMMITS * 2, compactor.compactDataFiles());
+        Assert.assertEquals(2, countDataFiles());
+        Assert.assertEquals(COMMITS * ROWS_PER_COMMIT, countDistinctIds());
+
+        Assert.assertTrue(compactor.rewriteManifests() >= 5);
+        Assert.assertEquals(1, table.currentSnapshot().dataManifests().size());
+        Assert.assertEquals(COMMITS * ROWS_PER_COMMIT, countDistinctIds());
+
+        // nothing left to compact
+        Assert.assertEquals(0, compactor.compactDataFiles());
+        Assert.assertEquals(0, compactor.rewriteManifests());
+    }
+
+    @Test
+    public void testSkipPartitionsWithFewSmallFiles() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            appendRows(i * ROWS_PER_COMMIT, ROWS_PER_COMMIT);
+        }
+        IcebergCompactor compactor = new IcebergCompactor(table, 128L * 1024 * 1024, 5);
+        Assert.assertEquals(0, compactor.compactDataFiles());
+        Assert.assertEquals(6, countDataFiles());
+    }
+
+    @Test
+    public void testSkipLargeFiles() throws IOException {
+        for (int i = 0; i < COMMITS; i++) {
+            appendRows(i * ROWS_PER_COMMIT, ROWS_PER_COMMIT);
+        }
+        // all the files are larger than 3/4 of the target size
+        IcebergCompactor compactor = new IcebergCompactor(table, 1024L, 5);
+        Assert.assertEquals(0, compactor.compactDataFiles());
+        Assert.assertEquals(COMMITS * 2, countDataFiles());
+    }
+
+    private void appendRows(int startId, int count) throws IOException {
+        RowDataTaskWriterFactory writerFactory = new RowDataTaskWriterFactory(table,
+                FlinkSchemaUtil.convert(SCHEMA), Long.MAX_VALUE, FileFormat.PARQUET, null, false);
+        writerFactory.initialize(0, 0);
+        TaskWriter<RowData> writer = writerFactory.create();
+        for (int id = startId; id < startId + count; id++) {
+            writer.write(GenericRowData.of(id, StringData.fromString(id % 2 == 0 ? "even" : "odd")));
+        }
+        AppendFiles append = table.newAppend();
+        for (DataFile file : writer.dataFiles()) {
+            append.appendFile(file);
+        }
+        append.commit();
+    }
+
+    private int countDataFiles() throws IOException {
+        table.refresh();
+        int count = 0;
+        try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+            for (FileScanTask ignored : tasks) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int countDistinctIds() throws IOException {
+        table.refresh();
+        Set<Integer> ids = new HashSet<>();
+        int rows = 0;
+        RowDataFileScanTaskReader reader = new RowDataFileScanTaskReader(SCHEMA, SCHEMA, null, true);
+        try (CloseableIterable<CombinedScanTask> tasks = table.newScan().planTasks()) {
+            for (CombinedScanTask task : tasks) {
+                try (DataIterator<RowData> iterator = new DataIterator<>(reader, task, table.io(),
+                        table.encryption())) {
+                    while (iterator.hasNext()) {
+                        ids.add(iterator.next().getInt(0));
+                        rows++;
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(ids.size(), rows);
+        return ids.size();
+    }
+}
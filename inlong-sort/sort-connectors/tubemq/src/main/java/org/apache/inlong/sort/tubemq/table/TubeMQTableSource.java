@@ -28,6 +28,7 @@ import org.apache.flink.table.connector.format.DecodingFormat;
 import org.apache.flink.table.connector.source.DynamicTableSource;
 import org.apache.flink.table.connector.source.ScanTableSource;
 import org.apache.flink.table.connector.source.SourceFunctionProvider;
+import org.apache.flink.table.connector.source.abilities.SupportsProjectionPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsReadingMetadata;
 import org.apache.flink.table.connector.source.abilities.SupportsWatermarkPushDown;
 import org.apache.flink.table.data.RowData;
@@ -37,12 +38,15 @@ import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.utils.LogicalTypeChecks;
 import org.apache.flink.table.types.utils.DataTypeUtils;
 import org.apache.flink.util.Preconditions;
+import org.apache.inlong.sort.formats.base.ProjectableDecodingFormat;
+import org.apache.inlong.sort.formats.base.ProjectedRowDataDeserializationSchema;
 import org.apache.inlong.sort.tubemq.FlinkTubeMQConsumer;
 import org.apache.inlong.sort.tubemq.table.DynamicTubeMQDeserializationSchema.MetadataConverter;
 import org.apache.inlong.tubemq.corebase.Message;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -57,7 +61,8 @@ import java.util.stream.Stream;
 /**
  * .
  */
-public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetadata, SupportsWatermarkPushDown {
+public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetadata, SupportsWatermarkPushDown,
+        SupportsProjectionPushDown {
 
     private static final String VALUE_METADATA_PREFIX = "value.";
 
@@ -119,6 +124,11 @@ public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetada
      * Metadata that is appended at the end of a physical source row.
      */
     protected List<String> metadataKeys;
+    /**
+     * Indices of the projected physical fields, null if all the fields are produced.
+     */
+    @Nullable
+    private int[] projectedFields;
     /**
      * Watermark strategy that is used to generate per-partition watermark.
      */
@@ -166,10 +176,17 @@ public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetada
         final LogicalType physicalType = physicalDataType.getLogicalType();
         final int physicalFieldCount = LogicalTypeChecks.getFieldCount(physicalType);
         final IntStream physicalFields = IntStream.range(0, physicalFieldCount);
-        final DeserializationSchema<RowData> deserialization = createDeserialization(context,
+        final DataType projectedDataType = projectedFields == null
+                ? physicalDataType : DataTypeUtils.projectRow(physicalDataType, projectedFields);
+        DeserializationSchema<RowData> deserialization = createDeserialization(context,
                 valueDecodingFormat, physicalFields.toArray(), null);
+        if (projectedFields != null && !(valueDecodingFormat instanceof ProjectableDecodingFormat)) {
+            // the format decodes all the fields, pick the projected ones after
+            deserialization = new ProjectedRowDataDeserializationSchema(deserialization, physicalDataType,
+                    projectedFields, context.createTypeInformation(projectedDataType));
+        }
 
-        final TypeInformation<RowData> producedTypeInfo = context.createTypeInformation(physicalDataType);
+        final TypeInformation<RowData> producedTypeInfo = context.createTypeInformation(projectedDataType);
 
         final FlinkTubeMQConsumer<RowData> tubeMQConsumer = createTubeMQConsumer(deserialization, producedTypeInfo,
                 ignoreErrors);
@@ -179,10 +196,12 @@ public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetada
 
     @Override
     public DynamicTableSource copy() {
-        return new TubeMQTableSource(
+        final TubeMQTableSource copy = new TubeMQTableSource(
                 physicalDataType, valueDecodingFormat, masterAddress,
                 topic, tidSet, consumerGroup, sessionKey, configuration,
                 watermarkStrategy, proctimeAttribute, ignoreErrors, innerFormat);
+        copy.projectedFields = projectedFields;
+        return copy;
     }
 
     @Override
@@ -233,6 +252,20 @@ public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetada
         this.watermarkStrategy = watermarkStrategy;
     }
 
+    @Override
+    public boolean supportsNestedProjection() {
+        return false;
+    }
+
+    @Override
+    public void applyProjection(int[][] projectedFields) {
+        this.projectedFields = Arrays.stream(projectedFields).mapToInt(field -> field[0]).toArray();
+        // the projectable format only decodes the projected fields
+        if (valueDecodingFormat instanceof ProjectableDecodingFormat) {
+            ((ProjectableDecodingFormat) valueDecodingFormat).applyProjection(this.projectedFields);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -249,7 +282,8 @@ public class TubeMQTableSource implements ScanTableSource, SupportsReadingMetada
                 && Objects.equals(String.valueOf(tidSet), String.valueOf(that.tidSet))
                 && Objects.equals(consumerGroup, that.consumerGroup)
                 && Objects.equals(proctimeAttribute, that.proctimeAttribute)
-                && Objects.equals(watermarkStrategy, that.watermarkStrategy);
+                && Objects.equals(watermarkStrategy, that.watermarkStrategy)
+                && Arrays.equals(projectedFields, that.projectedFields);
     }
 
     @Override
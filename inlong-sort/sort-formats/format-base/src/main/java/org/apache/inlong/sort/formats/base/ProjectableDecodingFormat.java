@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.base;
+
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.table.connector.format.DecodingFormat;
+import org.apache.flink.table.data.RowData;
+
+/**
+ * A {@link DecodingFormat} which can decode only a part of the fields of the
+ * physical rows.
+ *
+ * <p>By default the decoders produce all the fields of the physical data type
+ * given to {@link #createRuntimeDecoder}. After a projection is applied, they
+ * only decode the projected top-level fields and produce them in the given
+ * order.</p>
+ */
+public interface ProjectableDecodingFormat extends DecodingFormat<DeserializationSchema<RowData>> {
+
+    /**
+     * Pushes the projection into the format.
+     *
+     * @param projectedFields The indices of the projected fields in the
+     *                        physical data type.
+     */
+    void applyProjection(int[] projectedFields);
+}
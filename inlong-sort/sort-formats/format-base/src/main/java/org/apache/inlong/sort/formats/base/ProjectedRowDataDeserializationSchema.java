@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.base;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.Collector;
+
+/**
+ * The deserialization schema which decodes all the fields with the inner
+ * schema and produces the projected fields only.
+ *
+ * <p>It is used when a projection is pushed down to a format which is not a
+ * {@link ProjectableDecodingFormat}.</p>
+ */
+public class ProjectedRowDataDeserializationSchema implements DeserializationSchema<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DeserializationSchema<RowData> innerSchema;
+
+    private final int[] projectedFields;
+
+    private final RowData.FieldGetter[] fieldGetters;
+
+    private final TypeInformation<RowData> producedTypeInfo;
+
+    /**
+     * Constructor.
+     *
+     * @param innerSchema The schema producing all the fields of the physical data type.
+     * @param physicalDataType The physical data type of the rows produced by the inner schema.
+     * @param projectedFields The indices of the projected fields in the physical data type.
+     * @param producedTypeInfo The type information of the projected rows.
+     */
+    public ProjectedRowDataDeserializationSchema(
+            DeserializationSchema<RowData> innerSchema,
+            DataType physicalDataType,
+            int[] projectedFields,
+            TypeInformation<RowData> producedTypeInfo) {
+        List<LogicalType> fieldTypes = physicalDataType.getLogicalType().getChildren();
+        this.innerSchema = innerSchema;
+        this.projectedFields = projectedFields;
+        this.fieldGetters = Arrays.stream(projectedFields)
+                .mapToObj(field -> RowData.createFieldGetter(fieldTypes.get(field), field))
+                .toArray(RowData.FieldGetter[]::new);
+        this.producedTypeInfo = producedTypeInfo;
+    }
+
+    @Override
+    public void open(InitializationContext context) throws Exception {
+        innerSchema.open(context);
+    }
+
+    @Override
+    public RowData deserialize(byte[] message) throws IOException {
+        RowData row = innerSchema.deserialize(message);
+        return row == null ? null : project(row);
+    }
+
+    @Override
+    public void deserialize(byte[] message, Collector<RowData> out) throws IOException {
+        innerSchema.deserialize(message, new Collector<RowData>() {
+            @Override
+            public void collect(RowData row) {
+                out.collect(project(row));
+            }
+
+            @Override
+            public void close() {
+                out.close();
+            }
+        });
+    }
+
+    private RowData project(RowData row) {
+        GenericRowData projectedRow = new GenericRowData(row.getRowKind(), fieldGetters.length);
+        for (int i = 0; i < fieldGetters.length; i++) {
+            projectedRow.setField(i, fieldGetters[i].getFieldOrNull(row));
+        }
+        return projectedRow;
+    }
+
+    @Override
+    public boolean isEndOfStream(RowData nextElement) {
+        return false;
+    }
+
+    @Override
+    public TypeInformation<RowData> getProducedType() {
+        return producedTypeInfo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ProjectedRowDataDeserializationSchema that = (ProjectedRowDataDeserializationSchema) o;
+        return Arrays.equals(projectedFields, that.projectedFields)
+                && Objects.equals(innerSchema, that.innerSchema)
+                && Objects.equals(producedTypeInfo, that.producedTypeInfo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(innerSchema, Arrays.hashCode(projectedFields), producedTypeInfo);
+    }
+}
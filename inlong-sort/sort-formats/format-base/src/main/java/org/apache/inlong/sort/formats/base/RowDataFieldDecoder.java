@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.base;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.inlong.sort.formats.common.BasicFormatInfo;
+import org.apache.inlong.sort.formats.common.BinaryFormatInfo;
+import org.apache.inlong.sort.formats.common.BooleanFormatInfo;
+import org.apache.inlong.sort.formats.common.ByteFormatInfo;
+import org.apache.inlong.sort.formats.common.DateFormatInfo;
+import org.apache.inlong.sort.formats.common.DecimalFormatInfo;
+import org.apache.inlong.sort.formats.common.DoubleFormatInfo;
+import org.apache.inlong.sort.formats.common.FloatFormatInfo;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.IntFormatInfo;
+import org.apache.inlong.sort.formats.common.LongFormatInfo;
+import org.apache.inlong.sort.formats.common.ShortFormatInfo;
+import org.apache.inlong.sort.formats.common.StringFormatInfo;
+import org.apache.inlong.sort.formats.common.TimeFormatInfo;
+import org.apache.inlong.sort.formats.common.TimestampFormatInfo;
+import org.apache.inlong.sort.formats.common.VarCharFormatInfo;
+
+/**
+ * The decoder for the UTF-8 bytes of a basic field, which produces the
+ * internal data structures of {@link RowData}.
+ *
+ * <p>It has the same semantics as {@link TableFormatUtils#deserializeBasicField},
+ * but works on a range of the bytes. Strings, binaries, booleans and integral
+ * numbers are decoded from the bytes directly, and other types are decoded
+ * from the text of the field.</p>
+ *
+ * <p>The decoder is not thread-safe.</p>
+ */
+public class RowDataFieldDecoder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_VARCHAR = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_BYTE = 3;
+    private static final int TYPE_SHORT = 4;
+    private static final int TYPE_INT = 5;
+    private static final int TYPE_LONG = 6;
+    private static final int TYPE_FLOAT = 7;
+    private static final int TYPE_DOUBLE = 8;
+    private static final int TYPE_DECIMAL = 9;
+    private static final int TYPE_DATE = 10;
+    private static final int TYPE_TIME = 11;
+    private static final int TYPE_TIMESTAMP = 12;
+    private static final int TYPE_BINARY = 13;
+
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.UTF_8);
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * The name of the field.
+     */
+    @Nonnull
+    private final String fieldName;
+
+    /**
+     * The format of the field.
+     */
+    @Nonnull
+    private final FormatInfo fieldFormatInfo;
+
+    /**
+     * The UTF-8 bytes of the literal represented null values. Null if the
+     * null literal is not given.
+     */
+    @Nullable
+    private final byte[] nullLiteralBytes;
+
+    private final int type;
+
+    /**
+     * The buffer to decode decimals.
+     */
+    private transient char[] charBuffer;
+
+    public RowDataFieldDecoder(
+            @Nonnull String fieldName,
+            @Nonnull FormatInfo fieldFormatInfo,
+            @Nullable String nullLiteral
+    ) {
+        this.fieldName = fieldName;
+        this.fieldFormatInfo = fieldFormatInfo;
+        this.nullLiteralBytes =
+                nullLiteral == null ? null : nullLiteral.getBytes(StandardCharsets.UTF_8);
+        this.type = getType(fieldName, fieldFormatInfo);
+    }
+
+    /**
+     * Decodes the field in the given range of the bytes.
+     *
+     * @param bytes The UTF-8 bytes containing the field.
+     * @param start The start offset (inclusive) of the field.
+     * @param end The end offset (exclusive) of the field.
+     * @return The internal data of the field, or null if the field is null.
+     */
+    public Object decode(byte[] bytes, int start, int end) {
+        if (nullLiteralBytes == null) {
+            if (start == end) {
+                return type == TYPE_STRING ? StringData.fromString("") : null;
+            }
+        } else {
+            if (equals(bytes, start, end, nullLiteralBytes)) {
+                return null;
+            }
+        }
+
+        int trimmedStart = trimStart(bytes, start, end);
+        int trimmedEnd = trimEnd(bytes, trimmedStart, end);
+
+        try {
+            switch (type) {
+                case TYPE_STRING:
+                case TYPE_VARCHAR:
+                    return StringData.fromBytes(Arrays.copyOfRange(bytes, trimmedStart, trimmedEnd));
+                case TYPE_BINARY:
+                    return Arrays.copyOfRange(bytes, start, end);
+                case TYPE_BOOLEAN:
+                    return equalsIgnoreCase(bytes, trimmedStart, trimmedEnd, TRUE_BYTES);
+                case TYPE_BYTE:
+                    return (byte) parseLong(bytes, trimmedStart, trimmedEnd, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                case TYPE_SHORT:
+                    return (short) parseLong(bytes, trimmedStart, trimmedEnd, Short.MIN_VALUE, Short.MAX_VALUE);
+                case TYPE_INT:
+                    return (int) parseLong(bytes, trimmedStart, trimmedEnd,
+                            Integer.MIN_VALUE, Integer.MAX_VALUE);
+                case TYPE_LONG:
+                    return parseLong(bytes, trimmedStart, trimmedEnd, Long.MIN_VALUE, Long.MAX_VALUE);
+                case TYPE_DECIMAL:
+                    DecimalFormatInfo decimalFormatInfo = (DecimalFormatInfo) fieldFormatInfo;
+                    return DecimalData.fromBigDecimal(
+                            parseDecimal(bytes, trimmedStart, trimmedEnd),
+                            decimalFormatInfo.getPrecision(),
+                            decimalFormatInfo.getScale());
+                case TYPE_FLOAT:
+                case TYPE_DOUBLE:
+                    return deserializeText(bytes, start, end);
+                case TYPE_DATE:
+                    Date date = (Date) deserializeText(bytes, start, end);
+                    return (int) date.toLocalDate().toEpochDay();
+                case TYPE_TIME:
+                    Time time = (Time) deserializeText(bytes, start, end);
+                    return (int) (time.toLocalTime().toSecondOfDay() * MILLIS_PER_SECOND
+                            + Math.floorMod(time.getTime(), MILLIS_PER_SECOND));
+                case TYPE_TIMESTAMP:
+                    return TimestampData.fromTimestamp((Timestamp) deserializeText(bytes, start, end));
+                default:
+                    throw new IllegalStateException("Unknown type " + type + ".");
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Could not properly deserialize the "
+                    + "text " + new String(bytes, start, end - start, StandardCharsets.UTF_8)
+                    + " for field " + fieldName + ".", e);
+        }
+    }
+
+    /**
+     * Parses the integral number in the given range of the bytes, in the
+     * same way as {@link Long#parseLong(String)}.
+     */
+    static long parseLong(byte[] bytes, int start, int end, long minValue, long maxValue) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty number.");
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (bytes[i] == '-') {
+            negative = true;
+            i++;
+        } else if (bytes[i] == '+') {
+            i++;
+        }
+
+        if (i == end) {
+            throw new NumberFormatException("Only sign in the number.");
+        }
+
+        // Accumulates negatively to handle the minimum value.
+        long limit = negative ? minValue : -maxValue;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < end; ++i) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Illegal character at position " + (i - start) + ".");
+            }
+
+            if (result < multiplyLimit) {
+                throw new NumberFormatException("Value out of range.");
+            }
+
+            result *= 10;
+            if (result < limit + digit) {
+                throw new NumberFormatException("Value out of range.");
+            }
+
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    private BigDecimal parseDecimal(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (charBuffer == null || charBuffer.length < length) {
+            charBuffer = new char[Math.max(length, 32)];
+        }
+
+        for (int i = 0; i < length; ++i) {
+            charBuffer[i] = (char) (bytes[start + i] & 0xFF);
+        }
+
+        return new BigDecimal(charBuffer, 0, length);
+    }
+
+    private Object deserializeText(byte[] bytes, int start, int end) throws Exception {
+        String text = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        return ((BasicFormatInfo<?>) fieldFormatInfo).deserialize(text);
+    }
+
+    private static int trimStart(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean equals(byte[] bytes, int start, int end, byte[] target) {
+        if (end - start != target.length) {
+            return false;
+        }
+
+        for (int i = 0; i < target.length; ++i) {
+            if (bytes[start + i] != target[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(byte[] bytes, int start, int end, byte[] lowerCaseTarget) {
+        if (end - start != lowerCaseTarget.length) {
+            return false;
+        }
+
+        for (int i = 0; i < lowerCaseTarget.length; ++i) {
+            byte b = bytes[start + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != lowerCaseTarget[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int getType(String fieldName, FormatInfo fieldFormatInfo) {
+        if (fieldFormatInfo instanceof StringFormatInfo) {
+            return TYPE_STRING;
+        } else if (fieldFormatInfo instanceof VarCharFormatInfo) {
+            return TYPE_VARCHAR;
+        } else if (fieldFormatInfo instanceof BooleanFormatInfo) {
+            return TYPE_BOOLEAN;
+        } else if (fieldFormatInfo instanceof ByteFormatInfo) {
+            return TYPE_BYTE;
+        } else if (fieldFormatInfo instanceof ShortFormatInfo) {
+            return TYPE_SHORT;
+        } else if (fieldFormatInfo instanceof IntFormatInfo) {
+            return TYPE_INT;
+        } else if (fieldFormatInfo instanceof LongFormatInfo) {
+            return TYPE_LONG;
+        } else if (fieldFormatInfo instanceof FloatFormatInfo) {
+            return TYPE_FLOAT;
+        } else if (fieldFormatInfo instanceof DoubleFormatInfo) {
+            return TYPE_DOUBLE;
+        } else if (fieldFormatInfo instanceof DecimalFormatInfo) {
+            return TYPE_DECIMAL;
+        } else if (fieldFormatInfo instanceof DateFormatInfo) {
+            return TYPE_DATE;
+        } else if (fieldFormatInfo instanceof TimeFormatInfo) {
+            return TYPE_TIME;
+        } else if (fieldFormatInfo instanceof TimestampFormatInfo) {
+            return TYPE_TIMESTAMP;
+        } else if (fieldFormatInfo instanceof BinaryFormatInfo) {
+            return TYPE_BINARY;
+        } else {
+            throw new IllegalArgumentException("Unsupported format " + fieldFormatInfo
+                    + " for field " + fieldName + ".");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.base;
+
+import static org.apache.inlong.sort.formats.base.TableFormatConstants.DEFAULT_CHARSET;
+import static org.apache.inlong.sort.formats.base.TableFormatConstants.DEFAULT_DELIMITER;
+import static org.apache.inlong.sort.formats.base.TableFormatConstants.DEFAULT_ENTRY_DELIMITER;
+import static org.apache.inlong.sort.formats.base.TableFormatConstants.DEFAULT_KV_DELIMITER;
+
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.api.ValidationException;
+
+/**
+ * Common options of the decoding formats, which have the same meanings as
+ * the properties in {@link TableFormatConstants}.
+ */
+public class TableFormatOptions {
+
+    private TableFormatOptions() {
+    }
+
+    public static final ConfigOption<String> CHARSET =
+            ConfigOptions.key("charset")
+                    .stringType()
+                    .defaultValue(DEFAULT_CHARSET)
+                    .withDescription("The charset of the text.");
+
+    public static final ConfigOption<String> DELIMITER =
+            ConfigOptions.key("delimiter")
+                    .stringType()
+                    .defaultValue(String.valueOf(DEFAULT_DELIMITER))
+                    .withDescription("The delimiter between fields.");
+
+    public static final ConfigOption<String> ENTRY_DELIMITER =
+            ConfigOptions.key("entry-delimiter")
+                    .stringType()
+                    .defaultValue(String.valueOf(DEFAULT_ENTRY_DELIMITER))
+                    .withDescription("The delimiter between entries.");
+
+    public static final ConfigOption<String> KV_DELIMITER =
+            ConfigOptions.key("kv-delimiter")
+                    .stringType()
+                    .defaultValue(String.valueOf(DEFAULT_KV_DELIMITER))
+                    .withDescription("The delimiter between key and value.");
+
+    public static final ConfigOption<String> ESCAPE_CHARACTER =
+            ConfigOptions.key("escape-character")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("The escape character, escaping is disabled if not set.");
+
+    public static final ConfigOption<String> QUOTE_CHARACTER =
+            ConfigOptions.key("quote-character")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("The quote character, quoting is disabled if not set.");
+
+    public static final ConfigOption<String> NULL_LITERAL =
+            ConfigOptions.key("null-literal")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("The literal represented null values.");
+
+    /**
+     * Returns the single character of the given option.
+     *
+     * @return The character, or null if the option is not set and has no
+     *         default value.
+     */
+    public static Character getCharacter(ReadableConfig config, ConfigOption<String> option) {
+        String value = config.get(option);
+        if (value == null) {
+            return null;
+        }
+
+        if (value.length() != 1) {
+            throw new ValidationException(
+                    "Option '" + option.key() + "' must be a single character, but was: " + value);
+        }
+        return value.charAt(0);
+    }
+}
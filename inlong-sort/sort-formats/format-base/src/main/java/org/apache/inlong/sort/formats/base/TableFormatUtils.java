@@ -497,6 +497,21 @@ public class TableFormatUtils {
         return new RowFormatInfo(fieldNames, fieldFormatInfos);
     }
 
+    /**
+     * Derives the format from the given physical data type.
+     *
+     * @param physicalDataType The data type of the physical rows.
+     * @return The format derived from the data type.
+     */
+    public static RowFormatInfo deriveRowFormatInfo(DataType physicalDataType) {
+        LogicalType logicalType = physicalDataType.getLogicalType();
+        if (!(logicalType instanceof RowType)) {
+            throw new ValidationException("The physical data type " + physicalDataType + " is not a row type.");
+        }
+
+        return (RowFormatInfo) deriveFormatInfo(logicalType);
+    }
+
     /**
      * Returns the schema in the properties.
      *
@@ -20,7 +20,6 @@ package org.apache.inlong.sort.formats.common;
 
 import java.sql.Date;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
@@ -28,6 +27,7 @@ import javax.annotation.Nullable;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonCreator;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.inlong.sort.formats.util.TemporalFormatter;
 
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_ISO_8601;
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_SQL;
@@ -47,7 +47,7 @@ public class DateFormatInfo implements BasicFormatInfo<Date> {
 
     @JsonIgnore
     @Nullable
-    private final SimpleDateFormat simpleDateFormat;
+    private final TemporalFormatter temporalFormatter;
 
     @JsonCreator
     public DateFormatInfo(
@@ -60,9 +60,9 @@ public class DateFormatInfo implements BasicFormatInfo<Date> {
                 && !format.equals("MICROS")
                 && !DATE_AND_TIME_STANDARD_SQL.equals(format)
                 && !DATE_AND_TIME_STANDARD_ISO_8601.equals(format)) {
-            this.simpleDateFormat = new SimpleDateFormat(format);
+            this.temporalFormatter = new TemporalFormatter(format);
         } else {
-            this.simpleDateFormat = null;
+            this.temporalFormatter = null;
         }
     }
 
@@ -98,11 +98,11 @@ public class DateFormatInfo implements BasicFormatInfo<Date> {
                 return Long.toString(seconds);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                return simpleDateFormat.format(date);
+                return temporalFormatter.format(date.getTime());
             }
         }
     }
@@ -126,12 +126,11 @@ public class DateFormatInfo implements BasicFormatInfo<Date> {
                 return new Date(millis);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                java.util.Date jDate = simpleDateFormat.parse(text.trim());
-                return new Date(jDate.getTime());
+                return new Date(temporalFormatter.parseMillis(text.trim()));
             }
         }
     }
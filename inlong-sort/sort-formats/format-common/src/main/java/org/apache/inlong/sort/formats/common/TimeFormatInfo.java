@@ -26,10 +26,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.Time;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import org.apache.inlong.sort.formats.util.TemporalFormatter;
 
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_ISO_8601;
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_SQL;
@@ -49,7 +48,7 @@ public class TimeFormatInfo implements BasicFormatInfo<Time> {
     private final String format;
     @JsonIgnore
     @Nullable
-    private final SimpleDateFormat simpleDateFormat;
+    private final TemporalFormatter temporalFormatter;
     @JsonProperty("precision")
     private int precision;
 
@@ -64,9 +63,9 @@ public class TimeFormatInfo implements BasicFormatInfo<Time> {
                 && !format.equals("SECONDS")
                 && !DATE_AND_TIME_STANDARD_SQL.equals(format)
                 && !DATE_AND_TIME_STANDARD_ISO_8601.equals(format)) {
-            this.simpleDateFormat = new SimpleDateFormat(format);
+            this.temporalFormatter = new TemporalFormatter(format);
         } else {
-            this.simpleDateFormat = null;
+            this.temporalFormatter = null;
         }
     }
 
@@ -106,11 +105,11 @@ public class TimeFormatInfo implements BasicFormatInfo<Time> {
                 return Long.toString(seconds);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                return simpleDateFormat.format(time);
+                return temporalFormatter.format(time.getTime());
             }
         }
     }
@@ -133,12 +132,11 @@ public class TimeFormatInfo implements BasicFormatInfo<Time> {
                 return new Time(millis);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                Date date = simpleDateFormat.parse(text);
-                return new Time(date.getTime());
+                return new Time(temporalFormatter.parseMillis(text));
             }
         }
     }
@@ -26,10 +26,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.Timestamp;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import org.apache.inlong.sort.formats.util.TemporalFormatter;
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_ISO_8601;
 import static org.apache.inlong.sort.formats.common.Constants.DATE_AND_TIME_STANDARD_SQL;
 
@@ -50,7 +49,7 @@ public class TimestampFormatInfo implements BasicFormatInfo<Timestamp> {
 
     @JsonIgnore
     @Nullable
-    private final SimpleDateFormat simpleDateFormat;
+    private final TemporalFormatter temporalFormatter;
 
     @JsonProperty("precision")
     private int precision;
@@ -66,9 +65,9 @@ public class TimestampFormatInfo implements BasicFormatInfo<Timestamp> {
                 && !format.equals("SECONDS")
                 && !DATE_AND_TIME_STANDARD_SQL.equals(format)
                 && !DATE_AND_TIME_STANDARD_ISO_8601.equals(format)) {
-            this.simpleDateFormat = new SimpleDateFormat(format);
+            this.temporalFormatter = new TemporalFormatter(format);
         } else {
-            this.simpleDateFormat = null;
+            this.temporalFormatter = null;
         }
     }
 
@@ -113,11 +112,11 @@ public class TimestampFormatInfo implements BasicFormatInfo<Timestamp> {
                 return Long.toString(seconds);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                return simpleDateFormat.format(timestamp);
+                return temporalFormatter.format(timestamp.getTime());
             }
         }
     }
@@ -140,12 +139,11 @@ public class TimestampFormatInfo implements BasicFormatInfo<Timestamp> {
                 return new Timestamp(millis);
             }
             default: {
-                if (simpleDateFormat == null) {
+                if (temporalFormatter == null) {
                     throw new IllegalStateException();
                 }
 
-                Date date = simpleDateFormat.parse(text);
-                return new Timestamp(date.getTime());
+                return new Timestamp(temporalFormatter.parseMillis(text));
             }
         }
     }
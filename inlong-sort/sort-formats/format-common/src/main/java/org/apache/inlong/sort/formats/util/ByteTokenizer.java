@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.util;
+
+import java.util.Arrays;
+
+/**
+ * The tokenizer splitting the csv and kv text directly over the bytes.
+ *
+ * <p>It follows the same escaping and quoting rules as
+ * {@link StringUtils#splitCsv} and {@link StringUtils#splitKv}, but only
+ * records the ranges of the tokens instead of creating strings for them. A
+ * token containing escape or quote characters is marked, and its content can
+ * be obtained with {@link #unescape}.</p>
+ *
+ * <p>The delimiters, escape and quote characters are matched against single
+ * bytes, hence they must be ASCII characters and the text must be encoded in
+ * an ASCII compatible charset like UTF-8.</p>
+ *
+ * <p>The tokenizer reuses its buffers and is not thread-safe.</p>
+ */
+public class ByteTokenizer {
+
+    /**
+     * The value of a disabled escape or quote character.
+     */
+    public static final int NONE = -1;
+
+    private static final int STATE_NORMAL = 0;
+    private static final int STATE_KEY = 2;
+    private static final int STATE_VALUE = 4;
+    private static final int STATE_ESCAPING = 8;
+    private static final int STATE_QUOTING = 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] tokenStarts = new int[INITIAL_CAPACITY];
+
+    private int[] tokenEnds = new int[INITIAL_CAPACITY];
+
+    private boolean[] tokenEscaped = new boolean[INITIAL_CAPACITY];
+
+    private int numTokens;
+
+    /**
+     * Returns the byte value of the given character, or {@link #NONE} if the
+     * character is null.
+     *
+     * @param ch The character.
+     * @return The byte value of the character.
+     * @throws IllegalArgumentException if the character is not an ASCII character.
+     */
+    public static int toByte(Character ch) {
+        if (ch == null) {
+            return NONE;
+        }
+
+        if (ch > 0x7F) {
+            throw new IllegalArgumentException("The character '" + ch + "' is not an ASCII character.");
+        }
+
+        return ch;
+    }
+
+    /**
+     * Splits the csv text in the given range of the bytes.
+     *
+     * <p>The tokenizing stops once {@code maxFields} fields are found, the
+     * rest of the text is not checked.</p>
+     *
+     * @param bytes The bytes of the text.
+     * @param offset The offset of the text in the bytes.
+     * @param length The length of the text.
+     * @param delimiter The delimiter of fields.
+     * @param escapeChar The escaping character, {@link #NONE} if disabled.
+     * @param quoteChar The quoting character, {@link #NONE} if disabled.
+     * @param maxFields The maximum number of fields needed.
+     * @return The number of fields split from the text.
+     */
+    @SuppressWarnings("checkstyle:MissingSwitchDefault")
+    public int splitCsv(
+            byte[] bytes,
+            int offset,
+            int length,
+            int delimiter,
+            int escapeChar,
+            int quoteChar,
+            int maxFields
+    ) {
+        numTokens = 0;
+
+        int state = STATE_NORMAL;
+        int start = offset;
+        boolean escaped = false;
+
+        int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            int ch = bytes[i] & 0xFF;
+
+            if (ch == delimiter) {
+                switch (state) {
+                    case STATE_NORMAL:
+                        addToken(start, i, escaped);
+                        if (numTokens >= maxFields) {
+                            return numTokens;
+                        }
+                        start = i + 1;
+                        escaped = false;
+                        break;
+                    case STATE_ESCAPING:
+                        state = STATE_NORMAL;
+                        break;
+                }
+            } else if (ch == escapeChar) {
+                switch (state) {
+                    case STATE_NORMAL:
+                        state = STATE_ESCAPING;
+                        escaped = true;
+                        break;
+                    case STATE_ESCAPING:
+                        state = STATE_NORMAL;
+                        break;
+                }
+            } else if (ch == quoteChar) {
+                switch (state) {
+                    case STATE_NORMAL:
+                        state = STATE_QUOTING;
+                        escaped = true;
+                        break;
+                    case STATE_ESCAPING:
+                    case STATE_QUOTING:
+                        state = STATE_NORMAL;
+                        break;
+                }
+            }
+        }
+
+        switch (state) {
+            case STATE_NORMAL:
+                addToken(start, end, escaped);
+                return numTokens;
+            case STATE_ESCAPING:
+                throw new IllegalArgumentException("Not closed escaping.");
+            case STATE_QUOTING:
+                throw new IllegalArgumentException("Not closed quoting.");
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Splits the kv text in the given range of the bytes.
+     *
+     * <p>The key of the i-th entry is the token at {@code 2 * i}, and the
+     * value is the token at {@code 2 * i + 1}.</p>
+     *
+     * @param bytes The bytes of the text.
+     * @param offset The offset of the text in the bytes.
+     * @param length The length of the text.
+     * @param entryDelimiter The delimiter of entries.
+     * @param kvDelimiter The delimiter between key and value.
+     * @param escapeChar The escaping character, {@link #NONE} if disabled.
+     * @param quoteChar The quoting character, {@link #NONE} if disabled.
+     * @return The number of entries split from the text.
+     */
+    @SuppressWarnings("checkstyle:MissingSwitchDefault")
+    public int splitKv(
+            byte[] bytes,
+            int offset,
+            int length,
+            int entryDelimiter,
+            int kvDelimiter,
+            int escapeChar,
+            int quoteChar
+    ) {
+        numTokens = 0;
+
+        int state = STATE_KEY;
+
+        /*
+         * The state when entering escaping and quoting. When we exit escaping
+         * or quoting, we should restore this state.
+         */
+        int kvState = STATE_KEY;
+
+        int start = offset;
+        boolean escaped = false;
+
+        int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            int ch = bytes[i] & 0xFF;
+
+            if (ch == kvDelimiter) {
+                switch (state) {
+                    case STATE_KEY:
+                        addToken(start, i, escaped);
+                        start = i + 1;
+                        escaped = false;
+                        state = STATE_VALUE;
+                        break;
+                    case STATE_VALUE:
+                        throw new IllegalArgumentException("Unexpected token "
+                                + (char) ch + " at position " + (i - offset) + ".");
+                    case STATE_ESCAPING:
+                        state = kvState;
+                        break;
+                }
+            } else if (ch == entryDelimiter) {
+                switch (state) {
+                    case STATE_KEY:
+                        throw new IllegalArgumentException("Unexpected token "
+                                + (char) ch + " at position " + (i - offset) + ".");
+                    case STATE_VALUE:
+                        addToken(start, i, escaped);
+                        start = i + 1;
+                        escaped = false;
+                        state = STATE_KEY;
+                        break;
+                    case STATE_ESCAPING:
+                        state = kvState;
+                        break;
+                }
+            } else if (ch == escapeChar) {
+                switch (state) {
+                    case STATE_KEY:
+                    case STATE_VALUE:
+                        kvState = state;
+                        state = STATE_ESCAPING;
+                        escaped = true;
+                        break;
+                    case STATE_ESCAPING:
+                        state = kvState;
+                        break;
+                }
+            } else if (ch == quoteChar) {
+                switch (state) {
+                    case STATE_KEY:
+                    case STATE_VALUE:
+                        kvState = state;
+                        state = STATE_QUOTING;
+                        escaped = true;
+                        break;
+                    case STATE_ESCAPING:
+                    case STATE_QUOTING:
+                        state = kvState;
+                        break;
+                }
+            }
+        }
+
+        switch (state) {
+            case STATE_KEY:
+                throw new IllegalArgumentException("Dangling key.");
+            case STATE_VALUE:
+                addToken(start, end, escaped);
+                return numTokens / 2;
+            case STATE_ESCAPING:
+                throw new IllegalArgumentException("Not closed escaping.");
+            case STATE_QUOTING:
+                throw new IllegalArgumentException("Not closed quoting.");
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Returns the number of tokens found in the last split.
+     */
+    public int getNumTokens() {
+        return numTokens;
+    }
+
+    /**
+     * Returns the start offset (inclusive) of the given token.
+     */
+    public int getTokenStart(int index) {
+        return tokenStarts[index];
+    }
+
+    /**
+     * Returns the end offset (exclusive) of the given token.
+     */
+    public int getTokenEnd(int index) {
+        return tokenEnds[index];
+    }
+
+    /**
+     * Returns true if the given token contains escape or quote characters,
+     * and must be unescaped before use.
+     */
+    public boolean isTokenEscaped(int index) {
+        return tokenEscaped[index];
+    }
+
+    /**
+     * Removes the escape and quote characters from the given range of the
+     * bytes, in the same way as the text is split.
+     *
+     * @param bytes The bytes of the text.
+     * @param start The start offset (inclusive) of the token.
+     * @param end The end offset (exclusive) of the token.
+     * @param delimiter The delimiter of fields or entries.
+     * @param kvDelimiter The delimiter between key and value, {@link #NONE} for csv text.
+     * @param escapeChar The escaping character, {@link #NONE} if disabled.
+     * @param quoteChar The quoting character, {@link #NONE} if disabled.
+     * @return The bytes of the unescaped token.
+     */
+    @SuppressWarnings("checkstyle:MissingSwitchDefault")
+    public static byte[] unescape(
+            byte[] bytes,
+            int start,
+            int end,
+            int delimiter,
+            int kvDelimiter,
+            int escapeChar,
+            int quoteChar
+    ) {
+        byte[] result = new byte[end - start];
+        int length = 0;
+
+        int state = STATE_NORMAL;
+        for (int i = start; i < end; ++i) {
+            int ch = bytes[i] & 0xFF;
+
+            if (ch == delimiter || ch == kvDelimiter) {
+                result[length++] = bytes[i];
+                if (state == STATE_ESCAPING) {
+                    state = STATE_NORMAL;
+                }
+            } else if (ch == escapeChar) {
+                switch (state) {
+                    case STATE_NORMAL:
+                        state = STATE_ESCAPING;
+                        break;
+                    case STATE_ESCAPING:
+                        result[length++] = bytes[i];
+                        state = STATE_NORMAL;
+                        break;
+                    case STATE_QUOTING:
+                        result[length++] = bytes[i];
+                        break;
+                }
+            } else if (ch == quoteChar) {
+                switch (state) {
+                    case STATE_NORMAL:
+                        state = STATE_QUOTING;
+                        break;
+                    case STATE_ESCAPING:
+                        result[length++] = bytes[i];
+                        state = STATE_NORMAL;
+                        break;
+                    case STATE_QUOTING:
+                        state = STATE_NORMAL;
+                        break;
+                }
+            } else {
+                result[length++] = bytes[i];
+            }
+        }
+
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    private void addToken(int start, int end, boolean escaped) {
+        if (numTokens == tokenStarts.length) {
+            int capacity = numTokens * 2;
+            tokenStarts = Arrays.copyOf(tokenStarts, capacity);
+            tokenEnds = Arrays.copyOf(tokenEnds, capacity);
+            tokenEscaped = Arrays.copyOf(tokenEscaped, capacity);
+        }
+
+        tokenStarts[numTokens] = start;
+        tokenEnds[numTokens] = end;
+        tokenEscaped[numTokens] = escaped;
+        numTokens++;
+    }
+}
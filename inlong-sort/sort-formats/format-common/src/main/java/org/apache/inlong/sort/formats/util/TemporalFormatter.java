@@ -0,0 +1,538 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.util;
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.TimeZone;
+import javax.annotation.Nonnull;
+
+/**
+ * The thread-safe formatter of dates, times and timestamps in the pattern of
+ * {@link SimpleDateFormat}, in the default time zone.
+ *
+ * <p>The texts are parsed in the following ways, and the results are the
+ * same as the ones of {@link SimpleDateFormat}:</p>
+ * <ul>
+ *     <li>If the pattern only consists of the fixed-width fields "yyyy", "MM",
+ *     "dd", "HH", "mm", "ss", "SSS" and non-letter literals, like
+ *     "yyyy-MM-dd HH:mm:ss", the text is parsed directly from its characters.
+ *     The epoch day of the last seen date and the offset of the last seen
+ *     time zone period are cached, so that the texts in the same day are
+ *     parsed without any allocation.</li>
+ *     <li>Otherwise, if the pattern letters have the same meaning in
+ *     {@link DateTimeFormatter}, the text is parsed by a lenient
+ *     {@link DateTimeFormatter}.</li>
+ *     <li>Otherwise, or if the text is not accepted by the above ways, the
+ *     text is parsed by a {@link SimpleDateFormat} owned by current thread.</li>
+ * </ul>
+ */
+public class TemporalFormatter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELD_YEAR = 0;
+    private static final int FIELD_MONTH = 1;
+    private static final int FIELD_DAY = 2;
+    private static final int FIELD_HOUR = 3;
+    private static final int FIELD_MINUTE = 4;
+    private static final int FIELD_SECOND = 5;
+    private static final int FIELD_MILLIS = 6;
+    private static final int NUM_FIELDS = 7;
+
+    private static final int[] DEFAULT_FIELD_VALUES = new int[]{1970, 1, 1, 0, 0, 0, 0};
+
+    /**
+     * The range of years handled by java.time. Dates out of the range may be
+     * interpreted differently by {@link SimpleDateFormat}, e.g. in Julian
+     * calendar or with local mean time.
+     */
+    private static final int MIN_DIRECT_YEAR = 1970;
+    private static final int MAX_DIRECT_YEAR = 9999;
+
+    private static final long MIN_DIRECT_MILLIS =
+            LocalDate.of(MIN_DIRECT_YEAR, 1, 2).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long MAX_DIRECT_MILLIS =
+            LocalDate.of(MAX_DIRECT_YEAR, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+
+    @Nonnull
+    private final String pattern;
+
+    /**
+     * The prototype of the thread-owned {@link SimpleDateFormat}s.
+     */
+    @Nonnull
+    private final SimpleDateFormat simpleDateFormat;
+
+    private transient volatile Compiled compiled;
+
+    private transient volatile DayCache dayCache;
+
+    private transient volatile OffsetCache offsetCache;
+
+    /**
+     * Creates a formatter for the given pattern.
+     *
+     * @param pattern The pattern of {@link SimpleDateFormat}.
+     * @throws IllegalArgumentException if the pattern is invalid.
+     */
+    public TemporalFormatter(@Nonnull String pattern) {
+        this.pattern = pattern;
+        this.simpleDateFormat = new SimpleDateFormat(pattern);
+    }
+
+    @Nonnull
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Parses the text into the milliseconds since epoch.
+     *
+     * @param text The text to be parsed.
+     * @return The milliseconds since epoch.
+     * @throws ParseException if the text can not be parsed.
+     */
+    public long parseMillis(@Nonnull String text) throws ParseException {
+        return parseMillis(text, 0, text.length());
+    }
+
+    /**
+     * Parses the text in the given range into the milliseconds since epoch.
+     *
+     * @param text The text containing the range to be parsed.
+     * @param start The start index (inclusive) of the range.
+     * @param end The end index (exclusive) of the range.
+     * @return The milliseconds since epoch.
+     * @throws ParseException if the text can not be parsed.
+     */
+    public long parseMillis(@Nonnull CharSequence text, int start, int end) throws ParseException {
+        Compiled compiled = getCompiled();
+
+        if (compiled.fieldPositions != null) {
+            long millis = parseDirectly(compiled, text, start, end);
+            if (millis != NOT_PARSED) {
+                return millis;
+            }
+        }
+
+        String rangeText = text.subSequence(start, end).toString();
+
+        if (compiled.dateTimeParser != null) {
+            try {
+                TemporalAccessor parsed = compiled.dateTimeParser.parse(rangeText);
+                LocalDate date = parsed.query(TemporalQueries.localDate());
+                LocalTime time = parsed.query(TemporalQueries.localTime());
+                if (date != null && time != null
+                        && date.getYear() >= MIN_DIRECT_YEAR && date.getYear() <= MAX_DIRECT_YEAR) {
+                    return ZonedDateTime.of(date, time, compiled.zone).withLaterOffsetAtOverlap()
+                            .toInstant().toEpochMilli();
+                }
+            } catch (DateTimeException e) {
+                // Falls back to the SimpleDateFormat which is more lenient.
+            }
+        }
+
+        return compiled.simpleDateFormats.get().parse(rangeText).getTime();
+    }
+
+    /**
+     * Formats the milliseconds since epoch.
+     *
+     * @param millis The milliseconds since epoch.
+     * @return The formatted text.
+     */
+    public String format(long millis) {
+        Compiled compiled = getCompiled();
+
+        if (compiled.dateTimePrinter != null && millis >= MIN_DIRECT_MILLIS && millis < MAX_DIRECT_MILLIS) {
+            return compiled.dateTimePrinter.format(Instant.ofEpochMilli(millis));
+        }
+
+        return compiled.simpleDateFormats.get().format(new java.util.Date(millis));
+    }
+
+    private long parseDirectly(Compiled compiled, CharSequence text, int start, int end) {
+        if (end - start != pattern.length()) {
+            return NOT_PARSED;
+        }
+
+        for (int i = 0; i < pattern.length(); ++i) {
+            if (compiled.literals[i] && text.charAt(start + i) != pattern.charAt(i)) {
+                return NOT_PARSED;
+            }
+        }
+
+        int[] fieldPositions = compiled.fieldPositions;
+        int year = readField(text, start, fieldPositions, FIELD_YEAR);
+        int month = readField(text, start, fieldPositions, FIELD_MONTH);
+        int day = readField(text, start, fieldPositions, FIELD_DAY);
+        int hour = readField(text, start, fieldPositions, FIELD_HOUR);
+        int minute = readField(text, start, fieldPositions, FIELD_MINUTE);
+        int second = readField(text, start, fieldPositions, FIELD_SECOND);
+        int millis = readField(text, start, fieldPositions, FIELD_MILLIS);
+
+        // Leaves the invalid and out-of-range values to the lenient parsers
+        if (year < MIN_DIRECT_YEAR || year > MAX_DIRECT_YEAR
+                || month < 1 || month > 12
+                || day < 1 || day > 31
+                || hour < 0 || hour > 23
+                || minute < 0 || minute > 59
+                || second < 0 || second > 59
+                || millis < 0) {
+            return NOT_PARSED;
+        }
+
+        long epochDay = getEpochDay(year, month, day);
+        if (epochDay == NOT_PARSED) {
+            return NOT_PARSED;
+        }
+
+        long localSecond = epochDay * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+        return getEpochSecond(compiled, localSecond) * 1000L + millis;
+    }
+
+    private long getEpochDay(int year, int month, int day) {
+        int key = (year * 100 + month) * 100 + day;
+
+        DayCache cache = dayCache;
+        if (cache != null && cache.key == key) {
+            return cache.epochDay;
+        }
+
+        long epochDay;
+        try {
+            epochDay = LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return NOT_PARSED;
+        }
+
+        dayCache = new DayCache(key, epochDay);
+        return epochDay;
+    }
+
+    private long getEpochSecond(Compiled compiled, long localSecond) {
+        OffsetCache cache = offsetCache;
+        if (cache != null && localSecond >= cache.localStart && localSecond < cache.localEnd) {
+            return localSecond - cache.offsetSeconds;
+        }
+
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        // Same as SimpleDateFormat, the later offset is used in overlaps
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(localDateTime, compiled.zone).withLaterOffsetAtOverlap();
+        int offsetSeconds = zonedDateTime.getOffset().getTotalSeconds();
+
+        // Caches the local times between the transitions, excluding the gaps and overlaps
+        ZoneRules rules = compiled.zone.getRules();
+        Instant instant = zonedDateTime.toInstant();
+        ZoneOffsetTransition previous = rules.previousTransition(instant);
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long localStart = previous == null ? Long.MIN_VALUE
+                : Math.max(previous.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC),
+                        previous.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC));
+        long localEnd = next == null ? Long.MAX_VALUE
+                : Math.min(next.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC),
+                        next.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC));
+        if (localSecond >= localStart && localSecond < localEnd) {
+            offsetCache = new OffsetCache(localStart, localEnd, offsetSeconds);
+        }
+
+        // The local times in gaps are shifted forward
+        return zonedDateTime.toEpochSecond();
+    }
+
+    private static int readField(CharSequence text, int start, int[] fieldPositions, int field) {
+        int position = fieldPositions[field];
+        if (position < 0) {
+            return DEFAULT_FIELD_VALUES[field];
+        }
+
+        int width = field == FIELD_YEAR ? 4 : (field == FIELD_MILLIS ? 3 : 2);
+        int value = 0;
+        for (int i = start + position; i < start + position + width; ++i) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    private Compiled getCompiled() {
+        Compiled result = compiled;
+        if (result == null) {
+            result = new Compiled(pattern, simpleDateFormat);
+            compiled = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of the fields if the pattern only consists of
+     * fixed-width fields and non-letter literals, otherwise null.
+     */
+    private static int[] compileFieldPositions(String pattern, boolean[] literals) {
+        int[] fieldPositions = new int[NUM_FIELDS];
+        Arrays.fill(fieldPositions, -1);
+
+        int i = 0;
+        while (i < pattern.length()) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                return null;
+            }
+
+            if (!isPatternLetter(ch)) {
+                literals[i] = true;
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == ch) {
+                count++;
+            }
+
+            int field;
+            if (ch == 'y' && count == 4) {
+                field = FIELD_YEAR;
+            } else if (ch == 'M' && count == 2) {
+                field = FIELD_MONTH;
+            } else if (ch == 'd' && count == 2) {
+                field = FIELD_DAY;
+            } else if (ch == 'H' && count == 2) {
+                field = FIELD_HOUR;
+            } else if (ch == 'm' && count == 2) {
+                field = FIELD_MINUTE;
+            } else if (ch == 's' && count == 2) {
+                field = FIELD_SECOND;
+            } else if (ch == 'S' && count == 3) {
+                field = FIELD_MILLIS;
+            } else {
+                return null;
+            }
+
+            if (fieldPositions[field] >= 0) {
+                return null;
+            }
+
+            fieldPositions[field] = i;
+            i += count;
+        }
+
+        return fieldPositions;
+    }
+
+    /**
+     * Returns true if all the pattern letters have the same meaning in
+     * {@link SimpleDateFormat} and {@link DateTimeFormatter}.
+     */
+    private static boolean isDateTimeFormatterCompatible(String pattern) {
+        boolean quoting = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                quoting = !quoting;
+                i++;
+                continue;
+            }
+
+            if (quoting || !isPatternLetter(ch)) {
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == ch) {
+                count++;
+            }
+
+            switch (ch) {
+                case 'y':
+                    // Two-digit years are resolved differently
+                    if (count == 2) {
+                        return false;
+                    }
+                    break;
+                case 'M':
+                    // Month names may be different
+                    if (count > 2) {
+                        return false;
+                    }
+                    break;
+                case 'd':
+                case 'H':
+                case 'm':
+                case 's':
+                    break;
+                case 'S':
+                    // 'S' is milliseconds in SimpleDateFormat, but fraction in DateTimeFormatter
+                    if (count != 3) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+
+            i += count;
+        }
+
+        return true;
+    }
+
+    private static boolean isPatternLetter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        TemporalFormatter that = (TemporalFormatter) o;
+        return pattern.equals(that.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pattern);
+    }
+
+    @Override
+    public String toString() {
+        return "TemporalFormatter{" + "pattern='" + pattern + '\'' + '}';
+    }
+
+    /**
+     * The compiled pattern, which is not serializable.
+     */
+    private static final class Compiled {
+
+        private final ZoneId zone;
+
+        private final int[] fieldPositions;
+
+        private final boolean[] literals;
+
+        private final DateTimeFormatter dateTimeParser;
+
+        private final DateTimeFormatter dateTimePrinter;
+
+        private final ThreadLocal<SimpleDateFormat> simpleDateFormats;
+
+        private Compiled(String pattern, SimpleDateFormat simpleDateFormat) {
+            TimeZone timeZone = simpleDateFormat.getTimeZone();
+            this.zone = timeZone.toZoneId();
+
+            this.literals = new boolean[pattern.length()];
+            this.fieldPositions = compileFieldPositions(pattern, literals);
+
+            DateTimeFormatter parser = null;
+            DateTimeFormatter printer = null;
+            if (isDateTimeFormatterCompatible(pattern)) {
+                try {
+                    parser = new DateTimeFormatterBuilder()
+                            .appendPattern(pattern)
+                            .parseDefaulting(ChronoField.YEAR_OF_ERA, 1970)
+                            .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                            .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                            .parseDefaulting(ChronoField.NANO_OF_SECOND, 0)
+                            .toFormatter()
+                            .withResolverStyle(ResolverStyle.LENIENT);
+                    printer = DateTimeFormatter.ofPattern(pattern).withZone(zone);
+                } catch (IllegalArgumentException e) {
+                    parser = null;
+                    printer = null;
+                }
+            }
+            this.dateTimeParser = parser;
+            this.dateTimePrinter = printer;
+
+            this.simpleDateFormats = ThreadLocal.withInitial(() -> (SimpleDateFormat) simpleDateFormat.clone());
+        }
+    }
+
+    /**
+     * The epoch day of the last seen date.
+     */
+    private static final class DayCache {
+
+        private final int key;
+
+        private final long epochDay;
+
+        private DayCache(int key, long epochDay) {
+            this.key = key;
+            this.epochDay = epochDay;
+        }
+    }
+
+    /**
+     * The offset of the time zone in the range of local seconds.
+     */
+    private static final class OffsetCache {
+
+        private final long localStart;
+
+        private final long localEnd;
+
+        private final int offsetSeconds;
+
+        private OffsetCache(long localStart, long localEnd, int offsetSeconds) {
+            this.localStart = localStart;
+            this.localEnd = localEnd;
+            this.offsetSeconds = offsetSeconds;
+        }
+    }
+}
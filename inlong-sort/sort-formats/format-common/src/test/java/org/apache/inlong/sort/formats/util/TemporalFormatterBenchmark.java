@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.util;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * Benchmark of parsing timestamps with {@link SimpleDateFormat} and
+ * {@link TemporalFormatter}. Each second has 100 records, like the records of
+ * a batch.
+ *
+ * <p>Usage: TemporalFormatterBenchmark [records] [rounds]</p>
+ */
+public class TemporalFormatterBenchmark {
+
+    private static final int RECORDS_PER_SECOND = 100;
+
+    public static void main(String[] args) throws Exception {
+        int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int numRounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String[] patterns = new String[]{"yyyy-MM-dd HH:mm:ss", "dd/MM/yyyy HH:mm:ss"};
+        for (String pattern : patterns) {
+            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+            String[] texts = new String[numRecords / RECORDS_PER_SECOND];
+            for (int i = 0; i < texts.length; ++i) {
+                texts[i] = simpleDateFormat.format(new java.util.Date(1650000000000L + i * 1000L));
+            }
+
+            TemporalFormatter formatter = new TemporalFormatter(pattern);
+            for (int round = 0; round < numRounds; ++round) {
+                long startTime = System.nanoTime();
+                long checksum = 0;
+                for (int i = 0; i < numRecords; ++i) {
+                    checksum += simpleDateFormat.parse(texts[i / RECORDS_PER_SECOND]).getTime();
+                }
+                report(pattern + ", SimpleDateFormat", startTime, numRecords, checksum);
+
+                startTime = System.nanoTime();
+                checksum = 0;
+                for (int i = 0; i < numRecords; ++i) {
+                    checksum += formatter.parseMillis(texts[i / RECORDS_PER_SECOND]);
+                }
+                report(pattern + ", TemporalFormatter", startTime, numRecords, checksum);
+            }
+        }
+    }
+
+    private static void report(String name, long startTime, int numRecords, long checksum) {
+        long costNanos = Math.max(1L, System.nanoTime() - startTime);
+        System.out.println(name + ": " + (numRecords * 1000000000L / costNanos) + " records/s, "
+                + (costNanos / numRecords) + " ns/record, checksum " + checksum);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TemporalFormatter}.
+ */
+public class TemporalFormatterTest {
+
+    private static final String[] PATTERNS = new String[]{
+            "yyyy-MM-dd HH:mm:ss",
+            "yyyy-MM-dd HH:mm:ss.SSS",
+            "yyyyMMddHHmmss",
+            "yyyy-MM-dd",
+            "HH:mm:ss",
+            "dd/MM/yyyy HH:mm",
+            "yyyy-M-d H:m:s",
+            "yyyy-MM-dd'T'HH:mm:ss",
+            "dd/MM/yyyy hh:mm:ss",
+            "yy-MM-dd"
+    };
+
+    private static final String[] ZONES = new String[]{
+            "America/New_York",
+            "Asia/Shanghai",
+            "Europe/London",
+            "UTC"
+    };
+
+    private TimeZone defaultTimeZone;
+
+    @Before
+    public void setUp() {
+        defaultTimeZone = TimeZone.getDefault();
+        // A time zone with daylight saving time
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @Test
+    public void testConsistentWithSimpleDateFormat() {
+        Random random = new Random(0);
+        for (String zone : ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+
+            for (String pattern : PATTERNS) {
+                SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+                TemporalFormatter formatter = new TemporalFormatter(pattern);
+
+                for (int i = 0; i < 5000; ++i) {
+                    long millis = (random.nextLong() % (200L * 365 * 86400 * 1000)) + 1000L * 86400 * 365 * 50;
+                    String text = simpleDateFormat.format(new java.util.Date(millis));
+                    assertEquals(zone + " " + pattern, text, formatter.format(millis));
+                    assertParsed(simpleDateFormat, formatter, text);
+                    // Out-of-range or malformed values
+                    assertParsed(simpleDateFormat, formatter, mutate(text, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDaylightSavingTime() throws ParseException {
+        String pattern = "yyyy-MM-dd HH:mm:ss";
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+        TemporalFormatter formatter = new TemporalFormatter(pattern);
+
+        String[] texts = new String[]{
+                "2022-03-13 01:59:59",
+                "2022-03-13 02:30:00",
+                "2022-03-13 03:00:00",
+                "2022-11-06 00:59:59",
+                "2022-11-06 01:30:00",
+                "2022-11-06 02:00:00",
+                "2022-11-06 01:30:00",
+                "2022-03-13 01:59:59"
+        };
+        for (String text : texts) {
+            assertEquals(text, simpleDateFormat.parse(text).getTime(), formatter.parseMillis(text));
+        }
+    }
+
+    @Test
+    public void testParseRange() throws ParseException {
+        TemporalFormatter formatter = new TemporalFormatter("yyyy-MM-dd HH:mm:ss");
+        String text = "ts=2020-03-22 11:12:13;";
+
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2020-03-22 11:12:13").getTime(),
+                formatter.parseMillis(text, 3, text.length() - 1));
+    }
+
+    @Test(expected = ParseException.class)
+    public void testUnmatchedText() throws ParseException {
+        new TemporalFormatter("yyyy-MM-dd HH:mm:ss").parseMillis("11:12:13");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() {
+        new TemporalFormatter("MINUTES");
+    }
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        String pattern = "yyyy-MM-dd HH:mm:ss";
+        TemporalFormatter formatter = new TemporalFormatter(pattern);
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+
+        List<String> texts = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; ++i) {
+            long millis = 1600000000000L + random.nextInt(Integer.MAX_VALUE) * 1000L;
+            String text = simpleDateFormat.format(new java.util.Date(millis));
+            texts.add(text);
+            expected.add(simpleDateFormat.parse(text).getTime());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; ++thread) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 100; ++round) {
+                        for (int i = 0; i < texts.size(); ++i) {
+                            try {
+                                assertEquals((long) expected.get(i), formatter.parseMillis(texts.get(i)));
+                            } catch (ParseException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertParsed(SimpleDateFormat simpleDateFormat, TemporalFormatter formatter, String text) {
+        long expected;
+        try {
+            expected = simpleDateFormat.parse(text).getTime();
+        } catch (ParseException e) {
+            try {
+                formatter.parseMillis(text);
+                fail("Expected failure for " + text);
+            } catch (ParseException expectedException) {
+                assertTrue(true);
+            }
+            return;
+        }
+
+        try {
+            assertEquals(simpleDateFormat.toPattern() + ": " + text, expected, formatter.parseMillis(text));
+        } catch (ParseException e) {
+            fail("Unexpected failure for " + text);
+        }
+    }
+
+    private static String mutate(String text, Random random) {
+        char[] chars = text.toCharArray();
+        int index = random.nextInt(chars.length);
+        if (Character.isDigit(chars[index])) {
+            chars[index] = random.nextBoolean() ? '9' : (char) ('a' + random.nextInt(3));
+        } else {
+            chars[index] = '0';
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.csv;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.source.DynamicTableSource.Context;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.utils.DataTypeUtils;
+import org.apache.inlong.sort.formats.base.ProjectableDecodingFormat;
+import org.apache.inlong.sort.formats.base.TableFormatUtils;
+import org.apache.inlong.sort.formats.common.BasicFormatInfo;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+
+/**
+ * Decoding format for the records in csv format, which creates
+ * {@link CsvBytesRowDataDeserializationSchema} decoding the projected fields only.
+ */
+public class CsvDecodingFormat implements ProjectableDecodingFormat {
+
+    @Nonnull
+    private final String charset;
+
+    @Nonnull
+    private final Character delimiter;
+
+    @Nullable
+    private final Character escapeChar;
+
+    @Nullable
+    private final Character quoteChar;
+
+    @Nullable
+    private final String nullLiteral;
+
+    /**
+     * The indices of the projected fields, null if all the fields are decoded.
+     */
+    @Nullable
+    private int[] projectedFields;
+
+    public CsvDecodingFormat(
+            @Nonnull String charset,
+            @Nonnull Character delimiter,
+            @Nullable Character escapeChar,
+            @Nullable Character quoteChar,
+            @Nullable String nullLiteral
+    ) {
+        this.charset = charset;
+        this.delimiter = delimiter;
+        this.escapeChar = escapeChar;
+        this.quoteChar = quoteChar;
+        this.nullLiteral = nullLiteral;
+    }
+
+    @Override
+    public void applyProjection(int[] projectedFields) {
+        this.projectedFields = projectedFields;
+    }
+
+    @Override
+    public DeserializationSchema<RowData> createRuntimeDecoder(Context context, DataType physicalDataType) {
+        RowFormatInfo rowFormatInfo = TableFormatUtils.deriveRowFormatInfo(physicalDataType);
+        for (FormatInfo formatInfo : rowFormatInfo.getFieldFormatInfos()) {
+            if (!(formatInfo instanceof BasicFormatInfo)) {
+                throw new ValidationException("Currently only basic formats " + "are supported in csv formats.");
+            }
+        }
+
+        DataType producedDataType = projectedFields == null
+                ? physicalDataType : DataTypeUtils.projectRow(physicalDataType, projectedFields);
+        TypeInformation<RowData> producedTypeInfo = context.createTypeInformation(producedDataType);
+
+        CsvBytesRowDataDeserializationSchema.Builder builder =
+                new CsvBytesRowDataDeserializationSchema.Builder(rowFormatInfo, producedTypeInfo)
+                        .setProjectedFields(projectedFields)
+                        .setCharset(charset)
+                        .setDelimiter(delimiter)
+                        .setNullLiteral(nullLiteral);
+        if (escapeChar != null) {
+            builder.setEscapeCharacter(escapeChar);
+        }
+        if (quoteChar != null) {
+            builder.setQuoteCharacter(quoteChar);
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public ChangelogMode getChangelogMode() {
+        return ChangelogMode.insertOnly();
+    }
+}
@@ -19,13 +19,21 @@
 package org.apache.inlong.sort.formats.csv;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.flink.api.common.serialization.DeserializationSchema;
 import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.descriptors.DescriptorProperties;
+import org.apache.flink.table.factories.DeserializationFormatFactory;
 import org.apache.flink.table.factories.DeserializationSchemaFactory;
+import org.apache.flink.table.factories.DynamicTableFactory.Context;
+import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.SerializationSchemaFactory;
 import org.apache.flink.table.factories.TableFormatFactoryBase;
 import org.apache.flink.types.Row;
@@ -36,6 +44,7 @@ import org.apache.inlong.sort.formats.base.ProjectedSerializationSchemaFactory;
 import org.apache.inlong.sort.formats.base.TableFormatConstants;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializerFactory;
+import org.apache.inlong.sort.formats.base.TableFormatOptions;
 import org.apache.inlong.sort.formats.base.TableFormatSerializer;
 import org.apache.inlong.sort.formats.base.TableFormatSerializerFactory;
 import org.apache.inlong.sort.formats.base.TableFormatUtils;
@@ -46,6 +55,9 @@ import org.apache.inlong.sort.formats.common.RowFormatInfo;
 /**
  * Table format factory for providing configured instances of CSV-to-row
  * serializer and deserializer.
+ *
+ * <p>It is also the factory of {@link CsvDecodingFormat} for the dynamic
+ * tables, which decodes the records into {@link RowData}.</p>
  */
 public final class CsvFormatFactory
         extends TableFormatFactoryBase<Row>
@@ -55,7 +67,8 @@ public final class CsvFormatFactory
                 ProjectedDeserializationSchemaFactory,
                 ProjectedSerializationSchemaFactory,
                 TableFormatDeserializerFactory,
-                TableFormatSerializerFactory {
+                TableFormatSerializerFactory,
+                DeserializationFormatFactory {
 
     public CsvFormatFactory() {
         super(Csv.FORMAT_TYPE_VALUE, 1, true);
@@ -174,6 +187,43 @@ public final class CsvFormatFactory
         return new DefaultTableFormatSerializer(serializationSchema, ignoreErrors);
     }
 
+    @Override
+    public CsvDecodingFormat createDecodingFormat(
+            Context context,
+            ReadableConfig formatOptions
+    ) {
+        FactoryUtil.validateFactoryOptions(this, formatOptions);
+
+        return new CsvDecodingFormat(
+                formatOptions.get(TableFormatOptions.CHARSET),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.DELIMITER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.ESCAPE_CHARACTER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.QUOTE_CHARACTER),
+                formatOptions.getOptional(TableFormatOptions.NULL_LITERAL).orElse(null)
+        );
+    }
+
+    @Override
+    public String factoryIdentifier() {
+        return Csv.FORMAT_TYPE_VALUE;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return new HashSet<>();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        Set<ConfigOption<?>> options = new HashSet<>();
+        options.add(TableFormatOptions.CHARSET);
+        options.add(TableFormatOptions.DELIMITER);
+        options.add(TableFormatOptions.ESCAPE_CHARACTER);
+        options.add(TableFormatOptions.QUOTE_CHARACTER);
+        options.add(TableFormatOptions.NULL_LITERAL);
+        return options;
+    }
+
     public static DescriptorProperties getValidatedProperties(
             Map<String, String> properties
     ) {
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.types.Row;
+import org.apache.inlong.sort.formats.common.BasicFormatInfo;
+import org.apache.inlong.sort.formats.common.BooleanFormatInfo;
+import org.apache.inlong.sort.formats.common.ByteFormatInfo;
+import org.apache.inlong.sort.formats.common.DateFormatInfo;
+import org.apache.inlong.sort.formats.common.DecimalFormatInfo;
+import org.apache.inlong.sort.formats.common.DoubleFormatInfo;
+import org.apache.inlong.sort.formats.common.FloatFormatInfo;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.IntFormatInfo;
+import org.apache.inlong.sort.formats.common.LongFormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.common.ShortFormatInfo;
+import org.apache.inlong.sort.formats.common.StringFormatInfo;
+import org.apache.inlong.sort.formats.common.TimeFormatInfo;
+import org.apache.inlong.sort.formats.common.TimestampFormatInfo;
+import org.apache.inlong.sort.formats.common.VarCharFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CsvBytesRowDataDeserializationSchema}.
+ */
+public class CsvRowDataDeserializationSchemaTest {
+
+    private static final TypeInformation<RowData> PRODUCED_TYPE_INFO = TypeInformation.of(RowData.class);
+
+    private static final RowFormatInfo TEST_ROW_INFO =
+            new RowFormatInfo(
+                    new String[]{"f1", "f2", "f3", "f4"},
+                    new FormatInfo[]{
+                            IntFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE
+                    }
+            );
+
+    @Test
+    public void testNormal() {
+
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config = builder -> {
+        };
+
+        testBasicDeserialization(config, StringFormatInfo.INSTANCE, StringData.fromString("hello"), " hello ");
+        testBasicDeserialization(config, VarCharFormatInfo.INSTANCE, StringData.fromString("hello"), "hello");
+        testBasicDeserialization(config, BooleanFormatInfo.INSTANCE, true, "TRUE");
+        testBasicDeserialization(config, BooleanFormatInfo.INSTANCE, false, "yes");
+        testBasicDeserialization(config, ByteFormatInfo.INSTANCE, (byte) -128, "-128");
+        testBasicDeserialization(config, ShortFormatInfo.INSTANCE, (short) 10000, "+10000");
+        testBasicDeserialization(config, IntFormatInfo.INSTANCE, 1234567, " 1234567 ");
+        testBasicDeserialization(config, IntFormatInfo.INSTANCE, Integer.MIN_VALUE, "-2147483648");
+        testBasicDeserialization(config, LongFormatInfo.INSTANCE, Long.MAX_VALUE, "9223372036854775807");
+        testBasicDeserialization(config, FloatFormatInfo.INSTANCE, 0.33333334f, "0.33333334");
+        testBasicDeserialization(config, DoubleFormatInfo.INSTANCE, 0.33333333332, "0.33333333332");
+        testBasicDeserialization(config, new DecimalFormatInfo(10, 3),
+                DecimalData.fromBigDecimal(new BigDecimal("1234.567"), 10, 3), "1234.567");
+        testBasicDeserialization(config, new DateFormatInfo("dd/MM/yyyy"), 18343, "22/03/2020");
+        testBasicDeserialization(config, new TimeFormatInfo("ss/mm/hh"), 40333000, "13/12/11");
+        testBasicDeserialization(config, new TimestampFormatInfo("dd/MM/yyyy hh:mm:ss"),
+                TimestampData.fromTimestamp(Timestamp.valueOf("2020-03-22 11:12:13")), "22/03/2020 11:12:13");
+    }
+
+    @Test
+    public void testEmptyText() {
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config = builder -> {
+        };
+
+        testBasicDeserialization(config, StringFormatInfo.INSTANCE, StringData.fromString(""), "");
+        testBasicDeserialization(config, VarCharFormatInfo.INSTANCE, null, "");
+        testBasicDeserialization(config, IntFormatInfo.INSTANCE, null, "");
+    }
+
+    @Test
+    public void testNullLiteral() {
+        String nullLiteral = "n/a";
+
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config =
+                builder -> builder.setNullLiteral(nullLiteral);
+
+        testBasicDeserialization(config, StringFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, StringFormatInfo.INSTANCE, StringData.fromString(""), "");
+        testBasicDeserialization(config, BooleanFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, IntFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, LongFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, DoubleFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, DecimalFormatInfo.INSTANCE, null, nullLiteral);
+        testBasicDeserialization(config, new DateFormatInfo("dd/MM/yyyy"), null, nullLiteral);
+        testBasicDeserialization(config, new TimestampFormatInfo("dd/MM/yyyy hh:mm:ss"), null, nullLiteral);
+    }
+
+    @Test
+    public void testIllegalNumbers() {
+        testIllegalNumber(ByteFormatInfo.INSTANCE, "128");
+        testIllegalNumber(ShortFormatInfo.INSTANCE, "-32769");
+        testIllegalNumber(IntFormatInfo.INSTANCE, "2147483648");
+        testIllegalNumber(LongFormatInfo.INSTANCE, "9223372036854775808");
+        testIllegalNumber(IntFormatInfo.INSTANCE, "12a");
+        testIllegalNumber(IntFormatInfo.INSTANCE, "-");
+        testIllegalNumber(IntFormatInfo.INSTANCE, "1 2");
+    }
+
+    @Test
+    public void testEscapeAndQuote() {
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config =
+                builder -> builder.setEscapeCharacter('\\').setQuoteCharacter('\"');
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("field1,field2"),
+                        StringData.fromString("field3"), StringData.fromString("field4")),
+                "10,field1\\,field2,field3,field4".getBytes(StandardCharsets.UTF_8)
+        );
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("field1,field2"),
+                        StringData.fromString("field3\\"), StringData.fromString("field4")),
+                "10,\"field1,field2\",field3\\\\,field4".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testProjection() {
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config =
+                builder -> builder.setProjectedFields(new int[]{2, 0});
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(StringData.fromString("field2"), 10),
+                "10,field1,field2,field3".getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Only the fields before the projected ones are tokenized
+        testRowDeserialization(
+                config,
+                GenericRowData.of(StringData.fromString("field2"), 10),
+                "10,field1,field2,\"unclosed".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testMissingFields() {
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config = builder -> {
+        };
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("field1"), null, null),
+                "10,field1".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testCharset() {
+        Consumer<CsvBytesRowDataDeserializationSchema.Builder> config =
+                builder -> builder.setCharset("ISO-8859-1");
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("café1"),
+                        StringData.fromString("café2"), StringData.fromString("café3")),
+                "10,café1,café2,café3".getBytes(Charset.forName("ISO-8859-1"))
+        );
+    }
+
+    @Test
+    public void testConsistentWithCsvDeserializationSchema() throws Exception {
+        char[] alphabet = new char[]{'a', '1', ',', '\\', '\"', ' ', 'é'};
+        Random random = new Random(0);
+
+        CsvDeserializationSchema expectedSchema =
+                new CsvDeserializationSchema.Builder(TEST_ROW_INFO)
+                        .setEscapeCharacter('\\')
+                        .setQuoteCharacter('\"')
+                        .build();
+        CsvBytesRowDataDeserializationSchema actualSchema =
+                new CsvBytesRowDataDeserializationSchema.Builder(TEST_ROW_INFO, PRODUCED_TYPE_INFO)
+                        .setProjectedFields(new int[]{1, 2, 3})
+                        .setEscapeCharacter('\\')
+                        .setQuoteCharacter('\"')
+                        .build();
+
+        for (int i = 0; i < 10000; ++i) {
+            StringBuilder text = new StringBuilder("1,");
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; ++j) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            Row expectedRow;
+            try {
+                expectedRow = expectedSchema.deserialize(bytes);
+            } catch (IllegalArgumentException e) {
+                // The text after the projected fields is not checked
+                continue;
+            }
+
+            RowData actualRow = actualSchema.deserialize(bytes);
+            for (int field = 0; field < 3; ++field) {
+                Object expectedField = expectedRow.getField(field + 1);
+                if (expectedField == null) {
+                    assertNull(text.toString(), actualRow.getString(field));
+                } else {
+                    assertEquals(text.toString(), expectedField, actualRow.getString(field).toString());
+                }
+            }
+        }
+    }
+
+    private void testIllegalNumber(BasicFormatInfo<?> formatInfo, String text) {
+        try {
+            testBasicDeserialization(builder -> {
+            }, formatInfo, null, text);
+            fail("Expected failure for " + text);
+        } catch (RuntimeException e) {
+            assertEquals(NumberFormatException.class, e.getCause().getClass());
+        }
+    }
+
+    private static <T> void testBasicDeserialization(
+            Consumer<CsvBytesRowDataDeserializationSchema.Builder> config,
+            BasicFormatInfo<T> basicFormatInfo,
+            Object expectedRecord,
+            String text
+    ) {
+        RowFormatInfo rowFormatInfo =
+                new RowFormatInfo(
+                        new String[]{"f"},
+                        new FormatInfo[]{basicFormatInfo}
+                );
+
+        CsvBytesRowDataDeserializationSchema.Builder builder =
+                new CsvBytesRowDataDeserializationSchema.Builder(rowFormatInfo, PRODUCED_TYPE_INFO);
+        config.accept(builder);
+
+        CsvBytesRowDataDeserializationSchema deserializer = builder.build();
+
+        RowData row = deserializer.deserialize(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, row.getArity());
+        assertEquals(expectedRecord, ((GenericRowData) row).getField(0));
+    }
+
+    private static void testRowDeserialization(
+            Consumer<CsvBytesRowDataDeserializationSchema.Builder> config,
+            RowData expectedRow,
+            byte[] bytes
+    ) {
+        CsvBytesRowDataDeserializationSchema.Builder builder =
+                new CsvBytesRowDataDeserializationSchema.Builder(TEST_ROW_INFO, PRODUCED_TYPE_INFO);
+        config.accept(builder);
+
+        CsvBytesRowDataDeserializationSchema deserializer = builder.build();
+
+        RowData row = deserializer.deserialize(bytes);
+        assertEquals(expectedRow, row);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.csv;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.RowData;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.IntFormatInfo;
+import org.apache.inlong.sort.formats.common.LongFormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.common.StringFormatInfo;
+
+/**
+ * Benchmark of the csv deserializers, which compares {@link CsvDeserializationSchema}
+ * with {@link CsvBytesRowDataDeserializationSchema} decoding all the fields and only
+ * the projected fields of a 20 fields record.
+ *
+ * <p>Usage: CsvDeserializationBenchmark [records] [rounds]</p>
+ */
+public class CsvDeserializationBenchmark {
+
+    private static final int NUM_FIELDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int numRounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String[] fieldNames = new String[NUM_FIELDS];
+        FormatInfo[] fieldFormatInfos = new FormatInfo[NUM_FIELDS];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < NUM_FIELDS; ++i) {
+            fieldNames[i] = "f" + i;
+            if (i > 0) {
+                text.append(',');
+            }
+            switch (i % 3) {
+                case 0:
+                    fieldFormatInfos[i] = IntFormatInfo.INSTANCE;
+                    text.append(123456 + i);
+                    break;
+                case 1:
+                    fieldFormatInfos[i] = LongFormatInfo.INSTANCE;
+                    text.append(1650000000000L + i);
+                    break;
+                default:
+                    fieldFormatInfos[i] = StringFormatInfo.INSTANCE;
+                    text.append("string-value-").append(i);
+                    break;
+            }
+        }
+        RowFormatInfo rowFormatInfo = new RowFormatInfo(fieldNames, fieldFormatInfos);
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        TypeInformation<RowData> producedTypeInfo = TypeInformation.of(RowData.class);
+        CsvDeserializationSchema rowSchema = new CsvDeserializationSchema(rowFormatInfo);
+        CsvBytesRowDataDeserializationSchema rowDataSchema =
+                new CsvBytesRowDataDeserializationSchema.Builder(rowFormatInfo, producedTypeInfo).build();
+        CsvBytesRowDataDeserializationSchema projectedSchema =
+                new CsvBytesRowDataDeserializationSchema.Builder(rowFormatInfo, producedTypeInfo)
+                        .setProjectedFields(new int[]{1, 5})
+                        .build();
+
+        for (int round = 0; round < numRounds; ++round) {
+            run("Row, all fields", rowSchema, bytes, numRecords);
+            run("RowData, all fields", rowDataSchema, bytes, numRecords);
+            run("RowData, 2 projected fields", projectedSchema, bytes, numRecords);
+        }
+    }
+
+    private static void run(
+            String name,
+            DeserializationSchema<?> schema,
+            byte[] bytes,
+            int numRecords
+    ) throws Exception {
+        long startTime = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < numRecords; ++i) {
+            checksum += schema.deserialize(bytes).hashCode() & 1;
+        }
+        long costNanos = Math.max(1L, System.nanoTime() - startTime);
+        System.out.println(name + ": " + (numRecords * 1000000000L / costNanos) + " records/s, "
+                + (costNanos / numRecords) + " ns/record, checksum " + checksum);
+    }
+}
@@ -18,13 +18,13 @@
 
 package org.apache.inlong.sort.formats.inlongmsg;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import org.apache.flink.types.Row;
 import org.apache.flink.util.Collector;
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgReader;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +44,11 @@ public abstract class AbstractInLongMsgFormatDeserializer implements TableFormat
     @Nonnull
     protected final Boolean ignoreErrors;
 
+    /**
+     * The reader of the inlongmsg, created lazily as it is not serializable.
+     */
+    private transient InLongMsgReader reader;
+
     public AbstractInLongMsgFormatDeserializer(@Nonnull Boolean ignoreErrors) {
         this.ignoreErrors = ignoreErrors;
     }
@@ -68,61 +73,75 @@ public abstract class AbstractInLongMsgFormatDeserializer implements TableFormat
             byte[] bytes,
             Collector<Row> collector
     ) throws Exception {
-        InLongMsg inLongMsg = InLongMsg.parseFrom(bytes);
+        if (reader == null) {
+            reader = new InLongMsgReader();
+        }
+        if (!reader.reset(bytes)) {
+            if (ignoreErrors) {
+                LOG.warn("Cannot properly parse the inlongmsg {}.", Arrays.toString(bytes));
+                return;
+            } else {
+                throw new IllegalArgumentException("Invalid inlongmsg " + Arrays.toString(bytes) + ".");
+            }
+        }
 
-        for (String attr : inLongMsg.getAttrs()) {
-            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
-            if (iterator == null) {
+        // the messages of the same attribute are usually adjacent, the head is parsed once for them
+        String lastAttr = null;
+        InLongMsgHead head = null;
+        while (reader.nextMessage()) {
+
+            String attr = reader.getAttr();
+            if (!attr.equals(lastAttr)) {
+                lastAttr = attr;
+                try {
+                    head = parseHead(attr);
+                } catch (Exception e) {
+                    if (ignoreErrors) {
+                        LOG.warn("Cannot properly parse the head {}.", attr, e);
+                        head = null;
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            if (head == null) {
+                continue;
+            }
+
+            ByteBuffer message = reader.getMessage();
+            if (message.remaining() == 0) {
                 continue;
             }
+            byte[] bodyBytes = new byte[message.remaining()];
+            message.get(bodyBytes);
 
-            InLongMsgHead head;
+            InLongMsgBody body;
             try {
-                head = parseHead(attr);
+                body = parseBody(bodyBytes);
             } catch (Exception e) {
                 if (ignoreErrors) {
-                    LOG.warn("Cannot properly parse the head {}.", attr, e);
+                    LOG.warn("Cannot properly parse the body {}.",
+                            Arrays.toString(bodyBytes), e);
                     continue;
                 } else {
                     throw e;
                 }
             }
 
-            while (iterator.hasNext()) {
-
-                byte[] bodyBytes = iterator.next();
-                if (bodyBytes == null || bodyBytes.length == 0) {
+            Row row;
+            try {
+                row = convertRow(head, body);
+            } catch (Exception e) {
+                if (ignoreErrors) {
+                    LOG.warn("Cannot properly convert the inlongmsg ({}, {}) " + "to row.", head, body, e);
                     continue;
+                } else {
+                    throw e;
                 }
+            }
 
-                InLongMsgBody body;
-                try {
-                    body = parseBody(bodyBytes);
-                } catch (Exception e) {
-                    if (ignoreErrors) {
-                        LOG.warn("Cannot properly parse the body {}.",
-                                Arrays.toString(bodyBytes), e);
-                        continue;
-                    } else {
-                        throw e;
-                    }
-                }
-
-                Row row;
-                try {
-                    row = convertRow(head, body);
-                } catch (Exception e) {
-                    if (ignoreErrors) {
-                        LOG.warn("Cannot properly convert the inlongmsg ({}, {}) " + "to row.", head, body, e);
-                        continue;
-                    } else {
-                        throw e;
-                    }
-                }
-
-                if (row != null) {
-                    collector.collect(row);
-                }
+            if (row != null) {
+                collector.collect(row);
             }
         }
     }
@@ -29,6 +29,8 @@ import org.apache.flink.table.data.StringData;
 import org.apache.flink.table.data.TimestampData;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.utils.DataTypeUtils;
+import org.apache.inlong.sort.formats.base.ProjectableDecodingFormat;
+import org.apache.inlong.sort.formats.base.ProjectedRowDataDeserializationSchema;
 import org.apache.inlong.sort.formats.inlongmsg.InLongMsgDeserializationSchema.MetadataConverter;
 
 import java.util.ArrayList;
@@ -40,7 +42,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public class InLongMsgDecodingFormat implements DecodingFormat<DeserializationSchema<RowData>> {
+public class InLongMsgDecodingFormat implements ProjectableDecodingFormat {
 
     private final String innerFormatMetaPrefix;
 
@@ -50,6 +52,8 @@ public class InLongMsgDecodingFormat implements DecodingFormat<DeserializationSc
 
     private final boolean ignoreErrors;
 
+    private int[] projectedFields;
+
     public InLongMsgDecodingFormat(
             DecodingFormat<DeserializationSchema<RowData>> innerDecodingFormat,
             String innerFormatMetaPrefix,
@@ -60,6 +64,18 @@ public class InLongMsgDecodingFormat implements DecodingFormat<DeserializationSc
         this.ignoreErrors = ignoreErrors;
     }
 
+    /**
+     * Pushes the projection into the inner format if it is a {@link ProjectableDecodingFormat},
+     * otherwise the inner format decodes all the fields and the projected ones are picked after.
+     */
+    @Override
+    public void applyProjection(int[] projectedFields) {
+        if (innerDecodingFormat instanceof ProjectableDecodingFormat) {
+            ((ProjectableDecodingFormat) innerDecodingFormat).applyProjection(projectedFields);
+        }
+        this.projectedFields = projectedFields;
+    }
+
     @Override
     public DeserializationSchema<RowData> createRuntimeDecoder(Context context, DataType physicalDataType) {
         final MetadataConverter[] metadataConverters = Arrays.stream(ReadableMetadata.values())
@@ -79,13 +95,22 @@ public class InLongMsgDecodingFormat implements DecodingFormat<DeserializationSc
                 readableMetadata.stream()
                         .map(m -> DataTypes.FIELD(m.key, m.dataType))
                         .collect(Collectors.toList());
+        final DataType projectedDataType = projectedFields == null
+                ? physicalDataType : DataTypeUtils.projectRow(physicalDataType, projectedFields);
         final DataType producedDataType =
-                DataTypeUtils.appendRowFields(physicalDataType, metadataFields);
+                DataTypeUtils.appendRowFields(projectedDataType, metadataFields);
         final TypeInformation<RowData> producedTypeInfo =
                 context.createTypeInformation(producedDataType);
 
+        DeserializationSchema<RowData> innerDecoder =
+                innerDecodingFormat.createRuntimeDecoder(context, physicalDataType);
+        if (projectedFields != null && !(innerDecodingFormat instanceof ProjectableDecodingFormat)) {
+            innerDecoder = new ProjectedRowDataDeserializationSchema(innerDecoder, physicalDataType,
+                    projectedFields, context.createTypeInformation(projectedDataType));
+        }
+
         return new InLongMsgDeserializationSchema(
-                innerDecodingFormat.createRuntimeDecoder(context, physicalDataType),
+                innerDecoder,
                 metadataConverters,
                 producedTypeInfo,
                 ignoreErrors);
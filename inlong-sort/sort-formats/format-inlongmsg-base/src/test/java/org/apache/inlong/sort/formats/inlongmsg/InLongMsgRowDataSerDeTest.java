@@ -32,6 +32,7 @@ import org.apache.flink.table.data.binary.BinaryStringData;
 import org.apache.flink.table.factories.utils.FactoryMocks;
 import org.apache.flink.table.runtime.connector.source.ScanRuntimeProviderContext;
 import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.sort.formats.base.ProjectableDecodingFormat;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -176,4 +177,39 @@ public class InLongMsgRowDataSerDeTest {
 
         assertEquals(exceptedOutput, deData);
     }
+
+    @Test
+    public void testDeserializeInLongMsgWithProjection() throws Exception {
+        InLongMsg inLongMsg = InLongMsg.newInLongMsg();
+        inLongMsg.addMsg("streamId=HAHA&t=202201011112",
+                "1,asdqw".getBytes(StandardCharsets.UTF_8));
+        inLongMsg.addMsg("streamId=xixi&t=202201011112",
+                "2,testData".getBytes(StandardCharsets.UTF_8));
+        final List<RowData> exceptedOutput = Stream.of(
+                GenericRowData.of(BinaryStringData.fromString("asdqw")),
+                GenericRowData.of(BinaryStringData.fromString("testData"))
+        ).collect(Collectors.toList());
+
+        // deserialize
+        final Map<String, String> tableOptions = new HashMap<>();
+        tableOptions.put("inner.format", "csv");
+        ResolvedSchema schema = ResolvedSchema.of(
+                Column.physical("id", DataTypes.BIGINT()),
+                Column.physical("name", DataTypes.STRING())
+        );
+
+        // apply projection, the inner csv format decodes all the fields
+        InLongMsgFormatFactory factory = new InLongMsgFormatFactory();
+        DecodingFormat<DeserializationSchema<RowData>> decodingFormat = factory.createDecodingFormat(FactoryMocks
+                        .createTableContext(schema, tableOptions), Configuration.fromMap(tableOptions));
+        ((ProjectableDecodingFormat) decodingFormat).applyProjection(new int[]{1});
+        DeserializationSchema<RowData> inLongMsgDeserializationSchema = decodingFormat
+                .createRuntimeDecoder(ScanRuntimeProviderContext.INSTANCE, schema.toPhysicalRowDataType());
+
+        List<RowData> deData = new ArrayList<>();
+        ListCollector<RowData> out = new ListCollector<>(deData);
+        inLongMsgDeserializationSchema.deserialize(inLongMsg.buildArray(), out);
+
+        assertEquals(exceptedOutput, deData);
+    }
 }
@@ -31,17 +31,27 @@ import static org.apache.inlong.sort.formats.inlongmsg.InLongMsgUtils.FORMAT_ATT
 import static org.apache.inlong.sort.formats.inlongmsg.InLongMsgUtils.FORMAT_TIME_FIELD_NAME;
 import static org.apache.inlong.sort.formats.inlongmsg.InLongMsgUtils.getDataFormatInfo;
 import static org.apache.inlong.sort.formats.inlongmsg.InLongMsgUtils.validateFieldNames;
+import static org.apache.inlong.sort.formats.inlongmsgcsv.InLongMsgCsvUtils.DELETE_HEAD_DELIMITER;
 import static org.apache.inlong.sort.formats.inlongmsgcsv.InLongMsgCsvUtils.FORMAT_DELETE_HEAD_DELIMITER;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.descriptors.DescriptorProperties;
+import org.apache.flink.table.factories.DeserializationFormatFactory;
+import org.apache.flink.table.factories.DynamicTableFactory.Context;
+import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.TableFormatFactoryBase;
 import org.apache.flink.types.Row;
 import org.apache.inlong.sort.formats.base.TableFormatConstants;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializerFactory;
+import org.apache.inlong.sort.formats.base.TableFormatOptions;
 import org.apache.inlong.sort.formats.common.RowFormatInfo;
 import org.apache.inlong.sort.formats.inlongmsg.InLongMsgMixedFormatFactory;
 import org.apache.inlong.sort.formats.inlongmsg.InLongMsgMixedValidator;
@@ -51,10 +61,13 @@ import org.apache.inlong.sort.formats.inlongmsg.InLongMsgValidator;
 /**
  * Table format factory for providing configured instances of InLongMsgCsv-to-row
  * serializer and deserializer.
+ *
+ * <p>It is also the factory of {@link InLongMsgCsvDecodingFormat}, which decodes
+ * the csv bodies into {@link RowData} as the inner format of the inlong-msg format.</p>
  */
 public final class InLongMsgCsvFormatFactory
         extends TableFormatFactoryBase<Row>
-        implements TableFormatDeserializerFactory, InLongMsgMixedFormatFactory {
+        implements TableFormatDeserializerFactory, InLongMsgMixedFormatFactory, DeserializationFormatFactory {
 
     public InLongMsgCsvFormatFactory() {
         super(InLongMsgCsv.FORMAT_TYPE_VALUE, 1, true);
@@ -143,6 +156,45 @@ public final class InLongMsgCsvFormatFactory
         );
     }
 
+    @Override
+    public InLongMsgCsvDecodingFormat createDecodingFormat(
+            Context context,
+            ReadableConfig formatOptions
+    ) {
+        FactoryUtil.validateFactoryOptions(this, formatOptions);
+
+        return new InLongMsgCsvDecodingFormat(
+                formatOptions.get(TableFormatOptions.CHARSET),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.DELIMITER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.ESCAPE_CHARACTER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.QUOTE_CHARACTER),
+                formatOptions.getOptional(TableFormatOptions.NULL_LITERAL).orElse(null),
+                formatOptions.get(DELETE_HEAD_DELIMITER)
+        );
+    }
+
+    @Override
+    public String factoryIdentifier() {
+        return InLongMsgCsv.FORMAT_TYPE_VALUE;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return new HashSet<>();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        Set<ConfigOption<?>> options = new HashSet<>();
+        options.add(TableFormatOptions.CHARSET);
+        options.add(TableFormatOptions.DELIMITER);
+        options.add(TableFormatOptions.ESCAPE_CHARACTER);
+        options.add(TableFormatOptions.QUOTE_CHARACTER);
+        options.add(TableFormatOptions.NULL_LITERAL);
+        options.add(DELETE_HEAD_DELIMITER);
+        return options;
+    }
+
     @Override
     public InLongMsgCsvMixedFormatDeserializer createMixedFormatDeserializer(
             Map<String, String> properties
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.inlongmsgcsv;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.inlong.sort.formats.base.RowDataFieldDecoder;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.util.ByteTokenizer;
+
+/**
+ * The deserializer for the csv bodies of InLongMsg, which produces
+ * {@link RowData}. It can be used as the inner deserializer of
+ * {@code InLongMsgDeserializationSchema}.
+ *
+ * <p>Different from {@link InLongMsgCsvUtils#parseBody}, the body is tokenized
+ * over the bytes directly, and only the projected fields are decoded. The
+ * fields of the produced row are the projected fields in the given order.</p>
+ *
+ * <p>The delimiter, escape and quote characters must be ASCII characters. The
+ * body in charsets other than UTF-8 and US-ASCII is transcoded to UTF-8 first.</p>
+ */
+public final class InLongMsgCsvRowDataDeserializationSchema implements DeserializationSchema<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Format information describing all the fields in the body.
+     */
+    @Nonnull
+    private final RowFormatInfo rowFormatInfo;
+
+    /**
+     * The indices of the fields to be decoded.
+     */
+    @Nonnull
+    private final int[] projectedFields;
+
+    /**
+     * Type information of the produced rows.
+     */
+    @Nonnull
+    private final TypeInformation<RowData> producedTypeInfo;
+
+    /**
+     * The charset of the text.
+     */
+    @Nonnull
+    private final String charset;
+
+    /**
+     * The delimiter between fields.
+     */
+    @Nonnull
+    private final Character delimiter;
+
+    /**
+     * Escape character. Null if escaping is disabled.
+     */
+    @Nullable
+    private final Character escapeChar;
+
+    /**
+     * Quote character. Null if quoting is disabled.
+     */
+    @Nullable
+    private final Character quoteChar;
+
+    /**
+     * The literal represented null values, default "".
+     */
+    @Nullable
+    private final String nullLiteral;
+
+    /**
+     * True if the head delimiter should be removed.
+     */
+    private final boolean deleteHeadDelimiter;
+
+    private final RowDataFieldDecoder[] fieldDecoders;
+
+    /**
+     * The number of fields to be tokenized, i.e. the maximum projected index plus one.
+     */
+    private final int numTokenizedFields;
+
+    private transient ByteTokenizer tokenizer;
+
+    private transient Charset textCharset;
+
+    public InLongMsgCsvRowDataDeserializationSchema(
+            @Nonnull RowFormatInfo rowFormatInfo,
+            @Nonnull int[] projectedFields,
+            @Nonnull TypeInformation<RowData> producedTypeInfo,
+            @Nonnull String charset,
+            @Nonnull Character delimiter,
+            @Nullable Character escapeChar,
+            @Nullable Character quoteChar,
+            @Nullable String nullLiteral,
+            boolean deleteHeadDelimiter
+    ) {
+        this.rowFormatInfo = rowFormatInfo;
+        this.projectedFields = projectedFields;
+        this.producedTypeInfo = producedTypeInfo;
+        this.charset = charset;
+        this.delimiter = delimiter;
+        this.escapeChar = escapeChar;
+        this.quoteChar = quoteChar;
+        this.nullLiteral = nullLiteral;
+        this.deleteHeadDelimiter = deleteHeadDelimiter;
+
+        // Checks the characters can be matched against single bytes
+        ByteTokenizer.toByte(delimiter);
+        ByteTokenizer.toByte(escapeChar);
+        ByteTokenizer.toByte(quoteChar);
+
+        String[] fieldNames = rowFormatInfo.getFieldNames();
+        FormatInfo[] fieldFormatInfos = rowFormatInfo.getFieldFormatInfos();
+
+        this.fieldDecoders = new RowDataFieldDecoder[projectedFields.length];
+        int maxProjectedField = -1;
+        for (int i = 0; i < projectedFields.length; ++i) {
+            int field = projectedFields[i];
+            checkArgument(field >= 0 && field < fieldNames.length,
+                    "The projected field " + field + " is out of range.");
+
+            fieldDecoders[i] = new RowDataFieldDecoder(fieldNames[field], fieldFormatInfos[field], nullLiteral);
+            maxProjectedField = Math.max(maxProjectedField, field);
+        }
+        this.numTokenizedFields = maxProjectedField + 1;
+    }
+
+    @Override
+    public TypeInformation<RowData> getProducedType() {
+        return producedTypeInfo;
+    }
+
+    @Override
+    public boolean isEndOfStream(RowData t) {
+        return false;
+    }
+
+    @Override
+    public RowData deserialize(byte[] bytes) {
+        if (tokenizer == null) {
+            tokenizer = new ByteTokenizer();
+            textCharset = Charset.forName(charset);
+        }
+
+        if (!StandardCharsets.UTF_8.equals(textCharset) && !StandardCharsets.US_ASCII.equals(textCharset)) {
+            bytes = new String(bytes, textCharset).getBytes(StandardCharsets.UTF_8);
+        }
+
+        int offset = 0;
+        if (deleteHeadDelimiter && bytes.length > 0 && bytes[0] == delimiter) {
+            offset = 1;
+        }
+
+        int escape = ByteTokenizer.toByte(escapeChar);
+        int quote = ByteTokenizer.toByte(quoteChar);
+
+        int numFields = tokenizer.splitCsv(bytes, offset, bytes.length - offset, delimiter, escape, quote,
+                numTokenizedFields);
+
+        GenericRowData row = new GenericRowData(projectedFields.length);
+        for (int i = 0; i < projectedFields.length; ++i) {
+            int field = projectedFields[i];
+            if (field >= numFields) {
+                continue;
+            }
+
+            int start = tokenizer.getTokenStart(field);
+            int end = tokenizer.getTokenEnd(field);
+            if (tokenizer.isTokenEscaped(field)) {
+                byte[] fieldBytes = ByteTokenizer.unescape(bytes, start, end, delimiter,
+                        ByteTokenizer.NONE, escape, quote);
+                row.setField(i, fieldDecoders[i].decode(fieldBytes, 0, fieldBytes.length));
+            } else {
+                row.setField(i, fieldDecoders[i].decode(bytes, start, end));
+            }
+        }
+
+        return row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        InLongMsgCsvRowDataDeserializationSchema that = (InLongMsgCsvRowDataDeserializationSchema) o;
+        return deleteHeadDelimiter == that.deleteHeadDelimiter
+                       && rowFormatInfo.equals(that.rowFormatInfo)
+                       && Arrays.equals(projectedFields, that.projectedFields)
+                       && producedTypeInfo.equals(that.producedTypeInfo)
+                       && Objects.equals(charset, that.charset)
+                       && Objects.equals(delimiter, that.delimiter)
+                       && Objects.equals(escapeChar, that.escapeChar)
+                       && Objects.equals(quoteChar, that.quoteChar)
+                       && Objects.equals(nullLiteral, that.nullLiteral);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rowFormatInfo, Arrays.hashCode(projectedFields), producedTypeInfo,
+                charset, delimiter, escapeChar, quoteChar, nullLiteral, deleteHeadDelimiter);
+    }
+}
@@ -24,6 +24,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.types.Row;
 import org.apache.inlong.sort.formats.base.TableFormatUtils;
 import org.apache.inlong.sort.formats.common.FormatInfo;
@@ -44,6 +46,12 @@ public class InLongMsgCsvUtils {
     public static final String FORMAT_DELETE_HEAD_DELIMITER = "format.delete-head-delimiter";
     public static final boolean DEFAULT_DELETE_HEAD_DELIMITER = true;
 
+    public static final ConfigOption<Boolean> DELETE_HEAD_DELIMITER =
+            ConfigOptions.key("delete-head-delimiter")
+                    .booleanType()
+                    .defaultValue(DEFAULT_DELETE_HEAD_DELIMITER)
+                    .withDescription("True if the head delimiter of the body should be removed.");
+
     public static InLongMsgBody parseBody(
             byte[] bytes,
             String charset,
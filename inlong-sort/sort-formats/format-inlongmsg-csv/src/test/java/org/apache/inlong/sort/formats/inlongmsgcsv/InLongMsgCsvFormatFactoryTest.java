@@ -24,10 +24,18 @@ import static org.junit.Assert.assertNotNull;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.api.Types;
+import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
 import org.apache.flink.table.descriptors.Schema;
+import org.apache.flink.table.types.DataType;
 import org.apache.flink.types.Row;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 import org.apache.inlong.sort.formats.base.TableFormatUtils;
@@ -124,4 +132,42 @@ public class InLongMsgCsvFormatFactoryTest {
 
         assertEquals(expectedDeser, actualDeser);
     }
+
+    @Test
+    public void testCreateProjectedDecodingFormat() throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        options.put("delimiter", "|");
+
+        InLongMsgCsvDecodingFormat decodingFormat =
+                new InLongMsgCsvFormatFactory().createDecodingFormat(null, Configuration.fromMap(options));
+        decodingFormat.applyProjection(new int[]{1, 0});
+
+        DataType physicalDataType =
+                DataTypes.ROW(
+                        DataTypes.FIELD("student_name", DataTypes.STRING()),
+                        DataTypes.FIELD("score", DataTypes.INT()),
+                        DataTypes.FIELD("date", DataTypes.DATE())
+                );
+        DeserializationSchema<RowData> deserializationSchema =
+                decodingFormat.createRuntimeDecoder(TEST_CONTEXT, physicalDataType);
+
+        RowData row = deserializationSchema.deserialize("|zhangsan|85|2020-01-01".getBytes(StandardCharsets.UTF_8));
+        assertEquals(GenericRowData.of(85, StringData.fromString("zhangsan")), row);
+    }
+
+    private static final DynamicTableSource.Context TEST_CONTEXT =
+            new DynamicTableSource.Context() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> TypeInformation<T> createTypeInformation(DataType producedDataType) {
+                    return (TypeInformation<T>) TypeInformation.of(RowData.class);
+                }
+
+                @Override
+                public DynamicTableSource.DataStructureConverter createDataStructureConverter(
+                        DataType producedDataType
+                ) {
+                    throw new UnsupportedOperationException();
+                }
+            };
 }
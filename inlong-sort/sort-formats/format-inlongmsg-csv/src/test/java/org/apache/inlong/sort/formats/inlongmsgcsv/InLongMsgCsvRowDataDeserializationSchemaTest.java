@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.inlongmsgcsv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.inlong.sort.formats.base.TableFormatConstants;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.IntFormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.common.StringFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for {@link InLongMsgCsvRowDataDeserializationSchema}.
+ */
+public class InLongMsgCsvRowDataDeserializationSchemaTest {
+
+    private static final TypeInformation<RowData> PRODUCED_TYPE_INFO = TypeInformation.of(RowData.class);
+
+    private static final RowFormatInfo TEST_ROW_INFO =
+            new RowFormatInfo(
+                    new String[]{"f1", "f2", "f3"},
+                    new FormatInfo[]{
+                            IntFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE
+                    }
+            );
+
+    @Test
+    public void testDeleteHeadDelimiter() {
+        InLongMsgCsvRowDataDeserializationSchema deserializer =
+                new InLongMsgCsvRowDataDeserializationSchema(
+                        TEST_ROW_INFO,
+                        new int[]{0, 1, 2},
+                        PRODUCED_TYPE_INFO,
+                        TableFormatConstants.DEFAULT_CHARSET,
+                        TableFormatConstants.DEFAULT_DELIMITER,
+                        '\\',
+                        '\"',
+                        null,
+                        true
+                );
+
+        RowData row = deserializer.deserialize(",1,field1\\,field2,\"field3\"".getBytes(StandardCharsets.UTF_8));
+        assertEquals(
+                GenericRowData.of(1, StringData.fromString("field1,field2"), StringData.fromString("field3")),
+                row
+        );
+    }
+
+    @Test
+    public void testProjection() {
+        InLongMsgCsvRowDataDeserializationSchema deserializer =
+                new InLongMsgCsvRowDataDeserializationSchema(
+                        TEST_ROW_INFO,
+                        new int[]{1},
+                        PRODUCED_TYPE_INFO,
+                        TableFormatConstants.DEFAULT_CHARSET,
+                        TableFormatConstants.DEFAULT_DELIMITER,
+                        null,
+                        null,
+                        null,
+                        false
+                );
+
+        RowData row = deserializer.deserialize(",1,field1,field2".getBytes(StandardCharsets.UTF_8));
+        assertEquals(GenericRowData.of(StringData.fromString("1")), row);
+    }
+}
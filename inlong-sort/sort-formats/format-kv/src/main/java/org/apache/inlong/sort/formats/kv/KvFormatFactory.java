@@ -19,13 +19,21 @@
 package org.apache.inlong.sort.formats.kv;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.flink.api.common.serialization.DeserializationSchema;
 import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.descriptors.DescriptorProperties;
+import org.apache.flink.table.factories.DeserializationFormatFactory;
 import org.apache.flink.table.factories.DeserializationSchemaFactory;
+import org.apache.flink.table.factories.DynamicTableFactory.Context;
+import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.SerializationSchemaFactory;
 import org.apache.flink.table.factories.TableFormatFactoryBase;
 import org.apache.flink.types.Row;
@@ -36,6 +44,7 @@ import org.apache.inlong.sort.formats.base.ProjectedSerializationSchemaFactory;
 import org.apache.inlong.sort.formats.base.TableFormatConstants;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializerFactory;
+import org.apache.inlong.sort.formats.base.TableFormatOptions;
 import org.apache.inlong.sort.formats.base.TableFormatSerializer;
 import org.apache.inlong.sort.formats.base.TableFormatSerializerFactory;
 import org.apache.inlong.sort.formats.base.TableFormatUtils;
@@ -45,6 +54,9 @@ import org.apache.inlong.sort.formats.common.RowFormatInfo;
 
 /**
  * Table format factory for kv formats.
+ *
+ * <p>It is also the factory of {@link KvDecodingFormat} for the dynamic
+ * tables, which decodes the records into {@link RowData}.</p>
  */
 public final class KvFormatFactory
         extends TableFormatFactoryBase<Row>
@@ -54,7 +66,8 @@ public final class KvFormatFactory
                 ProjectedDeserializationSchemaFactory,
                 ProjectedSerializationSchemaFactory,
                 TableFormatDeserializerFactory,
-                TableFormatSerializerFactory {
+                TableFormatSerializerFactory,
+                DeserializationFormatFactory {
 
     public KvFormatFactory() {
         super(Kv.FORMAT_TYPE_VALUE, 1, true);
@@ -174,6 +187,45 @@ public final class KvFormatFactory
         return new DefaultTableFormatSerializer(serializationSchema, ignoreErrors);
     }
 
+    @Override
+    public KvDecodingFormat createDecodingFormat(
+            Context context,
+            ReadableConfig formatOptions
+    ) {
+        FactoryUtil.validateFactoryOptions(this, formatOptions);
+
+        return new KvDecodingFormat(
+                formatOptions.get(TableFormatOptions.CHARSET),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.ENTRY_DELIMITER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.KV_DELIMITER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.ESCAPE_CHARACTER),
+                TableFormatOptions.getCharacter(formatOptions, TableFormatOptions.QUOTE_CHARACTER),
+                formatOptions.getOptional(TableFormatOptions.NULL_LITERAL).orElse(null)
+        );
+    }
+
+    @Override
+    public String factoryIdentifier() {
+        return Kv.FORMAT_TYPE_VALUE;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return new HashSet<>();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        Set<ConfigOption<?>> options = new HashSet<>();
+        options.add(TableFormatOptions.CHARSET);
+        options.add(TableFormatOptions.ENTRY_DELIMITER);
+        options.add(TableFormatOptions.KV_DELIMITER);
+        options.add(TableFormatOptions.ESCAPE_CHARACTER);
+        options.add(TableFormatOptions.QUOTE_CHARACTER);
+        options.add(TableFormatOptions.NULL_LITERAL);
+        return options;
+    }
+
     private static DescriptorProperties getValidatedProperties(
             Map<String, String> properties
     ) {
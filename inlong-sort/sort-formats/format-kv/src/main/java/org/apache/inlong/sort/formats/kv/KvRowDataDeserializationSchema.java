@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.kv;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.inlong.sort.formats.base.RowDataFieldDecoder;
+import org.apache.inlong.sort.formats.base.TableFormatConstants;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.util.ByteTokenizer;
+
+/**
+ * The deserializer for the records in kv format, which produces
+ * {@link RowData}.
+ *
+ * <p>Different from {@link KvDeserializationSchema}, the text is tokenized
+ * over the bytes directly, the keys are matched against the encoded names of
+ * the projected fields, and only the projected fields are decoded. The fields
+ * of the produced row are the projected fields in the given order.</p>
+ *
+ * <p>The delimiters, escape and quote characters must be ASCII characters. The
+ * text in charsets other than UTF-8 and US-ASCII is transcoded to UTF-8 first.</p>
+ */
+public final class KvRowDataDeserializationSchema implements DeserializationSchema<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Format information describing all the fields in the text.
+     */
+    @Nonnull
+    private final RowFormatInfo rowFormatInfo;
+
+    /**
+     * The indices of the fields to be decoded.
+     */
+    @Nonnull
+    private final int[] projectedFields;
+
+    /**
+     * Type information of the produced rows.
+     */
+    @Nonnull
+    private final TypeInformation<RowData> producedTypeInfo;
+
+    /**
+     * The charset of the text.
+     */
+    @Nonnull
+    private final String charset;
+
+    /**
+     * The delimiter between entries.
+     */
+    @Nonnull
+    private final Character entryDelimiter;
+
+    /**
+     * The delimiter between key and value.
+     */
+    @Nonnull
+    private final Character kvDelimiter;
+
+    /**
+     * Escape character. Null if escaping is disabled.
+     */
+    @Nullable
+    private final Character escapeChar;
+
+    /**
+     * Quote character. Null if quoting is disabled.
+     */
+    @Nullable
+    private final Character quoteChar;
+
+    /**
+     * The literal represented null values, default "".
+     */
+    @Nullable
+    private final String nullLiteral;
+
+    private final RowDataFieldDecoder[] fieldDecoders;
+
+    /**
+     * The UTF-8 bytes of the projected field names.
+     */
+    private final byte[][] projectedNameBytes;
+
+    /**
+     * The token index of the value of each projected field in current record.
+     */
+    private transient int[] valueTokens;
+
+    private transient ByteTokenizer tokenizer;
+
+    private transient Charset textCharset;
+
+    public KvRowDataDeserializationSchema(
+            @Nonnull RowFormatInfo rowFormatInfo,
+            @Nonnull int[] projectedFields,
+            @Nonnull TypeInformation<RowData> producedTypeInfo,
+            @Nonnull String charset,
+            @Nonnull Character entryDelimiter,
+            @Nonnull Character kvDelimiter,
+            @Nullable Character escapeChar,
+            @Nullable Character quoteChar,
+            @Nullable String nullLiteral
+    ) {
+        this.rowFormatInfo = rowFormatInfo;
+        this.projectedFields = projectedFields;
+        this.producedTypeInfo = producedTypeInfo;
+        this.charset = charset;
+        this.entryDelimiter = entryDelimiter;
+        this.kvDelimiter = kvDelimiter;
+        this.escapeChar = escapeChar;
+        this.quoteChar = quoteChar;
+        this.nullLiteral = nullLiteral;
+
+        // Checks the characters can be matched against single bytes
+        ByteTokenizer.toByte(entryDelimiter);
+        ByteTokenizer.toByte(kvDelimiter);
+        ByteTokenizer.toByte(escapeChar);
+        ByteTokenizer.toByte(quoteChar);
+
+        String[] fieldNames = rowFormatInfo.getFieldNames();
+        FormatInfo[] fieldFormatInfos = rowFormatInfo.getFieldFormatInfos();
+
+        this.fieldDecoders = new RowDataFieldDecoder[projectedFields.length];
+        this.projectedNameBytes = new byte[projectedFields.length][];
+        for (int i = 0; i < projectedFields.length; ++i) {
+            int field = projectedFields[i];
+            checkArgument(field >= 0 && field < fieldNames.length,
+                    "The projected field " + field + " is out of range.");
+
+            fieldDecoders[i] = new RowDataFieldDecoder(fieldNames[field], fieldFormatInfos[field], nullLiteral);
+            projectedNameBytes[i] = fieldNames[field].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public TypeInformation<RowData> getProducedType() {
+        return producedTypeInfo;
+    }
+
+    @Override
+    public boolean isEndOfStream(RowData t) {
+        return false;
+    }
+
+    @Override
+    public RowData deserialize(byte[] bytes) {
+        if (tokenizer == null) {
+            tokenizer = new ByteTokenizer();
+            textCharset = Charset.forName(charset);
+            valueTokens = new int[projectedFields.length];
+        }
+
+        if (!StandardCharsets.UTF_8.equals(textCharset) && !StandardCharsets.US_ASCII.equals(textCharset)) {
+            bytes = new String(bytes, textCharset).getBytes(StandardCharsets.UTF_8);
+        }
+
+        int escape = ByteTokenizer.toByte(escapeChar);
+        int quote = ByteTokenizer.toByte(quoteChar);
+
+        int numEntries = tokenizer.splitKv(bytes, 0, bytes.length, entryDelimiter, kvDelimiter, escape, quote);
+
+        Arrays.fill(valueTokens, -1);
+        for (int entry = 0; entry < numEntries; ++entry) {
+            int keyToken = 2 * entry;
+
+            byte[] keyBytes = bytes;
+            int keyStart = tokenizer.getTokenStart(keyToken);
+            int keyEnd = tokenizer.getTokenEnd(keyToken);
+            if (tokenizer.isTokenEscaped(keyToken)) {
+                keyBytes = ByteTokenizer.unescape(bytes, keyStart, keyEnd, entryDelimiter, kvDelimiter,
+                        escape, quote);
+                keyStart = 0;
+                keyEnd = keyBytes.length;
+            }
+
+            // The latter value overwrites the former one with the same key.
+            for (int i = 0; i < projectedNameBytes.length; ++i) {
+                if (equals(keyBytes, keyStart, keyEnd, projectedNameBytes[i])) {
+                    valueTokens[i] = keyToken + 1;
+                }
+            }
+        }
+
+        GenericRowData row = new GenericRowData(projectedFields.length);
+        for (int i = 0; i < projectedFields.length; ++i) {
+            int valueToken = valueTokens[i];
+            if (valueToken < 0) {
+                continue;
+            }
+
+            int start = tokenizer.getTokenStart(valueToken);
+            int end = tokenizer.getTokenEnd(valueToken);
+            if (tokenizer.isTokenEscaped(valueToken)) {
+                byte[] fieldBytes = ByteTokenizer.unescape(bytes, start, end, entryDelimiter, kvDelimiter,
+                        escape, quote);
+                row.setField(i, fieldDecoders[i].decode(fieldBytes, 0, fieldBytes.length));
+            } else {
+                row.setField(i, fieldDecoders[i].decode(bytes, start, end));
+            }
+        }
+
+        return row;
+    }
+
+    private static boolean equals(byte[] bytes, int start, int end, byte[] target) {
+        if (end - start != target.length) {
+            return false;
+        }
+
+        for (int i = 0; i < target.length; ++i) {
+            if (bytes[start + i] != target[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Builder for {@link KvRowDataDeserializationSchema}.
+     */
+    public static class Builder {
+
+        private final RowFormatInfo rowFormatInfo;
+
+        private final TypeInformation<RowData> producedTypeInfo;
+
+        private int[] projectedFields;
+        private char entryDelimiter = TableFormatConstants.DEFAULT_ENTRY_DELIMITER;
+        private char kvDelimiter = TableFormatConstants.DEFAULT_KV_DELIMITER;
+        private String charset = TableFormatConstants.DEFAULT_CHARSET;
+        private Character escapeChar = null;
+        private Character quoteChar = null;
+        private String nullLiteral = null;
+
+        /**
+         * Creates a KV deserialization schema for the given format information.
+         *
+         * @param rowFormatInfo Format information describing all the fields in the text.
+         * @param producedTypeInfo Type information of the produced rows.
+         */
+        public Builder(RowFormatInfo rowFormatInfo, TypeInformation<RowData> producedTypeInfo) {
+            this.rowFormatInfo = rowFormatInfo;
+            this.producedTypeInfo = producedTypeInfo;
+        }
+
+        /**
+         * Sets the indices of the fields to be decoded. All the fields are
+         * decoded if not set.
+         */
+        public Builder setProjectedFields(int[] projectedFields) {
+            this.projectedFields = projectedFields;
+            return this;
+        }
+
+        public Builder setCharset(String charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        public Builder setEntryDelimiter(char entryDelimiter) {
+            this.entryDelimiter = entryDelimiter;
+            return this;
+        }
+
+        public Builder setKvDelimiter(char kvDelimiter) {
+            this.kvDelimiter = kvDelimiter;
+            return this;
+        }
+
+        public Builder setEscapeCharacter(char escapeChar) {
+            this.escapeChar = escapeChar;
+            return this;
+        }
+
+        public Builder setQuoteCharacter(char quoteChar) {
+            this.quoteChar = quoteChar;
+            return this;
+        }
+
+        public Builder setNullLiteral(String nullLiteral) {
+            this.nullLiteral = nullLiteral;
+            return this;
+        }
+
+        public KvRowDataDeserializationSchema build() {
+            int[] fields = projectedFields;
+            if (fields == null) {
+                fields = new int[rowFormatInfo.getFieldNames().length];
+                for (int i = 0; i < fields.length; ++i) {
+                    fields[i] = i;
+                }
+            }
+
+            return new KvRowDataDeserializationSchema(
+                    rowFormatInfo,
+                    fields,
+                    producedTypeInfo,
+                    charset,
+                    entryDelimiter,
+                    kvDelimiter,
+                    escapeChar,
+                    quoteChar,
+                    nullLiteral
+            );
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        KvRowDataDeserializationSchema that = (KvRowDataDeserializationSchema) o;
+        return rowFormatInfo.equals(that.rowFormatInfo)
+                       && Arrays.equals(projectedFields, that.projectedFields)
+                       && producedTypeInfo.equals(that.producedTypeInfo)
+                       && Objects.equals(charset, that.charset)
+                       && Objects.equals(entryDelimiter, that.entryDelimiter)
+                       && Objects.equals(kvDelimiter, that.kvDelimiter)
+                       && Objects.equals(escapeChar, that.escapeChar)
+                       && Objects.equals(quoteChar, that.quoteChar)
+                       && Objects.equals(nullLiteral, that.nullLiteral);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rowFormatInfo, Arrays.hashCode(projectedFields), producedTypeInfo,
+                charset, entryDelimiter, kvDelimiter, escapeChar, quoteChar, nullLiteral);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.formats.kv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.types.Row;
+import org.apache.inlong.sort.formats.common.FormatInfo;
+import org.apache.inlong.sort.formats.common.IntFormatInfo;
+import org.apache.inlong.sort.formats.common.LongFormatInfo;
+import org.apache.inlong.sort.formats.common.RowFormatInfo;
+import org.apache.inlong.sort.formats.common.StringFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for {@link KvRowDataDeserializationSchema}.
+ */
+public class KvRowDataDeserializationSchemaTest {
+
+    private static final TypeInformation<RowData> PRODUCED_TYPE_INFO = TypeInformation.of(RowData.class);
+
+    private static final RowFormatInfo TEST_ROW_INFO =
+            new RowFormatInfo(
+                    new String[]{"f1", "f2", "f3", "f4"},
+                    new FormatInfo[]{
+                            IntFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE,
+                            StringFormatInfo.INSTANCE,
+                            LongFormatInfo.INSTANCE
+                    }
+            );
+
+    @Test
+    public void testNormal() {
+        Consumer<KvRowDataDeserializationSchema.Builder> config = builder -> {
+        };
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("aa"), StringData.fromString("bb"), 20L),
+                "f1=10&f2=aa&f3=bb&f4=20".getBytes(StandardCharsets.UTF_8)
+        );
+
+        // The order of entries does not matter, and the latter value wins
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("cc"), null, 20L),
+                "f4=20&f2=aa&f1=10&f2=cc&f5=dd".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testDelimiter() {
+        Consumer<KvRowDataDeserializationSchema.Builder> config = builder ->
+                builder.setEntryDelimiter('|').setKvDelimiter(',');
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("aa"), StringData.fromString("bb"), 20L),
+                "f1,10|f2,aa|f3,bb|f4,20".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testEscapeAndQuote() {
+        Consumer<KvRowDataDeserializationSchema.Builder> config = builder ->
+                builder.setEscapeCharacter('\\').setQuoteCharacter('\"');
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(10, StringData.fromString("field1&field2"),
+                        StringData.fromString("field3=\\"), 20L),
+                "f1=10&f2=field1\\&field2&f\"3\"=\"field3=\"\\\\&f4=20".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testProjection() {
+        Consumer<KvRowDataDeserializationSchema.Builder> config = builder ->
+                builder.setProjectedFields(new int[]{3, 1});
+
+        testRowDeserialization(
+                config,
+                GenericRowData.of(20L, StringData.fromString("aa")),
+                "f1=10&f2=aa&f3=bb&f4=20".getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDanglingKey() {
+        new KvRowDataDeserializationSchema.Builder(TEST_ROW_INFO, PRODUCED_TYPE_INFO)
+                .build()
+                .deserialize("f1=10&f2".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConsistentWithKvDeserializationSchema() throws Exception {
+        char[] alphabet = new char[]{'a', '1', '&', '=', '\\', '\"', ' ', 'é'};
+        String[] keys = new String[]{"f2", "f3", "f5"};
+        Random random = new Random(0);
+
+        RowFormatInfo rowFormatInfo =
+                new RowFormatInfo(
+                        new String[]{"f2", "f3"},
+                        new FormatInfo[]{StringFormatInfo.INSTANCE, StringFormatInfo.INSTANCE}
+                );
+        KvDeserializationSchema expectedSchema =
+                new KvDeserializationSchema.Builder(rowFormatInfo)
+                        .setEscapeCharacter('\\')
+                        .setQuoteCharacter('\"')
+                        .build();
+        KvRowDataDeserializationSchema actualSchema =
+                new KvRowDataDeserializationSchema.Builder(rowFormatInfo, PRODUCED_TYPE_INFO)
+                        .setEscapeCharacter('\\')
+                        .setQuoteCharacter('\"')
+                        .build();
+
+        for (int i = 0; i < 10000; ++i) {
+            StringBuilder text = new StringBuilder();
+            int numEntries = 1 + random.nextInt(3);
+            for (int entry = 0; entry < numEntries; ++entry) {
+                if (entry > 0) {
+                    text.append('&');
+                }
+                text.append(keys[random.nextInt(keys.length)]).append('=');
+                int length = random.nextInt(8);
+                for (int j = 0; j < length; ++j) {
+                    text.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            Row expectedRow;
+            try {
+                expectedRow = expectedSchema.deserialize(bytes);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            RowData actualRow = actualSchema.deserialize(bytes);
+            for (int field = 0; field < 2; ++field) {
+                Object expectedField = expectedRow.getField(field);
+                if (expectedField == null) {
+                    assertNull(text.toString(), actualRow.getString(field));
+                } else {
+                    assertEquals(text.toString(), expectedField, actualRow.getString(field).toString());
+                }
+            }
+        }
+    }
+
+    private static void testRowDeserialization(
+            Consumer<KvRowDataDeserializationSchema.Builder> config,
+            RowData expectedRow,
+            byte[] bytes
+    ) {
+        KvRowDataDeserializationSchema.Builder builder =
+                new KvRowDataDeserializationSchema.Builder(TEST_ROW_INFO, PRODUCED_TYPE_INFO);
+        config.accept(builder);
+
+        KvRowDataDeserializationSchema deserializer = builder.build();
+
+        RowData row = deserializer.deserialize(bytes);
+        assertEquals(expectedRow, row);
+    }
+}
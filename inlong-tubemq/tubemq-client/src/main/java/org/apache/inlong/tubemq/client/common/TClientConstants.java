@@ -24,6 +24,7 @@ public class TClientConstants {
     public static final long CFG_DEFAULT_HEARTBEAT_PERIOD_MS = 13000;
     public static final long CFG_DEFAULT_REGFAIL_WAIT_PERIOD_MS = 1000;
     public static final long CFG_DEFAULT_MSG_NOTFOUND_WAIT_PERIOD_MS = 400L;
+    public static final int CFG_DEFAULT_FETCH_MAX_WAIT_MS = 0;
     public static final long CFG_DEFAULT_CONSUME_READ_WAIT_PERIOD_MS = 90000L;
     public static final long CFG_DEFAULT_CONSUME_READ_CHECK_SLICE_MS = 3L;
     public static final long CFG_DEFAULT_PUSH_LISTENER_WAIT_PERIOD_MS = 3000L;
@@ -41,6 +41,9 @@ public class ConsumerConfig extends TubeClientConfig {
             TClientConstants.MAX_SUBSCRIBE_REPORT_INTERVAL_TIMES;
     private long msgNotFoundWaitPeriodMs =
             TClientConstants.CFG_DEFAULT_MSG_NOTFOUND_WAIT_PERIOD_MS;
+    // the max time a fetch request waits on the broker for new messages, 0 to disable
+    private int fetchMaxWaitMs =
+            TClientConstants.CFG_DEFAULT_FETCH_MAX_WAIT_MS;
     private long pullConsumeReadyWaitPeriodMs =
             TClientConstants.CFG_DEFAULT_CONSUME_READ_WAIT_PERIOD_MS;
     private long pullConsumeReadyChkSliceMs =
@@ -122,6 +125,19 @@ public class ConsumerConfig extends TubeClientConfig {
         this.msgNotFoundWaitPeriodMs = msgNotFoundWaitPeriodMs;
     }
 
+    public int getFetchMaxWaitMs() {
+        return fetchMaxWaitMs;
+    }
+
+    // setFetchMaxWaitMs() use note:
+    // If set to a positive value, a fetch request that finds no new messages is held by
+    // the broker until new messages arrive or the wait time expires, instead of returning
+    // NOT_FOUND at once and backing off msgNotFoundWaitPeriodMs on the client.
+    // The wait time is also bounded by the broker configuration and the rpc timeout.
+    public void setFetchMaxWaitMs(int fetchMaxWaitMs) {
+        this.fetchMaxWaitMs = Math.max(0, fetchMaxWaitMs);
+    }
+
     public long getPullConsumeReadyWaitPeriodMs() {
         return pullConsumeReadyWaitPeriodMs;
     }
@@ -274,6 +290,7 @@ public class ConsumerConfig extends TubeClientConfig {
                 .append("\",\"maxSubInfoReportIntvlTimes\":").append(this.maxSubInfoReportIntvlTimes)
                 .append(",\"consumePosition\":").append(this.consumePosition)
                 .append(",\"msgNotFoundWaitPeriodMs\":").append(this.msgNotFoundWaitPeriodMs)
+                .append(",\"fetchMaxWaitMs\":").append(this.fetchMaxWaitMs)
                 .append(",\"shutDownRebalanceWaitPeriodMs\":").append(this.shutDownRebalanceWaitPeriodMs)
                 .append(",\"pushFetchThreadCnt\":").append(this.pushFetchThreadCnt)
                 .append(",\"pushListenerWaitTimeoutRollBack\":").append(this.pushListenerWaitTimeoutRollBack)
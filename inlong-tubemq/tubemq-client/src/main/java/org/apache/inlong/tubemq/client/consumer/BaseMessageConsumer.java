@@ -778,6 +778,9 @@ public class BaseMessageConsumer implements MessageConsumer {
         builder.setPartitionId(partition.getPartitionId());
         builder.setLastPackConsumed(isLastConsumed);
         builder.setManualCommitOffset(false);
+        if (this.consumerConfig.getFetchMaxWaitMs() > 0) {
+            builder.setMaxWaitMs(this.consumerConfig.getFetchMaxWaitMs());
+        }
         return builder.build();
     }
 
@@ -1324,7 +1327,9 @@ public class BaseMessageConsumer implements MessageConsumer {
                             break;
                         }
                         case TErrCodeConstants.NOT_FOUND: {
-                            limitDlt = consumerConfig.getMsgNotFoundWaitPeriodMs();
+                            // the request has waited on the broker, fetch again at once
+                            limitDlt = msgRspB2C.hasParkedTimeMs()
+                                    ? 0 : consumerConfig.getMsgNotFoundWaitPeriodMs();
                             break;
                         }
                         default: {
@@ -35,6 +35,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.inlong.tubemq.client.config.ConsumerConfig;
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
@@ -98,16 +99,15 @@ public class RmtDataCache implements Closeable {
     private long reportIntCount = 0;
     // partition cache
     private final AtomicInteger waitCont = new AtomicInteger(0);
-    private final ConcurrentHashMap<String, Timeout> timeouts =
-            new ConcurrentHashMap<>();
-    private final ConcurrentLinkedQueue<String> indexPartition =
-            new ConcurrentLinkedQueue<String>();
-    private final ConcurrentHashMap<String /* index */, PartitionExt> partitionMap =
-            new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String /* index */, Long> partitionUsedMap =
-            new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String /* index */, ConsumeOffsetInfo> partitionOffsetMap =
+    // all the bookkeeping of a partition is in its state, see PartitionState
+    private final ConcurrentHashMap<String /* index */, PartitionState> partStateMap =
             new ConcurrentHashMap<>();
+    // idle partitions, an entry is valid only while the inReadyQueue flag of its state is set
+    private final ConcurrentLinkedQueue<PartitionState> readyQueue =
+            new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readyCount = new AtomicInteger(0);
+    private final AtomicInteger usedCount = new AtomicInteger(0);
+    private final AtomicInteger waitCount = new AtomicInteger(0);
     private final ConcurrentHashMap<String /* index */, Long> partitionFrozenMap =
             new ConcurrentHashMap<String, Long>();
     private final ConcurrentHashMap<String /* topic */, ConcurrentLinkedQueue<Partition>> topicPartitionConMap =
@@ -563,7 +563,7 @@ public class RmtDataCache implements Closeable {
         }
         builder.setReportSubInfo(false);
         if (isFirstReport) {
-            if (!this.partitionMap.isEmpty()) {
+            if (!this.partStateMap.isEmpty()) {
                 isFirstReport = false;
                 builder.setReportSubInfo(true);
                 builder.addAllPartSubInfo(getSubscribedPartitionInfo());
@@ -619,10 +619,10 @@ public class RmtDataCache implements Closeable {
                                         boolean isEscLimit, int msgSize,
                                         long limitDlt, long curDataDlt,
                                         boolean isRequireSlow, long maxOffset) {
-        PartitionExt partitionExt = partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            updateOffsetCache(partitionKey, currOffset, maxOffset);
-            partitionExt.setPullTempData(reqProcType, errCode,
+        PartitionState partState = partStateMap.get(partitionKey);
+        if (partState != null) {
+            updateOffsetCache(partState, currOffset, maxOffset);
+            partState.partitionExt.setPullTempData(reqProcType, errCode,
                     isEscLimit, msgSize, limitDlt, curDataDlt, isRequireSlow);
         }
     }
@@ -639,12 +639,12 @@ public class RmtDataCache implements Closeable {
             if (this.isClosed.get()) {
                 break;
             }
-            if (!partitionMap.isEmpty()) {
+            if (!partStateMap.isEmpty()) {
                 return true;
             }
             ThreadUtils.sleep(250);
         } while (System.currentTimeMillis() - currTime > maxWaitTime);
-        return (!partitionMap.isEmpty());
+        return (!partStateMap.isEmpty());
     }
 
     /**
@@ -657,17 +657,17 @@ public class RmtDataCache implements Closeable {
                     TErrCodeConstants.BAD_REQUEST,
                     "Client instance has been shutdown!");
         }
-        if (partitionMap.isEmpty()) {
+        if (partStateMap.isEmpty()) {
             return new PartitionSelectResult(false,
                     TErrCodeConstants.NO_PARTITION_ASSIGNED,
                     "No partition info in local, please wait and try later");
         }
-        if (indexPartition.isEmpty()) {
-            if (!timeouts.isEmpty()) {
+        if (readyCount.get() <= 0) {
+            if (hasPartitionWait()) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.ALL_PARTITION_WAITING,
                         "All partition in waiting, retry later!");
-            } else if (!partitionUsedMap.isEmpty()) {
+            } else if (usedCount.get() > 0) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.ALL_PARTITION_INUSE,
                         "No idle partition to consume, please wait and try later");
@@ -699,18 +699,18 @@ public class RmtDataCache implements Closeable {
                         TErrCodeConstants.BAD_REQUEST,
                         "Client instance has been shutdown!");
             }
-            if (partitionMap.isEmpty()) {
+            if (partStateMap.isEmpty()) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.NO_PARTITION_ASSIGNED,
                         "No partition info in local, please wait and try later");
             }
-            String key = indexPartition.poll();
-            if (key == null) {
+            PartitionState partState = pollReadyPartition();
+            if (partState == null) {
                 if (hasPartitionWait()) {
                     return new PartitionSelectResult(false,
                             TErrCodeConstants.ALL_PARTITION_WAITING,
                             "All partition in waiting, retry later!");
-                } else if (!partitionUsedMap.isEmpty()) {
+                } else if (usedCount.get() > 0) {
                     return new PartitionSelectResult(false,
                             TErrCodeConstants.ALL_PARTITION_INUSE,
                             "No idle partition to consume, please wait and try later");
@@ -720,19 +720,13 @@ public class RmtDataCache implements Closeable {
                             "All partition are frozen to consume, please unfreeze partition(s) or wait");
                 }
             }
-            PartitionExt partitionExt = partitionMap.get(key);
-            if (partitionExt == null) {
-                return new PartitionSelectResult(false,
-                        TErrCodeConstants.BAD_REQUEST,
-                        "No valid partition to consume, retry later 1");
-            }
             long curTime = System.currentTimeMillis();
-            Long newTime = partitionUsedMap.putIfAbsent(key, curTime);
-            if (newTime != null) {
+            if (!bookUsedToken(partState, curTime)) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.BAD_REQUEST,
                         "No valid partition to consume, retry later 2");
             }
+            PartitionExt partitionExt = partState.partitionExt;
             return new PartitionSelectResult(true, TErrCodeConstants.SUCCESS, "Ok!",
                     partitionExt, curTime, partitionExt.getAndResetLastPackConsumed());
         } catch (Throwable e1) {
@@ -756,7 +750,7 @@ public class RmtDataCache implements Closeable {
             if (this.isClosed.get()) {
                 break;
             }
-            if (!partitionMap.isEmpty()) {
+            if (!partStateMap.isEmpty()) {
                 break;
             }
             ThreadUtils.sleep(300);
@@ -771,12 +765,12 @@ public class RmtDataCache implements Closeable {
                 return null;
             }
             int cycleCnt = 0;
-            String key = null;
+            PartitionState partState = null;
             do {
-                if (!indexPartition.isEmpty()) {
+                if (readyCount.get() > 0) {
                     // If there are idle partitions, poll
-                    key = indexPartition.poll();
-                    if (key != null) {
+                    partState = pollReadyPartition();
+                    if (partState != null) {
                         break;
                     }
                 }
@@ -786,18 +780,14 @@ public class RmtDataCache implements Closeable {
                 ThreadUtils.sleep(300);
                 //if no idle partitions to get, wait and cycle 500 times
             } while (cycleCnt++ < 500);
-            if (key == null) {
-                return null;
-            }
-            PartitionExt partitionExt = partitionMap.get(key);
-            if (partitionExt == null) {
+            if (partState == null) {
                 return null;
             }
             long curTime = System.currentTimeMillis();
-            Long newTime = partitionUsedMap.putIfAbsent(key, curTime);
-            if (newTime != null) {
+            if (!bookUsedToken(partState, curTime)) {
                 return null;
             }
+            PartitionExt partitionExt = partState.partitionExt;
             return new PartitionSelectResult(partitionExt,
                     curTime, partitionExt.getAndResetLastPackConsumed());
         } catch (Throwable e1) {
@@ -808,20 +798,21 @@ public class RmtDataCache implements Closeable {
     }
 
     protected boolean isPartitionInUse(String partitionKey, long usedToken) {
-        PartitionExt partitionExt = partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            Long curToken = partitionUsedMap.get(partitionKey);
-            return curToken != null && curToken == usedToken;
+        PartitionState partState = partStateMap.get(partitionKey);
+        if (partState != null) {
+            long curToken = partState.usedToken.get();
+            return curToken != PartitionState.NOT_IN_USE && curToken == usedToken;
         }
         return false;
     }
 
     public boolean isPartitionInUse(String partitionKey) {
-        return (partitionMap.get(partitionKey) != null);
+        return (partStateMap.get(partitionKey) != null);
     }
 
     public Partition getPartitionByKey(String partitionKey) {
-        return partitionMap.get(partitionKey);
+        PartitionState partState = partStateMap.get(partitionKey);
+        return (partState == null) ? null : partState.partitionExt;
     }
 
     /**
@@ -858,17 +849,11 @@ public class RmtDataCache implements Closeable {
     }
 
     protected void errReqRelease(String partitionKey, long usedToken, boolean isLastPackConsumed) {
-        PartitionExt partitionExt = partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        releaseIdlePartition(partitionKey);
-                    }
-                }
+        PartitionState partState = partStateMap.get(partitionKey);
+        if (partState != null && isUsedBy(partState, usedToken)) {
+            if (releaseUsedToken(partState, usedToken)) {
+                partState.partitionExt.setLastPackConsumed(isLastPackConsumed);
+                releaseIdlePartition(partState);
             }
         }
     }
@@ -877,20 +862,15 @@ public class RmtDataCache implements Closeable {
                                   long usedToken, boolean isLastPackConsumed,
                                   boolean isFilterConsume, long currOffset,
                                   long maxOffset) {
-        PartitionExt partitionExt = this.partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    updateOffsetCache(partitionKey, currOffset, maxOffset);
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        long waitDlt =
-                                partitionExt.procConsumeResult(isFilterConsume);
-                        releaseIdlePartition(waitDlt, partitionKey);
-                    }
-                }
+        PartitionState partState = this.partStateMap.get(partitionKey);
+        if (partState != null && isUsedBy(partState, usedToken)) {
+            updateOffsetCache(partState, currOffset, maxOffset);
+            if (releaseUsedToken(partState, usedToken)) {
+                PartitionExt partitionExt = partState.partitionExt;
+                partitionExt.setLastPackConsumed(isLastPackConsumed);
+                long waitDlt =
+                        partitionExt.procConsumeResult(isFilterConsume);
+                releaseIdlePartition(waitDlt, partState);
             }
         }
     }
@@ -917,63 +897,129 @@ public class RmtDataCache implements Closeable {
                               long currOffset, int reqProcType, int errCode,
                               boolean isEscLimit, int msgSize, long limitDlt,
                               boolean isFilterConsume, long curDataDlt, long maxOffset) {
-        PartitionExt partitionExt = this.partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    updateOffsetCache(partitionKey, currOffset, maxOffset);
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        long waitDlt =
-                                partitionExt.procConsumeResult(isFilterConsume, reqProcType,
-                                        errCode, msgSize, isEscLimit, limitDlt, curDataDlt, false);
-                        releaseIdlePartition(waitDlt, partitionKey);
-                    }
-                }
+        PartitionState partState = this.partStateMap.get(partitionKey);
+        if (partState != null && isUsedBy(partState, usedToken)) {
+            updateOffsetCache(partState, currOffset, maxOffset);
+            if (releaseUsedToken(partState, usedToken)) {
+                PartitionExt partitionExt = partState.partitionExt;
+                partitionExt.setLastPackConsumed(isLastPackConsumed);
+                long waitDlt =
+                        partitionExt.procConsumeResult(isFilterConsume, reqProcType,
+                                errCode, msgSize, isEscLimit, limitDlt, curDataDlt, false);
+                releaseIdlePartition(waitDlt, partState);
             }
         }
     }
 
     public void updPartOffsetInfo(String partitionKey, long currOffset, long maxOffset) {
-        PartitionExt partitionExt = this.partitionMap.get(partitionKey);
-        if (partitionExt != null) {
-            updateOffsetCache(partitionKey, currOffset, maxOffset);
+        PartitionState partState = this.partStateMap.get(partitionKey);
+        if (partState != null) {
+            updateOffsetCache(partState, currOffset, maxOffset);
         }
     }
 
-    private void releaseIdlePartition(long waitDlt, String partitionKey) {
-        Long frozenTime = partitionFrozenMap.get(partitionKey);
-        if (frozenTime == null) {
-            if (waitDlt > 10) {
-                TimeoutTask timeoutTask = new TimeoutTask(partitionKey);
-                timeouts.put(partitionKey, timer.newTimeout(
-                        timeoutTask, waitDlt, TimeUnit.MILLISECONDS));
+    private void releaseIdlePartition(long waitDlt, PartitionState partState) {
+        if (isFrozen(partState)) {
+            return;
+        }
+        if (waitDlt > 10) {
+            Timeout newTimeout = timer.newTimeout(
+                    new TimeoutTask(partState), waitDlt, TimeUnit.MILLISECONDS);
+            Timeout oldTimeout = partState.timeout.getAndSet(newTimeout);
+            if (oldTimeout == null) {
+                waitCount.incrementAndGet();
             } else {
-                releaseIdlePartition(partitionKey);
+                oldTimeout.cancel();
             }
+        } else {
+            releaseIdlePartition(partState);
         }
     }
 
     private void releaseIdlePartition(String partitionKey) {
-        Long frozenTime = partitionFrozenMap.get(partitionKey);
-        PartitionExt partitionExt = partitionMap.get(partitionKey);
-        Timeout timeout = timeouts.get(partitionKey);
-        Long usedTime = partitionUsedMap.get(partitionKey);
-        if (partitionExt == null
-                || frozenTime != null
-                || timeout != null
-                || usedTime != null) {
+        PartitionState partState = partStateMap.get(partitionKey);
+        if (partState != null) {
+            releaseIdlePartition(partState);
+        }
+    }
+
+    private void releaseIdlePartition(PartitionState partState) {
+        if (partState.removed
+                || isFrozen(partState)
+                || partState.timeout.get() != null
+                || partState.usedToken.get() != PartitionState.NOT_IN_USE) {
             return;
         }
-        if (!indexPartition.contains(partitionKey)) {
-            try {
-                indexPartition.offer(partitionKey);
-            } catch (Throwable e) {
-                //
+        if (partState.inReadyQueue.compareAndSet(false, true)) {
+            readyCount.incrementAndGet();
+            readyQueue.offer(partState);
+        }
+    }
+
+    /**
+     * Poll an idle partition, the entries left by the removed partitions are skipped.
+     *
+     * @return the partition state, or null if there is no idle partition
+     */
+    private PartitionState pollReadyPartition() {
+        PartitionState partState;
+        while ((partState = readyQueue.poll()) != null) {
+            if (partState.inReadyQueue.compareAndSet(true, false)) {
+                readyCount.decrementAndGet();
+                if (!partState.removed) {
+                    return partState;
+                }
             }
         }
+        return null;
+    }
+
+    private boolean bookUsedToken(PartitionState partState, long usedToken) {
+        if (partState.usedToken.compareAndSet(PartitionState.NOT_IN_USE, usedToken)) {
+            usedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isUsedBy(PartitionState partState, long usedToken) {
+        return usedToken != PartitionState.NOT_IN_USE
+                && !partState.inReadyQueue.get()
+                && partState.timeout.get() == null
+                && partState.usedToken.get() == usedToken;
+    }
+
+    private boolean releaseUsedToken(PartitionState partState, long usedToken) {
+        if (partState.usedToken.compareAndSet(usedToken, PartitionState.NOT_IN_USE)) {
+            usedCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isFrozen(PartitionState partState) {
+        return !partitionFrozenMap.isEmpty()
+                && partitionFrozenMap.containsKey(partState.partitionKey);
+    }
+
+    /**
+     * Take the partition state out of the bookkeeping.
+     *
+     * @param partState  the removed partition state
+     * @return true if the partition is idle or in waiting, false if it is in use
+     */
+    private boolean clearPartitionState(PartitionState partState) {
+        partState.removed = true;
+        boolean isIdle = cancelTimeTask(partState);
+        if (partState.inReadyQueue.compareAndSet(true, false)) {
+            readyCount.decrementAndGet();
+            isIdle = true;
+        }
+        if (partState.usedToken.getAndSet(PartitionState.NOT_IN_USE)
+                != PartitionState.NOT_IN_USE) {
+            usedCount.decrementAndGet();
+        }
+        return isIdle;
     }
 
     /**
@@ -1008,9 +1054,9 @@ public class RmtDataCache implements Closeable {
      */
     public List<SubscribeInfo> getSubscribeInfoList(String consumerId, String consumeGroup) {
         List<SubscribeInfo> subscribeInfoList = new ArrayList<>();
-        for (Partition partition : partitionMap.values()) {
-            if (partition != null) {
-                subscribeInfoList.add(new SubscribeInfo(consumerId, consumeGroup, partition));
+        for (PartitionState partState : partStateMap.values()) {
+            if (partState != null) {
+                subscribeInfoList.add(new SubscribeInfo(consumerId, consumeGroup, partState.partitionExt));
             }
         }
         return subscribeInfoList;
@@ -1024,10 +1070,11 @@ public class RmtDataCache implements Closeable {
     private List<String> getSubscribedPartitionInfo() {
         List<String> strSubInfoList = new ArrayList<>();
         Map<String, StringBuilder> tmpSubInfoMap = new HashMap<>();
-        for (Partition partition : partitionMap.values()) {
-            if (partition == null) {
+        for (PartitionState partState : partStateMap.values()) {
+            if (partState == null) {
                 continue;
             }
+            Partition partition = partState.partitionExt;
             StringBuilder sBuffer = tmpSubInfoMap.get(partition.getTopic());
             if (sBuffer == null) {
                 sBuffer = new StringBuilder(512);
@@ -1067,12 +1114,11 @@ public class RmtDataCache implements Closeable {
             boolean lastPackConsumed = false;
             for (Map.Entry<BrokerInfo, List<Partition>> entry : unRegisterInfoMap.entrySet()) {
                 for (Partition partition : entry.getValue()) {
-                    PartitionExt partitionExt =
-                            partitionMap.remove(partition.getPartitionKey());
-                    if (partitionExt != null) {
-                        lastPackConsumed = partitionExt.isLastPackConsumed();
-                        if (!cancelTimeTask(partition.getPartitionKey())
-                                && !indexPartition.remove(partition.getPartitionKey())) {
+                    PartitionState partState =
+                            partStateMap.remove(partition.getPartitionKey());
+                    if (partState != null) {
+                        lastPackConsumed = partState.partitionExt.isLastPackConsumed();
+                        if (!clearPartitionState(partState)) {
                             logger.info(sBuilder.append("[Process Interrupt] Partition : ")
                                     .append(partition.toString())
                                     .append(", data in processing, canceled").toString());
@@ -1099,8 +1145,6 @@ public class RmtDataCache implements Closeable {
                                 brokerPartitionConMap.remove(entry.getKey());
                             }
                         }
-                        partitionOffsetMap.remove(partition.getPartitionKey());
-                        partitionUsedMap.remove(partition.getPartitionKey());
                         PartitionSelectResult partitionRet =
                                 new PartitionSelectResult(true, TErrCodeConstants.SUCCESS,
                                         "Ok!", partition, 0, lastPackConsumed);
@@ -1136,15 +1180,15 @@ public class RmtDataCache implements Closeable {
         pauseProcess();
         try {
             waitPartitions(partitionKeys, inUseWaitPeriodMs);
-            PartitionExt partitionExt =
-                    partitionMap.remove(partitionKey);
-            if (partitionExt == null) {
+            PartitionState partState =
+                    partStateMap.remove(partitionKey);
+            if (partState == null) {
                 result.setSuccResult(null);
                 return result.isSuccess();
             }
+            PartitionExt partitionExt = partState.partitionExt;
             lastPackConsumed = partitionExt.isLastPackConsumed();
-            if (!cancelTimeTask(partitionKey)
-                    && !indexPartition.remove(partitionKey)) {
+            if (!clearPartitionState(partState)) {
                 logger.info(sBuffer.append("[Process Interrupt] Partition : ")
                         .append(partitionExt.toString())
                         .append(", data in processing, canceled").toString());
@@ -1171,8 +1215,6 @@ public class RmtDataCache implements Closeable {
                     brokerPartitionConMap.remove(partitionExt.getBroker());
                 }
             }
-            partitionOffsetMap.remove(partitionKey);
-            partitionUsedMap.remove(partitionKey);
             partitionExt.setLastPackConsumed(lastPackConsumed);
             result.setSuccResult(partitionExt);
             return result.isSuccess();
@@ -1187,11 +1229,10 @@ public class RmtDataCache implements Closeable {
      * @param partition partition to be removed
      */
     public void removePartition(Partition partition) {
-        partitionMap.remove(partition.getPartitionKey());
-        cancelTimeTask(partition.getPartitionKey());
-        indexPartition.remove(partition.getPartitionKey());
-        partitionUsedMap.remove(partition.getPartitionKey());
-        partitionOffsetMap.remove(partition.getPartitionKey());
+        PartitionState partState = partStateMap.remove(partition.getPartitionKey());
+        if (partState != null) {
+            clearPartitionState(partState);
+        }
         ConcurrentLinkedQueue<Partition> oldPartitionList =
                 topicPartitionConMap.get(partition.getTopic());
         if (oldPartitionList != null) {
@@ -1212,7 +1253,7 @@ public class RmtDataCache implements Closeable {
 
     public Set<String> getCurRegisteredPartSet() {
         Set<String> partKeySet = new TreeSet<>();
-        for (String partKey : partitionMap.keySet()) {
+        for (String partKey : partStateMap.keySet()) {
             if (partKey == null) {
                 continue;
             }
@@ -1229,11 +1270,14 @@ public class RmtDataCache implements Closeable {
     public Map<String, ConsumeOffsetInfo> getCurPartitionInfoMap() {
         Map<String, ConsumeOffsetInfo> tmpPartitionMap =
                 new ConcurrentHashMap<>();
-        for (Map.Entry<String, PartitionExt> entry : partitionMap.entrySet()) {
+        for (Map.Entry<String, PartitionState> entry : partStateMap.entrySet()) {
             if (entry.getKey() == null || entry.getValue() == null) {
                 continue;
             }
-            ConsumeOffsetInfo offsetInfo = partitionOffsetMap.get(entry.getKey());
+            ConsumeOffsetInfo offsetInfo = entry.getValue().offsetInfo.get();
+            if (offsetInfo == null) {
+                continue;
+            }
             tmpPartitionMap.put(entry.getKey(),
                 new ConsumeOffsetInfo(entry.getKey(), offsetInfo.getCurrOffset(),
                         offsetInfo.getMaxOffset(), offsetInfo.getUpdateTime()));
@@ -1242,7 +1286,8 @@ public class RmtDataCache implements Closeable {
     }
 
     public long getMaxOffsetOfPartition(String partitionKey) {
-        ConsumeOffsetInfo offsetInfo = partitionOffsetMap.get(partitionKey);
+        PartitionState partState = partStateMap.get(partitionKey);
+        ConsumeOffsetInfo offsetInfo = (partState == null) ? null : partState.offsetInfo.get();
         if (offsetInfo == null) {
             return -1L;
         }
@@ -1252,7 +1297,8 @@ public class RmtDataCache implements Closeable {
     public Map<BrokerInfo, List<PartitionSelectResult>> getAllPartitionListWithStatus() {
         Map<BrokerInfo, List<PartitionSelectResult>> registeredInfoMap =
                 new HashMap<>();
-        for (PartitionExt partitionExt : partitionMap.values()) {
+        for (PartitionState partState : partStateMap.values()) {
+            PartitionExt partitionExt = partState.partitionExt;
             List<PartitionSelectResult> registerPartitionList =
                     registeredInfoMap.computeIfAbsent(
                             partitionExt.getBroker(), k -> new ArrayList<>());
@@ -1334,37 +1380,27 @@ public class RmtDataCache implements Closeable {
      * @param allowedPeriodTimes  allowed hold duration
      */
     public void resumeTimeoutConsumePartitions(boolean isPullConsume, long allowedPeriodTimes) {
-        if (isPullConsume) {
+        if (usedCount.get() <= 0 && !hasPartitionWait()) {
+            return;
+        }
+        long curTime = System.currentTimeMillis();
+        for (PartitionState partState : partStateMap.values()) {
             // For pull consume, do timeout check on partitions pulled without confirm
-            if (!partitionUsedMap.isEmpty()) {
-                List<String> partKeys = new ArrayList<>(partitionUsedMap.keySet());
-                for (String keyId : partKeys) {
-                    Long oldTime = partitionUsedMap.get(keyId);
-                    if (oldTime != null && System.currentTimeMillis() - oldTime > allowedPeriodTimes) {
-                        oldTime = partitionUsedMap.remove(keyId);
-                        if (oldTime != null) {
-                            PartitionExt partitionExt = partitionMap.get(keyId);
-                            if (partitionExt != null) {
-                                partitionExt.setLastPackConsumed(false);
-                                releaseIdlePartition(keyId);
-                            }
-                        }
-                    }
+            if (isPullConsume) {
+                long oldToken = partState.usedToken.get();
+                if (oldToken != PartitionState.NOT_IN_USE
+                        && curTime - oldToken > allowedPeriodTimes
+                        && releaseUsedToken(partState, oldToken)) {
+                    partState.partitionExt.setLastPackConsumed(false);
+                    releaseIdlePartition(partState);
                 }
             }
-        }
-        // add timeout expired check
-        if (!timeouts.isEmpty()) {
-            Timeout timeout1 = null;
-            List<String> partKeys = new ArrayList<>(timeouts.keySet());
-            for (String keyId : partKeys) {
-                timeout1 = timeouts.get(keyId);
-                if (timeout1 != null && timeout1.isExpired()) {
-                    timeout1 = timeouts.remove(keyId);
-                    if (timeout1 != null) {
-                        releaseIdlePartition(keyId);
-                    }
-                }
+            // add timeout expired check
+            Timeout timeout1 = partState.timeout.get();
+            if (timeout1 != null && timeout1.isExpired()
+                    && partState.timeout.compareAndSet(timeout1, null)) {
+                waitCount.decrementAndGet();
+                releaseIdlePartition(partState);
             }
         }
     }
@@ -1431,7 +1467,9 @@ public class RmtDataCache implements Closeable {
         do {
             needWait = false;
             for (String partitionKey : partitionKeys) {
-                if (partitionUsedMap.get(partitionKey) != null) {
+                PartitionState partState = partStateMap.get(partitionKey);
+                if (partState != null
+                        && partState.usedToken.get() != PartitionState.NOT_IN_USE) {
                     needWait = true;
                     break;
                 }
@@ -1449,16 +1487,14 @@ public class RmtDataCache implements Closeable {
 
     }
 
-    private void updateOffsetCache(String partitionKey, long currOffset, long maxOffset) {
+    private void updateOffsetCache(PartitionState partState, long currOffset, long maxOffset) {
         if (currOffset >= 0) {
-            ConsumeOffsetInfo currOffsetInfo = partitionOffsetMap.get(partitionKey);
+            ConsumeOffsetInfo currOffsetInfo = partState.offsetInfo.get();
             if (currOffsetInfo == null) {
                 currOffsetInfo =
-                    new ConsumeOffsetInfo(partitionKey, currOffset, maxOffset);
-                ConsumeOffsetInfo tmpOffsetInfo =
-                    partitionOffsetMap.putIfAbsent(partitionKey, currOffsetInfo);
-                if (tmpOffsetInfo != null) {
-                    currOffsetInfo = tmpOffsetInfo;
+                    new ConsumeOffsetInfo(partState.partitionKey, currOffset, maxOffset);
+                if (!partState.offsetInfo.compareAndSet(null, currOffsetInfo)) {
+                    currOffsetInfo = partState.offsetInfo.get();
                 }
             }
             currOffsetInfo.updateOffsetInfo(currOffset, maxOffset);
@@ -1474,7 +1510,7 @@ public class RmtDataCache implements Closeable {
                 continue;
             }
             Partition partition = entry.getKey();
-            if (partitionMap.containsKey(partition.getPartitionKey())) {
+            if (partStateMap.containsKey(partition.getPartitionKey())) {
                 continue;
             }
             ConcurrentLinkedQueue<Partition> topicPartitionQue =
@@ -1503,14 +1539,18 @@ public class RmtDataCache implements Closeable {
             if (!brokerPartitionQue.contains(partition)) {
                 brokerPartitionQue.add(partition);
             }
-            updateOffsetCache(partition.getPartitionKey(),
-                    entry.getValue().getCurrOffset(), entry.getValue().getMaxOffset());
-            partitionMap.put(partition.getPartitionKey(),
+            PartitionState partState = new PartitionState(partition.getPartitionKey(),
                     new PartitionExt(this.groupFlowCtrlRuleHandler,
                             this.defFlowCtrlRuleHandler, partition.getBroker(),
                             partition.getTopic(), partition.getPartitionId()));
-            partitionUsedMap.remove(partition.getPartitionKey());
-            releaseIdlePartition(partition.getPartitionKey());
+            updateOffsetCache(partState,
+                    entry.getValue().getCurrOffset(), entry.getValue().getMaxOffset());
+            PartitionState oldPartState =
+                    partStateMap.put(partition.getPartitionKey(), partState);
+            if (oldPartState != null) {
+                clearPartitionState(oldPartState);
+            }
+            releaseIdlePartition(partState);
         }
     }
 
@@ -1538,30 +1578,27 @@ public class RmtDataCache implements Closeable {
         this.dataProcessSync.countDown();
     }
 
-    private boolean cancelTimeTask(String indexId) {
-        Timeout timeout = timeouts.remove(indexId);
+    private boolean cancelTimeTask(PartitionState partState) {
+        Timeout timeout = partState.timeout.getAndSet(null);
         if (timeout != null) {
+            waitCount.decrementAndGet();
             timeout.cancel();
             return true;
         }
         return false;
     }
 
-    private boolean isTimeWait(String indexId) {
-        return (timeouts.get(indexId) != null);
-    }
-
     private boolean hasPartitionWait() {
-        return !this.timeouts.isEmpty();
+        return this.waitCount.get() > 0;
     }
 
     public class TimeoutTask implements TimerTask {
 
-        private String indexId;
+        private final PartitionState partState;
         private long createTime = 0L;
 
-        public TimeoutTask(final String indexId) {
-            this.indexId = indexId;
+        private TimeoutTask(final PartitionState partState) {
+            this.partState = partState;
             this.createTime = System.currentTimeMillis();
         }
 
@@ -1571,11 +1608,35 @@ public class RmtDataCache implements Closeable {
 
         @Override
         public void run(Timeout timeout) throws Exception {
-            Timeout timeout1 = timeouts.remove(indexId);
-            if (timeout1 != null) {
-                releaseIdlePartition(indexId);
+            if (partState.timeout.compareAndSet(timeout, null)) {
+                waitCount.decrementAndGet();
+                releaseIdlePartition(partState);
             }
         }
     }
-}
 
+    /**
+     * Bookkeeping of an assigned partition. Selecting and releasing a partition looks up its
+     * state once and changes it with atomic operations, instead of checking a map per field
+     * and scanning the ready queue.
+     */
+    private static class PartitionState {
+        private static final long NOT_IN_USE = 0L;
+
+        private final String partitionKey;
+        private final PartitionExt partitionExt;
+        // the select time is the used token, NOT_IN_USE when the partition is not selected
+        private final AtomicLong usedToken = new AtomicLong(NOT_IN_USE);
+        // whether the partition has a valid entry in the ready queue
+        private final AtomicBoolean inReadyQueue = new AtomicBoolean(false);
+        // the delayed release of the partition
+        private final AtomicReference<Timeout> timeout = new AtomicReference<>();
+        private final AtomicReference<ConsumeOffsetInfo> offsetInfo = new AtomicReference<>();
+        private volatile boolean removed = false;
+
+        private PartitionState(String partitionKey, PartitionExt partitionExt) {
+            this.partitionKey = partitionKey;
+            this.partitionExt = partitionExt;
+        }
+    }
+}
@@ -825,7 +825,9 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
                             break;
                         }
                         case TErrCodeConstants.NOT_FOUND: {
-                            limitDlt = consumerConfig.getMsgNotFoundWaitPeriodMs();
+                            // the request has waited on the broker, fetch again at once
+                            limitDlt = msgRspB2C.hasParkedTimeMs()
+                                    ? 0 : consumerConfig.getMsgNotFoundWaitPeriodMs();
                             break;
                         }
                         default: {
@@ -1575,6 +1577,9 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
         builder.setPartitionId(partition.getPartitionId());
         builder.setLastPackConsumed(isLastConsumed);
         builder.setManualCommitOffset(false);
+        if (this.consumerConfig.getFetchMaxWaitMs() > 0) {
+            builder.setMaxWaitMs(this.consumerConfig.getFetchMaxWaitMs());
+        }
         return builder.build();
     }
 
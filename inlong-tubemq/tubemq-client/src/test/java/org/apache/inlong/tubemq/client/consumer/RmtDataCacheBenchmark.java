@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.inlong.tubemq.client.config.ConsumerConfig;
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+/**
+ * Benchmark of the partition select and release of the remote data cache.
+ *
+ * Usage: RmtDataCacheBenchmark [partitionCount] [threadNum] [durationSeconds]
+ */
+public class RmtDataCacheBenchmark {
+
+    private final int partitionCount;
+    private final int threadNum;
+    private final int durationSeconds;
+
+    /**
+     * Initial a benchmark
+     *
+     * @param partitionCount   the partition count, spread on 10 brokers
+     * @param threadNum        the thread count
+     * @param durationSeconds  the running time of the benchmark
+     */
+    public RmtDataCacheBenchmark(int partitionCount, int threadNum, int durationSeconds) {
+        this.partitionCount = partitionCount;
+        this.threadNum = threadNum;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int partitionCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threadNum = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        new RmtDataCacheBenchmark(partitionCount, threadNum, durationSeconds).start();
+    }
+
+    /**
+     * Start benchmark test, each thread selects a partition and releases it at once
+     *
+     * @throws Exception the exception
+     */
+    public void start() throws Exception {
+        List<Partition> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            BrokerInfo brokerInfo = new BrokerInfo(i % 10, "127.0.0." + (i % 10 + 1), 8123);
+            partitions.add(new Partition(brokerInfo, "topic" + (i % 20), i));
+        }
+        ConsumerConfig consumerConfig = new ConsumerConfig("127.0.0.1:8000", "benchmarkGroup");
+        final RmtDataCache rmtDataCache = new RmtDataCache(consumerConfig, partitions);
+        final AtomicLong selectCount = new AtomicLong(0);
+        final AtomicLong missCount = new AtomicLong(0);
+        final long endTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(durationSeconds);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadNum);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < threadNum; i++) {
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    long curSelectCount = 0;
+                    long curMissCount = 0;
+                    long offset = 0;
+                    while (System.currentTimeMillis() < endTime) {
+                        for (int j = 0; j < 1000; j++) {
+                            PartitionSelectResult selectResult = rmtDataCache.pullSelect();
+                            if (!selectResult.isSuccess()) {
+                                curMissCount++;
+                                continue;
+                            }
+                            curSelectCount++;
+                            offset++;
+                            rmtDataCache.succRspRelease(selectResult.getPartition().getPartitionKey(),
+                                    selectResult.getPartition().getTopic(), selectResult.getUsedToken(),
+                                    false, false, offset, offset);
+                        }
+                    }
+                    selectCount.addAndGet(curSelectCount);
+                    missCount.addAndGet(curMissCount);
+                }
+            });
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        long costTime = Math.max(1L, System.currentTimeMillis() - startTime);
+        rmtDataCache.close();
+        System.out.println("partitions " + partitionCount + ", threads " + threadNum
+                + ", select and release " + selectCount.get() + " times, missed " + missCount.get()
+                + " times, cost time:" + costTime + " ms, " + (selectCount.get() * 1000 / costTime) + " ops/s");
+    }
+}
@@ -18,14 +18,18 @@
 package org.apache.inlong.tubemq.client.consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.inlong.tubemq.client.config.ConsumerConfig;
+import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
 import org.junit.Test;
@@ -74,4 +78,62 @@ public class RmtDataCacheTest {
         cache.succRspRelease("1:test:2", "test", 1000, true, true, 1000, 2000);
         cache.close();
     }
+
+    @Test
+    public void testSelectAndRelease() {
+        List<Partition> partitions = new ArrayList<>();
+        BrokerInfo brokerInfo = new BrokerInfo(1, "127.0.0.1", 18080);
+        for (int i = 0; i < 3; i++) {
+            partitions.add(new Partition(brokerInfo, "test", i));
+        }
+        ConsumerConfig consumerConfig = new ConsumerConfig("127.0.0.1:8069", "testGroup");
+        RmtDataCache cache = new RmtDataCache(consumerConfig, partitions);
+
+        // every partition is selected once
+        List<PartitionSelectResult> selectResults = new ArrayList<>();
+        Set<String> selectedKeys = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            PartitionSelectResult selectResult = cache.pullSelect();
+            assertTrue(selectResult.isSuccess());
+            selectResults.add(selectResult);
+            selectedKeys.add(selectResult.getPartition().getPartitionKey());
+        }
+        assertEquals(3, selectedKeys.size());
+        assertEquals(TErrCodeConstants.ALL_PARTITION_INUSE, cache.pullSelect().getErrCode());
+
+        // a release with a stale token is ignored
+        PartitionSelectResult selectResult = selectResults.get(0);
+        String partitionKey = selectResult.getPartition().getPartitionKey();
+        cache.errReqRelease(partitionKey, selectResult.getUsedToken() - 1, true);
+        assertTrue(cache.isPartitionInUse(partitionKey, selectResult.getUsedToken()));
+        assertFalse(cache.pullSelect().isSuccess());
+
+        // the released partition is selectable again, and only once
+        cache.succRspRelease(partitionKey, "test",
+                selectResult.getUsedToken(), true, false, 100, 200);
+        cache.errReqRelease(partitionKey, selectResult.getUsedToken(), true);
+        assertFalse(cache.isPartitionInUse(partitionKey, selectResult.getUsedToken()));
+        selectResult = cache.pullSelect();
+        assertTrue(selectResult.isSuccess());
+        assertEquals(partitionKey, selectResult.getPartition().getPartitionKey());
+        assertFalse(cache.pullSelect().isSuccess());
+        assertNotNull(cache.getCurPartitionInfoMap().get(partitionKey));
+
+        // a removed partition is never selected
+        cache.errReqRelease(partitionKey, selectResult.getUsedToken(), true);
+        cache.removePartition(selectResult.getPartition());
+        assertEquals(TErrCodeConstants.ALL_PARTITION_INUSE, cache.pullSelect().getErrCode());
+
+        // the timed out partitions are released
+        cache.resumeTimeoutConsumePartitions(true, -1);
+        selectedKeys.clear();
+        for (int i = 0; i < 2; i++) {
+            selectResult = cache.pullSelect();
+            assertTrue(selectResult.isSuccess());
+            selectedKeys.add(selectResult.getPartition().getPartitionKey());
+        }
+        assertEquals(2, selectedKeys.size());
+        assertFalse(selectedKeys.contains(partitionKey));
+        cache.close();
+    }
 }
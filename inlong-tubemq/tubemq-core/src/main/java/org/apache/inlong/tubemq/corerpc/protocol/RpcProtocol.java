@@ -29,6 +29,7 @@ import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.codec.PbEnDecoder;
 import org.apache.inlong.tubemq.corerpc.exception.ServiceStoppingException;
 import org.apache.inlong.tubemq.corerpc.exception.StandbyException;
+import org.apache.inlong.tubemq.corerpc.server.AsyncResponse;
 import org.apache.inlong.tubemq.corerpc.server.RequestContext;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 import org.slf4j.Logger;
@@ -110,7 +111,6 @@ public class RpcProtocol implements Protocol {
 
     @Override
     public void handleRequest(final RequestContext context, final String rmtAddress) throws Exception {
-        ResponseWrapper responseWrapper = null;
         RequestWrapper requestWrapper = context.getRequest();
         if (System.currentTimeMillis() - context.getReceiveTime() > requestWrapper.getTimeout()) {
             if (logger.isDebugEnabled()) {
@@ -125,6 +125,9 @@ public class RpcProtocol implements Protocol {
                     RPC_PROTOCOL_VERSION, new ServiceStoppingException("service is stopping...")));
         }
         Method method = null;
+        Object result = null;
+        Throwable throwable = null;
+        AsyncResponse asyncResponse = null;
         StringBuilder sBuilder = new StringBuilder(512);
         try {
             if (!PbEnDecoder.isValidServiceTypeAndMethod(requestWrapper.getServiceType(),
@@ -145,21 +148,44 @@ public class RpcProtocol implements Protocol {
                         .append(requestWrapper.getServiceType())
                         .append(" found on the server").toString());
             }
-            Object result =
-                    method.invoke(processor, requestWrapper.getRequestData(), rmtAddress, isOverTLS);
+            // the service method may take over the response and complete it later
+            AsyncResponse.bind(new AsyncResponse(context,
+                    (asyncResult, asyncThrowable) ->
+                            writeResponse(context, asyncResult, asyncThrowable)));
+            try {
+                result = method.invoke(processor, requestWrapper.getRequestData(), rmtAddress, isOverTLS);
+            } finally {
+                asyncResponse = AsyncResponse.unbind();
+            }
+        } catch (Throwable e2) {
+            throwable = e2;
+        }
+        if (asyncResponse != null) {
+            if (throwable != null) {
+                asyncResponse.completeExceptionally(throwable);
+            }
+            return;
+        }
+        writeResponse(context, result, throwable);
+    }
+
+    private void writeResponse(RequestContext context, Object result, Throwable throwable) {
+        ResponseWrapper responseWrapper;
+        RequestWrapper requestWrapper = context.getRequest();
+        if (throwable == null) {
             responseWrapper =
                     new ResponseWrapper(RpcConstants.RPC_FLAG_MSG_TYPE_RESPONSE,
                             requestWrapper.getSerialNo(), requestWrapper.getServiceType(),
                             RPC_PROTOCOL_VERSION, requestWrapper.getMethodId(), result);
-        } catch (Throwable e2) {
+        } else {
             String errorClass = null;
             String errorInfo = null;
-            if (e2.getCause() != null && e2.getCause() instanceof StandbyException) {
-                errorClass = e2.getCause().getClass().getName();
-                errorInfo = e2.getCause().getMessage();
+            if (throwable.getCause() != null && throwable.getCause() instanceof StandbyException) {
+                errorClass = throwable.getCause().getClass().getName();
+                errorInfo = throwable.getCause().getMessage();
             } else {
-                errorClass = e2.getClass().getName();
-                errorInfo = e2.getMessage();
+                errorClass = throwable.getClass().getName();
+                errorInfo = throwable.getMessage();
             }
             errorClass = MixUtils.replaceClassNamePrefix(errorClass,
                     true, requestWrapper.getProtocolVersion());
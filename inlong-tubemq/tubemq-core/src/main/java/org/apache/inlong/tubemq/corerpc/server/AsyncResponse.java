@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.server;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * The response of a rpc request which is completed asynchronously.
+ *
+ * The rpc protocol binds the response to the thread that invokes the service method.
+ * The service method may call {@link #current()} and {@link #start()} to take over
+ * the response, the value returned by the method is then ignored, and the response is
+ * written to the client when {@link #complete(Object)} is called, possibly in another thread.
+ */
+public class AsyncResponse {
+
+    private static final ThreadLocal<AsyncResponse> boundResponse = new ThreadLocal<>();
+
+    private final RequestContext context;
+    // write the result or the exception to the client
+    private final BiConsumer<Object, Throwable> responder;
+    private volatile boolean started = false;
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    public AsyncResponse(RequestContext context,
+                         BiConsumer<Object, Throwable> responder) {
+        this.context = context;
+        this.responder = responder;
+    }
+
+    /**
+     * Get the response bound to the current thread.
+     *
+     * @return the response, or null if the current thread is not invoking a service method
+     */
+    public static AsyncResponse current() {
+        return boundResponse.get();
+    }
+
+    /**
+     * Bind the response to the current thread, called by the rpc protocol before
+     * invoking the service method.
+     *
+     * @param response    the response of the request to be processed
+     */
+    public static void bind(AsyncResponse response) {
+        boundResponse.set(response);
+    }
+
+    /**
+     * Unbind the response from the current thread, called by the rpc protocol after
+     * the service method returns.
+     *
+     * @return the response if it has been started, otherwise null
+     */
+    public static AsyncResponse unbind() {
+        AsyncResponse response = boundResponse.get();
+        boundResponse.remove();
+        if (response != null && response.started) {
+            return response;
+        }
+        return null;
+    }
+
+    /**
+     * Take over the response, the value returned by the service method will be ignored.
+     */
+    public void start() {
+        this.started = true;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Get the remaining time before the client gives up waiting for the response.
+     *
+     * @return the remaining time in milliseconds
+     */
+    public long getRemainingTimeMs() {
+        return context.getRequest().getTimeout()
+                - (System.currentTimeMillis() - context.getReceiveTime());
+    }
+
+    /**
+     * Complete the response with the result, only the first completion takes effect.
+     *
+     * @param result    the response message
+     * @return          whether the response is written by this call
+     */
+    public boolean complete(Object result) {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        responder.accept(result, null);
+        return true;
+    }
+
+    /**
+     * Complete the response with the exception, only the first completion takes effect.
+     *
+     * @param throwable    the exception during processing
+     * @return             whether the response is written by this call
+     */
+    public boolean completeExceptionally(Throwable throwable) {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        responder.accept(null, throwable);
+        return true;
+    }
+
+    public boolean isCompleted() {
+        return completed.get();
+    }
+}
@@ -91,6 +91,9 @@ public class BrokerConfig extends AbstractFileConfig {
     private long logClearupDurationMs = 3 * 60 * 1000;
     // log flush to disk interval in milliseconds
     private long logFlushDiskDurMs = 20 * 1000;
+    // log flush to disk thread count of each disk
+    private int logFlushDiskThreadCnt =
+            TServerConstants.CFG_DEFAULT_FLUSH_DISK_THREAD_CNT;
     // memory flush to disk interval in milliseconds
     private long logFlushMemDurMs = 10 * 1000;
     // socket send buffer
@@ -123,6 +126,16 @@ public class BrokerConfig extends AbstractFileConfig {
             TServerConstants.CFG_DEFAULT_GROUP_OFFSET_SCAN_DUR;
     // whether to enable the memory cache storage, the default is true, open the memory cache
     private boolean enableMemStore = true;
+    // the maximum count of memory cache slots per message store, one slot is written
+    // while the others are being flushed, the memory used is bounded by slot count * cache size
+    private int memStoreSlotCount =
+            TServerConstants.CFG_DEFAULT_MEM_STORE_SLOT_COUNT;
+    // the maximum duration a fetch request waits on the broker for new data, 0 to disable
+    private long fetchMaxParkMs =
+            TServerConstants.CFG_DEFAULT_FETCH_MAX_PARK_MS;
+    // the thread count to resume the parked fetch requests
+    private int fetchParkThreadCnt =
+            TServerConstants.CFG_DEFAULT_FETCH_PARK_THREAD_CNT;
 
     public BrokerConfig() {
         super();
@@ -132,6 +145,18 @@ public class BrokerConfig extends AbstractFileConfig {
         return enableMemStore;
     }
 
+    public int getMemStoreSlotCount() {
+        return memStoreSlotCount;
+    }
+
+    public long getFetchMaxParkMs() {
+        return fetchMaxParkMs;
+    }
+
+    public int getFetchParkThreadCnt() {
+        return fetchParkThreadCnt;
+    }
+
     public boolean isUpdateConsumerOffsets() {
         return this.updateConsumerOffsets;
     }
@@ -276,6 +301,12 @@ public class BrokerConfig extends AbstractFileConfig {
                 this.logFlushDiskDurMs = 10000;
             }
         }
+        if (TStringUtils.isNotBlank(brokerSect.get("logFlushDiskThreadCnt"))) {
+            this.logFlushDiskThreadCnt =
+                    MixedUtils.mid(getInt(brokerSect, "logFlushDiskThreadCnt"),
+                            TServerConstants.CFG_MIN_FLUSH_DISK_THREAD_CNT,
+                            TServerConstants.CFG_MAX_FLUSH_DISK_THREAD_CNT);
+        }
         if (TStringUtils.isNotBlank(brokerSect.get("logFlushMemDurMs"))) {
             this.logFlushMemDurMs = getLong(brokerSect, "logFlushMemDurMs");
             if (this.logFlushMemDurMs < 10000) {
@@ -377,6 +408,23 @@ public class BrokerConfig extends AbstractFileConfig {
         if (TStringUtils.isNotBlank(brokerSect.get("enableMemStore"))) {
             this.enableMemStore = this.getBoolean(brokerSect, "enableMemStore");
         }
+        if (TStringUtils.isNotBlank(brokerSect.get("memStoreSlotCount"))) {
+            this.memStoreSlotCount =
+                    MixedUtils.mid(getInt(brokerSect, "memStoreSlotCount"),
+                            TServerConstants.CFG_MIN_MEM_STORE_SLOT_COUNT,
+                            TServerConstants.CFG_MAX_MEM_STORE_SLOT_COUNT);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("fetchMaxParkMs"))) {
+            this.fetchMaxParkMs =
+                    MixedUtils.mid(getLong(brokerSect, "fetchMaxParkMs"),
+                            0L, TServerConstants.CFG_MAX_FETCH_MAX_PARK_MS);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("fetchParkThreadCnt"))) {
+            this.fetchParkThreadCnt =
+                    MixedUtils.mid(getInt(brokerSect, "fetchParkThreadCnt"),
+                            TServerConstants.CFG_MIN_FETCH_PARK_THREAD_CNT,
+                            TServerConstants.CFG_MAX_FETCH_PARK_THREAD_CNT);
+        }
     }
 
     public long getLogClearupDurationMs() {
@@ -387,6 +435,10 @@ public class BrokerConfig extends AbstractFileConfig {
         return logFlushDiskDurMs;
     }
 
+    public int getLogFlushDiskThreadCnt() {
+        return logFlushDiskThreadCnt;
+    }
+
     public long getLogFlushMemDurMs() {
         return logFlushMemDurMs;
     }
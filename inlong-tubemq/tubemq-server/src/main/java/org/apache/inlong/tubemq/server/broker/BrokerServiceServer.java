@@ -115,6 +115,8 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
     // consumer timeout listener.
     private final ConsumerTimeoutListener consumerListener =
             new ConsumerTimeoutListener();
+    // parked fetch manager.
+    private final ParkedFetchManager parkedFetchManager;
     // status of broker service.
     private AtomicBoolean started = new AtomicBoolean(false);
 
@@ -136,6 +138,9 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                 new RowLock("Broker-RowLock", this.tubeConfig.getRowLockWaitDurMs());
         heartbeatManager.regConsumerCheckBusiness(
                 this.tubeConfig.getConsumerRegTimeoutMs(), consumerListener);
+        this.parkedFetchManager = new ParkedFetchManager(this,
+                this.storeManager.getMsgArrivalNotifier(),
+                this.tubeConfig.getFetchMaxParkMs(), this.tubeConfig.getFetchParkThreadCnt());
     }
 
     /**
@@ -222,6 +227,7 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
             return;
         }
         heartbeatManager.stop();
+        parkedFetchManager.close();
         putCounterGroup.close(-1);
         getCounterGroup.close(-1);
         AuditUtils.closeAudit();
@@ -277,6 +283,33 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
     public GetMessageResponseB2C getMessagesC2B(GetMessageRequestC2B request,
                                                 final String rmtAddress,
                                                 boolean overtls) throws Throwable {
+        return processGetMessages(request, request.getLastPackConsumed(), -1L);
+    }
+
+    /**
+     * Process the parked getMessageRequest again after woken up.
+     *
+     * @param request          the parked request
+     * @param parkStartTime    the time the request was parked
+     * @return                 the response message
+     */
+    public GetMessageResponseB2C resumeParkedFetch(GetMessageRequestC2B request,
+                                                   long parkStartTime) {
+        // the last consumed offset has been confirmed before parking
+        return processGetMessages(request, false, parkStartTime);
+    }
+
+    /**
+     * Process consumer's getMessageRequest.
+     *
+     * @param request          the request
+     * @param lastConsumed     whether the last messages has been consumed
+     * @param parkStartTime    the time the request was parked, -1 if not parked
+     * @return                 the response message, null if the request is parked
+     */
+    private GetMessageResponseB2C processGetMessages(GetMessageRequestC2B request,
+                                                     boolean lastConsumed,
+                                                     long parkStartTime) {
         final GetMessageResponseB2C.Builder builder =
                 GetMessageResponseB2C.newBuilder();
         builder.setSuccess(false);
@@ -373,9 +406,10 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         try {
             dataStore = this.storeManager.getOrCreateMessageStore(topicName, partitionId);
             isGetStore = true;
+            final long indexMaxOffset = dataStore.getIndexMaxOffset();
             GetMessageResult msgResult =
                     getMessages(dataStore, consumerNodeInfo, groupName, topicName, partitionId,
-                            request.getLastPackConsumed(), request.getManualCommitOffset(),
+                            lastConsumed, request.getManualCommitOffset(),
                             clientId, this.tubeConfig.getHostName(), rmtAddrInfo, isEscFlowCtrl, strBuffer);
             if (msgResult.isSuccess) {
                 consumerNodeInfo.setLastProcInfo(System.currentTimeMillis(),
@@ -394,6 +428,20 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                 builder.setMaxOffset(msgResult.getMaxOffset());
                 return builder.build();
             } else {
+                // only park the request which has read all the messages, the other
+                // not found results, such as the flow control, keep their limit time
+                if (msgResult.getRetCode() == TErrCodeConstants.NOT_FOUND
+                        && msgResult.getReqOffset() >= indexMaxOffset) {
+                    if (parkStartTime < 0) {
+                        if (parkedFetchManager.parkFetch(request,
+                                topicName, partitionId, dataStore, indexMaxOffset)) {
+                            return null;
+                        }
+                    } else {
+                        builder.setParkedTimeMs(
+                                (int) (System.currentTimeMillis() - parkStartTime));
+                    }
+                }
                 builder.setErrCode(msgResult.getRetCode());
                 builder.setErrMsg(msgResult.getErrInfo());
                 builder.setMinLimitTime((int) msgResult.waitTime);
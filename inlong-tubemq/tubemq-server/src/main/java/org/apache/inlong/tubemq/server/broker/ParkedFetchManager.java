@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.GetMessageRequestC2B;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.GetMessageResponseB2C;
+import org.apache.inlong.tubemq.corerpc.server.AsyncResponse;
+import org.apache.inlong.tubemq.server.broker.msgstore.MessageStore;
+import org.apache.inlong.tubemq.server.broker.msgstore.MsgArrivalNotifier;
+import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parked fetch manager. A fetch request that finds no new messages is parked on the broker
+ * instead of being answered with NOT_FOUND immediately, it is resumed as soon as new messages
+ * are appended to the partition, or when the max wait time of the request is reached.
+ *
+ * The parked request does not occupy the rpc worker thread, the response is written by the
+ * resume workers after the request is processed again.
+ */
+public class ParkedFetchManager {
+    private static final Logger logger = LoggerFactory.getLogger(ParkedFetchManager.class);
+    // the time reserved for processing and writing the response before the rpc timeout
+    private static final long RESPONSE_RESERVED_MS = 500L;
+    private final BrokerServiceServer brokerService;
+    private final MsgArrivalNotifier arrivalNotifier;
+    // the max park duration allowed by the broker
+    private final long maxParkMs;
+    private final ScheduledThreadPoolExecutor timeoutTimer;
+    private final ExecutorService resumeWorkers;
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    public ParkedFetchManager(BrokerServiceServer brokerService,
+                              MsgArrivalNotifier arrivalNotifier,
+                              long maxParkMs, int resumeThreadCnt) {
+        this.brokerService = brokerService;
+        this.arrivalNotifier = arrivalNotifier;
+        this.maxParkMs = maxParkMs;
+        this.timeoutTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Broker Parked Fetch Timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.timeoutTimer.setRemoveOnCancelPolicy(true);
+        final AtomicInteger threadIndex = new AtomicInteger(0);
+        this.resumeWorkers = Executors.newFixedThreadPool(resumeThreadCnt, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Broker Parked Fetch Thread-"
+                        + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Try to park the fetch request that found no new messages.
+     *
+     * @param request           the fetch request
+     * @param topic             the topic name
+     * @param partitionId       the partition id
+     * @param msgStore          the message store of the partition
+     * @param indexMaxOffset    the index max offset of the store before the messages were queried
+     * @return                  true if parked, the response will be written asynchronously,
+     *                          false if the request should be answered directly
+     */
+    public boolean parkFetch(GetMessageRequestC2B request, String topic,
+                             int partitionId, MessageStore msgStore, long indexMaxOffset) {
+        if (stopped.get()
+                || maxParkMs <= 0
+                || !request.hasMaxWaitMs()
+                || request.getMaxWaitMs() <= 0) {
+            return false;
+        }
+        AsyncResponse asyncResponse = AsyncResponse.current();
+        if (asyncResponse == null) {
+            return false;
+        }
+        long parkMs = Math.min(Math.min(request.getMaxWaitMs(), maxParkMs),
+                asyncResponse.getRemainingTimeMs() - RESPONSE_RESERVED_MS);
+        if (parkMs <= 0) {
+            return false;
+        }
+        asyncResponse.start();
+        ParkedFetch parkedFetch =
+                new ParkedFetch(request, topic, partitionId, asyncResponse);
+        BrokerSrvStatsHolder.incParkedFetchCnt();
+        arrivalNotifier.register(topic, partitionId, parkedFetch);
+        try {
+            parkedFetch.timeoutFuture =
+                    timeoutTimer.schedule(parkedFetch, parkMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the manager is stopped, resume at once
+            parkedFetch.wakeup(false, System.currentTimeMillis());
+            return true;
+        }
+        // messages appended between the query and the registration are not notified
+        if (msgStore.getIndexMaxOffset() != indexMaxOffset) {
+            parkedFetch.wakeup(false, System.currentTimeMillis());
+        }
+        return true;
+    }
+
+    /**
+     * Stop the timer and the resume workers.
+     */
+    public void close() {
+        if (stopped.compareAndSet(false, true)) {
+            timeoutTimer.shutdownNow();
+            resumeWorkers.shutdown();
+        }
+    }
+
+    /**
+     * Process the parked request again, and write the response.
+     *
+     * @param parkedFetch    the parked fetch request
+     * @param isArrival      whether woken up by the message arrival
+     * @param wakeupTime     the message arrival time or the timeout time
+     */
+    private void resume(ParkedFetch parkedFetch, boolean isArrival, long wakeupTime) {
+        try {
+            GetMessageResponseB2C response =
+                    brokerService.resumeParkedFetch(parkedFetch.request, parkedFetch.parkStartTime);
+            parkedFetch.asyncResponse.complete(response);
+            if (isArrival) {
+                BrokerSrvStatsHolder.updParkedFetchWakeupDlt(
+                        System.currentTimeMillis() - wakeupTime);
+            }
+        } catch (Throwable e) {
+            logger.warn("[Parked Fetch] resume parked fetch failure, topic="
+                    + parkedFetch.topic + ", partitionId=" + parkedFetch.partitionId, e);
+            parkedFetch.asyncResponse.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * The parked fetch request, woken up by the message arrival or the timeout.
+     */
+    private class ParkedFetch implements MsgArrivalNotifier.ArrivalWaiter, Runnable {
+        private final GetMessageRequestC2B request;
+        private final String topic;
+        private final int partitionId;
+        private final AsyncResponse asyncResponse;
+        private final long parkStartTime = System.currentTimeMillis();
+        private final AtomicBoolean isWokenUp = new AtomicBoolean(false);
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        public ParkedFetch(GetMessageRequestC2B request, String topic,
+                           int partitionId, AsyncResponse asyncResponse) {
+            this.request = request;
+            this.topic = topic;
+            this.partitionId = partitionId;
+            this.asyncResponse = asyncResponse;
+        }
+
+        @Override
+        public void onArrival(long arrivalTime) {
+            wakeup(true, arrivalTime);
+        }
+
+        @Override
+        public void run() {
+            wakeup(false, System.currentTimeMillis());
+        }
+
+        public void wakeup(final boolean isArrival, final long wakeupTime) {
+            if (!isWokenUp.compareAndSet(false, true)) {
+                return;
+            }
+            arrivalNotifier.unregister(topic, partitionId, this);
+            ScheduledFuture<?> future = timeoutFuture;
+            if (future != null) {
+                future.cancel(false);
+            }
+            BrokerSrvStatsHolder.decParkedFetchCnt(!isArrival);
+            try {
+                resumeWorkers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        resume(ParkedFetch.this, isArrival, wakeupTime);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                asyncResponse.complete(GetMessageResponseB2C.newBuilder()
+                        .setSuccess(false)
+                        .setErrCode(TErrCodeConstants.SERVICE_UNAVAILABLE)
+                        .setErrMsg("Read StoreService temporary unavailable!")
+                        .setCurrOffset(-1).setEscFlowCtrl(false)
+                        .setCurrDataDlt(-1).setMinLimitTime(0).build());
+            }
+        }
+    }
+}
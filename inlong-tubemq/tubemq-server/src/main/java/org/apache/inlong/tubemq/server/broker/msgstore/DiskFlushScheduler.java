@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk flush scheduler. The message stores are grouped by the disk their files are located on,
+ * and each disk has its own flush workers, so a slow disk does not delay the stores on other disks.
+ *
+ * Stores of one disk are flushed in store directory order, adjacent stores are assigned to the
+ * same worker and synced back to back. Only one flush round runs on a disk at a time, if the
+ * previous round is still running when a new round is requested, the request is merged into
+ * the next round instead of being queued, and the waiting stores are reported as backlog.
+ *
+ * The appending does not sync the files itself when the unflushed thresholds are reached, it
+ * requests a flush from the disk instead. All the requests of a store that arrive before the
+ * next round are merged, and the store is synced once in that round, which starts as soon as
+ * the running round ends.
+ */
+public class DiskFlushScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(DiskFlushScheduler.class);
+    // the flush thread count of each disk
+    private final int threadCntPerDisk;
+    // the disk flush groups, disk name -> flush group
+    private final ConcurrentHashMap<String, DiskFlushGroup> diskGroups = new ConcurrentHashMap<>();
+    // the cached disk name of stores, store key -> disk name
+    private final ConcurrentHashMap<String, String> storeDiskNames = new ConcurrentHashMap<>();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    public DiskFlushScheduler(int threadCntPerDisk) {
+        this.threadCntPerDisk = threadCntPerDisk;
+    }
+
+    /**
+     * Start a flush round of the given stores, the stores are dispatched to the
+     * flush workers of their disks.
+     *
+     * @param msgStores    the message stores to be flushed
+     */
+    public void flushStores(Collection<MessageStore> msgStores) {
+        if (stopped.get()) {
+            return;
+        }
+        Set<String> storeKeys = new HashSet<>();
+        Map<String, List<MessageStore>> diskStoreMap = new HashMap<>();
+        for (MessageStore msgStore : msgStores) {
+            storeKeys.add(msgStore.getStoreKey());
+            String diskName = getDiskName(msgStore);
+            List<MessageStore> diskStores = diskStoreMap.get(diskName);
+            if (diskStores == null) {
+                diskStores = new ArrayList<>();
+                diskStoreMap.put(diskName, diskStores);
+            }
+            diskStores.add(msgStore);
+        }
+        // clear the cached disk name of removed stores
+        storeDiskNames.keySet().retainAll(storeKeys);
+        for (Map.Entry<String, List<MessageStore>> entry : diskStoreMap.entrySet()) {
+            DiskFlushGroup flushGroup = diskGroups.get(entry.getKey());
+            if (flushGroup == null) {
+                DiskFlushGroup newGroup = new DiskFlushGroup(entry.getKey());
+                flushGroup = diskGroups.putIfAbsent(entry.getKey(), newGroup);
+                if (flushGroup == null) {
+                    flushGroup = newGroup;
+                } else {
+                    newGroup.workers.shutdown();
+                }
+            }
+            flushGroup.startRound(entry.getValue());
+        }
+    }
+
+    /**
+     * Request a flush of the store, the store is synced in the next flush round of its disk,
+     * the round is started at once if no round is running on the disk.
+     *
+     * @param msgStore    the message store to be flushed
+     */
+    public void requestFlush(MessageStore msgStore) {
+        if (stopped.get()) {
+            return;
+        }
+        String diskName = getDiskName(msgStore);
+        DiskFlushGroup flushGroup = diskGroups.get(diskName);
+        if (flushGroup == null) {
+            DiskFlushGroup newGroup = new DiskFlushGroup(diskName);
+            flushGroup = diskGroups.putIfAbsent(diskName, newGroup);
+            if (flushGroup == null) {
+                flushGroup = newGroup;
+            } else {
+                newGroup.workers.shutdown();
+            }
+        }
+        flushGroup.requestedStores.add(msgStore);
+        flushGroup.startRound(Collections.<MessageStore>emptyList());
+    }
+
+    /**
+     * Stop all the flush workers.
+     */
+    public void close() {
+        if (stopped.compareAndSet(false, true)) {
+            for (DiskFlushGroup flushGroup : diskGroups.values()) {
+                flushGroup.workers.shutdownNow();
+            }
+            diskGroups.clear();
+        }
+    }
+
+    /**
+     * Get the disk name where the store is located. The name of the file system
+     * is used, and the store path is used if the file system can not be determined.
+     *
+     * @param msgStore    the message store
+     * @return            the disk name
+     */
+    private String getDiskName(MessageStore msgStore) {
+        String diskName = storeDiskNames.get(msgStore.getStoreKey());
+        if (diskName != null) {
+            return diskName;
+        }
+        String storeDir = msgStore.getPrimStorePath() + File.separator + msgStore.getStoreKey();
+        try {
+            FileStore fileStore = Files.getFileStore(new File(storeDir).toPath());
+            diskName = fileStore.name();
+        } catch (IOException e) {
+            logger.warn("[Store Manager] Get file system of {} failure, use store path instead",
+                    storeDir, e);
+            diskName = msgStore.getPrimStorePath();
+        }
+        // keep the name usable as the metric prefix
+        diskName = diskName.replaceAll("[^A-Za-z0-9]+", "_");
+        storeDiskNames.put(msgStore.getStoreKey(), diskName);
+        return diskName;
+    }
+
+    /**
+     * The flush workers and flush round status of one disk
+     */
+    private class DiskFlushGroup {
+        private final String diskName;
+        private final ExecutorService workers;
+        // whether a flush round is running
+        private final AtomicBoolean isRunning = new AtomicBoolean(false);
+        // the count of stores waiting to be flushed in the running round
+        private final AtomicInteger pendingCnt = new AtomicInteger(0);
+        // the stores requested a flush by the appending, synced once in the next round
+        private final Set<MessageStore> requestedStores = ConcurrentHashMap.newKeySet();
+
+        public DiskFlushGroup(String diskName) {
+            this.diskName = diskName;
+            final AtomicInteger threadIndex = new AtomicInteger(0);
+            this.workers = Executors.newFixedThreadPool(threadCntPerDisk, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, "Broker Log Disk Flush Thread-"
+                            + diskName + "-" + threadIndex.incrementAndGet());
+                }
+            });
+        }
+
+        public void startRound(List<MessageStore> msgStores) {
+            BrokerSrvStatsHolder.updDiskFlushBacklog(diskName, pendingCnt.get());
+            if (!isRunning.compareAndSet(false, true)) {
+                // the previous round is still running, merge into the next round
+                return;
+            }
+            // take the requested stores, the requests arriving from now on go to the next round
+            final Set<MessageStore> roundRequested = new HashSet<>();
+            Iterator<MessageStore> iterator = requestedStores.iterator();
+            while (iterator.hasNext()) {
+                roundRequested.add(iterator.next());
+                iterator.remove();
+            }
+            Set<MessageStore> roundStoreSet = new HashSet<>(msgStores);
+            roundStoreSet.addAll(roundRequested);
+            if (roundStoreSet.isEmpty()) {
+                // the requests are taken by the previous round
+                isRunning.set(false);
+                if (!requestedStores.isEmpty()) {
+                    startRound(msgStores);
+                }
+                return;
+            }
+            List<MessageStore> roundStores = new ArrayList<>(roundStoreSet);
+            Collections.sort(roundStores, new Comparator<MessageStore>() {
+                @Override
+                public int compare(MessageStore o1, MessageStore o2) {
+                    return o1.getStoreKey().compareTo(o2.getStoreKey());
+                }
+            });
+            final long startTime = System.currentTimeMillis();
+            // hold one count while submitting, so that the round does not end before all slices are submitted
+            pendingCnt.set(1);
+            int sliceCnt = Math.max(1, Math.min(threadCntPerDisk, roundStores.size()));
+            int sliceSize = Math.max(1, (roundStores.size() + sliceCnt - 1) / sliceCnt);
+            for (int start = 0; start < roundStores.size(); start += sliceSize) {
+                final List<MessageStore> sliceStores =
+                        roundStores.subList(start, Math.min(start + sliceSize, roundStores.size()));
+                // count only the stores of the submitted slices
+                pendingCnt.addAndGet(sliceStores.size());
+                try {
+                    workers.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            flushSlice(sliceStores, roundRequested, startTime);
+                        }
+                    });
+                } catch (Throwable e) {
+                    // the workers are stopped
+                    pendingCnt.addAndGet(-sliceStores.size());
+                    break;
+                }
+            }
+            finishStore(startTime);
+        }
+
+        private void flushSlice(List<MessageStore> sliceStores,
+                                Set<MessageStore> roundRequested, long startTime) {
+            StringBuilder sBuilder = new StringBuilder(256);
+            for (MessageStore msgStore : sliceStores) {
+                try {
+                    msgStore.flushFile(roundRequested.contains(msgStore));
+                } catch (final Throwable e) {
+                    logger.error(sBuilder.append("[Store Manager] Try to flush ")
+                            .append(msgStore.getStoreKey())
+                            .append("'s file-store failed : ").toString(), e);
+                    sBuilder.delete(0, sBuilder.length());
+                }
+                finishStore(startTime);
+            }
+        }
+
+        private void finishStore(long startTime) {
+            if (pendingCnt.decrementAndGet() == 0) {
+                BrokerSrvStatsHolder.updDiskFlushDlt(diskName,
+                        System.currentTimeMillis() - startTime);
+                isRunning.set(false);
+                // start the round of the requests merged while this round was running
+                if (!requestedStores.isEmpty() && !stopped.get()) {
+                    try {
+                        workers.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                startRound(Collections.<MessageStore>emptyList());
+                            }
+                        });
+                    } catch (Throwable e) {
+                        // the workers are stopped
+                    }
+                }
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.inlong.tubemq.server.broker.msgstore;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -62,8 +63,8 @@ public class MessageStore implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(MessageStore.class);
     private static final long FLUSH_CONDITION_WAIT_DLT_NS =
             TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FLUSH_SLOT_MAX_WAIT_MS = 2000L;
     private final ReentrantLock flushMutex = new ReentrantLock();
-    private final AtomicBoolean hasFlushBeenTriggered = new AtomicBoolean(false);
     private final TopicMetadata topicMetadata;
     // sequencer id generator.
     private final IdWorker idWorker;
@@ -77,7 +78,6 @@ public class MessageStore implements Closeable {
     private final MsgFileStore msgFileStore;
     private final ReentrantReadWriteLock writeCacheMutex = new ReentrantReadWriteLock();
     private final Condition flushWriteCacheCondition = writeCacheMutex.writeLock().newCondition();
-    private final AtomicBoolean isFlushOngoing = new AtomicBoolean(false);
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private volatile int partitionNum;
@@ -103,8 +103,16 @@ public class MessageStore implements Closeable {
             = new AtomicInteger(this.fileMaxFilterIndexReadCnt.get() * DataStoreUtils.STORE_INDEX_HEAD_LEN);
     private final AtomicInteger fileLowReqMaxFilterIndexReadSize
             = new AtomicInteger(this.fileLowReqMaxFilterIndexReadCnt.get() * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+    // the maximum count of allocated cache slots
+    private final int memStoreSlotCount;
+    // the current writing cache slot
     private MsgMemStore msgMemStore;
-    private MsgMemStore msgMemStoreBeingFlush;
+    // the full cache slots waiting to be flushed, ordered from oldest to newest
+    private final ArrayDeque<MsgMemStore> msgMemStoresBeingFlush = new ArrayDeque<>();
+    // the flushed cache slots that can be reused
+    private final ArrayDeque<MsgMemStore> msgMemStoresIdle = new ArrayDeque<>();
+    // the count of allocated cache slots, including the writing, flushing and idle ones
+    private int allocatedSlotCnt = 0;
 
     /**
      * MessageStore, initial message store block
@@ -152,6 +160,7 @@ public class MessageStore implements Closeable {
         this.writeCacheMaxCnt = topicMetadata.getMemCacheMsgCnt();
         this.writeCacheMaxSize = validAndGetMemCacheSize(topicMetadata);
         this.writeCacheFlushIntvl = topicMetadata.getMemCacheFlushIntvl();
+        this.memStoreSlotCount = tubeConfig.getMemStoreSlotCount();
         int tmpIndexReadCnt = tubeConfig.getIndexTransCount() * partitionNum;
         memMaxIndexReadCnt.set(MixedUtils.mid(tmpIndexReadCnt, 6000, 10000));
         fileMaxIndexReadCnt.set(MixedUtils.mid(tmpIndexReadCnt, 8000, 13500));
@@ -166,8 +175,7 @@ public class MessageStore implements Closeable {
         if (this.tubeConfig.isEnableMemStore()) {
             this.msgMemStore = new MsgMemStore(this.writeCacheMaxSize, this.writeCacheMaxCnt,
                     this.msgFileStore.getDataMaxOffset(), this.msgFileStore.getIndexMaxOffset());
-            this.msgMemStoreBeingFlush = new MsgMemStore(this.writeCacheMaxSize, this.writeCacheMaxCnt,
-                    this.msgFileStore.getDataMaxOffset(), this.msgFileStore.getIndexMaxOffset());
+            this.allocatedSlotCnt = 1;
             this.lastMemFlushTime.set(System.currentTimeMillis());
         }
     }
@@ -211,10 +219,19 @@ public class MessageStore implements Closeable {
                     this.writeCacheMutex.readLock().lock();
                     try {
                         maxIndexOffset = this.msgMemStore.getIndexLastWritePos();
-                        result = this.msgMemStoreBeingFlush.isOffsetInHold(requestOffset);
+                        MsgMemStore oldestStore = this.msgMemStoresBeingFlush.isEmpty()
+                                ? this.msgMemStore : this.msgMemStoresBeingFlush.peekFirst();
+                        result = oldestStore.isOffsetInHold(requestOffset);
                         if (result >= 0) {
                             inMemCache = true;
-                            if (result > 0) {
+                            MsgMemStore backupStore = null;
+                            for (MsgMemStore memStore : this.msgMemStoresBeingFlush) {
+                                if (memStore.isOffsetInHold(requestOffset) == 0) {
+                                    backupStore = memStore;
+                                    break;
+                                }
+                            }
+                            if (backupStore == null) {
                                 if (reqSwitch > 2) {
                                     memMsgRlt =
                                             // read from main memory.
@@ -227,7 +244,7 @@ public class MessageStore implements Closeable {
                             } else {
                                 // read from backup memory.
                                 memMsgRlt =
-                                        msgMemStoreBeingFlush.getMessages(consumerNodeInfo.getLastDataRdOffset(),
+                                        backupStore.getMessages(consumerNodeInfo.getLastDataRdOffset(),
                                                 requestOffset, msgStoreMgr.getMaxMsgTransferSize(),
                                                 maxIndexReadLength, partitionId, true,
                                                 consumerNodeInfo.isFilterConsume(),
@@ -339,8 +356,10 @@ public class MessageStore implements Closeable {
         this.writeCacheMutex.readLock().lock();
         try {
             // read from backup memory.
-            if (timestamp <= this.msgMemStoreBeingFlush.getRightAppendTime()) {
-                return this.msgMemStoreBeingFlush.getIndexStartWritePos();
+            for (MsgMemStore memStore : this.msgMemStoresBeingFlush) {
+                if (timestamp <= memStore.getRightAppendTime()) {
+                    return memStore.getIndexStartWritePos();
+                }
             }
             // read from main memory.
             return this.msgMemStore.getIndexStartWritePos();
@@ -397,6 +416,23 @@ public class MessageStore implements Closeable {
                               int partitionId, int sentAddr,
                               long receivedTime, int count,
                               long waitRetryMs) throws IOException {
+        boolean isAppended = appendMsgToStore(appendResult, dataLength,
+                dataCheckSum, data, msgTypeCode, msgFlag, partitionId,
+                sentAddr, receivedTime, count, waitRetryMs);
+        if (isAppended) {
+            // wake up the fetch requests waiting for new messages of the partition
+            this.msgStoreMgr.getMsgArrivalNotifier()
+                    .notifyArrival(this.topicMetadata.getTopic(), partitionId);
+        }
+        return isAppended;
+    }
+
+    private boolean appendMsgToStore(AppendResult appendResult, int dataLength,
+                                     int dataCheckSum, byte[] data,
+                                     int msgTypeCode, int msgFlag,
+                                     int partitionId, int sentAddr,
+                                     long receivedTime, int count,
+                                     long waitRetryMs) throws IOException {
         if (this.closed.get()) {
             throw new IllegalStateException(new StringBuilder(512)
                     .append("[Data Store] Closed MessageStore for storeKey ")
@@ -429,10 +465,12 @@ public class MessageStore implements Closeable {
         indexBuffer.flip();
         appendResult.putReceivedInfo(messageId, receivedTime);
         if (this.tubeConfig.isEnableMemStore()) {
+            MsgMemStore fullStore;
             do {
                 this.writeCacheMutex.readLock().lock();
                 try {
-                    if (this.msgMemStore.appendMsg(msgStoreStatsHolder,
+                    fullStore = this.msgMemStore;
+                    if (fullStore.appendMsg(msgStoreStatsHolder,
                             partitionId, msgTypeCode, receivedTime, indexBuffer,
                             msgBufLen, dataBuffer, appendResult)) {
                         return true;
@@ -440,7 +478,7 @@ public class MessageStore implements Closeable {
                 } finally {
                     this.writeCacheMutex.readLock().unlock();
                 }
-                if (triggerFlushAndAddMsg(true, false, partitionId, msgTypeCode,
+                if (triggerFlushAndAddMsg(fullStore, true, false, partitionId, msgTypeCode,
                         receivedTime, indexBuffer, msgBufLen, dataBuffer, appendResult)) {
                     return true;
                 }
@@ -523,15 +561,23 @@ public class MessageStore implements Closeable {
     /**
      * Flush file store to disk.
      *
+     * @param isRequested    whether the flush is requested by the appending
      * @throws IOException the exception during processing
      */
-    public void flushFile() throws IOException {
+    public void flushFile(boolean isRequested) throws IOException {
         if (this.closed.get()) {
             throw new IllegalStateException(new StringBuilder(512)
                     .append("[Data Store] Closed MessageStore for storeKey ")
                     .append(this.storeKey).toString());
         }
-        msgFileStore.flushDiskFile();
+        msgFileStore.flushDiskFile(isRequested);
+    }
+
+    /**
+     * Request a flush of file store from the flush round of its disk.
+     */
+    public void requestFileFlush() {
+        msgStoreMgr.requestDiskFlush(this);
     }
 
     /**
@@ -548,7 +594,7 @@ public class MessageStore implements Closeable {
         if (tubeConfig.isEnableMemStore()) {
             if (msgMemStore.getCurMsgCount() > 0
                     && (System.currentTimeMillis() - this.lastMemFlushTime.get()) >= this.writeCacheFlushIntvl) {
-                triggerFlushAndAddMsg(false, true, -1, 0, 0, null, 0, null, null);
+                triggerFlushAndAddMsg(null, false, true, -1, 0, 0, null, 0, null, null);
             }
         }
     }
@@ -562,10 +608,22 @@ public class MessageStore implements Closeable {
             strBuffer.delete(0, strBuffer.length());
             if (tubeConfig.isEnableMemStore()) {
                 ThreadUtils.sleep(100);
-                flush(System.currentTimeMillis(), strBuffer);
-                this.msgMemStore.close();
-                this.msgMemStoreBeingFlush.close();
+                flush(System.currentTimeMillis(), true, strBuffer);
                 this.executor.shutdown();
+                this.writeCacheMutex.writeLock().lock();
+                try {
+                    this.msgMemStore.close();
+                    for (MsgMemStore memStore : this.msgMemStoresBeingFlush) {
+                        memStore.close();
+                    }
+                    for (MsgMemStore memStore : this.msgMemStoresIdle) {
+                        memStore.close();
+                    }
+                    this.msgMemStoresBeingFlush.clear();
+                    this.msgMemStoresIdle.clear();
+                } finally {
+                    this.writeCacheMutex.writeLock().unlock();
+                }
             }
             this.msgFileStore.close();
             logger.info(strBuffer.append("[Data Store] Message store stopped")
@@ -678,8 +736,8 @@ public class MessageStore implements Closeable {
                 if (this.msgMemStore.getCurMsgCount() > 0) {
                     totalSize += this.msgMemStore.getIndexCacheSize();
                 }
-                if (this.msgMemStoreBeingFlush.getCurMsgCount() > 0) {
-                    totalSize += this.msgMemStoreBeingFlush.getIndexCacheSize();
+                for (MsgMemStore memStore : this.msgMemStoresBeingFlush) {
+                    totalSize += memStore.getIndexCacheSize();
                 }
             } finally {
                 this.writeCacheMutex.readLock().unlock();
@@ -704,8 +762,8 @@ public class MessageStore implements Closeable {
                 if (this.msgMemStore.getCurMsgCount() > 0) {
                     totalSize += this.msgMemStore.getCurDataCacheSize();
                 }
-                if (this.msgMemStoreBeingFlush.getCurMsgCount() > 0) {
-                    totalSize += this.msgMemStoreBeingFlush.getCurDataCacheSize();
+                for (MsgMemStore memStore : this.msgMemStoresBeingFlush) {
+                    totalSize += memStore.getCurDataCacheSize();
                 }
             } finally {
                 this.writeCacheMutex.readLock().unlock();
@@ -752,6 +810,10 @@ public class MessageStore implements Closeable {
     /**
      * Append message and trigger flush operation.
      *
+     * The full writing slot is moved to the flush queue and replaced by an idle slot,
+     * the caller only waits when all the slots are waiting to be flushed.
+     *
+     * @param fullStore         the writing slot found full, null if triggered by timer
      * @param needAdd           whether to add a message
      * @param isTimeTrigger     whether is timer trigger
      * @param partitionId       the partitionId for reading messages
@@ -765,43 +827,38 @@ public class MessageStore implements Closeable {
      * @return                  the append result
      * @throws IOException      the exception during processing
      */
-    private boolean triggerFlushAndAddMsg(boolean needAdd, boolean isTimeTrigger,
+    private boolean triggerFlushAndAddMsg(MsgMemStore fullStore,
+                                          boolean needAdd, boolean isTimeTrigger,
                                           int partitionId, int keyCode,
                                           long receivedTime, ByteBuffer indexEntry,
                                           int dataLength, ByteBuffer dataEntry,
                                           AppendResult appendResult) throws IOException {
-        long startTime;
+        long stallStartTime = 0L;
         writeCacheMutex.writeLock().lock();
         try {
-            if (!isFlushOngoing.get() && hasFlushBeenTriggered.compareAndSet(false, true)) {
-                this.executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        long startTime2 = System.currentTimeMillis();
-                        try {
-                            final StringBuilder strBuffer = new StringBuilder(512);
-                            flush(startTime2, strBuffer);
-                        } catch (Throwable e) {
-                            logger.error("[Data Store] Error during flush", e);
-                        } finally {
-                            msgStoreStatsHolder.addCacheFlushTime(
-                                    (System.currentTimeMillis() - startTime2), isTimeTrigger);
-                        }
+            // the writing slot may have been replaced by another thread
+            while ((fullStore == null || fullStore == msgMemStore)
+                    && msgMemStore.getCurMsgCount() > 0) {
+                MsgMemStore newStore = acquireMemStoreSlot();
+                if (newStore != null) {
+                    rotateWriteCache(newStore, isTimeTrigger);
+                    break;
+                }
+                // all slots are waiting to be flushed
+                if (stallStartTime == 0L) {
+                    msgStoreStatsHolder.addCachePending();
+                    if (!needAdd) {
+                        break;
                     }
-                });
-            } else {
-                msgStoreStatsHolder.addCachePending();
-            }
-            startTime = System.currentTimeMillis();
-            while (hasFlushBeenTriggered.get()) {
-                flushWriteCacheCondition.awaitNanos(FLUSH_CONDITION_WAIT_DLT_NS);
-                if (System.currentTimeMillis() - startTime > 2000) {
+                    stallStartTime = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - stallStartTime > FLUSH_SLOT_MAX_WAIT_MS) {
                     logger.warn(new StringBuilder(512)
                             .append("[Data Store] StoreKey=").append(storeKey)
                             .append(" Wait Cache flush write too long! wait time is ")
-                            .append(System.currentTimeMillis() - startTime).toString());
+                            .append(System.currentTimeMillis() - stallStartTime).toString());
                     break;
                 }
+                flushWriteCacheCondition.awaitNanos(FLUSH_CONDITION_WAIT_DLT_NS);
             }
             if (needAdd) {
                 return msgMemStore.appendMsg(msgStoreStatsHolder, partitionId, keyCode,
@@ -815,23 +872,122 @@ public class MessageStore implements Closeable {
                     .append(storeKey).toString());
         } finally {
             writeCacheMutex.writeLock().unlock();
+            if (stallStartTime > 0L) {
+                msgStoreStatsHolder.addCacheFlushStall(System.currentTimeMillis() - stallStartTime);
+            }
         }
         return false;
     }
 
-    private void flush(long startTime, StringBuilder strBuffer) throws IOException {
+    /**
+     * Get a slot for writing, reuse the idle slot if its capacity is not changed,
+     * or allocate a new one if the slot count limit is not reached.
+     * Must be called with the write lock of writeCacheMutex held.
+     *
+     * @return    the slot, or null if all slots are waiting to be flushed
+     */
+    private MsgMemStore acquireMemStoreSlot() {
+        MsgMemStore memStore = msgMemStoresIdle.pollFirst();
+        if (memStore != null) {
+            if (memStore.getMaxAllowedMsgCount() == writeCacheMaxCnt
+                    && memStore.getMaxDataCacheSize() == writeCacheMaxSize) {
+                return memStore;
+            }
+            memStore.close();
+            allocatedSlotCnt--;
+            msgStoreStatsHolder.addCacheReAlloc();
+            logger.info(new StringBuilder(512).append("[Data Store] Found ").append(getStoreKey())
+                    .append(" Cache capacity change, new MemSize=")
+                    .append(writeCacheMaxSize).append(", new CacheCnt=")
+                    .append(writeCacheMaxCnt).toString());
+        }
+        if (allocatedSlotCnt < memStoreSlotCount) {
+            allocatedSlotCnt++;
+            return new MsgMemStore(writeCacheMaxSize, writeCacheMaxCnt,
+                    msgMemStore.getDataLastWritePos(), msgMemStore.getIndexLastWritePos());
+        }
+        return null;
+    }
+
+    /**
+     * Move the writing slot to the flush queue and submit the flush task.
+     * Must be called with the write lock of writeCacheMutex held.
+     *
+     * @param newStore          the new writing slot
+     * @param isTimeTrigger     whether is timer trigger
+     */
+    private void rotateWriteCache(MsgMemStore newStore, boolean isTimeTrigger) {
+        newStore.resetMemStoreStatus(msgMemStore.getDataLastWritePos(),
+                msgMemStore.getIndexLastWritePos());
+        msgMemStoresBeingFlush.addLast(msgMemStore);
+        msgMemStore = newStore;
+        lastMemFlushTime.set(System.currentTimeMillis());
+        this.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long startTime2 = System.currentTimeMillis();
+                try {
+                    final StringBuilder strBuffer = new StringBuilder(512);
+                    flush(startTime2, false, strBuffer);
+                } catch (Throwable e) {
+                    logger.error("[Data Store] Error during flush", e);
+                } finally {
+                    msgStoreStatsHolder.addCacheFlushTime(
+                            (System.currentTimeMillis() - startTime2), isTimeTrigger);
+                }
+            }
+        });
+    }
+
+    /**
+     * Flush the waiting slots to file in order, the flushed slot is kept for reuse.
+     *
+     * @param startTime       the start time
+     * @param isClosing       whether to flush the writing slot too
+     * @param strBuffer       the message buffer
+     * @throws IOException    the exception during processing
+     */
+    private void flush(long startTime, boolean isClosing, StringBuilder strBuffer) throws IOException {
         flushMutex.lock();
-        this.lastMemFlushTime.set(System.currentTimeMillis());
         try {
-            swapWriteCache(strBuffer);
-            if (logger.isDebugEnabled()) {
-                logger.debug(strBuffer.append("[Data Store] StoreKey=").append(storeKey)
-                        .append(" Flushing entries.count:")
-                        .append(msgMemStoreBeingFlush.getCurMsgCount())
-                        .append(" -- getCachedSize ")
-                        .append(msgMemStoreBeingFlush.getCurDataCacheSize() / 1024.0 / 1024)
-                        .append(" Mb").toString());
-                strBuffer.delete(0, strBuffer.length());
+            MsgMemStore flushStore;
+            while (true) {
+                writeCacheMutex.readLock().lock();
+                try {
+                    flushStore = msgMemStoresBeingFlush.peekFirst();
+                } finally {
+                    writeCacheMutex.readLock().unlock();
+                }
+                if (flushStore == null) {
+                    break;
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug(strBuffer.append("[Data Store] StoreKey=").append(storeKey)
+                            .append(" Flushing entries.count:")
+                            .append(flushStore.getCurMsgCount())
+                            .append(" -- getCachedSize ")
+                            .append(flushStore.getCurDataCacheSize() / 1024.0 / 1024)
+                            .append(" Mb").toString());
+                    strBuffer.delete(0, strBuffer.length());
+                }
+                // the slot is still readable while being flushed
+                flushStore.batchFlush(msgFileStore, strBuffer);
+                writeCacheMutex.writeLock().lock();
+                try {
+                    msgMemStoresBeingFlush.pollFirst();
+                    msgMemStoresIdle.addLast(flushStore);
+                    flushWriteCacheCondition.signalAll();
+                } finally {
+                    writeCacheMutex.writeLock().unlock();
+                }
+            }
+            if (isClosing) {
+                writeCacheMutex.writeLock().lock();
+                try {
+                    msgMemStore.batchFlush(msgFileStore, strBuffer);
+                } finally {
+                    writeCacheMutex.writeLock().unlock();
+                }
             }
         } catch (Throwable e) {
             if (e instanceof IOException) {
@@ -840,7 +996,6 @@ public class MessageStore implements Closeable {
                 throw new IOException(e);
             }
         } finally {
-            isFlushOngoing.set(false);
             flushMutex.unlock();
             if (logger.isDebugEnabled()) {
                 logger.debug(strBuffer.append("[Data Store] StoreKey=")
@@ -850,42 +1005,4 @@ public class MessageStore implements Closeable {
             }
         }
     }
-
-    private void swapWriteCache(final StringBuilder strBuffer) throws Throwable {
-        long lastDataPos;
-        long lastIndexPos;
-        MsgMemStore tmpStore = null;
-        boolean isRealloc = false;
-        writeCacheMutex.writeLock().lock();
-        try {
-            lastDataPos = msgMemStore.getDataLastWritePos();
-            lastIndexPos = msgMemStore.getIndexLastWritePos();
-            tmpStore = msgMemStoreBeingFlush;
-            msgMemStoreBeingFlush = msgMemStore;
-            if (tmpStore.getMaxAllowedMsgCount() == writeCacheMaxCnt
-                    && tmpStore.getMaxDataCacheSize() == writeCacheMaxSize) {
-                msgMemStore = tmpStore;
-                msgMemStore.resetMemStoreStatus(lastDataPos, lastIndexPos);
-            } else {
-                isRealloc = true;
-                msgMemStore = new MsgMemStore(writeCacheMaxSize,
-                        writeCacheMaxCnt, lastDataPos, lastIndexPos);
-            }
-            hasFlushBeenTriggered.set(false);
-            flushWriteCacheCondition.signalAll();
-        } finally {
-            isFlushOngoing.set(true);
-            writeCacheMutex.writeLock().unlock();
-            if (isRealloc) {
-                tmpStore.close();
-                msgStoreStatsHolder.addCacheReAlloc();
-                logger.info(strBuffer.append("[Data Store] Found ").append(getStoreKey())
-                        .append(" Cache capacity change, new MemSize=")
-                        .append(writeCacheMaxSize).append(", new CacheCnt=")
-                        .append(writeCacheMaxCnt).toString());
-                strBuffer.delete(0, strBuffer.length());
-            }
-        }
-        msgMemStoreBeingFlush.batchFlush(msgFileStore, strBuffer);
-    }
 }
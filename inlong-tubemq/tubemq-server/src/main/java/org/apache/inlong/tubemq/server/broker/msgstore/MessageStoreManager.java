@@ -78,6 +78,10 @@ public class MessageStoreManager implements StoreService {
     private final ScheduledExecutorService logClearScheduler;
     // flush operation scheduler.
     private final ScheduledExecutorService unFlushDiskScheduler;
+    // flush workers grouped by disk
+    private final DiskFlushScheduler diskFlushScheduler;
+    // notify the parked fetch requests of new messages
+    private final MsgArrivalNotifier msgArrivalNotifier = new MsgArrivalNotifier();
     // message on memory sink to disk operation scheduler.
     private final ScheduledExecutorService unFlushMemScheduler;
     // max transfer size.
@@ -126,6 +130,8 @@ public class MessageStoreManager implements StoreService {
                         return new Thread(r, "Broker Log Disk Flush Thread");
                     }
                 });
+        this.diskFlushScheduler =
+                new DiskFlushScheduler(tubeConfig.getLogFlushDiskThreadCnt());
         this.unFlushMemScheduler =
                 Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
                     @Override
@@ -172,6 +178,7 @@ public class MessageStoreManager implements StoreService {
             logger.info("[Store Manager] begin close store manager......");
             this.logClearScheduler.shutdownNow();
             this.unFlushDiskScheduler.shutdownNow();
+            this.diskFlushScheduler.close();
             this.unFlushMemScheduler.shutdownNow();
             for (Map.Entry<String, ConcurrentHashMap<Integer, MessageStore>> entry :
                     this.dataStores.entrySet()) {
@@ -386,6 +393,19 @@ public class MessageStoreManager implements StoreService {
         return tubeBroker.getMetadataManager();
     }
 
+    public MsgArrivalNotifier getMsgArrivalNotifier() {
+        return msgArrivalNotifier;
+    }
+
+    /**
+     * Request a flush of the store, merged into the next flush round of its disk.
+     *
+     * @param msgStore    the message store to be flushed
+     */
+    public void requestDiskFlush(MessageStore msgStore) {
+        diskFlushScheduler.requestFlush(msgStore);
+    }
+
     public int getMaxMsgTransferSize() {
         return maxMsgTransferSize;
     }
@@ -788,25 +808,22 @@ public class MessageStoreManager implements StoreService {
 
         @Override
         public void run() {
-            StringBuilder sBuilder = new StringBuilder(256);
+            List<MessageStore> msgStores = new ArrayList<>();
             for (Map<Integer, MessageStore> storeMap : dataStores.values()) {
                 if (storeMap == null || storeMap.isEmpty()) {
                     continue;
                 }
                 for (MessageStore msgStore : storeMap.values()) {
-                    if (msgStore == null) {
-                        continue;
-                    }
-                    try {
-                        msgStore.flushFile();
-                    } catch (final Throwable e) {
-                        logger.error(sBuilder.append("[Store Manager] Try to flush ")
-                                .append(msgStore.getStoreKey())
-                                .append("'s file-store failed : ").toString(), e);
-                        sBuilder.delete(0, sBuilder.length());
+                    if (msgStore != null) {
+                        msgStores.add(msgStore);
                     }
                 }
             }
+            try {
+                diskFlushScheduler.flushStores(msgStores);
+            } catch (final Throwable e) {
+                logger.error("[Store Manager] Try to dispatch file-store flush failed : ", e);
+            }
         }
     }
 
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Message arrival notifier. The fetch requests waiting for new data register themselves
+ * on the partitions, and are notified when a message is appended to the partition.
+ *
+ * Appending a message only costs a map lookup when there is no waiter on the partition.
+ */
+public class MsgArrivalNotifier {
+    // the waiters of partitions, partition key -> waiters
+    private final ConcurrentHashMap<String, Set<ArrivalWaiter>> partWaiters =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Register the waiter on the partition.
+     *
+     * @param topic          the topic name
+     * @param partitionId    the partition id
+     * @param waiter         the waiter to be notified
+     */
+    public void register(String topic, int partitionId, ArrivalWaiter waiter) {
+        // add in the compute, so the set is not removed as empty before the add
+        partWaiters.compute(getPartKey(topic, partitionId), (k, waiters) -> {
+            if (waiters == null) {
+                waiters = ConcurrentHashMap.newKeySet();
+            }
+            waiters.add(waiter);
+            return waiters;
+        });
+    }
+
+    /**
+     * Remove the waiter from the partition.
+     *
+     * @param topic          the topic name
+     * @param partitionId    the partition id
+     * @param waiter         the waiter to be removed
+     */
+    public void unregister(String topic, int partitionId, ArrivalWaiter waiter) {
+        // remove the empty waiter set, so the idle partitions do not accumulate
+        partWaiters.computeIfPresent(getPartKey(topic, partitionId), (k, waiters) -> {
+            waiters.remove(waiter);
+            return waiters.isEmpty() ? null : waiters;
+        });
+    }
+
+    /**
+     * Notify the waiters of the partition that new messages have arrived.
+     *
+     * @param topic          the topic name
+     * @param partitionId    the partition id
+     */
+    public void notifyArrival(String topic, int partitionId) {
+        if (partWaiters.isEmpty()) {
+            return;
+        }
+        Set<ArrivalWaiter> waiters = partWaiters.get(getPartKey(topic, partitionId));
+        if (waiters == null || waiters.isEmpty()) {
+            return;
+        }
+        long arrivalTime = System.currentTimeMillis();
+        Iterator<ArrivalWaiter> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            ArrivalWaiter waiter = iterator.next();
+            iterator.remove();
+            waiter.onArrival(arrivalTime);
+        }
+        partWaiters.computeIfPresent(getPartKey(topic, partitionId),
+                (k, curWaiters) -> curWaiters.isEmpty() ? null : curWaiters);
+    }
+
+    /**
+     * Get the count of waiters on all partitions.
+     *
+     * @return the waiter count
+     */
+    public int getWaiterCount() {
+        int count = 0;
+        for (Set<ArrivalWaiter> waiters : partWaiters.values()) {
+            count += waiters.size();
+        }
+        return count;
+    }
+
+    private String getPartKey(String topic, int partitionId) {
+        return topic + "-" + partitionId;
+    }
+
+    /**
+     * The waiter of new messages on a partition.
+     */
+    public interface ArrivalWaiter {
+
+        /**
+         * Called when new messages are appended to the partition, the waiter is
+         * removed from the partition before the call.
+         *
+         * @param arrivalTime    the time the messages arrived
+         */
+        void onArrival(long arrivalTime);
+    }
+}
@@ -145,6 +145,7 @@ public class MsgFileStore implements Closeable {
         boolean pendingMsgSizeExceed = false;
         boolean pendingMsgTimeExceed = false;
         boolean isForceMetadata = false;
+        boolean isFlushRequested = false;
         // flushed message message count and data size info
         long flushedMsgCnt = 0;
         long flushedDataSize = 0;
@@ -203,7 +204,7 @@ public class MsgFileStore implements Closeable {
             pendingMsgTimeExceed = currTime - this.lastFlushTime.get() >= messageStore.getUnflushInterval();
             boolean isSegmentRollOver =  isDataSegFlushed || isIndexSegFlushed;
 
-            if (pendingMsgCntExceed || pendingMsgTimeExceed || pendingMsgSizeExceed || isSegmentRollOver) {
+            if (isSegmentRollOver) {
                 isForceMetadata = isSegmentRollOver || (currTime - this.lastMetaFlushTime.get() > MAX_META_REFRESH_DUR);
                 if (!isDataSegFlushed) {
                     curDataSeg.flush(isForceMetadata);
@@ -217,6 +218,9 @@ public class MsgFileStore implements Closeable {
                 if (isForceMetadata) {
                     this.lastMetaFlushTime.set(this.lastFlushTime.get());
                 }
+            } else if (pendingMsgCntExceed || pendingMsgTimeExceed || pendingMsgSizeExceed) {
+                // sync in the next flush round of the disk, the requests before it share one sync
+                isFlushRequested = true;
             }
             // print abnormal information
             if (inIndexOffset != indexOffset || inDataOffset != dataOffset) {
@@ -242,6 +246,9 @@ public class MsgFileStore implements Closeable {
             samplePrintCtrl.printExceptionCaught(e);
         } finally {
             this.writeLock.unlock();
+            if (isFlushRequested) {
+                messageStore.requestFileFlush();
+            }
             // add statistics.
             msgStoreStatsHolder.addFileFlushStatsInfo(msgCnt, indexSize, dataSize,
                     flushedMsgCnt, flushedDataSize, isDataSegFlushed, isIndexSegFlushed,
@@ -519,22 +526,23 @@ public class MsgFileStore implements Closeable {
     }
 
     /**
-     * Flush data to disk at interval.
+     * Flush data to disk at interval, or at once if the flush is requested by the appending.
      *
+     * @param isRequested    whether the flush is requested by the appending
      * @throws IOException the exception during processing
      */
-    public void flushDiskFile() throws IOException {
+    public void flushDiskFile(boolean isRequested) throws IOException {
         long checkTimestamp = System.currentTimeMillis();
-        if ((curUnflushed.get() > 0)
-                && (checkTimestamp - lastFlushTime.get() >= messageStore.getUnflushInterval())) {
+        if ((curUnflushed.get() > 0) && (isRequested
+                || checkTimestamp - lastFlushTime.get() >= messageStore.getUnflushInterval())) {
             long flushedMsgCnt = 0L;
             long flushedDataSize = 0L;
             boolean forceMetadata = false;
             this.writeLock.lock();
             try {
                 checkTimestamp = System.currentTimeMillis();
-                if ((curUnflushed.get() >= 0)
-                        && (checkTimestamp - lastFlushTime.get() >= messageStore.getUnflushInterval())) {
+                if ((curUnflushed.get() >= 0) && (isRequested
+                        || checkTimestamp - lastFlushTime.get() >= messageStore.getUnflushInterval())) {
                     forceMetadata =
                             (checkTimestamp - lastMetaFlushTime.get()) > MAX_META_REFRESH_DUR;
                     dataSegments.flushLast(forceMetadata);
@@ -18,10 +18,12 @@
 package org.apache.inlong.tubemq.server.broker.stats;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.metric.impl.ESTHistogram;
+import org.apache.inlong.tubemq.corebase.metric.impl.LongMaxGauge;
 import org.apache.inlong.tubemq.corebase.metric.impl.LongOnlineCounter;
 import org.apache.inlong.tubemq.corebase.metric.impl.LongStatsCounter;
 import org.apache.inlong.tubemq.corebase.metric.impl.SinceTime;
@@ -37,6 +39,9 @@ public class BrokerSrvStatsHolder {
     // Consumer client online statistic
     private static final LongOnlineCounter csmOnlineCnt =
             new LongOnlineCounter("consumer_online_cnt", null);
+    // Fetch requests parked on the broker waiting for new messages
+    private static final LongOnlineCounter parkedFetchCnt =
+            new LongOnlineCounter("parked_fetch_cnt", null);
     // Switchable statistic items
     private static final ServiceStatsSet[] switchableSets = new ServiceStatsSet[2];
     // Current writable index
@@ -132,6 +137,57 @@ public class BrokerSrvStatsHolder {
         switchableSets[getIndex()].fileSyncDltStats.update(dltTime);
     }
 
+    /**
+     * Update the duration of one flush round of the stores on the disk.
+     *
+     * @param diskName    the disk name
+     * @param dltTime     the flush round duration
+     */
+    public static void updDiskFlushDlt(String diskName, long dltTime) {
+        if (diskSyncClosed) {
+            return;
+        }
+        switchableSets[getIndex()].getDiskFlushStats(diskName).flushDltStats.update(dltTime);
+    }
+
+    /**
+     * Update the count of stores waiting to be flushed on the disk.
+     *
+     * @param diskName    the disk name
+     * @param backlog     the waiting store count
+     */
+    public static void updDiskFlushBacklog(String diskName, long backlog) {
+        if (diskSyncClosed) {
+            return;
+        }
+        switchableSets[getIndex()].getDiskFlushStats(diskName).flushBacklog.update(backlog);
+    }
+
+    public static void incParkedFetchCnt() {
+        parkedFetchCnt.incValue();
+    }
+
+    /**
+     * Decrease the parked fetch count when the request is resumed.
+     *
+     * @param isTimeout    whether the request is resumed by timeout
+     */
+    public static void decParkedFetchCnt(boolean isTimeout) {
+        parkedFetchCnt.decValue();
+        if (isTimeout) {
+            switchableSets[getIndex()].parkedFetchTimeoutStats.incValue();
+        }
+    }
+
+    /**
+     * Update the duration from the message arrival to the parked fetch request completed.
+     *
+     * @param dltTime    the wake-up duration
+     */
+    public static void updParkedFetchWakeupDlt(long dltTime) {
+        switchableSets[getIndex()].parkedFetchWakeupDltStats.update(dltTime);
+    }
+
     public static void updZKSyncDataDlt(long dltTime) {
         switchableSets[getIndex()].zkSyncDltStats.update(dltTime);
     }
@@ -172,6 +228,16 @@ public class BrokerSrvStatsHolder {
                     csmOnlineCnt.getAndResetValue());
             statsMap.put(statsSet.csmTimeoutStats.getFullName(),
                     statsSet.csmTimeoutStats.getAndResetValue());
+            statsMap.put(parkedFetchCnt.getFullName(),
+                    parkedFetchCnt.getAndResetValue());
+            statsMap.put(statsSet.parkedFetchTimeoutStats.getFullName(),
+                    statsSet.parkedFetchTimeoutStats.getAndResetValue());
+            statsSet.parkedFetchWakeupDltStats.snapShort(statsMap, false);
+            for (DiskFlushStatsItem diskStats : statsSet.diskFlushStats.values()) {
+                diskStats.flushDltStats.snapShort(statsMap, false);
+                statsMap.put(diskStats.flushBacklog.getFullName(),
+                        diskStats.flushBacklog.getAndResetValue());
+            }
         } else {
             statsSet.fileSyncDltStats.getValue(statsMap, false);
             statsMap.put(statsSet.fileIOExcStats.getFullName(),
@@ -187,6 +253,16 @@ public class BrokerSrvStatsHolder {
                     csmOnlineCnt.getValue());
             statsMap.put(statsSet.csmTimeoutStats.getFullName(),
                     statsSet.csmTimeoutStats.getValue());
+            statsMap.put(parkedFetchCnt.getFullName(),
+                    parkedFetchCnt.getValue());
+            statsMap.put(statsSet.parkedFetchTimeoutStats.getFullName(),
+                    statsSet.parkedFetchTimeoutStats.getValue());
+            statsSet.parkedFetchWakeupDltStats.getValue(statsMap, false);
+            for (DiskFlushStatsItem diskStats : statsSet.diskFlushStats.values()) {
+                diskStats.flushDltStats.getValue(statsMap, false);
+                statsMap.put(diskStats.flushBacklog.getFullName(),
+                        diskStats.flushBacklog.getValue());
+            }
         }
     }
 
@@ -213,7 +289,19 @@ public class BrokerSrvStatsHolder {
                     .append("\":").append(csmOnlineCnt.getAndResetValue())
                     .append(",\"").append(statsSet.csmTimeoutStats.getFullName())
                     .append("\":").append(statsSet.csmTimeoutStats.getAndResetValue())
-                    .append("}");
+                    .append(",\"").append(parkedFetchCnt.getFullName())
+                    .append("\":").append(parkedFetchCnt.getAndResetValue())
+                    .append(",\"").append(statsSet.parkedFetchTimeoutStats.getFullName())
+                    .append("\":").append(statsSet.parkedFetchTimeoutStats.getAndResetValue())
+                    .append(",");
+            statsSet.parkedFetchWakeupDltStats.snapShort(strBuff, false);
+            for (DiskFlushStatsItem diskStats : statsSet.diskFlushStats.values()) {
+                strBuff.append(",");
+                diskStats.flushDltStats.snapShort(strBuff, false);
+                strBuff.append(",\"").append(diskStats.flushBacklog.getFullName())
+                        .append("\":").append(diskStats.flushBacklog.getAndResetValue());
+            }
+            strBuff.append("}");
         } else {
             statsSet.fileSyncDltStats.snapShort(strBuff, false);
             strBuff.append(",\"").append(statsSet.fileIOExcStats.getFullName())
@@ -230,7 +318,19 @@ public class BrokerSrvStatsHolder {
                     .append("\":").append(csmOnlineCnt.getValue())
                     .append(",\"").append(statsSet.csmTimeoutStats.getFullName())
                     .append("\":").append(statsSet.csmTimeoutStats.getValue())
-                    .append("}");
+                    .append(",\"").append(parkedFetchCnt.getFullName())
+                    .append("\":").append(parkedFetchCnt.getValue())
+                    .append(",\"").append(statsSet.parkedFetchTimeoutStats.getFullName())
+                    .append("\":").append(statsSet.parkedFetchTimeoutStats.getValue())
+                    .append(",");
+            statsSet.parkedFetchWakeupDltStats.getValue(strBuff, false);
+            for (DiskFlushStatsItem diskStats : statsSet.diskFlushStats.values()) {
+                strBuff.append(",");
+                diskStats.flushDltStats.getValue(strBuff, false);
+                strBuff.append(",\"").append(diskStats.flushBacklog.getFullName())
+                        .append("\":").append(diskStats.flushBacklog.getValue());
+            }
+            strBuff.append("}");
         }
     }
 
@@ -281,6 +381,14 @@ public class BrokerSrvStatsHolder {
         // Consumer 2 Broker status statistics
         protected final LongStatsCounter csmTimeoutStats =
                 new LongStatsCounter("consumer_timeout_cnt", null);
+        // Parked fetch statistics
+        protected final LongStatsCounter parkedFetchTimeoutStats =
+                new LongStatsCounter("parked_fetch_timeout_cnt", null);
+        protected final ESTHistogram parkedFetchWakeupDltStats =
+                new ESTHistogram("parked_fetch_wakeup_dlt", null);
+        // Disk flush statistics, grouped by disk name
+        protected final ConcurrentHashMap<String, DiskFlushStatsItem> diskFlushStats =
+                new ConcurrentHashMap<>();
 
         public ServiceStatsSet() {
             resetSinceTime();
@@ -289,6 +397,34 @@ public class BrokerSrvStatsHolder {
         public void resetSinceTime() {
             this.lstResetTime.reset();
         }
+
+        public DiskFlushStatsItem getDiskFlushStats(String diskName) {
+            DiskFlushStatsItem diskStats = diskFlushStats.get(diskName);
+            if (diskStats == null) {
+                DiskFlushStatsItem newStats = new DiskFlushStatsItem(diskName);
+                diskStats = diskFlushStats.putIfAbsent(diskName, newStats);
+                if (diskStats == null) {
+                    diskStats = newStats;
+                }
+            }
+            return diskStats;
+        }
+    }
+
+    /**
+     * DiskFlushStatsItem, the flush statistics of the stores on one disk
+     */
+    private static class DiskFlushStatsItem {
+        // Delay statistics for one flush round of the disk
+        protected final ESTHistogram flushDltStats;
+        // The maximum count of stores waiting to be flushed
+        protected final LongMaxGauge flushBacklog;
+
+        public DiskFlushStatsItem(String diskName) {
+            String prefix = "disk_" + diskName;
+            this.flushDltStats = new ESTHistogram("flush_dlt", prefix);
+            this.flushBacklog = new LongMaxGauge("flush_backlog", prefix);
+        }
     }
 }
 
@@ -95,6 +95,18 @@ public class MsgStoreStatsHolder {
         msgStoreStatsSets[getIndex()].cacheFlushPendingCnt.incValue();
     }
 
+    /**
+     * Add the time producers stalled while all cache slots wait to be flushed.
+     *
+     * @param stallTime          the stall time
+     */
+    public void addCacheFlushStall(long stallTime) {
+        if (isClosed) {
+            return;
+        }
+        msgStoreStatsSets[getIndex()].cacheFlushStallStats.update(stallTime);
+    }
+
     /**
      * Add cache re-alloc count statistics.
      */
@@ -416,6 +428,7 @@ public class MsgStoreStatsHolder {
         statsMap.put(statsSet.cacheReAllocCnt.getFullName(),
                 statsSet.cacheReAllocCnt.getValue());
         statsSet.cacheSyncStats.getValue(statsMap, false);
+        statsSet.cacheFlushStallStats.getValue(statsMap, false);
         // for file store
         statsMap.put(statsSet.fileAccumMsgCnt.getFullName(),
                 statsSet.fileAccumMsgCnt.getValue());
@@ -476,6 +489,8 @@ public class MsgStoreStatsHolder {
                 .append("\":").append(statsSet.cacheDataSizeFullCnt.getValue())
                 .append(",");
         statsSet.cacheSyncStats.getValue(strBuff, false);
+        strBuff.append(",");
+        statsSet.cacheFlushStallStats.getValue(strBuff, false);
         strBuff.append(",\"").append(statsSet.fileAccumMsgCnt.getFullName())
                 .append("\":").append(statsSet.fileAccumMsgCnt.getValue())
                 .append(",\"").append(statsSet.fileAccumMsgDataSize.getFullName())
@@ -543,6 +558,9 @@ public class MsgStoreStatsHolder {
         // The cache persistence duration statistics
         protected final ESTHistogram cacheSyncStats =
                 new ESTHistogram("cache_flush_dlt", null);
+        // The producer stall duration statistics while waiting for a free cache slot
+        protected final ESTHistogram cacheFlushStallStats =
+                new ESTHistogram("cache_flush_stall", null);
         // for file store
         // The accumulate message count statistics
         protected final LongStatsCounter fileAccumMsgCnt =
@@ -613,6 +631,7 @@ public class MsgStoreStatsHolder {
             this.cacheReAllocCnt.clear();
             this.cacheTimeFullCnt.clear();
             this.cacheSyncStats.clear();
+            this.cacheFlushStallStats.clear();
             this.resetTime.reset();
         }
     }
@@ -99,6 +99,17 @@ public final class TServerConstants {
     public static final long CFG_DEFAULT_GROUP_OFFSET_SCAN_DUR = 60000L;
     public static final long CFG_MIN_GROUP_OFFSET_SCAN_DUR = 30000L;
     public static final long CFG_MAX_GROUP_OFFSET_SCAN_DUR = 480000L;
+    public static final int CFG_DEFAULT_MEM_STORE_SLOT_COUNT = 2;
+    public static final int CFG_MIN_MEM_STORE_SLOT_COUNT = 2;
+    public static final int CFG_MAX_MEM_STORE_SLOT_COUNT = 16;
+    public static final int CFG_DEFAULT_FLUSH_DISK_THREAD_CNT = 1;
+    public static final int CFG_MIN_FLUSH_DISK_THREAD_CNT = 1;
+    public static final int CFG_MAX_FLUSH_DISK_THREAD_CNT = 16;
+    public static final long CFG_DEFAULT_FETCH_MAX_PARK_MS = 5000L;
+    public static final long CFG_MAX_FETCH_MAX_PARK_MS = 30000L;
+    public static final int CFG_DEFAULT_FETCH_PARK_THREAD_CNT = 4;
+    public static final int CFG_MIN_FETCH_PARK_THREAD_CNT = 1;
+    public static final int CFG_MAX_FETCH_PARK_THREAD_CNT = 64;
 
     public static final long CFG_OFFSET_RESET_MIN_ALARM_CHECK =
             DataStoreUtils.STORE_INDEX_HEAD_LEN * 100000L;
@@ -55,6 +55,13 @@ public class BrokerSrvStatsHolderTest {
         // add IO exception, add 2
         BrokerSrvStatsHolder.incDiskIOExcCnt();
         BrokerSrvStatsHolder.incDiskIOExcCnt();
+        // add disk flush statistics of 2 disks
+        BrokerSrvStatsHolder.updDiskFlushDlt("sda", 20);
+        BrokerSrvStatsHolder.updDiskFlushDlt("sda", 200);
+        BrokerSrvStatsHolder.updDiskFlushDlt("sdb", 5);
+        BrokerSrvStatsHolder.updDiskFlushBacklog("sda", 30);
+        BrokerSrvStatsHolder.updDiskFlushBacklog("sda", 3);
+        BrokerSrvStatsHolder.updDiskFlushBacklog("sdb", 0);
         // check result
         Map<String, Long> retMap = new LinkedHashMap<>();
         BrokerSrvStatsHolder.getValue(retMap);
@@ -75,6 +82,12 @@ public class BrokerSrvStatsHolderTest {
         Assert.assertEquals(10, retMap.get("file_sync_dlt_min").longValue());
         Assert.assertEquals(1, retMap.get("file_sync_dlt_cell_8t16").longValue());
         Assert.assertEquals(1, retMap.get("file_sync_dlt_cell_64t128").longValue());
+        Assert.assertEquals(2, retMap.get("disk_sda_flush_dlt_count").longValue());
+        Assert.assertEquals(200, retMap.get("disk_sda_flush_dlt_max").longValue());
+        Assert.assertEquals(20, retMap.get("disk_sda_flush_dlt_min").longValue());
+        Assert.assertEquals(30, retMap.get("disk_sda_flush_backlog").longValue());
+        Assert.assertEquals(1, retMap.get("disk_sdb_flush_dlt_count").longValue());
+        Assert.assertEquals(0, retMap.get("disk_sdb_flush_backlog").longValue());
         final long sinceTime1 = retMap.get("reset_time");
         // verify snapshot
         BrokerSrvStatsHolder.snapShort(retMap);
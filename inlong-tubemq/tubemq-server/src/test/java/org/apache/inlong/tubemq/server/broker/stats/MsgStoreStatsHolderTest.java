@@ -55,6 +55,7 @@ public class MsgStoreStatsHolderTest {
         Assert.assertEquals(0, retMap.get("cache_flush_dlt_count").longValue());
         Assert.assertEquals(Long.MIN_VALUE, retMap.get("cache_flush_dlt_max").longValue());
         Assert.assertEquals(Long.MAX_VALUE, retMap.get("cache_flush_dlt_min").longValue());
+        Assert.assertEquals(0, retMap.get("cache_flush_stall_count").longValue());
         Assert.assertNotNull(retMap.get("end_time"));
         retMap.clear();
         // get content by StringBuilder
@@ -83,6 +84,8 @@ public class MsgStoreStatsHolderTest {
         msgStoreStatsHolder.addCachePending();
         msgStoreStatsHolder.addCachePending();
         msgStoreStatsHolder.addCachePending();
+        msgStoreStatsHolder.addCacheFlushStall(20);
+        msgStoreStatsHolder.addCacheFlushStall(300);
         msgStoreStatsHolder.getValue(retMap);
         Assert.assertNotNull(retMap.get("reset_time"));
         Assert.assertEquals(3, retMap.get("cache_msg_in_count").longValue());
@@ -102,6 +105,9 @@ public class MsgStoreStatsHolderTest {
         Assert.assertEquals(1, retMap.get("cache_flush_dlt_cell_8t16").longValue());
         Assert.assertEquals(1, retMap.get("cache_flush_dlt_cell_32t64").longValue());
         Assert.assertEquals(1, retMap.get("cache_flush_dlt_cell_64t128").longValue());
+        Assert.assertEquals(2, retMap.get("cache_flush_stall_count").longValue());
+        Assert.assertEquals(300, retMap.get("cache_flush_stall_max").longValue());
+        Assert.assertEquals(20, retMap.get("cache_flush_stall_min").longValue());
         Assert.assertNotNull(retMap.get("end_time"));
         msgStoreStatsHolder.getMsgStoreStatsInfo(false, strBuff);
         // System.out.println("\n the second is : " + strBuff.toString());